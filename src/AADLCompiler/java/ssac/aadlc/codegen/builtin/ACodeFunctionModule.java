@@ -20,6 +20,8 @@
  *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
  */
 /*
+ * @(#)ACodeFunctionModule.java	2.3.0	2026/10/18
+ *     - modified
  * @(#)ACodeFunctionModule.java	2.2.0	2015/05/29
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)ACodeFunctionModule.java	2.0.0	2014/03/22
@@ -99,7 +101,7 @@ import ssac.aadlc.codegen.ACodeModule;
  * コンパイルによって転換されたJAVAコードのメソッドとして
  * 埋め込まれる。
  * 
- * @version 2.2.0	2015/05/29
+ * @version 2.3.0	2026/10/18
  */
 public class ACodeFunctionModule extends ACodeModule
 {
@@ -442,6 +444,16 @@ public class ACodeFunctionModule extends ACodeModule
 			new ACodeFunctionModule(new AADLFuncType("toCsvString", APrimString.instance,
 					new AADLCollectionType("Collection", java.util.Collection.class, AADLObject.instance))),
 			new ACodeFunctionModule(new AADLFuncType("newStringListFromCsvString", APrimStringList.instance, APrimString.instance)),
+			
+			// @since 2.3.0
+			new ACodeFunctionModule(new AADLFuncType("parallelSum", APrimExalge.instance, APrimExAlgeSet.instance)),
+			new ACodeFunctionModule(new AADLFuncType("parallelNotzeroProj", APrimExAlgeSet.instance, APrimExAlgeSet.instance)),
+			new ACodeFunctionModule(new AADLFuncType("parallelProj", APrimExAlgeSet.instance, APrimExAlgeSet.instance, APrimExBase.instance)),
+			new ACodeFunctionModule(new AADLFuncType("parallelProj", APrimExAlgeSet.instance, APrimExAlgeSet.instance, APrimExBaseSet.instance)),
+			new ACodeFunctionModule(new AADLFuncType("parallelGeneralProj", APrimExAlgeSet.instance, APrimExAlgeSet.instance, APrimExBase.instance)),
+			new ACodeFunctionModule(new AADLFuncType("parallelGeneralProj", APrimExAlgeSet.instance, APrimExAlgeSet.instance, APrimExBaseSet.instance)),
+			new ACodeFunctionModule(new AADLFuncType("parallelPatternProj", APrimExAlgeSet.instance, APrimExAlgeSet.instance, APrimExBasePattern.instance)),
+			new ACodeFunctionModule(new AADLFuncType("parallelPatternProj", APrimExAlgeSet.instance, APrimExAlgeSet.instance, APrimExBasePatternSet.instance)),
 	};
 	
 	protected final AADLFuncType funcType;
@@ -20,6 +20,8 @@
  *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
  */
 /*
+ * @(#)AADLFunctions.java	2.3.0	2026/10/18
+ *     - modified
  * @(#)AADLFunctions.java	2.2.0	2015/05/29
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)AADLFunctions.java	2.1.0	2014/05/29
@@ -77,7 +79,7 @@ import exalge2.TransTable;
 /**
  * AADL組み込み関数
  * 
- * @version 2.2.0	2015/05/29
+ * @version 2.3.0	2026/10/18
  * 
  * @author Yasunari Ishizuka (PieCake,Inc.)
  * @author Hiroshi Deguchi (TOKYO INSTITUTE OF TECHNOLOGY)
@@ -6540,6 +6542,136 @@ public class AADLFunctions
 		return strlen;
 	}
 
+	//------------------------------------------------------------
+	// Public interfaces since 2.3.0
+	//------------------------------------------------------------
+
+	/**
+	 * 交換代数集合(<em>algeset</em>)に含まれる全要素の総和を、利用可能なプロセッサ数のスレッドで計算します。
+	 * 結果は {@link #sum(ExAlgeSet)} と同一となります。
+	 * @param algeset	対象の交換代数集合
+	 * @return 交換代数元の総和
+	 * @throws NullPointerException	引数が <tt>null</tt> の場合
+	 * @see exalge2.ExAlgeSet#parallelSum()
+	 * @see exalge2.Exalge#parallelSum(Collection)
+	 * 
+	 * @since 2.3.0
+	 */
+	static public Exalge parallelSum(ExAlgeSet algeset) {
+		return algeset.parallelSum();
+	}
+
+	/**
+	 * 交換代数集合(<em>alges</em>)から、値が 0 ではない要素のみを含む交換代数元の集合を、
+	 * 利用可能なプロセッサ数のスレッドで生成します。
+	 * 結果は {@link #notzeroProj(ExAlgeSet)} と同一となります。
+	 * @param alges	交換代数集合
+	 * @return	値が 0 ではない要素のみを含む交換代数元の集合
+	 * @throws NullPointerException	引数が <tt>null</tt> の場合
+	 * @see exalge2.ExAlgeSet#parallelNotzeroProjection(int)
+	 * 
+	 * @since 2.3.0
+	 */
+	static public ExAlgeSet parallelNotzeroProj(ExAlgeSet alges) {
+		return alges.parallelNotzeroProjection(0);
+	}
+
+	/**
+	 * 交換代数集合(<em>alges</em>)のすべての交換代数元を、指定された基底(<em>base</em>)で
+	 * 利用可能なプロセッサ数のスレッドによりプロジェクションします。要素が空の交換代数元は含まれません。
+	 * 結果は <code>alges.proj[base]</code> と同一となります。
+	 * @param alges	交換代数集合
+	 * @param base	取り出す基底
+	 * @return	プロジェクションの結果となる交換代数集合
+	 * @throws NullPointerException	引数が <tt>null</tt> の場合
+	 * @see exalge2.ExAlgeSet#parallelProjection(ExBase, int)
+	 * 
+	 * @since 2.3.0
+	 */
+	static public ExAlgeSet parallelProj(ExAlgeSet alges, ExBase base) {
+		return alges.parallelProjection(base, 0);
+	}
+
+	/**
+	 * 交換代数集合(<em>alges</em>)のすべての交換代数元を、指定された基底集合(<em>bases</em>)で
+	 * 利用可能なプロセッサ数のスレッドによりプロジェクションします。要素が空の交換代数元は含まれません。
+	 * 結果は <code>alges.proj[bases]</code> と同一となります。
+	 * @param alges	交換代数集合
+	 * @param bases	取り出す基底の集合
+	 * @return	プロジェクションの結果となる交換代数集合
+	 * @throws NullPointerException	引数が <tt>null</tt> の場合
+	 * @see exalge2.ExAlgeSet#parallelProjection(ExBaseSet, int)
+	 * 
+	 * @since 2.3.0
+	 */
+	static public ExAlgeSet parallelProj(ExAlgeSet alges, ExBaseSet bases) {
+		return alges.parallelProjection(bases, 0);
+	}
+
+	/**
+	 * 交換代数集合(<em>alges</em>)のすべての交換代数元を、指定された基底(<em>base</em>)で
+	 * 利用可能なプロセッサ数のスレッドによりハットキーを無視してプロジェクションします。要素が空の交換代数元は含まれません。
+	 * 結果は <code>alges.generalProj[base]</code> と同一となります。
+	 * @param alges	交換代数集合
+	 * @param base	取り出す基底
+	 * @return	プロジェクションの結果となる交換代数集合
+	 * @throws NullPointerException	引数が <tt>null</tt> の場合
+	 * @see exalge2.ExAlgeSet#parallelGeneralProjection(ExBase, int)
+	 * 
+	 * @since 2.3.0
+	 */
+	static public ExAlgeSet parallelGeneralProj(ExAlgeSet alges, ExBase base) {
+		return alges.parallelGeneralProjection(base, 0);
+	}
+
+	/**
+	 * 交換代数集合(<em>alges</em>)のすべての交換代数元を、指定された基底集合(<em>bases</em>)で
+	 * 利用可能なプロセッサ数のスレッドによりハットキーを無視してプロジェクションします。要素が空の交換代数元は含まれません。
+	 * 結果は <code>alges.generalProj[bases]</code> と同一となります。
+	 * @param alges	交換代数集合
+	 * @param bases	取り出す基底の集合
+	 * @return	プロジェクションの結果となる交換代数集合
+	 * @throws NullPointerException	引数が <tt>null</tt> の場合
+	 * @see exalge2.ExAlgeSet#parallelGeneralProjection(ExBaseSet, int)
+	 * 
+	 * @since 2.3.0
+	 */
+	static public ExAlgeSet parallelGeneralProj(ExAlgeSet alges, ExBaseSet bases) {
+		return alges.parallelGeneralProjection(bases, 0);
+	}
+
+	/**
+	 * 交換代数集合(<em>alges</em>)のすべての交換代数元を、指定された基底パターン(<em>pattern</em>)で
+	 * 利用可能なプロセッサ数のスレッドによりプロジェクションします。要素が空の交換代数元は含まれません。
+	 * 結果は <code>alges.patternProj[pattern]</code> と同一となります。
+	 * @param alges		交換代数集合
+	 * @param pattern	基底パターン
+	 * @return	プロジェクションの結果となる交換代数集合
+	 * @throws NullPointerException	引数が <tt>null</tt> の場合
+	 * @see exalge2.ExAlgeSet#parallelPatternProjection(ExBasePattern, int)
+	 * 
+	 * @since 2.3.0
+	 */
+	static public ExAlgeSet parallelPatternProj(ExAlgeSet alges, ExBasePattern pattern) {
+		return alges.parallelPatternProjection(pattern, 0);
+	}
+
+	/**
+	 * 交換代数集合(<em>alges</em>)のすべての交換代数元を、指定された基底パターン集合(<em>patterns</em>)で
+	 * 利用可能なプロセッサ数のスレッドによりプロジェクションします。要素が空の交換代数元は含まれません。
+	 * 結果は <code>alges.patternProj[patterns]</code> と同一となります。
+	 * @param alges		交換代数集合
+	 * @param patterns	基底パターンの集合
+	 * @return	プロジェクションの結果となる交換代数集合
+	 * @throws NullPointerException	引数が <tt>null</tt> の場合
+	 * @see exalge2.ExAlgeSet#parallelPatternProjection(ExBasePatternSet, int)
+	 * 
+	 * @since 2.3.0
+	 */
+	static public ExAlgeSet parallelPatternProj(ExAlgeSet alges, ExBasePatternSet patterns) {
+		return alges.parallelPatternProjection(patterns, 0);
+	}
+
 	//------------------------------------------------------------
 	// Internal methods
 	//------------------------------------------------------------
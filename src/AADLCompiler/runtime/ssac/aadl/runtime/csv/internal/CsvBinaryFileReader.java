@@ -0,0 +1,397 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2016  SSAC(Systems of Social Accounting Consortium)
+ *  <author> Yasunari Ishizuka (PieCake,Inc.)
+ *  <author> Hiroshi Deguchi (TOKYO INSTITUTE OF TECHNOLOGY)
+ *  <author> Yuji Onuki (Statistics Bureau)
+ *  <author> Shungo Sakaki (Tokyo University of Technology)
+ *  <author> Akira Sasaki (HOSEI UNIVERSITY)
+ *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
+ */
+/*
+ * @(#)CsvBinaryFileReader.java	2.3.0	2026/10/18
+ *     - created
+ */
+package ssac.aadl.runtime.csv.internal;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import ssac.aadl.runtime.AADLMessages;
+import ssac.aadl.runtime.AADLRuntimeException;
+
+/**
+ * {@link CsvBinaryFileWriter} で書き込まれたバイナリ形式のファイルから、CSV 形式のレコードを読み込むリーダー。
+ * <p>{@link BigCsvFileReader} と同様に、次のレコードの読み込み位置を保存し、
+ * 保存した位置から読み込みを再開することができる。
+ * <p>空のフィールドは、標準では {@link BigCsvFileReader} と同様に空文字列として読み込む。
+ * {@link #setEmptyFieldAsNull(boolean)} の指定により、{@link ssac.aadl.runtime.io.CsvFileReader} と同様に
+ * <tt>null</tt> として読み込むこともできる。
+ * <p>ファイルが途中で終了している場合や、フィールド数、文字数、文字の符号化が不正な場合は、
+ * 不正なレコードを返さずに例外をスローする。
+ * 
+ * @version 2.3.0	2026/10/18
+ * @since 2.3.0
+ */
+public class CsvBinaryFileReader implements Iterable<List<String>>, Iterator<List<String>>
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	/** 標準の読み込みバッファサイズ **/
+	static public final int	DEFAULT_BUFFER_SIZE	= 65536;
+
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/** 読み込むファイル **/
+	protected final File		_targetFile;
+	/** 読み込むファイルのサイズ **/
+	protected final long		_fileLength;
+	/** 読み込み元のストリーム **/
+	protected FileInputStream	_in;
+	/** 読み込みバッファ **/
+	protected final byte[]		_buffer;
+	/** 読み込みバッファ先頭のファイル位置 **/
+	protected long				_bufferPos;
+	/** 読み込みバッファの有効バイト数 **/
+	protected int				_bufferLen;
+	/** 読み込みバッファ内の次の読み込み位置 **/
+	protected int				_bufferIndex;
+	/** 文字列の復号用バッファ **/
+	protected char[]			_charBuffer = new char[256];
+
+	/** 現在の読み込み済みレコード数 **/
+	protected long				_curRecCount;
+	/** 保存された次のレコードの読み込み位置(初期値=-1) **/
+	protected long				_markedPos = (-1L);
+	/** 空のフィールドとして返す値 **/
+	protected String			_emptyFieldValue = "";
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	/**
+	 * 指定されたファイルを読み込む、新しいインスタンスを生成する。
+	 * @param file	読み込むファイル
+	 * @throws NullPointerException	引数が <tt>null</tt> の場合
+	 * @throws FileNotFoundException	ファイルが存在しないか、何らかの理由で開くことができない場合
+	 */
+	public CsvBinaryFileReader(File file) throws FileNotFoundException
+	{
+		this(file, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * 指定されたファイルを読み込む、新しいインスタンスを生成する。
+	 * <em>bufferSize</em> が 1024 未満の場合、1024 バイトのバッファを確保する。
+	 * @param file	読み込むファイル
+	 * @param bufferSize	読み込みバッファのサイズ
+	 * @throws NullPointerException	<em>file</em> が <tt>null</tt> の場合
+	 * @throws FileNotFoundException	ファイルが存在しないか、何らかの理由で開くことができない場合
+	 */
+	public CsvBinaryFileReader(File file, int bufferSize) throws FileNotFoundException
+	{
+		if (file == null)
+			throw new NullPointerException("'file' is null.");
+		_buffer = new byte[Math.max(1024, bufferSize)];
+		_in = new FileInputStream(file);
+		_targetFile = file;
+		_fileLength = file.length();
+	}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	public File getFile() {
+		return _targetFile;
+	}
+
+	/**
+	 * 現在の読み込み済みレコード数を返す。
+	 */
+	public long getRecordCount() {
+		return _curRecCount;
+	}
+
+	public boolean isOpen() {
+		return (_in != null);
+	}
+
+	/**
+	 * 空のフィールドを <tt>null</tt> として読み込む場合に <tt>true</tt> を返す。
+	 */
+	public boolean isEmptyFieldAsNull() {
+		return (_emptyFieldValue == null);
+	}
+
+	/**
+	 * 空のフィールドを <tt>null</tt> として読み込むかを設定する。
+	 * @param toNull	<tt>null</tt> として読み込む場合は <tt>true</tt>、空文字列として読み込む場合は <tt>false</tt>
+	 */
+	public void setEmptyFieldAsNull(boolean toNull) {
+		_emptyFieldValue = (toNull ? null : "");
+	}
+
+	public void close() {
+		if (_in != null) {
+			try {
+				_in.close();
+			} catch (Throwable ignoreEx) {}
+			_in = null;
+		}
+	}
+
+	/**
+	 * 次のレコード先頭読み込み位置を保存する。
+	 */
+	public void markNextReadPosition() {
+		_markedPos = getPosition();
+	}
+
+	/**
+	 * 保存された読み込み位置をクリアする。
+	 */
+	public void clearMarkedReadPosition() {
+		_markedPos = (-1L);
+	}
+
+	/**
+	 * 次のレコード先頭読み込み位置を、保存された読み込み位置に設定する。
+	 * 読み込み位置が保存されていない場合は、読み込み位置を変更しない。
+	 * @throws RuntimeException	現在のストリームがクローズしている場合、もしくは、その他の入出力エラーが発生した場合
+	 */
+	public void seekToMarkedReadPosition()
+	{
+		if (_markedPos < 0L) {
+			return;
+		}
+		try {
+			ensureOpen();
+			seek(_markedPos);
+		}
+		catch (IOException ex) {
+			close();
+			throw new AADLRuntimeException(AADLMessages.formatFailedReadMessage(getFile()), ex);
+		}
+		catch (RuntimeException ex) {
+			close();
+			throw ex;
+		}
+	}
+
+	//------------------------------------------------------------
+	// Implements java.util.Iterable interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * ファイルからレコードを繰り返し取得するための反復子を返します。
+	 * このメソッドが返す反復子は <code>remove</code> をサポートしません。
+	 * @return	反復子
+	 */
+	public Iterator<List<String>> iterator() {
+		return this;
+	}
+
+	//------------------------------------------------------------
+	// Implements java.util.Iterator interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * 次のレコードが読み込み可能である場合に <tt>true</tt> を返します。
+	 */
+	public boolean hasNext() {
+		return (_in != null && getPosition() < _fileLength);
+	}
+
+	/**
+	 * 次のレコードを読み込み、読み込まれたレコードを返します。
+	 * @return	1 レコード分のフィールドのリスト
+	 * @throws NoSuchElementException	読み込むレコードが存在しない場合
+	 * @throws AADLRuntimeException	読み込みエラーが発生した場合
+	 */
+	public List<String> next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		try {
+			int numFields = readVarInt();
+			if (numFields < 0 || numFields > getRemainingLength()) {
+				// 各フィールドは 1 バイト以上
+				throw new IOException("Illegal field count : " + numFields);
+			}
+			ArrayList<String> record = new ArrayList<String>(numFields);
+			for (int i = 0; i < numFields; ++i) {
+				record.add(readString());
+			}
+			++_curRecCount;
+			return record;
+		}
+		catch (IOException ex) {
+			close();
+			throw new AADLRuntimeException(AADLMessages.formatFailedReadMessage(getFile()), ex);
+		}
+		catch (RuntimeException ex) {
+			close();
+			throw ex;
+		}
+	}
+
+	/**
+	 * このメソッドはサポートされません。
+	 * @throws UnsupportedOperationException	常にスローされる
+	 */
+	public void remove() {
+		throw new UnsupportedOperationException("Unsupported \"remove\" operation!");
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	protected void ensureOpen() throws IOException {
+		if (_in == null)
+			throw new IOException("Stream closed");
+	}
+
+	/**
+	 * 次に読み込むバイトのファイル位置を返す。
+	 */
+	protected long getPosition() {
+		return (_bufferPos + _bufferIndex);
+	}
+
+	/**
+	 * 次に読み込むバイトからファイル終端までのバイト数を返す。
+	 */
+	protected long getRemainingLength() {
+		return (_fileLength - getPosition());
+	}
+
+	protected void seek(long pos) throws IOException {
+		if (pos >= _bufferPos && pos <= (_bufferPos + _bufferLen)) {
+			_bufferIndex = (int)(pos - _bufferPos);
+		} else {
+			_in.getChannel().position(pos);
+			_bufferPos = pos;
+			_bufferLen = 0;
+			_bufferIndex = 0;
+		}
+	}
+
+	/**
+	 * 読み込みバッファが空であれば、次のデータを読み込む。
+	 * @throws EOFException	ファイル終端に達した場合
+	 */
+	protected void fillBuffer() throws IOException {
+		if (_bufferIndex < _bufferLen) {
+			return;
+		}
+		_bufferPos += _bufferLen;
+		_bufferLen = 0;
+		_bufferIndex = 0;
+		int len;
+		do {
+			len = _in.read(_buffer, 0, _buffer.length);
+		} while (len == 0);
+		if (len < 0) {
+			throw new EOFException();
+		}
+		_bufferLen = len;
+	}
+
+	protected int readByte() throws IOException {
+		if (_bufferIndex >= _bufferLen) {
+			fillBuffer();
+		}
+		return (_buffer[_bufferIndex++] & 0xFF);
+	}
+
+	protected int readVarInt() throws IOException {
+		int value = 0;
+		int shift = 0;
+		int b;
+		do {
+			if (shift >= 35) {
+				throw new IOException("Illegal variable-length integer");
+			}
+			b = readByte();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+
+	protected String readString() throws IOException {
+		int len = readVarInt();
+		if (len == 0) {
+			return _emptyFieldValue;
+		}
+		if (len < 0 || len > getRemainingLength()) {
+			// 各文字は 1 バイト以上
+			throw new IOException("Illegal field length : " + len);
+		}
+		if (_charBuffer.length < len) {
+			_charBuffer = new char[Math.max(len, _charBuffer.length * 2)];
+		}
+		char[] chars = _charBuffer;
+		for (int i = 0; i < len; ++i) {
+			int b1 = readByte();
+			if (b1 < 0x80) {
+				chars[i] = (char)b1;
+			}
+			else if ((b1 & 0xE0) == 0xC0) {
+				int b2 = readContinuationByte();
+				chars[i] = (char)(((b1 & 0x1F) << 6) | (b2 & 0x3F));
+			}
+			else if ((b1 & 0xF0) == 0xE0) {
+				int b2 = readContinuationByte();
+				int b3 = readContinuationByte();
+				chars[i] = (char)(((b1 & 0x0F) << 12) | ((b2 & 0x3F) << 6) | (b3 & 0x3F));
+			}
+			else {
+				throw new UTFDataFormatException("Illegal byte : " + b1);
+			}
+		}
+		return new String(chars, 0, len);
+	}
+
+	/**
+	 * 修正 UTF-8 の 2 バイト目以降を読み込む。
+	 * @throws UTFDataFormatException	後続バイトではない場合
+	 */
+	protected int readContinuationByte() throws IOException {
+		int b = readByte();
+		if ((b & 0xC0) != 0x80) {
+			throw new UTFDataFormatException("Illegal byte : " + b);
+		}
+		return b;
+	}
+
+	//------------------------------------------------------------
+	// Inner classes
+	//------------------------------------------------------------
+}
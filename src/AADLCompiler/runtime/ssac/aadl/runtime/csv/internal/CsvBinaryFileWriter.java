@@ -0,0 +1,307 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2016  SSAC(Systems of Social Accounting Consortium)
+ *  <author> Yasunari Ishizuka (PieCake,Inc.)
+ *  <author> Hiroshi Deguchi (TOKYO INSTITUTE OF TECHNOLOGY)
+ *  <author> Yuji Onuki (Statistics Bureau)
+ *  <author> Shungo Sakaki (Tokyo University of Technology)
+ *  <author> Akira Sasaki (HOSEI UNIVERSITY)
+ *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
+ */
+/*
+ * @(#)CsvBinaryFileWriter.java	2.3.0	2026/10/18
+ *     - created
+ */
+package ssac.aadl.runtime.csv.internal;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import ssac.aadl.runtime.AADLMessages;
+import ssac.aadl.runtime.AADLRuntimeException;
+import ssac.aadl.runtime.io.internal.ICsvRecordWriter;
+
+/**
+ * CSV 形式のレコードを、内部処理用のバイナリ形式で書き込むライター。
+ * このクラスで書き込んだファイルは {@link CsvBinaryFileReader} で読み込む。
+ * <p>各レコードは、フィールド数に続けて、フィールドごとの文字数とフィールドの文字列で構成される。
+ * 数値は可変長整数、文字列は修正 UTF-8 で符号化する。
+ * クォートによるエスケープは行わないため、読み込み時の字句解析は不要となる。
+ * <p>フィールドの文字列変換は {@link ssac.aadl.runtime.io.CsvFileWriter} と同一であり、
+ * <tt>null</tt> は空文字列として書き込む。
+ * また、空文字列のフィールド一つのみのレコードは、CSV ファイルの空行と同様にフィールドのないレコードとして書き込む。
+ * 
+ * @version 2.3.0	2026/10/18
+ * @since 2.3.0
+ */
+public class CsvBinaryFileWriter implements ICsvRecordWriter
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	/** 標準の書き込みバッファサイズ **/
+	static public final int	DEFAULT_BUFFER_SIZE	= 65536;
+
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/** 書き込み先のファイル **/
+	protected final File			_targetFile;
+	/** 書き込み先のストリーム **/
+	protected FileOutputStream		_out;
+	/** 書き込みバッファ **/
+	protected final byte[]			_buffer;
+	/** 書き込みバッファの使用バイト数 **/
+	protected int					_bufferLen;
+	/** 書き込み途中のレコードのフィールド **/
+	protected final ArrayList<String>	_curFields = new ArrayList<String>();
+	/** 現在の書き込み位置がレコード先頭であれば <tt>true</tt> **/
+	protected boolean				_curposRecordTop = true;
+	/** 最後に発生した例外 **/
+	protected RuntimeException		_lastException;
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	/**
+	 * 指定されたファイルに書き込む、新しいインスタンスを生成する。
+	 * @param file	書き込み先のファイル
+	 * @throws NullPointerException	引数が <tt>null</tt> の場合
+	 * @throws FileNotFoundException	ファイルが生成できない場合
+	 */
+	public CsvBinaryFileWriter(File file) throws FileNotFoundException
+	{
+		this(file, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * 指定されたファイルに書き込む、新しいインスタンスを生成する。
+	 * <em>bufferSize</em> が 1024 未満の場合、1024 バイトのバッファを確保する。
+	 * @param file	書き込み先のファイル
+	 * @param bufferSize	書き込みバッファのサイズ
+	 * @throws NullPointerException	<em>file</em> が <tt>null</tt> の場合
+	 * @throws FileNotFoundException	ファイルが生成できない場合
+	 */
+	public CsvBinaryFileWriter(File file, int bufferSize) throws FileNotFoundException
+	{
+		if (file == null)
+			throw new NullPointerException("'file' is null.");
+		_buffer = new byte[Math.max(1024, bufferSize)];
+		_out = new FileOutputStream(file);
+		_targetFile = file;
+	}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	public File getFile() {
+		return _targetFile;
+	}
+
+	public boolean isOpen() {
+		return (_out != null);
+	}
+
+	public RuntimeException lastException() {
+		return _lastException;
+	}
+
+	/**
+	 * バッファに保持しているデータをファイルに書き込む。
+	 * 書き込み途中のレコードは書き込まれない。
+	 * @return	正常に書き込めた場合は <tt>true</tt>、そうでない場合は <tt>false</tt>
+	 */
+	public boolean flush() {
+		try {
+			ensureOpen();
+			flushBuffer();
+			return true;
+		}
+		catch (Exception ex) {
+			_lastException = new AADLRuntimeException(AADLMessages.formatFailedWriteMessage(_targetFile), ex);
+			return false;
+		}
+	}
+
+	public boolean close() {
+		boolean result = true;
+		if (_out != null) {
+			try {
+				if (!_curposRecordTop) {
+					writeCurrentRecord();
+				}
+				flushBuffer();
+				_out.close();
+			} catch (Exception ex) {
+				_lastException = new AADLRuntimeException(AADLMessages.formatFailedCloseMessage(_targetFile), ex);
+				result = false;
+			}
+			_out = null;
+		}
+		return result;
+	}
+
+	public boolean newRecord() {
+		try {
+			ensureOpen();
+			writeCurrentRecord();
+			return true;
+		}
+		catch (Exception ex) {
+			_lastException = new AADLRuntimeException(AADLMessages.formatFailedWriteMessage(_targetFile), ex);
+			return false;
+		}
+	}
+
+	public boolean writeField(Object obj) {
+		try {
+			ensureOpen();
+		}
+		catch (Exception ex) {
+			_lastException = new AADLRuntimeException(AADLMessages.formatFailedWriteMessage(_targetFile), ex);
+			return false;
+		}
+		_curFields.add(toFieldString(obj));
+		_curposRecordTop = false;
+		return true;
+	}
+
+	public boolean writeFields(Collection<?> c) {
+		if (!c.isEmpty()) {
+			for (Object obj : c) {
+				if (!writeField(obj)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	public boolean writeRecord(Collection<?> c) {
+		if (!_curposRecordTop) {
+			if (!newRecord())
+				return false;
+		}
+		
+		if (!writeFields(c)) {
+			return false;
+		}
+		
+		return newRecord();
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	/**
+	 * {@link ssac.aadl.runtime.io.CsvFileWriter#writeField(Object)} と同じ規則で、フィールドの文字列に変換する。
+	 */
+	static protected String toFieldString(Object obj) {
+		if (obj == null) {
+			return "";
+		}
+		else if (obj instanceof String) {
+			return (String)obj;
+		}
+		else if (obj instanceof BigDecimal) {
+			BigDecimal val = (BigDecimal)obj;
+			if (BigDecimal.ZERO.compareTo(val) == 0) {
+				return BigDecimal.ZERO.toPlainString();
+			} else {
+				return val.stripTrailingZeros().toPlainString();
+			}
+		}
+		else {
+			return String.valueOf(obj);
+		}
+	}
+
+	protected void ensureOpen() throws IOException {
+		if (_out == null)
+			throw new IOException("Stream closed");
+	}
+
+	/**
+	 * 書き込み途中のレコードをバッファに書き込み、レコード先頭に移動する。
+	 */
+	protected void writeCurrentRecord() throws IOException {
+		int numFields = _curFields.size();
+		if (numFields == 1 && _curFields.get(0).length() == 0) {
+			// CSV の空行と同様に、フィールドなしとする
+			numFields = 0;
+		}
+		writeVarInt(numFields);
+		for (int i = 0; i < numFields; ++i) {
+			writeString(_curFields.get(i));
+		}
+		_curFields.clear();
+		_curposRecordTop = true;
+	}
+
+	protected void writeVarInt(int value) throws IOException {
+		if (_bufferLen + 5 > _buffer.length) {
+			flushBuffer();
+		}
+		while ((value & ~0x7F) != 0) {
+			_buffer[_bufferLen++] = (byte)((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		_buffer[_bufferLen++] = (byte)value;
+	}
+
+	protected void writeString(String str) throws IOException {
+		int len = str.length();
+		writeVarInt(len);
+		byte[] buf = _buffer;
+		for (int i = 0; i < len; ++i) {
+			if (_bufferLen + 3 > buf.length) {
+				flushBuffer();
+			}
+			char c = str.charAt(i);
+			if (c >= 0x0001 && c <= 0x007F) {
+				buf[_bufferLen++] = (byte)c;
+			}
+			else if (c <= 0x07FF) {
+				buf[_bufferLen++] = (byte)(0xC0 | ((c >> 6) & 0x1F));
+				buf[_bufferLen++] = (byte)(0x80 | (c & 0x3F));
+			}
+			else {
+				buf[_bufferLen++] = (byte)(0xE0 | ((c >> 12) & 0x0F));
+				buf[_bufferLen++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+				buf[_bufferLen++] = (byte)(0x80 | (c & 0x3F));
+			}
+		}
+	}
+
+	protected void flushBuffer() throws IOException {
+		if (_bufferLen > 0) {
+			_out.write(_buffer, 0, _bufferLen);
+			_bufferLen = 0;
+		}
+	}
+
+	//------------------------------------------------------------
+	// Inner classes
+	//------------------------------------------------------------
+}
@@ -20,6 +20,9 @@
  *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
  */
 /*
+ * @(#)CsvFileSorter.java	2.3.0	2026/10/18
+ *     - parallel run generation and k-way merge
+ *     - binary format for temporary files
  * @(#)CsvFileSorter.java	1.90	2013/08/05
  *     - created by Y.Ishizuka(PieCake.inc,)
  */
@@ -36,20 +39,40 @@ import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import ssac.aadl.runtime.AADLFunctions;
 import ssac.aadl.runtime.AADLMessages;
 import ssac.aadl.runtime.AADLRuntimeException;
 import ssac.aadl.runtime.io.CsvFileReader;
 import ssac.aadl.runtime.io.CsvFileWriter;
+import ssac.aadl.runtime.io.internal.ICsvRecordWriter;
 
 /**
  * CSVファイルのマージソートを実行するクラス。
+ * <p>入力レコードをメモリに収まる単位で分割し、分割ごとにソートした分割ファイル(ラン)を作成した後、
+ * すべての分割ファイルを一度にマージする。
+ * 分割のソートは、コンパレータがスレッドセーフであれば複数のスレッドで並行して実行する。
+ * 比較結果が等しいレコードの順序は、入力ファイルでの順序が維持される。
+ * 分割ファイルなどのテンポラリファイルは、{@link CsvBinaryFileWriter} のバイナリ形式で作成する。
+ * 入力ファイルおよび出力ファイルも、指定によりバイナリ形式とすることができる。
+ * <p>使用するメモリの上限、テンポラリファイルの作成先、ソートスレッド数は、
+ * それぞれシステムプロパティ <code>CSVFILESORT_MAXMEMORY</code>(バイト)、
+ * <code>CSVFILESORT_TEMPDIR</code>、<code>CSVFILESORT_THREADS</code> で指定できる。
  *  
- * @version 1.90	2013/08/05
+ * @version 2.3.0	2026/10/18
  * @since 1.90
  */
 public class CsvFileSorter
@@ -58,9 +81,13 @@ public class CsvFileSorter
 	// Constants
 	//------------------------------------------------------------
 
-	private final int _minBufferedRows = 6;		// このレコード数以上でバッファリングソートを許可
+	private final int _minBufferedRows = 6;		// 分割ごとの最小レコード数
+	private final int _maxMergeFiles = 128;		// 一度にマージする分割ファイルの最大数
 	private final long _reportIntervalTime = 300000L;	// 5分（ミリ秒）
 
+	static private final long _recordMemoryOverhead = 64L;	// レコードあたりのメモリ使用量見積もり(バイト)
+	static private final long _fieldMemoryOverhead  = 48L;	// フィールドあたりのメモリ使用量見積もり(バイト)
+
 	//------------------------------------------------------------
 	// Fields
 	//------------------------------------------------------------
@@ -82,6 +109,18 @@ public class CsvFileSorter
 	/** 処理対象外レコード数 **/
 	private final long	_skipRecords;
 
+	/** 入力ファイルがバイナリ形式であれば <tt>true</tt> **/
+	private boolean	_binaryInput = false;
+	/** 最終出力ファイルをバイナリ形式とする場合は <tt>true</tt> **/
+	private boolean	_binaryOutput = false;
+
+	/** テンポラリファイルの作成先ディレクトリ、<tt>null</tt> の場合はシステムの既定 **/
+	private File	_tempDir;
+	/** ソートに使用するメモリの上限(バイト)、0 の場合は空きメモリから決定 **/
+	private long	_maxMemory;
+	/** 分割のソートに使用するスレッド数 **/
+	private int		_numThreads;
+
 	/** 最大レコード数 **/
 	private long	_maxRecords  = 0L;
 	/** 最大フィールド数 **/
@@ -91,7 +130,7 @@ public class CsvFileSorter
 	private long	_headerRecords = 0L;
 	/** ソート完了レコード数 **/
 	private long	_sortedRecords = 0L;
-	/** 制限数 **/
+	/** 未マージの分割数 **/
 	private long	_numLists      = 0L;
 	/** ソート開始時間 **/
 	private long	_sortStartTime = 0L;
@@ -104,22 +143,10 @@ public class CsvFileSorter
 
 	/** 処理対象外レコードを格納したファイル **/
 	private File	_headerFile     = null;
-	/** 読み込み対象のマージファイル **/
-	private File	_readMergeFile  = null;
-	/** 書き込み対象のマージファイル **/
+	/** ソート結果を格納したファイル **/
 	private File	_writeMergeFile = null;
-	/** 分割ファイル 1 **/
-	private File	_splitFile1     = null;
-	/** 分割ファイル 2 **/
-	private File	_splitFile2     = null;
-	
-	private CsvFileWriter _splitWriter1 = null;
-	private CsvFileWriter _splitWriter2 = null;
-	private CsvFileReader _splitReader[] = new CsvFileReader[2];
-	private CsvFileWriter _mergeWriter = null;
-	private CsvFileReader _mergeReader = null;
-
-	private List<String>	_nextSplitRow = null;
+	/** 作成したすべての分割ファイル **/
+	private final ArrayList<File>	_runFiles = new ArrayList<File>();
 
 	/** ソート完了フラグ **/
 	private boolean	_sortCompleted = false;
@@ -149,6 +176,10 @@ public class CsvFileSorter
 		_skipRecords = skipRecords;
 		
 		_removeFieldIndicesAtLast = new TreeSet<Integer>();
+		
+		_tempDir = (__tempDir != null && __tempDir.length() > 0 ? new File(__tempDir) : null);
+		_maxMemory = __maxMemory;
+		_numThreads = __numThreads;
 	}
 	
 	static protected long clipSkipRecordCount(BigDecimal skipRecords) {
@@ -190,6 +221,13 @@ public class CsvFileSorter
 	static private final boolean __debugFlag = _getDebugFlag();
 	
 	static private final int __maxBufRows = _getMaxBufferedRows();
+	
+	static private final long __maxMemory = _getPositiveLongProperty("CSVFILESORT_MAXMEMORY", 0L);
+	
+	static private final String __tempDir = System.getProperty("CSVFILESORT_TEMPDIR");
+	
+	static private final int __numThreads = (int)Math.min(Integer.MAX_VALUE,
+			_getPositiveLongProperty("CSVFILESORT_THREADS", Runtime.getRuntime().availableProcessors()));
 
 	static private final boolean _getDebugFlag() {
 		return System.getProperties().containsKey("AADLDEBUG");
@@ -218,6 +256,28 @@ public class CsvFileSorter
 		}
 		return ret;
 	}
+	
+	static private final long _getPositiveLongProperty(String key, long defaultValue) {
+		String val = System.getProperty(key);
+		long ret = defaultValue;
+		if (val != null && val.length() > 0) {
+			BigDecimal d;
+			try {
+				d = new BigDecimal(val);
+			} catch (Throwable ex) {
+				d = null;
+			}
+			if (d != null && d.signum() > 0) {
+				d = d.setScale(0, RoundingMode.FLOOR);
+				if (d.compareTo(new BigDecimal(Long.MAX_VALUE)) < 0) {
+					ret = d.longValue();
+				} else {
+					ret = Long.MAX_VALUE;
+				}
+			}
+		}
+		return ret;
+	}
 
 	//------------------------------------------------------------
 	// Public interfaces
@@ -321,6 +381,94 @@ public class CsvFileSorter
 		}
 	}
 	
+	/**
+	 * 入力ファイルが {@link CsvBinaryFileWriter} で作成されたバイナリ形式であれば <tt>true</tt> を返す。
+	 * @since 2.3.0
+	 */
+	public boolean isBinaryInput() {
+		return _binaryInput;
+	}
+	
+	/**
+	 * 入力ファイルを、{@link CsvBinaryFileWriter} で作成されたバイナリ形式として読み込むかを設定する。
+	 * @param toBinary	バイナリ形式とする場合は <tt>true</tt>、CSV 形式とする場合は <tt>false</tt>
+	 * @since 2.3.0
+	 */
+	public void setBinaryInput(boolean toBinary) {
+		_binaryInput = toBinary;
+	}
+	
+	/**
+	 * 最終出力ファイルを {@link CsvBinaryFileReader} で読み込むバイナリ形式とする場合は <tt>true</tt> を返す。
+	 * @since 2.3.0
+	 */
+	public boolean isBinaryOutput() {
+		return _binaryOutput;
+	}
+	
+	/**
+	 * 最終出力ファイルを、{@link CsvBinaryFileReader} で読み込むバイナリ形式とするかを設定する。
+	 * @param toBinary	バイナリ形式とする場合は <tt>true</tt>、CSV 形式とする場合は <tt>false</tt>
+	 * @since 2.3.0
+	 */
+	public void setBinaryOutput(boolean toBinary) {
+		_binaryOutput = toBinary;
+	}
+	
+	/**
+	 * テンポラリファイルの作成先ディレクトリを返す。
+	 * @return	作成先ディレクトリ、システムの既定を使用する場合は <tt>null</tt>
+	 * @since 2.3.0
+	 */
+	public File getTempDirectory() {
+		return _tempDir;
+	}
+	
+	/**
+	 * テンポラリファイルの作成先ディレクトリを設定する。
+	 * @param dir	作成先ディレクトリ、システムの既定を使用する場合は <tt>null</tt>
+	 * @since 2.3.0
+	 */
+	public void setTempDirectory(File dir) {
+		_tempDir = dir;
+	}
+	
+	/**
+	 * ソートに使用するメモリの上限(バイト)を返す。
+	 * @return	メモリの上限、空きメモリから決定する場合は 0
+	 * @since 2.3.0
+	 */
+	public long getMaxMemory() {
+		return _maxMemory;
+	}
+	
+	/**
+	 * ソートに使用するメモリの上限(バイト)を設定する。
+	 * @param bytes	メモリの上限、0 以下の場合は空きメモリから決定する
+	 * @since 2.3.0
+	 */
+	public void setMaxMemory(long bytes) {
+		_maxMemory = (bytes > 0L ? bytes : 0L);
+	}
+	
+	/**
+	 * 分割のソートに使用するスレッド数を返す。
+	 * @since 2.3.0
+	 */
+	public int getThreadCount() {
+		return _numThreads;
+	}
+	
+	/**
+	 * 分割のソートに使用するスレッド数を設定する。
+	 * コンパレータがスレッドセーフでない場合、この設定にかかわらず 1 スレッドでソートする。
+	 * @param numThreads	スレッド数、1 未満の場合は 1
+	 * @since 2.3.0
+	 */
+	public void setThreadCount(int numThreads) {
+		_numThreads = Math.max(1, numThreads);
+	}
+	
 	public void sort() {
 		if (_sortCompleted)
 			throw new IllegalStateException("ソートは完了しています。");
@@ -337,12 +485,12 @@ public class CsvFileSorter
 			doMergeSort();
 			
 			// 結果出力
-			if (_removeFieldIndicesAtLast.isEmpty()) {
-				// 全フィールドを出力
+			if (_binaryOutput && _removeFieldIndicesAtLast.isEmpty()) {
+				// テンポラリファイルをそのまま出力
 				outputResult();
 			} else {
-				// 除外フィールドを削除
-				outputResultAndRemoveFieldsByIndices();
+				// レコードごとに変換して出力(除外フィールドを削除)
+				outputResultByRecords();
 			}
 			
 			// sort completed
@@ -352,15 +500,13 @@ public class CsvFileSorter
 		finally {
 			// テンポラリファイルの削除
 			deleteTempFile(_headerFile);
-			deleteTempFile(_readMergeFile);
 			deleteTempFile(_writeMergeFile);
-			deleteTempFile(_splitFile1);
-			deleteTempFile(_splitFile2);
+			for (File runFile : _runFiles) {
+				deleteTempFile(runFile);
+			}
 			_headerFile = null;
-			_readMergeFile = null;
 			_writeMergeFile = null;
-			_splitFile1 = null;
-			_splitFile2 = null;
+			_runFiles.clear();
 		}
 	}
 
@@ -368,45 +514,20 @@ public class CsvFileSorter
 	// Internal methods
 	//------------------------------------------------------------
 	
-	private void createSplitReaders() {
-		_splitReader[0] = _createReader(_splitFile1);
-		_splitReader[1] = _createReader(_splitFile2);
-	}
-	
-	private void createSplitWriters() {
-		_splitWriter1 = _createWriter(_splitFile1);
-		_splitWriter2 = _createWriter(_splitFile2);
-	}
-	
-	private void createMergeReaderWriter() {
-		// swap read file and write file
-		File tmp = _readMergeFile;
-		_readMergeFile = _writeMergeFile;
-		_writeMergeFile = tmp;
-		// create reader
-		_mergeReader = _createReader(_readMergeFile);
-		_mergeWriter = _createWriter(_writeMergeFile);
-	}
-	
-	private void closeSplitReaders() {
-		_closeReader(_splitReader[0]);
-		_closeReader(_splitReader[1]);
-		_splitReader[0] = null;
-		_splitReader[1] = null;
-	}
-	
-	private void closeSplitWriters() {
-		_closeWriter(_splitWriter1);
-		_closeWriter(_splitWriter2);
-		_splitWriter1 = null;
-		_splitWriter2 = null;
-	}
-	
-	private void closeMergeReaderWriter() {
-		_closeReader(_mergeReader);
-		_closeWriter(_mergeWriter);
-		_mergeReader = null;
-		_mergeWriter = null;
+	/**
+	 * 指定されたコンパレータが、複数のスレッドから同時に使用可能かを判定する。
+	 * 日付時刻の比較は書式オブジェクトを共有するため、スレッドセーフではない。
+	 */
+	static protected boolean isConcurrentComparator(CsvRecordComparator comparator) {
+		if (comparator.getClass() == CsvStringRecordComparator.class) {
+			return true;
+		}
+		else if (comparator.getClass() == CsvTypedRecordComparator.class) {
+			return !((CsvTypedRecordComparator)comparator).containsDataType(CsvTypedRecordComparator.DATATYPE_DATETIME);
+		}
+		else {
+			return false;
+		}
 	}
 	
 	private void printReportSorting() {
@@ -445,10 +566,10 @@ public class CsvFileSorter
 		System.out.println(msg);
 	}
 	
-	private void skipHeaderRows(CsvFileReader reader) {
+	private void skipHeaderRows(Iterator<List<String>> reader) {
 		// create header temp file
 		File hfile = createTempFile();
-		CsvFileWriter writer = _createWriter(hfile);
+		CsvBinaryFileWriter writer = _createTempWriter(hfile);
 		
 		long num = 0L;
 		try {
@@ -464,6 +585,7 @@ public class CsvFileSorter
 				writeRecord(record, writer);
 				++num;
 			}
+			_closeTempWriter(writer);
 		}
 		finally {
 			_closeWriter(writer);
@@ -480,8 +602,7 @@ public class CsvFileSorter
 
 	// ソート実行部
 	private void doMergeSort() {
-		// first merge sort
-		CsvFileReader inReader = _createReader(_inFile);
+		Iterator<List<String>> inReader = _createInputReader(_inFile);
 		try {
 			// check has next row
 			if (!inReader.hasNext()) {
@@ -500,432 +621,255 @@ public class CsvFileSorter
 				}
 			}
 			
-			// merge sort
-			//--- create temp files
-			_writeMergeFile = createTempFile();
-			_splitFile1 = createTempFile();
-			_splitFile2 = createTempFile();
-			//--- create merge writer
-			_mergeWriter = _createWriter(_writeMergeFile);
-			//--- sort
-			boolean hasSplit = firstMergeSort(_comparator, inReader, _mergeWriter);
+			// create sorted runs
+			boolean hasRuns = createSortedRuns(_comparator, inReader);
+			printBufferedRowCount();
 			printReportSorting();
-			if (!hasSplit) {
+			if (!hasRuns) {
 				//--- sort completed
-				printReportSorting();
 				return;
 			}
 		}
 		finally {
-			//--- close readers & writers
-			closeMergeReaderWriter();
-			closeSplitWriters();
-			closeSplitReaders();
 			//--- close inReader
-			_closeReader(inReader);
+			_closeInputReader(inReader);
 			inReader = null;
 		}
 		
-		// create read merge temp file
-		_readMergeFile = createTempFile();
-		
-		// merge sort
-		try {
-			boolean hasSplit = false;
-			do {
-				_numLists = 0L;
-				// create merge reader & writer
-				createMergeReaderWriter();
-				
-				// sort
-				hasSplit = fileMergeSort(_comparator, _mergeReader, _mergeWriter);
-				
-				// close merge reader & writer
-				closeMergeReaderWriter();
-				printReportSorting();
-			} while (hasSplit);
-		}
-		finally {
-			//--- close readers & writers
-			closeMergeReaderWriter();
-			closeSplitWriters();
-			closeSplitReaders();
-		}
+		// merge all runs
+		mergeSortedRuns(_comparator);
 	}
 	
-	@SuppressWarnings("unchecked")
-	private boolean firstMergeSort(CsvRecordComparator sortComparator, CsvFileReader reader, CsvFileWriter mergeWriter)
+	/**
+	 * 入力レコードをメモリ上限に応じて分割し、分割ごとにソートした分割ファイルを作成する。
+	 * すべてのレコードが一つの分割に収まった場合は、ソート結果を直接 {@link #_writeMergeFile} に出力する。
+	 * @return	分割ファイルを作成した場合は <tt>true</tt>、ソートが完了した場合は <tt>false</tt>
+	 */
+	private boolean createSortedRuns(CsvRecordComparator sortComparator, Iterator<List<String>> reader)
 	{
-		CsvFileWriter writer = null;
-		List<String> curRow = null;
-		List<String> lastRow = null;
-		List<String> mergedLastRow = null;
-		long numMergedRows = 0L;
-		boolean hasSplit = false;
+		int numThreads = (isConcurrentComparator(sortComparator) ? _numThreads : 1);
+		int limitRows = Math.max(1, __maxBufRows);
+		// ソート中の分割と、読み込み中の分割で上限を分け合う
+		long limitBytes = Math.max(1L, getMemoryBudget() / (numThreads + 1));
 		_numLists = 0L;
-		_maxBufferedRowCount = 1;
-		_minBufferedRowCount = 1;
-		
-		// buffered merge sort
-		if (__maxBufRows >= _minBufferedRows) {
-			CsvRecordList rowList = new CsvRecordList(4096);
-			int len = 0;
-			
-			// first buffering split
-			len = readRowsAsPossibleAtFirst(reader, rowList);
-			if (len > 0) {
-				_maxBufferedRowCount = len;
-				_minBufferedRowCount = len;
-				sortComparator.sort(rowList);
-				_sortedRecords += len;
-				lastRow = rowList.get(len-1);
-				if (!reader.hasNext()) {
-					// sort completed! All rows writes to mergeWriter.
-					for (List<String> row : rowList) {
-						writeRecord(row, mergeWriter);
-					}
-					mergeWriter.flush();
-					++_numLists;
-					printBufferedRowCount();
-					return false;
-				}
-			}
-			
-			// write buffered rows to splitWriter1
-			createSplitWriters();
-			writer = _splitWriter1;
-			for (List<String> row : rowList) {
-				writeRecord(row, writer);
-			}
-			
-			// buffered merge sort
-			for(; len >= _minBufferedRows ;) {	// 指定のレコード以上のバッファリング実績で実行許可
-				len = readRowsAsPossibleAtFirst(reader, rowList);
-				if (len > 0) {
-					_maxBufferedRowCount = Math.max(_maxBufferedRowCount, len);
-					_minBufferedRowCount = Math.min(_minBufferedRowCount, len);
-					sortComparator.sort(rowList);
-					curRow = rowList.get(0);
-					if (sortComparator.compare(lastRow, curRow) > 0) {
-						// change list
-						if (writer == _splitWriter2) {
-							// merge
-							closeSplitWriters();
-							createSplitReaders();
-							//--- merge
-							Object[] ret = mergeRows(sortComparator, _splitReader, mergeWriter);
-							if (mergedLastRow != null && sortComparator.compare(mergedLastRow, (List<String>)ret[0]) > 0) {
-								// marged rows have multi lists.
-								++_numLists;
-								hasSplit = true;
-							}
-							mergedLastRow = (List<String>)ret[1];
-							closeSplitReaders();
-							createSplitWriters();
-							writer = _splitWriter1;
-							lastRow = null;
-							numMergedRows = _sortedRecords;
-						} else {
-							// chage to splitWriter2
-							writer = _splitWriter2;
-						}
-					}
-					lastRow = rowList.get(len-1);
-					_sortedRecords += len;
-					for (List<String> row : rowList) {
-						writeRecord(row, writer);
-					}
-				}
-			}
-		}
-		printBufferedRowCount();
+		_maxBufferedRowCount = 0;
+		_minBufferedRowCount = 0;
 		
-		// create split writers, if no split writer.
-		if (writer == null) {
-			createSplitWriters();
-			writer = _splitWriter1;
+		// first buffering split
+		CsvRecordList rows = readRowsForRun(reader, limitRows, limitBytes);
+		if (!reader.hasNext()) {
+			// sort completed! All rows writes to merge file.
+			_writeMergeFile = createTempFile();
+			_sortedRecords += rows.size();
+			++_numLists;
+			new RunSortTask(sortComparator, rows, _writeMergeFile).run();
+			return false;
 		}
 		
-		// no buffering merge sort
-		if (lastRow == null) {
-			lastRow = reader.next();
-			++_maxRecords;
-			if (_appendRecordIdAtFirst) {
-				lastRow.add(0, String.valueOf(_maxRecords));
-			}
-			_maxFields = Math.max(_maxFields, lastRow.size());
-			++_sortedRecords;
-			writeRecord(lastRow, writer);
+		ExecutorService executor = null;
+		if (numThreads > 1) {
+			executor = Executors.newFixedThreadPool(numThreads, new SortThreadFactory());
 		}
-		for (; reader.hasNext();) {
-			curRow = reader.next();
-			++_maxRecords;
-			if (_appendRecordIdAtFirst) {
-				curRow.add(0, String.valueOf(_maxRecords));
-			}
-			_maxFields = Math.max(_maxFields, curRow.size());
-			if (sortComparator.compare(lastRow, curRow) > 0) {
-				// change list
-				if (writer == _splitWriter2) {
-					// merge phase
-					closeSplitWriters();
-					createSplitReaders();
-					//--- merge
-					Object[] ret = mergeRows(sortComparator, _splitReader, mergeWriter);
-					if (mergedLastRow != null && sortComparator.compare(mergedLastRow, (List<String>)ret[0]) > 0) {
-						// marged rows have multi lists.
-						++_numLists;
-						hasSplit = true;
-					}
-					mergedLastRow = (List<String>)ret[1];
-					closeSplitReaders();
-					createSplitWriters();
-					writer = _splitWriter1;
-					lastRow = null;
-					numMergedRows = _sortedRecords;
+		LinkedList<Future<?>> pending = new LinkedList<Future<?>>();
+		try {
+			for (;;) {
+				File runFile = createTempFile();
+				_runFiles.add(runFile);
+				_sortedRecords += rows.size();
+				++_numLists;
+				RunSortTask task = new RunSortTask(sortComparator, rows, runFile);
+				rows = null;
+				if (executor == null) {
+					task.run();
 				} else {
-					// chage to splitWriter2
-					writer = _splitWriter2;
+					pending.add(executor.submit(task));
+					// メモリ上の分割は、ソート中のものと次に読み込むものに制限する
+					while (pending.size() >= numThreads) {
+						waitForTask(pending.removeFirst());
+					}
 				}
+				printReportSorting();
+				
+				if (!reader.hasNext()) {
+					break;
+				}
+				rows = readRowsForRun(reader, limitRows, limitBytes);
 			}
-			lastRow = curRow;
-			++_sortedRecords;
-			writeRecord(lastRow, writer);
-		}
-		//--- last merge
-		if (numMergedRows < _sortedRecords) {
-			// merge phase
-			closeSplitWriters();
-			createSplitReaders();
-			//--- merge
-			Object[] ret = mergeRows(sortComparator, _splitReader, mergeWriter);
-			if (ret != null && mergedLastRow != null && sortComparator.compare(mergedLastRow, (List<String>)ret[0]) > 0) {
-				// marged rows have multi lists.
-				hasSplit = true;
-			}
-		}
-
-		// completed
-		++_numLists;
-		return hasSplit;
-	}
-	
-	@SuppressWarnings("unchecked")
-	private boolean fileMergeSort(CsvRecordComparator sortComparator, CsvFileReader reader, CsvFileWriter mergeWriter)
-	{
-		List<String> mergedLastRow = null;
-		boolean hasSplit = false;
-		_numLists = 1L;
-		
-		for (; reader.hasNext();) {
-			// split phase
-			//--- create split writers
-			createSplitWriters();
-			//--- split
-			splitRows(sortComparator, reader, _splitWriter1, _splitWriter2);
-			//--- close split writers
-			closeSplitWriters();
 			
-			// merge phase
-			//--- create split readers
-			createSplitReaders();
-			//--- merge
-			Object[] ret = mergeRows(sortComparator, _splitReader, mergeWriter);
-			if (ret != null) {
-				if (mergedLastRow != null && sortComparator.compare(mergedLastRow, (List<String>)ret[0]) > 0) {
-					// marged rows have multi lists.
-					++_numLists;
-					hasSplit = true;
-				}
-				mergedLastRow = (List<String>)ret[1];
+			// wait for all sort tasks
+			while (!pending.isEmpty()) {
+				waitForTask(pending.removeFirst());
 			}
-			//--- close split readers
-			closeSplitReaders();
-		}
-		if (_nextSplitRow != null) {
-			//--- 最後の 1 レコード
-			writeRecord(_nextSplitRow, mergeWriter);
-			if (mergedLastRow != null && sortComparator.compare(mergedLastRow, _nextSplitRow) > 0) {
-				// marged rows have multi lists.
-				++_numLists;
-				hasSplit = true;
+		}
+		finally {
+			if (executor != null) {
+				executor.shutdownNow();
 			}
-			_nextSplitRow = null;
 		}
 		
-		return hasSplit;
+		return true;
 	}
 	
-	private boolean splitRows(CsvRecordComparator sortComparator, CsvFileReader reader, CsvFileWriter splitWriter1, CsvFileWriter splitWriter2)
+	/**
+	 * すべての分割ファイルをマージし、ソート結果を {@link #_writeMergeFile} に出力する。
+	 * 分割ファイルが一度にマージできる数を超える場合は、連続する分割ファイルごとに中間マージを行う。
+	 */
+	private void mergeSortedRuns(CsvRecordComparator sortComparator)
 	{
-		List<String> curRow  = null;
-		List<String> lastRow = null;
-		
-		// first record
-		if (_nextSplitRow != null) {
-			lastRow = _nextSplitRow;
-		} else {
-			lastRow = reader.next();
-		}
-		writeRecord(lastRow, splitWriter1);
-		
-		// read first list
-		boolean changeList = false;
-		for (; reader.hasNext();) {
-			curRow = reader.next();
-			if (sortComparator.compare(lastRow, curRow) > 0) {
-				// split list
-				changeList = true;
-				break;
+		List<File> runs = new ArrayList<File>(_runFiles);
+		while (runs.size() > _maxMergeFiles) {
+			ArrayList<File> mergedRuns = new ArrayList<File>((runs.size() + _maxMergeFiles - 1) / _maxMergeFiles);
+			for (int from = 0; from < runs.size(); from += _maxMergeFiles) {
+				List<File> group = runs.subList(from, Math.min(runs.size(), from + _maxMergeFiles));
+				if (group.size() == 1) {
+					mergedRuns.add(group.get(0));
+				} else {
+					File mergedFile = createTempFile();
+					_runFiles.add(mergedFile);
+					mergedRuns.add(mergedFile);
+					mergeRuns(sortComparator, group, mergedFile);
+					for (File runFile : group) {
+						deleteTempFile(runFile);
+					}
+				}
+				_numLists = mergedRuns.size() + (runs.size() - Math.min(runs.size(), from + _maxMergeFiles));
+				printReportSorting();
 			}
-			writeRecord(curRow, splitWriter1);
-			lastRow = curRow;
-		}
-		splitWriter1.flush();
-		if (!changeList) {
-			_nextSplitRow = null;
-			return false;
+			runs = mergedRuns;
 		}
 		
-		// read second list
-		writeRecord(curRow, splitWriter2);
-		lastRow = curRow;
-		changeList = false;
-		for (; reader.hasNext();) {
-			curRow = reader.next();
-			if (sortComparator.compare(lastRow, curRow) > 0) {
-				// split list
-				changeList = true;
-				break;
-			}
-			writeRecord(curRow, splitWriter2);
-			lastRow = curRow;
-		}
-		splitWriter2.flush();
-		if (!changeList) {
-			// no more rows
-			_nextSplitRow = null;
-		} else {
-			// remain rows
-			_nextSplitRow = curRow;
-		}
-
-		// completed
-		return true;
+		// last merge
+		_writeMergeFile = createTempFile();
+		mergeRuns(sortComparator, runs, _writeMergeFile);
+		_numLists = 1L;
+		printReportSorting();
 	}
 	
-	@SuppressWarnings("unchecked")
-	private Object[] mergeRows(CsvRecordComparator sortComparator, CsvFileReader splitReader[], CsvFileWriter mergeWriter)
+	/**
+	 * 指定された分割ファイルをヒープにより一度にマージする。
+	 * 比較結果が等しいレコードは、リストの前方の分割ファイルのものを先に出力する。
+	 */
+	private void mergeRuns(CsvRecordComparator sortComparator, List<File> runs, File outFile)
 	{
-		List<String> firstRow = null;
-		List<String> curRow;
-		List<String> lastRow = null;
-		Object nextRow[] = new Object[2];
-		
-		if (splitReader[0].hasNext() && splitReader[1].hasNext()) {
-			int readerIndex;
-			
-			// first marge
-			nextRow[0] = splitReader[0].next();
-			nextRow[1] = splitReader[1].next();
-			if (sortComparator.compare((List<String>)nextRow[0], (List<String>)nextRow[1]) > 0) {
-				//--- nextRow[0] > nextRow[1]
-				readerIndex = 1;
-			} else {
-				//--- nextRow[0] <= nextRow[1]
-				readerIndex = 0;
-			}
-			firstRow = (List<String>)nextRow[readerIndex];
-			writeRecord(firstRow, mergeWriter);
-			lastRow = firstRow;
-
-			// merge remain all rows
-			for ( ; splitReader[readerIndex].hasNext(); ) {
-				nextRow[readerIndex] = splitReader[readerIndex].next();
-				if (sortComparator.compare((List<String>)nextRow[0], (List<String>)nextRow[1]) > 0) {
-					//--- nextRow[0] > nextRow[1]
-					readerIndex = 1;
-				} else {
-					//--- nextRow[0] <= nextRow[1]
-					readerIndex = 0;
+		// 型付きの比較では、レコードごとに変換済みのソートキーで比較する
+		CsvTypedRecordComparator keyComparator = null;
+		if (sortComparator.getClass() == CsvTypedRecordComparator.class) {
+			keyComparator = (CsvTypedRecordComparator)sortComparator;
+		}
+		ArrayList<RunCursor> cursors = new ArrayList<RunCursor>(runs.size());
+		PriorityQueue<RunCursor> queue = new PriorityQueue<RunCursor>(Math.max(1, runs.size()),
+															new RunCursorComparator(sortComparator, keyComparator));
+		CsvBinaryFileWriter writer = null;
+		try {
+			for (int i = 0; i < runs.size(); ++i) {
+				RunCursor cursor = new RunCursor(i, _createTempReader(runs.get(i)), keyComparator);
+				cursors.add(cursor);
+				if (cursor.next()) {
+					queue.add(cursor);
 				}
-				curRow = (List<String>)nextRow[readerIndex];
-				writeRecord(curRow, mergeWriter);
-				lastRow = curRow;
 			}
 			
-			// append remain all rows
-			readerIndex = (readerIndex + 1) % 2;
-			lastRow = (List<String>)nextRow[readerIndex];
-			writeRecord(lastRow, mergeWriter);
-			for (; splitReader[readerIndex].hasNext(); ) {
-				lastRow = splitReader[readerIndex].next();
-				writeRecord(lastRow, mergeWriter);
+			writer = _createTempWriter(outFile);
+			RunCursor cursor;
+			while ((cursor = queue.poll()) != null) {
+				writeRecord(cursor.current, writer);
+				if (cursor.next()) {
+					queue.add(cursor);
+				}
 			}
+			_closeTempWriter(writer);
 		}
-		else if (splitReader[0].hasNext()) {
-			// 分割リストが一つの場合
-			firstRow = splitReader[0].next();
-			lastRow = firstRow;
-			writeRecord(firstRow, mergeWriter);
-			for (; splitReader[0].hasNext();) {
-				lastRow = splitReader[0].next();
-				writeRecord(lastRow, mergeWriter);
+		finally {
+			_closeWriter(writer);
+			writer = null;
+			for (RunCursor cursor : cursors) {
+				_closeReader(cursor.reader);
 			}
 		}
-		else if (splitReader[1].hasNext()) {
-			// 分割リストが一つの場合
-			firstRow = splitReader[1].next();
-			lastRow = firstRow;
-			writeRecord(firstRow, mergeWriter);
-			for (; splitReader[1].hasNext();) {
-				lastRow = splitReader[1].next();
-				writeRecord(lastRow, mergeWriter);
+	}
+	
+	/**
+	 * 一つの分割となるレコードを読み込む。
+	 * レコード数が <em>limitRows</em> に達するか、メモリ使用量の見積もりが <em>limitBytes</em> を超えた時点で読み込みを終了する。
+	 */
+	private CsvRecordList readRowsForRun(Iterator<List<String>> reader, int limitRows, long limitBytes)
+	{
+		CsvRecordList rows = new CsvRecordList(Math.min(limitRows, 4096));
+		long usedBytes = 0L;
+		List<String> record;
+		while (reader.hasNext()) {
+			record = reader.next();
+			++_maxRecords;
+			if (_appendRecordIdAtFirst) {
+				// レコード先頭フィールドに、レコードIDを付加
+				record.add(0, String.valueOf(_maxRecords));
+			}
+			_maxFields = Math.max(_maxFields, record.size());
+			rows.add(record);
+			usedBytes += estimateRecordMemory(record);
+			if ((rows.size() >= limitRows) || (usedBytes > limitBytes && rows.size() >= _minBufferedRows)) {
+				break;	// 制限一杯
 			}
 		}
 		
-		// completed
-		if (firstRow != null) {
-			mergeWriter.flush();
-			nextRow[0] = firstRow;
-			nextRow[1] = lastRow;
-			return nextRow;
+		int len = rows.size();
+		if (_maxBufferedRowCount == 0) {
+			_maxBufferedRowCount = len;
+			_minBufferedRowCount = len;
 		} else {
-			return null;
+			_maxBufferedRowCount = Math.max(_maxBufferedRowCount, len);
+			_minBufferedRowCount = Math.min(_minBufferedRowCount, len);
 		}
+		return rows;
 	}
 	
-	private int readRowsAsPossibleAtFirst(CsvFileReader reader, CsvRecordList rows)
-	{
-		// release unused memory
-		rows.clear();
-		//System.gc();
+	/**
+	 * 指定されたレコードをメモリ上に保持する場合の、メモリ使用量の見積もりを返す。
+	 * @param record	レコード
+	 * @return	メモリ使用量の見積もり(バイト)
+	 * @since 2.3.0
+	 */
+	static public long estimateRecordMemory(List<String> record) {
+		long bytes = _recordMemoryOverhead;
+		for (String field : record) {
+			bytes += _fieldMemoryOverhead;
+			if (field != null) {
+				bytes += field.length() * 2L;
+			}
+		}
+		return bytes;
+	}
+	
+	/**
+	 * ソートに使用するメモリの上限を返す。上限が指定されていない場合は、空き領域の半分くらいとする。
+	 */
+	private long getMemoryBudget() {
+		if (_maxMemory > 0L) {
+			return _maxMemory;
+		}
 		Runtime rt = Runtime.getRuntime();
-		int limitLen = __maxBufRows;
-		long maxMemory = rt.maxMemory();
-		long totalMemory = rt.totalMemory();
-		long initUsedMemory = totalMemory - rt.freeMemory();
-		long limitUsedMemory = (maxMemory - initUsedMemory) / 2 + initUsedMemory;
-		
-		// 空き領域の半分くらいまで読み込む
-		if (initUsedMemory < limitUsedMemory) {
-			List<String> record;
-			while (reader.hasNext()) {
-				record = reader.next();
-				++_maxRecords;
-				if (_appendRecordIdAtFirst) {
-					record.add(0, String.valueOf(_maxRecords));
-				}
-				_maxFields = Math.max(_maxFields, record.size());
-				rows.add(record);
-				long usedmem = rt.totalMemory() - rt.freeMemory();
-				if ((rows.size() >= limitLen) || (usedmem > limitUsedMemory)) {
-					break;	// 制限一杯
-				}
+		long usedMemory = rt.totalMemory() - rt.freeMemory();
+		return Math.max(0L, (rt.maxMemory() - usedMemory) / 2L);
+	}
+	
+	static private void waitForTask(Future<?> future) {
+		try {
+			future.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(ex);
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException)cause;
+			} else if (cause instanceof Error) {
+				throw (Error)cause;
+			} else {
+				throw new RuntimeException(cause);
 			}
 		}
-		
-		return rows.size();
 	}
 	
 	// テンポラリファイルの削除
@@ -939,7 +883,7 @@ public class CsvFileSorter
 	
 	private File createTempFile() {
 		try {
-			File tmpfile = File.createTempFile("tmpSort", ".csv");
+			File tmpfile = File.createTempFile("tmpSort", ".dat", _tempDir);
 			tmpfile.deleteOnExit();
 			return tmpfile;
 		} catch (Throwable ex) {
@@ -947,60 +891,46 @@ public class CsvFileSorter
 		}
 	}
 
-	// 結果出力(指定インデックスのフィールド削除)
-	private void outputResultAndRemoveFieldsByIndices() {
-		CsvFileReader reader = null;
-		CsvFileWriter writer = null;
+	// 結果出力(レコードごとの出力、指定インデックスのフィールド削除)
+	private void outputResultByRecords() {
+		CsvBinaryFileReader reader = null;
+		ICsvRecordWriter writer = null;
 		List<String> record;
-		_maxFields = 0;
 		int[] removeIndices = getRemoveFieldIndicesAtLast();
+		if (removeIndices.length > 0) {
+			_maxFields = 0;
+		}
+		File[] resultFiles = new File[]{_headerFile, _writeMergeFile};
 
 		try {
 			// open destination file
-			writer = _createWriter(_outFile);
-			
-			// Copy header file
-			if (_headerFile != null) {
-				try {
-					// Open header file
-					reader = _createReader(_headerFile);
-				
-					// Copy header file to output file
-					while (reader.hasNext()) {
-						record = reader.next();
-						for (int i = removeIndices.length - 1; i >= 0; --i) {
-							int findex = removeIndices[i];
-							if (findex < record.size()) {
-								record.remove(findex);
-							}
-						}
-						_maxFields = Math.max(_maxFields, record.size());
-						//--- write
-						writeRecord(record, writer);
-					}
-				}
-				finally {
-					_closeReader(reader);
-					reader = null;
-				}
+			if (_binaryOutput) {
+				writer = _createTempWriter(_outFile);
+			} else {
+				writer = _createWriter(_outFile);
 			}
 			
-			// Copy result file
-			if (_writeMergeFile != null) {
+			// Copy header file and result file
+			for (File resultFile : resultFiles) {
+				if (resultFile == null) {
+					continue;
+				}
 				try {
 					// Open result file
-					reader = _createReader(_writeMergeFile);
+					reader = _createTempReader(resultFile);
 					
 					// Copy result file to output file
 					while (reader.hasNext()) {
 						record = reader.next();
-						for (int i = removeIndices.length - 1; i >= 0; --i) {
-							int findex = removeIndices[i];
-							if (findex < record.size()) {
-								record.remove(findex);
+						if (removeIndices.length > 0) {
+							for (int i = removeIndices.length - 1; i >= 0; --i) {
+								int findex = removeIndices[i];
+								if (findex < record.size()) {
+									record.remove(findex);
+								}
 							}
+							_maxFields = Math.max(_maxFields, record.size());
 						}
-						_maxFields = Math.max(_maxFields, record.size());
 						//--- write
 						writeRecord(record, writer);
 					}
@@ -1010,6 +940,10 @@ public class CsvFileSorter
 					reader = null;
 				}
 			}
+			
+			if (!writer.close()) {
+				throw writer.lastException();
+			}
 		}
 		finally {
 			_closeWriter(writer);
@@ -1096,12 +1030,55 @@ public class CsvFileSorter
 		}
 	}
 	
-	private void writeRecord(List<String> row, CsvFileWriter writer) {
+	private void writeRecord(List<String> row, ICsvRecordWriter writer) {
 		if (!writer.writeRecord(row)) {
 			throw new AADLRuntimeException(formatFailedWriteMessage(writer.getFile()), writer.lastException());
 		}
 	}
 	
+	private Iterator<List<String>> _createInputReader(File file) {
+		if (_binaryInput) {
+			return _createTempReader(file);
+		} else {
+			return _createReader(file);
+		}
+	}
+	
+	private void _closeInputReader(Iterator<List<String>> reader) {
+		if (reader instanceof CsvBinaryFileReader) {
+			((CsvBinaryFileReader)reader).close();
+		}
+		else if (reader instanceof CsvFileReader) {
+			((CsvFileReader)reader).close();
+		}
+	}
+	
+	private CsvBinaryFileReader _createTempReader(File file) {
+		try {
+			// CSV 形式と同様に、空のフィールドは null として読み込む
+			CsvBinaryFileReader reader = new CsvBinaryFileReader(file);
+			reader.setEmptyFieldAsNull(true);
+			return reader;
+		} catch (Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+	
+	private CsvBinaryFileWriter _createTempWriter(File file) {
+		try {
+			return new CsvBinaryFileWriter(file);
+		} catch (Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+	
+	// 書き込みエラーを検証してクローズ
+	private void _closeTempWriter(CsvBinaryFileWriter writer) {
+		if (!writer.close()) {
+			throw writer.lastException();
+		}
+	}
+	
 	private CsvFileReader _createReader(File file) {
 		try {
 			CsvFileReader newReader;
@@ -1134,7 +1111,13 @@ public class CsvFileSorter
 		}
 	}
 	
-	private void _closeWriter(CsvFileWriter writer) {
+	private void _closeReader(CsvBinaryFileReader reader) {
+		if (reader != null) {
+			reader.close();
+		}
+	}
+	
+	private void _closeWriter(ICsvRecordWriter writer) {
 		if (writer != null) {
 			writer.close();
 		}
@@ -1172,4 +1155,113 @@ public class CsvFileSorter
 			super(c);
 		}
 	}
+	
+	/**
+	 * 一つの分割をソートし、分割ファイルに出力するタスク。
+	 */
+	protected class RunSortTask implements Runnable
+	{
+		private final CsvRecordComparator	_sortComparator;
+		private final File					_runFile;
+		private CsvRecordList				_rows;
+		
+		public RunSortTask(CsvRecordComparator sortComparator, CsvRecordList rows, File runFile) {
+			_sortComparator = sortComparator;
+			_rows = rows;
+			_runFile = runFile;
+		}
+		
+		public void run() {
+			_sortComparator.sort(_rows);
+			CsvBinaryFileWriter writer = _createTempWriter(_runFile);
+			try {
+				for (List<String> row : _rows) {
+					writeRecord(row, writer);
+				}
+				_closeTempWriter(writer);
+			}
+			finally {
+				_closeWriter(writer);
+				writer = null;
+				_rows = null;	// release memory
+			}
+		}
+	}
+	
+	/**
+	 * マージ中の分割ファイルの読み込み位置。
+	 */
+	static protected class RunCursor
+	{
+		/** 分割ファイルの順序 **/
+		public final int					index;
+		public final CsvBinaryFileReader	reader;
+		/** ソートキーを生成するコンパレータ、ソートキーを使用しない場合は <tt>null</tt> **/
+		public final CsvTypedRecordComparator	keyComparator;
+		/** 現在のレコード **/
+		public List<String>					current;
+		/** 現在のレコードのソートキー **/
+		public Object[]						key;
+		
+		public RunCursor(int index, CsvBinaryFileReader reader, CsvTypedRecordComparator keyComparator) {
+			this.index  = index;
+			this.reader = reader;
+			this.keyComparator = keyComparator;
+		}
+		
+		public boolean next() {
+			if (reader.hasNext()) {
+				current = reader.next();
+				if (keyComparator != null) {
+					key = keyComparator.createSortKey(current);
+				}
+				return true;
+			} else {
+				current = null;
+				key = null;
+				return false;
+			}
+		}
+	}
+	
+	/**
+	 * 現在のレコードで比較し、等しい場合は分割ファイルの順序で比較するコンパレータ。
+	 */
+	static protected class RunCursorComparator implements Comparator<RunCursor>
+	{
+		private final CsvRecordComparator		_recordComparator;
+		private final CsvTypedRecordComparator	_keyComparator;
+		
+		public RunCursorComparator(CsvRecordComparator recordComparator, CsvTypedRecordComparator keyComparator) {
+			_recordComparator = recordComparator;
+			_keyComparator = keyComparator;
+		}
+		
+		public int compare(RunCursor c1, RunCursor c2) {
+			int cmp;
+			if (_keyComparator != null) {
+				cmp = _keyComparator.compareSortKeys(c1.key, c2.key);
+			} else {
+				cmp = _recordComparator.compare(c1.current, c2.current);
+			}
+			if (cmp == 0) {
+				cmp = (c1.index < c2.index ? -1 : (c1.index == c2.index ? 0 : 1));
+			}
+			return cmp;
+		}
+	}
+	
+	/**
+	 * 分割のソートに使用するデーモンスレッドを生成するファクトリ。
+	 */
+	static protected class SortThreadFactory implements ThreadFactory
+	{
+		static private final AtomicInteger	_threadNumber = new AtomicInteger(1);
+		
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "CsvFileSorter-" + _threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
 }
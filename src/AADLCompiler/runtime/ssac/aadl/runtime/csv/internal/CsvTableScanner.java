@@ -0,0 +1,243 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2016  SSAC(Systems of Social Accounting Consortium)
+ *  <author> Yasunari Ishizuka (PieCake,Inc.)
+ *  <author> Hiroshi Deguchi (TOKYO INSTITUTE OF TECHNOLOGY)
+ *  <author> Yuji Onuki (Statistics Bureau)
+ *  <author> Shungo Sakaki (Tokyo University of Technology)
+ *  <author> Akira Sasaki (HOSEI UNIVERSITY)
+ *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
+ */
+/*
+ * @(#)CsvTableScanner.java	2.3.0	2026/10/18
+ *     - created
+ */
+package ssac.aadl.runtime.csv.internal;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import ssac.aadl.runtime.io.CsvFileReader;
+
+/**
+ * CSV ファイルを先頭から一度だけ走査し、処理対象外とする先頭レコード(ヘッダレコード)と
+ * データレコードとを分けて取得するリーダー。
+ * <p>ヘッダレコードはメモリ上に保持し、データレコードは反復子として順次返す。
+ * 走査中のレコード数や最大フィールド数は、{@link CsvFileSorter} と同一の規則で集計する。
+ * レコードの読み込みには {@link CsvFileReader} を使用するため、空のフィールドは <tt>null</tt> となる。
+ * 
+ * @version 2.3.0	2026/10/18
+ * @since 2.3.0
+ */
+public class CsvTableScanner implements Iterable<List<String>>, Iterator<List<String>>
+{
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/** 読み込むファイル **/
+	private final File		_inFile;
+	/** 処理対象外レコード数 **/
+	private final long		_skipRecords;
+	/** レコード先頭に、レコードIDを付加する **/
+	private final boolean	_appendRecordIdAtFirst;
+	/** ヘッダレコード **/
+	private final ArrayList<List<String>>	_headerRecords = new ArrayList<List<String>>();
+
+	private CsvFileReader	_reader;
+
+	/** 読み込んだレコード数(ヘッダレコードも含む) **/
+	private long	_maxRecords = 0L;
+	/** 読み込んだレコードの最大フィールド数(ヘッダレコードも含む) **/
+	private int		_maxFields  = 0;
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	/**
+	 * 指定されたファイルを開き、ヘッダレコードを読み込む。
+	 * @param inFile		読み込む CSV ファイル
+	 * @param encoding		CSV ファイルの文字セット名、標準の文字セットとする場合は <tt>null</tt>
+	 * @param skipRecords	処理対象外レコード数
+	 * @param appendRecordIdAtFirst	レコードの先頭フィールドに 1 から始まるレコード番号を付加する場合は <tt>true</tt>
+	 * @throws NullPointerException	<em>inFile</em> が <tt>null</tt> の場合
+	 * @throws RuntimeException		ファイルを開けない場合
+	 */
+	public CsvTableScanner(File inFile, String encoding, long skipRecords, boolean appendRecordIdAtFirst) {
+		if (inFile == null)
+			throw new NullPointerException("'inFile' is null.");
+		_inFile = inFile;
+		_skipRecords = (skipRecords < 0L ? 0L : skipRecords);
+		_appendRecordIdAtFirst = appendRecordIdAtFirst;
+		try {
+			if (encoding == null)
+				_reader = new CsvFileReader(inFile);
+			else
+				_reader = new CsvFileReader(inFile, encoding);
+		} catch (Exception ex) {
+			throw new RuntimeException(ex);
+		}
+		
+		// read header records
+		try {
+			for (long num = 0L; num < _skipRecords && _reader.hasNext(); ++num) {
+				_headerRecords.add(readRecord());
+			}
+		}
+		catch (RuntimeException ex) {
+			close();
+			throw ex;
+		}
+	}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * 指定されたファイルのすべてのレコードをメモリ上に保持する場合の、メモリ使用量の下限の見積もりを返す。
+	 * この見積もりは、ファイルサイズのみから算出する。
+	 * @param file	CSV ファイル
+	 * @return	メモリ使用量の見積もり(バイト)
+	 */
+	static public long estimateMinimumMemory(File file) {
+		return (file.length() * 2L);
+	}
+
+	public File getFile() {
+		return _inFile;
+	}
+
+	/**
+	 * 読み込んだヘッダレコードのリストを返す。
+	 */
+	public List<List<String>> getHeaderRecords() {
+		return _headerRecords;
+	}
+
+	/**
+	 * これまでに読み込んだレコード数を返す。この値はヘッダレコードも含む。
+	 */
+	public long getMaxRecordCount() {
+		return _maxRecords;
+	}
+
+	/**
+	 * これまでに読み込んだレコードの最大フィールド数を返す。
+	 * この値は、ヘッダレコードおよび付加したレコード番号のフィールドも含む。
+	 */
+	public int getMaxFieldCount() {
+		return _maxFields;
+	}
+
+	/**
+	 * ヘッダレコード数を返す。
+	 */
+	public long getHeaderRecordCount() {
+		return _headerRecords.size();
+	}
+
+	/**
+	 * これまでに読み込んだデータレコード数を返す。
+	 */
+	public long getDataRecordCount() {
+		return (_maxRecords - _headerRecords.size());
+	}
+
+	/**
+	 * 残りのデータレコードをすべて読み込み、リストとして返す。
+	 * 読み込んだレコードのメモリ使用量の見積もりが <em>limitBytes</em> を超えた場合は、
+	 * 読み込みを中断して <tt>null</tt> を返す。
+	 * @param limitBytes	メモリ使用量の上限(バイト)
+	 * @return	データレコードのリスト、メモリ使用量が上限を超えた場合は <tt>null</tt>
+	 */
+	public List<List<String>> readAllDataRecords(long limitBytes) {
+		ArrayList<List<String>> records = new ArrayList<List<String>>();
+		long usedBytes = 0L;
+		while (hasNext()) {
+			List<String> record = next();
+			usedBytes += CsvFileSorter.estimateRecordMemory(record);
+			if (usedBytes > limitBytes) {
+				return null;
+			}
+			records.add(record);
+		}
+		return records;
+	}
+
+	public boolean isOpen() {
+		return (_reader != null);
+	}
+
+	public void close() {
+		if (_reader != null) {
+			_reader.close();
+			_reader = null;
+		}
+	}
+
+	//------------------------------------------------------------
+	// Implement java.lang.Iterable interfaces
+	//------------------------------------------------------------
+
+	public Iterator<List<String>> iterator() {
+		return this;
+	}
+
+	//------------------------------------------------------------
+	// Implement java.util.Iterator interfaces
+	//------------------------------------------------------------
+
+	public boolean hasNext() {
+		return (_reader != null && _reader.hasNext());
+	}
+
+	/**
+	 * 次のデータレコードを返す。
+	 * @throws NoSuchElementException	読み込むレコードが存在しない場合
+	 */
+	public List<String> next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return readRecord();
+	}
+
+	/**
+	 * このメソッドはサポートされません。
+	 * @throws UnsupportedOperationException	常にスローされる
+	 */
+	public void remove() {
+		throw new UnsupportedOperationException("Unsupported \"remove\" operation!");
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	private List<String> readRecord() {
+		List<String> record = _reader.next();
+		++_maxRecords;
+		if (_appendRecordIdAtFirst) {
+			// レコード先頭フィールドに、レコードIDを付加
+			record.add(0, String.valueOf(_maxRecords));
+		}
+		_maxFields = Math.max(_maxFields, record.size());
+		return record;
+	}
+}
@@ -20,23 +20,30 @@
  *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
  */
 /*
+ * @(#)CsvTypedRecordComparator.java	2.3.0	2026/10/18
+ *     - added containsDataType and pre-typed sort keys
  * @(#)CsvTypedRecordComparator.java	1.90	2013/08/02
  *     - created by Y.Ishizuka(PieCake.inc,)
  */
 package ssac.aadl.runtime.csv.internal;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
-import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
 
 import ssac.aadl.runtime.util.internal.FSDateTimeFormats;
 
 /**
  * データ型に応じて、CSV レコードの指定フィールドの値で比較するコンパレータ。
+ * <p>{@link #sort(List)} では、レコードごとに比較条件のデータ型に変換済みのソートキーを一度だけ生成し、
+ * 比較のたびにフィールド値を変換することなくソートする。
  * 
- * @version 1.90	2013/08/02
+ * @version 2.3.0	2026/10/18
  * @since 1.90
  */
 public class CsvTypedRecordComparator implements CsvRecordComparator
@@ -94,6 +101,60 @@ public class CsvTypedRecordComparator implements CsvRecordComparator
 		return sb.toString();
 	}
 
+	/**
+	 * 指定されたデータ型で比較するフィールドが、比較条件に含まれているかを判定する。
+	 * @param datatype	判定するデータ型
+	 * @return	含まれている場合は <tt>true</tt>
+	 * @since 2.3.0
+	 */
+	public boolean containsDataType(int datatype) {
+		for (SortCondItem item : _condlist) {
+			if (item.dataType() == datatype) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 指定されたレコードから、比較条件ごとのデータ型に変換済みのソートキーを生成する。
+	 * ソートキーの比較結果は、{@link #compare(List, List)} の比較結果と同一となる。
+	 * 比較条件が変更された場合、変更前に生成したソートキーは使用できない。
+	 * @param record	レコード
+	 * @return	ソートキー
+	 * @since 2.3.0
+	 */
+	public Object[] createSortKey(List<String> record) {
+		int len = _condlist.size();
+		Object[] key = new Object[len];
+		for (int i = 0; i < len; ++i) {
+			SortCondItem item = _condlist.get(i);
+			int col = item.column();
+			String val = (col < record.size() ? record.get(col) : null);
+			key[i] = toSortKeyValue(item.dataType(), val);
+		}
+		return key;
+	}
+
+	/**
+	 * {@link #createSortKey(List)} で生成したソートキーを比較する。
+	 * @param key1	比較するソートキー
+	 * @param key2	比較するソートキー
+	 * @return	比較結果
+	 * @since 2.3.0
+	 */
+	public int compareSortKeys(Object[] key1, Object[] key2) {
+		int len = _condlist.size();
+		for (int i = 0; i < len; ++i) {
+			int cmp = compareSortKeyValue(_condlist.get(i).isAscending(), key1[i], key2[i]);
+			if (cmp != 0) {
+				return cmp;
+			}
+		}
+		
+		return 0;
+	}
+
 	public void setConditionString(String condString) {
 		List<SortCondItem> items = parseSortConditionString(condString);
 		if (items.isEmpty()) {
@@ -111,7 +172,7 @@ public class CsvTypedRecordComparator implements CsvRecordComparator
 	//------------------------------------------------------------
 
 	public void sort(List<List<String>> records) {
-		Collections.sort(records, this);
+		sortBySortKeys(records);
 	}
 	
 	public void sort(int skipHeaderRows, List<List<String>> records) {
@@ -120,7 +181,7 @@ public class CsvTypedRecordComparator implements CsvRecordComparator
 		} else {
 			int len = records.size();
 			if (len > skipHeaderRows) {
-				Collections.sort(records.subList(skipHeaderRows, len), this);
+				sortBySortKeys(records.subList(skipHeaderRows, len));
 			}
 		}
 	}
@@ -234,6 +295,101 @@ public class CsvTypedRecordComparator implements CsvRecordComparator
 		return cmp;
 	}
 	
+	/**
+	 * レコードごとにソートキーを生成し、ソートキーで安定ソートする。
+	 * ソート結果は <code>Collections.sort(records, this)</code> と同一となる。
+	 */
+	protected void sortBySortKeys(List<List<String>> records) {
+		int len = records.size();
+		if (len < 2) {
+			return;
+		}
+		
+		KeyedRecord[] keyedRecords = new KeyedRecord[len];
+		int index = 0;
+		for (List<String> record : records) {
+			keyedRecords[index++] = new KeyedRecord(createSortKey(record), record);
+		}
+		Arrays.sort(keyedRecords, new Comparator<KeyedRecord>() {
+			public int compare(KeyedRecord o1, KeyedRecord o2) {
+				return compareSortKeys(o1.key, o2.key);
+			}
+		});
+		ListIterator<List<String>> it = records.listIterator();
+		for (KeyedRecord keyed : keyedRecords) {
+			it.next();
+			it.set(keyed.record);
+		}
+	}
+	
+	/**
+	 * 指定されたデータ型に変換したソートキーの値を返す。
+	 * 変換できない場合は文字列のまま、<tt>null</tt> の場合は <tt>null</tt> を返す。
+	 */
+	protected Object toSortKeyValue(int datatype, String val) {
+		if (val == null) {
+			return null;
+		}
+		
+		if (datatype == DATATYPE_DECIMAL) {
+			try {
+				return new BigDecimal(val);
+			} catch (NumberFormatException ignoreEx) {
+				return val;
+			}
+		}
+		else if (datatype == DATATYPE_DATETIME) {
+			Calendar cal = _dtformat.parse(val);
+			return (cal != null ? cal : val);
+		}
+		else {
+			return val;
+		}
+	}
+	
+	/**
+	 * ソートキーの値を比較する。比較規則は {@link #compareFieldValue(int, boolean, String, String)} と同一とする。
+	 */
+	@SuppressWarnings("unchecked")
+	protected int compareSortKeyValue(boolean ascending, Object val1, Object val2) {
+		// null check
+		if (val1 == null) {
+			if (val2 != null) {
+				return (ascending ? -1 : 1);
+			} else {
+				return 0;
+			}
+		}
+		else if (val2 == null) {
+			return (ascending ? 1 : -1);
+		}
+		
+		int cmp;
+		if (val1 instanceof String) {
+			if (val2 instanceof String) {
+				// compare by string
+				cmp = ((String)val1).compareTo((String)val2);
+			} else {
+				// (val1:String < val2:Decimal or DateTime)
+				cmp = (-1);
+			}
+		}
+		else if (val2 instanceof String) {
+			// (val1:Decimal or DateTime > val2:String)
+			cmp = 1;
+		}
+		else {
+			// (val1:Decimal ; val2:Decimal) or (val1:DateTime ; val2:DateTime)
+			cmp = ((Comparable)val1).compareTo(val2);
+		}
+		
+		if (!ascending) {
+			cmp = -cmp;
+		}
+		
+		return cmp;
+	}
+	
 	static protected ArrayList<SortCondItem> parseSortConditionString(String input) {
 		ArrayList<SortCondItem> itemlist = new ArrayList<SortCondItem>();
 		
@@ -455,6 +611,20 @@ public class CsvTypedRecordComparator implements CsvRecordComparator
 	// Inner classes
 	//------------------------------------------------------------
 	
+	/**
+	 * ソートキーとレコードの組。
+	 */
+	static protected class KeyedRecord
+	{
+		public final Object[]		key;
+		public final List<String>	record;
+		
+		public KeyedRecord(Object[] key, List<String> record) {
+			this.key = key;
+			this.record = record;
+		}
+	}
+	
 	static protected class SortCondItem
 	{
 		private final int		_column;
@@ -20,6 +20,8 @@
  *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
  */
 /*
+ * @(#)CsvFileReader.java	2.3.0	2026/10/18
+ *     - block-buffered reading and fast record parsing without position information
  * @(#)CsvFileReader.java	1.81	2012/09/24
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)CsvFileReader.java	1.50	2010/09/29
@@ -52,8 +54,14 @@ import ssac.aadl.runtime.io.internal.AbTextFileReader;
  * 読み込みエラーが発生した場合、このファイルは自動的に閉じられます。
  * ファイルが最後まで読み込まれない状態で処理を中断した場合は、
  * {@link #close()} メソッドを呼び出してファイルを閉じてください。
+ * <p>
+ * 標準では、フィールドごとの位置情報を保持せずに、読み込みバッファ上で直接
+ * フィールドを切り出す高速な方法でレコードを読み込みます。
+ * {@link #setKeepPositionInfo(boolean)} に <tt>true</tt> を指定した場合は、
+ * フィールドごとの位置情報を保持する {@link CsvRecord} を生成して読み込みます。
+ * どちらの方法でも、取得されるレコードの内容は同一です。
  * 
- * @version 1.81	2012/09/24
+ * @version 2.3.0	2026/10/18
  * 
  * @author Yasunari Ishizuka (PieCake,Inc.)
  * @author Hiroshi Deguchi (TOKYO INSTITUTE OF TECHNOLOGY)
@@ -70,6 +78,9 @@ public class CsvFileReader extends AbTextFileReader<List<String>>
 	// Constants
 	//------------------------------------------------------------
 
+	/** 文字の読み込みバッファのサイズ **/
+	static private final int	CHAR_BUFFER_SIZE	= 8192;
+
 	//------------------------------------------------------------
 	// Fields
 	//------------------------------------------------------------
@@ -77,6 +88,22 @@ public class CsvFileReader extends AbTextFileReader<List<String>>
 	/** 読み込み済みの次の CSV レコード **/
 	private CsvRecord	_nextCsvRecord;
 	
+	/** フィールドごとの位置情報を保持する **/
+	private boolean	_keepPositionInfo = false;
+	
+	/** 文字の読み込みバッファ **/
+	private final char[]	_charBuffer = new char[CHAR_BUFFER_SIZE];
+	/** 読み込みバッファ内の次に読み込む文字の位置 **/
+	private int	_charBufferPos = 0;
+	/** 読み込みバッファ内の有効な文字数 **/
+	private int	_charBufferLen = 0;
+	/** 複数の読み込みバッファにまたがるフィールドの作業用バッファ **/
+	private final StringBuilder	_fieldBuffer = new StringBuilder();
+	/** 高速な読み込みで最後に読み込んだフィールドの値 **/
+	private String	_lastFieldValue;
+	/** 前回読み込んだレコードのフィールド数 **/
+	private int	_lastFieldCount = 10;
+	
 	/**
 	 * カラム区切り文字
 	 */
@@ -171,6 +198,27 @@ public class CsvFileReader extends AbTextFileReader<List<String>>
 		this._csvDelimiter = delimiter;
 	}
 
+	/**
+	 * フィールドごとの位置情報を保持してレコードを読み込む場合に <tt>true</tt> を返す。
+	 * @since 2.3.0
+	 */
+	public boolean isKeepPositionInfo() {
+		return _keepPositionInfo;
+	}
+
+	/**
+	 * フィールドごとの位置情報を保持してレコードを読み込むかを設定します。
+	 * <p>
+	 * <tt>false</tt> (標準) の場合、位置情報を保持せずに高速にレコードを読み込みます。
+	 * ただし、フィールド区切り文字が改行文字の場合は、常に位置情報を保持して読み込みます。
+	 * 
+	 * @param toKeep	位置情報を保持する場合は <tt>true</tt>
+	 * @since 2.3.0
+	 */
+	public void setKeepPositionInfo(boolean toKeep) {
+		this._keepPositionInfo = toKeep;
+	}
+
 	//------------------------------------------------------------
 	// Internal methods
 	//------------------------------------------------------------
@@ -213,6 +261,13 @@ public class CsvFileReader extends AbTextFileReader<List<String>>
 	 */
 	@Override
 	protected boolean readNextRecord() throws IOException {
+		if (!_keepPositionInfo && _csvDelimiter != '\r' && _csvDelimiter != '\n') {
+			// 位置情報なしの高速な読み込み
+			_nextCsvRecord = null;
+			_nextRecord = readFastRecord();
+			return (_nextRecord != null);
+		}
+		
 		_nextCsvRecord = readRecord();
 		if (_nextCsvRecord != null) {
 			_nextRecord = _nextCsvRecord.toStringList();
@@ -223,6 +278,55 @@ public class CsvFileReader extends AbTextFileReader<List<String>>
 		}
 	}
 
+	/**
+	 * ストリームの現在位置から、フィールドごとの位置情報を保持せずに 1 レコード読み込む。
+	 * <p>
+	 * このメソッドは、読み込みバッファ上で区切り文字やダブルクオートを検索し、
+	 * フィールドの値を直接切り出す。読み込まれるレコードの内容は、
+	 * {@link #readRecord()} で読み込んだレコードの {@link CsvRecord#toStringList()} と同一となる。
+	 * ただし、フィールド区切り文字は改行文字以外であること。
+	 * 
+	 * @return	1 レコード分のフィールドのリストを返す。空のフィールドは <tt>null</tt> となる。
+	 * 			読み込むレコードが存在しない場合は <tt>null</tt> を返す。
+	 * 
+	 * @throws IOException	読み込みエラーが発生した場合
+	 * @since 2.3.0
+	 */
+	protected List<String> readFastRecord() throws IOException {
+		ArrayList<String> fields = new ArrayList<String>(_lastFieldCount);
+		for (;;) {
+			int iRead = readFastField();
+			if (iRead == _csvDelimiter) {
+				// フィールド終端
+				_csvFieldNo++;
+				fields.add(_lastFieldValue);
+			}
+			else if (iRead >= 0) {
+				// レコード終端
+				_csvRecordNo++;
+				_csvFieldNo = 1;
+				if (_lastFieldValue != null || !fields.isEmpty()) {
+					// 最終フィールドの保存
+					fields.add(_lastFieldValue);
+				}
+				break;
+			}
+			else {
+				// ストリーム終端
+				if (_lastFieldValue == null && fields.isEmpty()) {
+					// 先頭フィールドが存在しないので、レコードなし
+					return null;
+				}
+				// 最終フィールドの保存
+				fields.add(_lastFieldValue);
+				break;
+			}
+		}
+		
+		_lastFieldCount = Math.max(fields.size(), 1);
+		return fields;
+	}
+
 	/**
 	 * ストリームの現在位置から 1 レコード読み込む。
 	 * <p>
@@ -317,12 +421,199 @@ public class CsvFileReader extends AbTextFileReader<List<String>>
 	 */
 	private int readChar() throws IOException
 	{
-		int iRead = _reader.read();
-		if (iRead >= 0) {
+		if (_charBufferPos >= _charBufferLen && !fillCharBuffer()) {
+			return (-1);
+		}
+		_charIndex++;
+		_csvPosInLine++;
+		return _charBuffer[_charBufferPos++];
+	}
+
+	/**
+	 * 読み込みバッファに次の文字を読み込む。
+	 * 
+	 * @return	文字が読み込まれた場合は <tt>true</tt>、ストリーム終端の場合は <tt>false</tt>
+	 * 
+	 * @throws IOException 読み込みエラーが発生した場合
+	 */
+	private boolean fillCharBuffer() throws IOException
+	{
+		int len;
+		do {
+			len = _reader.read(_charBuffer, 0, _charBuffer.length);
+		} while (len == 0);
+		_charBufferPos = 0;
+		if (len < 0) {
+			_charBufferLen = 0;
+			return false;
+		} else {
+			_charBufferLen = len;
+			return true;
+		}
+	}
+
+	/**
+	 * 次の文字が LF であれば、その文字を読み飛ばす。
+	 * 
+	 * @throws IOException 読み込みエラーが発生した場合
+	 */
+	private void skipLineFeed() throws IOException
+	{
+		if (_charBufferPos >= _charBufferLen && !fillCharBuffer()) {
+			return;
+		}
+		if (_charBuffer[_charBufferPos] == '\n') {
+			_charBufferPos++;
 			_charIndex++;
-			_csvPosInLine++;
 		}
-		return iRead;
+	}
+
+	/**
+	 * 作業用バッファの内容をフィールドの値として返す。空の場合は <tt>null</tt> を返す。
+	 */
+	private String toFieldValue(final StringBuilder bufField) {
+		return (bufField.length() > 0 ? bufField.toString() : null);
+	}
+
+	/**
+	 * ストリームの現在位置から、位置情報を保持せずに 1 フィールド分の値を読み込む。
+	 * 読み込んだフィールドの値は、空の場合は <tt>null</tt> として {@link #_lastFieldValue} に格納する。
+	 * フィールドの解釈は {@link #readField(StringBuilder, StringBuilder, char)} と同一となる。
+	 * 
+	 * @return	フィールド区切り文字で終了した場合は区切り文字、改行で終了した場合は LF、
+	 * 			ストリーム終端の場合は負の値を返す。
+	 * 
+	 * @throws IOException	読み込みエラーが発生した場合
+	 */
+	private int readFastField() throws IOException
+	{
+		final char delimiter = _csvDelimiter;
+		StringBuilder bufField = null;
+		_lastFieldValue = null;
+		
+		if (_charBufferPos >= _charBufferLen && !fillCharBuffer()) {
+			// ストリーム終端
+			return (-1);
+		}
+
+		// エンクオート処理
+		if (_charBuffer[_charBufferPos] == '"') {
+			bufField = _fieldBuffer;
+			bufField.setLength(0);
+			_charBufferPos++;
+			_charIndex++;
+			boolean afterCR = false;
+			for (;;) {
+				if (_charBufferPos >= _charBufferLen && !fillCharBuffer()) {
+					// ストリーム終端(エンクオート終端なし)
+					_lastFieldValue = toFieldValue(bufField);
+					return (-1);
+				}
+				// エンクオート終端文字まで検索
+				final char[] buf = _charBuffer;
+				final int len = _charBufferLen;
+				final int start = _charBufferPos;
+				int pos = start;
+				for (; pos < len; pos++) {
+					char ch = buf[pos];
+					if (ch == '"') {
+						break;
+					}
+					else if (ch == '\n') {
+						// CRLF は 1 行とみなす
+						if (!afterCR) {
+							_csvLineNo++;
+						}
+						afterCR = false;
+					}
+					else if (ch == '\r') {
+						_csvLineNo++;
+						afterCR = true;
+					}
+					else {
+						afterCR = false;
+					}
+				}
+				bufField.append(buf, start, pos - start);
+				_charIndex += (pos - start);
+				_charBufferPos = pos;
+				if (pos >= len) {
+					continue;	// 次のバッファ
+				}
+				
+				// エンクオート終端
+				afterCR = false;
+				_charBufferPos++;
+				_charIndex++;
+				if (_charBufferPos >= _charBufferLen && !fillCharBuffer()) {
+					// ストリーム終端
+					_lastFieldValue = toFieldValue(bufField);
+					return (-1);
+				}
+				if (_charBuffer[_charBufferPos] == '"') {
+					// ダブルクオートのエスケープ
+					bufField.append('"');
+					_charBufferPos++;
+					_charIndex++;
+				} else {
+					// エンクオート終了
+					break;
+				}
+			}
+		}
+
+		// 1フィールド分読み込む
+		for (;;) {
+			final char[] buf = _charBuffer;
+			final int len = _charBufferLen;
+			final int start = _charBufferPos;
+			int pos = start;
+			for (; pos < len; pos++) {
+				char ch = buf[pos];
+				if (ch == delimiter || ch == '\n' || ch == '\r') {
+					break;
+				}
+			}
+			_charIndex += (pos - start);
+			
+			if (pos < len) {
+				// フィールド終端
+				if (bufField == null) {
+					_lastFieldValue = (pos > start ? new String(buf, start, pos - start) : null);
+				} else {
+					bufField.append(buf, start, pos - start);
+					_lastFieldValue = toFieldValue(bufField);
+				}
+				char chTerm = buf[pos];
+				_charBufferPos = pos + 1;
+				_charIndex++;
+				if (chTerm == delimiter) {
+					// フィールド終端文字
+					return chTerm;
+				}
+				// レコード終端文字
+				_csvLineNo++;
+				_csvPosInLine = 1;
+				if (chTerm == '\r') {
+					// CRLF 改行
+					skipLineFeed();
+				}
+				return '\n';
+			}
+			
+			// 次のバッファ
+			if (bufField == null) {
+				bufField = _fieldBuffer;
+				bufField.setLength(0);
+			}
+			bufField.append(buf, start, pos - start);
+			_charBufferPos = pos;
+			if (!fillCharBuffer()) {
+				// ストリーム終端
+				_lastFieldValue = toFieldValue(bufField);
+				return (-1);
+			}
+		}
 	}
 
 	/**
@@ -430,13 +721,7 @@ public class CsvFileReader extends AbTextFileReader<List<String>>
 				_csvLineNo++;
 				_csvPosInLine = 1;
 				// 次の文字を先読み
-				_reader.mark(2);
-				int nextRead = _reader.read();
-				if (nextRead != '\n') {
-					_reader.reset();
-				} else {
-					_charIndex++;
-				}
+				skipLineFeed();
 				break;
 			}
 			else {
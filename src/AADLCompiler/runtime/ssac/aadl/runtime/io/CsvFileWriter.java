@@ -20,6 +20,8 @@
  *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
  */
 /*
+ * @(#)CsvFileWriter.java	2.3.0	2026/10/18
+ *     - implements ICsvRecordWriter
  * @(#)CsvFileWriter.java	1.90	2013/08/07
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)CsvFileWriter.java	1.81	2012/09/24
@@ -38,6 +40,7 @@ import java.util.Collection;
 import ssac.aadl.runtime.AADLMessages;
 import ssac.aadl.runtime.AADLRuntimeException;
 import ssac.aadl.runtime.io.internal.AbTextFileWriter;
+import ssac.aadl.runtime.io.internal.ICsvRecordWriter;
 
 import dtalge.util.Strings;
 
@@ -51,7 +54,7 @@ import dtalge.util.Strings;
  * 閉じられません。ファイルへの書き込みが完了したときは、
  * 必ず {@link #close()} メソッドを呼び出してファイルを閉じてください。</b>
  * 
- * @version 1.90	2013/08/07
+ * @version 2.3.0	2026/10/18
  * 
  * @author Yasunari Ishizuka (PieCake,Inc.)
  * @author Hiroshi Deguchi (TOKYO INSTITUTE OF TECHNOLOGY)
@@ -62,7 +65,7 @@ import dtalge.util.Strings;
  * 
  * @since 1.50
  */
-public class CsvFileWriter extends AbTextFileWriter
+public class CsvFileWriter extends AbTextFileWriter implements ICsvRecordWriter
 {
 	//------------------------------------------------------------
 	// Constants
@@ -0,0 +1,92 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2016  SSAC(Systems of Social Accounting Consortium)
+ *  <author> Yasunari Ishizuka (PieCake,Inc.)
+ *  <author> Hiroshi Deguchi (TOKYO INSTITUTE OF TECHNOLOGY)
+ *  <author> Yuji Onuki (Statistics Bureau)
+ *  <author> Shungo Sakaki (Tokyo University of Technology)
+ *  <author> Akira Sasaki (HOSEI UNIVERSITY)
+ *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
+ */
+/*
+ * @(#)ICsvRecordWriter.java	2.3.0	2026/10/18
+ *     - created
+ */
+package ssac.aadl.runtime.io.internal;
+
+import java.io.File;
+import java.util.Collection;
+
+/**
+ * CSV 形式のレコードをフィールド単位で書き込むライターのインタフェース。
+ * 書き込みメソッドは、書き込みに失敗した場合に <tt>false</tt> を返し、
+ * {@link #lastException()} で最後に発生した例外を取得できる。
+ * 
+ * @version 2.3.0	2026/10/18
+ * @since 2.3.0
+ */
+public interface ICsvRecordWriter
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	//------------------------------------------------------------
+	// Interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * 書き込み先のファイルを返す。
+	 */
+	public File getFile();
+
+	/**
+	 * 最後に発生した例外を返す。例外が発生していない場合は <tt>null</tt> を返す。
+	 */
+	public RuntimeException lastException();
+
+	/**
+	 * 現在のレコードを終了する。
+	 * @return	正常に書き込めた場合は <tt>true</tt>、そうでない場合は <tt>false</tt>
+	 */
+	public boolean newRecord();
+
+	/**
+	 * 指定されたオブジェクトを文字列に変換し、新しいフィールドとして書き込む。
+	 * 引数が <tt>null</tt> の場合は空のフィールドとなる。
+	 * @param obj	出力するオブジェクト
+	 * @return	正常に書き込めた場合は <tt>true</tt>、そうでない場合は <tt>false</tt>
+	 */
+	public boolean writeField(Object obj);
+
+	/**
+	 * 指定されたコレクションのすべての要素を、新しいフィールドとして書き込む。
+	 * @param c		フィールドとして出力するオブジェクトのコレクション
+	 * @return	正常に書き込めた場合は <tt>true</tt>、そうでない場合は <tt>false</tt>
+	 */
+	public boolean writeFields(Collection<?> c);
+
+	/**
+	 * 指定されたコレクションのすべての要素を新しいレコードとして書き込み、レコードを終了する。
+	 * @param c		フィールドとして出力するオブジェクトのコレクション
+	 * @return	正常に書き込めた場合は <tt>true</tt>、そうでない場合は <tt>false</tt>
+	 */
+	public boolean writeRecord(Collection<?> c);
+
+	/**
+	 * 書き込み途中のレコードを終了し、ストリームを閉じる。
+	 * @return	正常に閉じた場合、もしくは既に閉じられている場合は <tt>true</tt>
+	 */
+	public boolean close();
+}
@@ -16,6 +16,8 @@
  *  <author> Yasunari Ishizuka(PieCake.inc,)
  */
 /*
+ * @(#)AllUnitTests.java	2.3.0	2026/10/18
+ *     - add tests of ssac.aadl.runtime.csv.internal
  * @(#)AllUnitTests.java	2.1.0	2014/05/29
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)AllUnitTests.java	1.80	2012/05/30
@@ -23,6 +25,8 @@
  */
 package ssac.aadl.runtime;
 
+import ssac.aadl.runtime.csv.internal.CsvBinaryFileTest;
+import ssac.aadl.runtime.csv.internal.CsvFileSorterTest;
 import ssac.aadl.runtime.io.CsvFileReaderTest;
 import ssac.aadl.runtime.io.CsvFileWriterTest;
 import ssac.aadl.runtime.io.TextFileReaderTest;
@@ -79,6 +83,10 @@ public class AllUnitTests
 		suite.addTestSuite(CsvFileReaderTest.class);
 		suite.addTestSuite(CsvFileWriterTest.class);
 		
+		// ssac.aadl.runtime.csv.internal
+		suite.addTestSuite(CsvBinaryFileTest.class);
+		suite.addTestSuite(CsvFileSorterTest.class);
+		
 		// ssac.aadl.runtime.util.range
 		suite.addTestSuite(RangeUtilTest.class);
 		suite.addTestSuite(EmptyRangeIteratorTest.class);
@@ -0,0 +1,405 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2016  SSAC(Systems of Social Accounting Consortium)
+ *  <author> Yasunari Ishizuka (PieCake,Inc.)
+ *  <author> Hiroshi Deguchi (TOKYO INSTITUTE OF TECHNOLOGY)
+ *  <author> Yuji Onuki (Statistics Bureau)
+ *  <author> Shungo Sakaki (Tokyo University of Technology)
+ *  <author> Akira Sasaki (HOSEI UNIVERSITY)
+ *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
+ */
+/*
+ * @(#)CsvBinaryFileTest.java	2.3.0	2026/10/18
+ *     - created
+ */
+package ssac.aadl.runtime.csv.internal;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+import ssac.aadl.runtime.AADLRuntimeException;
+import ssac.aadl.runtime.io.CsvFileReader;
+
+/**
+ * {@link ssac.aadl.runtime.csv.internal.CsvBinaryFileWriter} と
+ * {@link ssac.aadl.runtime.csv.internal.CsvBinaryFileReader} クラスのテスト。
+ *
+ * @version 2.3.0	2026/10/18
+ *
+ * @since 2.3.0
+ */
+public class CsvBinaryFileTest extends TestCase
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	static protected File basedir = new File("testdata/unittest/runtime/csv");
+	static protected File fileTest1_SJIS = new File(basedir, "testData1_sjis.csv");
+	static protected File fileTest1_UTF8 = new File(basedir, "testData1_utf8.csv");
+	static protected File fileTest2_SJIS = new File(basedir, "testData2_sjis.csv");
+	static protected File fileTest2_UTF8 = new File(basedir, "testData2_utf8.csv");
+
+	static private final String nullString = null;
+
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	protected File	binFile;
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		binFile = File.createTempFile("CsvBinaryFileTest", ".bin");
+	}
+
+	protected void tearDown() throws Exception {
+		binFile.delete();
+		super.tearDown();
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	protected void writeBinary(File file, List<? extends List<?>> records) throws IOException {
+		CsvBinaryFileWriter writer = new CsvBinaryFileWriter(file);
+		try {
+			for (List<?> record : records) {
+				assertTrue(writer.writeRecord(record));
+			}
+		}
+		finally {
+			assertTrue(writer.close());
+		}
+	}
+
+	protected List<List<String>> readBinary(File file, boolean emptyAsNull, int bufferSize) throws IOException {
+		List<List<String>> records = new ArrayList<List<String>>();
+		CsvBinaryFileReader reader = new CsvBinaryFileReader(file, bufferSize);
+		reader.setEmptyFieldAsNull(emptyAsNull);
+		try {
+			for (List<String> record : reader) {
+				records.add(record);
+			}
+			assertEquals(records.size(), reader.getRecordCount());
+		}
+		finally {
+			reader.close();
+		}
+		return records;
+	}
+
+	protected List<List<String>> readCsv(File file, String encoding) throws IOException {
+		List<List<String>> records = new ArrayList<List<String>>();
+		CsvFileReader reader = new CsvFileReader(file, encoding);
+		try {
+			for (List<String> record : reader) {
+				records.add(record);
+			}
+		}
+		finally {
+			reader.close();
+		}
+		return records;
+	}
+
+	static protected byte[] readBytes(File file) throws IOException {
+		byte[] buf = new byte[(int)file.length()];
+		FileInputStream in = new FileInputStream(file);
+		try {
+			int len = 0;
+			while (len < buf.length) {
+				int n = in.read(buf, len, buf.length - len);
+				if (n < 0)
+					break;
+				len += n;
+			}
+		}
+		finally {
+			in.close();
+		}
+		return buf;
+	}
+
+	static protected void writeBytes(File file, byte[] data, int len) throws IOException {
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(data, 0, len);
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * 指定されたファイルを最後まで読み込み、読み込みエラーとなることを検証する。
+	 * @return	エラーまでに読み込めたレコード
+	 */
+	protected List<List<String>> assertReadError(File file) throws IOException {
+		List<List<String>> records = new ArrayList<List<String>>();
+		CsvBinaryFileReader reader = new CsvBinaryFileReader(file, 1024);
+		reader.setEmptyFieldAsNull(true);
+		try {
+			while (reader.hasNext()) {
+				records.add(reader.next());
+			}
+			fail("must be throw AADLRuntimeException.");
+		}
+		catch (AADLRuntimeException ex) {
+			assertTrue(ex.getCause() instanceof IOException);
+			assertFalse(reader.isOpen());
+			assertFalse(reader.hasNext());
+		}
+		finally {
+			reader.close();
+		}
+		return records;
+	}
+
+	static protected List<String> toEmptyFieldValue(List<?> record, String emptyValue) {
+		List<String> result = new ArrayList<String>(record.size());
+		for (Object field : record) {
+			String value = CsvBinaryFileWriter.toFieldString(field);
+			result.add(value.length() == 0 ? emptyValue : value);
+		}
+		return result;
+	}
+
+	//------------------------------------------------------------
+	// Test methods
+	//------------------------------------------------------------
+
+	/**
+	 * <tt>null</tt> と空文字列のフィールド。どちらも空のフィールドとして書き込まれる。
+	 */
+	public void testNullAndEmptyFields() throws Exception {
+		List<List<?>> records = new ArrayList<List<?>>();
+		records.add(Arrays.asList("a", nullString, "", "b"));
+		records.add(Arrays.asList(nullString, nullString));
+		records.add(Arrays.asList("", ""));
+		records.add(Arrays.asList("", "c", nullString));
+		records.add(Arrays.asList(" ", "\t", "\u0000"));
+		writeBinary(binFile, records);
+
+		List<List<String>> result = readBinary(binFile, false, CsvBinaryFileReader.DEFAULT_BUFFER_SIZE);
+		assertEquals(records.size(), result.size());
+		for (int i = 0; i < records.size(); ++i) {
+			assertEquals(toEmptyFieldValue(records.get(i), ""), result.get(i));
+		}
+
+		result = readBinary(binFile, true, CsvBinaryFileReader.DEFAULT_BUFFER_SIZE);
+		assertEquals(records.size(), result.size());
+		for (int i = 0; i < records.size(); ++i) {
+			assertEquals(toEmptyFieldValue(records.get(i), null), result.get(i));
+		}
+		assertEquals(Arrays.asList(" ", "\t", "\u0000"), result.get(4));
+	}
+
+	/**
+	 * フィールド数の異なるレコード。空のフィールド一つのみのレコードは、CSV の空行と同様にフィールドなしとなる。
+	 */
+	public void testRaggedRecords() throws Exception {
+		List<List<?>> records = new ArrayList<List<?>>();
+		records.add(Arrays.asList("1", "2", "3"));
+		records.add(Collections.emptyList());
+		records.add(Arrays.asList("x"));
+		records.add(Arrays.asList(nullString));
+		records.add(Arrays.asList(""));
+		List<String> wide = new ArrayList<String>();
+		for (int i = 0; i < 300; ++i) {
+			wide.add(i % 3 == 0 ? nullString : String.valueOf(i));
+		}
+		records.add(wide);
+		records.add(Arrays.asList(new BigDecimal("1.500"), BigDecimal.ZERO, Boolean.TRUE, 12));
+		records.add(Arrays.asList("last", ""));
+		writeBinary(binFile, records);
+
+		List<List<String>> result = readBinary(binFile, true, CsvBinaryFileReader.DEFAULT_BUFFER_SIZE);
+		assertEquals(records.size(), result.size());
+		assertEquals(Arrays.asList("1", "2", "3"), result.get(0));
+		assertTrue(result.get(1).isEmpty());
+		assertEquals(Arrays.asList("x"), result.get(2));
+		assertTrue(result.get(3).isEmpty());
+		assertTrue(result.get(4).isEmpty());
+		assertEquals(toEmptyFieldValue(wide, null), result.get(5));
+		assertEquals(Arrays.asList("1.5", "0", "true", "12"), result.get(6));
+		assertEquals(Arrays.asList("last", nullString), result.get(7));
+
+		// 空のファイル
+		writeBinary(binFile, Collections.<List<?>>emptyList());
+		assertEquals(0L, binFile.length());
+		assertTrue(readBinary(binFile, true, CsvBinaryFileReader.DEFAULT_BUFFER_SIZE).isEmpty());
+	}
+
+	/**
+	 * Shift_JIS(MS932) と UTF-8 の CSV ファイルから読み込んだレコードが、そのまま読み込めること。
+	 */
+	public void testMultiByteText() throws Exception {
+		Object[][] files = {
+				{fileTest1_SJIS, "MS932"},
+				{fileTest1_UTF8, "UTF-8"},
+				{fileTest2_SJIS, "MS932"},
+				{fileTest2_UTF8, "UTF-8"},
+		};
+		for (Object[] csv : files) {
+			List<List<String>> records = readCsv((File)csv[0], (String)csv[1]);
+			assertFalse(records.isEmpty());
+			writeBinary(binFile, records);
+			assertEquals(records, readBinary(binFile, true, CsvBinaryFileReader.DEFAULT_BUFFER_SIZE));
+			assertEquals(records, readBinary(binFile, true, 1024));
+		}
+
+		// MS932 固有の文字、サロゲートペア、制御文字
+		List<List<String>> records = new ArrayList<List<String>>();
+		records.add(Arrays.asList("①Ⅱ㈱～∥－￢", "髙﨑", "𠮷野家", "ｱｲｳｴｵ"));
+		records.add(Arrays.asList("改行\r\nを含む", "\"引用\"", "カンマ,タブ\t", "\u007F\u0080߿ࠀ￿"));
+		writeBinary(binFile, records);
+		assertEquals(records, readBinary(binFile, true, CsvBinaryFileReader.DEFAULT_BUFFER_SIZE));
+	}
+
+	/**
+	 * 読み込みバッファより長いフィールド。
+	 */
+	public void testLongFields() throws Exception {
+		StringBuilder sbAscii = new StringBuilder();
+		StringBuilder sbMulti = new StringBuilder();
+		for (int i = 0; i < 100000; ++i) {
+			sbAscii.append((char)('a' + (i % 26)));
+			sbMulti.append((char)('あ' + (i % 80)));
+		}
+		List<List<String>> records = new ArrayList<List<String>>();
+		records.add(Arrays.asList(sbAscii.toString(), "short", sbMulti.toString()));
+		records.add(Arrays.asList("x", sbMulti.toString()));
+		records.add(Arrays.asList(sbAscii.substring(0, 1023), sbAscii.substring(0, 1024), sbMulti.substring(0, 341)));
+		writeBinary(binFile, records);
+		assertTrue(binFile.length() > CsvBinaryFileReader.DEFAULT_BUFFER_SIZE * 2);
+
+		assertEquals(records, readBinary(binFile, true, CsvBinaryFileReader.DEFAULT_BUFFER_SIZE));
+		assertEquals(records, readBinary(binFile, true, 1024));
+	}
+
+	/**
+	 * 保存した位置からの再読み込み。
+	 */
+	public void testSeekToMarkedReadPosition() throws Exception {
+		List<List<String>> records = readCsv(fileTest1_UTF8, "UTF-8");
+		writeBinary(binFile, records);
+
+		CsvBinaryFileReader reader = new CsvBinaryFileReader(binFile, 1024);
+		reader.setEmptyFieldAsNull(true);
+		try {
+			assertEquals(records.get(0), reader.next());
+			reader.markNextReadPosition();
+			assertEquals(records.get(1), reader.next());
+			assertEquals(records.get(2), reader.next());
+			reader.seekToMarkedReadPosition();
+			assertEquals(records.get(1), reader.next());
+			for (int i = 2; i < records.size(); ++i) {
+				assertEquals(records.get(i), reader.next());
+			}
+			assertFalse(reader.hasNext());
+			reader.seekToMarkedReadPosition();
+			assertTrue(reader.hasNext());
+			assertEquals(records.get(1), reader.next());
+		}
+		finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * 途中で終了しているファイルは、完全なレコードのみを読み込み、エラーとなること。
+	 */
+	public void testTruncatedFile() throws Exception {
+		List<List<String>> records = new ArrayList<List<String>>();
+		records.add(Arrays.asList("abc", "日本語", nullString));
+		records.add(Arrays.asList(nullString, nullString));
+		records.add(Collections.<String>emptyList());
+		records.add(Arrays.asList("𠮷", nullString, "z"));
+		records.add(Arrays.asList("last"));
+
+		// レコード境界の位置
+		List<Long> boundaries = new ArrayList<Long>();
+		for (int i = 0; i <= records.size(); ++i) {
+			writeBinary(binFile, records.subList(0, i));
+			boundaries.add(binFile.length());
+		}
+		byte[] data = readBytes(binFile);
+
+		for (int len = 0; len < data.length; ++len) {
+			writeBytes(binFile, data, len);
+			int numRecords = boundaries.indexOf(Long.valueOf(len));
+			if (numRecords >= 0) {
+				assertEquals(records.subList(0, numRecords), readBinary(binFile, true, 1024));
+			} else {
+				List<List<String>> result = assertReadError(binFile);
+				assertTrue(result.size() < records.size());
+				assertEquals(records.subList(0, result.size()), result);
+			}
+		}
+	}
+
+	/**
+	 * フィールド数、文字数、文字の符号化が不正なファイルは、エラーとなること。
+	 */
+	public void testCorruptFile() throws Exception {
+		byte[][] corrupts = {
+				// 上限を超えるフィールド数
+				{(byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, 0x07, 0x01, 0x41},
+				// 負のフィールド数
+				{(byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, 0x0F, 0x01, 0x41},
+				// 可変長整数が長すぎる
+				{(byte)0x81, (byte)0x80, (byte)0x80, (byte)0x80, (byte)0x80, 0x00, 0x01, 0x41},
+				// ファイル長を超える文字数
+				{0x01, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, 0x07, 0x41},
+				{0x02, 0x01, 0x41, 0x05, 0x41, 0x42},
+				// 不正な先頭バイト
+				{0x01, 0x01, (byte)0x80},
+				{0x01, 0x01, (byte)0xF0},
+				// 不正な後続バイト
+				{0x01, 0x01, (byte)0xC3, 0x41},
+				{0x01, 0x01, (byte)0xE3, (byte)0x81, 0x41},
+				{0x01, 0x02, (byte)0xE3, 0x41, (byte)0x82, 0x41},
+		};
+		List<List<String>> valid = new ArrayList<List<String>>();
+		valid.add(Arrays.asList("abc", "日本語"));
+		writeBinary(binFile, valid);
+		byte[] head = readBytes(binFile);
+
+		for (byte[] corrupt : corrupts) {
+			writeBytes(binFile, corrupt, corrupt.length);
+			assertTrue(assertReadError(binFile).isEmpty());
+
+			// 正常なレコードに続く不正なレコード
+			byte[] data = new byte[head.length + corrupt.length];
+			System.arraycopy(head, 0, data, 0, head.length);
+			System.arraycopy(corrupt, 0, data, head.length, corrupt.length);
+			writeBytes(binFile, data, data.length);
+			assertEquals(valid, assertReadError(binFile));
+		}
+	}
+}
@@ -0,0 +1,292 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2016  SSAC(Systems of Social Accounting Consortium)
+ *  <author> Yasunari Ishizuka (PieCake,Inc.)
+ *  <author> Hiroshi Deguchi (TOKYO INSTITUTE OF TECHNOLOGY)
+ *  <author> Yuji Onuki (Statistics Bureau)
+ *  <author> Shungo Sakaki (Tokyo University of Technology)
+ *  <author> Akira Sasaki (HOSEI UNIVERSITY)
+ *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
+ */
+/*
+ * @(#)CsvFileSorterTest.java	2.3.0	2026/10/18
+ *     - created
+ */
+package ssac.aadl.runtime.csv.internal;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import ssac.aadl.runtime.io.CsvFileReader;
+import ssac.aadl.runtime.io.CsvFileWriter;
+
+/**
+ * {@link ssac.aadl.runtime.csv.internal.CsvFileSorter} クラスのテスト。
+ * <p>ソート結果のファイルを、全レコードをメモリ上で安定ソートした結果のファイルと比較する。
+ *
+ * @version 2.3.0	2026/10/18
+ *
+ * @since 2.3.0
+ */
+public class CsvFileSorterTest extends TestCase
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	static protected final String	encoding = "UTF-8";
+
+	static private final String nullString = null;
+
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	protected File	tempDir;
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		tempDir = File.createTempFile("CsvFileSorterTest", "");
+		tempDir.delete();
+		if (!tempDir.mkdir()) {
+			throw new IOException("Failed to create directory : " + tempDir);
+		}
+	}
+
+	protected void tearDown() throws Exception {
+		File[] files = tempDir.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		tempDir.delete();
+		super.tearDown();
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	protected File writeCsvFile(String name, List<List<String>> records) throws IOException {
+		File file = new File(tempDir, name);
+		CsvFileWriter writer = new CsvFileWriter(file, encoding);
+		try {
+			for (List<String> record : records) {
+				assertTrue(writer.writeRecord(record));
+			}
+		}
+		finally {
+			assertTrue(writer.close());
+		}
+		return file;
+	}
+
+	protected List<List<String>> readCsvFile(File file) throws IOException {
+		List<List<String>> records = new ArrayList<List<String>>();
+		CsvFileReader reader = new CsvFileReader(file, encoding);
+		try {
+			for (List<String> record : reader) {
+				records.add(record);
+			}
+		}
+		finally {
+			reader.close();
+		}
+		return records;
+	}
+
+	static protected byte[] readBytes(File file) throws IOException {
+		byte[] buf = new byte[(int)file.length()];
+		FileInputStream in = new FileInputStream(file);
+		try {
+			int len = 0;
+			while (len < buf.length) {
+				int n = in.read(buf, len, buf.length - len);
+				if (n < 0)
+					break;
+				len += n;
+			}
+		}
+		finally {
+			in.close();
+		}
+		return buf;
+	}
+
+	/**
+	 * 指定されたファイルを {@link CsvFileSorter} でソートし、
+	 * ファイルの全レコードを {@link Collections#sort(List, java.util.Comparator)} で安定ソートした結果と比較する。
+	 * @return	ソート結果のレコード
+	 */
+	protected List<List<String>> sortAndCompare(File inFile, long skipRecords, CsvRecordComparator comparator,
+												long maxMemory, int numThreads) throws IOException
+	{
+		// expected
+		List<List<String>> expected = readCsvFile(inFile);
+		int numHeaders = (int)Math.min(skipRecords, expected.size());
+		Collections.sort(expected.subList(numHeaders, expected.size()), comparator);
+		File expectedFile = writeCsvFile("expected.csv", expected);
+
+		// sort
+		File outFile = new File(tempDir, "sorted.csv");
+		CsvFileSorter sorter = new CsvFileSorter(inFile, outFile, encoding, skipRecords, comparator);
+		sorter.setTempDirectory(tempDir);
+		sorter.setMaxMemory(maxMemory);
+		sorter.setThreadCount(numThreads);
+		sorter.sort();
+		assertEquals(numHeaders, sorter.getHeaderRecordCount());
+		assertEquals(expected.size() - numHeaders, sorter.getSortedRecordCount());
+
+		assertTrue(Arrays.equals(readBytes(expectedFile), readBytes(outFile)));
+		List<List<String>> result = readCsvFile(outFile);
+
+		// テンポラリファイルは削除されている
+		File[] files = tempDir.listFiles();
+		assertEquals(3, files.length);	// in, expected, sorted
+		return result;
+	}
+
+	static protected List<List<String>> createRandomRecords(Random rand, int numRecords, int numKeys) {
+		List<List<String>> records = new ArrayList<List<String>>(numRecords);
+		for (int i = 0; i < numRecords; ++i) {
+			List<String> record = new ArrayList<String>();
+			record.add(String.valueOf(rand.nextInt(numKeys)));
+			record.add(String.valueOf(i));
+			int numFields = rand.nextInt(3);
+			for (int j = 0; j < numFields; ++j) {
+				record.add(rand.nextBoolean() ? "値" + rand.nextInt(100) : nullString);
+			}
+			records.add(record);
+		}
+		return records;
+	}
+
+	//------------------------------------------------------------
+	// Test methods
+	//------------------------------------------------------------
+
+	/**
+	 * メモリ上限を最小とし、一度にマージできる数を超える分割ファイルを作成するソート。
+	 */
+	public void testSortMultipleRuns() throws Exception {
+		List<List<String>> records = createRandomRecords(new Random(20261018L), 2000, 500);
+		File inFile = writeCsvFile("in.csv", records);
+
+		// 1 スレッド
+		List<List<String>> result = sortAndCompare(inFile, 0L, new CsvStringRecordComparator(), 1L, 1);
+		assertEquals(records.size(), result.size());
+
+		// 複数スレッド
+		sortAndCompare(inFile, 0L, new CsvStringRecordComparator(false), 1L, 4);
+
+		// 降順、ヘッダ行あり
+		sortAndCompare(inFile, 3L, new CsvTypedRecordComparator(null, "1:decimal=desc,2:decimal"), 1L, 2);
+
+		// メモリ上限なし(分割なし)
+		sortAndCompare(inFile, 0L, new CsvStringRecordComparator(), 0L, 1);
+	}
+
+	/**
+	 * 同じキーを持つレコードが、入力の順序を保持してソートされること。
+	 */
+	public void testSortStable() throws Exception {
+		List<List<String>> records = createRandomRecords(new Random(1L), 1500, 7);
+		File inFile = writeCsvFile("in.csv", records);
+
+		CsvRecordComparator[] comparators = {
+				new CsvTypedRecordComparator(null, "1"),
+				new CsvTypedRecordComparator(null, "1:decimal=desc"),
+				new CsvStringRecordComparator(true, 1, 2, 3),
+		};
+		for (CsvRecordComparator comparator : comparators) {
+			List<List<String>> result = sortAndCompare(inFile, 0L, comparator, 1L, 3);
+			assertEquals(records.size(), result.size());
+			for (int i = 1; i < result.size(); ++i) {
+				List<String> prev = result.get(i-1);
+				List<String> cur  = result.get(i);
+				if (comparator.compare(prev, cur) == 0) {
+					assertTrue(Integer.parseInt(prev.get(1)) < Integer.parseInt(cur.get(1)));
+				} else {
+					assertTrue(comparator.compare(prev, cur) < 0);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 数値と日付時刻のキーによるソート。変換できない値と空のフィールドを含む。
+	 */
+	public void testSortTypedKeys() throws Exception {
+		Random rand = new Random(123L);
+		String[] decimals = {"10", "9", "-1.5", "1E+2", "0.00", "0", "abc", "", " 3 "};
+		String[] dates = {"2015/06/29", "2015/6/3", "1999/12/31 23:59:59", "2000-01-01", "xyz", ""};
+		List<List<String>> records = new ArrayList<List<String>>();
+		records.add(Arrays.asList("番号", "数値", "日付"));
+		for (int i = 0; i < 800; ++i) {
+			records.add(Arrays.asList(String.valueOf(i),
+									decimals[rand.nextInt(decimals.length)],
+									dates[rand.nextInt(dates.length)]));
+		}
+		File inFile = writeCsvFile("in.csv", records);
+
+		CsvTypedRecordComparator comparator = new CsvTypedRecordComparator(null, "2:decimal,3:datetime=desc");
+		assertTrue(comparator.createSortKey(Arrays.asList("1", "10", "2015/06/29"))[0] instanceof java.math.BigDecimal);
+		assertTrue(comparator.createSortKey(Arrays.asList("1", "10", "2015/06/29"))[1] instanceof Calendar);
+		List<List<String>> result = sortAndCompare(inFile, 1L, comparator, 1L, 1);
+		assertEquals(Arrays.asList("番号", "数値", "日付"), result.get(0));
+
+		// 日付時刻の比較は 1 スレッドで実行される
+		sortAndCompare(inFile, 1L, new CsvTypedRecordComparator(null, "3:datetime,2:decimal=desc,1:decimal"), 1L, 4);
+		sortAndCompare(inFile, 1L, new CsvTypedRecordComparator(null, "2:decimal=desc,1:string"), 1L, 4);
+	}
+
+	/**
+	 * 空のファイルと、ヘッダ行のみのファイルのソート。
+	 */
+	public void testSortEmptyInput() throws Exception {
+		List<List<String>> records = new ArrayList<List<String>>();
+		File inFile = writeCsvFile("in.csv", records);
+		assertEquals(0L, inFile.length());
+		List<List<String>> result = sortAndCompare(inFile, 0L, new CsvStringRecordComparator(), 1L, 1);
+		assertTrue(result.isEmpty());
+		result = sortAndCompare(inFile, 2L, new CsvTypedRecordComparator(null, "1:decimal"), 1L, 1);
+		assertTrue(result.isEmpty());
+
+		// ヘッダ行のみ
+		records.add(Arrays.asList("a", "b"));
+		records.add(Arrays.asList("1", nullString));
+		inFile = writeCsvFile("in.csv", records);
+		result = sortAndCompare(inFile, 2L, new CsvStringRecordComparator(), 1L, 1);
+		assertEquals(2, result.size());
+		result = sortAndCompare(inFile, 5L, new CsvStringRecordComparator(), 1L, 1);
+		assertEquals(2, result.size());
+
+		// 1 レコードのみ
+		result = sortAndCompare(inFile, 1L, new CsvStringRecordComparator(), 1L, 1);
+		assertEquals(2, result.size());
+	}
+}
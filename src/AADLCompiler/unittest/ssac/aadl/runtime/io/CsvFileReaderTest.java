@@ -20,6 +20,8 @@
  *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
  */
 /*
+ * @(#)CsvFileReaderTest.java	2.3.0	2026/10/18
+ *     - add tests of reading without position information
  * @(#)CsvFileReaderTest.java	1.50	2010/09/27
  *     - created by Y.Ishizuka(PieCake.inc,)
  */
@@ -27,6 +29,8 @@ package ssac.aadl.runtime.io;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -38,7 +42,7 @@ import junit.framework.TestCase;
 /**
  * {@link ssac.aadl.runtime.io.CsvFileReader} クラスのテスト。
  * 
- * @version 1.50	2010/09/27
+ * @version 2.3.0	2026/10/18
  * 
  * @author Yasunari Ishizuka (PieCake,Inc.)
  * 
@@ -447,4 +451,81 @@ public class CsvFileReaderTest extends TestCase
 			}
 		}
 	}
+
+	/**
+	 * Test method for {@link ssac.aadl.runtime.io.CsvFileReader#isKeepPositionInfo()},
+	 * {@link ssac.aadl.runtime.io.CsvFileReader#setKeepPositionInfo(boolean)}.
+	 */
+	public void testKeepPositionInfo() throws IOException {
+		CsvFileReader tfr = new CsvFileReader(fileTest1_UTF8, "UTF-8");
+		try {
+			assertFalse(tfr.isKeepPositionInfo());
+			tfr.setKeepPositionInfo(true);
+			assertTrue(tfr.isKeepPositionInfo());
+		}
+		finally {
+			tfr.close();
+		}
+		
+		assertEquals(readAllRecords(fileTest1_UTF8, true), readAllRecords(fileTest1_UTF8, false));
+		assertEquals(readAllRecords(fileTest2_UTF8, true), readAllRecords(fileTest2_UTF8, false));
+	}
+
+	/**
+	 * 位置情報の有無によらず、同一のレコードが読み込まれることのテスト。
+	 */
+	public void testReadWithoutPositionInfo() throws IOException {
+		StringBuilder sbLong = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			sbLong.append((char)('a' + (i % 26)));
+		}
+		String[] contents = {
+				"",
+				"\"\"",
+				"\"\"\n",
+				",",
+				"a,\n,b\n,\n",
+				"\n\n\na\n\n",
+				"a\rb,c\r\nd\r",
+				"\"ab\"cd,\"x\"\"y\"z,\"q\r\nw\rv\ne\"\n",
+				"a,\"unterminated\nmore",
+				"x,\"a\"",
+				"x,\"a\"\r",
+				sbLong + "," + sbLong + "\n\"" + sbLong + "\"\"\r\n" + sbLong + "\"," + sbLong,
+		};
+		
+		File tmpFile = File.createTempFile("csvtest", ".csv");
+		try {
+			for (String content : contents) {
+				FileOutputStream fos = new FileOutputStream(tmpFile);
+				try {
+					fos.write(content.getBytes("UTF-8"));
+				} finally {
+					fos.close();
+				}
+				
+				List<List<String>> expected = readAllRecords(tmpFile, true);
+				List<List<String>> actual = readAllRecords(tmpFile, false);
+				assertEquals(expected, actual);
+			}
+		}
+		finally {
+			tmpFile.delete();
+		}
+	}
+	
+	static private List<List<String>> readAllRecords(File file, boolean keepPositionInfo) throws IOException {
+		ArrayList<List<String>> list = new ArrayList<List<String>>();
+		CsvFileReader tfr = new CsvFileReader(file, "UTF-8");
+		try {
+			tfr.setKeepPositionInfo(keepPositionInfo);
+			for (List<String> rec : tfr) {
+				list.add(rec);
+			}
+		}
+		finally {
+			tfr.close();
+		}
+		return list;
+	}
 }
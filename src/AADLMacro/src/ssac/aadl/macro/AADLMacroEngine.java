@@ -20,6 +20,8 @@
  *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
  */
 /*
+ * @(#)AADLMacroEngine.java	2.2.0	2026/10/18
+ *     - modified
  * @(#)AADLMacroEngine.java	2.1.0	2014/05/29
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)AADLMacroEngine.java	2.0.0	2014/03/23 : modified and move 'ssac.util.*' to 'ssac.aadl.macro.util.*' (recursive) 
@@ -42,8 +44,12 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import ssac.aadl.macro.data.MacroResultCache;
+import ssac.aadl.macro.process.ModuleClassLoaderCache;
 import ssac.aadl.macro.util.Classes;
 import ssac.aadl.macro.util.Strings;
 import ssac.aadl.macro.util.io.ReportPrinter;
@@ -53,7 +59,7 @@ import ssac.aadl.macro.util.io.ReportWriter;
 /**
  * AADLマクロ実行エンジン。
  * 
- * @version 2.1.0	2014/05/29
+ * @version 2.2.0	2026/10/18
  * @since 1.00
  */
 public class AADLMacroEngine
@@ -107,7 +113,7 @@ public class AADLMacroEngine
 	/**
 	 * AADLマクロ実行エンジンのバージョン番号
 	 */
-	static public final String VERSION = "2.1.0.20140529";
+	static public final String VERSION = "2.2.0.20261018";
 	/**
 	 * AADLマクロ実行エンジンのバージョン情報
 	 */
@@ -169,6 +175,18 @@ public class AADLMacroEngine
 	 */
 	private final CommandLineParser cmdLine = new CommandLineParser();
 
+	/**
+	 * プロセス内で実行するモジュールのクラスローダー
+	 * @since 2.2.0
+	 */
+	private ModuleClassLoaderCache moduleClassLoaders = null;
+
+	/**
+	 * JAVA コマンドの実行結果のキャッシュ
+	 * @since 2.2.0
+	 */
+	private MacroResultCache resultCache = null;
+
 	//------------------------------------------------------------
 	// Constructions
 	//------------------------------------------------------------
@@ -660,6 +678,90 @@ public class AADLMacroEngine
 		return (cmdLine != null ? cmdLine.isVerbose() : false);
 	}
 
+	/**
+	 * JAVAモジュールを、このプロセス内で実行するモードかを判定する。
+	 * 
+	 * @return	プロセス内実行モードなら <tt>true</tt> を返す。
+	 * @since 2.2.0
+	 */
+	public boolean isInProcessMode() {
+		return (cmdLine != null ? cmdLine.isInProcess() : false);
+	}
+
+	/**
+	 * 同時に実行されるノード間で受け渡すテンポラリファイルを、名前付きパイプとするモードかを判定する。
+	 * 
+	 * @return	名前付きパイプを使用するモードなら <tt>true</tt> を返す。
+	 * @since 2.2.0
+	 */
+	public boolean isPipeTempMode() {
+		return (cmdLine != null ? cmdLine.isPipeTemp() : false);
+	}
+
+	/**
+	 * 連続する JAVA コマンドを、引数のファイルから求めた依存関係に従って並列に実行するモードかを判定する。
+	 * 
+	 * @return	並列実行モードなら <tt>true</tt> を返す。
+	 * @since 2.2.0
+	 */
+	public boolean isParallelMode() {
+		return (cmdLine != null ? cmdLine.hasParallel() : false);
+	}
+
+	/**
+	 * 並列実行モードにおいて、同時に実行する JAVA モジュールの最大数を取得する。
+	 * 
+	 * @return	同時に実行する最大数
+	 * @since 2.2.0
+	 */
+	public int getMaxParallel() {
+		return (cmdLine != null ? cmdLine.getParallel() : 1);
+	}
+
+	/**
+	 * プロセス内で実行するモジュールのクラスローダーを保持するオブジェクトを取得する。
+	 * 
+	 * @return <code>ModuleClassLoaderCache</code> オブジェクト
+	 * @since 2.2.0
+	 */
+	public synchronized ModuleClassLoaderCache getModuleClassLoaderCache() {
+		if (moduleClassLoaders == null) {
+			moduleClassLoaders = new ModuleClassLoaderCache();
+		}
+		return moduleClassLoaders;
+	}
+
+	/**
+	 * JAVA コマンドの実行結果のキャッシュを取得する。
+	 * 
+	 * @return <code>MacroResultCache</code> オブジェクト、キャッシュのディレクトリが指定されていない場合は <tt>null</tt>
+	 * @since 2.2.0
+	 */
+	public synchronized MacroResultCache getResultCache() {
+		if (resultCache == null && cmdLine != null && cmdLine.hasCacheDir()) {
+			resultCache = new MacroResultCache(new File(cmdLine.getCacheDir()), cmdLine.getCacheSize());
+		}
+		return resultCache;
+	}
+
+	/**
+	 * プロセス内で実行するモジュールの実行開始時に設定するシステムプロパティを取得する。
+	 * このプロパティは、外部プロセスとして実行する場合に JAVA コマンドへ指定するプロパティと同じものとなる。
+	 * 
+	 * @return	プロパティ名と値のマップ、設定するプロパティがない場合は <tt>null</tt>
+	 * @since 2.2.0
+	 */
+	public Map<String,String> getInProcessSystemProperties() {
+		Map<String,String> props = new LinkedHashMap<String,String>();
+		if (cmdLine != null && cmdLine.hasAadlCsvEncoding()) {
+			props.put("aadl.csv.encoding", cmdLine.getAadlCsvEncoding());
+		}
+		if (cmdLine != null && cmdLine.hasAadlTxtEncoding()) {
+			props.put("aadl.txt.encoding", cmdLine.getAadlTxtEncoding());
+		}
+		return (props.isEmpty() ? null : props);
+	}
+
 	/**
 	 * AADLマクロファイルの有効なエンコーディングを取得する。
 	 * 
@@ -20,6 +20,8 @@
  *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
  */
 /*
+ * @(#)CommandLineParser.java	2.2.0	2026/10/18
+ *     - modified
  * @(#)CommandLineParser.java	2.0.0	2014/03/18 : move 'ssac.util.*' to 'ssac.aadl.macro.util.*' (recursive) 
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)CommandLineParser.java	1.10	2009/12/02
@@ -39,6 +41,7 @@ import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import ssac.aadl.macro.data.MacroResultCache;
 import ssac.aadl.macro.util.Classes;
 import ssac.aadl.macro.util.Strings;
 import ssac.aadl.macro.util.io.ReportPrinter;
@@ -46,7 +49,7 @@ import ssac.aadl.macro.util.io.ReportPrinter;
 /**
  * マクロ実行エンジンのコマンドライン解析。
  * 
- * @version 2.0.0	2014/03/18
+ * @version 2.2.0	2026/10/18
  * @since 1.00
  */
 public class CommandLineParser
@@ -108,6 +111,31 @@ public class CommandLineParser
 	 * Java実行時の追加VMオプション
 	 */
 	static private final int OPT_JAVAVM			= 33;
+	/**
+	 * JAVAモジュールのプロセス内実行フラグ
+	 * @since 2.2.0
+	 */
+	static private final int OPT_FLAG_INPROCESS	= 34;
+	/**
+	 * テンポラリファイルの名前付きパイプ化フラグ
+	 * @since 2.2.0
+	 */
+	static private final int OPT_FLAG_PIPETEMP	= 35;
+	/**
+	 * 依存関係による並列実行の最大数
+	 * @since 2.2.0
+	 */
+	static private final int OPT_PARALLEL		= 36;
+	/**
+	 * 実行結果のキャッシュのディレクトリ
+	 * @since 2.2.0
+	 */
+	static private final int OPT_CACHE_DIR		= 37;
+	/**
+	 * 実行結果のキャッシュの最大サイズ(MB)
+	 * @since 2.2.0
+	 */
+	static private final int OPT_CACHE_SIZE		= 38;
 
 	/**
 	 * ヒープサイズ指定文字列の検証用パターン
@@ -134,6 +162,11 @@ public class CommandLineParser
 		optMap.put("-libpath",			OPT_AADL_LIBPATH);
 		optMap.put("-heapmax",			OPT_HEAP_MAX);
 		optMap.put("-javavm",			OPT_JAVAVM);
+		optMap.put("-inprocess",		OPT_FLAG_INPROCESS);
+		optMap.put("-pipetemp",			OPT_FLAG_PIPETEMP);
+		optMap.put("-parallel",			OPT_PARALLEL);
+		optMap.put("-cachedir",			OPT_CACHE_DIR);
+		optMap.put("-cachesize",		OPT_CACHE_SIZE);
 	}
 	
 	private boolean flgDebug;				// Flag : debug
@@ -145,6 +178,8 @@ public class CommandLineParser
 	private boolean flgVerbose;			// Flag : verbose
 	private boolean flgNoTime;			// Flag : notime
 	private boolean flgCheckOnly;			// Flag : compile only
+	private boolean flgInProcess;			// Flag : run java modules in the engine process
+	private boolean flgPipeTemp;			// Flag : use named pipes for temporary files
 	
 	//private String	strEncoding;			// Encoding charset name
 	private String strMacroEncoding;		// Macro(amf/csv) file encoding
@@ -154,6 +189,9 @@ public class CommandLineParser
 	private String strLibClassPath;		// class path for AADL libraries
 	private String strHeapMax;				// Java max heap size(same -Xmx option value)
 	private String strJavaVMoptions;		// Java VM options(No check)
+	private String strParallel;			// Max number of java modules run in parallel by dependency
+	private String strCacheDir;			// Result cache directory(absolute path)
+	private String strCacheSize;			// Max size of result cache in megabytes
 	private List<String> javaVMoptionList;	// Java VM option list
 	private List<String> macroArgs;		// Macro arguments
 	
@@ -207,6 +245,24 @@ public class CommandLineParser
 	public boolean isCheckOnly() {
 		return this.flgCheckOnly;
 	}
+
+	/**
+	 * JAVAモジュールを、AADLマクロ実行エンジンのプロセス内で実行するかを判定する。
+	 * @return	プロセス内で実行する場合は <tt>true</tt>
+	 * @since 2.2.0
+	 */
+	public boolean isInProcess() {
+		return this.flgInProcess;
+	}
+
+	/**
+	 * 同時に実行されるノード間で受け渡すテンポラリファイルを、名前付きパイプとするかを判定する。
+	 * @return	名前付きパイプとする場合は <tt>true</tt>
+	 * @since 2.2.0
+	 */
+	public boolean isPipeTemp() {
+		return this.flgPipeTemp;
+	}
 	
 	public boolean hasMacroEncoding() {
 		return (this.strMacroEncoding != null);
@@ -235,6 +291,24 @@ public class CommandLineParser
 	public boolean hasJavaVMoptions() {
 		return (this.strJavaVMoptions != null);
 	}
+
+	/**
+	 * 依存関係による並列実行が指定されているかを判定する。
+	 * @return	並列実行が指定されていれば <tt>true</tt>
+	 * @since 2.2.0
+	 */
+	public boolean hasParallel() {
+		return (this.strParallel != null);
+	}
+
+	/**
+	 * 実行結果のキャッシュのディレクトリが指定されているかを判定する。
+	 * @return	キャッシュのディレクトリが指定されていれば <tt>true</tt>
+	 * @since 2.2.0
+	 */
+	public boolean hasCacheDir() {
+		return (this.strCacheDir != null);
+	}
 	
 	public String getMacroEncoding() {
 		return this.strMacroEncoding;
@@ -263,6 +337,39 @@ public class CommandLineParser
 	public String getJavaVMoptions() {
 		return this.strJavaVMoptions;
 	}
+
+	/**
+	 * 依存関係により並列に実行する JAVA モジュールの最大数を取得する。
+	 * 0 が指定された場合は、利用可能なプロセッサ数を返す。
+	 * @return	並列実行の最大数、並列実行が指定されていない場合は 1
+	 * @since 2.2.0
+	 */
+	public int getParallel() {
+		if (this.strParallel == null)
+			return 1;
+		int num = Integer.parseInt(this.strParallel);
+		return (num > 0 ? num : Math.max(1, Runtime.getRuntime().availableProcessors()));
+	}
+	
+	/**
+	 * 実行結果のキャッシュのディレクトリを取得する。
+	 * @return	キャッシュのディレクトリの絶対パス、指定されていない場合は <tt>null</tt>
+	 * @since 2.2.0
+	 */
+	public String getCacheDir() {
+		return this.strCacheDir;
+	}
+
+	/**
+	 * 実行結果のキャッシュの最大サイズを、バイト単位で取得する。
+	 * @return	キャッシュの最大サイズ、指定されていない場合は {@link MacroResultCache#DEFAULT_MAX_SIZE}
+	 * @since 2.2.0
+	 */
+	public long getCacheSize() {
+		if (this.strCacheSize == null)
+			return MacroResultCache.DEFAULT_MAX_SIZE;
+		return Long.parseLong(this.strCacheSize) * 1024L * 1024L;
+	}
 	
 	public List<String> getJavaVMoptionList() {
 		return this.javaVMoptionList;
@@ -315,6 +422,12 @@ public class CommandLineParser
 					case OPT_FLAG_NOTIME :
 						this.flgNoTime = true;
 						break;
+					case OPT_FLAG_INPROCESS :
+						this.flgInProcess = true;
+						break;
+					case OPT_FLAG_PIPETEMP :
+						this.flgPipeTemp = true;
+						break;
 					case OPT_MACRO_ENCODING :
 						{
 							String opt = args[i];
@@ -353,6 +466,26 @@ public class CommandLineParser
 						this.strJavaVMoptions = getOptionParameter(args, i++);
 						updateJavaVMoptionList();
 						break;
+					case OPT_PARALLEL :
+						//--- 並列実行数は省略可能(省略時は、利用可能なプロセッサ数とする 0)
+						if (isNumberParameter(args, i)) {
+							this.strParallel = args[++i];
+						} else {
+							this.strParallel = "0";
+						}
+						//--- check number of parallel
+						checkOptionParallel();
+						break;
+					case OPT_CACHE_DIR :
+						this.strCacheDir = getOptionParameter(args, i++);
+						//--- check cache directory
+						checkOptionCacheDir();
+						break;
+					case OPT_CACHE_SIZE :
+						this.strCacheSize = getOptionParameter(args, i++);
+						//--- check cache size
+						checkOptionCacheSize();
+						break;
 					default :
 						this.flgTrust = false;
 						throw new IllegalArgumentException("Illegal arg[" + i + "] option.");
@@ -423,6 +556,38 @@ public class CommandLineParser
 		out.println("                    -heapmax 80m");
 		out.println("                When this option specified, ignore java heap option(-Xmx / -Xms)");
 		out.println("                on 'java' and '&' macro commands.");
+		out.println("    -inprocess  Run AADL modules of 'java' and '&' macro commands");
+		out.println("                in the macro engine process. The modules with");
+		out.println("                java parameters other than heap size, and the other");
+		out.println("                commands, are executed as separate processes.");
+		out.println("                Relative paths in arguments other than [IN] and [OUT]");
+		out.println("                are resolved from the current directory.");
+		out.println("    -pipetemp   Use a named pipe for a temporary file that is written");
+		out.println("                by one [OUT] argument and read by one [IN] argument of");
+		out.println("                'java' or '&' commands started concurrently with the");
+		out.println("                'start' modifier or '&'. Both modules must declare");
+		out.println("                'AADL-Sequential-IO: true' in the jar manifest, and the");
+		out.println("                pipes must not connect modules in a cycle. The other");
+		out.println("                temporary files, and all temporary files on Windows, are");
+		out.println("                regular files, and the reading command waits for the");
+		out.println("                writing command to finish.");
+		out.println("    -parallel [n]");
+		out.println("                Run consecutive 'java' commands without modifiers and");
+		out.println("                conditions in parallel, in the order of dependencies");
+		out.println("                inferred from their [IN] and [OUT] arguments. At most");
+		out.println("                [n] processes are run at the same time. When [n] is 0");
+		out.println("                or omitted, the number of available processors is used.");
+		out.println("                The critical path is reported when the macro finished.");
+		out.println("    -cachedir <directory>");
+		out.println("                Cache the [OUT] files of 'java' commands without");
+		out.println("                modifiers in the specified directory. When a command");
+		out.println("                is run again with the same module, class path, arguments,");
+		out.println("                and contents of [IN] files, the cached files are");
+		out.println("                restored instead of running the module.");
+		out.println("    -cachesize <n>");
+		out.println("                Specify the maximum size, in megabytes, of the cache");
+		out.println("                directory. Least recently used entries are removed");
+		out.println("                when the size is exceeded. The default value is 1024.");
 		out.println("    -nowarn     Disable warning messages.");
 		out.println("    -notime     Disable timestamp with macro engine messages.");
 		out.println("    -verbose    Verbose output.");
@@ -443,6 +608,8 @@ public class CommandLineParser
 		flgVerbose = false;
 		flgNoTime = false;
 		flgCheckOnly = false;
+		flgInProcess = false;
+		flgPipeTemp = false;
 		
 		strMacroEncoding = null;
 		strAadlCsvEncoding = null;
@@ -451,6 +618,9 @@ public class CommandLineParser
 		strLibClassPath = null;
 		strHeapMax  = null;
 		strJavaVMoptions = null;
+		strParallel = null;
+		strCacheDir = null;
+		strCacheSize = null;
 		javaVMoptionList = Collections.emptyList();
 		macroArgs = Collections.emptyList();
 		
@@ -476,6 +646,12 @@ public class CommandLineParser
 		//--- NoTime
 		if (flgNoTime)
 			list.add("-notime");
+		//--- InProcess
+		if (flgInProcess)
+			list.add("-inprocess");
+		//--- PipeTemp
+		if (flgPipeTemp)
+			list.add("-pipetemp");
 		//--- encoding
 		if (hasMacroEncoding()) {
 			list.add("-macroencoding");
@@ -504,6 +680,20 @@ public class CommandLineParser
 			list.add("-javavm");
 			list.add(strJavaVMoptions);
 		}
+		//--- parallel
+		if (hasParallel()) {
+			list.add("-parallel");
+			list.add(strParallel);
+		}
+		//--- result cache
+		if (hasCacheDir()) {
+			list.add("-cachedir");
+			list.add(strCacheDir);
+		}
+		if (strCacheSize != null) {
+			list.add("-cachesize");
+			list.add(strCacheSize);
+		}
 		// finished
 		if (list.isEmpty()) {
 			return Collections.emptyList();
@@ -528,6 +718,32 @@ public class CommandLineParser
 		return retValue;
 	}
 
+	/**
+	 * 指定されたオプションの次の引数が、符号付きもしくは符号なしの整数であるかを判定する。
+	 * 省略可能な数値パラメータを持つオプションにおいて、パラメータの有無を判定するために使用する。
+	 * @param args		コマンドライン引数
+	 * @param optpos	オプションの位置
+	 * @return	次の引数が整数であれば <tt>true</tt>
+	 * @since 2.2.0
+	 */
+	private boolean isNumberParameter(String[] args, int optpos) {
+		int prmpos = optpos + 1;
+		if (prmpos >= args.length) {
+			return false;
+		}
+		String prm = args[prmpos];
+		int start = (prm.startsWith("-") || prm.startsWith("+") ? 1 : 0);
+		if (prm.length() <= start) {
+			return false;
+		}
+		for (int i = start; i < prm.length(); i++) {
+			if (!Character.isDigit(prm.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	// 'encoding' option
 	private void checkOptionEncoding(String optionName, String encoding) throws IllegalArgumentException
 	{
@@ -598,6 +814,64 @@ public class CommandLineParser
 		}
 	}
 	
+	// 'parallel' option
+	private void checkOptionParallel() throws IllegalArgumentException
+	{
+		if (this.strParallel == null)
+			return;
+		
+		// number check
+		int num;
+		try {
+			num = Integer.parseInt(this.strParallel);
+		} catch (NumberFormatException ex) {
+			num = -1;
+		}
+		if (num < 0) {
+			// Error
+			String msg = String.format("Number of parallel '%s' is not correct.", strParallel);
+			throw new IllegalArgumentException(msg);
+		}
+	}
+	
+	// 'cachedir' option
+	private void checkOptionCacheDir() throws IllegalArgumentException
+	{
+		if (this.strCacheDir == null)
+			return;
+		
+		// directory check
+		File dir = new File(this.strCacheDir).getAbsoluteFile();
+		if (dir.exists() ? !dir.isDirectory() : !dir.mkdirs()) {
+			// Error
+			String msg = String.format("Cache directory '%s' is not available.", strCacheDir);
+			throw new IllegalArgumentException(msg);
+		}
+		
+		// update for absolute path
+		this.strCacheDir = dir.getPath();
+	}
+	
+	// 'cachesize' option
+	private void checkOptionCacheSize() throws IllegalArgumentException
+	{
+		if (this.strCacheSize == null)
+			return;
+		
+		// number check
+		long num;
+		try {
+			num = Long.parseLong(this.strCacheSize);
+		} catch (NumberFormatException ex) {
+			num = -1L;
+		}
+		if (num <= 0L || num > Long.MAX_VALUE / (1024L * 1024L)) {
+			// Error
+			String msg = String.format("Cache size '%s' is not correct.", strCacheSize);
+			throw new IllegalArgumentException(msg);
+		}
+	}
+	
 	// 'javavm' option
 	private void updateJavaVMoptionList() {
 		if (this.strJavaVMoptions != null && this.strJavaVMoptions.length() > 0) {
@@ -20,6 +20,8 @@
  *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
  */
 /*
+ * @(#)MacroNodeExecutor.java	2.2.0	2026/10/18
+ *     - modified
  * @(#)MacroNodeExecutor.java	2.1.0	2014/05/29
  *     - created by Y.Ishizuka(PieCake.inc,)
  */
@@ -40,7 +42,7 @@ import ssac.aadl.macro.data.MacroNode;
  * AADLマクロのノード単位で実行するエグゼキューターの基本実装。
  * 実行時のマクロノード、および実行ステータス、実行順序の前後関係に関するインタフェースを提供する。
  * 
- * @version 2.1.0	2014/05/29
+ * @version 2.2.0	2026/10/18
  * @since 2.1.0
  */
 public abstract class MacroNodeExecutor implements Runnable
@@ -64,6 +66,10 @@ public abstract class MacroNodeExecutor implements Runnable
 	protected volatile MacroStatus	_status;
 	/** 終了コード、未完もしくは未定義の場合は <tt>null</tt> **/
 	protected volatile Integer		_exitCode;
+	/** プロセスの開始時刻(ミリ秒)、開始していない場合は 0 (@since 2.2.0) **/
+	protected volatile long			_startTime;
+	/** プロセスの終了時刻(ミリ秒)、終了していない場合は 0 (@since 2.2.0) **/
+	protected volatile long			_finishTime;
 
 	//------------------------------------------------------------
 	// Constructions
@@ -349,6 +355,24 @@ public abstract class MacroNodeExecutor implements Runnable
 		}
 	}
 
+	/**
+	 * このノードのプロセスの開始時刻を取得する。
+	 * @return	開始時刻(ミリ秒)、開始していない場合は 0
+	 * @since 2.2.0
+	 */
+	public long getStartTime() {
+		return _startTime;
+	}
+
+	/**
+	 * このノードのプロセスの終了時刻を取得する。
+	 * @return	終了時刻(ミリ秒)、終了していない場合は 0
+	 * @since 2.2.0
+	 */
+	public long getFinishTime() {
+		return _finishTime;
+	}
+
 	/**
 	 * このノードを実行する。
 	 * 必要に応じて、スレッドを起動し、実行完了を待機する。
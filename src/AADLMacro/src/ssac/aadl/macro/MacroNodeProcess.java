@@ -20,6 +20,8 @@
  *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
  */
 /*
+ * @(#)MacroNodeProcess.java	2.2.0	2026/10/18
+ *     - modified
  * @(#)MacroNodeProcess.java	2.1.0	2014/05/29
  *     - created by Y.Ishizuka(PieCake.inc,)
  */
@@ -30,17 +32,23 @@ import static ssac.aadl.macro.util.Validations.validState;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import ssac.aadl.macro.data.INodeLocation;
+import ssac.aadl.macro.process.InProcessModuleProcess;
 import ssac.aadl.macro.process.InterruptibleManagedProcess;
 import ssac.aadl.macro.process.InterruptibleProcessBuilder;
 import ssac.aadl.macro.process.ProcessUtil;
 
 /**
  * AADLマクロノードのプロセスを保持するクラス。
+ * <p>プロセス内実行モードでは、外部プロセスの代わりに、
+ * AADLマクロ実行エンジンのプロセス内で実行するモジュールを保持する。
  * 
- * @version 2.1.0	2014/05/29
+ * @version 2.2.0	2026/10/18
  * @since 2.1.0
  */
 public class MacroNodeProcess
@@ -62,10 +70,25 @@ public class MacroNodeProcess
 	 */
 	private final INodeLocation	_macroLocation;
 
-	/** 中断可能なJAVAプロセスを生成するプロセスビルダー **/
+	/** 中断可能なJAVAプロセスを生成するプロセスビルダー、プロセス内で実行する場合は <tt>null</tt> **/
 	private final InterruptibleProcessBuilder	_procBuilder;
 	/** 中断機構を持つプロセスオブジェクト **/
 	private InterruptibleManagedProcess			_cmdProc;
+	/**
+	 * プロセス内で実行するモジュール、外部プロセスの場合は <tt>null</tt>
+	 * @since 2.2.0
+	 */
+	private final InProcessModuleProcess		_inProc;
+	/**
+	 * プロセス内で実行するモジュールの作業ディレクトリ
+	 * @since 2.2.0
+	 */
+	private File								_inProcWorkDir;
+	/**
+	 * プロセス内で実行するモジュールのメインクラス名と引数のリスト
+	 * @since 2.2.0
+	 */
+	private final List<String>					_inProcCommand;
 
 	//------------------------------------------------------------
 	// Constructions
@@ -84,10 +107,38 @@ public class MacroNodeProcess
 		_engine = engine;
 		_macroLocation = location;
 		_procBuilder = new InterruptibleProcessBuilder(commands);
+		_inProc = null;
+		_inProcCommand = null;
 		setWorkDirectory(workDir);
 		ProcessUtil.enquoteCommand(_procBuilder.command());
 	}
 
+	/**
+	 * 指定されたモジュールをプロセス内で実行する、<code>MacroNodeProcess</code> の新しいインスタンスを生成する。
+	 * 
+	 * @param engine	AADLマクロエンジンのインスタンス
+	 * @param workDir	作業ディレクトリの抽象パス
+	 * @param location	マクロ要素の定義位置情報
+	 * @param module	プロセス内で実行するモジュール
+	 * @param mainClass	モジュールのメインクラス名
+	 * @param args		モジュールの引数の配列
+	 * @since 2.2.0
+	 */
+	public MacroNodeProcess(AADLMacroEngine engine, File workDir, INodeLocation location,
+							InProcessModuleProcess module, String mainClass, String...args)
+	{
+		validArgument(module != null);
+		_engine = engine;
+		_macroLocation = location;
+		_procBuilder = null;
+		_inProc = module;
+		_inProcWorkDir = workDir;
+		ArrayList<String> cmdlist = new ArrayList<String>(args.length + 1);
+		cmdlist.add(mainClass);
+		cmdlist.addAll(Arrays.asList(args));
+		_inProcCommand = Collections.unmodifiableList(cmdlist);
+	}
+
 	//------------------------------------------------------------
 	// Public interfaces
 	//------------------------------------------------------------
@@ -100,12 +151,21 @@ public class MacroNodeProcess
 		return _macroLocation;
 	}
 
+	/**
+	 * AADLマクロ実行エンジンのプロセス内で実行するかを判定する。
+	 * @return	プロセス内で実行する場合は <tt>true</tt>
+	 * @since 2.2.0
+	 */
+	public boolean isInProcess() {
+		return (_inProc != null);
+	}
+
 	/**
 	 * プロセス起動の為のコマンドラインを取得する。
 	 * @return	コマンドと引数のリスト
 	 */
 	public List<String> getCommandLine() {
-		return _procBuilder.command();
+		return (_inProc != null ? _inProcCommand : _procBuilder.command());
 	}
 
 	/**
@@ -113,7 +173,7 @@ public class MacroNodeProcess
 	 * @return	作業ディレクトリ
 	 */
 	public File getWorkDirectory() {
-		return _procBuilder.directory();
+		return (_inProc != null ? _inProcWorkDir : _procBuilder.directory());
 	}
 
 	/**
@@ -121,13 +181,22 @@ public class MacroNodeProcess
 	 * @param dir	作業ディレクトリ
 	 */
 	public void setWorkDirectory(File dir) {
-		_procBuilder.directory(dir);
+		if (_inProc != null)
+			_inProcWorkDir = dir;
+		else
+			_procBuilder.directory(dir);
 	}
 
 	/**
 	 * 現在のコマンド設定で、プロセスを起動する。
 	 */
 	public void start() throws IOException {
+		// プロセス内で実行
+		if (_inProc != null) {
+			_inProc.start(_engine.getOutputPrinter(), _engine.getErrorPrinter());
+			return;
+		}
+		
 		validState(_cmdProc == null);
 		
 		// プロセス起動
@@ -138,14 +207,20 @@ public class MacroNodeProcess
 	 * プロセスが実行中の場合、実行を中断する。
 	 */
 	public void terminate() {
-		_cmdProc.terminate();
+		if (_inProc != null)
+			_inProc.terminate();
+		else
+			_cmdProc.terminate();
 	}
 
 	/**
 	 * プロセスが実行中の場合、強制終了する。
 	 */
 	public void kill() {
-		_cmdProc.kill();
+		if (_inProc != null)
+			_inProc.kill();
+		else
+			_cmdProc.kill();
 	}
 
 	/**
@@ -156,6 +231,9 @@ public class MacroNodeProcess
 	 * @throws InterruptedException	標準出力、標準エラー出力の完了待機中に割り込みが発生した場合
 	 */
 	public int cleanup() {
+		if (_inProc != null) {
+			return _inProc.cleanup();
+		}
 		try {
 			return _cmdProc.cleanup();
 		}
@@ -170,7 +248,10 @@ public class MacroNodeProcess
 	 * @throws InterruptedException	待機中に割り込みが発生した場合
 	 */
 	public int waitFor() throws InterruptedException {
-		return _cmdProc.waitFor();
+		if (_inProc != null)
+			return _inProc.waitFor();
+		else
+			return _cmdProc.waitFor();
 	}
 
 	//------------------------------------------------------------
@@ -20,6 +20,8 @@
  *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
  */
 /*
+ * @(#)MacroSequencer.java	2.2.0	2026/10/18
+ *     - modified
  * @(#)MacroSequencer.java	2.1.0	2014/05/29
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)MacroSequencer.java	2.0.0	2014/03/23 : modified and move 'ssac.util.*' to 'ssac.aadl.macro.util.*' (recursive) 
@@ -36,11 +38,15 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -56,14 +62,19 @@ import ssac.aadl.macro.command.MacroModifier;
 import ssac.aadl.macro.command.MacroStatus;
 import ssac.aadl.macro.data.MacroData;
 import ssac.aadl.macro.data.MacroNode;
+import ssac.aadl.macro.data.MacroNodeDependency;
+import ssac.aadl.macro.data.MacroResultCache;
+import ssac.aadl.macro.data.ModuleArgument;
 import ssac.aadl.macro.file.CsvFormatException;
 import ssac.aadl.macro.file.CsvMacroFiles;
+import ssac.aadl.macro.process.InProcessModuleProcess;
 import ssac.aadl.macro.process.InterruptibleJavaMainProcessImpl;
+import ssac.aadl.macro.process.TemporaryPipe;
 
 /**
  * AADLマクロの実行制御。
  * 
- * @version 2.1.0	2014/05/29
+ * @version 2.2.0	2026/10/18
  * @since 1.00
  */
 public class MacroSequencer
@@ -169,6 +180,37 @@ public class MacroSequencer
 	 * @since 2.1.0
 	 */
 	private final LinkedList<MacroNodeExecutor>			_activeExecNodes;
+	/**
+	 * 名前付きパイプとしたテンポラリファイル
+	 * @since 2.2.0
+	 */
+	private final List<TemporaryPipe>					_tempPipes;
+	/**
+	 * 依存関係による並列実行のための、ノード間の依存関係。並列実行モードではない場合は <tt>null</tt>
+	 * @since 2.2.0
+	 */
+	private MacroNodeDependency	_dependency;
+	/**
+	 * 依存関係による並列実行、および名前付きパイプとしないテンポラリファイルの受け渡しにおいて、
+	 * 実行前に完了している必要のあるエグゼキューターのマップ
+	 * @since 2.2.0
+	 */
+	private final Map<MacroNodeExecutor, Set<MacroNodeExecutor>>	_requiredExecutors;
+	/**
+	 * 依存関係による並列実行において、キューに登録済みのエグゼキューター
+	 * @since 2.2.0
+	 */
+	private final Set<MacroNodeExecutor>				_pendingExecutors;
+	/**
+	 * 同時に実行する最大数に達したため、実行を待機しているエグゼキューター
+	 * @since 2.2.0
+	 */
+	private final LinkedList<MacroNodeExecutor>			_deferredExecutors;
+	/**
+	 * 依存関係による並列実行において終了条件に一致した、マクロ内で最も前にあるエグゼキューター
+	 * @since 2.2.0
+	 */
+	private volatile MacroNodeExecutor	_failedExecutor;
 
 	//------------------------------------------------------------
 	// Constructions
@@ -186,6 +228,10 @@ public class MacroSequencer
 		this._lock = new Object();
 		this._willNextExecNodes = new LinkedList<MacroNodeExecutor>();
 		this._activeExecNodes   = new LinkedList<MacroNodeExecutor>();
+		this._tempPipes         = new ArrayList<TemporaryPipe>();
+		this._requiredExecutors = new HashMap<MacroNodeExecutor, Set<MacroNodeExecutor>>();
+		this._pendingExecutors  = Collections.synchronizedSet(new HashSet<MacroNodeExecutor>());
+		this._deferredExecutors = new LinkedList<MacroNodeExecutor>();
 	}
 
 	//------------------------------------------------------------
@@ -214,6 +260,12 @@ public class MacroSequencer
 		_macroExecutor = null;
 		_mapExecutor = null;
 		_topExecutor = null;
+		_tempPipes.clear();
+		_dependency = null;
+		_requiredExecutors.clear();
+		_pendingExecutors.clear();
+		_deferredExecutors.clear();
+		_failedExecutor = null;
 		macroData = null;
 		termCond  = DEFAULT_TERM_COND;
 		
@@ -268,6 +320,11 @@ public class MacroSequencer
 			}
 		}
 		
+		// 同時に実行されるノード間のテンポラリファイルを名前付きパイプに置換(added : @since 2.2.0)
+		if (engine.isPipeTempMode()) {
+			setupTemporaryPipes();
+		}
+		
 		// マクロ実行
 		engine.printTrace("\"%s\" macro executing...", macroFileName);
 		boolean hasError = false;
@@ -336,17 +393,36 @@ public class MacroSequencer
 							}
 							//--- マクロ中断判定
 							if (isTerminationCondition(curExitCode)) {
-								// マクロ実行を中止
-								_terminating = true;
-								showTerminatedInfo(curExecutor.getTargetNode(), curExitCode);
-								lastExitCode = curExitCode;
-								hasError = true;
-								break;	// 実行ループを終了
+								if (isScheduledExecutor(curExecutor)) {
+									//--- 並列実行中のノードは、マクロ内で前にあるノードの完了を待機してから中止(@since 2.2.0)
+									if (_failedExecutor == null || isOrderedBefore(curExecutor, _failedExecutor)) {
+										_failedExecutor = curExecutor;
+									}
+								}
+								else {
+									// マクロ実行を中止
+									_terminating = true;
+									showTerminatedInfo(curExecutor.getTargetNode(), curExitCode);
+									lastExitCode = curExitCode;
+									hasError = true;
+									break;	// 実行ループを終了
+								}
 							}
 						}
 						//--- 処理継続なら、次に実行するエグゼキューターをキューイング
 						//--- start 修飾子が付加されている場合は、開始と同時に実行されるエグゼキューターは含まない
-						enqueuNextExecutor(curExecutor, curExecutor.getCommandModifier() != MacroModifier.START);
+						if (curExecutor != _failedExecutor) {
+							enqueuNextExecutor(curExecutor, curExecutor.getCommandModifier() != MacroModifier.START);
+						}
+						resumeDeferredExecutors();
+						//--- 並列実行中のノードが終了条件に一致した場合、前にあるノードがすべて完了していれば中止
+						if (_failedExecutor != null && !existsUncompletedExecutorBefore(_failedExecutor)) {
+							_terminating = true;
+							lastExitCode = _failedExecutor.getExitCode();
+							showTerminatedInfo(_failedExecutor.getTargetNode(), lastExitCode);
+							hasError = true;
+							break;	// 実行ループを終了
+						}
 						continue;	// 処理継続
 					}
 					else if (curStatus != MacroStatus.UNEXECUTED) {
@@ -360,6 +436,16 @@ public class MacroSequencer
 						break;
 					}
 					
+					// 依存関係による並列実行の制御(@since 2.2.0)
+					if (_failedExecutor != null && !isOrderedBefore(curExecutor, _failedExecutor)) {
+						// 終了条件に一致したノードより後にあるノードは、実行しない
+						continue;
+					}
+					if (isDeferredByParallelLimit(curExecutor)) {
+						// 同時に実行する最大数に達しているため、実行中のノードの完了まで待機
+						continue;
+					}
+					
 					// 未実行エグゼキューターの実行を開始
 					try {
 						if (!curExecutor.execNode(lastExitCode)) {
@@ -431,13 +517,26 @@ public class MacroSequencer
 				}
 			}
 			
+			// 並列実行中に終了条件に一致したノードがあれば、そのノードの終了コードで終了
+			if (_failedExecutor != null && !hasError) {
+				lastExitCode = _failedExecutor.getExitCode();
+				showTerminatedInfo(_failedExecutor.getTargetNode(), lastExitCode);
+				hasError = true;
+			}
+			
 			// 実行中のプロセスは待機中断により強制終了
 			_terminating = true;
 			Thread.interrupted();	// clear interrupt signal
+			releaseTemporaryPipes();	// 名前付きパイプを開く処理で待機しているプロセスを解放
 			killAllActiveMacros(true, true, InterruptibleJavaMainProcessImpl.acceptTerminateRequest());
 			
 			// 起動したスレッドを終了
 			shutdownExecutorService();
+			
+			// クリティカルパスの表示(正常終了時のみ)
+			if (_dependency != null && !hasError) {
+				showCriticalPath(macroFileName);
+			}
 		}
 
 		if (hasError) {
@@ -616,6 +715,426 @@ public class MacroSequencer
 		return AADLMacroEngine.EXITCODE_SUCCEEDED;
 	}
 
+	/**
+	 * 出力するノードと入力するノードが同時に実行されるテンポラリファイルを、名前付きパイプに置き換える。
+	 * 名前付きパイプの候補とするテンポラリファイルは、次の条件をすべて満たすものとする。
+	 * <ul>
+	 * <li>JAVA コマンドもしくはグループ実行コマンドの [OUT] 引数として、1 箇所でのみ指定されている。
+	 * <li>JAVA コマンドもしくはグループ実行コマンドの [IN] 引数として、出力するノードとは異なるノードの 1 箇所でのみ指定されている。
+	 * <li>上記以外の引数やコマンドで参照されていない。
+	 * <li>入力するノードが、出力するノードの開始と同時に実行されるノードである。
+	 * </ul>
+	 * 候補のうち、名前付きパイプとするものは {@link #selectTemporaryPipes(List, boolean)} で選択する。
+	 * 名前付きパイプとしない候補は通常のテンポラリファイルのままとし、入力するノードは出力するノードの完了後に実行する。
+	 * このメソッドは、エグゼキューターの生成後に呼び出すこと。
+	 * @since 2.2.0
+	 */
+	private void setupTemporaryPipes() {
+		Map<String,File> mapTempFiles = macroData.tempFiles();
+		if (mapTempFiles.isEmpty()) {
+			return;
+		}
+		
+		List<TemporaryPipeCandidate> candidates = new ArrayList<TemporaryPipeCandidate>();
+		for (Map.Entry<String,File> entry : mapTempFiles.entrySet()) {
+			String tempID = entry.getKey();
+			File tempFile = entry.getValue();
+			if (tempFile == null) {
+				continue;
+			}
+			
+			//--- テンポラリファイルを参照するノードの判定
+			MacroNode producer = null;
+			MacroNode consumer = null;
+			boolean pipeable = true;
+			String lowerTempID = tempID.toLowerCase();
+			for (MacroNode node : macroData.macroNodes()) {
+				if (!pipeable)
+					break;
+				boolean isModuleNode = (node.getCommandAction() == MacroAction.JAVA || node.getCommandAction() == MacroAction.GROUP);
+				for (ModuleArgument arg : node.args()) {
+					String value = arg.getValue();
+					if (value == null || !value.toLowerCase().contains(lowerTempID)) {
+						continue;
+					}
+					if (isModuleNode && tempID.equals(AbstractTokenizer.getValidTemporaryID(value))) {
+						if (arg.isTypeOUT() && producer == null) {
+							producer = node;
+							continue;
+						}
+						else if (arg.isTypeIN() && consumer == null) {
+							consumer = node;
+							continue;
+						}
+					}
+					// 複数の入出力、もしくはその他の参照
+					pipeable = false;
+					break;
+				}
+			}
+			if (!pipeable || producer == null || consumer == null || producer == consumer) {
+				continue;
+			}
+			MacroNodeExecutor producerExecutor = _mapExecutor.get(producer);
+			MacroNodeExecutor consumerExecutor = _mapExecutor.get(consumer);
+			if (!isStartedTogether(producerExecutor, consumerExecutor)) {
+				continue;
+			}
+			candidates.add(new TemporaryPipeCandidate(tempID, tempFile, producerExecutor, consumerExecutor));
+		}
+		if (candidates.isEmpty()) {
+			return;
+		}
+		
+		//--- 名前付きパイプに置換
+		selectTemporaryPipes(candidates, TemporaryPipe.isSupported());
+		for (TemporaryPipeCandidate candidate : candidates) {
+			if (!candidate.piped)
+				continue;
+			TemporaryPipe pipe = TemporaryPipe.newInstance(candidate.tempID, candidate.tempFile,
+										candidate.producer.getTargetNode(), candidate.consumer.getTargetNode());
+			if (pipe == null) {
+				// 名前付きパイプを生成できないため、すべて通常のテンポラリファイルとする
+				for (TemporaryPipe created : _tempPipes) {
+					created.revertToFile();
+				}
+				_tempPipes.clear();
+				selectTemporaryPipes(candidates, false);
+				break;
+			}
+			_tempPipes.add(pipe);
+		}
+		
+		//--- 名前付きパイプとしないテンポラリファイルは、出力するノードの完了後に入力するノードを実行
+		for (TemporaryPipeCandidate candidate : candidates) {
+			if (candidate.piped) {
+				engine.printDebug("setup temporary pipe : [%s]=%s", candidate.tempID, candidate.tempFile.getPath());
+				continue;
+			}
+			Set<MacroNodeExecutor> required = _requiredExecutors.get(candidate.consumer);
+			if (required == null) {
+				required = new LinkedHashSet<MacroNodeExecutor>();
+				_requiredExecutors.put(candidate.consumer, required);
+			}
+			required.add(candidate.producer);
+			candidate.producer.addToNext(candidate.consumer);
+			engine.printDebug("temporary file is not replaced by pipe, and %s waits for %s : [%s]=%s",
+					macroData.getMacroNameWithLocation(candidate.consumer.getTargetNode().getLocation()),
+					macroData.getMacroNameWithLocation(candidate.producer.getTargetNode().getLocation()),
+					candidate.tempID, candidate.tempFile.getPath());
+		}
+	}
+
+	/**
+	 * 名前付きパイプの候補から、名前付きパイプとするテンポラリファイルを選択する。
+	 * 次の条件をすべて満たす候補のみ、名前付きパイプとする。
+	 * <ul>
+	 * <li>出力するノードと入力するノードが、いずれも {@link TemporaryPipe#isSequentialIOModule(MacroNode, File)} を満たすモジュールである。
+	 * <li>名前付きパイプで結ばれるノードが循環しない。同じノードの組の間の名前付きパイプも 1 つのみとする。
+	 * <li>名前付きパイプとしない候補の入力するノードと、その開始と同時に実行されるノードのいずれでもない。
+	 * </ul>
+	 * 名前付きパイプは、両側のノードがファイルを開くまで待機するため、ノードが循環すると、
+	 * それぞれのノードが異なる名前付きパイプを開く処理で待機することがある。
+	 * また、出力するノードの完了後に実行するノードは、同時に実行されないため名前付きパイプとしない。
+	 * @param candidates	名前付きパイプの候補
+	 * @param pipeSupported	名前付きパイプを生成可能であれば <tt>true</tt>、すべて通常のテンポラリファイルとする場合は <tt>false</tt>
+	 * @since 2.2.0
+	 */
+	private void selectTemporaryPipes(List<TemporaryPipeCandidate> candidates, boolean pipeSupported) {
+		HashMap<MacroNodeExecutor, Boolean> mapSequentialIO = new HashMap<MacroNodeExecutor, Boolean>();
+		HashMap<MacroNodeExecutor, MacroNodeExecutor> mapRoot = new HashMap<MacroNodeExecutor, MacroNodeExecutor>();
+		for (TemporaryPipeCandidate candidate : candidates) {
+			candidate.piped = false;
+			if (!pipeSupported)
+				continue;
+			if (!isSequentialIOExecutor(candidate.producer, mapSequentialIO) || !isSequentialIOExecutor(candidate.consumer, mapSequentialIO))
+				continue;
+			//--- 名前付きパイプで結ばれたノードの集合に、両側のノードが含まれていれば循環する
+			MacroNodeExecutor root1 = findRootExecutor(candidate.producer, mapRoot);
+			MacroNodeExecutor root2 = findRootExecutor(candidate.consumer, mapRoot);
+			if (root1 == root2)
+				continue;
+			mapRoot.put(root1, root2);
+			candidate.piped = true;
+		}
+		
+		//--- 出力するノードの完了後に実行するノードの名前付きパイプを除外
+		boolean changed;
+		do {
+			changed = false;
+			HashSet<MacroNodeExecutor> deferred = new HashSet<MacroNodeExecutor>();
+			for (TemporaryPipeCandidate candidate : candidates) {
+				if (!candidate.piped) {
+					collectStartedExecutors(candidate.consumer, deferred);
+				}
+			}
+			for (TemporaryPipeCandidate candidate : candidates) {
+				if (candidate.piped && (deferred.contains(candidate.producer) || deferred.contains(candidate.consumer))) {
+					candidate.piped = false;
+					changed = true;
+				}
+			}
+		} while (changed);
+	}
+
+	/**
+	 * 指定されたエグゼキューターのノードが、名前付きパイプで入出力可能なモジュールかを判定する。
+	 * @param executor	判定するエグゼキューター
+	 * @param cache		判定結果を保持するマップ
+	 * @return	名前付きパイプで入出力可能なモジュールであれば <tt>true</tt>
+	 * @since 2.2.0
+	 */
+	private boolean isSequentialIOExecutor(MacroNodeExecutor executor, Map<MacroNodeExecutor, Boolean> cache) {
+		Boolean result = cache.get(executor);
+		if (result == null) {
+			result = Boolean.valueOf(TemporaryPipe.isSequentialIOModule(executor.getTargetNode(), macroData.getWorkDir()));
+			cache.put(executor, result);
+		}
+		return result.booleanValue();
+	}
+
+	/**
+	 * 名前付きパイプで結ばれたノードの集合を代表するエグゼキューターを取得する。
+	 * @param executor	対象のエグゼキューター
+	 * @param mapRoot	エグゼキューターと、同じ集合の親となるエグゼキューターのマップ
+	 * @return	集合を代表するエグゼキューター
+	 * @since 2.2.0
+	 */
+	private MacroNodeExecutor findRootExecutor(MacroNodeExecutor executor, Map<MacroNodeExecutor, MacroNodeExecutor> mapRoot) {
+		MacroNodeExecutor root = executor;
+		MacroNodeExecutor parent;
+		while ((parent = mapRoot.get(root)) != null) {
+			root = parent;
+		}
+		return root;
+	}
+
+	/**
+	 * 指定されたエグゼキューターと、その開始と同時に実行されるエグゼキューターを、指定されたセットに追加する。
+	 * @param startExecutor	開始するエグゼキューター
+	 * @param result		エグゼキューターを追加するセット
+	 * @since 2.2.0
+	 */
+	private void collectStartedExecutors(MacroNodeExecutor startExecutor, Set<MacroNodeExecutor> result) {
+		if (!result.add(startExecutor)) {
+			return;
+		}
+		LinkedList<MacroNodeExecutor> queue = new LinkedList<MacroNodeExecutor>();
+		queue.add(startExecutor);
+		while (!queue.isEmpty()) {
+			MacroNodeExecutor executor = queue.removeFirst();
+			for (MacroNodeExecutor next : executor.getStartSet()) {
+				if (result.add(next)) {
+					queue.add(next);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 指定されたエグゼキューターの開始と同時に実行されるエグゼキューターをたどり、
+	 * 指定された後続のエグゼキューターに到達するかを判定する。
+	 * @param startExecutor	開始するエグゼキューター
+	 * @param target		判定するエグゼキューター
+	 * @return	開始と同時に実行される場合は <tt>true</tt>
+	 * @since 2.2.0
+	 */
+	private boolean isStartedTogether(MacroNodeExecutor startExecutor, MacroNodeExecutor target) {
+		if (startExecutor == null || target == null) {
+			return false;
+		}
+		HashSet<MacroNodeExecutor> visited = new HashSet<MacroNodeExecutor>();
+		LinkedList<MacroNodeExecutor> queue = new LinkedList<MacroNodeExecutor>();
+		queue.add(startExecutor);
+		visited.add(startExecutor);
+		while (!queue.isEmpty()) {
+			MacroNodeExecutor executor = queue.removeFirst();
+			for (MacroNodeExecutor next : executor.getStartSet()) {
+				if (next == target) {
+					return true;
+				}
+				if (visited.add(next)) {
+					queue.add(next);
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 指定されたノードの実行が終了したことを、そのノードが使用する名前付きパイプに通知する。
+	 * @param node	実行が終了したノード
+	 * @since 2.2.0
+	 */
+	private void notifyTemporaryPipes(MacroNode node) {
+		for (TemporaryPipe pipe : _tempPipes) {
+			pipe.nodeFinished(node);
+		}
+	}
+
+	/**
+	 * すべての名前付きパイプについて、終了していないノードが名前付きパイプを開く処理で待機しないように解放する。
+	 * @since 2.2.0
+	 */
+	private void releaseTemporaryPipes() {
+		for (TemporaryPipe pipe : _tempPipes) {
+			pipe.release();
+		}
+	}
+
+	/**
+	 * 指定されたエグゼキューターが、依存関係による並列実行の区間内のノードかを判定する。
+	 * @param executor	判定するエグゼキューター
+	 * @return	並列実行の区間内のノードであれば <tt>true</tt>
+	 * @since 2.2.0
+	 */
+	private boolean isScheduledExecutor(MacroNodeExecutor executor) {
+		return (_dependency != null && executor.getTargetNode() != null && _dependency.isSchedulable(executor.getTargetNode()));
+	}
+
+	/**
+	 * 依存関係による並列実行の区間内のノードについて、指定されたエグゼキューターが、
+	 * 比較対象のエグゼキューターよりもマクロ内で前にあるかを判定する。
+	 * @param executor	判定するエグゼキューター
+	 * @param target	比較対象のエグゼキューター
+	 * @return	並列実行の区間内のノードであり、マクロ内で前にある場合は <tt>true</tt>
+	 * @since 2.2.0
+	 */
+	private boolean isOrderedBefore(MacroNodeExecutor executor, MacroNodeExecutor target) {
+		if (!isScheduledExecutor(executor) || !isScheduledExecutor(target))
+			return false;
+		return (_dependency.getOrder(executor.getTargetNode()) < _dependency.getOrder(target.getTargetNode()));
+	}
+
+	/**
+	 * 指定されたエグゼキューターよりもマクロ内で前にある並列実行の区間内のノードに、
+	 * 完了していないノードが存在するかを判定する。
+	 * @param executor	判定の基準となるエグゼキューター
+	 * @return	完了していないノードが存在する場合は <tt>true</tt>
+	 * @since 2.2.0
+	 */
+	private boolean existsUncompletedExecutorBefore(MacroNodeExecutor executor) {
+		for (MacroNodeExecutor target : _requiredExecutors.keySet()) {
+			if (isOrderedBefore(target, executor)) {
+				MacroStatus status = target.getStatus();
+				if (status != MacroStatus.COMPLETED && status != MacroStatus.SKIPPED && status != MacroStatus.TERMINATED) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 指定されたエグゼキューターをキューに登録可能かを判定する。
+	 * 実行前に完了している必要のあるエグゼキューターが定義されていなければ、常に登録可能とする。
+	 * 定義されていれば、そのエグゼキューターがすべて完了しており、
+	 * まだキューに登録されていない場合のみ登録可能とする。
+	 * @param executor	判定するエグゼキューター
+	 * @return	キューに登録可能であれば <tt>true</tt>
+	 * @since 2.2.0
+	 */
+	private boolean isReadyToEnqueue(MacroNodeExecutor executor) {
+		Set<MacroNodeExecutor> required = _requiredExecutors.get(executor);
+		if (required == null) {
+			return true;
+		}
+		for (MacroNodeExecutor target : required) {
+			MacroStatus status = target.getStatus();
+			if (status != MacroStatus.COMPLETED && status != MacroStatus.SKIPPED) {
+				return false;
+			}
+		}
+		return _pendingExecutors.add(executor);	// 重複登録の防止
+	}
+
+	/**
+	 * 同時に実行する JAVA モジュールの最大数に達している場合、指定されたエグゼキューターを実行待機とする。
+	 * 依存関係による並列実行の区間内の JAVA コマンドのみ、実行待機とする。
+	 * @param executor	実行するエグゼキューター
+	 * @return	実行待機とした場合は <tt>true</tt>
+	 * @since 2.2.0
+	 */
+	private boolean isDeferredByParallelLimit(MacroNodeExecutor executor) {
+		if (!isScheduledExecutor(executor) || executor.getCommandAction() != MacroAction.JAVA) {
+			return false;
+		}
+		synchronized (_lock) {
+			if (_activeExecNodes.size() < engine.getMaxParallel()) {
+				return false;
+			}
+			_deferredExecutors.add(executor);
+			if (engine.isDebugMode()) {
+				engine.printDebug("@@@ deferred by parallel limit(%d) : %s",
+						engine.getMaxParallel(), String.valueOf(executor.getTargetNode().getLocation()));
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * 実行待機としたエグゼキューターを、キューに登録する。
+	 * @since 2.2.0
+	 */
+	private void resumeDeferredExecutors() {
+		synchronized (_lock) {
+			while (!_deferredExecutors.isEmpty()) {
+				_nextExecQueue.add(_deferredExecutors.removeFirst());
+			}
+		}
+	}
+
+	/**
+	 * 実行したプロセスのクリティカルパスを表示する。
+	 * クリティカルパスは、最後に終了したプロセスから、その開始前に終了した先行ノードのうち最後に終了したものを順にたどったものとする。
+	 * @param macroFileName	マクロファイルのパスを示す文字列
+	 * @since 2.2.0
+	 */
+	private void showCriticalPath(String macroFileName) {
+		// 最後に終了したプロセス
+		MacroNodeExecutor last = null;
+		for (MacroNodeExecutor executor : _mapExecutor.values()) {
+			if (executor.getFinishTime() > 0 && (last == null || executor.getFinishTime() > last.getFinishTime())) {
+				last = executor;
+			}
+		}
+		if (last == null) {
+			return;
+		}
+		
+		// 先行するプロセスをたどる
+		LinkedList<MacroNodeExecutor> path = new LinkedList<MacroNodeExecutor>();
+		for (MacroNodeExecutor cur = last; cur != null; ) {
+			path.addFirst(cur);
+			MacroNodeExecutor prev = null;
+			HashSet<MacroNodeExecutor> visited = new HashSet<MacroNodeExecutor>();
+			LinkedList<MacroNodeExecutor> queue = new LinkedList<MacroNodeExecutor>(cur.getPreviousSet());
+			while (!queue.isEmpty()) {
+				MacroNodeExecutor target = queue.removeFirst();
+				if (!visited.add(target))
+					continue;
+				if (target.getFinishTime() <= 0) {
+					// プロセスのないノードは、その先行ノードをたどる
+					queue.addAll(target.getPreviousSet());
+				}
+				else if (target.getFinishTime() <= cur.getStartTime()
+						&& (prev == null || target.getFinishTime() > prev.getFinishTime()))
+				{
+					prev = target;
+				}
+			}
+			cur = prev;
+		}
+		
+		// 表示
+		long elapsed = last.getFinishTime() - path.getFirst().getStartTime();
+		engine.printMessage("critical path of \"%s\" : %d process(es), %d ms", macroFileName, path.size(), elapsed);
+		for (MacroNodeExecutor executor : path) {
+			engine.printMessage("    %d ms : %s", (executor.getFinishTime() - executor.getStartTime()),
+					macroData.getMacroNameWithLocation(executor.getTargetNode().getLocation()));
+		}
+	}
+
 	/**
 	 * 指定されたノードに対応するエグゼキューターを生成し、管理マップに登録する。
 	 * すでに管理マップに登録されているノードであれば、そのエグゼキューターを返す。
@@ -657,8 +1176,14 @@ public class MacroSequencer
 		_mapExecutor = new HashMap<MacroNode, MacroNodeExecutor>();
 		_topExecutor = null;
 		MacroGroupNodeWaiter grpWaiter = null;	// グループ実行ノードを待機する特殊なエグゼキューター
+		if (engine.isParallelMode()) {
+			// 依存関係による並列実行(@since 2.2.0)
+			_dependency = new MacroNodeDependency(macroData);
+		}
 		if (!macroData.isEmptyMacroNodes()) {
 			MacroNodeExecutor lastMainStreamNode = null;
+			MacroNodeExecutor segmentTop = null;	// 並列実行する区間の最初のエグゼキューター
+			LinkedHashSet<MacroNodeExecutor> segmentExecutors = new LinkedHashSet<MacroNodeExecutor>();	// 並列実行する区間のエグゼキューター
 			for (MacroNode node : macroData.macroNodes()) {
 				// ノードに対応するエグゼキューターを生成
 				MacroNodeExecutor executor = getOrCreateExecutor(node);
@@ -708,10 +1233,38 @@ public class MacroSequencer
 							waitExecutor.addToNext(executor);
 						}
 					}
+					//--- 依存関係による並列実行の区間内のノードは、依存するノードの完了後に実行
+					//--- 依存するノードがない場合は、区間の最初のノードの開始と同時に実行
+					boolean scheduled = (_dependency != null && _dependency.isSchedulable(node));
+					if (scheduled && segmentTop != null) {
+						Set<MacroNodeExecutor> required = new LinkedHashSet<MacroNodeExecutor>();
+						for (MacroNode depNode : _dependency.getDependencies(node)) {
+							MacroNodeExecutor depExecutor = getOrCreateExecutor(depNode);
+							depExecutor.addToNext(executor);
+							required.add(depExecutor);
+						}
+						if (required.isEmpty()) {
+							segmentTop.addToStart(executor);
+						}
+						_requiredExecutors.put(executor, required);
+						segmentExecutors.add(executor);
+						continue;
+					}
+					
 					//--- after 修飾子以外のコマンドは、メインストリームでの実行(waitも含む)
 					if (_topExecutor == null)
 						_topExecutor = executor;
-					if (lastMainStreamNode != null) {
+					if (!segmentExecutors.isEmpty()) {
+						// 並列実行した区間のすべてのノードの完了後に実行
+						Set<MacroNodeExecutor> required = new LinkedHashSet<MacroNodeExecutor>(segmentExecutors);
+						for (MacroNodeExecutor segExecutor : segmentExecutors) {
+							segExecutor.addToNext(executor);
+						}
+						_requiredExecutors.put(executor, required);
+						segmentExecutors.clear();
+						segmentTop = null;
+					}
+					else if (lastMainStreamNode != null) {
 						if (lastMainStreamNode.getCommandAction() == MacroAction.GROUP
 							|| lastMainStreamNode.getCommandModifier() == MacroModifier.START)
 						{
@@ -724,6 +1277,12 @@ public class MacroSequencer
 						}
 					}
 					lastMainStreamNode = executor;
+					if (scheduled) {
+						// 並列実行する区間の開始
+						_requiredExecutors.put(executor, new LinkedHashSet<MacroNodeExecutor>());
+						segmentTop = executor;
+						segmentExecutors.add(executor);
+					}
 				}
 			}
 			
@@ -792,7 +1351,7 @@ public class MacroSequencer
 		//--- 開始と同時に実行するエグゼキューター
 		if (withStartNodes && !executor.isEmptyStarts()) {
 			for (MacroNodeExecutor target : executor.getStartSet()) {
-				if (target.getStatus() == MacroStatus.UNEXECUTED) {
+				if (target.getStatus() == MacroStatus.UNEXECUTED && isReadyToEnqueue(target)) {
 					enqueued = true;
 					_nextExecQueue.add(target);	// キューが一杯なら例外をスロー
 				}
@@ -801,7 +1360,7 @@ public class MacroSequencer
 		//--- 次に実行するエグゼキューター
 		if (!executor.isEmptyNexts()) {
 			for (MacroNodeExecutor target : executor.getNextSet()) {
-				if (target.getStatus() == MacroStatus.UNEXECUTED) {
+				if (target.getStatus() == MacroStatus.UNEXECUTED && isReadyToEnqueue(target)) {
 					enqueued = true;
 					_nextExecQueue.add(target);	// キューが一杯なら例外をスロー
 				}
@@ -832,7 +1391,7 @@ public class MacroSequencer
 		//--- 開始と同時に実行するエグゼキューター
 		if (!executor.isEmptyStarts()) {
 			for (MacroNodeExecutor target : executor.getStartSet()) {
-				if (target.getStatus() == MacroStatus.UNEXECUTED) {
+				if (target.getStatus() == MacroStatus.UNEXECUTED && isReadyToEnqueue(target)) {
 					enqueued = true;
 					_nextExecQueue.add(target);	// キューが一杯なら例外をスロー
 				}
@@ -865,6 +1424,9 @@ public class MacroSequencer
 		if (engine.isDebugMode()) {
 			StringBuilder sb = new StringBuilder();
 			sb.append("execute following command");
+			if (process.isInProcess()) {
+				sb.append(" in process");
+			}
 			File workDir = process.getWorkDirectory();
 			if (workDir != null) {
 				sb.append(" on \"");
@@ -1156,6 +1718,31 @@ public class MacroSequencer
 	// Inner classes
 	//------------------------------------------------------------
 
+	/**
+	 * 名前付きパイプの候補となるテンポラリファイルと、そのファイルを受け渡すノードのエグゼキューター。
+	 * @since 2.2.0
+	 */
+	static private class TemporaryPipeCandidate
+	{
+		/** テンポラリファイル識別子 **/
+		final String				tempID;
+		/** テンポラリファイル **/
+		final File					tempFile;
+		/** テンポラリファイルへ出力するノードのエグゼキューター **/
+		final MacroNodeExecutor	producer;
+		/** テンポラリファイルから入力するノードのエグゼキューター **/
+		final MacroNodeExecutor	consumer;
+		/** 名前付きパイプとする場合に <tt>true</tt> **/
+		boolean	piped;
+		
+		TemporaryPipeCandidate(String tempID, File tempFile, MacroNodeExecutor producer, MacroNodeExecutor consumer) {
+			this.tempID   = tempID;
+			this.tempFile = tempFile;
+			this.producer = producer;
+			this.consumer = consumer;
+		}
+	}
+
 	/**
 	 * AADLマクロのノード単位で実行するエグゼキューター。
 	 * 実行時のマクロノード、および実行ステータス、実行順序の前後関係を保持する。
@@ -1179,6 +1766,11 @@ public class MacroSequencer
 		protected volatile Integer			_exitCode;
 		/** 実行プロセス情報(プロセスを起動した場合) **/
 		protected volatile MacroNodeProcess	_process;
+		/**
+		 * 実行結果をキャッシュに保存する際の識別値、保存しない場合は <tt>null</tt>
+		 * @since 2.2.0
+		 */
+		protected volatile String			_resultCacheKey;
 
 		//------------------------------------------------------------
 		// Constructions
@@ -1230,6 +1822,7 @@ public class MacroSequencer
 					_status = MacroStatus.SKIPPED;
 					_exitCode = null;
 				}
+				notifyTemporaryPipes(_targetNode);
 				enqueuNextExecutor(this, true);	// 次のエグゼキューターをキューイング
 				return true;	// 実行継続
 			}
@@ -1273,6 +1866,7 @@ public class MacroSequencer
 					_status   = MacroStatus.SKIPPED;
 					_exitCode = AADLMacroEngine.EXITCODE_TERMINATE_EXEC;
 				}
+				notifyTemporaryPipes(_targetNode);
 				return false;	// terminate
 			}
 			
@@ -1302,11 +1896,24 @@ public class MacroSequencer
 		 * @since 2.1.0
 		 */
 		private void startProcess(final MacroNodeExecutor executor, final String...commands) throws IOException
+		{
+			startProcess(executor, new MacroNodeProcess(engine, macroData.getWorkDir(), executor.getTargetNode().getLocation(), commands));
+		}
+
+		/**
+		 * 指定されたエグゼキューターのプロセスを起動する。
+		 * 起動したプロセスはエグゼキューターに格納され、実行完了を監視するスレッドを開始する。
+		 * @param executor		プロセスを開始するエグゼキューター
+		 * @param proc			起動するプロセス
+		 * @throws IOException	プロセス起動に失敗した場合
+		 * @since 2.2.0
+		 */
+		private void startProcess(final MacroNodeExecutor executor, final MacroNodeProcess proc) throws IOException
 		{
 			synchronized (this) {
 				executor._status = MacroStatus.RUNNING;
-				MacroNodeProcess proc = new MacroNodeProcess(engine, macroData.getWorkDir(), executor.getTargetNode().getLocation(), commands);
 				showStartProcessInfo(proc);
+				executor._startTime = System.currentTimeMillis();
 				proc.start();
 				executor.setProcess(proc);
 			}
@@ -1322,6 +1929,39 @@ public class MacroSequencer
 			}
 		}
 
+		/**
+		 * 指定されたエグゼキューターのノードの JAVA モジュールを、AADLマクロ実行エンジンのプロセス内で開始する。
+		 * プロセス内で実行できないモジュールの場合は、外部プロセスとして開始する。
+		 * 開始したプロセスはエグゼキューターに格納され、実行完了を監視するスレッドを開始する。
+		 * @param executor		プロセスを開始するエグゼキューター
+		 * @throws IOException	プロセス起動に失敗した場合
+		 * @since 2.2.0
+		 */
+		private void startJavaModule(final MacroNodeExecutor executor) throws IOException
+		{
+			MacroNode node = executor.getTargetNode();
+			if (!engine.isInProcessMode() || !node.isInProcessExecutable(engine)) {
+				startProcess(executor, node.getJavaModuleCommandArray(engine, macroData));
+				return;
+			}
+			
+			String mainClass = node.getAvailableMainClass();
+			String[] args = node.getInProcessModuleArgumentArray(macroData);
+			ClassLoader loader = engine.getModuleClassLoaderCache().getClassLoader(node.getInProcessClassPathList(engine, macroData));
+			InProcessModuleProcess module = InProcessModuleProcess.newInstance(loader, mainClass, args, engine.getInProcessSystemProperties());
+			if (module == null) {
+				// AADLモジュールではないため、外部プロセスとして実行
+				if (engine.isDebugMode()) {
+					engine.printDebug("%s is not executable in process : %s",
+							macroData.getMacroNameWithLocation(node.getLocation()), mainClass);
+				}
+				startProcess(executor, node.getJavaModuleCommandArray(engine, macroData));
+				return;
+			}
+			
+			startProcess(executor, new MacroNodeProcess(engine, macroData.getWorkDir(), node.getLocation(), module, mainClass, args));
+		}
+
 		/**
 		 * 指定されたエグゼキューターのプロセス完了を待機する。
 		 * <em>eqneueu</em> に <tt>true</tt> が指定されている場合、終了もしくは中断に関わらず、
@@ -1375,7 +2015,14 @@ public class MacroSequencer
 				}
 				
 				// クリーンアップ
+				executor._finishTime = System.currentTimeMillis();
 				proc.cleanup();
+				notifyTemporaryPipes(executor.getTargetNode());
+				
+				// 正常終了した場合は、実行結果をキャッシュに保存
+				if (finished && executor._exitCode != null && executor._exitCode.intValue() == 0) {
+					storeToResultCache(executor);
+				}
 					
 				// ステータス更新
 				synchronized (this) {
@@ -1546,7 +2193,7 @@ public class MacroSequencer
 		{
 			//--- JAVAコマンドグループ : 非同期に開始
 			assert(_targetNode.getCommandModifier() == null);
-			startProcess(this, _targetNode.getJavaModuleCommandArray(engine, macroData));
+			startJavaModule(this);
 			return true;
 		}
 		
@@ -1558,9 +2205,76 @@ public class MacroSequencer
 		protected boolean doExecJava() throws IOException
 		{
 			//--- JAVA コマンド
-			startProcess(this, _targetNode.getJavaModuleCommandArray(engine, macroData));
+			if (restoreFromResultCache()) {
+				return true;	// 実行結果をキャッシュから復元
+			}
+			startJavaModule(this);
 			return true;
 		}
+
+		/**
+		 * このノードの実行結果がキャッシュに保存されていれば、'[OUT]' 引数のファイルを復元する。
+		 * 復元した場合は、終了コード 0 でプロセスが終了したものとして、このエグゼキューターをキューに登録する。
+		 * 復元しなかった場合は、プロセス終了後に実行結果を保存するための識別値を保持する。
+		 * @return	キャッシュから復元した場合は <tt>true</tt>
+		 * @since 2.2.0
+		 */
+		private boolean restoreFromResultCache() {
+			_resultCacheKey = null;
+			MacroResultCache cache = engine.getResultCache();
+			if (cache == null) {
+				return false;
+			}
+			String key = cache.fingerprint(engine, macroData, _targetNode);
+			if (key == null) {
+				if (engine.isDebugMode()) {
+					engine.printDebug("@@@ result cache : not cacheable : " + String.valueOf(_targetNode.getLocation()));
+				}
+				return false;
+			}
+			if (!cache.restore(key, macroData, _targetNode)) {
+				_resultCacheKey = key;
+				return false;
+			}
+			
+			// 復元したため、プロセス終了とする
+			synchronized (this) {
+				super._exitCode = 0;	// getExitCode() で参照される終了コード
+				_status = MacroStatus.PROC_FINISHED;
+				engine.printMessage("restored from cache %s", macroData.getMacroNameWithLocation(_targetNode.getLocation()));
+			}
+			synchronized (_lock) {
+				//--- 開始と同時に実行するエグゼキューターをキューイング
+				enqueuStartExecutor(this);
+				//--- 終了判定のためのキューイング
+				_nextExecQueue.add(this);	// キューが一杯なら例外
+			}
+			return true;
+		}
+
+		/**
+		 * 指定されたエグゼキューターのノードの実行結果を、キャッシュに保存する。
+		 * 保存の対象ではない場合は、何もしない。
+		 * @param executor	正常に終了したエグゼキューター
+		 * @since 2.2.0
+		 */
+		private void storeToResultCache(final MacroNodeExecutor executor) {
+			if (!(executor instanceof BasicMacroNodeExecutor)) {
+				return;
+			}
+			BasicMacroNodeExecutor target = (BasicMacroNodeExecutor)executor;
+			String key = target._resultCacheKey;
+			MacroResultCache cache = engine.getResultCache();
+			if (key == null || cache == null) {
+				return;
+			}
+			target._resultCacheKey = null;
+			boolean stored = cache.store(key, macroData, executor.getTargetNode());
+			if (engine.isDebugMode()) {
+				engine.printDebug("@@@ result cache : %s : %s", (stored ? "stored" : "not stored"),
+						String.valueOf(executor.getTargetNode().getLocation()));
+			}
+		}
 		
 		/**
 		 * 'macro' コマンドの実行し、プロセス開始できたらプロセス完了待機スレッドを開始する。
@@ -20,6 +20,8 @@
  *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
  */
 /*
+ * @(#)MacroNode.java	2.2.0	2026/10/18
+ *     - modified
  * @(#)MacroNode.java	2.1.0	2014/05/29
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)MacroNode.java	2.0.0	2014/03/14 : modified and move 'ssac.util.*' to 'ssac.aadl.macro.util.*' (recursive) 
@@ -54,7 +56,7 @@ import ssac.aadl.macro.util.Strings;
  * <p>
  * このクラスは、マクロ定義における最小要素となる情報を格納する。
  * 
- * @version 2.1.0	2014/05/29
+ * @version 2.2.0	2026/10/18
  * @since 1.00
  */
 public class MacroNode implements Cloneable
@@ -493,6 +495,82 @@ public class MacroNode implements Cloneable
 		return cmdArgs.toArray(new String[cmdArgs.size()]);
 	}
 	
+	/**
+	 * このノードの JAVA モジュールを、AADLマクロ実行エンジンのプロセス内で実行可能かを判定する。
+	 * メインクラスが指定されていない場合、AADLマクロ実行エンジンに追加VMオプションが指定されている場合、
+	 * Javaパラメータにヒープサイズ(-Xmx, -Xms)以外の指定がある場合は、実行不可とする。
+	 * @param engine	AADLマクロ実行エンジン
+	 * @return	プロセス内で実行可能であれば <tt>true</tt>
+	 * @since 2.2.0
+	 */
+	public boolean isInProcessExecutable(final AADLMacroEngine engine) {
+		if (Strings.isNullOrEmpty(getAvailableMainClass())) {
+			return false;
+		}
+		if (engine.getCommandLine().hasJavaVMoptions()) {
+			return false;
+		}
+		for (String vma : getAvailableJavaParameterList()) {
+			if (vma.length() > 0 && !vma.startsWith("-Xmx") && !vma.startsWith("-Xms")) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * このノードの JAVA モジュールを、AADLマクロ実行エンジンのプロセス内で実行する際のクラスパスを取得する。
+	 * 相対パスは、マクロの作業ディレクトリを基準とした絶対パスに変換する。
+	 * @param engine	AADLマクロ実行エンジン
+	 * @param data		マクロデータ
+	 * @return	絶対パスのクラスパスのリスト
+	 * @since 2.2.0
+	 */
+	public List<File> getInProcessClassPathList(final AADLMacroEngine engine, final MacroData data) {
+		File workDir = data.getWorkDir();
+		ArrayList<File> pathList = new ArrayList<File>();
+		String[] paths = new String[]{ getAvailableClassPathString(), engine.getAvailableLibPath() };
+		for (String path : paths) {
+			if (path == null || path.length() <= 0)
+				continue;
+			for (String cp : path.split(File.pathSeparator)) {
+				if (cp.length() <= 0)
+					continue;
+				File f = new File(cp);
+				if (!f.isAbsolute() && workDir != null) {
+					f = new File(workDir, cp);
+				}
+				pathList.add(f.getAbsoluteFile());
+			}
+		}
+		return pathList;
+	}
+
+	/**
+	 * このノードの JAVA モジュールを、AADLマクロ実行エンジンのプロセス内で実行する際の引数を取得する。
+	 * '[IN]' もしくは '[OUT]' 属性の引数は、マクロの作業ディレクトリを基準とした絶対パスに変換する。
+	 * @param data	マクロデータ
+	 * @return	モジュール引数の配列
+	 * @since 2.2.0
+	 */
+	public String[] getInProcessModuleArgumentArray(final MacroData data) {
+		return getResolvedModuleArgumentArray(data);
+	}
+
+	/**
+	 * このノードのモジュール引数を、参照IDを変換した値の配列として取得する。
+	 * '[IN]' もしくは '[OUT]' 属性の引数は、マクロの作業ディレクトリを基準とした絶対パスに変換する。
+	 * 配列の要素は、{@link #args()} の要素と同じ順序となる。
+	 * @param data	マクロデータ
+	 * @return	モジュール引数の配列
+	 * @since 2.2.0
+	 */
+	public String[] getResolvedModuleArgumentArray(final MacroData data) {
+		ArrayList<String> cmdArgs = new ArrayList<String>(moduleArgs.size());
+		appendModuleArguments(data, cmdArgs, true);
+		return cmdArgs.toArray(new String[cmdArgs.size()]);
+	}
+	
 	void setJavaVMArgsForJavaCommand(final AADLMacroEngine engine, List<String> vmArgs, List<String> cmdArgs) {
 		CommandLineParser cmdLine = engine.getCommandLine();
 		
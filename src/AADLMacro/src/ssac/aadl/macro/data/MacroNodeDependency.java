@@ -0,0 +1,235 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SSAC(Systems of Social Accounting Consortium)
+ *  <author> Yasunari Ishizuka (PieCake,Inc.)
+ *  <author> Hiroshi Deguchi (TOKYO INSTITUTE OF TECHNOLOGY)
+ *  <author> Yuji Onuki (Statistics Bureau)
+ *  <author> Shungo Sakaki (Tokyo University of Technology)
+ *  <author> Akira Sasaki (HOSEI UNIVERSITY)
+ *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
+ */
+/*
+ * @(#)MacroNodeDependency.java	2.2.0	2026/10/18
+ *     - created
+ */
+package ssac.aadl.macro.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import ssac.aadl.macro.command.MacroAction;
+import ssac.aadl.macro.command.MacroModifier;
+
+/**
+ * AADLマクロの連続する JAVA コマンドについて、モジュール引数のファイルから求めたノード間の依存関係。
+ * <p>
+ * 依存関係を求めるノード(スケジュール可能なノード)は、修飾子と条件式のない JAVA コマンドのうち、
+ * '[PUB]' および '[SUB]' 属性の引数がなく、すべての参照IDがマクロ開始時点で変換可能なものとする。
+ * メインストリームで連続するスケジュール可能なノードの並び(区間)ごとに、
+ * 前にあるノードとの次のいずれかの関係があれば、前にあるノードに依存するものとする。
+ * <ul>
+ * <li>前にあるノードの '[OUT]' 引数のファイルを、'[IN]' 引数とする。
+ * <li>前にあるノードの '[IN]' 引数のファイルを、'[OUT]' 引数とする。
+ * <li>前にあるノードの '[OUT]' 引数のファイルを、'[OUT]' 引数とする。
+ * </ul>
+ * 'after' 修飾子のあるノードはメインストリームに含まれないため、区間を区切らない。
+ * 区間内のコメントは、依存関係のないスケジュール可能なノードとする。
+ * それ以外のスケジュール可能ではないノードは、区間を区切る。
+ * 
+ * @version 2.2.0	2026/10/18
+ * @since 2.2.0
+ */
+public class MacroNodeDependency
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/** スケジュール可能なノードと、依存するノードの集合のマップ **/
+	private final Map<MacroNode, Set<MacroNode>>	_dependencies = new HashMap<MacroNode, Set<MacroNode>>();
+	/** スケジュール可能なノードと、マクロ内の位置のマップ **/
+	private final Map<MacroNode, Integer>			_order = new HashMap<MacroNode, Integer>();
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	/**
+	 * 指定されたマクロデータのノード間の依存関係を求める。
+	 * テンポラリファイルと実行時引数のマップは、設定済みであること。
+	 * @param data	マクロデータ
+	 */
+	public MacroNodeDependency(final MacroData data) {
+		List<MacroNode> segment = new ArrayList<MacroNode>();
+		List<Set<File>> segInputs = new ArrayList<Set<File>>();
+		List<Set<File>> segOutputs = new ArrayList<Set<File>>();
+		int index = 0;
+		for (MacroNode node : data.macroNodes()) {
+			index++;
+			if (node.getCommandModifier() == MacroModifier.AFTER) {
+				continue;	// メインストリーム外
+			}
+			if (node.getCommandAction() == MacroAction.COMMENT && !segment.isEmpty()) {
+				// 区間内のコメントは、依存関係のないノードとする
+				_dependencies.put(node, new LinkedHashSet<MacroNode>());
+				_order.put(node, index);
+				continue;
+			}
+			if (!isSchedulableNode(node)) {
+				segment.clear();
+				segInputs.clear();
+				segOutputs.clear();
+				continue;
+			}
+			
+			Set<File> inputs = new HashSet<File>();
+			Set<File> outputs = new HashSet<File>();
+			if (!collectArgumentFiles(data, node, inputs, outputs)) {
+				segment.clear();
+				segInputs.clear();
+				segOutputs.clear();
+				continue;
+			}
+			
+			Set<MacroNode> deps = new LinkedHashSet<MacroNode>();
+			for (int i = 0; i < segment.size(); i++) {
+				if (intersects(segOutputs.get(i), inputs)
+					|| intersects(segInputs.get(i), outputs)
+					|| intersects(segOutputs.get(i), outputs))
+				{
+					deps.add(segment.get(i));
+				}
+			}
+			_dependencies.put(node, deps);
+			_order.put(node, index);
+			segment.add(node);
+			segInputs.add(inputs);
+			segOutputs.add(outputs);
+		}
+	}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * 指定されたノードが、依存関係によって実行順序を決定できるノードかを判定する。
+	 * @param node	判定するノード
+	 * @return	スケジュール可能なノードであれば <tt>true</tt>
+	 */
+	public boolean isSchedulable(MacroNode node) {
+		return _dependencies.containsKey(node);
+	}
+
+	/**
+	 * 指定されたノードが依存する、同じ区間のノードの集合を取得する。
+	 * @param node	対象のノード
+	 * @return	依存するノードの集合、スケジュール可能なノードではない場合は空の集合
+	 */
+	public Set<MacroNode> getDependencies(MacroNode node) {
+		Set<MacroNode> deps = _dependencies.get(node);
+		return (deps == null ? Collections.<MacroNode>emptySet() : Collections.unmodifiableSet(deps));
+	}
+
+	/**
+	 * 指定されたノードの、マクロ内の位置を取得する。位置は 1 から始まる。
+	 * @param node	対象のノード
+	 * @return	マクロ内の位置、スケジュール可能なノードではない場合は 0
+	 */
+	public int getOrder(MacroNode node) {
+		Integer order = _order.get(node);
+		return (order == null ? 0 : order.intValue());
+	}
+
+	/**
+	 * スケジュール可能なノードの数を返す。
+	 */
+	public int getNumSchedulableNodes() {
+		return _dependencies.size();
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	/**
+	 * 修飾子と条件式がなく、'[PUB]' および '[SUB]' 属性の引数のない JAVA コマンドかを判定する。
+	 */
+	static protected boolean isSchedulableNode(MacroNode node) {
+		if (node.getCommandAction() != MacroAction.JAVA)
+			return false;
+		if (node.hasCommandModifier())
+			return false;
+		if (node.getCommandNode() == null || node.getCommandNode().hasChildren())
+			return false;	// 条件式あり
+		for (ModuleArgument arg : node.args()) {
+			if (arg.isTypePUB() || arg.isTypeSUB())
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * 指定されたノードの '[IN]' および '[OUT]' 引数のファイルを取得する。
+	 * @return	すべての参照IDが変換された場合は <tt>true</tt>
+	 */
+	static protected boolean collectArgumentFiles(MacroData data, MacroNode node, Set<File> inputs, Set<File> outputs) {
+		String[] values = node.getResolvedModuleArgumentArray(data);
+		for (int i = 0; i < values.length; i++) {
+			String value = values[i];
+			if (value.indexOf("${") >= 0) {
+				return false;	// マクロ開始時点で変換できない参照ID(プロセス名など)
+			}
+			ModuleArgument arg = node.getModuleArgument(i);
+			if (arg.isTypeIN()) {
+				inputs.add(toCanonicalFile(value));
+			}
+			else if (arg.isTypeOUT()) {
+				outputs.add(toCanonicalFile(value));
+			}
+		}
+		return true;
+	}
+
+	static private File toCanonicalFile(String path) {
+		File file = new File(path);
+		try {
+			return file.getCanonicalFile();
+		} catch (IOException ex) {
+			return file.getAbsoluteFile();
+		}
+	}
+
+	static private boolean intersects(Set<File> set1, Set<File> set2) {
+		if (set1.isEmpty() || set2.isEmpty())
+			return false;
+		for (File f : set1) {
+			if (set2.contains(f))
+				return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,533 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SSAC(Systems of Social Accounting Consortium)
+ *  <author> Yasunari Ishizuka (PieCake,Inc.)
+ *  <author> Hiroshi Deguchi (TOKYO INSTITUTE OF TECHNOLOGY)
+ *  <author> Yuji Onuki (Statistics Bureau)
+ *  <author> Shungo Sakaki (Tokyo University of Technology)
+ *  <author> Akira Sasaki (HOSEI UNIVERSITY)
+ *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
+ */
+/*
+ * @(#)MacroResultCache.java	2.2.0	2026/10/18
+ *     - created
+ */
+package ssac.aadl.macro.data;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Properties;
+
+import ssac.aadl.macro.AADLMacroEngine;
+import ssac.aadl.macro.command.MacroAction;
+import ssac.aadl.macro.process.VerboseStream;
+import ssac.aadl.macro.util.io.Files;
+
+/**
+ * AADLマクロの JAVA コマンドの実行結果を、ローカルのディレクトリに保持するキャッシュ。
+ * <p>
+ * ノードの識別値(フィンガープリント)は、次の内容のダイジェストとする。
+ * <ul>
+ * <li>JAVA コマンドのクラスパス、VMオプション、メインクラス名
+ * <li>クラスパスを構成するファイルの内容
+ * <li>'[IN]' 属性の引数のファイルの内容
+ * <li>'[IN]' および '[OUT]' 属性以外の引数の値
+ * </ul>
+ * '[IN]' および '[OUT]' 属性の引数のファイルのパスは識別値に含めないため、
+ * テンポラリファイルのように実行ごとにパスが異なる場合も、同一の識別値となる。
+ * <p>
+ * 終了コードが 0 で終了したノードの '[OUT]' 引数のファイルを、識別値の名前のディレクトリに保存する。
+ * 同一の識別値のノードを実行する際は、ノードを実行せずに、保存されているファイルを
+ * 現在の '[OUT]' 引数のパスに復元する。このとき、モジュールの標準出力などは再現しない。
+ * キャッシュのディレクトリの合計サイズが上限を超えた場合は、最後に使用された日時の古いものから削除する。
+ * <p>
+ * キャッシュの対象は、修飾子がなく、'[PUB]' および '[SUB]' 属性の引数のない JAVA コマンドのうち、
+ * '[IN]' 引数がすべて通常のファイルであり、'[OUT]' 引数が 1 つ以上あるものとする。
+ * 
+ * @version 2.2.0	2026/10/18
+ * @since 2.2.0
+ */
+public class MacroResultCache
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	/** キャッシュの合計サイズの標準の上限(バイト) **/
+	static public final long DEFAULT_MAX_SIZE = 1024L * 1024L * 1024L;
+
+	/** 識別値の生成に使用するダイジェストのアルゴリズム **/
+	static private final String DIGEST_ALGORITHM = "SHA-256";
+	/** 保存したファイルの情報を記録するファイル名 **/
+	static private final String MANIFEST_FILENAME = "manifest.properties";
+	/** 保存したファイルの名前の接頭辞 **/
+	static private final String OUTPUT_PREFIX = "out";
+	/** 保存中のディレクトリ名の接尾辞 **/
+	static private final String TEMP_SUFFIX = ".tmp";
+	/** 保存した引数のインデックスを記録するプロパティのキー **/
+	static private final String KEY_OUTPUTS = "outputs";
+
+	/** ファイル読み込みのバッファサイズ **/
+	static private final int BUFFER_SIZE = 64 * 1024;
+
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/** キャッシュのディレクトリ **/
+	private final File	_cacheDir;
+	/** キャッシュの合計サイズの上限(バイト) **/
+	private final long	_maxSize;
+	/** クラスパスを構成するファイルの識別文字列と、ダイジェストのマップ **/
+	private final HashMap<String, String>	_classPathDigests = new HashMap<String, String>();
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	/**
+	 * 指定されたディレクトリを使用するキャッシュを生成する。
+	 * @param cacheDir	キャッシュのディレクトリ
+	 * @param maxSize	キャッシュの合計サイズの上限(バイト)
+	 * @throws NullPointerException	<em>cacheDir</em> が <tt>null</tt> の場合
+	 */
+	public MacroResultCache(File cacheDir, long maxSize) {
+		if (cacheDir == null)
+			throw new NullPointerException("cacheDir is null.");
+		_cacheDir = cacheDir.getAbsoluteFile();
+		_maxSize = maxSize;
+	}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * キャッシュのディレクトリを返す。
+	 */
+	public File getCacheDirectory() {
+		return _cacheDir;
+	}
+
+	/**
+	 * キャッシュの合計サイズの上限(バイト)を返す。
+	 */
+	public long getMaxSize() {
+		return _maxSize;
+	}
+
+	/**
+	 * 指定されたノードの識別値を取得する。
+	 * @param engine	AADLマクロ実行エンジン
+	 * @param data		マクロデータ
+	 * @param node		対象のノード
+	 * @return	識別値の 16 進文字列、キャッシュの対象ではないノードの場合は <tt>null</tt>
+	 */
+	public String fingerprint(final AADLMacroEngine engine, final MacroData data, final MacroNode node) {
+		if (!isCacheableNode(node)) {
+			return null;
+		}
+		
+		try {
+			MessageDigest md = MessageDigest.getInstance(DIGEST_ALGORITHM);
+			
+			// クラスパス、VMオプション、メインクラス名(モジュール引数を除くコマンド)
+			String[] command = node.getJavaModuleCommandArray(engine, data);
+			int numCmds = command.length - node.getNumModuleArguments();
+			for (int i = 0; i < numCmds; i++) {
+				update(md, command[i]);
+			}
+			
+			// クラスパスを構成するファイルの内容
+			for (File file : node.getInProcessClassPathList(engine, data)) {
+				update(md, getClassPathDigest(file));
+			}
+			
+			// モジュール引数
+			boolean hasOutput = false;
+			String[] values = node.getResolvedModuleArgumentArray(data);
+			for (int i = 0; i < values.length; i++) {
+				ModuleArgument arg = node.getModuleArgument(i);
+				update(md, arg.getType());
+				if (arg.isTypeIN()) {
+					File file = new File(values[i]);
+					if (!file.isFile()) {
+						return null;	// ディレクトリ、名前付きパイプ、存在しないファイル
+					}
+					update(md, digestFile(file));
+				}
+				else if (arg.isTypeOUT()) {
+					File file = new File(values[i]);
+					if (file.exists() && !file.isFile()) {
+						return null;	// ディレクトリ、名前付きパイプ
+					}
+					hasOutput = true;
+				}
+				else {
+					if (values[i].indexOf("${") >= 0) {
+						return null;	// 変換できない参照ID
+					}
+					update(md, values[i]);
+				}
+			}
+			if (!hasOutput) {
+				return null;
+			}
+			
+			// 相対パスの引数のための作業ディレクトリ
+			File workDir = data.getWorkDir();
+			update(md, (workDir == null ? "" : workDir.getAbsolutePath()));
+			return toHexString(md.digest());
+		}
+		catch (NoSuchAlgorithmException ex) {
+			VerboseStream.formatCategoryDebug("MacroResultCache#fingerprint", "Digest algorithm not supported : %s", ex);
+			return null;
+		}
+		catch (IOException ex) {
+			VerboseStream.formatCategoryDebug("MacroResultCache#fingerprint", "Failed to read file : %s", ex);
+			return null;
+		}
+	}
+
+	/**
+	 * 指定された識別値で保存されているファイルを、指定されたノードの '[OUT]' 引数のパスに復元する。
+	 * 復元したエントリは、最後に使用された日時を更新する。
+	 * @param key		識別値
+	 * @param data		マクロデータ
+	 * @param node		対象のノード
+	 * @return	復元した場合は <tt>true</tt>、保存されていないか復元に失敗した場合は <tt>false</tt>
+	 */
+	public synchronized boolean restore(String key, final MacroData data, final MacroNode node) {
+		File entryDir = new File(_cacheDir, key);
+		List<Integer> outputs = readManifest(entryDir);
+		if (outputs == null) {
+			return false;
+		}
+		
+		String[] values = node.getResolvedModuleArgumentArray(data);
+		try {
+			for (int index : outputs) {
+				if (index >= values.length || !node.getModuleArgument(index).isTypeOUT()) {
+					return false;
+				}
+				File src = new File(entryDir, OUTPUT_PREFIX + index);
+				if (!src.isFile()) {
+					return false;
+				}
+				File dest = new File(values[index]);
+				File parent = dest.getParentFile();
+				if (parent != null && !parent.exists()) {
+					parent.mkdirs();
+				}
+				Files.copyFile(src, dest);
+			}
+		}
+		catch (IOException ex) {
+			VerboseStream.formatCategoryDebug("MacroResultCache#restore", "Failed to restore : %s (%s)", key, ex);
+			return false;
+		}
+		entryDir.setLastModified(System.currentTimeMillis());
+		return true;
+	}
+
+	/**
+	 * 指定されたノードの '[OUT]' 引数のファイルを、指定された識別値で保存する。
+	 * 保存後にキャッシュの合計サイズが上限を超えた場合は、最後に使用された日時の古いエントリから削除する。
+	 * 保存に失敗した場合も、例外はスローしない。
+	 * @param key		識別値
+	 * @param data		マクロデータ
+	 * @param node		対象のノード
+	 * @return	保存した場合は <tt>true</tt>
+	 */
+	public synchronized boolean store(String key, final MacroData data, final MacroNode node) {
+		String[] values = node.getResolvedModuleArgumentArray(data);
+		StringBuilder sbOutputs = new StringBuilder();
+		long size = 0L;
+		for (int i = 0; i < values.length; i++) {
+			if (node.getModuleArgument(i).isTypeOUT()) {
+				File file = new File(values[i]);
+				if (!file.isFile()) {
+					return false;
+				}
+				size += file.length();
+				if (sbOutputs.length() > 0) {
+					sbOutputs.append(',');
+				}
+				sbOutputs.append(i);
+			}
+		}
+		if (sbOutputs.length() <= 0 || size > _maxSize) {
+			return false;
+		}
+		
+		File entryDir = new File(_cacheDir, key);
+		File tempDir = new File(_cacheDir, key + TEMP_SUFFIX + System.nanoTime());
+		try {
+			if (!tempDir.mkdirs()) {
+				throw new IOException("Failed to create directory : " + tempDir.getPath());
+			}
+			for (int i = 0; i < values.length; i++) {
+				if (node.getModuleArgument(i).isTypeOUT()) {
+					Files.copyFile(new File(values[i]), new File(tempDir, OUTPUT_PREFIX + i));
+				}
+			}
+			Properties manifest = new Properties();
+			manifest.setProperty(KEY_OUTPUTS, sbOutputs.toString());
+			OutputStream oStream = new FileOutputStream(new File(tempDir, MANIFEST_FILENAME));
+			try {
+				manifest.store(oStream, null);
+			}
+			finally {
+				Files.closeStream(oStream);
+			}
+			
+			// 既存のエントリは置き換える
+			if (entryDir.exists()) {
+				deleteRecursive(entryDir);
+			}
+			if (!tempDir.renameTo(entryDir)) {
+				throw new IOException("Failed to rename directory : " + tempDir.getPath());
+			}
+		}
+		catch (IOException ex) {
+			VerboseStream.formatCategoryDebug("MacroResultCache#store", "Failed to store : %s (%s)", key, ex);
+			deleteRecursive(tempDir);
+			return false;
+		}
+		
+		evict();
+		return true;
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	/**
+	 * 修飾子がなく、'[PUB]' および '[SUB]' 属性の引数のない JAVA コマンドかを判定する。
+	 */
+	static protected boolean isCacheableNode(MacroNode node) {
+		if (node.getCommandAction() != MacroAction.JAVA)
+			return false;
+		if (node.hasCommandModifier())
+			return false;
+		for (ModuleArgument arg : node.args()) {
+			if (arg.isTypePUB() || arg.isTypeSUB())
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * クラスパスを構成するファイルのダイジェストを取得する。
+	 * ファイルはパス、更新日時、サイズごとに、ディレクトリはパスごとに一度だけ計算する。
+	 */
+	private synchronized String getClassPathDigest(File file) throws IOException, NoSuchAlgorithmException {
+		String id;
+		if (file.isFile()) {
+			id = file.getPath() + '@' + file.lastModified() + '#' + file.length();
+		} else if (file.isDirectory()) {
+			id = file.getPath() + File.separatorChar;
+		} else {
+			return "";	// 存在しない
+		}
+		String digest = _classPathDigests.get(id);
+		if (digest == null) {
+			if (file.isFile()) {
+				digest = digestFile(file);
+			} else {
+				MessageDigest md = MessageDigest.getInstance(DIGEST_ALGORITHM);
+				updateDirectory(md, file, "");
+				digest = toHexString(md.digest());
+			}
+			_classPathDigests.put(id, digest);
+		}
+		return digest;
+	}
+
+	/**
+	 * 指定されたディレクトリ以下のファイルの相対パスと内容で、ダイジェストを更新する。
+	 */
+	static private void updateDirectory(MessageDigest md, File dir, String prefix) throws IOException, NoSuchAlgorithmException {
+		File[] files = dir.listFiles();
+		if (files == null)
+			return;
+		Arrays.sort(files);
+		for (File file : files) {
+			String name = prefix + file.getName();
+			if (file.isDirectory()) {
+				updateDirectory(md, file, name + "/");
+			} else {
+				update(md, name);
+				update(md, digestFile(file));
+			}
+		}
+	}
+
+	/**
+	 * 指定されたファイルの内容のダイジェストを計算する。
+	 */
+	static private String digestFile(File file) throws IOException, NoSuchAlgorithmException {
+		MessageDigest md = MessageDigest.getInstance(DIGEST_ALGORITHM);
+		byte[] buffer = new byte[BUFFER_SIZE];
+		InputStream iStream = new FileInputStream(file);
+		try {
+			int len;
+			while ((len = iStream.read(buffer)) > 0) {
+				md.update(buffer, 0, len);
+			}
+		}
+		finally {
+			Files.closeStream(iStream);
+		}
+		return toHexString(md.digest());
+	}
+
+	/**
+	 * 文字列の長さと内容で、ダイジェストを更新する。
+	 */
+	static private void update(MessageDigest md, String value) {
+		byte[] bytes;
+		try {
+			bytes = value.getBytes("UTF-8");
+		} catch (IOException ex) {
+			bytes = value.getBytes();
+		}
+		int len = bytes.length;
+		md.update(new byte[]{ (byte)(len >>> 24), (byte)(len >>> 16), (byte)(len >>> 8), (byte)len });
+		md.update(bytes);
+	}
+
+	static private String toHexString(byte[] bytes) {
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			sb.append(Character.forDigit((b >> 4) & 0x0F, 16));
+			sb.append(Character.forDigit(b & 0x0F, 16));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * 指定されたエントリの、保存した引数のインデックスを取得する。
+	 * @return	インデックスのリスト、エントリが存在しないか不正な場合は <tt>null</tt>
+	 */
+	static private List<Integer> readManifest(File entryDir) {
+		File manifestFile = new File(entryDir, MANIFEST_FILENAME);
+		if (!manifestFile.isFile()) {
+			return null;
+		}
+		Properties manifest = new Properties();
+		InputStream iStream = null;
+		try {
+			iStream = new FileInputStream(manifestFile);
+			manifest.load(iStream);
+		}
+		catch (IOException ex) {
+			return null;
+		}
+		finally {
+			Files.closeStream(iStream);
+		}
+		String strOutputs = manifest.getProperty(KEY_OUTPUTS);
+		if (strOutputs == null || strOutputs.length() <= 0) {
+			return null;
+		}
+		ArrayList<Integer> outputs = new ArrayList<Integer>();
+		try {
+			for (String index : strOutputs.split(",")) {
+				outputs.add(Integer.valueOf(index.trim()));
+			}
+		}
+		catch (NumberFormatException ex) {
+			return null;
+		}
+		return outputs;
+	}
+
+	/**
+	 * キャッシュの合計サイズが上限を超えている場合、最後に使用された日時の古いエントリから削除する。
+	 * 保存中のディレクトリは対象外とする。
+	 */
+	private void evict() {
+		File[] entries = _cacheDir.listFiles();
+		if (entries == null)
+			return;
+		
+		ArrayList<File> entryList = new ArrayList<File>(entries.length);
+		final HashMap<File, Long> lastUsed = new HashMap<File, Long>();
+		HashMap<File, Long> sizes = new HashMap<File, Long>();
+		long total = 0L;
+		for (File entry : entries) {
+			if (!entry.isDirectory() || entry.getName().indexOf(TEMP_SUFFIX) >= 0)
+				continue;
+			long size = sizeOf(entry);
+			entryList.add(entry);
+			lastUsed.put(entry, entry.lastModified());
+			sizes.put(entry, size);
+			total += size;
+		}
+		if (total <= _maxSize)
+			return;
+		
+		Collections.sort(entryList, new Comparator<File>() {
+			public int compare(File f1, File f2) {
+				long t1 = lastUsed.get(f1);
+				long t2 = lastUsed.get(f2);
+				return (t1 < t2 ? -1 : (t1 == t2 ? 0 : 1));
+			}
+		});
+		for (File entry : entryList) {
+			if (total <= _maxSize)
+				break;
+			VerboseStream.formatCategoryDebug("MacroResultCache#evict", "Remove cache entry : %s", entry.getName());
+			deleteRecursive(entry);
+			total -= sizes.get(entry);
+		}
+	}
+
+	static private long sizeOf(File file) {
+		if (file.isFile())
+			return file.length();
+		long size = 0L;
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File f : files) {
+				size += sizeOf(f);
+			}
+		}
+		return size;
+	}
+
+	static private void deleteRecursive(File file) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File f : files) {
+				deleteRecursive(f);
+			}
+		}
+		file.delete();
+	}
+}
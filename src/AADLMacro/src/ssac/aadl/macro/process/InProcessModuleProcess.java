@@ -0,0 +1,502 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SSAC(Systems of Social Accounting Consortium)
+ *  <author> Yasunari Ishizuka (PieCake,Inc.)
+ *  <author> Hiroshi Deguchi (TOKYO INSTITUTE OF TECHNOLOGY)
+ *  <author> Yuji Onuki (Statistics Bureau)
+ *  <author> Shungo Sakaki (Tokyo University of Technology)
+ *  <author> Akira Sasaki (HOSEI UNIVERSITY)
+ *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
+ */
+/*
+ * @(#)InProcessModuleProcess.java	2.2.0	2026/10/18
+ *     - created
+ */
+package ssac.aadl.macro.process;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ssac.aadl.macro.util.io.ReportPrinter;
+
+/**
+ * AADLモジュールを、AADLマクロ実行エンジンのプロセス内のスレッドで実行するクラス。
+ * <p>
+ * 実行対象は、<code>ssac.aadl.runtime.AADLModule</code> を継承するメインクラスのみとし、
+ * そのインスタンスを生成して <code>aadlRun(String[])</code> を呼び出す。
+ * 実行スレッド(および実行スレッドから生成されたスレッド)の標準出力、標準エラー出力は、
+ * このオブジェクトに指定された出力先へ転送する。
+ * 中断要求は {@link InterruptibleJavaMainProcessImpl} の実行スレッドに関連付けられたインスタンスによって通知し、
+ * 中断要求発生からおよそ 10 秒以内に応答しない場合は、強制終了したものとして扱う。
+ * <p>
+ * 強制終了した場合、実行スレッドの終了は待機せず、その後の出力は破棄する。
+ * 
+ * @version 2.2.0	2026/10/18
+ * @since 2.2.0
+ */
+public class InProcessModuleProcess
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	/** AADLモジュールの基本クラス名 **/
+	static public final String	AADLMODULE_CLASSNAME	= "ssac.aadl.runtime.AADLModule";
+	/** AADLモジュールのエントリメソッド名 **/
+	static public final String	AADLMODULE_ENTRYNAME	= "aadlRun";
+
+	/** 強制終了した場合の終了コード **/
+	static public final int	EXITCODE_KILLED	= 99;
+	/** 例外により終了した場合の終了コード **/
+	static public final int	EXITCODE_EXCEPTION	= 1;
+
+	static private final String	NAME_THREAD	= "InProcessModule-";
+
+	/** プロセスの終了コードが 0～255 に制限されるプラットフォームであることを示すフラグ **/
+	static private final boolean	isUnsignedByteExitCode = (System.getProperty("os.name").indexOf("Windows") < 0);
+
+	static private final AtomicInteger	_threadNumber = new AtomicInteger(1);
+
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/** 実行するメインクラス **/
+	private final Class<?>		_mainClass;
+	/** 必要なプログラム引数の数 **/
+	private final int			_numRequiredArgs;
+	/** プログラム引数 **/
+	private final String[]		_args;
+	/** 実行時に設定するシステムプロパティ **/
+	private final Map<String,String>	_properties;
+
+	/** 実行スレッド **/
+	private Thread		_thread;
+	/** 実行スレッドの中断制御 **/
+	private InterruptibleJavaMainProcessImpl	_interruptible;
+	/** 標準出力の転送先 **/
+	private PrinterOutputStream	_outStream;
+	/** 標準エラー出力の転送先 **/
+	private PrinterOutputStream	_errStream;
+	/** 実行完了を示すフラグ **/
+	private boolean		_finished;
+	/** 強制終了したことを示すフラグ **/
+	private boolean		_killed;
+	/** 終了コード **/
+	private int			_exitCode;
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	private InProcessModuleProcess(Class<?> mainClass, int numRequiredArgs, String[] args, Map<String,String> properties) {
+		_mainClass = mainClass;
+		_numRequiredArgs = numRequiredArgs;
+		_args = args;
+		_properties = properties;
+	}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * 指定されたメインクラスを、プロセス内で実行するための新しいインスタンスを生成する。
+	 * メインクラスが読み込めない場合、もしくは AADLモジュールではない場合は <tt>null</tt> を返す。
+	 * @param loader		メインクラスを読み込むクラスローダー
+	 * @param mainClassName	メインクラス名
+	 * @param args			プログラム引数
+	 * @param properties	実行開始時に設定するシステムプロパティ、不要な場合は <tt>null</tt>
+	 * @return	新しいインスタンス、プロセス内で実行できない場合は <tt>null</tt>
+	 */
+	static public InProcessModuleProcess newInstance(ClassLoader loader, String mainClassName, String[] args, Map<String,String> properties) {
+		Class<?> mainClass;
+		try {
+			mainClass = Class.forName(mainClassName, false, loader);
+		}
+		catch (ClassNotFoundException ex) {
+			VerboseStream.formatCategoryDebug("InProcessModuleProcess#newInstance", "Class not found : %s", mainClassName);
+			return null;
+		}
+		catch (LinkageError ex) {
+			VerboseStream.formatCategoryDebug("InProcessModuleProcess#newInstance", "Failed to load class : %s (%s)", mainClassName, ex);
+			return null;
+		}
+		
+		// AADLモジュールのみ実行可能
+		if (!isAADLModuleClass(mainClass) || Modifier.isAbstract(mainClass.getModifiers())) {
+			VerboseStream.formatCategoryDebug("InProcessModuleProcess#newInstance", "Not an AADL module : %s", mainClassName);
+			return null;
+		}
+		
+		// 必要なプログラム引数の数は、'aadlRun(String[])' 以外のエントリメソッドの引数の数とする
+		// (メソッドのシグニチャが参照するクラスが読み込めない場合は、別プロセスで実行する)
+		int numRequiredArgs = 0;
+		try {
+			Method entry = mainClass.getMethod(AADLMODULE_ENTRYNAME, String[].class);
+			if (entry.getReturnType() != int.class) {
+				VerboseStream.formatCategoryDebug("InProcessModuleProcess#newInstance", "Entry method not found : %s", mainClassName);
+				return null;
+			}
+			for (Method method : mainClass.getMethods()) {
+				if (!AADLMODULE_ENTRYNAME.equals(method.getName()) || method.getReturnType() != int.class)
+					continue;
+				Class<?>[] params = method.getParameterTypes();
+				if (params.length != 1 || params[0] != String[].class) {
+					numRequiredArgs = Math.max(numRequiredArgs, params.length);
+				}
+			}
+		}
+		catch (NoSuchMethodException ex) {
+			VerboseStream.formatCategoryDebug("InProcessModuleProcess#newInstance", "Entry method not found : %s", mainClassName);
+			return null;
+		}
+		catch (LinkageError ex) {
+			VerboseStream.formatCategoryDebug("InProcessModuleProcess#newInstance", "Failed to resolve methods : %s (%s)", mainClassName, ex);
+			return null;
+		}
+		
+		return new InProcessModuleProcess(mainClass, numRequiredArgs, args, properties);
+	}
+
+	/**
+	 * 実行スレッドを開始する。
+	 * @param outReceiver	標準出力の転送先
+	 * @param errReceiver	標準エラー出力の転送先
+	 */
+	public void start(ReportPrinter outReceiver, ReportPrinter errReceiver) {
+		synchronized (this) {
+			if (_thread != null)
+				throw new IllegalStateException("Already started.");
+			_outStream = new PrinterOutputStream(outReceiver);
+			_errStream = new PrinterOutputStream(errReceiver);
+			_thread = new Thread(new Runnable() {
+				public void run() {
+					runModule();
+				}
+			}, NAME_THREAD + _threadNumber.getAndIncrement());
+			_thread.setDaemon(true);
+			_thread.setContextClassLoader(_mainClass.getClassLoader());
+			_interruptible = InterruptibleJavaMainProcessImpl.newInProcessInstance(_thread);
+			StreamRouter.install();
+		}
+		_thread.start();
+	}
+
+	/**
+	 * 実行中かどうかを判定する。
+	 * @return	実行中であれば <tt>true</tt>
+	 */
+	public synchronized boolean isAlive() {
+		return (_thread != null && !_finished);
+	}
+
+	/**
+	 * 終了コードを返す。
+	 * @return	終了コード
+	 * @throws IllegalThreadStateException	実行中の場合
+	 */
+	public synchronized int exitValue() {
+		if (!_finished)
+			throw new IllegalThreadStateException("Module is running.");
+		return _exitCode;
+	}
+
+	/**
+	 * 強制終了したかどうかを判定する。
+	 * @return	強制終了した場合は <tt>true</tt>
+	 */
+	public synchronized boolean isKilled() {
+		return _killed;
+	}
+
+	/**
+	 * 実行中の場合、中断要求を発生させる。
+	 */
+	public void terminate() {
+		InterruptibleJavaMainProcessImpl interruptible;
+		synchronized (this) {
+			if (_thread == null || _finished)
+				return;
+			interruptible = _interruptible;
+		}
+		VerboseStream.categoryTrace("InProcessModuleProcess#terminate", "$Request termination.");
+		interruptible.requestTermination();
+		synchronized (this) {
+			notifyAll();	// 待機時間の再計算
+		}
+	}
+
+	/**
+	 * 実行中の場合、強制終了する。
+	 * 実行スレッドには割り込みをかけるが、実行スレッドの終了は待機しない。
+	 */
+	public void kill() {
+		synchronized (this) {
+			if (_thread == null || _finished)
+				return;
+			VerboseStream.categoryTrace("InProcessModuleProcess#kill", "$Kill the module.");
+			_thread.interrupt();
+			finish(EXITCODE_KILLED, true);
+		}
+	}
+
+	/**
+	 * 実行が終了するまで待機する。
+	 * 中断要求発生から応答がないまま所定の時間が経過した場合は、強制終了する。
+	 * @return	終了コード
+	 * @throws InterruptedException	待機中に割り込みが発生した場合
+	 */
+	public int waitFor() throws InterruptedException {
+		synchronized (this) {
+			while (!_finished) {
+				wait(_interruptible.getTerminationWaitTime());
+				if (!_finished && _interruptible.isTerminationTimedOut()) {
+					VerboseStream.categoryTrace("InProcessModuleProcess#waitFor", "$Timed out termination phase, then kill the module.");
+					_thread.interrupt();
+					finish(EXITCODE_KILLED, true);
+				}
+			}
+			return _exitCode;
+		}
+	}
+
+	/**
+	 * 実行が完了したモジュールの出力をフラッシュし、終了コードを返す。
+	 * @return	終了コード
+	 * @throws IllegalThreadStateException	実行中の場合
+	 */
+	public int cleanup() {
+		int exitCode = exitValue();
+		_outStream.flush();
+		_errStream.flush();
+		return exitCode;
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	/**
+	 * 指定されたクラスが AADLモジュールかどうかを判定する。
+	 * AADLモジュールの基本クラスは、モジュールのクラスローダーから読み込まれるため、クラス名で判定する。
+	 */
+	static protected boolean isAADLModuleClass(Class<?> clazz) {
+		for (Class<?> c = clazz.getSuperclass(); c != null; c = c.getSuperclass()) {
+			if (AADLMODULE_CLASSNAME.equals(c.getName())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 実行を完了し、待機中のスレッドに通知する。
+	 * 完了済みの場合は何もしない。
+	 */
+	private synchronized void finish(int exitCode, boolean killed) {
+		if (_finished)
+			return;
+		_exitCode = exitCode;
+		_killed = killed;
+		_finished = true;
+		if (killed) {
+			// 以降の出力は破棄
+			_outStream.detach();
+			_errStream.detach();
+		}
+		notifyAll();
+	}
+
+	/**
+	 * 実行スレッドで、モジュールを実行する。
+	 */
+	private void runModule() {
+		int exitCode = EXITCODE_EXCEPTION;
+		InterruptibleJavaMainProcessImpl.attachToCurrentThread(_interruptible);
+		StreamRouter.attachToCurrentThread(new PrintStream(_outStream, true), new PrintStream(_errStream, true));
+		try {
+			if (_properties != null) {
+				for (Map.Entry<String,String> entry : _properties.entrySet()) {
+					System.setProperty(entry.getKey(), entry.getValue());
+				}
+			}
+			if (_args.length < _numRequiredArgs) {
+				// 生成された main メソッドと同じ
+				System.err.println("Program argument is insufficient.");
+				System.err.println("Need " + _numRequiredArgs + " arguments.");
+				exitCode = 1;
+			} else {
+				Constructor<?> ctor = _mainClass.getConstructor();
+				Object module = ctor.newInstance();
+				Method entry = _mainClass.getMethod(AADLMODULE_ENTRYNAME, String[].class);
+				Object result = entry.invoke(module, (Object)_args);
+				exitCode = ((Integer)result).intValue();
+				if (isUnsignedByteExitCode) {
+					exitCode &= 0xFF;
+				}
+			}
+		}
+		catch (InvocationTargetException ex) {
+			printUncaughtException(ex.getCause() != null ? ex.getCause() : ex);
+		}
+		catch (Throwable ex) {
+			printUncaughtException(ex);
+		}
+		finally {
+			System.out.flush();
+			System.err.flush();
+			StreamRouter.attachToCurrentThread(null, null);
+			InterruptibleJavaMainProcessImpl.attachToCurrentThread(null);
+			_interruptible.finishNormally();
+			finish(exitCode, false);
+		}
+	}
+
+	/**
+	 * 捕捉されなかった例外を、標準エラー出力へ出力する。
+	 */
+	private void printUncaughtException(Throwable ex) {
+		System.err.print("Exception in thread \"main\" ");
+		ex.printStackTrace(System.err);
+	}
+
+	//------------------------------------------------------------
+	// Inner classes
+	//------------------------------------------------------------
+
+	/**
+	 * 書き込まれたバイト列を <code>ReportPrinter</code> へ転送する出力ストリーム。
+	 */
+	static protected class PrinterOutputStream extends OutputStream
+	{
+		private volatile ReportPrinter	_printer;
+		
+		public PrinterOutputStream(ReportPrinter printer) {
+			_printer = printer;
+		}
+		
+		/**
+		 * 転送先を解除し、以降の出力を破棄する。
+		 */
+		public void detach() {
+			_printer = null;
+		}
+
+		@Override
+		public void write(int b) {
+			write(new byte[]{(byte)b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			ReportPrinter printer = _printer;
+			if (printer != null) {
+				printer.write(b, off, len);
+			}
+		}
+
+		@Override
+		public void flush() {
+			ReportPrinter printer = _printer;
+			if (printer != null) {
+				try {
+					printer.flush();
+				} catch (IOException ignoreEx) {}
+			}
+		}
+
+		@Override
+		public void close() {
+			flush();
+		}
+	}
+
+	/**
+	 * 書き込むスレッドに関連付けられた出力ストリームへ出力を振り分ける出力ストリーム。
+	 * 関連付けられた出力ストリームがないスレッドの出力は、インストール前の出力ストリームへ出力する。
+	 */
+	static protected class StreamRouter extends OutputStream
+	{
+		/** スレッドに関連付けられた標準出力 **/
+		static private final InheritableThreadLocal<PrintStream>	_threadOut = new InheritableThreadLocal<PrintStream>();
+		/** スレッドに関連付けられた標準エラー出力 **/
+		static private final InheritableThreadLocal<PrintStream>	_threadErr = new InheritableThreadLocal<PrintStream>();
+		/** インストール済みであることを示すフラグ **/
+		static private boolean	_installed = false;
+
+		private final PrintStream	_defaultStream;
+		private final InheritableThreadLocal<PrintStream>	_threadStream;
+
+		private StreamRouter(PrintStream defaultStream, InheritableThreadLocal<PrintStream> threadStream) {
+			_defaultStream = defaultStream;
+			_threadStream = threadStream;
+		}
+
+		/**
+		 * 標準出力、標準エラー出力を、このクラスのインスタンスに置き換える。
+		 * インストール済みの場合は何もしない。
+		 */
+		static public synchronized void install() {
+			if (!_installed) {
+				System.setOut(new PrintStream(new StreamRouter(System.out, _threadOut), true));
+				System.setErr(new PrintStream(new StreamRouter(System.err, _threadErr), true));
+				_installed = true;
+			}
+		}
+
+		/**
+		 * 現在のスレッドに、出力ストリームを関連付ける。
+		 * @param out	標準出力、関連付けを解除する場合は <tt>null</tt>
+		 * @param err	標準エラー出力、関連付けを解除する場合は <tt>null</tt>
+		 */
+		static public void attachToCurrentThread(PrintStream out, PrintStream err) {
+			if (out != null)
+				_threadOut.set(out);
+			else
+				_threadOut.remove();
+			if (err != null)
+				_threadErr.set(err);
+			else
+				_threadErr.remove();
+		}
+
+		private PrintStream target() {
+			PrintStream stream = _threadStream.get();
+			return (stream != null ? stream : _defaultStream);
+		}
+
+		@Override
+		public void write(int b) {
+			target().write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			target().write(b, off, len);
+		}
+
+		@Override
+		public void flush() {
+			target().flush();
+		}
+	}
+}
@@ -20,6 +20,8 @@
  *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
  */
 /*
+ * @(#)InterruptibleJavaMainProcessImpl.java	2.2.0	2026/10/18
+ *     - modified
  * @(#)InterruptibleJavaMainProcessImpl.java	2.1.0	2014/05/29
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)InterruptibleJavaMainProcessImpl.java	2.0.0	2014/03/23
@@ -27,14 +29,27 @@
  */
 package ssac.aadl.macro.process;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.lang.reflect.Method;
 
 /**
  * Java プロセス専用の、中断可能プロセスの実装。
  * このクラスは、実行対象 Java プロセスのラッパー実装となる。
+ * <p>中断要求と強制終了要求は、システムプロパティ {@link #PROPKEY_CONTROL_CHANNEL} に
+ * {@link #CONTROL_CHANNEL_STDIN} が指定されている場合は標準入力から 1 行のコマンドとして受け取り、
+ * 指定されていない場合は制御ファイルの削除を一定間隔で監視して検出する。
+ * 標準入力を制御に使用する場合、標準入力の終端は親プロセスの終了とみなして中断要求とし、
+ * 実行対象の Java プロセスの標準入力は空のストリームとする。
+ * <p>AADLマクロ実行エンジンのプロセス内でモジュールを実行する場合は、
+ * モジュールを実行するスレッドごとにこのクラスのインスタンスを関連付け、
+ * 中断要求の判定にはそのインスタンスを使用する。
  * 
- * @version 2.1.0	2014/05/29
+ * @version 2.2.0	2026/10/18
  * @since 2.0.0
  */
 public class InterruptibleJavaMainProcessImpl
@@ -50,16 +65,50 @@ public class InterruptibleJavaMainProcessImpl
 
 	static private final String NAME_FILEWATCHER	= "ProcessAliveFileWatcher";
 	static private final String NAME_SHUTDOWNHOOK	= "TerminateShutdown";
+	static private final String NAME_CHANNELREADER	= "ProcessControlChannelReader";
 
 	/** JAVAプロセスに中断要求(メインスレッドへの割り込み)が発生したことを示すプロパティ名、中断要求があった場合は <tt>true</tt> がセットされる */
 	static public final String	PROPKEY_AADL_INTERRUPTED	= "aadl.interrupted";
 
+	/**
+	 * プロセスの制御方法を示すシステムプロパティ名。
+	 * 子プロセスでは {@link #CONTROL_CHANNEL_STDIN} の場合に標準入力を制御に使用し、
+	 * 親プロセスでは {@link #CONTROL_CHANNEL_FILE} の場合に制御ファイルのみを使用する。
+	 * @since 2.2.0
+	 */
+	static public final String	PROPKEY_CONTROL_CHANNEL	= "aadl.process.control";
+	/**
+	 * 標準入力による制御を示す {@link #PROPKEY_CONTROL_CHANNEL} の値
+	 * @since 2.2.0
+	 */
+	static public final String	CONTROL_CHANNEL_STDIN	= "stdin";
+	/**
+	 * 制御ファイルのみによる制御を示す {@link #PROPKEY_CONTROL_CHANNEL} の値
+	 * @since 2.2.0
+	 */
+	static public final String	CONTROL_CHANNEL_FILE	= "file";
+	/**
+	 * 中断要求を示す制御コマンド
+	 * @since 2.2.0
+	 */
+	static public final String	CONTROL_TERMINATE	= "TERMINATE";
+	/**
+	 * 強制終了要求を示す制御コマンド
+	 * @since 2.2.0
+	 */
+	static public final String	CONTROL_KILL		= "KILL";
+
 	//------------------------------------------------------------
 	// Fields
 	//------------------------------------------------------------
 
 	/** このクラスの唯一のインスタンス **/
 	static private InterruptibleJavaMainProcessImpl	_instance;
+	/**
+	 * プロセス内で実行するモジュールのスレッドに関連付けられたインスタンス
+	 * @since 2.2.0
+	 */
+	static private final InheritableThreadLocal<InterruptibleJavaMainProcessImpl>	_threadInstance = new InheritableThreadLocal<InterruptibleJavaMainProcessImpl>();
 
 	/** このクラスの管理対象プロセスのメインスレッド **/
 	private final	Thread			_thMain;
@@ -78,6 +127,16 @@ public class InterruptibleJavaMainProcessImpl
 	private volatile boolean		_flgWatcherActive = false;
 	/** 中断処理開始時刻(ミリ秒) **/
 	private volatile long		_ltStartTermination;
+	/**
+	 * 管理対象プロセスに対して強制終了要求が発生したことを示すフラグ
+	 * @since 2.2.0
+	 */
+	private volatile boolean		_flgKillRequested = false;
+	/**
+	 * 標準入力による制御を使用することを示すフラグ
+	 * @since 2.2.0
+	 */
+	private volatile boolean		_useControlChannel = false;
 
 	//------------------------------------------------------------
 	// Constructions
@@ -90,7 +149,19 @@ public class InterruptibleJavaMainProcessImpl
 	 * @throws NullPointerException	引数が <tt>null</tt> の場合
 	 */
 	private InterruptibleJavaMainProcessImpl(File aliveFile, File killFile) {
-		_thMain = Thread.currentThread();
+		this(Thread.currentThread(), aliveFile, killFile);
+	}
+
+	/**
+	 * 指定されたスレッドを管理対象のメインスレッドとする、新しいインスタンスを生成する。
+	 * プロセス内で実行するモジュールの場合、制御ファイルは <tt>null</tt> とする。
+	 * @param mainThread	管理対象のメインスレッド
+	 * @param aliveFile	プロセス生存制御ファイル
+	 * @param killFile		プロセス停止制御ファイル
+	 * @since 2.2.0
+	 */
+	private InterruptibleJavaMainProcessImpl(Thread mainThread, File aliveFile, File killFile) {
+		_thMain = mainThread;
 		_fAlive = aliveFile;
 		_fKill  = killFile;
 	}
@@ -108,8 +179,9 @@ public class InterruptibleJavaMainProcessImpl
 	 * @return	中断要求があった場合は <tt>true</tt>、それ以外の場合は <tt>false</tt>
 	 */
 	static public boolean acceptTerminateRequest() {
-		if (_instance != null)
-			return _instance._acceptTerminateRequest();
+		InterruptibleJavaMainProcessImpl impl = getCurrentInstance();
+		if (impl != null)
+			return impl._acceptTerminateRequest();
 		else
 			return false;
 	}
@@ -124,8 +196,9 @@ public class InterruptibleJavaMainProcessImpl
 	 * @return	中断要求があった場合は <tt>true</tt>、それ以外の場合は <tt>false</tt>
 	 */
 	static public boolean isTerminateRequested() {
-		if (_instance != null)
-			return _instance._isTerminateRequested();
+		InterruptibleJavaMainProcessImpl impl = getCurrentInstance();
+		if (impl != null)
+			return impl._isTerminateRequested();
 		else
 			return false;
 	}
@@ -213,6 +286,12 @@ public class InterruptibleJavaMainProcessImpl
 				System.exit(93);
 			}
 			
+			// start control channel reader thread
+			if (CONTROL_CHANNEL_STDIN.equals(System.getProperty(PROPKEY_CONTROL_CHANNEL))) {
+				_instance.startControlChannelReader(System.in);
+				System.setIn(new ByteArrayInputStream(new byte[0]));
+			}
+			
 			// start target main
 			Class<?> targetClass = Class.forName(strTargetMainClass);
 			Method mMain = targetClass.getMethod("main", String[].class);
@@ -230,6 +309,100 @@ public class InterruptibleJavaMainProcessImpl
 	// Internal methods
 	//------------------------------------------------------------
 
+	/**
+	 * 現在のスレッドに関連付けられたインスタンスを返す。
+	 * 関連付けられたインスタンスがない場合は、このプロセスのインスタンスを返す。
+	 * @return	インスタンス、存在しない場合は <tt>null</tt>
+	 * @since 2.2.0
+	 */
+	static protected InterruptibleJavaMainProcessImpl getCurrentInstance() {
+		InterruptibleJavaMainProcessImpl impl = _threadInstance.get();
+		return (impl != null ? impl : _instance);
+	}
+
+	/**
+	 * プロセス内で実行するモジュールのための、新しいインスタンスを生成する。
+	 * 生成したインスタンスは、{@link #attachToCurrentThread(InterruptibleJavaMainProcessImpl)} により
+	 * モジュールを実行するスレッドに関連付ける。
+	 * @param mainThread	モジュールを実行するスレッド
+	 * @return	新しいインスタンス
+	 * @since 2.2.0
+	 */
+	static InterruptibleJavaMainProcessImpl newInProcessInstance(Thread mainThread) {
+		InterruptibleJavaMainProcessImpl impl = new InterruptibleJavaMainProcessImpl(mainThread, null, null);
+		impl._flgWatcherActive = true;
+		return impl;
+	}
+
+	/**
+	 * 指定されたインスタンスを、現在のスレッドに関連付ける。
+	 * 現在のスレッドから生成されるスレッドにも、同じインスタンスが関連付けられる。
+	 * @param impl	関連付けるインスタンス、関連付けを解除する場合は <tt>null</tt>
+	 * @since 2.2.0
+	 */
+	static void attachToCurrentThread(InterruptibleJavaMainProcessImpl impl) {
+		if (impl != null)
+			_threadInstance.set(impl);
+		else
+			_threadInstance.remove();
+	}
+
+	/**
+	 * プロセス内で実行するモジュールに中断要求を発生させ、メインスレッドに割り込みをかける。
+	 * すでに中断要求が発生している場合、このメソッドは何もしない。
+	 * @since 2.2.0
+	 */
+	void requestTermination() {
+		synchronized (this) {
+			if (_flgTerminateRequested || !_flgWatcherActive) {
+				return;
+			}
+			_flgTerminateRequested = true;
+			_ltStartTermination = System.currentTimeMillis();	// 中断処理待機開始
+			interruptMainThread();
+			notifyAll();	// 監視スレッドへ通知
+		}
+	}
+
+	/**
+	 * 管理対象プロセスに強制終了要求を発生させる。
+	 * @since 2.2.0
+	 */
+	void requestKill() {
+		synchronized (this) {
+			_flgKillRequested = true;
+			notifyAll();	// 監視スレッドへ通知
+		}
+	}
+
+	/**
+	 * 中断要求発生から応答中フラグがセットされずに {@link #WAITTIME_TERMINATION_PHASE} ミリ秒経過するまでの残り時間を返す。
+	 * 中断要求が発生していない場合、もしくは応答中フラグがセットされている場合は 0 を返す。
+	 * @return	残り時間(ミリ秒)、経過している場合は 1
+	 * @since 2.2.0
+	 */
+	long getTerminationWaitTime() {
+		synchronized (this) {
+			if (!_flgTerminateRequested || _flgAcceptTermination) {
+				return 0L;
+			}
+			long remain = WAITTIME_TERMINATION_PHASE - (System.currentTimeMillis() - _ltStartTermination);
+			return Math.max(1L, remain);
+		}
+	}
+
+	/**
+	 * 中断要求発生から応答中フラグがセットされないまま {@link #WAITTIME_TERMINATION_PHASE} ミリ秒経過したかを判定する。
+	 * @return	待機時間を経過した場合は <tt>true</tt>
+	 * @since 2.2.0
+	 */
+	boolean isTerminationTimedOut() {
+		synchronized (this) {
+			return (_flgTerminateRequested && !_flgAcceptTermination
+					&& (System.currentTimeMillis() - _ltStartTermination) >= WAITTIME_TERMINATION_PHASE);
+		}
+	}
+
 	/**
 	 * このプロセスに中断要求が発生している場合、その中断要求に対し応答を開始したことを示す内部ステータスをセットする。
 	 * 中断要求が発生していない場合、このメソッドは何も行わずに <tt>false</tt> を返す。
@@ -273,6 +446,52 @@ public class InterruptibleJavaMainProcessImpl
 	protected void finishNormally() {
 		synchronized (this) {
 			_flgWatcherActive = false;
+			notifyAll();	// 監視スレッドへ通知
+		}
+	}
+
+	/**
+	 * 指定されたストリームから制御コマンドを受け取るスレッドを開始する。
+	 * このメソッドは、監視スレッドの開始後に呼び出す。
+	 * @param iStream	制御コマンドを受け取るストリーム
+	 * @since 2.2.0
+	 */
+	protected void startControlChannelReader(InputStream iStream) {
+		synchronized (this) {
+			_useControlChannel = true;
+			Thread reader = new ControlChannelReaderThread(iStream);
+			reader.setDaemon(true);
+			reader.start();
+			notifyAll();	// 監視スレッドへ通知
+		}
+	}
+
+	/**
+	 * 状態が変化するまで、監視スレッドを待機させる。
+	 * 標準入力による制御を使用しない場合は、{@link #INTERVAL_WATCH} ミリ秒待機する。
+	 * 標準入力による制御を使用する場合は、通知があるまで待機する。
+	 * 中断処理待機中であれば、待機時間の上限は中断処理フェーズの残り時間とする。
+	 * @param terminating	中断処理待機中であれば <tt>true</tt>
+	 * @throws InterruptedException	待機中に割り込みが発生した場合
+	 * @since 2.2.0
+	 */
+	protected void waitForControlEvent(boolean terminating) throws InterruptedException {
+		synchronized (this) {
+			if (!_useControlChannel) {
+				wait(INTERVAL_WATCH);
+				return;
+			}
+			if (!_flgWatcherActive || _flgKillRequested) {
+				return;
+			}
+			if (!terminating) {
+				if (!_flgTerminateRequested) {
+					wait();
+				}
+			}
+			else {
+				wait(getTerminationWaitTime());
+			}
 		}
 	}
 
@@ -317,11 +536,15 @@ public class InterruptibleJavaMainProcessImpl
 				return false;	// 監視終了
 			}
 			//--- 強制終了要求チェック
-			if (!_fKill.exists()) {
+			if (_flgKillRequested || (!_useControlChannel && !_fKill.exists())) {
 				return false;	// 強制終了要求発生
 			}
-			//--- 中断要求チェック
-			if (!_fAlive.exists()) {
+			//--- 中断要求チェック(制御コマンド)
+			if (_flgTerminateRequested) {
+				return false;	// 中断要求発生
+			}
+			//--- 中断要求チェック(制御ファイル)
+			if (!_useControlChannel && !_fAlive.exists()) {
 				// 中断要求発生
 				VerboseStream.categoryTrace("InterruptibleJavaMainProcessImpl#continueWatchTermination", "%** _fAlive.exists() = false");
 				_flgTerminateRequested = true;
@@ -352,8 +575,8 @@ public class InterruptibleJavaMainProcessImpl
 				return false;	// 監視終了
 			}
 			//--- 強制終了要求チェック
-			if (!_fKill.exists()) {
-				VerboseStream.categoryTrace("InterruptibleJavaMainProcessImpl#continueWaitTermination", "%** _fKill.exists() = false");
+			if (_flgKillRequested || (!_useControlChannel && !_fKill.exists())) {
+				VerboseStream.categoryTrace("InterruptibleJavaMainProcessImpl#continueWaitTermination", "%** kill requested");
 				return false;	// 強制終了要求発生
 			}
 			//--- 待機時間タイムアウトチェック
@@ -418,6 +641,51 @@ public class InterruptibleJavaMainProcessImpl
 		}
 	}
 
+	/**
+	 * 標準入力から制御コマンドを受け取るスレッド。
+	 * ストリームの終端に達した場合、もしくは読み込みに失敗した場合は、中断要求とする。
+	 * 
+	 * @version 2.2.0	2026/10/18
+	 * @since 2.2.0
+	 */
+	private class ControlChannelReaderThread extends Thread
+	{
+		/** 制御コマンドを受け取るストリーム **/
+		private final InputStream	_iStream;
+
+		public ControlChannelReaderThread(InputStream iStream) {
+			super(NAME_CHANNELREADER);
+			_iStream = iStream;
+		}
+
+		@Override
+		public void run() {
+			VerboseStream.categoryTrace("InterruptibleJavaMainProcessImpl.ControlChannelReaderThread#run", "#-> Start");
+			try {
+				BufferedReader reader = new BufferedReader(new InputStreamReader(_iStream, "US-ASCII"));
+				String line;
+				while ((line = reader.readLine()) != null) {
+					line = line.trim();
+					if (CONTROL_KILL.equals(line)) {
+						VerboseStream.categoryTrace("InterruptibleJavaMainProcessImpl.ControlChannelReaderThread#run", "#** Kill requested");
+						requestKill();
+					}
+					else if (CONTROL_TERMINATE.equals(line)) {
+						VerboseStream.categoryTrace("InterruptibleJavaMainProcessImpl.ControlChannelReaderThread#run", "#** Termination requested");
+						requestTermination();
+					}
+				}
+				// 親プロセスの終了
+				VerboseStream.categoryTrace("InterruptibleJavaMainProcessImpl.ControlChannelReaderThread#run", "#** End of control channel");
+			}
+			catch (IOException ex) {
+				VerboseStream.categoryTrace("InterruptibleJavaMainProcessImpl.ControlChannelReaderThread#run", "#** Caught IOException : " + ex);
+			}
+			requestTermination();
+			VerboseStream.categoryTrace("InterruptibleJavaMainProcessImpl.ControlChannelReaderThread#run", "#<- Finished");
+		}
+	}
+
 	/**
 	 * プロセス生存制御ファイルの監視スレッド。
 	 * 
@@ -441,8 +709,8 @@ public class InterruptibleJavaMainProcessImpl
 			try {
 				VerboseStream.categoryTrace("InterruptibleJavaMainProcessImpl.TerminateWatcherThread#run - Check request termination", "#-> Start");
 				for (; continueWatchTermination(); ) {
-					// 中断処理監視継続なら、スリープを挟んで監視続行
-					Thread.sleep(INTERVAL_WATCH);
+					// 中断処理監視継続なら、状態の変化を待機して監視続行
+					waitForControlEvent(false);
 				}
 			}
 			catch (InterruptedException ignoreEx) {
@@ -463,8 +731,8 @@ public class InterruptibleJavaMainProcessImpl
 			try {
 				VerboseStream.categoryTrace("InterruptibleJavaMainProcessImpl.TerminateWatcherThread#run - Wait termination", "#-> Start");
 				for (; continueWaitTermination(); ) {
-					// 中断処理待機継続なら、スリープを挟んで監視続行
-					Thread.sleep(INTERVAL_WATCH);
+					// 中断処理待機継続なら、状態の変化を待機して監視続行
+					waitForControlEvent(true);
 				}
 			}
 			catch (InterruptedException ignoreEx) {
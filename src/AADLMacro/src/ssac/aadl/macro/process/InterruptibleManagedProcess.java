@@ -20,12 +20,16 @@
  *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
  */
 /*
+ * @(#)InterruptibleManagedProcess.java	2.2.0	2026/10/18
+ *     - modified
  * @(#)InterruptibleManagedProcess.java	2.0.0	2014/03/18
  *     - created by Y.Ishizuka(PieCake.inc,)
  */
 package ssac.aadl.macro.process;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 
 import ssac.aadl.macro.util.io.ReportPrinter;
 import ssac.aadl.macro.util.io.ReportStream;
@@ -35,9 +39,11 @@ import ssac.aadl.macro.util.io.ReportStream;
  * <p>プロセス起動時に生存制御ファイルによる制御機構を組み込まれた JavaVM は、
  * 生存制御ファイルの消去によって内部メインスレッドに割り込みを発生させることで、JavaVM の
  * ShutdownHook を実行する。
+ * <p>制御チャネルを使用する場合は、プロセスの標準入力へ制御コマンドを送信することで中断もしくは停止を要求する。
+ * 制御コマンドの送信に失敗した場合は、制御ファイルの削除による要求とする。
  * <p>生存制御ファイルが指定されなかった場合、中断処理はプロセス強制終了({@link java.lang.Process#destroy()} の呼び出し)となる。
  * 
- * @version 2.0.0	2014/03/18
+ * @version 2.2.0	2026/10/18
  * @since 2.0.0
  */
 public class InterruptibleManagedProcess extends ManagedProcess
@@ -54,6 +60,11 @@ public class InterruptibleManagedProcess extends ManagedProcess
 	private final File		_fileAliveProcess;
 	/** プロセス停止を制御するファイル **/
 	private final File		_fileKillProcess;
+	/**
+	 * プロセスの標準入力を制御チャネルとして使用することを示すフラグ
+	 * @since 2.2.0
+	 */
+	private volatile boolean	_useControlChannel;
 
 	//------------------------------------------------------------
 	// Constructions
@@ -76,14 +87,39 @@ public class InterruptibleManagedProcess extends ManagedProcess
 	public InterruptibleManagedProcess(File processAliveFile, File processKillFile, Process targetProcess,
 										ReportPrinter outReceiver, boolean autoCloseOutReceiver,
 										ReportPrinter errReceiver, boolean autoCloseErrReceiver)
+	{
+		this(processAliveFile, processKillFile, false, targetProcess, outReceiver, autoCloseOutReceiver, errReceiver, autoCloseErrReceiver);
+	}
+
+	/**
+	 * 指定されたプロセスを管理する新しいオブジェクトを生成する。
+	 * 指定されたプロセスの標準出力、標準エラー出力は、指定されたストリームに出力される。
+	 * <em>outReceiver</em> に <tt>null</tt> を指定した場合、プロセスの標準出力の内容は破棄される。
+	 * <em>errReceiver</em> に <tt>null</tt> を指定した場合、プロセスの標準エラー出力の内容は破棄される。
+	 * @param processAliveFile		プロセス生存制御用ファイルの抽象パス、<tt>null</tt> の場合は外部からのプロセス強制終了による停止となる
+	 * @param processKillFile		プロセス停止制御用ファイルの中小パス、<tt>null</tt> の場合は外部からのプロセス強制終了による停止となる
+	 * @param useControlChannel		プロセスの標準入力を制御チャネルとして使用する場合は <tt>true</tt>
+	 * @param targetProcess			対象のプロセス
+	 * @param outReceiver			プロセス標準出力の内容を受け取る <code>ReportPrinter</code> オブジェクト、または <tt>null</tt>
+	 * @param autoCloseOutReceiver	<em>outReceiver</em> をプロセス終了時に自動的に閉じる場合は <tt>true</tt>、閉じない場合は <tt>false</tt> を指定する
+	 * @param errReceiver			プロセス標準エラー出力の内容を受け取る <code>ReportPrinter</code> オブジェクト、または <tt>null</tt>
+	 * @param autoCloseErrReceiver	<em>errReceiver</em> をプロセス終了時に自動的に閉じる場合は <tt>true</tt>、閉じない場合は <tt>false</tt> を指定する
+	 * @throws NullPointerException	<em>targetProcess</em> が <tt>null</tt> の場合
+	 * @since 2.2.0
+	 */
+	public InterruptibleManagedProcess(File processAliveFile, File processKillFile, boolean useControlChannel, Process targetProcess,
+										ReportPrinter outReceiver, boolean autoCloseOutReceiver,
+										ReportPrinter errReceiver, boolean autoCloseErrReceiver)
 	{
 		super(targetProcess, outReceiver, autoCloseOutReceiver, errReceiver, autoCloseErrReceiver);
 		if (processAliveFile != null && processKillFile != null) {
 			_fileAliveProcess = processAliveFile;
 			_fileKillProcess  = processKillFile;
+			_useControlChannel = useControlChannel;
 		} else {
 			_fileAliveProcess = null;
 			_fileKillProcess  = null;
+			_useControlChannel = false;
 		}
 	}
 
@@ -176,8 +212,18 @@ public class InterruptibleManagedProcess extends ManagedProcess
 		}
 	}
 
+	/**
+	 * プロセスの標準入力を制御チャネルとして使用するかを判定する。
+	 * @return	制御チャネルを使用する場合は <tt>true</tt>
+	 * @since 2.2.0
+	 */
+	public boolean hasControlChannel() {
+		return _useControlChannel;
+	}
+
 	/**
 	 * 管理対象プロセスの実行を中断する。
+	 * 制御チャネルを使用する場合、中断要求の制御コマンドを送信することでプロセス中断を実行する。
 	 * プロセス生存制御ファイルが設定されている場合、そのファイルを削除することでプロセス中断を実行する。
 	 * プロセス生存制御ファイルが指定されていない場合、もしくはプロセス生存制御ファイルが削除できない場合、
 	 * このメソッドは {@link java.lang.Process#destroy()} を呼び出し、プロセスを強制終了させる。
@@ -186,7 +232,12 @@ public class InterruptibleManagedProcess extends ManagedProcess
 	public void terminate() {
 		if (_fileAliveProcess != null) {
 			if (isAlive()) {
-				if (_fileAliveProcess.delete()) {
+				if (sendControlCommand(InterruptibleJavaMainProcessImpl.CONTROL_TERMINATE)) {
+					// 制御コマンドの送信成功
+					VerboseStream.categoryTrace("InterruptibleManagedProcess#terminate", "$The termination command sent.");
+					_terminateStatus = TERMSTAT_INTERRUPING;
+				}
+				else if (_fileAliveProcess.delete()) {
 					// プロセス生存制御ファイルの削除成功
 					VerboseStream.categoryTrace("InterruptibleManagedProcess#terminate", "$The process alive file deleted.");
 					_terminateStatus = TERMSTAT_INTERRUPING;
@@ -203,6 +254,7 @@ public class InterruptibleManagedProcess extends ManagedProcess
 
 	/**
 	 * 管理対象プロセスを強制的に停止する。
+	 * 制御チャネルを使用する場合、強制終了要求の制御コマンドを送信することでプロセス内部から停止処理を実行する。
 	 * プロセス停止制御ファイルが設定されている場合、そのファイルを削除することでプロセス内部から停止処理を実行する。
 	 * プロセス停止制御ファイルが指定されていない場合、もしくはプロセス停止制御ファイルが削除できない場合、
 	 * このメソッドでは {@link #destroy()} を呼び出すのみで、後処理は行わない。
@@ -212,7 +264,12 @@ public class InterruptibleManagedProcess extends ManagedProcess
 	public void kill() {
 		if (_fileKillProcess != null) {
 			if (isAlive()) {
-				if (_fileKillProcess.delete()) {
+				if (sendControlCommand(InterruptibleJavaMainProcessImpl.CONTROL_KILL)) {
+					// 制御コマンドの送信成功
+					VerboseStream.categoryTrace("InterruptibleManagedProcess#kill", "$The kill command sent.");
+					_terminateStatus = TERMSTAT_KILLING;
+				}
+				else if (_fileKillProcess.delete()) {
 					// プロセス停止ファイルの削除成功
 					VerboseStream.categoryTrace("InterruptibleManagedProcess#kill", "$The process kill file deleted.");
 					_terminateStatus = TERMSTAT_KILLING;
@@ -231,6 +288,32 @@ public class InterruptibleManagedProcess extends ManagedProcess
 	// Internal methods
 	//------------------------------------------------------------
 
+	/**
+	 * 制御チャネルを使用する場合、指定された制御コマンドをプロセスの標準入力へ送信する。
+	 * 送信に失敗した場合は、以降は制御チャネルを使用しない。
+	 * @param command	制御コマンド
+	 * @return	送信した場合は <tt>true</tt>、制御チャネルを使用しないか送信に失敗した場合は <tt>false</tt>
+	 * @since 2.2.0
+	 */
+	protected boolean sendControlCommand(String command) {
+		if (!_useControlChannel) {
+			return false;
+		}
+		synchronized (this) {
+			try {
+				OutputStream oStream = _process.getOutputStream();
+				oStream.write((command + "\n").getBytes("US-ASCII"));
+				oStream.flush();
+				return true;
+			}
+			catch (IOException ex) {
+				VerboseStream.categoryDebug("InterruptibleManagedProcess#sendControlCommand", "$Failed to send the control command : " + ex);
+				_useControlChannel = false;
+				return false;
+			}
+		}
+	}
+
 	//------------------------------------------------------------
 	// Inner classes
 	//------------------------------------------------------------
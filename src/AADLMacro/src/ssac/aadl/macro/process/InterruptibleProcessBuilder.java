@@ -20,6 +20,8 @@
  *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
  */
 /*
+ * @(#)InterruptibleProcessBuilder.java	2.2.0	2026/10/18
+ *     - modified
  * @(#)InterruptibleManagedProcess.java	2.0.0	2014/03/18
  *     - created by Y.Ishizuka(PieCake.inc,)
  */
@@ -47,8 +49,11 @@ import ssac.aadl.macro.util.io.ReportStream;
  * 指定されていない場合、テンポラリ領域に独自の生存制御ファイルを生成する。<br>
  * 起動コマンドが 'java' ではない場合、指定されたコマンドラインのままプロセスを起動する。
  * この場合、プロセスは強制終了による中断処理となる。
+ * <p>'java' コマンドのプロセスは、標準入力を制御チャネルとして中断要求を受け取る。
+ * このプロセスのシステムプロパティ {@link InterruptibleJavaMainProcessImpl#PROPKEY_CONTROL_CHANNEL} に
+ * {@link InterruptibleJavaMainProcessImpl#CONTROL_CHANNEL_FILE} が指定されている場合は、制御ファイルのみを使用する。
  * 
- * @version 2.0.0	2014/03/18
+ * @version 2.2.0	2026/10/18
  * @since 2.0.0
  */
 public class InterruptibleProcessBuilder
@@ -376,6 +381,14 @@ public class InterruptibleProcessBuilder
 			newCmdList = createInterruptibleJarCommand(fAlive, fKill);
 		}
 		
+		// 制御チャネルの指定
+		boolean useControlChannel = isControlChannelEnabled();
+		if (useControlChannel) {
+			int mainNamePos = newCmdList.indexOf(getInterruptibleProcessClassName());
+			newCmdList.add(mainNamePos, "-D" + InterruptibleJavaMainProcessImpl.PROPKEY_CONTROL_CHANNEL
+										+ "=" + InterruptibleJavaMainProcessImpl.CONTROL_CHANNEL_STDIN);
+		}
+		
 		// 新しいプロセスビルダーの生成
 		ProcessBuilder pb = new ProcessBuilder(newCmdList);
 		pb.directory(_builder.directory());
@@ -389,7 +402,7 @@ public class InterruptibleProcessBuilder
 			}
 		}
 		Process proc = pb.start();
-		InterruptibleManagedProcess managedProc = new InterruptibleManagedProcess(fAlive, fKill, proc,
+		InterruptibleManagedProcess managedProc = new InterruptibleManagedProcess(fAlive, fKill, useControlChannel, proc,
 																		outReceiver, autoCloseOutReceiver,
 																		errReceiver, autoCloseErrReceiver);
 		return managedProc;
@@ -399,6 +412,16 @@ public class InterruptibleProcessBuilder
 	// Internal methods
 	//------------------------------------------------------------
 
+	/**
+	 * 起動する 'java' コマンドのプロセスで、標準入力を制御チャネルとして使用するかを判定する。
+	 * @return	制御チャネルを使用する場合は <tt>true</tt>
+	 * @since 2.2.0
+	 */
+	static protected boolean isControlChannelEnabled() {
+		String value = System.getProperty(InterruptibleJavaMainProcessImpl.PROPKEY_CONTROL_CHANNEL);
+		return !InterruptibleJavaMainProcessImpl.CONTROL_CHANNEL_FILE.equals(value);
+	}
+
 	/**
 	 * プロセス制御ファイルが正当化を確認する。
 	 * @param file	対象ファイルの抽象パス
@@ -0,0 +1,122 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SSAC(Systems of Social Accounting Consortium)
+ *  <author> Yasunari Ishizuka (PieCake,Inc.)
+ *  <author> Hiroshi Deguchi (TOKYO INSTITUTE OF TECHNOLOGY)
+ *  <author> Yuji Onuki (Statistics Bureau)
+ *  <author> Shungo Sakaki (Tokyo University of Technology)
+ *  <author> Akira Sasaki (HOSEI UNIVERSITY)
+ *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
+ */
+/*
+ * @(#)ModuleClassLoaderCache.java	2.2.0	2026/10/18
+ *     - created
+ */
+package ssac.aadl.macro.process;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * AADLマクロ実行エンジンのプロセス内で実行するモジュールのクラスローダーを保持するクラス。
+ * <p>
+ * クラスローダーは、クラスパスを構成するファイルの組み合わせごとに生成し、
+ * 同一のクラスパスを持つノード間で再利用する。クラスパスに含まれるファイルの
+ * 更新日時もしくはサイズが変更された場合は、新しいクラスローダーを生成する。
+ * 生成するクラスローダーの親は、AADLマクロ実行エンジンのクラスローダーとする。
+ * 
+ * @version 2.2.0	2026/10/18
+ * @since 2.2.0
+ */
+public class ModuleClassLoaderCache
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/** クラスパスの識別文字列と、生成済みクラスローダーのマップ **/
+	private final HashMap<String, ClassLoader>	_loaders = new HashMap<String, ClassLoader>();
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	public ModuleClassLoaderCache() {
+	}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * 指定されたクラスパスのクラスローダーを取得する。
+	 * 同一のクラスパスのクラスローダーが生成済みであれば、そのインスタンスを返す。
+	 * @param classPath	絶対パスのクラスパスのリスト
+	 * @return	クラスローダー
+	 * @throws MalformedURLException	クラスパスを URL に変換できない場合
+	 */
+	public synchronized ClassLoader getClassLoader(List<File> classPath) throws MalformedURLException {
+		String key = makeKey(classPath);
+		ClassLoader loader = _loaders.get(key);
+		if (loader == null) {
+			URL[] urls = new URL[classPath.size()];
+			for (int i = 0; i < urls.length; ++i) {
+				urls[i] = classPath.get(i).toURI().toURL();
+			}
+			loader = new URLClassLoader(urls, ModuleClassLoaderCache.class.getClassLoader());
+			_loaders.put(key, loader);
+			VerboseStream.formatCategoryDebug("ModuleClassLoaderCache#getClassLoader", "New class loader[%d] : %s", _loaders.size(), key);
+		}
+		return loader;
+	}
+
+	/**
+	 * 生成済みのクラスローダーの数を返す。
+	 */
+	public synchronized int size() {
+		return _loaders.size();
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	/**
+	 * クラスパスを構成するファイルのパス、更新日時、サイズから、識別文字列を生成する。
+	 */
+	static protected String makeKey(List<File> classPath) {
+		StringBuilder sb = new StringBuilder();
+		for (File file : classPath) {
+			if (sb.length() > 0) {
+				sb.append(File.pathSeparatorChar);
+			}
+			sb.append(file.getPath());
+			if (file.isFile()) {
+				sb.append('@');
+				sb.append(file.lastModified());
+				sb.append('#');
+				sb.append(file.length());
+			}
+		}
+		return sb.toString();
+	}
+}
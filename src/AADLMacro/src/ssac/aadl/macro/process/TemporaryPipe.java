@@ -0,0 +1,313 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SSAC(Systems of Social Accounting Consortium)
+ *  <author> Yasunari Ishizuka (PieCake,Inc.)
+ *  <author> Hiroshi Deguchi (TOKYO INSTITUTE OF TECHNOLOGY)
+ *  <author> Yuji Onuki (Statistics Bureau)
+ *  <author> Shungo Sakaki (Tokyo University of Technology)
+ *  <author> Akira Sasaki (HOSEI UNIVERSITY)
+ *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
+ */
+/*
+ * @(#)TemporaryPipe.java	2.2.0	2026/10/18
+ *     - created
+ */
+package ssac.aadl.macro.process;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+import ssac.aadl.macro.data.MacroNode;
+
+/**
+ * マクロのテンポラリファイルを、名前付きパイプ(FIFO)として使用するためのクラス。
+ * <p>
+ * 出力するノードと入力するノードが同時に実行される場合、テンポラリファイルを名前付きパイプとすることで、
+ * 入力するノードは出力するノードの書き込みと並行してレコードを読み込むことができる。
+ * <p>
+ * 名前付きパイプは、一方のノードがファイルを開くまで他方のノードがファイルを開く処理で待機するため、
+ * 一方のノードが終了した時点で他方のノードがまだ実行中であれば、このオブジェクトが代わりに反対側を開いて閉じる。
+ * 出力するノードの終了時には、入力するノードにファイルの終端を通知し、
+ * 入力するノードの終了時には、出力するノードの書き込みを読み捨てる。
+ * <p>
+ * 名前付きパイプは先頭から 1 回しか読み書きできないため、名前付きパイプとするのは、
+ * Jar ファイルのマニフェストに <code>AADL-Sequential-IO: true</code> が定義されたモジュール間のテンポラリファイルのみとする。
+ * この属性は、[IN] 引数のファイルを先頭から 1 回だけ読み込み、[OUT] 引数のファイルを先頭から 1 回だけ書き込むモジュールに定義する。
+ * 
+ * @version 2.2.0	2026/10/18
+ * @since 2.2.0
+ */
+public class TemporaryPipe
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	/** 名前付きパイプを生成するコマンド **/
+	static private final String MKFIFO_COMMAND = "mkfifo";
+
+	/** 名前付きパイプで入出力可能なモジュールであることを示すマニフェストの属性名 **/
+	static public final String MANIFEST_SEQUENTIAL_IO = "AADL-Sequential-IO";
+
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/** テンポラリファイル識別子 **/
+	private final String	_tempID;
+	/** 名前付きパイプのファイル **/
+	private final File		_file;
+	/** 名前付きパイプへ出力するノード **/
+	private final MacroNode	_producer;
+	/** 名前付きパイプから入力するノード **/
+	private final MacroNode	_consumer;
+
+	/** 出力するノードが終了していれば <tt>true</tt> **/
+	private boolean	_producerFinished = false;
+	/** 入力するノードが終了していれば <tt>true</tt> **/
+	private boolean	_consumerFinished = false;
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	private TemporaryPipe(String tempID, File file, MacroNode producer, MacroNode consumer) {
+		_tempID   = tempID;
+		_file     = file;
+		_producer = producer;
+		_consumer = consumer;
+	}
+
+	/**
+	 * 指定されたテンポラリファイルを名前付きパイプに置き換え、新しいインスタンスを生成する。
+	 * 既存のテンポラリファイルは削除し、同じパスに名前付きパイプを生成する。
+	 * 名前付きパイプを生成できない場合は、同じパスに空のテンポラリファイルを生成し直し、<tt>null</tt> を返す。
+	 * @param tempID	テンポラリファイル識別子
+	 * @param file		テンポラリファイル
+	 * @param producer	名前付きパイプへ出力するノード
+	 * @param consumer	名前付きパイプから入力するノード
+	 * @return	生成したインスタンス、名前付きパイプを生成できない場合は <tt>null</tt>
+	 */
+	static public TemporaryPipe newInstance(String tempID, File file, MacroNode producer, MacroNode consumer) {
+		if (!isSupported()) {
+			return null;
+		}
+		if (file.exists() && !file.delete()) {
+			return null;
+		}
+		if (makeFifo(file)) {
+			file.deleteOnExit();
+			return new TemporaryPipe(tempID, file, producer, consumer);
+		}
+		
+		// 通常のテンポラリファイルに戻す
+		try {
+			file.createNewFile();
+		} catch (IOException ignoreEx) {
+			ignoreEx = null;
+		}
+		return null;
+	}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * 名前付きパイプを使用可能なプラットフォームかを判定する。
+	 * @return	名前付きパイプを使用可能であれば <tt>true</tt>
+	 */
+	static public boolean isSupported() {
+		String osname = System.getProperty("os.name");
+		return (osname != null && osname.indexOf("Windows") < 0);
+	}
+
+	/**
+	 * 指定されたノードの JAVA モジュールが、名前付きパイプで入出力可能なモジュールかを判定する。
+	 * Jar ファイルのマニフェストに {@link #MANIFEST_SEQUENTIAL_IO} 属性の値として <code>true</code> が定義されている場合のみ、
+	 * 入出力可能とする。メインクラスにマニフェストとは異なるクラスが指定されている場合は、入出力不可とする。
+	 * @param node		判定するノード
+	 * @param workDir	Jar ファイルの相対パスの基準となる作業ディレクトリ
+	 * @return	名前付きパイプで入出力可能なモジュールであれば <tt>true</tt>
+	 */
+	static public boolean isSequentialIOModule(MacroNode node, File workDir) {
+		String jarName = node.getAvailableJarModulePath();
+		if (jarName == null || jarName.length() <= 0) {
+			return false;
+		}
+		String mainClass = node.getMainClass();
+		if (mainClass != null && mainClass.length() > 0 && !mainClass.equals(node.getJarManifestMainClass())) {
+			return false;
+		}
+		File jarFile = new File(jarName);
+		if (!jarFile.isAbsolute() && workDir != null) {
+			jarFile = new File(workDir, jarName);
+		}
+		try {
+			JarFile jf = new JarFile(jarFile);
+			try {
+				Manifest mani = jf.getManifest();
+				if (mani == null) {
+					return false;
+				}
+				String value = mani.getMainAttributes().getValue(MANIFEST_SEQUENTIAL_IO);
+				return (value != null && Boolean.parseBoolean(value.trim()));
+			} finally {
+				jf.close();
+			}
+		}
+		catch (IOException ex) {
+			return false;
+		}
+	}
+
+	public String getTemporaryID() {
+		return _tempID;
+	}
+
+	public File getFile() {
+		return _file;
+	}
+
+	public MacroNode getProducer() {
+		return _producer;
+	}
+
+	public MacroNode getConsumer() {
+		return _consumer;
+	}
+
+	/**
+	 * 指定されたノードの実行が終了したことを通知する。
+	 * 終了したノードがこの名前付きパイプを使用するノードであり、反対側のノードが終了していない場合、
+	 * 反対側のノードが待機しないように、このノードの代わりに名前付きパイプを開いて閉じる。
+	 * このメソッドは、ノードの実行がスキップもしくは中断された場合も呼び出すこと。
+	 * @param node	実行が終了したノード
+	 */
+	public void nodeFinished(MacroNode node) {
+		boolean release;
+		synchronized (this) {
+			if (node == _producer && !_producerFinished) {
+				_producerFinished = true;
+				release = !_consumerFinished;
+			}
+			else if (node == _consumer && !_consumerFinished) {
+				_consumerFinished = true;
+				release = !_producerFinished;
+			}
+			else {
+				return;
+			}
+		}
+		if (release) {
+			startReleaser(node == _producer);
+		}
+	}
+
+	/**
+	 * 終了していないノードがあれば、そのノードが名前付きパイプを開く処理で待機しないように、
+	 * 名前付きパイプの両側を開いて閉じる。マクロの実行終了時に呼び出す。
+	 */
+	public void release() {
+		nodeFinished(_producer);
+		nodeFinished(_consumer);
+	}
+
+	/**
+	 * 名前付きパイプを削除し、同じパスに空のテンポラリファイルを生成し直す。
+	 * ノードの実行開始前に、名前付きパイプを使用しないこととした場合に呼び出す。
+	 */
+	public void revertToFile() {
+		_file.delete();
+		try {
+			_file.createNewFile();
+		} catch (IOException ignoreEx) {
+			ignoreEx = null;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return _tempID + "=" + _file.getPath() + "(fifo)";
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	/**
+	 * 指定されたファイルのパスに名前付きパイプを生成する。
+	 * @param file	生成するファイル
+	 * @return	生成できた場合は <tt>true</tt>
+	 */
+	static protected boolean makeFifo(File file) {
+		try {
+			ProcessBuilder pb = new ProcessBuilder(MKFIFO_COMMAND, file.getAbsolutePath());
+			pb.redirectErrorStream(true);
+			Process proc = pb.start();
+			proc.getOutputStream().close();
+			InputStream in = proc.getInputStream();
+			try {
+				while (in.read() >= 0);
+			} finally {
+				in.close();
+			}
+			return (proc.waitFor() == 0 && file.exists() && !file.isFile());
+		}
+		catch (IOException ex) {
+			return false;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * 終了したノードの代わりに名前付きパイプを開いて閉じるスレッドを開始する。
+	 * 反対側のノードが名前付きパイプを開くまで待機するため、デーモンスレッドとする。
+	 * @param asProducer	出力側として開く場合は <tt>true</tt>、入力側として開く場合は <tt>false</tt>
+	 */
+	private void startReleaser(final boolean asProducer) {
+		Thread thread = new Thread(new Runnable() {
+			public void run() {
+				try {
+					if (asProducer) {
+						// 入力するノードへファイルの終端を通知
+						new FileOutputStream(_file).close();
+					} else {
+						// 出力するノードの書き込みを読み捨てる
+						InputStream in = new FileInputStream(_file);
+						try {
+							byte[] buf = new byte[8192];
+							while (in.read(buf) >= 0);
+						} finally {
+							in.close();
+						}
+					}
+				}
+				catch (IOException ignoreEx) {
+					ignoreEx = null;
+				}
+			}
+		}, "TemporaryPipe-" + _file.getName());
+		thread.setDaemon(true);
+		thread.start();
+	}
+}
@@ -20,6 +20,8 @@
  *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
  */
 /*
+ * @(#)Files.java	2.2.0	2026/10/18
+ *     - modified
  * @(#)Files.java	2.0.0	2014/03/18 : move 'ssac.util.io' to 'ssac.aadl.macro.util.io' 
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)Files.java	1.11	2010/02/09
@@ -47,6 +49,7 @@ import java.io.PrintWriter;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
@@ -54,7 +57,7 @@ import java.util.Iterator;
 /**
  * ファイル操作に関する補助機能を提供するユーティリティクラス。
  * 
- * @version 2.0.0	2014/03/18
+ * @version 2.2.0	2026/10/18
  * 
  * @since 1.00
  *
@@ -151,6 +154,34 @@ public final class Files
 		}
 	}
 
+	/**
+	 * 指定されたファイルの内容を、指定されたファイルへコピーする。
+	 * コピー先のファイルが存在する場合は上書きする。
+	 * 
+	 * @param srcFile	コピー元のファイル
+	 * @param destFile	コピー先のファイル
+	 * @throws IOException	入出力エラーが発生した場合
+	 * @since 2.2.0
+	 */
+	static public void copyFile(File srcFile, File destFile) throws IOException {
+		FileInputStream iStream = new FileInputStream(srcFile);
+		FileOutputStream oStream = null;
+		try {
+			oStream = new FileOutputStream(destFile);
+			FileChannel src = iStream.getChannel();
+			FileChannel dest = oStream.getChannel();
+			long size = src.size();
+			long pos = 0L;
+			while (pos < size) {
+				pos += src.transferTo(pos, size - pos, dest);
+			}
+		}
+		finally {
+			closeStream(oStream);
+			closeStream(iStream);
+		}
+	}
+
 	/**
 	 * 指定されたファイルのパスの先頭に存在する区切り文字数をカウントする。
 	 * カウント対象の区切り文字は、バックスラッシュおよびスラッシュのどちらも対象とする。
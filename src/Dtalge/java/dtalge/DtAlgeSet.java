@@ -16,6 +16,8 @@
  *  <author> Yasunari Ishizuka(PieCake.inc,)
  */
 /*
+ * @(#)DtAlgeSet.java	0.41	2026/10/18 - value indexes for selection queries, key-extracting sort
+ *     - modified
  * @(#)DtAlgeSet.java	0.40	2012/06/13
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)DtAlgeSet.java	0.30	2011/03/16
@@ -33,8 +35,8 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -272,8 +274,17 @@ import dtalge.util.internal.XmlErrors;
  * <li>{@link #fromXML(File)}
  * <li>{@link #toXML(File)}
  * </ul>
+ * <p>
+ * <b>《値による検索》</b>
+ * <br>
+ * {@link #selectEqualValue(DtBase, Object)}、{@link #selectLessThanValue(DtBase, Object)} などの
+ * 値による検索では、同一の基底に対する検索が繰り返された時点で、その基底の値の索引を生成し、
+ * 以降の検索では全要素を走査せずに索引を使用する。索引は集合が変更された時点で破棄される。
+ * 集合に格納されたデータ代数元は不変であるため、索引による検索結果は、全要素を走査した場合と同一となる。
+ * ただし、{@link #subList(int, int)} が返すビューの <code>set</code> による要素の置き換えは検出されないため、
+ * その場合は {@link #invalidateValueIndex()} を呼び出す必要がある。
  * 
- * @version 0.40	2012/06/13
+ * @version 0.41	2026/10/18
  * 
  * @author H.Deguchi(SOARS Project.)
  * @author Y.Ishizuka(PieCake.inc,)
@@ -291,6 +302,12 @@ public class DtAlgeSet extends ArrayList<Dtalge> implements IDataOutput
 	// Fields
 	//------------------------------------------------------------
 
+	/**
+	 * 値による検索のための索引、未生成の場合は <tt>null</tt>
+	 * @since 0.41
+	 */
+	private transient DtAlgeSetValueIndex valueIndex;
+
 	//------------------------------------------------------------
 	// Constructions
 	//------------------------------------------------------------
@@ -847,6 +864,11 @@ public class DtAlgeSet extends ArrayList<Dtalge> implements IDataOutput
 		if (isEmpty())
 			return false;
 
+		DtAlgeSetValueIndex.BaseIndex index = getValueIndex(base);
+		if (index != null) {
+			return (index.equalPositions(value).size() > 0);
+		}
+
 		if (value instanceof BigDecimal) {
 			BigDecimal dvalue = (BigDecimal)value;
 			for (Dtalge alge : this) {
@@ -1220,6 +1242,16 @@ public class DtAlgeSet extends ArrayList<Dtalge> implements IDataOutput
 		if (this.isEmpty())
 			return new DtAlgeSet(0);
 		
+		DtAlgeSetValueIndex.BaseIndex index = getValueIndex(base);
+		if (index != null) {
+			DtAlgeSetValueIndex.Positions positions = index.equalPositions(value);
+			DtAlgeSet retset = new DtAlgeSet(positions.size());
+			for (int i = 0; i < positions.size(); i++) {
+				retset.fastAdd(this.get(positions.get(i)));
+			}
+			return retset;
+		}
+		
 		DtAlgeSet retset = new DtAlgeSet(this.size());
 		if (value instanceof BigDecimal) {
 			BigDecimal dvalue = (BigDecimal)value;
@@ -1285,6 +1317,10 @@ public class DtAlgeSet extends ArrayList<Dtalge> implements IDataOutput
 			// cannot comparable
 			return new DtAlgeSet(0);
 		}
+		DtAlgeSet indexed = selectValueRange(base, value, DtAlgeSetValueIndex.LESS_THAN);
+		if (indexed != null) {
+			return indexed;
+		}
 
 		int cmp;
 		DtAlgeSet retset = new DtAlgeSet(this.size());
@@ -1334,6 +1370,10 @@ public class DtAlgeSet extends ArrayList<Dtalge> implements IDataOutput
 			// cannot comparable
 			return new DtAlgeSet(0);
 		}
+		DtAlgeSet indexed = selectValueRange(base, value, DtAlgeSetValueIndex.LESS_EQUAL);
+		if (indexed != null) {
+			return indexed;
+		}
 		
 		int cmp;
 		DtAlgeSet retset = new DtAlgeSet(this.size());
@@ -1383,6 +1423,10 @@ public class DtAlgeSet extends ArrayList<Dtalge> implements IDataOutput
 			// cannot comparable
 			return new DtAlgeSet(0);
 		}
+		DtAlgeSet indexed = selectValueRange(base, value, DtAlgeSetValueIndex.GREATER_THAN);
+		if (indexed != null) {
+			return indexed;
+		}
 		
 		int cmp;
 		DtAlgeSet retset = new DtAlgeSet(this.size());
@@ -1432,6 +1476,10 @@ public class DtAlgeSet extends ArrayList<Dtalge> implements IDataOutput
 			// cannot comparable
 			return new DtAlgeSet(0);
 		}
+		DtAlgeSet indexed = selectValueRange(base, value, DtAlgeSetValueIndex.GREATER_EQUAL);
+		if (indexed != null) {
+			return indexed;
+		}
 		
 		int cmp;
 		DtAlgeSet retset = new DtAlgeSet(this.size());
@@ -1471,6 +1519,16 @@ public class DtAlgeSet extends ArrayList<Dtalge> implements IDataOutput
 		if (this.isEmpty())
 			return new DtAlgeSet(0);
 		
+		DtAlgeSetValueIndex.BaseIndex index = getValueIndex(base);
+		if (index != null) {
+			DtAlgeSetValueIndex.Positions positions = index.equalPositions(value);
+			DtAlgeSet retset = new DtAlgeSet(this);
+			for (int i = 0; i < positions.size(); i++) {
+				retset.set(positions.get(i), newAlge);
+			}
+			return retset;
+		}
+		
 		DtAlgeSet retset = new DtAlgeSet(this.size());
 		if (value instanceof BigDecimal) {
 			BigDecimal dvalue = (BigDecimal)value;
@@ -1516,6 +1574,15 @@ public class DtAlgeSet extends ArrayList<Dtalge> implements IDataOutput
 		if (this.isEmpty())
 			return false;
 
+		DtAlgeSetValueIndex.BaseIndex index = getValueIndex(base);
+		if (index != null) {
+			DtAlgeSetValueIndex.Positions positions = index.equalPositions(value);
+			for (int i = 0; i < positions.size(); i++) {
+				this.set(positions.get(i), newAlge);
+			}
+			return (positions.size() > 0);
+		}
+
 		int len = this.size();
 		boolean modified = false;
 		if (value instanceof BigDecimal) {
@@ -1559,6 +1626,20 @@ public class DtAlgeSet extends ArrayList<Dtalge> implements IDataOutput
 		if (this.isEmpty())
 			return new DtAlgeSet(0);
 		
+		DtAlgeSetValueIndex.BaseIndex index = getValueIndex(base);
+		if (index != null) {
+			DtAlgeSetValueIndex.Positions positions = index.equalPositions(value);
+			DtAlgeSet retset = new DtAlgeSet(this.size() - positions.size());
+			int from = 0;
+			for (int i = 0; i < positions.size(); i++) {
+				int pos = positions.get(i);
+				retset.fastAddAll(this.subList(from, pos));
+				from = pos + 1;
+			}
+			retset.fastAddAll(this.subList(from, this.size()));
+			return retset;
+		}
+		
 		DtAlgeSet retset = new DtAlgeSet(this.size());
 		if (value instanceof BigDecimal) {
 			BigDecimal dvalue = (BigDecimal)value;
@@ -1603,6 +1684,15 @@ public class DtAlgeSet extends ArrayList<Dtalge> implements IDataOutput
 		if (this.isEmpty())
 			return false;
 
+		DtAlgeSetValueIndex.BaseIndex index = getValueIndex(base);
+		if (index != null) {
+			DtAlgeSetValueIndex.Positions positions = index.equalPositions(value);
+			for (int i = positions.size() - 1; i >= 0; i--) {
+				this.remove(positions.get(i));
+			}
+			return (positions.size() > 0);
+		}
+
 		boolean modified = false;
 		if (value instanceof BigDecimal) {
 			BigDecimal dvalue = (BigDecimal)value;
@@ -1836,7 +1926,9 @@ public class DtAlgeSet extends ArrayList<Dtalge> implements IDataOutput
 	 * @see java.util.ArrayList#set(int, Object)
 	 */
 	public Dtalge set(int index, Dtalge element) {
-		return super.set(index, Validations.validNotNull(element));
+		Dtalge old = super.set(index, Validations.validNotNull(element));
+		valueIndex = null;	// 要素の置き換えは変更回数に含まれない
+		return old;
 	}
 
 	/**
@@ -1937,7 +2029,21 @@ public class DtAlgeSet extends ArrayList<Dtalge> implements IDataOutput
 	 * @return この集合のシャローコピー
 	 */
 	public Object clone() {
-		return (DtAlgeSet)super.clone();
+		DtAlgeSet newSet = (DtAlgeSet)super.clone();
+		newSet.valueIndex = null;
+		return newSet;
+	}
+
+	/**
+	 * 値による検索のために生成された索引を破棄する。
+	 * <p>
+	 * 索引は、集合の変更時に自動的に破棄されるため、通常はこのメソッドを呼び出す必要はない。
+	 * {@link #subList(int, int)} が返すビューにより要素を置き換えた場合にのみ、このメソッドを呼び出す。
+	 * 
+	 * @since 0.41
+	 */
+	public void invalidateValueIndex() {
+		valueIndex = null;
 	}
 
 	/**
@@ -1976,7 +2082,64 @@ public class DtAlgeSet extends ArrayList<Dtalge> implements IDataOutput
 	public void sortAlgesByValue(DtBase base, boolean ascending) {
 		if (base == null)
 			throw new NullPointerException();
-		Collections.sort(this, new AlgesComparator(base, ascending));
+		sortAlgesByValues(new DtBase[]{base}, new boolean[]{ascending});
+	}
+
+	/**
+	 * 指定された複数の基底の値で要素が並べ替えられた、新しいデータ代数集合を返す。
+	 * 要素は先頭の基底の値から順に比較され、すべての値が等しい要素の順序は変更されない。
+	 * それぞれの基底の値の比較は、{@link #sortedAlgesByValue(DtBase, boolean)} と同じ規則による。
+	 * @param bases			並べ替えのキーとする値が関連付けられているデータ代数基底の配列
+	 * @param ascendings	基底ごとの、昇順にソートする場合は <tt>true</tt>、降順にソートする場合は <tt>false</tt>
+	 * @return	要素が並べ替えられた、新しいデータ代数集合
+	 * @throws NullPointerException	引数もしくは <em>bases</em> の要素が <tt>null</tt> の場合
+	 * @throws IllegalArgumentException	2 つの配列の長さが異なる場合
+	 * @throws ClassCastException		基底に関連付けられた値が(<code>Comparable</code> インタフェースを実装していない)比較不可能の場合
+	 * @since 0.41
+	 */
+	public DtAlgeSet sortedAlgesByValues(DtBase[] bases, boolean[] ascendings) {
+		DtAlgeSet newset = this.cloneInstance();
+		newset.sortAlgesByValues(bases, ascendings);
+		return newset;
+	}
+
+	/**
+	 * 指定された複数の基底の値で、要素を並べ替える。
+	 * 要素は先頭の基底の値から順に比較され、すべての値が等しい要素の順序は変更されない。
+	 * それぞれの基底の値の比較は、{@link #sortAlgesByValue(DtBase, boolean)} と同じ規則による。
+	 * <p>
+	 * 並べ替えのキーとなる値は、データ代数元ごとに一度だけ取り出される。
+	 * また、要素数が多い場合は、複数のスレッドで並べ替える。
+	 * <p><b>注意：</b>
+	 * <blockquote>
+	 * このメソッドは、自身の内容を書き換える、破壊型メソッドである。
+	 * </blockquote>
+	 * @param bases			並べ替えのキーとする値が関連付けられているデータ代数基底の配列
+	 * @param ascendings	基底ごとの、昇順にソートする場合は <tt>true</tt>、降順にソートする場合は <tt>false</tt>
+	 * @throws NullPointerException	引数もしくは <em>bases</em> の要素が <tt>null</tt> の場合
+	 * @throws IllegalArgumentException	2 つの配列の長さが異なる場合
+	 * @throws ClassCastException		基底に関連付けられた値が(<code>Comparable</code> インタフェースを実装していない)比較不可能の場合
+	 * @since 0.41
+	 */
+	public void sortAlgesByValues(DtBase[] bases, boolean[] ascendings) {
+		if (bases == null || ascendings == null)
+			throw new NullPointerException();
+		if (bases.length != ascendings.length)
+			throw new IllegalArgumentException("The number of bases(" + bases.length
+					+ ") is not equal to the number of orders(" + ascendings.length + ").");
+		for (DtBase base : bases) {
+			if (base == null)
+				throw new NullPointerException();
+		}
+		if (bases.length == 0 || this.size() < 2) {
+			return;
+		}
+		
+		int[] perm = DtAlgeSetSorter.sortedPermutation(this, bases.clone(), ascendings.clone(), 0);
+		Dtalge[] alges = this.toArray(new Dtalge[this.size()]);
+		for (int i = 0; i < perm.length; i++) {
+			this.set(i, alges[perm[i]]);
+		}
 	}
 	
 	static protected class AlgesComparator implements Comparator<Dtalge>
@@ -2059,6 +2222,47 @@ public class DtAlgeSet extends ArrayList<Dtalge> implements IDataOutput
 		return super.addAll(c);
 	}
 
+	/**
+	 * 指定された基底の値による検索のための索引を返す。
+	 * 集合が索引の生成後に変更されている場合は、索引を破棄する。
+	 * @param base	データ代数基底
+	 * @return	索引、索引を使用しない場合は <tt>null</tt>
+	 * @since 0.41
+	 */
+	protected DtAlgeSetValueIndex.BaseIndex getValueIndex(DtBase base) {
+		DtAlgeSetValueIndex index = valueIndex;
+		if (index == null || index.getModCount() != modCount) {
+			index = new DtAlgeSetValueIndex(modCount);
+			valueIndex = index;
+		}
+		return index.getBaseIndex(this, base);
+	}
+
+	/**
+	 * 索引により、指定された基底の値が指定された範囲に含まれるデータ代数元のみを取り出す。
+	 * @param base	データ代数基底
+	 * @param value	判定する値
+	 * @param range	範囲の種類
+	 * @return	条件に一致したデータ代数元のみを格納する、新しいデータ代数集合を返す。
+	 * 			索引を使用しない場合は <tt>null</tt> を返す。
+	 * @since 0.41
+	 */
+	protected DtAlgeSet selectValueRange(DtBase base, Object value, int range) {
+		DtAlgeSetValueIndex.BaseIndex index = getValueIndex(base);
+		if (index == null) {
+			return null;
+		}
+		BitSet positions = index.rangePositions(value, range);
+		if (positions == null) {
+			return null;
+		}
+		DtAlgeSet retset = new DtAlgeSet(positions.cardinality());
+		for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+			retset.fastAdd(this.get(i));
+		}
+		return retset;
+	}
+
 	/**
 	 * 指定された基底に割り当てられている値のうち、<tt>null</tt> ではない最小値を取得する。
 	 * 比較不可能な値の場合や、指定された基底をもつデータ代数元が一つも存在しない場合、
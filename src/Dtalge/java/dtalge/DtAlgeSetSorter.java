@@ -0,0 +1,328 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2012  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+/*
+ * @(#)DtAlgeSetSorter.java	0.41	2026/10/18
+ *     - created
+ */
+package dtalge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * データ代数集合の要素を、基底の値で並べ替えるためのクラス。
+ * <p>
+ * 並べ替えのキーとなる値を、データ代数元ごとに一度だけ取り出して配列に格納し、
+ * 要素の位置の順列を並べ替えた後に、要素を並べ替える。
+ * 等しいキーを持つ要素は元の位置の順序とするため、結果は
+ * {@link DtAlgeSet.AlgesComparator} による安定ソートと同一となる。
+ * 要素数が {@link #PARALLEL_THRESHOLD} 以上の場合は、順列を区間に分割して複数のスレッドで並べ替え、
+ * 隣接する区間を併合する。
+ *
+ * @version 0.41	2026/10/18
+ *
+ * @since 0.41
+ */
+final class DtAlgeSetSorter
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	/**
+	 * 複数のスレッドで並べ替える要素数の下限
+	 */
+	static final int PARALLEL_THRESHOLD = 1 << 16;
+
+	/** 基底が存在しない要素のキーの種別 */
+	static private final byte NO_BASE	= 0;
+	/** 値が <tt>null</tt> の要素のキーの種別 */
+	static private final byte NULL_VALUE	= 1;
+	/** 値が存在する要素のキーの種別 */
+	static private final byte HAS_VALUE	= 2;
+
+	/**
+	 * 挿入ソートに切り替える区間の長さ
+	 */
+	static private final int INSERTION_SORT_THRESHOLD = 16;
+
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/**
+	 * キーごとの、要素のキーの種別
+	 */
+	private final byte[][]		_kinds;
+	/**
+	 * キーごとの、要素のキーとなる値
+	 */
+	private final Object[][]	_values;
+	/**
+	 * キーごとの、昇順であれば <tt>true</tt>
+	 */
+	private final boolean[]		_ascendings;
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	private DtAlgeSetSorter(int numKeys, int numAlges, boolean[] ascendings) {
+		_kinds = new byte[numKeys][numAlges];
+		_values = new Object[numKeys][numAlges];
+		_ascendings = ascendings;
+	}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * 指定されたリストの要素を、指定された基底の値で並べ替えた位置の順列を返す。
+	 * 先頭の基底の値から順に比較し、すべての値が等しい要素は元の位置の順序とする。
+	 * <tt>null</tt> 値はどの値よりも小さく、基底が存在しない要素は <tt>null</tt> 値よりも小さい。
+	 * @param alges			並べ替えるデータ代数元のリスト
+	 * @param bases			キーとなる値が関連付けられているデータ代数基底
+	 * @param ascendings	キーごとの、昇順にソートする場合は <tt>true</tt>
+	 * @param numThreads	スレッド数、0 以下の場合は利用可能なプロセッサ数
+	 * @return	並べ替えた位置の順列
+	 * @throws ClassCastException	基底に関連付けられた値が比較不可能の場合
+	 */
+	static int[] sortedPermutation(final List<Dtalge> alges, final DtBase[] bases, boolean[] ascendings, int numThreads) {
+		final int len = alges.size();
+		final DtAlgeSetSorter sorter = new DtAlgeSetSorter(bases.length, len, ascendings);
+		final int[] perm = new int[len];
+		for (int i = 0; i < len; i++) {
+			perm[i] = i;
+		}
+
+		int numParts = (len < PARALLEL_THRESHOLD ? 1 : getNumThreads(numThreads));
+		if (numParts <= 1) {
+			sorter.extractKeys(alges, bases, 0, len);
+			sorter.mergeSort(perm, new int[len], 0, len);
+			return perm;
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(numParts, new SorterThreadFactory());
+		try {
+			// キーの取り出しと、区間ごとの並べ替え
+			final int[] work = new int[len];
+			final int[] bounds = new int[numParts + 1];
+			for (int part = 0; part <= numParts; part++) {
+				bounds[part] = (int)((long)len * part / numParts);
+			}
+			List<Future<?>> tasks = new ArrayList<Future<?>>(numParts);
+			for (int part = 0; part < numParts; part++) {
+				final int from = bounds[part];
+				final int to   = bounds[part + 1];
+				tasks.add(executor.submit(new Runnable() {
+					public void run() {
+						sorter.extractKeys(alges, bases, from, to);
+						sorter.mergeSort(perm, work, from, to);
+					}
+				}));
+			}
+			waitForTasks(tasks);
+
+			// 隣接する区間の併合
+			int[] src = perm;
+			int[] dest = work;
+			for (int width = 1; width < numParts; width <<= 1) {
+				tasks.clear();
+				for (int part = 0; part < numParts; part += width * 2) {
+					final int from = bounds[part];
+					final int mid  = bounds[Math.min(part + width, numParts)];
+					final int to   = bounds[Math.min(part + width * 2, numParts)];
+					final int[] mergeSrc = src;
+					final int[] mergeDest = dest;
+					tasks.add(executor.submit(new Runnable() {
+						public void run() {
+							sorter.merge(mergeSrc, mergeDest, from, mid, to);
+						}
+					}));
+				}
+				waitForTasks(tasks);
+				int[] tmp = src;
+				src = dest;
+				dest = tmp;
+			}
+			return src;
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	static private int getNumThreads(int numThreads) {
+		return (numThreads > 0 ? numThreads : Math.max(1, Runtime.getRuntime().availableProcessors()));
+	}
+
+	/**
+	 * 指定された区間の要素から、キーを取り出す。
+	 */
+	private void extractKeys(List<Dtalge> alges, DtBase[] bases, int from, int to) {
+		for (int i = from; i < to; i++) {
+			Dtalge alge = alges.get(i);
+			for (int k = 0; k < bases.length; k++) {
+				if (!alge.containsBase(bases[k])) {
+					_kinds[k][i] = NO_BASE;
+				} else {
+					Object value = alge.get(bases[k]);
+					if (value == null) {
+						_kinds[k][i] = NULL_VALUE;
+					} else {
+						_kinds[k][i] = HAS_VALUE;
+						_values[k][i] = value;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * 指定された位置の 2 つの要素を比較する。すべてのキーが等しい場合は、位置で比較する。
+	 */
+	@SuppressWarnings("unchecked")
+	private int compare(int pos1, int pos2) {
+		for (int k = 0; k < _kinds.length; k++) {
+			int cmp;
+			byte kind1 = _kinds[k][pos1];
+			byte kind2 = _kinds[k][pos2];
+			if (kind1 != kind2) {
+				cmp = (kind1 < kind2 ? -1 : 1);
+				if (!_ascendings[k]) {
+					cmp = -cmp;
+				}
+			}
+			else if (kind1 == HAS_VALUE) {
+				Object value1 = _values[k][pos1];
+				Object value2 = _values[k][pos2];
+				if (value1 == value2) {
+					cmp = 0;
+				} else if (_ascendings[k]) {
+					cmp = ((Comparable)value1).compareTo(value2);
+				} else {
+					cmp = ((Comparable)value2).compareTo(value1);
+				}
+			}
+			else {
+				cmp = 0;
+			}
+			if (cmp != 0) {
+				return cmp;
+			}
+		}
+		return (pos1 < pos2 ? -1 : (pos1 == pos2 ? 0 : 1));
+	}
+
+	/**
+	 * 順列の指定された区間を並べ替える。
+	 * @param perm	並べ替える順列
+	 * @param work	作業領域(順列と同じ長さ)
+	 * @param from	区間の先頭
+	 * @param to	区間の終端(この位置を含まない)
+	 */
+	private void mergeSort(int[] perm, int[] work, int from, int to) {
+		if (to - from <= INSERTION_SORT_THRESHOLD) {
+			for (int i = from + 1; i < to; i++) {
+				int pos = perm[i];
+				int j = i - 1;
+				for (; j >= from && compare(perm[j], pos) > 0; j--) {
+					perm[j + 1] = perm[j];
+				}
+				perm[j + 1] = pos;
+			}
+			return;
+		}
+		int mid = (from + to) >>> 1;
+		mergeSort(perm, work, from, mid);
+		mergeSort(perm, work, mid, to);
+		if (compare(perm[mid - 1], perm[mid]) <= 0) {
+			return;	// 整列済み
+		}
+		System.arraycopy(perm, from, work, from, to - from);
+		merge(work, perm, from, mid, to);
+	}
+
+	/**
+	 * 整列済みの 2 つの区間を併合する。
+	 * @param src	併合する区間を含む配列
+	 * @param dest	併合結果を格納する配列
+	 * @param from	前の区間の先頭
+	 * @param mid	後の区間の先頭
+	 * @param to	後の区間の終端(この位置を含まない)
+	 */
+	private void merge(int[] src, int[] dest, int from, int mid, int to) {
+		int i = from;
+		int j = mid;
+		for (int k = from; k < to; k++) {
+			if (j >= to || (i < mid && compare(src[i], src[j]) <= 0)) {
+				dest[k] = src[i++];
+			} else {
+				dest[k] = src[j++];
+			}
+		}
+	}
+
+	static private void waitForTasks(List<Future<?>> tasks) {
+		try {
+			for (Future<?> task : tasks) {
+				task.get();
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(ex);
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException)cause;
+			} else if (cause instanceof Error) {
+				throw (Error)cause;
+			} else {
+				throw new RuntimeException(cause);
+			}
+		}
+	}
+
+	//------------------------------------------------------------
+	// Inner classes
+	//------------------------------------------------------------
+
+	static private final class SorterThreadFactory implements ThreadFactory
+	{
+		static private final AtomicInteger _threadNumber = new AtomicInteger(1);
+
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "DtAlgeSetSorter-" + _threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,295 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2012  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+/*
+ * @(#)DtAlgeSetValueIndex.java	0.41	2026/10/18
+ *     - created
+ */
+package dtalge;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * データ代数集合の値による検索のための、データ代数基底ごとの索引。
+ * <p>
+ * 索引は、同一の基底に対する検索が {@link #BUILD_THRESHOLD} 回要求された時点で生成され、
+ * それ以降の検索に使用される。索引は生成時のデータ代数集合の内容に対するものであり、
+ * データ代数集合が変更された場合は、このオブジェクトごと破棄される。
+ * <p>
+ * 等値判定の索引は、{@link DtAlgeSet#selectEqualValue(DtBase, Object)} と同じ規則で値を比較する。
+ * すなわち、実数値は <code>compareTo</code> で等しい値を同値とし、それ以外の値は <code>equals</code> で比較する。
+ * 大小判定の索引は、値の自然順序で整列された値から、二分探索により範囲を求める。
+ *
+ * @version 0.41	2026/10/18
+ *
+ * @since 0.41
+ */
+final class DtAlgeSetValueIndex
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	/**
+	 * 索引を生成する、同一基底に対する検索回数
+	 */
+	static final int BUILD_THRESHOLD = 2;
+
+	/** 指定された値より小さい値の範囲 */
+	static final int LESS_THAN		= 0;
+	/** 指定された値以下の値の範囲 */
+	static final int LESS_EQUAL		= 1;
+	/** 指定された値より大きい値の範囲 */
+	static final int GREATER_THAN	= 2;
+	/** 指定された値以上の値の範囲 */
+	static final int GREATER_EQUAL	= 3;
+
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/**
+	 * 索引生成時のデータ代数集合の変更回数
+	 */
+	private final int _modCount;
+	/**
+	 * 基底ごとの索引
+	 */
+	private final HashMap<DtBase, BaseIndex> _indices = new HashMap<DtBase, BaseIndex>();
+	/**
+	 * 索引が生成されていない基底ごとの検索回数
+	 */
+	private final HashMap<DtBase, int[]> _queryCounts = new HashMap<DtBase, int[]>();
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	/**
+	 * 指定された変更回数のデータ代数集合に対する、新しいインスタンスを生成する。
+	 * @param modCount	データ代数集合の変更回数
+	 */
+	DtAlgeSetValueIndex(int modCount) {
+		_modCount = modCount;
+	}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * 索引生成時のデータ代数集合の変更回数を返す。
+	 */
+	int getModCount() {
+		return _modCount;
+	}
+
+	/**
+	 * 指定された基底の索引を返す。
+	 * 検索回数が {@link #BUILD_THRESHOLD} に満たない場合は、検索回数を加算して <tt>null</tt> を返す。
+	 * @param alges	索引の対象となるデータ代数元のリスト
+	 * @param base	データ代数基底
+	 * @return	索引、索引を使用しない場合は <tt>null</tt>
+	 */
+	synchronized BaseIndex getBaseIndex(List<Dtalge> alges, DtBase base) {
+		BaseIndex index = _indices.get(base);
+		if (index == null) {
+			int[] count = _queryCounts.get(base);
+			if (count == null) {
+				count = new int[1];
+				_queryCounts.put(base, count);
+			}
+			if (++count[0] < BUILD_THRESHOLD) {
+				return null;
+			}
+			index = new BaseIndex(alges, base);
+			_indices.put(base, index);
+			_queryCounts.remove(base);
+		}
+		return index;
+	}
+
+	/**
+	 * 等値判定の索引のキーとなる値を返す。
+	 * 実数値は、<code>compareTo</code> で等しい値が同一のキーとなるよう正規化する。
+	 * @param value	値
+	 * @return	キー
+	 */
+	static Object toKey(Object value) {
+		if (value instanceof BigDecimal) {
+			BigDecimal dvalue = (BigDecimal)value;
+			return (dvalue.signum() == 0 ? BigDecimal.ZERO : dvalue.stripTrailingZeros());
+		}
+		return value;
+	}
+
+	//------------------------------------------------------------
+	// Inner classes
+	//------------------------------------------------------------
+
+	/**
+	 * 昇順に格納される、データ代数元の位置のリスト。
+	 */
+	static final class Positions
+	{
+		private int[] _positions = new int[4];
+		private int _size = 0;
+
+		void add(int position) {
+			if (_size == _positions.length) {
+				int[] newPositions = new int[_size * 2];
+				System.arraycopy(_positions, 0, newPositions, 0, _size);
+				_positions = newPositions;
+			}
+			_positions[_size++] = position;
+		}
+
+		int size() {
+			return _size;
+		}
+
+		int get(int index) {
+			return _positions[index];
+		}
+	}
+
+	/**
+	 * 一つのデータ代数基底に対する索引。
+	 */
+	static final class BaseIndex
+	{
+		static private final Positions EMPTY = new Positions();
+
+		/**
+		 * 値のキーごとの、データ代数元の位置
+		 */
+		private final HashMap<Object, Positions> _equalMap = new HashMap<Object, Positions>();
+		/**
+		 * 自然順序で整列された <tt>null</tt> 以外のキー、未生成の場合は <tt>null</tt>
+		 */
+		private Object[] _sortedKeys;
+		/**
+		 * キーが比較不可能な場合に <tt>true</tt>
+		 */
+		private boolean _unsortable = false;
+
+		BaseIndex(List<Dtalge> alges, DtBase base) {
+			int len = alges.size();
+			for (int i = 0; i < len; i++) {
+				Dtalge alge = alges.get(i);
+				if (alge.containsBase(base)) {
+					Object key = toKey(alge.get(base));
+					Positions positions = _equalMap.get(key);
+					if (positions == null) {
+						positions = new Positions();
+						_equalMap.put(key, positions);
+					}
+					positions.add(i);
+				}
+			}
+		}
+
+		/**
+		 * 指定された値と等しい値を持つデータ代数元の位置を返す。
+		 * @param value	判定する値
+		 * @return	データ代数元の位置のリスト
+		 */
+		Positions equalPositions(Object value) {
+			Positions positions = _equalMap.get(toKey(value));
+			return (positions == null ? EMPTY : positions);
+		}
+
+		/**
+		 * 指定された範囲の値を持つデータ代数元の位置を返す。
+		 * @param value	判定する値
+		 * @param range	範囲の種類
+		 * @return	データ代数元の位置の集合、索引で判定できない場合は <tt>null</tt>
+		 */
+		@SuppressWarnings("unchecked")
+		BitSet rangePositions(Object value, int range) {
+			Object[] keys = getSortedKeys();
+			if (keys == null) {
+				return null;
+			}
+
+			// 二分探索により、範囲の境界を求める
+			int from, to;
+			try {
+				boolean inclusive = (range == LESS_EQUAL || range == GREATER_THAN);
+				int low = 0;
+				int high = keys.length;
+				while (low < high) {
+					int mid = (low + high) >>> 1;
+					int cmp = ((Comparable<Object>)keys[mid]).compareTo(value);
+					if (cmp < 0 || (inclusive && cmp == 0)) {
+						low = mid + 1;
+					} else {
+						high = mid;
+					}
+				}
+				if (range == LESS_THAN || range == LESS_EQUAL) {
+					from = 0;
+					to   = low;
+				} else {
+					from = low;
+					to   = keys.length;
+				}
+			} catch (RuntimeException ex) {
+				// 比較不可能
+				return null;
+			}
+
+			BitSet result = new BitSet();
+			for (int i = from; i < to; i++) {
+				Positions positions = _equalMap.get(keys[i]);
+				for (int j = 0; j < positions.size(); j++) {
+					result.set(positions.get(j));
+				}
+			}
+			return result;
+		}
+
+		private synchronized Object[] getSortedKeys() {
+			if (_sortedKeys == null && !_unsortable) {
+				int count = 0;
+				Object[] keys = new Object[_equalMap.size()];
+				for (Object key : _equalMap.keySet()) {
+					if (key instanceof Comparable) {
+						keys[count++] = key;
+					}
+				}
+				if (count < keys.length) {
+					Object[] newKeys = new Object[count];
+					System.arraycopy(keys, 0, newKeys, 0, count);
+					keys = newKeys;
+				}
+				try {
+					Arrays.sort(keys);
+					_sortedKeys = keys;
+				} catch (RuntimeException ex) {
+					// 比較不可能な値が含まれている
+					_unsortable = true;
+				}
+			}
+			return _sortedKeys;
+		}
+	}
+}
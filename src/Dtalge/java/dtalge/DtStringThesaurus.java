@@ -16,6 +16,8 @@
  *  <author> Yasunari Ishizuka(PieCake.inc,)
  */
 /*
+ * @(#)DtStringThesaurus.java	0.41	2026/10/18 - compiled relations
+ *     - modified
  * @(#)DtStringThesaurus.java	0.30	2011/03/16
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)DtStringThesaurus.java	0.20	2010/02/25
@@ -182,8 +184,15 @@ import dtalge.util.internal.XmlErrors;
  * <li>{@link #fromXML(File)}
  * <li>{@link #toXML(File)}
  * </ul>
+ * <p>
+ * <b>《語句の比較》</b>
+ * <br>
+ * {@link #compareTo(String, String)}、{@link #isComparable(String, String)} などによる語句の比較では、
+ * 全ての語句の祖先をあらかじめ求めたビューを生成し、親を辿ることなく判定する。
+ * このビューは、ファイルからの読み込み後、もしくは語句の比較時に生成され、
+ * シソーラス定義が変更された時点で破棄される。
  * 
- * @version 0.30	2011/03/16
+ * @version 0.41	2026/10/18
  * 
  * @author H.Deguchi(SOARS Project.)
  * @author Y.Ishizuka(PieCake.inc,)
@@ -210,6 +219,11 @@ public class DtStringThesaurus implements IDataOutput
 	 * マップの値は子の語句の集合となる。
 	 */
 	protected transient final Map<String,Set<String>> childrenMap;	// key:parent, value:children
+	/**
+	 * 全ての語句の祖先を保持するビュー、未生成の場合は <tt>null</tt>
+	 * @since 0.41
+	 */
+	private transient DtStringThesaurusClosure closure;
 
 	//------------------------------------------------------------
 	// Constructions
@@ -233,6 +247,7 @@ public class DtStringThesaurus implements IDataOutput
 	public void clear() {
 		relationMap.clear();
 		childrenMap.clear();
+		closure = null;
 	}
 
 	/**
@@ -474,6 +489,11 @@ public class DtStringThesaurus implements IDataOutput
 			return false;	// 同値の場合は、比較不能？
 		}
 		
+		// 祖先のビューにより検証する
+		if (!isEmpty()) {
+			return (getClosure().compare(word1, word2) != 0);
+		}
+		
 		// word1 が word2 の子孫か検証する
 		if (hasRelation(word1, word2)) {
 			return true;
@@ -508,6 +528,11 @@ public class DtStringThesaurus implements IDataOutput
 			return 0;
 		}
 		
+		// 祖先のビューにより比較する
+		if (!isEmpty()) {
+			return getClosure().compare(word1, word2);
+		}
+		
 		// word1 < word2
 		if (hasRelation(word1, word2)) {
 			return (-1);
@@ -644,6 +669,7 @@ public class DtStringThesaurus implements IDataOutput
 			childrenMap.put(cachedParent, children);
 		}
 		children.add(cachedChild);
+		closure = null;
 		
 		// 登録完了
 		return true;
@@ -710,6 +736,7 @@ public class DtStringThesaurus implements IDataOutput
 		
 		// remove from childrenMap
 		removeFromChildrenMap(parent, child);
+		closure = null;
 		
 		// finished
 		return true;
@@ -821,8 +848,31 @@ public class DtStringThesaurus implements IDataOutput
 			return false;
 		}
 		// check exists relation
+		DtStringThesaurusClosure curClosure = closure;
+		if (curClosure != null) {
+			return curClosure.hasRelation(descendant, ancestor);
+		}
 		return hasRelationRecursive(descendant, ancestor);
 	}
+
+	/**
+	 * 全ての語句の祖先を保持するビューを返す。
+	 * ビューが生成されていない場合は、現在のシソーラス定義から生成する。
+	 * <p>
+	 * 生成されたビューは、シソーラス定義が {@link #put(String, String)}、{@link #remove(String, String)} などにより
+	 * 変更された時点で破棄される。
+	 * 
+	 * @return	全ての語句の祖先を保持するビュー
+	 * @since 0.41
+	 */
+	protected DtStringThesaurusClosure getClosure() {
+		DtStringThesaurusClosure curClosure = closure;
+		if (curClosure == null) {
+			curClosure = new DtStringThesaurusClosure(relationMap, childrenMap);
+			closure = curClosure;
+		}
+		return curClosure;
+	}
 	
 	/**
 	 * 2 つの語句が関係を持つかを検証する。
@@ -1022,6 +1072,7 @@ public class DtStringThesaurus implements IDataOutput
 		finally {
 			reader.close();
 		}
+		newSet.getClosure();
 		
 		return newSet;
 	}
@@ -1050,6 +1101,7 @@ public class DtStringThesaurus implements IDataOutput
 		finally {
 			reader.close();
 		}
+		newSet.getClosure();
 		
 		return newSet;
 	}
@@ -1105,7 +1157,9 @@ public class DtStringThesaurus implements IDataOutput
 		parser.parse(xmlFile, saxHandler);
 		//parser.parse(, handler, "hoge.dtd");
 		
-		return saxHandler.getTargetInstance();
+		DtStringThesaurus newSet = saxHandler.getTargetInstance();
+		newSet.getClosure();
+		return newSet;
 	}
 
 	//------------------------------------------------------------
@@ -0,0 +1,169 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2012  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+/*
+ * @(#)DtStringThesaurusClosure.java	0.41	2026/10/18
+ *     - created
+ */
+package dtalge;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * シソーラス定義の語句の祖先関係を、語句ごとのビット集合として保持する不変のビュー。
+ * <p>
+ * 語句ごとに一意の番号を割り当て、各語句の全ての祖先の番号をビット集合として保持する。
+ * これにより、2 つの語句が祖先と子孫の関係にあるかを、親を辿ることなく定数時間で判定する。
+ * 複数の親を持つ語句が存在するため、区間による番号付けではなくビット集合を使用する。
+ * <p>
+ * このビューは生成時のシソーラス定義に対するものであり、シソーラス定義が変更された場合は破棄される。
+ *
+ * @version 0.41	2026/10/18
+ *
+ * @since 0.41
+ */
+final class DtStringThesaurusClosure
+{
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/**
+	 * 語句ごとの番号
+	 */
+	private final HashMap<String, Integer> _wordIds;
+	/**
+	 * 番号ごとの、全ての祖先の番号の集合。祖先が存在しない場合は <tt>null</tt>
+	 */
+	private final BitSet[] _ancestors;
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	/**
+	 * 指定された関係から、新しいインスタンスを生成する。
+	 * 関係は循環しないことを前提とする。
+	 * @param relationMap	関係[子->親]を保持するマップ
+	 * @param childrenMap	関係[親->子]を保持するマップ
+	 */
+	DtStringThesaurusClosure(Map<String, Set<String>> relationMap, Map<String, Set<String>> childrenMap) {
+		// 語句の番号付け
+		_wordIds = new HashMap<String, Integer>((relationMap.size() + childrenMap.size()) * 4 / 3 + 1);
+		for (String word : childrenMap.keySet()) {
+			_wordIds.put(word, Integer.valueOf(_wordIds.size()));
+		}
+		for (String word : relationMap.keySet()) {
+			if (!_wordIds.containsKey(word)) {
+				_wordIds.put(word, Integer.valueOf(_wordIds.size()));
+			}
+		}
+		_ancestors = new BitSet[_wordIds.size()];
+
+		// 親の数(未処理の親の数)
+		int[] numParents = new int[_ancestors.length];
+		for (Map.Entry<String, Set<String>> entry : relationMap.entrySet()) {
+			numParents[_wordIds.get(entry.getKey()).intValue()] = entry.getValue().size();
+		}
+
+		// 根となる語句から、トポロジカル順序で祖先を伝搬する
+		String[] queue = new String[_ancestors.length];
+		int head = 0;
+		int tail = 0;
+		for (String word : childrenMap.keySet()) {
+			if (numParents[_wordIds.get(word).intValue()] == 0) {
+				queue[tail++] = word;
+			}
+		}
+		while (head < tail) {
+			String parent = queue[head++];
+			int parentId = _wordIds.get(parent).intValue();
+			Set<String> children = childrenMap.get(parent);
+			if (children == null) {
+				continue;
+			}
+			for (String child : children) {
+				int childId = _wordIds.get(child).intValue();
+				BitSet ancestors = _ancestors[childId];
+				if (ancestors == null) {
+					ancestors = new BitSet();
+					_ancestors[childId] = ancestors;
+				}
+				if (_ancestors[parentId] != null) {
+					ancestors.or(_ancestors[parentId]);
+				}
+				ancestors.set(parentId);
+				if (--numParents[childId] == 0) {
+					queue[tail++] = child;
+				}
+			}
+		}
+	}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * <em>ancestor</em> が <em>descendant</em> の祖先であれば <tt>true</tt> を返す。
+	 * @param descendant	子孫とみなす語句
+	 * @param ancestor		祖先とみなす語句
+	 * @return	2 つの語句の関係が定義されている場合は <tt>true</tt>
+	 */
+	boolean hasRelation(Object descendant, Object ancestor) {
+		Integer descendantId = _wordIds.get(descendant);
+		if (descendantId == null) {
+			return false;
+		}
+		BitSet ancestors = _ancestors[descendantId.intValue()];
+		if (ancestors == null) {
+			return false;
+		}
+		Integer ancestorId = _wordIds.get(ancestor);
+		return (ancestorId != null && ancestors.get(ancestorId.intValue()));
+	}
+
+	/**
+	 * 2 つの語句を比較する。
+	 * @param word1		比較する語句
+	 * @param word2		比較する語句のもう一方
+	 * @return	<em>word1</em> が <em>word2</em> の子孫であれば負の値、祖先であれば正の値、
+	 * 			それ以外の場合は 0
+	 */
+	int compare(String word1, String word2) {
+		Integer id1 = _wordIds.get(word1);
+		if (id1 == null) {
+			return 0;
+		}
+		Integer id2 = _wordIds.get(word2);
+		if (id2 == null) {
+			return 0;
+		}
+		BitSet ancestors1 = _ancestors[id1.intValue()];
+		if (ancestors1 != null && ancestors1.get(id2.intValue())) {
+			return (-1);
+		}
+		BitSet ancestors2 = _ancestors[id2.intValue()];
+		if (ancestors2 != null && ancestors2.get(id1.intValue())) {
+			return (1);
+		}
+		return 0;
+	}
+}
@@ -16,6 +16,8 @@
  *  <author> Yasunari Ishizuka(PieCake.inc,)
  */
 /*
+ * @(#)CacheManager.java	0.41	2026/10/18 - concurrent caches
+ *     - modified
  * @(#)CacheManager.java	0.10	2008/08/25
  *     - created by Y.Ishizuka(PieCake.inc,)
  */
@@ -28,8 +30,10 @@ import dtalge.util.DtConditions;
 /**
  * データ代数のキャッシュを管理するクラス。
  * <p>
+ * キャッシュは {@link StripedReferenceCacheSet} により分割して同期化されるため、
+ * 複数のスレッドから同時に呼び出された場合も、全体で単一のロックを待機することはない。
  * 
- * @version 0.10	2008/08/25
+ * @version 0.41	2026/10/18
  * 
  * @author H.Deguchi(SOARS Project.)
  * @author Y.Ishizuka(PieCake.inc,)
@@ -48,9 +52,9 @@ public final class CacheManager
 	// Fields
 	//------------------------------------------------------------
 	
-	static private CacheSet<String> stringCache = null;
-	static private CacheSet<DtBase> dtbaseCache = null;
-	static private CacheSet<DtBasePattern>	dtpatternCache = null;
+	static private final CacheSet<String> stringCache = new StripedReferenceCacheSet<String>(ReferenceType.WEAK);
+	static private final CacheSet<DtBase> dtbaseCache = new StripedReferenceCacheSet<DtBase>(ReferenceType.WEAK);
+	static private final CacheSet<DtBasePattern>	dtpatternCache = new StripedReferenceCacheSet<DtBasePattern>(ReferenceType.WEAK);
 
 	//------------------------------------------------------------
 	// Constructions
@@ -75,7 +79,7 @@ public final class CacheManager
 	 * @param targetString	キャッシュする文字列
 	 * @return	キャッシュ済みインスタンス
 	 */
-	static public synchronized String cacheString(String targetString) {
+	static public String cacheString(String targetString) {
 		String cachedString = targetString;
 		if (targetString != null) {
 			// use Cached string
@@ -105,7 +109,7 @@ public final class CacheManager
 	 * @param targetBase	キャッシュする基底
 	 * @return	キャッシュ済みインスタンス
 	 */
-	static public synchronized DtBase cacheDtBase(DtBase targetBase) {
+	static public DtBase cacheDtBase(DtBase targetBase) {
 		DtBase cachedBase = targetBase;
 		if (targetBase != null) {
 			if (DtConditions.isCachedBaseEnabled()) {
@@ -128,7 +132,7 @@ public final class CacheManager
 	 * @param targetPattern	キャッシュする基底パターン
 	 * @return	キャッシュ済みインスタンス
 	 */
-	static public synchronized DtBasePattern cacheDtBasePattern(DtBasePattern targetPattern) {
+	static public DtBasePattern cacheDtBasePattern(DtBasePattern targetPattern) {
 		DtBasePattern cachedPattern = targetPattern;
 		if (targetPattern != null) {
 			if (DtConditions.isCachedBaseEnabled()) {
@@ -143,23 +147,14 @@ public final class CacheManager
 	//------------------------------------------------------------
 	
 	static private CacheSet<String> getStringCacheInstance() {
-		if (stringCache == null) {
-			stringCache = new ReferenceCacheSet<String>(ReferenceType.WEAK);
-		}
 		return stringCache;
 	}
 	
 	static private CacheSet<DtBase> getDtBaseCacheInstance() {
-		if (dtbaseCache == null) {
-			dtbaseCache = new ReferenceCacheSet<DtBase>(ReferenceType.WEAK);
-		}
 		return dtbaseCache;
 	}
 	
 	static private CacheSet<DtBasePattern> getDtBasePatternCacheInstance() {
-		if (dtpatternCache == null) {
-			dtpatternCache = new ReferenceCacheSet<DtBasePattern>(ReferenceType.WEAK);
-		}
 		return dtpatternCache;
 	}
 }
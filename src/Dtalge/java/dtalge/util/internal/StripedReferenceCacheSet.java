@@ -0,0 +1,288 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2012  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+/*
+ * @(#)StripedReferenceCacheSet.java	0.41	2026/10/18
+ *     - created
+ */
+package dtalge.util.internal;
+
+import static dtalge.util.Validations.validArgument;
+import static dtalge.util.Validations.validNotNull;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * 複数のスレッドから同時に使用できる、インスタンスのキャッシュを管理するクラス。
+ * <p>
+ * このクラスは、要素のハッシュ値によってキャッシュを複数のセグメントに分割し、
+ * セグメントごとに {@link ReferenceCacheSet} を保持する。各セグメントは個別に同期化されるため、
+ * 異なるセグメントに属する要素の操作は、互いに待機することなく実行される。
+ * キャッシュが破棄されるタイミングは、コンストラクタで指定された参照種別に準じ、
+ * {@link ReferenceCacheSet} と同一となる。
+ * <p>
+ * このクラスは、<tt>null</tt> 要素を許容する。
+ * <code>size</code> は、各セグメントの要素数の合計を返すため、他のスレッドによる同時変更が
+ * ある場合は、その時点での正確な要素数とはならない場合がある。
+ * <code>iterator</code> メソッドによって返される反復子は、反復子の生成時点の要素の複製を反復する。
+ * したがって、<code>ConcurrentModificationException</code> はスローされず、
+ * 反復子の生成後に追加された要素は反復されない。
+ *
+ * @version 0.41	2026/10/18
+ *
+ * @since 0.41
+ */
+public class StripedReferenceCacheSet<E> extends AbstractSet<E> implements CacheSet<E>
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	static final int MAXIMUM_SEGMENTS = 1 << 16;
+
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/**
+	 * セグメントごとのキャッシュ。各セグメントは、そのインスタンスで同期化される。
+	 */
+	private final ReferenceCacheSet<E>[] segments;
+	/**
+	 * セグメントのインデックスを求めるためのシフト数
+	 */
+	private final int segmentShift;
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	/**
+	 * 指定されたセグメント数で、新しい空のキャッシュを生成する。
+	 * セグメント数は、指定された値以上の 2 のべき乗となる。
+	 *
+	 * @param refType	参照種別({@link dtalge.util.internal.ReferenceType})
+	 * @param concurrencyLevel	同時に更新するスレッドの推定数
+	 *
+	 * @throws IllegalArgumentException	<em>concurrencyLevel</em> が正の値ではない場合
+	 */
+	@SuppressWarnings("unchecked")
+	public StripedReferenceCacheSet(ReferenceType refType, int concurrencyLevel) {
+		validNotNull(refType, "'refType' argument cannot be null.");
+		validArgument(concurrencyLevel > 0, "Illegal 'concurrencyLevel' : %d", concurrencyLevel);
+		if (concurrencyLevel > MAXIMUM_SEGMENTS)
+			concurrencyLevel = MAXIMUM_SEGMENTS;
+
+		int shift = 0;
+		int numSegments = 1;
+		while (numSegments < concurrencyLevel) {
+			++shift;
+			numSegments <<= 1;
+		}
+		segmentShift = 32 - shift;
+
+		segments = (ReferenceCacheSet<E>[])new ReferenceCacheSet<?>[numSegments];
+		for (int i = 0; i < numSegments; i++) {
+			segments[i] = new ReferenceCacheSet<E>(refType);
+		}
+	}
+
+	/**
+	 * 実行環境のプロセッサ数に応じたセグメント数で、新しい空のキャッシュを生成する。
+	 *
+	 * @param refType	参照種別({@link dtalge.util.internal.ReferenceType})
+	 */
+	public StripedReferenceCacheSet(ReferenceType refType) {
+		this(refType, Math.max(16, Runtime.getRuntime().availableProcessors() * 4));
+	}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * セグメント数を返す。
+	 *
+	 * @return	セグメント数
+	 */
+	public int getSegmentCount() {
+		return segments.length;
+	}
+
+	/**
+	 * キャッシュに格納されているインスタンス数を取得する。
+	 *
+	 * @return	キャッシュに格納されているインスタンス数
+	 */
+	public int size() {
+		long sum = 0L;
+		for (ReferenceCacheSet<E> segment : segments) {
+			synchronized (segment) {
+				sum += segment.size();
+			}
+		}
+		return (sum > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int)sum);
+	}
+
+	/**
+	 * キャッシュにインスタンスが存在しない場合に <tt>true</tt> を返す。
+	 *
+	 * @return	インスタンスが存在しない場合は <tt>true</tt>
+	 */
+	public boolean isEmpty() {
+		for (ReferenceCacheSet<E> segment : segments) {
+			synchronized (segment) {
+				if (!segment.isEmpty()) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 指定されたオブジェクトの参照をキャッシュする。
+	 * <p>
+	 * 指定されたオブジェクトのインスタンスが、
+	 * このオブジェクトの <code>equals(Object)</code> メソッドに
+	 * よってキャッシュされたインスタンスと等しいと判断された場合は
+	 * キャッシュ済みのインスタンスを返す。
+	 * キャッシュに存在しないインスタンスの場合は、指定された
+	 * インスタンスをキャッシュに追加し、そのインスタンスを返す。
+	 *
+	 * @param o	キャッシュするオブジェクトへの参照
+	 * @return	キャッシュ済みのインスタンス
+	 */
+	public E cache(E o) {
+		if (o == null) {
+			return o;
+		}
+		ReferenceCacheSet<E> segment = segmentFor(o);
+		synchronized (segment) {
+			return segment.cache(o);
+		}
+	}
+
+	/**
+	 * 指定されたオブジェクトがキャッシュ済みであれば <tt>true</tt> を返す。
+	 *
+	 * @return	指定されたオブジェクトがキャッシュ済みであれば <tt>true</tt>
+	 */
+	public boolean contains(Object o) {
+		ReferenceCacheSet<E> segment = segmentFor(o);
+		synchronized (segment) {
+			return segment.contains(o);
+		}
+	}
+
+	/**
+	 * 指定されたオブジェクトがキャッシュの要素として存在しない場合に、
+	 * そのオブジェクトをキャッシュに追加する。
+	 *
+	 * @param o	キャッシュに追加されるオブジェクト
+	 * @return	キャッシュが指定されたオブジェクトを保持していなかった場合は <tt>true</tt>
+	 */
+	public boolean add(E o) {
+		ReferenceCacheSet<E> segment = segmentFor(o);
+		synchronized (segment) {
+			return segment.add(o);
+		}
+	}
+
+	/**
+	 * 指定されたオブジェクトがキャッシュにあれば、
+	 * キャッシュから削除する。
+	 *
+	 * @param o	キャッシュにあれば削除されるオブジェクト
+	 * @return	指定されたオブジェクトがキャッシュにあった場合は <tt>true</tt>
+	 */
+	public boolean remove(Object o) {
+		ReferenceCacheSet<E> segment = segmentFor(o);
+		synchronized (segment) {
+			return segment.remove(o);
+		}
+	}
+
+	/**
+	 * このキャッシュからすべての要素を削除する。
+	 */
+	public void clear() {
+		for (ReferenceCacheSet<E> segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * セットの要素の反復子を返す。要素が返されるときに特定の順序は無い。
+	 * 反復子は、このメソッドの呼び出し時点でキャッシュに格納されている要素を反復する。
+	 *
+	 * @return セットの要素の <code>Iterator</code>
+	 */
+	public Iterator<E> iterator() {
+		final ArrayList<E> snapshot = new ArrayList<E>();
+		for (ReferenceCacheSet<E> segment : segments) {
+			synchronized (segment) {
+				snapshot.addAll(segment);
+			}
+		}
+		return new Iterator<E>() {
+			private final Iterator<E> it = snapshot.iterator();
+			private E lastReturned;
+			private boolean canRemove = false;
+
+			public boolean hasNext() {
+				return it.hasNext();
+			}
+
+			public E next() {
+				lastReturned = it.next();
+				canRemove = true;
+				return lastReturned;
+			}
+
+			public void remove() {
+				if (!canRemove)
+					throw new IllegalStateException();
+				StripedReferenceCacheSet.this.remove(lastReturned);
+				canRemove = false;
+			}
+		};
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	/**
+	 * 指定されたオブジェクトが属するセグメントを返す。
+	 *
+	 * @param o	オブジェクト
+	 * @return	セグメント
+	 */
+	private ReferenceCacheSet<E> segmentFor(Object o) {
+		if (segments.length == 1) {
+			return segments[0];
+		}
+		int h = ReferenceCacheSet.hash(o == null ? 0 : o.hashCode());
+		// セグメント内のテーブルのインデックスには下位ビットが使用されるため、上位ビットで選択する
+		return segments[h >>> segmentShift];
+	}
+}
@@ -16,6 +16,8 @@
  *  <author> Yasunari Ishizuka(PieCake.inc,)
  */
 /*
+ * @(#)AllUnitTests.java	0.41	2026/10/18
+ *     - modified
  * @(#)AllUnitTests.java	0.40	2012/05/23
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)AllUnitTests.java	0.20	2010/03/09
@@ -29,6 +31,7 @@ import java.io.File;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
+import dtalge.util.internal.StripedReferenceCacheSetTest;
 
 /**
  * <code>dtalge</code> パッケージ直下のクラスの全ユニットテスト。
@@ -70,6 +73,9 @@ public class AllUnitTests
 		suite.addTestSuite(DtBasePatternSetTest.class);
 		suite.addTestSuite(DtalgeTest.class);
 		suite.addTestSuite(DtAlgeSetTest.class);
+		suite.addTestSuite(DtAlgeSetValueIndexTest.class);
+		suite.addTestSuite(DtAlgeSetSorterTest.class);
+		suite.addTestSuite(StripedReferenceCacheSetTest.class);
 		suite.addTestSuite(DtBaseSetIOTest.class);
 		suite.addTestSuite(DtBasePatternSetIOTest.class);
 		suite.addTestSuite(DtalgeIOTest.class);
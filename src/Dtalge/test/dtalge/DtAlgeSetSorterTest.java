@@ -0,0 +1,196 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2012  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+/*
+ * @(#)DtAlgeSetSorterTest.java	0.41	2026/10/18
+ *     - created
+ */
+package dtalge;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * <code>DtAlgeSet</code> の並べ替えのユニットテスト。
+ * 並べ替えの結果が、{@link DtAlgeSet.AlgesComparator} による安定ソートと一致することを確認する。
+ */
+public class DtAlgeSetSorterTest extends TestCase
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	static private final DtBase baseName   = new DtBase("名前", "string", "#", "#");
+	static private final DtBase baseAge    = new DtBase("年齢", "decimal", "#", "#");
+	static private final DtBase baseMember = new DtBase("会員", "boolean", "#", "#");
+	static private final DtBase baseNone   = new DtBase("未使用", "string", "#", "#");
+
+	static private final long RANDOM_SEED = 20261018L;
+
+	//------------------------------------------------------------
+	// Test methods
+	//------------------------------------------------------------
+
+	/**
+	 * {@link dtalge.DtAlgeSet#sortAlgesByValue(DtBase, boolean)} のためのテスト・メソッド。
+	 */
+	public void testSortAlgesByValue() {
+		DtAlgeSet aset = makeRandomSet(2000);
+		for (DtBase base : new DtBase[]{ baseName, baseAge, baseMember, baseNone }) {
+			for (boolean ascending : new boolean[]{ true, false }) {
+				String msg = base + (ascending ? " asc" : " desc");
+				DtAlgeSet expected = new DtAlgeSet(aset);
+				Collections.sort(expected, new DtAlgeSet.AlgesComparator(base, ascending));
+				DtAlgeSet actual = aset.sortedAlgesByValue(base, ascending);
+				assertSameSequence(msg, expected, actual);
+			}
+		}
+	}
+
+	/**
+	 * {@link dtalge.DtAlgeSet#sortAlgesByValues(DtBase[], boolean[])} のためのテスト・メソッド。
+	 */
+	public void testSortAlgesByValues() {
+		DtAlgeSet aset = makeRandomSet(3000);
+		DtBase[] bases = { baseMember, baseAge, baseName };
+		boolean[] ascendings = { false, true, false };
+
+		DtAlgeSet expected = new DtAlgeSet(aset);
+		Collections.sort(expected, multiKeyComparator(bases, ascendings));
+		DtAlgeSet actual = new DtAlgeSet(aset);
+		actual.sortAlgesByValues(bases, ascendings);
+		assertSameSequence("multi keys", expected, actual);
+		assertSameSequence("multi keys", expected, aset.sortedAlgesByValues(bases, ascendings));
+
+		// キーがない場合は並べ替えない
+		actual = new DtAlgeSet(aset);
+		actual.sortAlgesByValues(new DtBase[0], new boolean[0]);
+		assertSameSequence("no keys", aset, actual);
+
+		// 引数の検証
+		try {
+			aset.sortAlgesByValues(bases, new boolean[]{ true });
+			fail("IllegalArgumentException not thrown");
+		} catch (IllegalArgumentException ex) {
+			assertTrue(true);
+		}
+		try {
+			aset.sortAlgesByValues(new DtBase[]{ baseName, null }, new boolean[]{ true, true });
+			fail("NullPointerException not thrown");
+		} catch (NullPointerException ex) {
+			assertTrue(true);
+		}
+		try {
+			aset.sortAlgesByValues(null, ascendings);
+			fail("NullPointerException not thrown");
+		} catch (NullPointerException ex) {
+			assertTrue(true);
+		}
+	}
+
+	/**
+	 * 複数のスレッドによる並べ替えのためのテスト・メソッド。
+	 */
+	public void testParallelSort() {
+		DtAlgeSet aset = makeRandomSet(DtAlgeSetSorter.PARALLEL_THRESHOLD + 12345);
+		DtBase[] bases = { baseAge, baseName };
+		boolean[] ascendings = { true, false };
+		DtAlgeSet expected = new DtAlgeSet(aset);
+		Collections.sort(expected, multiKeyComparator(bases, ascendings));
+
+		for (int numThreads : new int[]{ 1, 2, 3, 4, 7 }) {
+			int[] perm = DtAlgeSetSorter.sortedPermutation(aset, bases, ascendings, numThreads);
+			assertEquals(aset.size(), perm.length);
+			DtAlgeSet actual = new DtAlgeSet(perm.length);
+			for (int pos : perm) {
+				actual.add(aset.get(pos));
+			}
+			assertSameSequence("threads=" + numThreads, expected, actual);
+		}
+	}
+
+	/**
+	 * 並べ替えにより、値による検索の索引が破棄されることを確認する。
+	 */
+	public void testSortInvalidatesValueIndex() {
+		DtAlgeSet aset = makeRandomSet(100);
+		BigDecimal value = (BigDecimal)aset.get(0).get(baseAge);
+		DtAlgeSet before = aset.selectEqualValue(baseAge, value);
+		aset.selectEqualValue(baseAge, value);
+		aset.sortAlgesByValue(baseName, false);
+		DtAlgeSet after = aset.selectEqualValue(baseAge, value);
+		assertEquals(before.size(), after.size());
+		assertEquals(((DtAlgeSet)aset.clone()).selectEqualValue(baseAge, value), after);
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	static private DtAlgeSet makeRandomSet(int size) {
+		Random rand = new Random(RANDOM_SEED + size);
+		DtAlgeSet aset = new DtAlgeSet(size);
+		for (int i = 0; i < size; i++) {
+			Dtalge alge = new Dtalge();
+			int r = rand.nextInt(20);
+			if (r > 0) {
+				alge = alge.put(baseName, (r == 1 ? null : "name" + rand.nextInt(50)));
+			}
+			r = rand.nextInt(20);
+			if (r > 0) {
+				alge = alge.put(baseAge, (r == 1 ? null : new BigDecimal(rand.nextInt(100)).movePointLeft(rand.nextInt(2))));
+			}
+			r = rand.nextInt(10);
+			if (r > 0) {
+				alge = alge.put(baseMember, (r == 1 ? null : Boolean.valueOf(rand.nextBoolean())));
+			}
+			aset.add(alge);
+		}
+		return aset;
+	}
+
+	static private Comparator<Dtalge> multiKeyComparator(DtBase[] bases, boolean[] ascendings) {
+		final List<Comparator<Dtalge>> comparators = new ArrayList<Comparator<Dtalge>>();
+		for (int i = 0; i < bases.length; i++) {
+			comparators.add(new DtAlgeSet.AlgesComparator(bases[i], ascendings[i]));
+		}
+		return new Comparator<Dtalge>() {
+			public int compare(Dtalge o1, Dtalge o2) {
+				for (Comparator<Dtalge> comparator : comparators) {
+					int cmp = comparator.compare(o1, o2);
+					if (cmp != 0) {
+						return cmp;
+					}
+				}
+				return 0;
+			}
+		};
+	}
+
+	static private void assertSameSequence(String msg, List<Dtalge> expected, List<Dtalge> actual) {
+		assertEquals(msg, expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertSame(msg + " [" + i + "]", expected.get(i), actual.get(i));
+		}
+	}
+}
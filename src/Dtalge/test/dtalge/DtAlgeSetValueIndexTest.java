@@ -0,0 +1,283 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2012  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+/*
+ * @(#)DtAlgeSetValueIndexTest.java	0.41	2026/10/18
+ *     - created
+ */
+package dtalge;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * <code>DtAlgeSet</code> の値による検索で使用される索引のユニットテスト。
+ * 索引を使用した検索結果が、全要素を走査した検索結果と一致することを確認する。
+ */
+public class DtAlgeSetValueIndexTest extends TestCase
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	static private final DtBase baseName   = new DtBase("名前", "string", "#", "#");
+	static private final DtBase baseAge    = new DtBase("年齢", "decimal", "#", "#");
+	static private final DtBase baseMember = new DtBase("会員", "boolean", "#", "#");
+	static private final DtBase baseNone   = new DtBase("未使用", "string", "#", "#");
+
+	static private final Object[][] testData = {
+		{ "Alice",   new BigDecimal("20"),   Boolean.TRUE  },
+		{ "Bob",     new BigDecimal("20.0"), Boolean.FALSE },
+		{ "Carol",   new BigDecimal("35"),   null          },
+		{ "Dave",    null,                   Boolean.TRUE  },
+		{ "Eve",     new BigDecimal("0.00"), Boolean.FALSE },
+		{ null,      new BigDecimal("-5"),   Boolean.TRUE  },
+		{ "Alice",   new BigDecimal("42.5"), Boolean.FALSE },
+		{ "Frank",   new BigDecimal("0"),    null          },
+		{ "Bob",     new BigDecimal("35.00"), Boolean.TRUE },
+	};
+
+	static private final Object[] queryValues = {
+		null, "Alice", "Bob", "Zed", "",
+		new BigDecimal("20"), new BigDecimal("2E+1"), new BigDecimal("0"), new BigDecimal("-0.0"),
+		new BigDecimal("35"), new BigDecimal("-100"), new BigDecimal("100"), new BigDecimal("30"),
+		Boolean.TRUE, Boolean.FALSE,
+	};
+
+	//------------------------------------------------------------
+	// Test methods
+	//------------------------------------------------------------
+
+	/**
+	 * {@link dtalge.DtAlgeSet#selectEqualValue(DtBase, Object)} のためのテスト・メソッド。
+	 */
+	public void testSelectEqualValue() {
+		DtAlgeSet aset = makeTestSet();
+		for (int cnt = 0; cnt < 3; cnt++) {
+			for (DtBase base : allBases()) {
+				for (Object value : queryValues) {
+					String msg = base + " == " + value;
+					assertEquals(msg, scanEqual(aset, base, value), aset.selectEqualValue(base, value));
+					assertEquals(msg, !scanEqual(aset, base, value).isEmpty(), aset.containsValue(base, value));
+				}
+			}
+		}
+	}
+
+	/**
+	 * {@link dtalge.DtAlgeSet#selectLessThanValue(DtBase, Object)} などの大小判定のためのテスト・メソッド。
+	 */
+	public void testSelectRangeValue() {
+		DtAlgeSet aset = makeTestSet();
+		for (int cnt = 0; cnt < 3; cnt++) {
+			for (DtBase base : allBases()) {
+				for (Object value : queryValues) {
+					String msg = base + " : " + value;
+					assertEquals(msg, aset.selectLessThanValue(base, value),
+							((DtAlgeSet)aset.clone()).selectLessThanValue(base, value));
+					assertEquals(msg, aset.selectLessEqualValue(base, value),
+							((DtAlgeSet)aset.clone()).selectLessEqualValue(base, value));
+					assertEquals(msg, aset.selectGreaterThanValue(base, value),
+							((DtAlgeSet)aset.clone()).selectGreaterThanValue(base, value));
+					assertEquals(msg, aset.selectGreaterEqualValue(base, value),
+							((DtAlgeSet)aset.clone()).selectGreaterEqualValue(base, value));
+				}
+			}
+		}
+
+		// 索引による結果の確認
+		DtAlgeSet ret = aset.selectLessEqualValue(baseAge, new BigDecimal("20"));
+		assertEquals(5, ret.size());
+		assertSame(aset.get(0), ret.get(0));
+		assertSame(aset.get(1), ret.get(1));
+		assertSame(aset.get(4), ret.get(2));
+		assertSame(aset.get(5), ret.get(3));
+		assertSame(aset.get(7), ret.get(4));
+		ret = aset.selectGreaterThanValue(baseAge, new BigDecimal("35"));
+		assertEquals(1, ret.size());
+		assertSame(aset.get(6), ret.get(0));
+	}
+
+	/**
+	 * {@link dtalge.DtAlgeSet#removeEqualValue(DtBase, Object)}、
+	 * {@link dtalge.DtAlgeSet#replaceEqualValue(DtBase, Object, Dtalge)} のためのテスト・メソッド。
+	 */
+	public void testRemoveReplaceEqualValue() {
+		DtAlgeSet aset = makeTestSet();
+		Dtalge newAlge = new Dtalge(baseName, "New");
+		for (int cnt = 0; cnt < 3; cnt++) {
+			for (DtBase base : allBases()) {
+				for (Object value : queryValues) {
+					String msg = base + " : " + value;
+					DtAlgeSet expected = ((DtAlgeSet)aset.clone()).removeEqualValue(base, value);
+					assertEquals(msg, expected, aset.removeEqualValue(base, value));
+					assertEquals(msg, expected, aset.selectNotEqualValue(base, value));
+					expected = ((DtAlgeSet)aset.clone()).replaceEqualValue(base, value, newAlge);
+					assertEquals(msg, expected, aset.replaceEqualValue(base, value, newAlge));
+				}
+			}
+		}
+		assertEquals(makeTestSet(), aset);
+	}
+
+	/**
+	 * {@link dtalge.DtAlgeSet#updateEqualValue(DtBase, Object, Dtalge)}、
+	 * {@link dtalge.DtAlgeSet#deleteEqualValue(DtBase, Object)} のためのテスト・メソッド。
+	 */
+	public void testUpdateDeleteEqualValue() {
+		Dtalge newAlge = new Dtalge(baseName, "New");
+		for (DtBase base : allBases()) {
+			for (Object value : queryValues) {
+				String msg = base + " : " + value;
+				DtAlgeSet aset = makeTestSet();
+				aset.selectEqualValue(base, value);
+				aset.selectEqualValue(base, value);
+				DtAlgeSet expected = makeTestSet();
+				assertEquals(msg, expected.updateEqualValue(base, value, newAlge), aset.updateEqualValue(base, value, newAlge));
+				assertEquals(msg, expected, aset);
+				assertEquals(msg, expected.selectEqualValue(baseName, "New"), aset.selectEqualValue(baseName, "New"));
+
+				aset = makeTestSet();
+				aset.selectEqualValue(base, value);
+				aset.selectEqualValue(base, value);
+				expected = makeTestSet();
+				assertEquals(msg, expected.deleteEqualValue(base, value), aset.deleteEqualValue(base, value));
+				assertEquals(msg, expected, aset);
+				assertTrue(msg, aset.selectEqualValue(base, value).isEmpty() || base == baseNone);
+			}
+		}
+	}
+
+	/**
+	 * 集合の変更により索引が破棄されることを確認する。
+	 */
+	public void testInvalidation() {
+		DtAlgeSet aset = makeTestSet();
+		BigDecimal val20 = new BigDecimal("20");
+		assertEquals(2, aset.selectEqualValue(baseAge, val20).size());
+		assertEquals(2, aset.selectEqualValue(baseAge, val20).size());
+		assertEquals(5, aset.selectLessEqualValue(baseAge, val20).size());
+
+		// add
+		aset.add(new Dtalge(baseAge, new BigDecimal("20.000")));
+		assertEquals(3, aset.selectEqualValue(baseAge, val20).size());
+		assertEquals(3, aset.selectEqualValue(baseAge, val20).size());
+		assertEquals(6, aset.selectLessEqualValue(baseAge, val20).size());
+
+		// set
+		aset.set(0, new Dtalge(baseAge, new BigDecimal("21")));
+		assertEquals(2, aset.selectEqualValue(baseAge, val20).size());
+		assertEquals(2, aset.selectEqualValue(baseAge, val20).size());
+		assertEquals(5, aset.selectLessEqualValue(baseAge, val20).size());
+
+		// remove
+		aset.remove(1);
+		assertEquals(1, aset.selectEqualValue(baseAge, val20).size());
+		assertEquals(1, aset.selectEqualValue(baseAge, val20).size());
+		assertEquals(4, aset.selectLessEqualValue(baseAge, val20).size());
+
+		// sort
+		Collections.sort(aset, new Comparator<Dtalge>() {
+			public int compare(Dtalge o1, Dtalge o2) {
+				Object v1 = (o1.containsBase(baseName) ? o1.get(baseName) : null);
+				Object v2 = (o2.containsBase(baseName) ? o2.get(baseName) : null);
+				return (v1 == null ? (v2 == null ? 0 : 1) : (v2 == null ? -1 : ((String)v2).compareTo((String)v1)));
+			}
+		});
+		assertEquals(((DtAlgeSet)aset.clone()).selectLessEqualValue(baseAge, val20), aset.selectLessEqualValue(baseAge, val20));
+		assertEquals(((DtAlgeSet)aset.clone()).selectEqualValue(baseAge, val20), aset.selectEqualValue(baseAge, val20));
+		assertEquals(((DtAlgeSet)aset.clone()).selectEqualValue(baseAge, val20), aset.selectEqualValue(baseAge, val20));
+
+		// clone
+		DtAlgeSet cset = (DtAlgeSet)aset.clone();
+		cset.selectEqualValue(baseAge, val20);
+		cset.set(0, new Dtalge(baseAge, val20));
+		assertEquals(1, aset.selectEqualValue(baseAge, val20).size());
+		assertEquals(2, cset.selectEqualValue(baseAge, val20).size());
+		assertEquals(2, cset.selectEqualValue(baseAge, val20).size());
+
+		// clear
+		aset.clear();
+		assertTrue(aset.selectEqualValue(baseAge, val20).isEmpty());
+		assertFalse(aset.containsValue(baseAge, val20));
+		assertTrue(aset.selectGreaterEqualValue(baseAge, val20).isEmpty());
+	}
+
+	/**
+	 * {@link dtalge.DtAlgeSet#invalidateValueIndex()} のためのテスト・メソッド。
+	 */
+	public void testInvalidateValueIndex() {
+		DtAlgeSet aset = makeTestSet();
+		assertEquals(2, aset.selectEqualValue(baseName, "Alice").size());
+		assertEquals(2, aset.selectEqualValue(baseName, "Alice").size());
+		// subList による置き換えは検出されない
+		aset.subList(0, 1).set(0, new Dtalge(baseName, "Zed"));
+		aset.invalidateValueIndex();
+		assertEquals(1, aset.selectEqualValue(baseName, "Alice").size());
+		assertEquals(1, aset.selectEqualValue(baseName, "Alice").size());
+		assertEquals(1, aset.selectEqualValue(baseName, "Zed").size());
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	static private DtBase[] allBases() {
+		return new DtBase[]{ baseName, baseAge, baseMember, baseNone };
+	}
+
+	static private DtAlgeSet makeTestSet() {
+		DtAlgeSet aset = new DtAlgeSet(testData.length + 1);
+		for (Object[] row : testData) {
+			Dtalge alge = new Dtalge();
+			alge = alge.put(baseName, row[0]);
+			alge = alge.put(baseAge, row[1]);
+			if (row[2] != null) {
+				alge = alge.put(baseMember, row[2]);
+			}
+			aset.add(alge);
+		}
+		aset.add(new Dtalge());
+		return aset;
+	}
+
+	static private DtAlgeSet scanEqual(List<Dtalge> alges, DtBase base, Object value) {
+		List<Dtalge> list = new ArrayList<Dtalge>();
+		for (Dtalge alge : alges) {
+			if (alge.containsBase(base)) {
+				Object algevalue = alge.get(base);
+				if (value == algevalue) {
+					list.add(alge);
+				}
+				else if (value instanceof BigDecimal && algevalue instanceof BigDecimal) {
+					if (((BigDecimal)value).compareTo((BigDecimal)algevalue) == 0) {
+						list.add(alge);
+					}
+				}
+				else if (value != null && value.equals(algevalue)) {
+					list.add(alge);
+				}
+			}
+		}
+		return new DtAlgeSet(list);
+	}
+}
@@ -16,6 +16,8 @@
  *  <author> Yasunari Ishizuka(PieCake.inc,)
  */
 /*
+ * @(#)DtStringThesaurusTest.java	0.41	2026/10/18
+ *     - modified
  * @(#)DtStringThesaurusTest.java	0.30	2011/03/16
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)DtStringThesaurusTest.java	0.20	2010/02/19
@@ -1250,4 +1252,65 @@ public class DtStringThesaurusTest extends TestCase
 			assertEquals(retlist, anslist);
 		}
 	}
+
+	/**
+	 * 語句の祖先を保持するビューによる比較が、親を辿る比較と一致することを確認する。
+	 * @since 0.41
+	 */
+	public void testCompiledRelations() {
+		DtStringThesaurus thes = newThesaurus(thesPairs);
+		putAllToThesaurus(thes, thesMPPairs);
+		putAllToThesaurus(thes, "A1B2C1", "N1", "N7", "X1");
+		assertCompiledRelations(thes);
+
+		// 変更により、ビューは破棄される
+		assertTrue(thes.compareTo("X1", "A1") < 0);
+		assertTrue(thes.remove("A1B2C1", "N1"));
+		assertEquals(0, thes.compareTo("X1", "A1"));
+		assertCompiledRelations(thes);
+		assertTrue(thes.put("A1", "N4"));
+		assertTrue(thes.compareTo("N7", "A1") < 0);
+		assertEquals(0, thes.compareTo("N5", "A1"));
+		assertCompiledRelations(thes);
+		assertTrue(thes.remove("N6"));
+		assertEquals(0, thes.compareTo("N7", "A1"));
+		assertTrue(thes.isComparable("N7", "N1"));
+		assertCompiledRelations(thes);
+
+		// 循環関係の検出
+		try {
+			thes.put("N7", "N1");
+			fail("IllegalArgumentException not thrown");
+		} catch (IllegalArgumentException ex) {
+			assertTrue(true);
+		}
+
+		thes.clear();
+		assertFalse(thes.isComparable("N7", "N1"));
+		assertEquals(0, thes.compareTo("N7", "N1"));
+		thes.put("N1", "N7");
+		assertTrue(thes.isComparable("N7", "N1"));
+	}
+
+	static private void assertCompiledRelations(DtStringThesaurus thes) {
+		Set<String> words = new HashSet<String>();
+		words.addAll(thes.relationMap.keySet());
+		words.addAll(thes.childrenMap.keySet());
+		words.add("hoge");
+		for (String w1 : words) {
+			for (String w2 : words) {
+				int expected = 0;
+				if (!w1.equals(w2)) {
+					if (thes.hasRelationRecursive(w1, w2)) {
+						expected = -1;
+					} else if (thes.hasRelationRecursive(w2, w1)) {
+						expected = 1;
+					}
+				}
+				assertEquals(w1 + "," + w2, expected, thes.compareTo(w1, w2));
+				assertEquals(w1 + "," + w2, (expected != 0), thes.isComparable(w1, w2));
+				assertEquals(w1 + "," + w2, (expected < 0), thes.hasRelation(w1, w2));
+			}
+		}
+	}
 }
@@ -0,0 +1,101 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2012  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+/*
+ * @(#)SpeedTestCacheManager.java	0.41	2026/10/18
+ *     - created
+ */
+package dtalge.util.internal;
+
+import junit.framework.TestCase;
+import dtalge.DtBase;
+
+/**
+ * <code>CacheManager</code> のキャッシュの、スレッド数に対する速度チェック。
+ * 単一のロックで同期化された {@link ReferenceCacheSet} と、{@link StripedReferenceCacheSet} を比較する。
+ */
+public class SpeedTestCacheManager extends TestCase
+{
+	static private final int[] NUM_THREADS = { 1, 2, 4, 8 };
+	static private final int NUM_BASES = 20000;
+	static private final int NUM_LOOPS = 20;
+
+	private DtBase[] bases;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		bases = new DtBase[NUM_BASES];
+		for (int i = 0; i < NUM_BASES; i++) {
+			bases[i] = new DtBase("name" + (i % 1000), "string", "attr" + (i / 1000), "#");
+		}
+	}
+
+	public void testCacheScaling() throws Exception {
+		System.out.println("SpeedTestCacheManager : available processors = " + Runtime.getRuntime().availableProcessors());
+		System.out.println("threads\tsynchronized(ms)\tstriped(ms)");
+		for (int numThreads : NUM_THREADS) {
+			// 計測前の準備
+			runCache(new SynchronizedCacheSet(), numThreads);
+			runCache(new StripedReferenceCacheSet<DtBase>(ReferenceType.WEAK), numThreads);
+
+			long syncTime = runCache(new SynchronizedCacheSet(), numThreads);
+			long stripedTime = runCache(new StripedReferenceCacheSet<DtBase>(ReferenceType.WEAK), numThreads);
+			System.out.println(numThreads + "\t" + syncTime + "\t" + stripedTime);
+		}
+	}
+
+	private long runCache(final CacheSet<DtBase> cache, int numThreads) throws Exception {
+		Thread[] threads = new Thread[numThreads];
+		for (int t = 0; t < numThreads; t++) {
+			final int offset = t * 7919;
+			threads[t] = new Thread() {
+				public void run() {
+					for (int loop = 0; loop < NUM_LOOPS; loop++) {
+						for (int i = 0; i < NUM_BASES; i++) {
+							cache.cache(bases[(i + offset) % NUM_BASES]);
+						}
+					}
+				}
+			};
+		}
+		long startTime = System.currentTimeMillis();
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		long time = System.currentTimeMillis() - startTime;
+		assertEquals(NUM_BASES, cache.size());
+		return time;
+	}
+
+	/**
+	 * 単一のロックで同期化されたキャッシュ(従来の <code>CacheManager</code> と同等)
+	 */
+	static private class SynchronizedCacheSet extends ReferenceCacheSet<DtBase> {
+		SynchronizedCacheSet() {
+			super(ReferenceType.WEAK);
+		}
+		public synchronized DtBase cache(DtBase o) {
+			return super.cache(o);
+		}
+		public synchronized int size() {
+			return super.size();
+		}
+	}
+}
@@ -0,0 +1,179 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2012  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+/*
+ * @(#)StripedReferenceCacheSetTest.java	0.41	2026/10/18
+ *     - created
+ */
+package dtalge.util.internal;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * <code>StripedReferenceCacheSet</code> のユニットテスト。
+ */
+public class StripedReferenceCacheSetTest extends TestCase
+{
+	//------------------------------------------------------------
+	// Test cases
+	//------------------------------------------------------------
+
+	/**
+	 * {@link dtalge.util.internal.StripedReferenceCacheSet#StripedReferenceCacheSet(ReferenceType, int)} のためのテスト・メソッド。
+	 */
+	public void testStripedReferenceCacheSet() {
+		assertEquals(1, new StripedReferenceCacheSet<String>(ReferenceType.WEAK, 1).getSegmentCount());
+		assertEquals(8, new StripedReferenceCacheSet<String>(ReferenceType.WEAK, 5).getSegmentCount());
+		assertEquals(16, new StripedReferenceCacheSet<String>(ReferenceType.SOFT, 16).getSegmentCount());
+		assertTrue(new StripedReferenceCacheSet<String>(ReferenceType.STRONG).getSegmentCount() >= 16);
+		try {
+			new StripedReferenceCacheSet<String>(ReferenceType.WEAK, 0);
+			fail("IllegalArgumentException not thrown");
+		} catch (IllegalArgumentException ex) {
+			assertTrue(true);
+		}
+		try {
+			new StripedReferenceCacheSet<String>(null, 1);
+			fail("NullPointerException not thrown");
+		} catch (NullPointerException ex) {
+			assertTrue(true);
+		}
+	}
+
+	/**
+	 * {@link dtalge.util.internal.StripedReferenceCacheSet#cache(Object)} のためのテスト・メソッド。
+	 */
+	public void testCache() {
+		StripedReferenceCacheSet<String> cache = new StripedReferenceCacheSet<String>(ReferenceType.STRONG, 16);
+		assertNull(cache.cache(null));
+		assertTrue(cache.isEmpty());
+
+		String[] words = new String[1000];
+		for (int i = 0; i < words.length; i++) {
+			words[i] = "word" + i;
+			assertSame(words[i], cache.cache(words[i]));
+		}
+		assertEquals(words.length, cache.size());
+		for (int i = 0; i < words.length; i++) {
+			String other = new String(words[i]);
+			assertNotSame(words[i], other);
+			assertSame(words[i], cache.cache(other));
+			assertTrue(cache.contains(other));
+		}
+		assertEquals(words.length, cache.size());
+		assertFalse(cache.contains("hoge"));
+	}
+
+	/**
+	 * {@link dtalge.util.internal.StripedReferenceCacheSet} の <code>Set</code> インタフェースのためのテスト・メソッド。
+	 */
+	public void testSetOperations() {
+		StripedReferenceCacheSet<String> cache = new StripedReferenceCacheSet<String>(ReferenceType.STRONG, 4);
+		Set<String> expected = new HashSet<String>();
+		for (int i = 0; i < 100; i++) {
+			assertTrue(cache.add("w" + i));
+			expected.add("w" + i);
+		}
+		assertFalse(cache.add("w0"));
+		assertTrue(cache.add(null));
+		assertTrue(cache.contains(null));
+		expected.add(null);
+		assertEquals(expected, new HashSet<String>(cache));
+		assertEquals(expected, cache);
+
+		assertTrue(cache.remove("w0"));
+		assertFalse(cache.remove("w0"));
+		assertTrue(cache.remove(null));
+		assertEquals(99, cache.size());
+
+		// 反復子による削除
+		for (Iterator<String> it = cache.iterator(); it.hasNext(); ) {
+			String word = it.next();
+			if (word.endsWith("1")) {
+				it.remove();
+			}
+		}
+		assertEquals(89, cache.size());
+		assertFalse(cache.contains("w91"));
+
+		cache.clear();
+		assertTrue(cache.isEmpty());
+		assertEquals(0, cache.size());
+	}
+
+	/**
+	 * 弱参照のキャッシュが、参照されなくなった要素を破棄することを確認する。
+	 */
+	public void testWeakReference() throws Exception {
+		StripedReferenceCacheSet<String> cache = new StripedReferenceCacheSet<String>(ReferenceType.WEAK, 4);
+		String held = new String("held");
+		cache.cache(held);
+		for (int i = 0; i < 1000; i++) {
+			cache.cache(new String("garbage" + i));
+		}
+		for (int i = 0; i < 10 && cache.size() > 1; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		assertEquals(1, cache.size());
+		assertSame(held, cache.cache(new String("held")));
+	}
+
+	/**
+	 * 複数のスレッドから同時にキャッシュした場合に、等しい要素が同一のインスタンスとなることを確認する。
+	 */
+	public void testConcurrentCache() throws Exception {
+		final StripedReferenceCacheSet<String> cache = new StripedReferenceCacheSet<String>(ReferenceType.STRONG, 8);
+		final int numThreads = 8;
+		final int numWords = 2000;
+		final String[][] results = new String[numThreads][numWords];
+		final Throwable[] errors = new Throwable[numThreads];
+		Thread[] threads = new Thread[numThreads];
+		for (int t = 0; t < numThreads; t++) {
+			final int threadIndex = t;
+			threads[t] = new Thread() {
+				public void run() {
+					try {
+						for (int i = 0; i < numWords; i++) {
+							int n = (i + threadIndex * 97) % numWords;
+							results[threadIndex][n] = cache.cache(new String("word" + n));
+						}
+					} catch (Throwable ex) {
+						errors[threadIndex] = ex;
+					}
+				}
+			};
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		for (int t = 0; t < numThreads; t++) {
+			assertNull(errors[t]);
+			for (int i = 0; i < numWords; i++) {
+				assertSame(results[0][i], results[t][i]);
+			}
+		}
+		assertEquals(numWords, cache.size());
+	}
+}
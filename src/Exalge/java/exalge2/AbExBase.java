@@ -17,6 +17,8 @@
  *  <author> Yasunari Ishizuka(PieCake.inc,)
  */
 /*
+ * @(#)AbExBase.java	0.985	2026/10/18 - compare base keys without making one string keys
+ *     - modified
  * @(#)AbExBase.java	0.982	2009/09/13
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)AbExBase.java	0.970	2009/03/10
@@ -423,6 +425,8 @@ public abstract class AbExBase
 	 * 基底が等しいかどうかを示す。
 	 * <br>
 	 * 基底キーが同一の場合のみ、true を返す。
+	 * <p>
+	 * <b>(0.985)</b> 一意文字列キーを生成せず、ハッシュコード値と基底キーごとの比較で判定する。
 	 * 
 	 * @see java.lang.Object#equals(java.lang.Object)
 	 */
@@ -434,10 +438,18 @@ public abstract class AbExBase
 				// 同一インスタンスなら true
 				return true;
 			}
-			else if (this.key().equals(((AbExBase)obj).key())) {
+			
+			AbExBase aBase = (AbExBase)obj;
+			if (this.hashCode() != aBase.hashCode()) {
+				// 一意文字列キーのハッシュ値が異なる
+				return false;
+			}
+			if (Arrays.equals(this._baseKeys, aBase._baseKeys)) {
 				// 同一値
 				return true;
 			}
+			// 基底キーの区切りが異なっても、一意文字列キーが同一となる場合のみ等しい
+			return this.key().equals(aBase.key());
 		}
 		
 		// not equal
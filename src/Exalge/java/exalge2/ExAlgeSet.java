@@ -17,6 +17,8 @@
  *  <author> Yasunari Ishizuka(PieCake.inc,)
  */
 /*
+ * @(#)ExAlgeSet.java	0.985	2026/10/18 - parallel sum and projections, XML streaming, CSV bulk loading
+ *     - modified
  * @(#)ExAlgeSet.java	0.984	2014/05/29
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)ExAlgeSet.java	0.983	2010/02/25
@@ -67,6 +69,7 @@ import exalge2.io.csv.CsvReader;
 import exalge2.io.csv.CsvWriter;
 import exalge2.io.xml.XmlDocument;
 import exalge2.io.xml.XmlDomParseException;
+import exalge2.io.xml.XmlStreamWriter;
 
 /**
  * 交換代数の元(<code>{@link Exalge}</code>)の集合を保持するクラス。
@@ -161,8 +164,10 @@ import exalge2.io.xml.XmlDomParseException;
  * </ul>
  * なお、XML ドキュメントの入出力は、{@link #toXML()}、{@link #fromXML(XmlDocument)} により行う。
  * また、XML ファイルの入出力は、{@link #toXML(File)}、{@link #fromXML(File)} により行う。
+ * 大規模な XML ファイルの入出力には、XML ドキュメント全体を生成せずに逐次処理する
+ * {@link #toXmlStream(File)}、{@link #fromXmlStream(File)} を使用できる。
  * 
- * @version 0.984	2014/05/29
+ * @version 0.985	2026/10/18
  * 
  * @author H.Deguchi(SOARS Project.)
  * @author Y.Ishizuka(PieCake.inc,)
@@ -873,6 +878,200 @@ public class ExAlgeSet extends ArrayList<Exalge> implements exalge2.io.IDataOutp
 		return this.projection(targetBases);
 	}
 
+	//------------------------------------------------------------
+	// Parallel operations
+	//------------------------------------------------------------
+
+	/**
+	 * 自身に含まれる全ての交換代数の総和を、利用可能なプロセッサ数のスレッドで計算した結果を取得する。
+	 * 結果は {@link #sum()} と同一となる。
+	 * 
+	 * @return 計算結果の交換代数
+	 * 
+	 * @see exalge2.Exalge#parallelSum(Collection, int)
+	 * 
+	 * @since 0.985
+	 */
+	public Exalge parallelSum() {
+		return Exalge.parallelSum(this);
+	}
+
+	/**
+	 * 自身に含まれる全ての交換代数の総和を、指定された数のスレッドで計算した結果を取得する。
+	 * 結果は {@link #sum()} と同一となる。
+	 * 
+	 * @param numThreads	スレッド数、0 以下の場合は利用可能なプロセッサ数
+	 * @return 計算結果の交換代数
+	 * 
+	 * @see exalge2.Exalge#parallelSum(Collection, int)
+	 * 
+	 * @since 0.985
+	 */
+	public Exalge parallelSum(int numThreads) {
+		return Exalge.parallelSum(this, numThreads);
+	}
+
+	/**
+	 * {@link #notzeroProjection()} と同一の結果を、複数のスレッドで計算する。
+	 * 
+	 * @param numThreads	スレッド数、0 以下の場合は利用可能なプロセッサ数
+	 * @return	値が 0 ではない要素のみを含む交換代数元の集合
+	 * 
+	 * @see #notzeroProjection()
+	 * 
+	 * @since 0.985
+	 */
+	public ExAlgeSet parallelNotzeroProjection(int numThreads) {
+		return ExalgeParallelSupport.map(this, numThreads, new ExalgeParallelSupport.ElementOperation() {
+			public Exalge apply(Exalge alge) {
+				return alge.notzeroProjection();
+			}
+		});
+	}
+
+	/**
+	 * {@link #projection(ExBase)} と同一の結果を、複数のスレッドで計算する。
+	 * 
+	 * @param base			取り出す基底
+	 * @param numThreads	スレッド数、0 以下の場合は利用可能なプロセッサ数
+	 * @return		指定の基底でプロジェクションした結果を持つ交換代数集合
+	 * 
+	 * @throws NullPointerException <em>base</em> が <tt>null</tt> の場合にスローされる
+	 * 
+	 * @see #projection(ExBase)
+	 * 
+	 * @since 0.985
+	 */
+	public ExAlgeSet parallelProjection(final ExBase base, int numThreads) {
+		if (base == null) {
+			throw new NullPointerException();
+		}
+		return ExalgeParallelSupport.map(this, numThreads, new ExalgeParallelSupport.ElementOperation() {
+			public Exalge apply(Exalge alge) {
+				return alge.projection(base);
+			}
+		});
+	}
+
+	/**
+	 * {@link #projection(ExBaseSet)} と同一の結果を、複数のスレッドで計算する。
+	 * 
+	 * @param baseset		取り出す基底の集合
+	 * @param numThreads	スレッド数、0 以下の場合は利用可能なプロセッサ数
+	 * @return			指定の基底集合でプロジェクションした結果を持つ交換代数集合
+	 * 
+	 * @throws NullPointerException <em>baseset</em> が <tt>null</tt> の場合にスローされる
+	 * 
+	 * @see #projection(ExBaseSet)
+	 * 
+	 * @since 0.985
+	 */
+	public ExAlgeSet parallelProjection(final ExBaseSet baseset, int numThreads) {
+		if (baseset == null) {
+			throw new NullPointerException();
+		}
+		return ExalgeParallelSupport.map(this, numThreads, new ExalgeParallelSupport.ElementOperation() {
+			public Exalge apply(Exalge alge) {
+				return alge.projection(baseset);
+			}
+		});
+	}
+
+	/**
+	 * {@link #generalProjection(ExBase)} と同一の結果を、複数のスレッドで計算する。
+	 * 
+	 * @param base			取り出す基底
+	 * @param numThreads	スレッド数、0 以下の場合は利用可能なプロセッサ数
+	 * @return		指定の基底でプロジェクションした結果を持つ交換代数集合
+	 * 
+	 * @throws NullPointerException <em>base</em> が <tt>null</tt> の場合にスローされる
+	 * 
+	 * @see #generalProjection(ExBase)
+	 * 
+	 * @since 0.985
+	 */
+	public ExAlgeSet parallelGeneralProjection(ExBase base, int numThreads) {
+		if (base == null) {
+			throw new NullPointerException();
+		}
+		ExBaseSet targetBases = new ExBaseSet(2);
+		targetBases.fastAdd(base.removeHat());
+		targetBases.fastAdd(base.setHat());
+		return parallelProjection(targetBases, numThreads);
+	}
+
+	/**
+	 * {@link #generalProjection(ExBaseSet)} と同一の結果を、複数のスレッドで計算する。
+	 * 
+	 * @param baseset		取り出す基底の集合
+	 * @param numThreads	スレッド数、0 以下の場合は利用可能なプロセッサ数
+	 * @return			指定の基底集合でプロジェクションした結果を持つ交換代数集合
+	 * 
+	 * @throws NullPointerException <em>baseset</em> が <tt>null</tt> の場合にスローされる
+	 * 
+	 * @see #generalProjection(ExBaseSet)
+	 * 
+	 * @since 0.985
+	 */
+	public ExAlgeSet parallelGeneralProjection(ExBaseSet baseset, int numThreads) {
+		if (baseset == null) {
+			throw new NullPointerException();
+		}
+		ExBaseSet targetBases = baseset.removeHat();
+		targetBases.fastAddAll(targetBases.setHat());
+		return parallelProjection(targetBases, numThreads);
+	}
+
+	/**
+	 * {@link #patternProjection(ExBasePattern)} と同一の結果を、複数のスレッドで計算する。
+	 * 基底パターンとの照合も、交換代数元ごとに並列に行う。
+	 * 
+	 * @param pattern		基底パターン
+	 * @param numThreads	スレッド数、0 以下の場合は利用可能なプロセッサ数
+	 * @return		指定の基底パターンでプロジェクションした結果を持つ交換代数集合
+	 * 
+	 * @throws NullPointerException	<em>pattern</em> が <tt>null</tt> の場合にスローされる
+	 * 
+	 * @see #patternProjection(ExBasePattern)
+	 * 
+	 * @since 0.985
+	 */
+	public ExAlgeSet parallelPatternProjection(final ExBasePattern pattern, int numThreads) {
+		if (pattern == null) {
+			throw new NullPointerException();
+		}
+		return ExalgeParallelSupport.map(this, numThreads, new ExalgeParallelSupport.ElementOperation() {
+			public Exalge apply(Exalge alge) {
+				return alge.patternProjection(pattern);
+			}
+		});
+	}
+
+	/**
+	 * {@link #patternProjection(ExBasePatternSet)} と同一の結果を、複数のスレッドで計算する。
+	 * 基底パターンとの照合も、交換代数元ごとに並列に行う。
+	 * 
+	 * @param patterns		基底パターンの集合
+	 * @param numThreads	スレッド数、0 以下の場合は利用可能なプロセッサ数
+	 * @return		指定の基底パターンでプロジェクションした結果を持つ交換代数集合
+	 * 
+	 * @throws NullPointerException	<em>patterns</em> が <tt>null</tt> の場合にスローされる
+	 * 
+	 * @see #patternProjection(ExBasePatternSet)
+	 * 
+	 * @since 0.985
+	 */
+	public ExAlgeSet parallelPatternProjection(final ExBasePatternSet patterns, int numThreads) {
+		if (patterns == null) {
+			throw new NullPointerException();
+		}
+		return ExalgeParallelSupport.map(this, numThreads, new ExalgeParallelSupport.ElementOperation() {
+			public Exalge apply(Exalge alge) {
+				return alge.patternProjection(patterns);
+			}
+		});
+	}
+
 	//------------------------------------------------------------
 	// Internal methods
 	//------------------------------------------------------------
@@ -1376,6 +1575,72 @@ public class ExAlgeSet extends ArrayList<Exalge> implements exalge2.io.IDataOutp
 		
 		return ExAlgeSet.fromXML(xmlDocument);
 	}
+	
+	/**
+	 * 交換代数集合の内容を、指定のファイルに XML フォーマットで逐次出力する。
+	 * <p>
+	 * 出力されるフォーマットは {@link #toXML(File)} と同一だが、XML ドキュメント全体を生成せずに
+	 * 要素ごとに出力するため、メモリ使用量は要素数に依存しない。
+	 * 
+	 * @param xmlFile 出力先ファイル
+	 * 
+	 * @throws FactoryConfigurationError XML の実装が使用できないかインスタンス化できない場合
+	 * @throws ParserConfigurationException DocumentBuilder を構成できない場合
+	 * @throws DOMException タグの生成に失敗した場合
+	 * @throws IOException 入出力エラーが発生した場合
+	 * 
+	 * @since 0.985
+	 */
+	public void toXmlStream(File xmlFile)
+		throws FactoryConfigurationError, ParserConfigurationException, DOMException, IOException
+	{
+		XmlDocument xml = new XmlDocument();
+		XmlStreamWriter writer = new XmlStreamWriter(xmlFile);
+		try {
+			writer.startDocument();
+			writer.startElement(Exalge.XML_TOP_ELEMENT_NAME);
+			Iterator<Exalge> it = this.iterator();
+			while (it.hasNext()) {
+				it.next().writeToXmlStream(writer, xml);
+			}
+			writer.endDocument();
+		}
+		finally {
+			writer.close();
+		}
+	}
+	
+	/**
+	 * XML フォーマットのファイルを逐次読み込み、新しい交換代数集合を生成する。
+	 * <p>
+	 * 生成される交換代数集合は {@link #fromXML(File)} と同一だが、ファイル全体の XML ドキュメントを
+	 * 生成せずに要素ごとに解析するため、メモリ使用量は生成される交換代数集合の大きさにほぼ等しくなる。
+	 * 解析中にエラーが発生した場合の例外も、{@link #fromXML(File)} と同一となる。
+	 * ただし、XML 文書構成エラーよりも前に XML ノード解析エラーが検出された場合は、
+	 * {@link XmlDomParseException} がスローされる。
+	 * 
+	 * @param xmlFile 読み込む XML ファイル
+	 * 
+	 * @return ファイルの内容で生成された、新しい <code>ExAlgeSet</code> インスタンスを返す。
+	 * 
+	 * @throws FactoryConfigurationError XML の実装が使用できないかインスタンス化できない場合
+	 * @throws ParserConfigurationException SAXParser を構成できない場合
+	 * @throws IOException 入出力エラーが発生した場合
+	 * @throws SAXException XML文書構成がエラーの場合
+	 * @throws XmlDomParseException XML ノード解析エラーが発生した場合
+	 * 
+	 * @since 0.985
+	 */
+	static public ExAlgeSet fromXmlStream(File xmlFile)
+		throws FactoryConfigurationError, ParserConfigurationException, IOException, SAXException,
+				XmlDomParseException
+	{
+		ExAlgeSet newSet = new ExAlgeSet();
+		Exalge.XmlStreamDecoder decoder = new Exalge.XmlStreamDecoder(newSet);
+		decoder.parse(xmlFile);
+		
+		return newSet;
+	}
 
 	//------------------------------------------------------------
 	// Internal methods for I/O
@@ -1421,6 +1686,9 @@ public class ExAlgeSet extends ArrayList<Exalge> implements exalge2.io.IDataOutp
 		// コメント行は有効
 		reader.setLineCommentEnable(true);
 		
+		// 基底の生成キャッシュ
+		ExBaseBulkLoader loader = new ExBaseBulkLoader();
+		
 		// read elements
 		Exalge newAlge = null;
 		while ((record = reader.readCsvRecord()) != null) {
@@ -1438,7 +1706,7 @@ public class ExAlgeSet extends ArrayList<Exalge> implements exalge2.io.IDataOutp
 			if (newAlge == null) {
 				newAlge = new Exalge();
 			}
-			newAlge.readRecordFromCSV(record);
+			newAlge.readRecordFromCSV(record, loader);
 		}
 		
 		if (newAlge != null && !newAlge.isEmpty()) {
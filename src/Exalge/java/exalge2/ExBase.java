@@ -17,6 +17,10 @@
  *  <author> Yasunari Ishizuka(PieCake.inc,)
  */
 /*
+ * @(#)ExBase.java	0.985	2026/10/18 - bulk loading by ExBaseBulkLoader
+ *     - modified
+ * @(#)ExBase.java	0.985	2026/10/18 - interning by ExBaseInternTable
+ *     - modified
  * @(#)ExBase.java	0.982	2009/09/13
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)ExBase.java	0.970	2009/03/10
@@ -99,7 +103,7 @@ import exalge2.util.Strings;
  * &lt; &gt; - , ^ &quot; % &amp; ? | @ ' " (空白)
  * </blockquote>
  * 
- * @version 0.982	2009/09/13
+ * @version 0.985	2026/10/18
  * 
  * @author H.Debuchi(SOARS Project.)
  * @author Li Hou(SOARS Project.)
@@ -123,6 +127,21 @@ public final class ExBase extends AbExBase implements Comparable<ExBase>
 	 */
 	static public final String OMITTED = "#";
 
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/**
+	 * {@link ExBaseInternTable} により割り当てられた ID。正規化されていない場合は 0。
+	 * @since 0.985
+	 */
+	transient protected int _internId;
+	/**
+	 * ハットキーのみが異なる正規化インスタンス。正規化インスタンスの場合のみ保持する。
+	 * @since 0.985
+	 */
+	transient protected ExBase _hatTwin;
+
 	//------------------------------------------------------------
 	// Constructions
 	//------------------------------------------------------------
@@ -309,6 +328,45 @@ public final class ExBase extends AbExBase implements Comparable<ExBase>
 		this.copyFrom(src);
 	}
 
+	/**
+	 * 基底キーが設定されていない新しいインスタンスを生成する。
+	 * {@link #newValidatedInstance(String, String, String, String, String)} からのみ使用する。
+	 * 
+	 * @since 0.985
+	 */
+	private ExBase() {
+		super();
+	}
+
+	/**
+	 * 検証済みの基底キーから、<code>ExBase</code> の新しいインスタンスを生成する。
+	 * <br>
+	 * 基底キーの検証と省略されたキーの置き換えは行わないため、全ての基底キーは
+	 * {@link ExBase.Util#filterHatKey(String, boolean)} もしくは {@link ExBase.Util#filterBaseKey(String, boolean)} により
+	 * 検証済みの、<tt>null</tt> ではない文字列であること。
+	 * ハッシュ値は、最初に {@link #hashCode()} が呼び出された時点で計算される。
+	 * 
+	 * @param nameKey		名前キー
+	 * @param hatKey		ハットキー
+	 * @param unitKey		単位キー
+	 * @param timeKey		時間キー
+	 * @param subjectKey	サブジェクトキー
+	 * @return	生成されたインスタンス
+	 * 
+	 * @since 0.985
+	 */
+	static ExBase newValidatedInstance(String nameKey, String hatKey, String unitKey, String timeKey, String subjectKey) {
+		ExBase base = new ExBase();
+		String[] keys = new String[NUM_ALL_KEYS];
+		keys[KEY_NAME]        = nameKey;
+		keys[KEY_HAT]         = hatKey;
+		keys[KEY_EXT_UNIT]    = unitKey;
+		keys[KEY_EXT_TIME]    = timeKey;
+		keys[KEY_EXT_SUBJECT] = subjectKey;
+		base._baseKeys = keys;
+		return base;
+	}
+
 	/**
 	 * 交換代数基底クラスの初期化。<br>
 	 * 指定された基底キーにより、基底を初期化する。
@@ -561,6 +619,9 @@ public final class ExBase extends AbExBase implements Comparable<ExBase>
 	 * @return ＾計算された後の基底
 	 */
 	public final ExBase hat() {
+		if (_internId != 0) {
+			return getInternedHatTwin();
+		}
 		ExBase result = new ExBase(this);	// copy
 		result._baseKeys[KEY_HAT]  = (this.isHat() ? ExBase.NO_HAT : ExBase.HAT);
 		/*--- modified : 2009/03/10 ---*/
@@ -582,6 +643,8 @@ public final class ExBase extends AbExBase implements Comparable<ExBase>
 	public final ExBase setHat() {
 		if (isHat()) {
 			return this;
+		} else if (_internId != 0) {
+			return getInternedHatTwin();
 		} else {
 			ExBase result = new ExBase(this);	// copy
 			result._baseKeys[KEY_HAT] = ExBase.HAT;
@@ -604,6 +667,9 @@ public final class ExBase extends AbExBase implements Comparable<ExBase>
 	 */
 	public final ExBase removeHat() {
 		if (isHat()) {
+			if (_internId != 0) {
+				return getInternedHatTwin();
+			}
 			ExBase result = new ExBase(this);	// copy
 			result._baseKeys[KEY_HAT] = ExBase.NO_HAT;
 			/*--- modified : 2009/03/10 ---*/
@@ -665,6 +731,61 @@ public final class ExBase extends AbExBase implements Comparable<ExBase>
 		return toString();
 	}
 
+	/**
+	 * この基底の正規化インスタンスを返す。
+	 * 同一の基底キーを持つ正規化インスタンスが {@link ExBaseInternTable} に存在しない場合は、
+	 * このインスタンスが正規化インスタンスとなる。
+	 * 
+	 * @return 正規化インスタンス
+	 * 
+	 * @since 0.985
+	 */
+	public ExBase intern() {
+		return ExBaseInternTable.intern(this);
+	}
+
+	/**
+	 * この基底が正規化インスタンスである場合に <tt>true</tt> を返す。
+	 * 
+	 * @since 0.985
+	 */
+	public boolean isInterned() {
+		return (_internId != 0);
+	}
+
+	/**
+	 * この基底が正規化インスタンスである場合に、{@link ExBaseInternTable} により割り当てられた ID を返す。
+	 * 
+	 * @return 正規化インスタンスの ID。正規化インスタンスではない場合は 0
+	 * 
+	 * @since 0.985
+	 */
+	public int getInternId() {
+		return _internId;
+	}
+
+	/**
+	 * 基底が等しいかどうかを示す。
+	 * <br>
+	 * 基底キーが同一の場合のみ、true を返す。
+	 * 双方が正規化インスタンスの場合は、同一インスタンスの場合のみ true を返す。
+	 * 
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 * 
+	 * @since 0.985
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (_internId != 0 && (obj instanceof ExBase) && ((ExBase)obj)._internId != 0) {
+			// 正規化インスタンスは、基底キーごとに一つのみ存在する
+			return false;
+		}
+		return super.equals(obj);
+	}
+
 	//------------------------------------------------------------
 	// Comparable interfaces
 	//------------------------------------------------------------
@@ -723,6 +844,23 @@ public final class ExBase extends AbExBase implements Comparable<ExBase>
 	// Internal methods
 	//------------------------------------------------------------
 
+	/**
+	 * 正規化インスタンスについて、ハットキーのみが異なる正規化インスタンスを返す。
+	 * 初回の呼び出しで生成し、双方のインスタンスに関連付ける。
+	 */
+	private ExBase getInternedHatTwin() {
+		ExBase twin = _hatTwin;
+		if (twin == null) {
+			ExBase flipped = new ExBase(this);	// copy
+			flipped._baseKeys[KEY_HAT] = (this.isHat() ? ExBase.NO_HAT : ExBase.HAT);
+			flipped.setupStatus();
+			twin = ExBaseInternTable.intern(flipped);
+			twin._hatTwin = this;
+			_hatTwin = twin;
+		}
+		return twin;
+	}
+
 	/**
 	 * 文字列が <tt>null</tt> もしくは、長さ 0 の場合、省略記号に置き換える
 	 * 
@@ -906,6 +1044,92 @@ public final class ExBase extends AbExBase implements Comparable<ExBase>
 		return rBase;
 	}
 
+	/**
+	 * 指定された <code>reader</code> の現在位置から、指定された <code>loader</code> を使用して基底データを取得する。
+	 * <br>
+	 * 読み込む基底キーの順序、検証内容、および例外は {@link #readFieldFromCSV(exalge2.io.csv.CsvReader.CsvFieldReader)} と同一となる。
+	 * 基底キー文字列の検証結果と生成済みの基底は <code>loader</code> に保持され、
+	 * 同一の基底キーの組み合わせに対しては、同一のインスタンスを返す。
+	 * 
+	 * @param reader	読み込み対象のリーダー
+	 * @param loader	基底の生成キャッシュ
+	 * 
+	 * @return 読み込まれた値から生成された <code>ExBase</code> オブジェクト
+	 * 
+	 * @throws NullPointerException <code>reader</code> もしくは <code>loader</code> が <tt>null</tt> の場合
+	 * @throws IOException 読み込み時エラーが発生したとき
+	 * @throws CsvFormatException フィールドのデータが正しくない場合
+	 * 
+	 * @since 0.985
+	 */
+	static ExBase readFieldFromCSV(CsvReader.CsvFieldReader reader, ExBaseBulkLoader loader)
+		throws IOException, CsvFormatException
+	{
+		String strInput;
+		
+		// hat key
+		strInput = reader.readTrimmedValue();
+		String hatKey = loader.filterHatKey(strInput);
+		if (hatKey == null) {
+			throw new CsvFormatException(formatIllegalKeyMessage("hat", strInput), reader.getLineNo(), reader.getNextPosition());
+		}
+		
+		// name key : 生成済みの基底が存在しない場合のみ検証する
+		String nameInput = reader.readTrimmedValue();
+		int nameLineNo = reader.getLineNo();
+		int namePosition = reader.getNextPosition();
+		
+		// unit key
+		strInput = reader.readTrimmedValue();
+		String unitKey = loader.filterExtendedKey(KEY_EXT_UNIT, strInput);
+		if (unitKey == null) {
+			checkNameKeyField(nameInput, nameLineNo, namePosition);
+			throw new CsvFormatException(formatIllegalKeyMessage("unit", strInput), reader.getLineNo(), reader.getNextPosition());
+		}
+		
+		// time key
+		strInput = reader.readTrimmedValue();
+		String timeKey = loader.filterExtendedKey(KEY_EXT_TIME, strInput);
+		if (timeKey == null) {
+			checkNameKeyField(nameInput, nameLineNo, namePosition);
+			throw new CsvFormatException(formatIllegalKeyMessage("time", strInput), reader.getLineNo(), reader.getNextPosition());
+		}
+		
+		// subject key
+		strInput = reader.readTrimmedValue();
+		String subjectKey = loader.filterExtendedKey(KEY_EXT_SUBJECT, strInput);
+		if (subjectKey == null) {
+			checkNameKeyField(nameInput, nameLineNo, namePosition);
+			throw new CsvFormatException(formatIllegalKeyMessage("subject", strInput), reader.getLineNo(), reader.getNextPosition());
+		}
+		
+		// 検証済みの基底キーから取得
+		ExBase rBase = loader.getBase(nameInput, hatKey, unitKey, timeKey, subjectKey);
+		if (rBase == null) {
+			throw new CsvFormatException(formatIllegalKeyMessage("name", nameInput), nameLineNo, namePosition);
+		}
+		return rBase;
+	}
+
+	/**
+	 * 名前キーの入力文字列を検証し、無効な文字列の場合は例外をスローする。
+	 * 
+	 * @param nameInput	名前キーの入力文字列
+	 * @param lineNo	名前キーを読み込んだ行番号
+	 * @param position	名前キーを読み込んだ直後のフィールド位置
+	 * 
+	 * @throws CsvFormatException 名前キーが無効な文字列の場合
+	 * 
+	 * @since 0.985
+	 */
+	static private void checkNameKeyField(String nameInput, int lineNo, int position)
+		throws CsvFormatException
+	{
+		if (ExBase.Util.filterBaseKey(nameInput, false) == null) {
+			throw new CsvFormatException(formatIllegalKeyMessage("name", nameInput), lineNo, position);
+		}
+	}
+
 	/**
 	 * 指定された <code>reader</code> の現在位置から、基底データを取得する。
 	 * <br>
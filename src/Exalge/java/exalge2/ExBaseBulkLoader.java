@@ -0,0 +1,279 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Li Hou(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+/*
+ * @(#)ExBaseBulkLoader.java	0.985	2026/10/18
+ *     - created
+ */
+package exalge2;
+
+import java.util.HashMap;
+
+/**
+ * CSV ファイルなどから大量の交換代数基底を読み込む際に使用する、基底の生成キャッシュ。
+ * <p>
+ * 連続するレコードでは、名前キー以外の基底キーが同一であることが多いため、
+ * ハットキーと拡張基底キーは、直前のレコードと同一の入力文字列であれば検証済みの値をそのまま使用する。
+ * 異なる入力文字列は、文字列ごとに一度だけ検証し、その結果を保持する。
+ * <p>
+ * 生成済みの <code>ExBase</code> インスタンスは、ハットキーと名前キー以外の基底キーの組み合わせ(コンテキスト)ごとに、
+ * 名前キーの入力文字列をキーとして、ハットキーごとに保持する。同一の基底キーの組み合わせに対しては、生成済みのインスタンスを返し、
+ * 名前キーの検証も行わない。新たに生成するインスタンスは、検証済みの基底キーから直接生成し、
+ * ハッシュ値の計算は最初の使用時まで遅延する。
+ * <p>
+ * 保持する文字列およびインスタンスの数が {@link #MAX_ENTRIES} を超えた場合は、
+ * それ以降の文字列やインスタンスはキャッシュせずに、その都度検証もしくは生成する。
+ * <p>
+ * このクラスのインスタンスは、1 回の読み込み処理の間のみ使用する。
+ * <b>この実装は同期化されない</b>。
+ *
+ * @version 0.985	2026/10/18
+ *
+ * @since 0.985
+ */
+final class ExBaseBulkLoader
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	/** キャッシュごとの最大エントリ数 **/
+	static final int MAX_ENTRIES = 1 << 20;
+
+	/** 無効な基底キー文字列を示す値 **/
+	static private final String INVALID = new String("<invalid>");
+
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/** 基底キーの種類ごとの、直前の入力文字列 **/
+	private final String[] _lastInputs = new String[AbExBase.NUM_ALL_KEYS];
+	/** 基底キーの種類ごとの、直前の入力文字列の検証結果 **/
+	private final String[] _lastKeys = new String[AbExBase.NUM_ALL_KEYS];
+	/** 入力文字列ごとの、名前キーの検証結果 **/
+	private final HashMap<String, String> _nameKeys = new HashMap<String, String>();
+	/** 入力文字列ごとの、拡張基底キーの検証結果 **/
+	private final HashMap<String, String> _extendedKeys = new HashMap<String, String>();
+	/** コンテキストごとの、名前キーの入力文字列とハットキーごとの生成済みの基底のマップ **/
+	private final HashMap<Context, HashMap<String, ExBase[]>> _contexts = new HashMap<Context, HashMap<String, ExBase[]>>();
+	/** 現在のコンテキスト **/
+	private Context _context;
+	/** 現在のコンテキストの、名前キーの入力文字列とハットキーごとの生成済みの基底のマップ **/
+	private HashMap<String, ExBase[]> _bases;
+	/** 生成済みの基底の数 **/
+	private int _numBases;
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	ExBaseBulkLoader() {
+	}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * 指定された文字列をハットキーとして検証する。
+	 * 結果は {@link ExBase.Util#filterHatKey(String, boolean)} の省略を許可した場合と同一となる。
+	 * @param input	入力文字列
+	 * @return	正規化されたハットキー、無効な文字列の場合は <tt>null</tt>
+	 */
+	String filterHatKey(String input) {
+		if (input != null && input.equals(_lastInputs[AbExBase.KEY_HAT])) {
+			return _lastKeys[AbExBase.KEY_HAT];
+		}
+		String key = ExBase.Util.filterHatKey(input, true);
+		if (key != null && input != null) {
+			_lastInputs[AbExBase.KEY_HAT] = input;
+			_lastKeys[AbExBase.KEY_HAT] = key;
+		}
+		return key;
+	}
+
+	/**
+	 * 指定された文字列を名前キーとして検証する。
+	 * 結果は {@link ExBase.Util#filterBaseKey(String, boolean)} の省略を許可しない場合と同一となる。
+	 * @param input	入力文字列
+	 * @return	正規化された名前キー、無効な文字列の場合は <tt>null</tt>
+	 */
+	String filterNameKey(String input) {
+		if (input == null) {
+			return null;
+		}
+		String key = _nameKeys.get(input);
+		if (key == null) {
+			key = ExBase.Util.filterBaseKey(input, false);
+			key = memorize(_nameKeys, input, key);
+		}
+		return (key == INVALID ? null : key);
+	}
+
+	/**
+	 * 指定された文字列を拡張基底キーとして検証する。
+	 * 結果は {@link ExBase.Util#filterBaseKey(String, boolean)} の省略を許可した場合と同一となる。
+	 * @param keyIndex	基底キーのインデックス
+	 * @param input		入力文字列
+	 * @return	正規化された拡張基底キー、無効な文字列の場合は <tt>null</tt>
+	 */
+	String filterExtendedKey(int keyIndex, String input) {
+		if (input == null) {
+			return ExBase.OMITTED;
+		}
+		if (input.equals(_lastInputs[keyIndex])) {
+			return _lastKeys[keyIndex];
+		}
+		String key = _extendedKeys.get(input);
+		if (key == null) {
+			key = ExBase.Util.filterBaseKey(input, true);
+			key = memorize(_extendedKeys, input, key);
+		}
+		if (key == INVALID) {
+			return null;
+		}
+		_lastInputs[keyIndex] = input;
+		_lastKeys[keyIndex] = key;
+		return key;
+	}
+
+	/**
+	 * 指定された名前キーの入力文字列と検証済みの基底キーから、交換代数基底を取得する。
+	 * 同一の基底キーの組み合わせで生成済みの基底が存在する場合は、そのインスタンスを返す。
+	 * 存在しない場合は、名前キーを検証して新しい基底を生成する。
+	 * ハットキーと拡張基底キーは、このオブジェクトの <code>filter</code> メソッドによって検証された文字列であること。
+	 * @param nameInput		名前キーの入力文字列
+	 * @param hatKey		ハットキー
+	 * @param unitKey		単位キー
+	 * @param timeKey		時間キー
+	 * @param subjectKey	サブジェクトキー
+	 * @return	交換代数基底、名前キーが無効な文字列の場合は <tt>null</tt>
+	 */
+	ExBase getBase(String nameInput, String hatKey, String unitKey, String timeKey, String subjectKey) {
+		if (_context == null || !_context.matches(unitKey, timeKey, subjectKey)) {
+			switchContext(unitKey, timeKey, subjectKey);
+		}
+		int hatIndex = (ExBase.HAT.equals(hatKey) ? 1 : 0);
+		ExBase[] bases = (nameInput == null ? null : _bases.get(nameInput));
+		if (bases != null && bases[hatIndex] != null) {
+			return bases[hatIndex];
+		}
+		
+		// 新しい基底の生成
+		String nameKey = filterNameKey(nameInput);
+		if (nameKey == null) {
+			return null;
+		}
+		ExBase base = ExBase.newValidatedInstance(nameKey, hatKey, unitKey, timeKey, subjectKey);
+		if (_numBases < MAX_ENTRIES) {
+			if (bases == null) {
+				bases = new ExBase[2];
+				_bases.put(nameInput, bases);
+			}
+			bases[hatIndex] = base;
+			_numBases++;
+		}
+		return base;
+	}
+
+	/**
+	 * 生成済みの基底の数を返す。
+	 */
+	int getNumCachedBases() {
+		return _numBases;
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	/**
+	 * 指定された基底キーの組み合わせを、現在のコンテキストとする。
+	 */
+	private void switchContext(String unitKey, String timeKey, String subjectKey) {
+		Context context = new Context(unitKey, timeKey, subjectKey);
+		HashMap<String, ExBase[]> bases = _contexts.get(context);
+		if (bases == null) {
+			bases = new HashMap<String, ExBase[]>();
+			_contexts.put(context, bases);
+		}
+		_context = context;
+		_bases = bases;
+	}
+
+	/**
+	 * 検証結果を保持し、保持した値を返す。無効な文字列の場合は {@link #INVALID} を返す。
+	 * 同一の文字列を共有するため、正規化された文字列が入力文字列と等しい場合は、入力文字列を保持する。
+	 */
+	static private String memorize(HashMap<String, String> cache, String input, String key) {
+		if (key == null) {
+			key = INVALID;
+		} else if (key.equals(input)) {
+			key = input;
+		}
+		if (cache.size() < MAX_ENTRIES) {
+			cache.put(input, key);
+		}
+		return key;
+	}
+
+	//------------------------------------------------------------
+	// Inner classes
+	//------------------------------------------------------------
+
+	/**
+	 * ハットキーと名前キー以外の基底キーの組み合わせ。
+	 */
+	static private final class Context
+	{
+		private final String _unit;
+		private final String _time;
+		private final String _subject;
+		private final int _hash;
+
+		Context(String unitKey, String timeKey, String subjectKey) {
+			_unit = unitKey;
+			_time = timeKey;
+			_subject = subjectKey;
+			int h = unitKey.hashCode();
+			h = h * 31 + timeKey.hashCode();
+			h = h * 31 + subjectKey.hashCode();
+			_hash = h;
+		}
+
+		boolean matches(String unitKey, String timeKey, String subjectKey) {
+			return (_unit.equals(unitKey) && _time.equals(timeKey) && _subject.equals(subjectKey));
+		}
+
+		@Override
+		public int hashCode() {
+			return _hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this)
+				return true;
+			if (!(obj instanceof Context))
+				return false;
+			Context aContext = (Context)obj;
+			return (_hash == aContext._hash && matches(aContext._unit, aContext._time, aContext._subject));
+		}
+	}
+}
@@ -0,0 +1,300 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Li Hou(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+/*
+ * @(#)ExBaseInternTable.java	0.985	2026/10/18
+ *     - created
+ */
+package exalge2;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * 交換代数基底と基底キー文字列の正規化(インターン)テーブル。
+ * <p>
+ * このテーブルは、同一の基底キーを持つ交換代数基底を一つのインスタンス(正規化インスタンス)に集約し、
+ * 正規化インスタンスごとに 1 から始まる一意の整数 ID を割り当てる。正規化インスタンスの基底キー文字列も、
+ * 同一の文字列が一つのインスタンスとなるように置き換えられる。
+ * 正規化インスタンス同士の {@link ExBase#equals(Object)} は、インスタンスの同一性のみで判定される。
+ * また、正規化インスタンスの {@link ExBase#hat()}、{@link ExBase#setHat()}、{@link ExBase#removeHat()} は、
+ * ハットキーのみが異なる正規化インスタンスを返す。
+ * <p>
+ * このテーブルは正規化インスタンスを弱参照で保持する。どこからも参照されなくなった正規化インスタンスは
+ * ガベージコレクションによりテーブルから除去され、その ID は新たな正規化インスタンスに再利用される。
+ * <p>
+ * {@link #isEnabled()} が <tt>true</tt> の場合、{@link Exalge} は格納する基底を正規化する。
+ * 初期状態は、システムプロパティ {@value #PROPERTY_ENABLED} が "true" の場合に有効となる。
+ * <p>
+ * このクラスはスレッドセーフである。
+ *
+ * @version 0.985	2026/10/18
+ *
+ * @since 0.985
+ */
+public final class ExBaseInternTable
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	/** 交換代数での基底の正規化を有効にするシステムプロパティのキー **/
+	static public final String PROPERTY_ENABLED = "exalge2.ExBase.intern";
+
+	/** テーブルの分割数(2 のべき乗) **/
+	static private final int NUM_SEGMENTS = 16;
+
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/** 交換代数での基底の正規化が有効であれば <tt>true</tt> **/
+	static private volatile boolean _enabled = Boolean.getBoolean(PROPERTY_ENABLED);
+
+	/** 正規化インスタンスのテーブル **/
+	static private final BaseSegment[] _baseSegments = new BaseSegment[NUM_SEGMENTS];
+	/** 基底キー文字列のテーブル **/
+	static private final KeySegment[] _keySegments = new KeySegment[NUM_SEGMENTS];
+	/** 除去された正規化インスタンスの参照キュー **/
+	static private final ReferenceQueue<ExBase> _queue = new ReferenceQueue<ExBase>();
+
+	/** ID 管理用のロック **/
+	static private final Object _idLock = new Object();
+	/** ID をインデックスとする正規化インスタンスの参照 **/
+	static private BaseRef[] _idTable = new BaseRef[1024];
+	/** 次に割り当てる新しい ID **/
+	static private int _nextId = 1;
+	/** 再利用可能な ID **/
+	static private int[] _freeIds = new int[64];
+	/** 再利用可能な ID の数 **/
+	static private int _numFreeIds = 0;
+
+	static {
+		for (int i = 0; i < NUM_SEGMENTS; i++) {
+			_baseSegments[i] = new BaseSegment();
+			_keySegments[i] = new KeySegment();
+		}
+	}
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	private ExBaseInternTable() {}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * 交換代数で格納する基底を正規化する場合に <tt>true</tt> を返す。
+	 */
+	static public boolean isEnabled() {
+		return _enabled;
+	}
+
+	/**
+	 * 交換代数で格納する基底を正規化するかを設定する。
+	 * この設定は、すでに格納されている基底には影響しない。
+	 * @param enabled	正規化する場合は <tt>true</tt>
+	 */
+	static public void setEnabled(boolean enabled) {
+		_enabled = enabled;
+	}
+
+	/**
+	 * 指定された基底の正規化インスタンスを返す。
+	 * 同一の基底キーを持つ正規化インスタンスが存在しない場合、指定されたインスタンスを
+	 * 正規化インスタンスとして登録し、そのインスタンスを返す。
+	 * @param base	正規化する基底
+	 * @return	正規化インスタンス。引数が <tt>null</tt> の場合は <tt>null</tt>
+	 */
+	static public ExBase intern(ExBase base) {
+		if (base == null || base._internId != 0) {
+			return base;
+		}
+		expungeStaleEntries();
+
+		BaseSegment seg = _baseSegments[segmentIndex(base.hashCode())];
+		synchronized (seg) {
+			BaseRef ref = seg.bases.get(base);
+			if (ref != null) {
+				ExBase canonical = ref.get();
+				if (canonical != null) {
+					return canonical;
+				}
+			}
+
+			// 基底キー文字列の正規化(値は変化しない)
+			String[] keys = base._baseKeys;
+			for (int i = 0; i < keys.length; i++) {
+				keys[i] = internKey(keys[i]);
+			}
+
+			// 登録
+			ref = register(base);
+			seg.bases.put(base, ref);
+			return base;
+		}
+	}
+
+	/**
+	 * 指定された基底キー文字列の正規化インスタンスを返す。
+	 * @param key	基底キー文字列
+	 * @return	正規化された文字列。引数が <tt>null</tt> の場合は <tt>null</tt>
+	 */
+	static public String internKey(String key) {
+		if (key == null) {
+			return null;
+		}
+		KeySegment seg = _keySegments[segmentIndex(key.hashCode())];
+		synchronized (seg) {
+			WeakReference<String> ref = seg.keys.get(key);
+			if (ref != null) {
+				String canonical = ref.get();
+				if (canonical != null) {
+					return canonical;
+				}
+			}
+			seg.keys.put(key, new WeakReference<String>(key));
+			return key;
+		}
+	}
+
+	/**
+	 * 指定された ID の正規化インスタンスを返す。
+	 * @param id	正規化インスタンスの ID
+	 * @return	正規化インスタンス。該当するインスタンスが存在しない場合は <tt>null</tt>
+	 */
+	static public ExBase getBase(int id) {
+		synchronized (_idLock) {
+			if (id <= 0 || id >= _nextId) {
+				return null;
+			}
+			BaseRef ref = _idTable[id];
+			return (ref == null ? null : ref.get());
+		}
+	}
+
+	/**
+	 * 現在登録されている正規化インスタンスの数を返す。
+	 * ガベージコレクションにより除去された直後のインスタンスが含まれる場合がある。
+	 */
+	static public int size() {
+		expungeStaleEntries();
+		synchronized (_idLock) {
+			return (_nextId - 1 - _numFreeIds);
+		}
+	}
+
+	/**
+	 * 割り当てられている ID の最大値を返す。
+	 * すべての正規化インスタンスの ID は、1 以上この値以下となる。
+	 */
+	static public int maxId() {
+		synchronized (_idLock) {
+			return (_nextId - 1);
+		}
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	static private int segmentIndex(int hash) {
+		hash ^= (hash >>> 16);
+		return (hash & (NUM_SEGMENTS - 1));
+	}
+
+	/**
+	 * 指定された基底に ID を割り当て、ID のテーブルに登録する。
+	 */
+	static private BaseRef register(ExBase base) {
+		synchronized (_idLock) {
+			int id;
+			if (_numFreeIds > 0) {
+				id = _freeIds[--_numFreeIds];
+			} else {
+				id = _nextId++;
+				if (id >= _idTable.length) {
+					BaseRef[] newTable = new BaseRef[_idTable.length * 2];
+					System.arraycopy(_idTable, 0, newTable, 0, _idTable.length);
+					_idTable = newTable;
+				}
+			}
+			BaseRef ref = new BaseRef(base, id, _queue);
+			_idTable[id] = ref;
+			base._internId = id;
+			return ref;
+		}
+	}
+
+	/**
+	 * ガベージコレクションにより除去された正規化インスタンスの ID を解放する。
+	 */
+	static private void expungeStaleEntries() {
+		BaseRef ref;
+		while ((ref = (BaseRef)_queue.poll()) != null) {
+			synchronized (_idLock) {
+				if (_idTable[ref.id] == ref) {
+					_idTable[ref.id] = null;
+					if (_numFreeIds >= _freeIds.length) {
+						int[] newIds = new int[_freeIds.length * 2];
+						System.arraycopy(_freeIds, 0, newIds, 0, _numFreeIds);
+						_freeIds = newIds;
+					}
+					_freeIds[_numFreeIds++] = ref.id;
+				}
+			}
+		}
+	}
+
+	//------------------------------------------------------------
+	// Inner classes
+	//------------------------------------------------------------
+
+	/**
+	 * ID を保持する正規化インスタンスの弱参照。
+	 */
+	static private final class BaseRef extends WeakReference<ExBase>
+	{
+		public final int id;
+
+		public BaseRef(ExBase base, int id, ReferenceQueue<ExBase> queue) {
+			super(base, queue);
+			this.id = id;
+		}
+	}
+
+	/**
+	 * 正規化インスタンスのテーブルの分割単位。
+	 */
+	static private final class BaseSegment
+	{
+		public final WeakHashMap<ExBase,BaseRef> bases = new WeakHashMap<ExBase,BaseRef>();
+	}
+
+	/**
+	 * 基底キー文字列のテーブルの分割単位。
+	 */
+	static private final class KeySegment
+	{
+		public final WeakHashMap<String,WeakReference<String>> keys = new WeakHashMap<String,WeakReference<String>>();
+	}
+}
@@ -0,0 +1,311 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Li Hou(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+/*
+ * @(#)ExBasePatternMatchIndex.java	0.985	2026/10/18
+ *     - created
+ */
+package exalge2;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+
+/**
+ * 基底パターンの登録順を維持したまま、指定された基底に最初に一致する基底パターンを検索するためのインデックス。
+ * <p>
+ * 基底パターンは、ハットキー以外の基底キーについて、次の優先順位で一つの検索キーを選択して登録される。
+ * <ol>
+ * <li>ワイルドカードを含まない基底キー(固定キー)があれば、その固定文字列のハッシュ表
+ * <li>先頭が固定文字列の基底キー(例：<code>"A01*"</code>)があれば、その先頭文字列のトライ木
+ * <li>ハットキーが固定キーであれば、ハットキーのハッシュ表
+ * <li>上記以外は、インデックスを持たない基底パターンのリスト
+ * </ol>
+ * 検索では、基底の基底キーから候補となる基底パターンのみを取り出して一致を検証し、
+ * 一致した基底パターンのうち最も登録順の早いものを返す。そのため、登録されたすべての基底パターンを
+ * 登録順に検証し、最初に一致したものを返す場合と同一の結果となる。
+ * <p>
+ * このインデックスは生成後に変更されない。基底パターンの集合が変更された場合は、新しいインデックスを生成すること。
+ *
+ * @version 0.985	2026/10/18
+ *
+ * @since 0.985
+ */
+final class ExBasePatternMatchIndex
+{
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/** 登録順の基底パターン **/
+	private final ExBasePattern[] patterns;
+	/** 基底キーごとの、固定キーと基底パターン番号リストとのマップ **/
+	private final ArrayList<HashMap<String,OrdinalList>> fixedKeyIndex;
+	/** 基底キーごとの、先頭固定文字列のトライ木 **/
+	private final PrefixNode[] prefixKeyIndex;
+	/** インデックスを持たない基底パターンの番号リスト **/
+	private final OrdinalList noIndexPatterns;
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	/**
+	 * 指定されたコレクションの基底パターンを、コレクションの反復子が返す順序で登録したインデックスを生成する。
+	 * @param patterns	登録する基底パターンのコレクション
+	 * @throws NullPointerException	引数が <tt>null</tt> の場合
+	 */
+	public ExBasePatternMatchIndex(Collection<ExBasePattern> patterns) {
+		this.patterns = patterns.toArray(new ExBasePattern[patterns.size()]);
+		this.fixedKeyIndex = new ArrayList<HashMap<String,OrdinalList>>(AbExBase.NUM_ALL_KEYS);
+		for (int i = 0; i < AbExBase.NUM_ALL_KEYS; i++) {
+			this.fixedKeyIndex.add(null);
+		}
+		this.prefixKeyIndex = new PrefixNode[AbExBase.NUM_ALL_KEYS];
+		this.noIndexPatterns = new OrdinalList();
+
+		for (int ordinal = 0; ordinal < this.patterns.length; ordinal++) {
+			String[] keys = this.patterns[ordinal]._baseKeys;
+			int fixedKey = -1;
+			int prefixKey = -1;
+			int prefixLen = 0;
+			for (int i = 0; i < keys.length; i++) {
+				if (i == AbExBase.KEY_HAT) {
+					continue;
+				}
+				int pos = keys[i].indexOf(ExBasePattern.WILDCARD_CHAR);
+				if (pos < 0) {
+					fixedKey = i;
+					break;
+				}
+				else if (pos > 0 && prefixKey < 0) {
+					prefixKey = i;
+					prefixLen = pos;
+				}
+			}
+			if (fixedKey < 0 && prefixKey < 0 && keys[AbExBase.KEY_HAT].indexOf(ExBasePattern.WILDCARD_CHAR) < 0) {
+				fixedKey = AbExBase.KEY_HAT;
+			}
+
+			if (fixedKey >= 0) {
+				//--- 固定キー
+				HashMap<String,OrdinalList> index = fixedKeyIndex.get(fixedKey);
+				if (index == null) {
+					index = new HashMap<String,OrdinalList>();
+					fixedKeyIndex.set(fixedKey, index);
+				}
+				OrdinalList list = index.get(keys[fixedKey]);
+				if (list == null) {
+					list = new OrdinalList();
+					index.put(keys[fixedKey], list);
+				}
+				list.add(ordinal);
+			}
+			else if (prefixKey >= 0) {
+				//--- 先頭固定文字列
+				PrefixNode node = prefixKeyIndex[prefixKey];
+				if (node == null) {
+					node = new PrefixNode();
+					prefixKeyIndex[prefixKey] = node;
+				}
+				String key = keys[prefixKey];
+				for (int pos = 0; pos < prefixLen; pos++) {
+					node = node.addChild(key.charAt(pos));
+				}
+				if (node.ordinals == null) {
+					node.ordinals = new OrdinalList();
+				}
+				node.ordinals.add(ordinal);
+			}
+			else {
+				//--- インデックスなし
+				noIndexPatterns.add(ordinal);
+			}
+		}
+	}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * このインデックスに登録されている基底パターンの数を返す。
+	 */
+	public int size() {
+		return patterns.length;
+	}
+
+	/**
+	 * 指定された基底に一致する基底パターンのうち、最も登録順の早いものを返す。
+	 * @param targetBase	検証する基底
+	 * @return	一致する基底パターンを返す。
+	 * 			一致するパターンが存在しない場合、もしくは引数が <tt>null</tt> の場合は <tt>null</tt> を返す。
+	 */
+	public ExBasePattern matches(ExBase targetBase) {
+		if (targetBase == null) {
+			return null;
+		}
+
+		String[] baseKeys = targetBase._baseKeys;
+		int first = patterns.length;
+
+		// 固定キーを持つパターン
+		for (int i = 0; i < fixedKeyIndex.size(); i++) {
+			HashMap<String,OrdinalList> index = fixedKeyIndex.get(i);
+			if (index != null) {
+				OrdinalList list = index.get(baseKeys[i]);
+				if (list != null) {
+					first = list.firstMatch(patterns, targetBase, first);
+				}
+			}
+		}
+
+		// 先頭固定文字列を持つパターン
+		for (int i = 0; i < prefixKeyIndex.length; i++) {
+			PrefixNode node = prefixKeyIndex[i];
+			if (node != null) {
+				String key = baseKeys[i];
+				int len = key.length();
+				for (int pos = 0; pos < len; pos++) {
+					node = node.getChild(key.charAt(pos));
+					if (node == null) {
+						break;
+					}
+					if (node.ordinals != null) {
+						first = node.ordinals.firstMatch(patterns, targetBase, first);
+					}
+				}
+			}
+		}
+
+		// インデックスを持たないパターン
+		first = noIndexPatterns.firstMatch(patterns, targetBase, first);
+
+		return (first < patterns.length ? patterns[first] : null);
+	}
+
+	//------------------------------------------------------------
+	// Inner classes
+	//------------------------------------------------------------
+
+	/**
+	 * 昇順に追加される基底パターン番号のリスト。
+	 */
+	static private final class OrdinalList
+	{
+		private int[] values = new int[2];
+		private int size = 0;
+
+		public void add(int ordinal) {
+			if (size >= values.length) {
+				int[] newValues = new int[values.length * 2];
+				System.arraycopy(values, 0, newValues, 0, size);
+				values = newValues;
+			}
+			values[size++] = ordinal;
+		}
+
+		/**
+		 * このリストの基底パターンのうち、番号が <em>limit</em> より小さく、指定された基底に一致する
+		 * 最初の基底パターンの番号を返す。
+		 * @param patterns		登録順の基底パターン
+		 * @param targetBase	検証する基底
+		 * @param limit			検索する番号の上限(この値は含まない)
+		 * @return	一致した基底パターンの番号、一致するものがない場合は <em>limit</em>
+		 */
+		public int firstMatch(ExBasePattern[] patterns, ExBase targetBase, int limit) {
+			for (int i = 0; i < size; i++) {
+				int ordinal = values[i];
+				if (ordinal >= limit) {
+					break;
+				}
+				if (patterns[ordinal].matches(targetBase)) {
+					return ordinal;
+				}
+			}
+			return limit;
+		}
+	}
+
+	/**
+	 * 先頭固定文字列のトライ木のノード。
+	 * 子ノードは文字の昇順に保持する。
+	 */
+	static private final class PrefixNode
+	{
+		private char[] childChars = null;
+		private PrefixNode[] children = null;
+		private int numChildren = 0;
+		/** このノードまでの文字列を先頭固定文字列とする基底パターンの番号リスト **/
+		public OrdinalList ordinals = null;
+
+		public PrefixNode getChild(char c) {
+			int index = indexOf(c);
+			return (index >= 0 ? children[index] : null);
+		}
+
+		public PrefixNode addChild(char c) {
+			int index = indexOf(c);
+			if (index >= 0) {
+				return children[index];
+			}
+
+			index = -(index + 1);
+			if (children == null) {
+				childChars = new char[2];
+				children = new PrefixNode[2];
+			}
+			else if (numChildren >= children.length) {
+				char[] newChars = new char[children.length * 2];
+				PrefixNode[] newChildren = new PrefixNode[children.length * 2];
+				System.arraycopy(childChars, 0, newChars, 0, numChildren);
+				System.arraycopy(children, 0, newChildren, 0, numChildren);
+				childChars = newChars;
+				children = newChildren;
+			}
+			System.arraycopy(childChars, index, childChars, index + 1, numChildren - index);
+			System.arraycopy(children, index, children, index + 1, numChildren - index);
+			PrefixNode node = new PrefixNode();
+			childChars[index] = c;
+			children[index] = node;
+			numChildren++;
+			return node;
+		}
+
+		/**
+		 * 指定された文字の子ノードの位置を二分探索で求める。
+		 * 存在しない場合は (-(挿入位置) - 1) を返す。
+		 */
+		private int indexOf(char c) {
+			int low = 0;
+			int high = numChildren - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				char midChar = childChars[mid];
+				if (midChar < c) {
+					low = mid + 1;
+				} else if (midChar > c) {
+					high = mid - 1;
+				} else {
+					return mid;
+				}
+			}
+			return -(low + 1);
+		}
+	}
+}
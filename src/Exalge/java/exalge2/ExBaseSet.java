@@ -17,6 +17,8 @@
  *  <author> Yasunari Ishizuka(PieCake.inc,)
  */
 /*
+ * @(#)ExBaseSet.java	0.985	2026/10/18 - CSV bulk loading
+ *     - modified
  * @(#)ExBaseSet.java	0.984	2014/05/29
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)ExBaseSet.java	0.982	2009/09/13
@@ -141,7 +143,7 @@ import exalge2.io.xml.XmlDomParseException;
  * なお、XML ドキュメントの入出力は、{@link #toXML()}、{@link #fromXML(XmlDocument)} により行う。
  * また、XML ファイルの入出力は、{@link #toXML(File)}、{@link #fromXML(File)} により行う。
  * 
- * @version 0.984	2014/05/29
+ * @version 0.985	2026/10/18
  * 
  * @author H.Deguchi(SOARS Project.)
  * @author Y.Ishizuka(PieCake.inc,)
@@ -1013,6 +1015,9 @@ public class ExBaseSet extends LinkedHashSet<ExBase> implements exalge2.io.IData
 	{
 		CsvReader.CsvRecord record;
 		
+		// 基底の生成キャッシュ
+		ExBaseBulkLoader loader = new ExBaseBulkLoader();
+		
 		// コメントは有効
 		reader.setLineCommentEnable(true);
 		
@@ -1025,7 +1030,7 @@ public class ExBaseSet extends LinkedHashSet<ExBase> implements exalge2.io.IData
 			
 			// フィールドの値読み出し
 			CsvReader.CsvFieldReader freader = new CsvReader.CsvFieldReader(record);
-			ExBase base = ExBase.readFieldFromCSV(freader);
+			ExBase base = ExBase.readFieldFromCSV(freader, loader);
 			
 			// add
 			fastAdd(base);
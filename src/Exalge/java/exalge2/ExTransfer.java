@@ -17,6 +17,8 @@
  *  <author> Yasunari Ishizuka(PieCake.inc,)
  */
 /*
+ * @(#)ExTransfer.java	0.985	2026/10/18 - index for transfer source patterns, XML streaming
+ *     - modified
  * @(#)ExTransfer.java	0.984	2014/05/29
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)ExTransfer.java	0.982	2009/10/09 - test for ExBasePatternMultiMap use LinkedHashMap
@@ -59,6 +61,8 @@ import exalge2.io.csv.CsvReader;
 import exalge2.io.csv.CsvWriter;
 import exalge2.io.xml.XmlDocument;
 import exalge2.io.xml.XmlDomParseException;
+import exalge2.io.xml.XmlStreamParser;
+import exalge2.io.xml.XmlStreamWriter;
 
 /**
  * 交換代数の変換定義を保持する変換テーブル。
@@ -224,8 +228,10 @@ import exalge2.io.xml.XmlDomParseException;
  * </ul>
  * なお、XML ドキュメントの入出力は、{@link #toXML()}、{@link #fromXML(XmlDocument)} により行う。
  * また、XML ファイルの入出力は、{@link #toXML(File)}、{@link #fromXML(File)} により行う。
+ * 大規模な XML ファイルの入出力には、XML ドキュメント全体を生成せずに逐次処理する
+ * {@link #toXmlStream(File)}、{@link #fromXmlStream(File)} を使用できる。
  * 
- * @version 0.984	2014/05/29
+ * @version 0.985	2026/10/18
  * 
  * @author H.Deguchi(SOARS Project.)
  * @author Y.Ishizuka(PieCake.inc,)
@@ -282,6 +288,12 @@ public class ExTransfer implements exalge2.io.IDataOutput, Cloneable
 	protected ExBasePatternMultiMap backmap;
 	
 	protected ExBasePatternIndexSet patIndex;
+	/**
+	 * 登録順を維持した変換元基底パターンの検索用インデックス。変換元基底パターンが変更された場合は
+	 * <tt>null</tt> となり、次の検索時に再生成される。
+	 * @since 0.985
+	 */
+	private ExBasePatternMatchIndex fromIndex;
 	
 	protected int numElements = 0;
 
@@ -350,6 +362,7 @@ public class ExTransfer implements exalge2.io.IDataOutput, Cloneable
 		if (patIndex != null) {
 			patIndex.clear();
 		}
+		fromIndex = null;
 	}
 
 	/**
@@ -1378,6 +1391,7 @@ public class ExTransfer implements exalge2.io.IDataOutput, Cloneable
 				if (patIndex != null) {
 					patIndex.remove(from);
 				}
+				fromIndex = null;
 			}
 			backmap.remove(to, from);
 			numElements--;
@@ -1412,6 +1426,7 @@ public class ExTransfer implements exalge2.io.IDataOutput, Cloneable
 		}
 		ITransferEntryMap entrymap = map.remove(from);
 		if (entrymap != null) {
+			fromIndex = null;
 			for (ExBasePattern toPattern : entrymap.keySet()) {
 				backmap.remove(toPattern, from);
 			}
@@ -1434,6 +1449,10 @@ public class ExTransfer implements exalge2.io.IDataOutput, Cloneable
 	 * 最初に一致した変換元基底パターンを返す。
 	 * <br>
 	 * 一致するパターンが存在しない場合は <tt>null</tt> を返す。
+	 * <p>
+	 * <b>(0.985)</b> インデックスを使用する場合、変換元基底パターンの検索は、最初の呼び出し時に生成される
+	 * 登録順を維持したインデックスにより行う。このインデックスは変換元基底パターンが変更されると破棄され、
+	 * 次の呼び出し時に再生成される。
 	 * 
 	 * @param targetBase パターンとの一致を検証する基底
 	 * 
@@ -1446,7 +1465,15 @@ public class ExTransfer implements exalge2.io.IDataOutput, Cloneable
 		}
 		
 		if (patIndex != null) {
-			return patIndex.matches(targetBase);
+			if (map.isEmpty()) {
+				return null;
+			}
+			ExBasePatternMatchIndex index = fromIndex;
+			if (index == null) {
+				index = new ExBasePatternMatchIndex(map.keySet());
+				fromIndex = index;
+			}
+			return index.matches(targetBase);
 		}
 		
 		for (ExBasePattern fromPattern : map.keySet()) {
@@ -1650,6 +1677,7 @@ public class ExTransfer implements exalge2.io.IDataOutput, Cloneable
 			if (this.patIndex != null) {
 				dup.patIndex = new ExBasePatternIndexSet();
 			}
+			dup.fromIndex = null;
 			dup.numElements = 0;
 			
 			for (Map.Entry<ExBasePattern, ITransferEntryMap> entry : this.map.entrySet()) {
@@ -1917,6 +1945,7 @@ public class ExTransfer implements exalge2.io.IDataOutput, Cloneable
 			if (patIndex != null) {
 				patIndex.add(from);
 			}
+			fromIndex = null;
 			return true;
 		}
 		
@@ -1975,6 +2004,7 @@ public class ExTransfer implements exalge2.io.IDataOutput, Cloneable
 			if (patIndex != null) {
 				patIndex.add(from);
 			}
+			fromIndex = null;
 			return (!removedExistEntry);
 		}
 		
@@ -2318,6 +2348,84 @@ public class ExTransfer implements exalge2.io.IDataOutput, Cloneable
 		
 		return ExTransfer.fromXML(xmlDocument);
 	}
+	
+	/**
+	 * 変換テーブルの内容を、指定のファイルに XML フォーマットで逐次出力する。
+	 * <p>
+	 * 出力されるフォーマットは {@link #toXML(File)} と同一だが、XML ドキュメント全体を生成せずに
+	 * 変換定義ごとに出力するため、メモリ使用量は変換定義数に依存しない。
+	 * 
+	 * @param xmlFile 出力先ファイル
+	 * 
+	 * @throws FactoryConfigurationError XML の実装が使用できないかインスタンス化できない場合
+	 * @throws ParserConfigurationException DocumentBuilder を構成できない場合
+	 * @throws DOMException タグの生成に失敗した場合
+	 * @throws IOException 入出力エラーが発生した場合
+	 * 
+	 * @since 0.985
+	 */
+	public void toXmlStream(File xmlFile)
+		throws FactoryConfigurationError, ParserConfigurationException, DOMException, IOException
+	{
+		XmlDocument xml = new XmlDocument();
+		XmlStreamWriter writer = new XmlStreamWriter(xmlFile);
+		try {
+			writer.startDocument();
+			writer.startElement(XML_ROOT_ELEMENT_NAME);
+			for (Map.Entry<ExBasePattern, ITransferEntryMap> entry : map.entrySet()) {
+				writer.writeElement(encodeItemToDomElement(xml, entry.getKey(), entry.getValue()));
+			}
+			writer.endDocument();
+		}
+		finally {
+			writer.close();
+		}
+	}
+	
+	/**
+	 * XML フォーマットのファイルを逐次読み込み、新しい変換テーブルを生成する。
+	 * <p>
+	 * 生成される変換テーブルは {@link #fromXML(File)} と同一だが、ファイル全体の XML ドキュメントを
+	 * 生成せずに変換定義ごとに解析する。解析中にエラーが発生した場合の例外も、{@link #fromXML(File)} と同一となる。
+	 * ただし、XML 文書構成エラーよりも前に XML ノード解析エラーが検出された場合は、
+	 * {@link XmlDomParseException} がスローされる。
+	 * 
+	 * @param xmlFile 読み込む XML ファイル
+	 * 
+	 * @return ファイルの内容で生成された、新しい <code>ExTransfer</code> インスタンスを返す。
+	 * 
+	 * @throws FactoryConfigurationError XML の実装が使用できないかインスタンス化できない場合
+	 * @throws ParserConfigurationException SAXParser を構成できない場合
+	 * @throws IOException 入出力エラーが発生した場合
+	 * @throws SAXException XML文書構成がエラーの場合
+	 * @throws XmlDomParseException XML ノード解析エラーが発生した場合
+	 * 
+	 * @since 0.985
+	 */
+	static public ExTransfer fromXmlStream(File xmlFile)
+		throws FactoryConfigurationError, ParserConfigurationException, IOException, SAXException,
+				XmlDomParseException
+	{
+		final ExTransfer newTransfer = new ExTransfer();
+		XmlStreamParser decoder = new XmlStreamParser(1) {
+			@Override
+			protected void decodeContainerElement(XmlDocument xmlDocument, Element xmlElement)
+				throws XmlDomParseException
+			{
+				checkRootElementName(xmlElement);
+			}
+			@Override
+			protected void decodeItemElement(XmlDocument xmlDocument, Element xmlElement)
+				throws XmlDomParseException
+			{
+				newTransfer.decodeItemFromDomElement(xmlDocument, xmlElement);
+			}
+		};
+		decoder.parse(xmlFile);
+		newTransfer.checkTotalRatios();
+		
+		return newTransfer;
+	}
 
 	//------------------------------------------------------------
 	// Internal methods for I/O
@@ -2524,41 +2632,55 @@ public class ExTransfer implements exalge2.io.IDataOutput, Cloneable
 
 		// create items
 		for (Map.Entry<ExBasePattern, ITransferEntryMap> entry : map.entrySet()) {
-			// create item element
-			Element itemElement = xmlDocument.createElement(XML_ITEM_ELEMENT_NAME);
-			// create ElemFrom element
-			Element fromElement = xmlDocument.createElement(XML_FROM_ELEMENT_NAME);
-			ExBasePattern from = entry.getKey();
-			fromElement.appendChild(from.encodeToDomElement(xmlDocument, false));
-			itemElement.appendChild(fromElement);
-			// create ElemTo element
-			ITransferEntryMap entrymap = entry.getValue();
-			for (Map.Entry<ExBasePattern, TransferAttribute> elem : entrymap.entrySet()) {
-				ExBasePattern to = elem.getKey();
-				TransferAttribute attr = elem.getValue();
-				Element toElement = xmlDocument.createElement(XML_TO_ELEMENT_NAME);
-				if (ATTR_HAT == attr.getName()) {
-					toElement.setAttribute(XML_ELEMTO_ATTR, attr.getName());
-				}
-				else if (ATTR_AGGRE != attr.getName()) {
-					toElement.setAttribute(XML_ELEMTO_ATTR, attr.getName());
-					if (BigDecimal.ZERO.compareTo(attr.getValue()) == 0) {
-						toElement.setAttribute(XML_ELEMTO_VALUE, BigDecimal.ZERO.toPlainString());
-					} else {
-						toElement.setAttribute(XML_ELEMTO_VALUE, attr.getValue().stripTrailingZeros().toPlainString());
-					}
-				}
-				//--- ATTR_AGGRE の場合、XMLノードの属性は省略する
-				toElement.appendChild(to.encodeToDomElement(xmlDocument, false));
-				itemElement.appendChild(toElement);
-			}
-			node.appendChild(itemElement);
+			node.appendChild(encodeItemToDomElement(xmlDocument, entry.getKey(), entry.getValue()));
 		}
 		
 		// completed
 		return node;
 	}
 
+	/**
+	 * 一つの変換元基底パターンと、その変換元基底パターンの変換先定義を、&lt;ExTransferElem&gt; 要素に変換する。
+	 * 
+	 * @param xmlDocument	エレメント生成に使用する XML DOM ドキュメント
+	 * @param from			変換元基底パターン
+	 * @param entrymap		変換先定義
+	 * @return	生成されたエレメントを返す。
+	 * @throws DOMException	タグの生成に失敗した場合
+	 * @since 0.985
+	 */
+	protected Element encodeItemToDomElement(XmlDocument xmlDocument, ExBasePattern from, ITransferEntryMap entrymap)
+		throws DOMException
+	{
+		// create item element
+		Element itemElement = xmlDocument.createElement(XML_ITEM_ELEMENT_NAME);
+		// create ElemFrom element
+		Element fromElement = xmlDocument.createElement(XML_FROM_ELEMENT_NAME);
+		fromElement.appendChild(from.encodeToDomElement(xmlDocument, false));
+		itemElement.appendChild(fromElement);
+		// create ElemTo element
+		for (Map.Entry<ExBasePattern, TransferAttribute> elem : entrymap.entrySet()) {
+			ExBasePattern to = elem.getKey();
+			TransferAttribute attr = elem.getValue();
+			Element toElement = xmlDocument.createElement(XML_TO_ELEMENT_NAME);
+			if (ATTR_HAT == attr.getName()) {
+				toElement.setAttribute(XML_ELEMTO_ATTR, attr.getName());
+			}
+			else if (ATTR_AGGRE != attr.getName()) {
+				toElement.setAttribute(XML_ELEMTO_ATTR, attr.getName());
+				if (BigDecimal.ZERO.compareTo(attr.getValue()) == 0) {
+					toElement.setAttribute(XML_ELEMTO_VALUE, BigDecimal.ZERO.toPlainString());
+				} else {
+					toElement.setAttribute(XML_ELEMTO_VALUE, attr.getValue().stripTrailingZeros().toPlainString());
+				}
+			}
+			//--- ATTR_AGGRE の場合、XMLノードの属性は省略する
+			toElement.appendChild(to.encodeToDomElement(xmlDocument, false));
+			itemElement.appendChild(toElement);
+		}
+		return itemElement;
+	}
+
 	/**
 	 * 指定された XML DOM ドキュメントのルート要素から、このオブジェクトの要素を復元する。
 	 * 復元した要素は、このオブジェクトに格納される。
@@ -2570,11 +2692,7 @@ public class ExTransfer implements exalge2.io.IDataOutput, Cloneable
 	protected void decodeFromDomElement(XmlDocument xmlDocument, Element xmlElement) throws XmlDomParseException
 	{
 		// check Element name
-		String strInput = xmlElement.getNodeName();
-		if (!strInput.equals(XML_ROOT_ELEMENT_NAME)) {
-			// Illegal element name
-			throw new XmlDomParseException(String.format("Root element must be <%s> : <%s>", XML_ROOT_ELEMENT_NAME, String.valueOf(strInput)));
-		}
+		checkRootElementName(xmlElement);
 		
 		// get child nodes
 		Node child = xmlElement.getFirstChild();
@@ -2586,6 +2704,33 @@ public class ExTransfer implements exalge2.io.IDataOutput, Cloneable
 		}
 		
 		// check total ratio
+		checkTotalRatios();
+	}
+
+	/**
+	 * 指定された要素が、ルート要素の名前を持つことを検証する。
+	 * 
+	 * @param xmlElement	ルート要素
+	 * @throws XmlDomParseException	要素名が正しくない場合
+	 * @since 0.985
+	 */
+	static protected void checkRootElementName(Element xmlElement) throws XmlDomParseException
+	{
+		String strInput = xmlElement.getNodeName();
+		if (!strInput.equals(XML_ROOT_ELEMENT_NAME)) {
+			// Illegal element name
+			throw new XmlDomParseException(String.format("Root element must be <%s> : <%s>", XML_ROOT_ELEMENT_NAME, String.valueOf(strInput)));
+		}
+	}
+
+	/**
+	 * このオブジェクトの按分変換定義の按分比率合計値が、0 より大きいことを検証する。
+	 * 
+	 * @throws XmlDomParseException	按分比率合計値が 0 以下の変換定義が存在する場合
+	 * @since 0.985
+	 */
+	protected void checkTotalRatios() throws XmlDomParseException
+	{
 		for (Map.Entry<ExBasePattern, ITransferEntryMap> entry : map.entrySet()) {
 			ExBasePattern fromPattern = entry.getKey();
 			ITransferEntryMap entrymap = entry.getValue();
@@ -17,6 +17,8 @@
  *  <author> Yasunari Ishizuka(PieCake.inc,)
  */
 /*
+ * @(#)Exalge.java	0.985	2026/10/18 - interning stored bases by ExBaseInternTable, columnar storage, parallel sum, CSV streaming, XML streaming, CSV bulk loading
+ *     - modified
  * @(#)Exalge.java	0.984	2014/05/29
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)Exalge.java	0.983	2010/02/25
@@ -79,6 +81,8 @@ import exalge2.io.csv.CsvReader;
 import exalge2.io.csv.CsvWriter;
 import exalge2.io.xml.XmlDocument;
 import exalge2.io.xml.XmlDomParseException;
+import exalge2.io.xml.XmlStreamParser;
+import exalge2.io.xml.XmlStreamWriter;
 import exalge2.util.Strings;
 
 /**
@@ -93,6 +97,12 @@ import exalge2.util.Strings;
  * したがって、{@link #put(ExBase, BigDecimal) <code>put</code>} メソッドや 
  * {@link #plus(ExBase, BigDecimal) <code>plus</code>} メソッド、ファイル入出力において、
  * クラス内での基底の順序は基本的に維持される。詳細は、各メソッドの説明を参照のこと。
+ * <br>
+ * (0.985) 列形式で格納するインスタンスでは、Map の実装として、要素を配列で保持する {@link ExalgeColumnarMap} を使用する。
+ * 要素の順序は {@link java.util.LinkedHashMap <code>LinkedHashMap</code>} と同様に維持され、要素あたりのメモリ使用量は少なくなる。
+ * 列形式で格納するかは、{@link #Exalge(boolean)} によりインスタンスごとに指定する。
+ * 指定しない場合は、システムプロパティ {@value #PROPERTY_COLUMNAR} が "true" の場合に列形式となる。
+ * 演算結果の交換代数は、演算元のインスタンスの格納形式を引き継ぐ。
  * 
  * <p>このクラスでは、実数値 0 の基底もデータとして保持される。
  * 基本的に、演算によって実数値 0 となる場合も、その基底は保持される。
@@ -193,8 +203,10 @@ import exalge2.util.Strings;
  * </ul>
  * なお、XML ドキュメントの入出力は、{@link #toXML()}、{@link #fromXML(XmlDocument)} により行う。
  * また、XML ファイルの入出力は、{@link #toXML(File)}、{@link #fromXML(File)} により行う。
+ * 大規模な XML ファイルの入出力には、XML ドキュメント全体を生成せずに逐次処理する
+ * {@link #toXmlStream(File)}、{@link #fromXmlStream(File)} を使用できる。
  * 
- * @version 0.984	2014/05/29
+ * @version 0.985	2026/10/18
  * 
  * @author H.Deguchi(SOARS Project.)
  * @author Li Hou(SOARS Project.)
@@ -203,11 +215,22 @@ import exalge2.util.Strings;
  */
 public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 {
+	/**
+	 * 列形式での格納を標準とするシステムプロパティのキー
+	 * @since 0.985
+	 */
+	static public final String PROPERTY_COLUMNAR = "exalge2.Exalge.columnar";
+
+	/**
+	 * 列形式での格納が標準であれば <tt>true</tt>
+	 */
+	static private final boolean _defaultColumnar = Boolean.getBoolean(PROPERTY_COLUMNAR);
 
 	/**
 	 * 基底と値のペア
+	 * <p>(0.985) 列形式で格納するインスタンスでは {@link ExalgeColumnarMap}、それ以外は {@link LinkedHashMap}
 	 */
-	protected LinkedHashMap<ExBase,BigDecimal>	data;
+	protected Map<ExBase,BigDecimal>	data;
 
 	//------------------------------------------------------------
 	// Constructions
@@ -217,7 +240,32 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 	 * 値を持たない <code>Exalge</code> の新しいインスタンスを生成する。
 	 */
 	public Exalge() {
-		this.data = new LinkedHashMap<ExBase,BigDecimal>();
+		this.data = createDataMap(_defaultColumnar, -1);
+	}
+
+	/**
+	 * 値を持たない、指定された格納形式の <code>Exalge</code> の新しいインスタンスを生成する。
+	 * このインスタンスの演算結果の交換代数も、同じ格納形式となる。
+	 * 
+	 * @param columnar	列形式で格納する場合は <tt>true</tt>、
+	 * 					{@link LinkedHashMap} で格納する場合は <tt>false</tt>
+	 * 
+	 * @since 0.985
+	 */
+	public Exalge(boolean columnar) {
+		this.data = createDataMap(columnar, -1);
+	}
+
+	/**
+	 * 指定された格納形式と初期容量で、値を持たない <code>Exalge</code> の新しいインスタンスを生成する。
+	 * 
+	 * @param columnar	列形式で格納する場合は <tt>true</tt>
+	 * @param initialCapacity 交換代数元(マップ)の初期容量
+	 * 
+	 * @since 0.985
+	 */
+	private Exalge(boolean columnar, int initialCapacity) {
+		this.data = createDataMap(columnar, initialCapacity);
 	}
 
     /**
@@ -233,7 +281,15 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
      * @since 0.94
      */
 	protected Exalge(int initialCapacity, float loadFactor) {
-		this.data = new LinkedHashMap<ExBase,BigDecimal>(initialCapacity, loadFactor);
+		if (_defaultColumnar) {
+			if (initialCapacity < 0)
+				throw new IllegalArgumentException("Illegal initial capacity: " + initialCapacity);
+			if (!(loadFactor > 0))
+				throw new IllegalArgumentException("Illegal load factor: " + loadFactor);
+			this.data = createDataMap(true, initialCapacity);
+		} else {
+			this.data = new LinkedHashMap<ExBase,BigDecimal>(initialCapacity, loadFactor);
+		}
 	}
 
     /**
@@ -248,7 +304,9 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
      * @since 0.94
      */
 	protected Exalge(int initialCapacity) {
-		this.data = new LinkedHashMap<ExBase,BigDecimal>(initialCapacity);
+		if (initialCapacity < 0)
+			throw new IllegalArgumentException("Illegal initial capacity: " + initialCapacity);
+		this.data = createDataMap(_defaultColumnar, initialCapacity);
 	}
 
 	/**
@@ -279,7 +337,7 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 	 * 								同一基底の値との加算演算が行えない場合
 	 */
 	public Exalge(ExBase base, BigDecimal value) {
-		this.data = new LinkedHashMap<ExBase,BigDecimal>(1);
+		this.data = createDataMap(_defaultColumnar, 1);
 		if (base == null)
 			throw new NullPointerException("base is null");
 		//if (value == null)
@@ -402,7 +460,11 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 		}
 		
 		// データコピー
-		this.data = (LinkedHashMap<ExBase,BigDecimal>)src.data.clone();
+		if (src.data instanceof ExalgeColumnarMap) {
+			this.data = new ExalgeColumnarMap((ExalgeColumnarMap)src.data);
+		} else {
+			this.data = (Map<ExBase,BigDecimal>)((LinkedHashMap<ExBase,BigDecimal>)src.data).clone();
+		}
 	}
 
 	/**
@@ -413,7 +475,7 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 	 * @since 0.92
 	 */
 	protected Exalge newInstance() {
-		return new Exalge();
+		return new Exalge(isColumnar(), -1);
 	}
 	
     /**
@@ -429,13 +491,24 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
      * @since 0.94
      */
 	protected Exalge newInstance(int initialCapacity) {
-		return new Exalge(initialCapacity);
+		if (initialCapacity < 0)
+			throw new IllegalArgumentException("Illegal initial capacity: " + initialCapacity);
+		return new Exalge(isColumnar(), initialCapacity);
 	}
 
 	//------------------------------------------------------------
 	// Attributes
 	//------------------------------------------------------------
 
+	/**
+	 * このインスタンスが列形式で要素を格納している場合に <tt>true</tt> を返す。
+	 * 
+	 * @since 0.985
+	 */
+	public boolean isColumnar() {
+		return (this.data instanceof ExalgeColumnarMap);
+	}
+
 	/**
 	 * 交換代数の要素が空であることを示す。
 	 * 
@@ -2767,6 +2840,49 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 		return newAlge;
 	}
 
+	/**
+	 * 交換代数の元のコレクションに含まれるすべての元の総和を、利用可能なプロセッサ数のスレッドで計算する。
+	 * <p>
+	 * このメソッドの結果は、{@link #sum(Collection)} と同一となる。
+	 * 
+	 * @param c 総和を計算する交換代数の元のコレクション
+	 * 
+	 * @return 計算結果となる <code>Exalge</code> の新しいインスタンス
+	 * 
+	 * @throws NullPointerException 引数が <tt>null</tt> の場合にスローされる
+	 * 
+	 * @see #sum(Collection)
+	 * 
+	 * @since 0.985
+	 */
+	static public Exalge parallelSum(Collection<? extends Exalge> c) {
+		return ExalgeParallelSupport.sum(c, 0);
+	}
+
+	/**
+	 * 交換代数の元のコレクションに含まれるすべての元の総和を、指定された数のスレッドで計算する。
+	 * <p>
+	 * このメソッドは、コレクションを連続した区間に分割してスレッドごとに部分和を計算し、
+	 * 隣接する部分和を 2 つずつ加算する。値の加算は丸めを行わないため、このメソッドの結果は、
+	 * 基底の順序も含めて {@link #sum(Collection)} と同一となる。
+	 * <br>
+	 * コレクションに含まれる <tt>null</tt> の要素は無視される。
+	 * 
+	 * @param c 総和を計算する交換代数の元のコレクション
+	 * @param numThreads	スレッド数、0 以下の場合は利用可能なプロセッサ数
+	 * 
+	 * @return 計算結果となる <code>Exalge</code> の新しいインスタンス
+	 * 
+	 * @throws NullPointerException 引数が <tt>null</tt> の場合にスローされる
+	 * 
+	 * @see #sum(Collection)
+	 * 
+	 * @since 0.985
+	 */
+	static public Exalge parallelSum(Collection<? extends Exalge> c, int numThreads) {
+		return ExalgeParallelSupport.sum(c, numThreads);
+	}
+
 	//------------------------------------------------------------
 	// 振替系演算
 	//------------------------------------------------------------
@@ -2802,7 +2918,7 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 
 		// 変換
 		Exalge retAlge = this.copy();
-		Exalge transAlge = new Exalge();
+		Exalge transAlge = this.newInstance();
 		for (ExBase base : data.keySet()) {
 			if (ExBasePattern.matchesByPattern(fromPattern, base._baseKeys)) {
 				//--- パターン一致
@@ -2849,7 +2965,7 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 		
 		// 変換
 		Exalge retAlge = this.copy();
-		Exalge transAlge = new Exalge();
+		Exalge transAlge = this.newInstance();
 		for (ExBase base : data.keySet()) {
 			if (fromPattern.matches(base)) {
 				//--- パターン一致
@@ -2910,7 +3026,7 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 		
 		// 変換
 		Exalge retAlge = this.copy();
-		Exalge transAlge = new Exalge();
+		Exalge transAlge = this.newInstance();
 		for (ExBase base : data.keySet()) {
 			for (ExBasePattern.PatternItem[] pattern : fromPatterns) {
 				if (ExBasePattern.matchesByPattern(pattern, base._baseKeys)) {
@@ -2965,7 +3081,7 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 		
 		// 変換
 		Exalge retAlge = this.copy();
-		Exalge transAlge = new Exalge();
+		Exalge transAlge = this.newInstance();
 		for (ExBase base : data.keySet()) {
 			if (fromPatterns.matches(base)) {
 				//--- パターン一致
@@ -3066,7 +3182,7 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 		ExBasePattern.PatternItem[] fromPattern = ExBasePattern.makePatternWithoutHatKey(fromBase._baseKeys);
 
 		// 変換
-		Exalge transAlge = new Exalge();
+		Exalge transAlge = this.newInstance();
 		for (ExBase base : data.keySet()) {
 			if (ExBasePattern.matchesByPattern(fromPattern, base._baseKeys)) {
 				//--- パターン一致
@@ -3120,7 +3236,7 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 			throw new NullPointerException("toPattern is null.");
 		
 		// 変換
-		Exalge transAlge = new Exalge();
+		Exalge transAlge = this.newInstance();
 		for (ExBase base : data.keySet()) {
 			if (fromPattern.matches(base)) {
 				//--- パターン一致
@@ -3188,7 +3304,7 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 		}
 		
 		// 変換
-		Exalge transAlge = new Exalge();
+		Exalge transAlge = this.newInstance();
 		for (ExBase base : data.keySet()) {
 			for (ExBasePattern.PatternItem[] pattern : fromPatterns) {
 				if (ExBasePattern.matchesByPattern(pattern, base._baseKeys)) {
@@ -3250,7 +3366,7 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 		}
 		
 		// 変換
-		Exalge transAlge = new Exalge();
+		Exalge transAlge = this.newInstance();
 		for (ExBase base : data.keySet()) {
 			if (fromPatterns.matches(base)) {
 				//--- パターン一致
@@ -3704,6 +3820,68 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 		
 		return Exalge.fromXML(xmlDocument);
 	}
+	
+	/**
+	 * 交換代数の内容を、指定のファイルに XML フォーマットで逐次出力する。
+	 * <p>
+	 * 出力されるフォーマットは {@link #toXML(File)} と同一だが、XML ドキュメント全体を生成せずに
+	 * 要素ごとに出力するため、メモリ使用量は要素数に依存しない。
+	 * 
+	 * @param xmlFile 出力先ファイル
+	 * 
+	 * @throws FactoryConfigurationError XML の実装が使用できないかインスタンス化できない場合
+	 * @throws ParserConfigurationException DocumentBuilder を構成できない場合
+	 * @throws DOMException タグの生成に失敗した場合
+	 * @throws IOException 入出力エラーが発生した場合
+	 * 
+	 * @since 0.985
+	 */
+	public void toXmlStream(File xmlFile)
+		throws FactoryConfigurationError, ParserConfigurationException, DOMException, IOException
+	{
+		XmlDocument xml = new XmlDocument();
+		XmlStreamWriter writer = new XmlStreamWriter(xmlFile);
+		try {
+			writer.startDocument();
+			writer.startElement(XML_TOP_ELEMENT_NAME);
+			writeToXmlStream(writer, xml);
+			writer.endDocument();
+		}
+		finally {
+			writer.close();
+		}
+	}
+	
+	/**
+	 * XML フォーマットのファイルを逐次読み込み、新しい交換代数を生成する。
+	 * <p>
+	 * 生成される交換代数は {@link #fromXML(File)} と同一だが、ファイル全体の XML ドキュメントを
+	 * 生成せずに要素ごとに解析するため、メモリ使用量は生成される交換代数の大きさにほぼ等しくなる。
+	 * 解析中にエラーが発生した場合の例外も、{@link #fromXML(File)} と同一となる。
+	 * ただし、XML 文書構成エラーよりも前に XML ノード解析エラーが検出された場合は、
+	 * {@link XmlDomParseException} がスローされる。
+	 * 
+	 * @param xmlFile 読み込む XML ファイル
+	 * 
+	 * @return ファイルの内容で生成された、新しい <code>Exalge</code> インスタンスを返す。
+	 * 
+	 * @throws FactoryConfigurationError XML の実装が使用できないかインスタンス化できない場合
+	 * @throws ParserConfigurationException SAXParser を構成できない場合
+	 * @throws IOException 入出力エラーが発生した場合
+	 * @throws SAXException XML文書構成がエラーの場合
+	 * @throws XmlDomParseException XML ノード解析エラーが発生した場合
+	 * 
+	 * @since 0.985
+	 */
+	static public Exalge fromXmlStream(File xmlFile)
+		throws FactoryConfigurationError, ParserConfigurationException, IOException, SAXException,
+				XmlDomParseException
+	{
+		XmlStreamDecoder decoder = new XmlStreamDecoder(null);
+		decoder.parse(xmlFile);
+		
+		return decoder.getDecodedAlge();
+	}
 
 	//------------------------------------------------------------
 	// Internal methods for I/O
@@ -3719,27 +3897,43 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 	protected void writeToCSV(CsvWriter writer) throws IOException
 	{
 		for (Map.Entry<ExBase, BigDecimal> entry : data.entrySet()) {
-			// write value
-			//@@@ modified by Y.Ishizuka : 2010.02.17 @@@
-			if (entry.getValue()==null)
-				writer.writeField("null");
-			else
-				writer.writeField(entry.getValue().stripTrailingZeros().toPlainString());
-			/*@@@ old codes : 2010.02.17 @@@
-			writer.writeField(entry.getValue().stripTrailingZeros().toPlainString());
-			**@@@ end of old codes : 2010.02.17 @@@*/
-			//@@@ end of modified : 2010.02.17 @@@
-			
-			// write base
-			entry.getKey().writeFieldToCSV(writer);
-			
-			// new line
-			writer.newLine();
+			writeElementToCSV(writer, entry.getKey(), entry.getValue());
 		}
 		
 		writer.flush();
 	}
 	
+	/**
+	 * 指定された <code>writer</code> に、指定された要素を 1 レコードとして出力する。
+	 * 
+	 * @param writer	出力に使用する <code>CsvWriter</code> オブジェクト
+	 * @param base		要素の基底
+	 * @param value		要素の値
+	 * 
+	 * @throws IOException	入出力エラーが発生した場合
+	 * 
+	 * @since 0.985
+	 */
+	static protected void writeElementToCSV(CsvWriter writer, ExBase base, BigDecimal value) throws IOException
+	{
+		// write value
+		//@@@ modified by Y.Ishizuka : 2010.02.17 @@@
+		if (value==null)
+			writer.writeField("null");
+		else
+			writer.writeField(value.stripTrailingZeros().toPlainString());
+		/*@@@ old codes : 2010.02.17 @@@
+		writer.writeField(value.stripTrailingZeros().toPlainString());
+		**@@@ end of old codes : 2010.02.17 @@@*/
+		//@@@ end of modified : 2010.02.17 @@@
+		
+		// write base
+		base.writeFieldToCSV(writer);
+		
+		// new line
+		writer.newLine();
+	}
+	
 	/**
 	 * 指定された <code>reader</code> を使用して、CSVフォーマットのストリームを読み込み、
 	 * このオブジェクトに格納する。
@@ -3754,6 +3948,9 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 	{
 		CsvReader.CsvRecord record;
 		
+		// 基底の生成キャッシュ
+		ExBaseBulkLoader loader = new ExBaseBulkLoader();
+		
 		// コメント行は有効
 		reader.setLineCommentEnable(true);
 		
@@ -3765,7 +3962,7 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 			}
 			
 			// read record
-			readRecordFromCSV(record);
+			readRecordFromCSV(record, loader);
 		}
 	}
 	
@@ -3785,6 +3982,53 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 		CsvReader.CsvFieldReader freader = new CsvReader.CsvFieldReader(record);
 
 		// read value
+		BigDecimal value = readValueFieldFromCSV(freader);
+		
+		// read base
+		ExBase base = ExBase.readFieldFromCSV(freader);
+		
+		// 代入(加算)
+		plusValue(base, value);
+	}
+
+	/**
+	 * 指定された基底の生成キャッシュを使用して、指定されたCSVレコードから値と基底を読み込む。
+	 * 
+	 * @param record	<code>CsvReader.CsvRecord</code> オブジェクト
+	 * @param loader	基底の生成キャッシュ
+	 * @throws IOException	読み込みエラーが発生したとき
+	 * @throws CsvFormatException CSVフォーマットエラーが発生した場合
+	 * 
+	 * @since 0.985
+	 */
+	void readRecordFromCSV(CsvReader.CsvRecord record, ExBaseBulkLoader loader)
+		throws IOException, CsvFormatException
+	{
+		// setup field reader
+		CsvReader.CsvFieldReader freader = new CsvReader.CsvFieldReader(record);
+
+		// read value
+		BigDecimal value = readValueFieldFromCSV(freader);
+		
+		// read base
+		ExBase base = ExBase.readFieldFromCSV(freader, loader);
+		
+		// 代入(加算)
+		plusValue(base, value);
+	}
+
+	/**
+	 * 指定されたフィールドリーダーから、要素の値を読み込む。
+	 * 
+	 * @param freader	<code>CsvReader.CsvFieldReader</code> オブジェクト
+	 * @return	読み込んだ値、&quot;null&quot; が指定されている場合は <tt>null</tt>
+	 * @throws CsvFormatException 値が指定されていない場合、もしくは数値として正しくない場合
+	 * 
+	 * @since 0.985
+	 */
+	static protected BigDecimal readValueFieldFromCSV(CsvReader.CsvFieldReader freader)
+		throws CsvFormatException
+	{
 		String strValue = freader.readTrimmedValue();
 		//@@@ modified by Y.Ishizuka : 2010.02.17 @@@
 		if (Strings.isNullOrEmpty(strValue)) {
@@ -3815,11 +4059,7 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 		**@@@ end of old codes : 2010.02.17 @@@*/
 		//@@@ end of modified : 2010.02.17 @@@
 		
-		// read base
-		ExBase base = ExBase.readFieldFromCSV(freader);
-		
-		// 代入(加算)
-		plusValue(base, value);
+		return value;
 	}
 
 	/*
@@ -3863,30 +4103,65 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 		
 		// create entries
 		for (Map.Entry<ExBase, BigDecimal> entry : data.entrySet()) {
-			// create item
-			Element item = xmlDocument.createElement(XML_ELEMENT_NAME);
-			//@@@ modified by Y.Ishizuka : 2010.02.17 @@@
-			if (entry.getValue()==null)
-				item.setAttribute(XML_ATTR_VALUE, "null");
-			else
-				item.setAttribute(XML_ATTR_VALUE, entry.getValue().stripTrailingZeros().toPlainString());
-			/*@@@ old codes : 2010.02.17 @@@
-			item.setAttribute(XML_ATTR_VALUE, entry.getValue().stripTrailingZeros().toPlainString());
-			**@@@ end of old codes : 2010.02.17 @@@*/
-			//@@@ end of modified : 2010.02.17 @@@
-			
-			// create ExBase element
-			Element base = entry.getKey().encodeToDomElement(xmlDocument);
-			
 			// regist to group element
-			item.appendChild(base);
-			node.appendChild(item);
+			node.appendChild(encodeToItemElement(xmlDocument, entry.getKey(), entry.getValue()));
 		}
 		
 		// completed
 		return node;
 	}
 	
+	/**
+	 * 指定された要素を、<code>&lt;Exelem&gt;</code> エレメントに変換する。
+	 * 
+	 * @param xmlDocument	エレメント生成に使用する XML ドキュメント
+	 * @param base			要素の基底
+	 * @param value			要素の値
+	 * @return	生成されたエレメント
+	 * @throws DOMException	タグの生成に失敗した場合
+	 * 
+	 * @since 0.985
+	 */
+	static protected Element encodeToItemElement(XmlDocument xmlDocument, ExBase base, BigDecimal value)
+		throws DOMException
+	{
+		// create item
+		Element item = xmlDocument.createElement(XML_ELEMENT_NAME);
+		//@@@ modified by Y.Ishizuka : 2010.02.17 @@@
+		if (value==null)
+			item.setAttribute(XML_ATTR_VALUE, "null");
+		else
+			item.setAttribute(XML_ATTR_VALUE, value.stripTrailingZeros().toPlainString());
+		/*@@@ old codes : 2010.02.17 @@@
+		item.setAttribute(XML_ATTR_VALUE, value.stripTrailingZeros().toPlainString());
+		**@@@ end of old codes : 2010.02.17 @@@*/
+		//@@@ end of modified : 2010.02.17 @@@
+		
+		// create ExBase element
+		item.appendChild(base.encodeToDomElement(xmlDocument));
+		return item;
+	}
+	
+	/**
+	 * 指定されたライターに、このオブジェクトの全ての要素を <code>&lt;Exalgebra&gt;</code> エレメントとして出力する。
+	 * 
+	 * @param writer		出力に使用するライター
+	 * @param xmlDocument	エレメント生成に使用する XML ドキュメント
+	 * @throws IOException	入出力エラーが発生した場合
+	 * @throws DOMException	タグの生成に失敗した場合
+	 * 
+	 * @since 0.985
+	 */
+	protected void writeToXmlStream(XmlStreamWriter writer, XmlDocument xmlDocument)
+		throws IOException, DOMException
+	{
+		writer.startElement(XML_GROUP_ELEMENT_NAME);
+		for (Map.Entry<ExBase, BigDecimal> entry : data.entrySet()) {
+			writer.writeElement(encodeToItemElement(xmlDocument, entry.getKey(), entry.getValue()));
+		}
+		writer.endElement();
+	}
+	
 	protected void decodeFromElement(XmlDocument xmlDocument, Element xmlElement, Element xmlParent)
 		throws XmlDomParseException
 	{
@@ -3903,65 +4178,80 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 		for (; child != null; child = child.getNextSibling()) {
 			short childNodeType = child.getNodeType();
 			if (childNodeType == Node.ELEMENT_NODE) {
-				Element itemElement = (Element)child;
-				// check item element
-				strInput = itemElement.getNodeName();
-				if (!strInput.equals(XML_ELEMENT_NAME)) {
-					// Illegal element name
-					throw new XmlDomParseException(String.format("The child of <%s> must be <%s> : <%s>",
-							String.valueOf(xmlElement.getNodeName()), XML_ELEMENT_NAME, String.valueOf(strInput)));
-				}
-				// get "value" attribute
-				String strValue = itemElement.getAttribute(XML_ATTR_VALUE);
-				//@@@ modified by Y.Ishizuka : 2010.02.17 @@@
-				if (strValue != null) strValue = strValue.trim();
-				if (Strings.isNullOrEmpty(strValue)) {
-					throw new XmlDomParseException(String.format("<%s> is not specified!", XML_ATTR_VALUE));
-				}
-				BigDecimal retValue = null;
-				if (!"null".equalsIgnoreCase(strValue)) {
-					try {
-						retValue = new BigDecimal(strValue);
-					}
-					catch (NumberFormatException ex) {
-						throw new XmlDomParseException(String.format("Illegal <%s> value : %s", XML_ATTR_VALUE, strValue));
-					}
-				}
-				/*@@@ old codes : 2010.02.17 @@@
-				strValue = strValue.trim();
-				if (Strings.isNullOrEmpty(strValue)) {
-					throw new XmlDomParseException(String.format("<%s> is not specified!", XML_ATTR_VALUE));
-				}
-				// convert value
-				BigDecimal retValue = null;
-				try {
-					retValue = new BigDecimal(strValue);
-				}
-				catch (NumberFormatException ex) {
-					throw new XmlDomParseException(String.format("Illegal <%s> value : %s", XML_ATTR_VALUE, strValue));
-				}
-				**@@@ end of old codes : 2010.02.17 @@@*/
-				//@@@ end of modified : 2010.02.17 @@@
-				// decode ExBase node
-				ExBase newBase = null;
-				Node baseChild = itemElement.getFirstChild();
-				for (; baseChild != null; baseChild = baseChild.getNextSibling()) {
-					childNodeType = baseChild.getNodeType();
-					if (childNodeType == Node.ELEMENT_NODE) {
-						if (newBase != null) {
-							throw new XmlDomParseException(String.format("<%s> element must not be multiple.", baseChild.getNodeName()));
-						}
-						newBase = ExBase.decodeFromDomElement(xmlDocument, (Element)baseChild);
-					}
-				}
-				if (newBase == null) {
-					// not found <Exbase> node
-					throw new XmlDomParseException(String.format("<%s> element not found.", ExBase.XML_ELEMENT_NAME));
+				decodeFromItemElement(xmlDocument, (Element)child, xmlElement);
+			}
+		}
+	}
+	
+	/**
+	 * 指定された <code>&lt;Exelem&gt;</code> エレメントから値と基底を取得し、このオブジェクトに加算する。
+	 * 
+	 * @param xmlDocument	エレメントが所属する XML ドキュメント
+	 * @param itemElement	<code>&lt;Exelem&gt;</code> エレメント
+	 * @param xmlElement	<code>&lt;Exalgebra&gt;</code> エレメント
+	 * @throws XmlDomParseException	XML ノード解析エラーが発生した場合
+	 * 
+	 * @since 0.985
+	 */
+	protected void decodeFromItemElement(XmlDocument xmlDocument, Element itemElement, Element xmlElement)
+		throws XmlDomParseException
+	{
+		String strInput;
+		// check item element
+		strInput = itemElement.getNodeName();
+		if (!strInput.equals(XML_ELEMENT_NAME)) {
+			// Illegal element name
+			throw new XmlDomParseException(String.format("The child of <%s> must be <%s> : <%s>",
+					String.valueOf(xmlElement.getNodeName()), XML_ELEMENT_NAME, String.valueOf(strInput)));
+		}
+		// get "value" attribute
+		String strValue = itemElement.getAttribute(XML_ATTR_VALUE);
+		//@@@ modified by Y.Ishizuka : 2010.02.17 @@@
+		if (strValue != null) strValue = strValue.trim();
+		if (Strings.isNullOrEmpty(strValue)) {
+			throw new XmlDomParseException(String.format("<%s> is not specified!", XML_ATTR_VALUE));
+		}
+		BigDecimal retValue = null;
+		if (!"null".equalsIgnoreCase(strValue)) {
+			try {
+				retValue = new BigDecimal(strValue);
+			}
+			catch (NumberFormatException ex) {
+				throw new XmlDomParseException(String.format("Illegal <%s> value : %s", XML_ATTR_VALUE, strValue));
+			}
+		}
+		/*@@@ old codes : 2010.02.17 @@@
+		strValue = strValue.trim();
+		if (Strings.isNullOrEmpty(strValue)) {
+			throw new XmlDomParseException(String.format("<%s> is not specified!", XML_ATTR_VALUE));
+		}
+		// convert value
+		BigDecimal retValue = null;
+		try {
+			retValue = new BigDecimal(strValue);
+		}
+		catch (NumberFormatException ex) {
+			throw new XmlDomParseException(String.format("Illegal <%s> value : %s", XML_ATTR_VALUE, strValue));
+		}
+		**@@@ end of old codes : 2010.02.17 @@@*/
+		//@@@ end of modified : 2010.02.17 @@@
+		// decode ExBase node
+		ExBase newBase = null;
+		Node baseChild = itemElement.getFirstChild();
+		for (; baseChild != null; baseChild = baseChild.getNextSibling()) {
+			if (baseChild.getNodeType() == Node.ELEMENT_NODE) {
+				if (newBase != null) {
+					throw new XmlDomParseException(String.format("<%s> element must not be multiple.", baseChild.getNodeName()));
 				}
-				// regist value
-				this.plusValue(newBase, retValue);
+				newBase = ExBase.decodeFromDomElement(xmlDocument, (Element)baseChild);
 			}
 		}
+		if (newBase == null) {
+			// not found <Exbase> node
+			throw new XmlDomParseException(String.format("<%s> element not found.", ExBase.XML_ELEMENT_NAME));
+		}
+		// regist value
+		this.plusValue(newBase, retValue);
 	}
 
 	//------------------------------------------------------------
@@ -4118,6 +4408,23 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 		}
 	}
 
+	/**
+	 * 指定された格納形式の、基底と値のペアを保持する空のマップを生成する。
+	 * 
+	 * @param columnar	列形式で格納する場合は <tt>true</tt>
+	 * @param initialCapacity	マップの初期容量、標準の初期容量とする場合は負の値
+	 * @return	生成されたマップ
+	 * 
+	 * @since 0.985
+	 */
+	static private Map<ExBase,BigDecimal> createDataMap(boolean columnar, int initialCapacity) {
+		if (columnar) {
+			return (initialCapacity < 0 ? new ExalgeColumnarMap() : new ExalgeColumnarMap(initialCapacity));
+		} else {
+			return (initialCapacity < 0 ? new LinkedHashMap<ExBase,BigDecimal>() : new LinkedHashMap<ExBase,BigDecimal>(initialCapacity));
+		}
+	}
+
 	/**
 	 * 指定された基底と値を代入する。
 	 * <p>
@@ -4128,11 +4435,16 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 	 * 値がマイナスの時、自動的に＾計算を行って値をプラスにするように設計されている。
 	 * <p>
 	 * (注) このメソッドは<b>破壊的メソッド</b>である。
+	 * <p>
+	 * {@link ExBaseInternTable#isEnabled()} が <tt>true</tt> の場合、基底は正規化インスタンスとして格納される。
 	 * 
 	 * @param base 交換代数の基底
 	 * @param value 値
 	 */
 	protected void putValue(ExBase base, BigDecimal value) {
+		if (ExBaseInternTable.isEnabled()) {
+			base = base.intern();
+		}
 		//@@@ modified by Y.Ishizuka : 2010.02.17 @@@
 		if (value != null && value.compareTo(BigDecimal.ZERO) < 0) {
 			this.data.put(base.hat(), value.abs());
@@ -4157,6 +4469,8 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 	 * 値がマイナスの時、自動的に ^ 計算を行って値をプラスにするように設計されている。
 	 * <p>
 	 * (注) このメソッドは<b>破壊的メソッド</b>である。
+	 * <p>
+	 * {@link ExBaseInternTable#isEnabled()} が <tt>true</tt> の場合、基底は正規化インスタンスとして格納される。
 	 * 
 	 * @param base 交換代数の基底
 	 * @param value 値
@@ -4166,6 +4480,9 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 	protected void plusValue(ExBase base, BigDecimal value) {
 		ExBase tgBase;
 		BigDecimal tgValue;
+		if (ExBaseInternTable.isEnabled()) {
+			base = base.intern();
+		}
 		//@@@ modified by Y.Ishizuka : 2010.02.17 @@@
 		if (value != null && value.compareTo(BigDecimal.ZERO) < 0) {
 			tgBase  = base.hat();
@@ -4250,7 +4567,7 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 	private static class ExalgeIterator implements Iterator<Exalge> {
 		final Iterator<Map.Entry<ExBase,BigDecimal>> entryIterator;
 		
-		public ExalgeIterator(LinkedHashMap<ExBase,BigDecimal> targetMap) {
+		public ExalgeIterator(Map<ExBase,BigDecimal> targetMap) {
 			entryIterator = targetMap.entrySet().iterator();
 		}
 		
@@ -4287,4 +4604,82 @@ public final class Exalge implements exalge2.io.IDataOutput, Iterable<Exalge>
 			throw new UnsupportedOperationException("Unsupported \"remove\" operation!");
 		}
 	}
-}
\ No newline at end of file
+	
+	/**
+	 * 交換代数 XML ファイルを逐次解析するデコーダー。
+	 * <p>
+	 * <code>&lt;Exelem&gt;</code> エレメントごとに、{@link Exalge#decodeFromItemElement(XmlDocument, Element, Element)} により
+	 * 要素を取得する。交換代数集合を指定した場合は、<code>&lt;Exalgebra&gt;</code> エレメントごとに
+	 * 新しい交換代数元を生成し、要素が空ではない交換代数元を交換代数集合に格納する。
+	 * 交換代数集合を指定しない場合は、すべての要素を一つの交換代数元に格納する。
+	 * 
+	 * @version 0.985	2026/10/18
+	 * 
+	 * @since 0.985
+	 */
+	static protected class XmlStreamDecoder extends XmlStreamParser
+	{
+		private final ExAlgeSet	targetSet;
+		private Exalge			curAlge;
+		
+		/**
+		 * 新しいデコーダーを生成する。
+		 * @param targetSet	格納先の交換代数集合、一つの交換代数元に格納する場合は <tt>null</tt>
+		 */
+		protected XmlStreamDecoder(ExAlgeSet targetSet) {
+			super(2);
+			this.targetSet = targetSet;
+			this.curAlge = (targetSet == null ? new Exalge() : null);
+		}
+		
+		/**
+		 * 交換代数集合を指定しない場合に、解析された要素を格納した交換代数元を返す。
+		 * @return	解析結果の交換代数元、交換代数集合を指定した場合は <tt>null</tt>
+		 */
+		public Exalge getDecodedAlge() {
+			return (targetSet == null ? curAlge : null);
+		}
+
+		@Override
+		protected void decodeContainerElement(XmlDocument xmlDocument, Element xmlElement)
+			throws XmlDomParseException
+		{
+			Node parent = xmlElement.getParentNode();
+			if (parent.getNodeType() != Node.ELEMENT_NODE) {
+				// check top Element name
+				String strName = xmlElement.getNodeName();
+				if (!strName.equals(XML_TOP_ELEMENT_NAME)) {
+					// Illegal element name
+					throw new XmlDomParseException(String.format("Root element must be <%s> : <%s>", XML_TOP_ELEMENT_NAME, String.valueOf(strName)));
+				}
+			}
+			else {
+				// check group Element name
+				if (targetSet != null) {
+					curAlge = new Exalge();
+				}
+				curAlge.decodeFromElement(xmlDocument, xmlElement, (Element)parent);
+			}
+		}
+
+		@Override
+		protected void decodeItemElement(XmlDocument xmlDocument, Element xmlElement)
+			throws XmlDomParseException
+		{
+			curAlge.decodeFromItemElement(xmlDocument, xmlElement, (Element)xmlElement.getParentNode());
+		}
+
+		@Override
+		protected void endContainerElement(XmlDocument xmlDocument, Element xmlElement)
+			throws XmlDomParseException
+		{
+			if (targetSet != null && curAlge != null) {
+				// 元に実体があれば、集合に格納
+				if (!curAlge.isEmpty()) {
+					targetSet.add(curAlge);
+				}
+				curAlge = null;
+			}
+		}
+	}
+}
@@ -0,0 +1,634 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Li Hou(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+/*
+ * @(#)ExalgeColumnarMap.java	0.985	2026/10/18
+ *     - created
+ */
+package exalge2;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 交換代数の要素を、配列により列単位で保持するマップ。
+ * <p>
+ * このマップは、基底の配列、値の仮数(long)の配列、値のスケール(byte)の配列を挿入順に保持し、
+ * 基底から配列位置を検索するためのオープンアドレス法のハッシュ表(int 配列)を持つ。
+ * 仮数が long、スケールが byte の範囲に収まらない値(もしくは <tt>null</tt>)のみ、
+ * <code>BigDecimal</code> のインスタンスとして保持する。
+ * そのため、要素ごとにエントリと <code>BigDecimal</code> のインスタンスを保持する
+ * {@link java.util.LinkedHashMap} に比べ、要素あたりのメモリ使用量が少ない。
+ * <p>
+ * 反復子は {@link java.util.LinkedHashMap} と同様に挿入順で要素を返し、既存の基底に値を設定しても
+ * 順序は変化しない。取得される値は、格納された値と仮数およびスケールが等しい <code>BigDecimal</code> であるが、
+ * 同一のインスタンスであるとは限らない。
+ * <p>
+ * このマップは <tt>null</tt> の基底を格納できない。また、このマップは同期化されない。
+ *
+ * @version 0.985	2026/10/18
+ *
+ * @since 0.985
+ */
+final class ExalgeColumnarMap extends AbstractMap<ExBase,BigDecimal>
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	/** <code>BigDecimal</code> のインスタンスとして値を保持することを示すスケール **/
+	static private final byte BOXED_SCALE = Byte.MIN_VALUE;
+
+	/** 標準の初期容量 **/
+	static private final int DEFAULT_CAPACITY = 16;
+
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/** 挿入順の基底(削除された位置は <tt>null</tt>) **/
+	private ExBase[] bases;
+	/** 値の仮数 **/
+	private long[] unscaledValues;
+	/** 値のスケール **/
+	private byte[] scales;
+	/** <code>BigDecimal</code> のインスタンスとして保持する値(必要となるまで <tt>null</tt>) **/
+	private BigDecimal[] boxedValues;
+	/** 使用済みの配列位置の数(削除された位置を含む) **/
+	private int numSlots;
+	/** 要素数 **/
+	private int size;
+	/** 基底のハッシュ表(配列位置 + 1 を格納し、0 は空きを示す) **/
+	private int[] table;
+	/** 構造が変更された回数 **/
+	private int modCount;
+
+	/** エントリセットのビュー **/
+	private transient EntrySet entrySet;
+	/** キーセットのビュー **/
+	private transient KeySet keySet;
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	/**
+	 * 標準の初期容量で、空のマップを生成する。
+	 */
+	public ExalgeColumnarMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * 指定された初期容量で、空のマップを生成する。
+	 * @param initialCapacity	初期容量
+	 * @throws IllegalArgumentException	初期容量が負の場合
+	 */
+	public ExalgeColumnarMap(int initialCapacity) {
+		if (initialCapacity < 0)
+			throw new IllegalArgumentException("Illegal initial capacity: " + initialCapacity);
+		allocate(Math.max(initialCapacity, 1));
+	}
+
+	/**
+	 * 指定されたマップと同じ要素を同じ順序で持つ、新しいマップを生成する。
+	 * 基底と値のインスタンスそれ自体は複製されない。
+	 * @param src	複製元のマップ
+	 * @throws NullPointerException	引数が <tt>null</tt> の場合
+	 */
+	public ExalgeColumnarMap(ExalgeColumnarMap src) {
+		allocate(Math.max(src.size, 1));
+		if (src.boxedValues != null) {
+			boxedValues = new BigDecimal[bases.length];
+		}
+		for (int slot = 0; slot < src.numSlots; slot++) {
+			if (src.bases[slot] != null) {
+				bases[numSlots] = src.bases[slot];
+				unscaledValues[numSlots] = src.unscaledValues[slot];
+				scales[numSlots] = src.scales[slot];
+				if (src.boxedValues != null) {
+					boxedValues[numSlots] = src.boxedValues[slot];
+				}
+				numSlots++;
+			}
+		}
+		size = numSlots;
+		rebuildTable(table.length);
+	}
+
+	//------------------------------------------------------------
+	// Implements java.util.Map interfaces
+	//------------------------------------------------------------
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return (size == 0);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return (findSlot(key) >= 0);
+	}
+
+	@Override
+	public BigDecimal get(Object key) {
+		int slot = findSlot(key);
+		return (slot >= 0 ? getValueAt(slot) : null);
+	}
+
+	@Override
+	public BigDecimal put(ExBase key, BigDecimal value) {
+		if (key == null)
+			throw new NullPointerException("key is null");
+
+		int hash = spread(key.hashCode());
+		int mask = table.length - 1;
+		int pos = hash & mask;
+		int entry;
+		while ((entry = table[pos]) != 0) {
+			ExBase base = bases[entry - 1];
+			if (base == key || base.equals(key)) {
+				BigDecimal oldValue = getValueAt(entry - 1);
+				setValueAt(entry - 1, value);
+				return oldValue;
+			}
+			pos = (pos + 1) & mask;
+		}
+
+		// 新しい要素
+		if (numSlots >= bases.length) {
+			ensureSlotCapacity();
+			mask = table.length - 1;
+			pos = hash & mask;
+			while (table[pos] != 0) {
+				pos = (pos + 1) & mask;
+			}
+		}
+		int slot = numSlots++;
+		bases[slot] = key;
+		setValueAt(slot, value);
+		table[pos] = slot + 1;
+		size++;
+		modCount++;
+		if (size > (table.length >>> 1)) {
+			rebuildTable(table.length << 1);
+		}
+		return null;
+	}
+
+	@Override
+	public BigDecimal remove(Object key) {
+		int pos = findTablePosition(key);
+		if (pos < 0) {
+			return null;
+		}
+		int slot = table[pos] - 1;
+		BigDecimal oldValue = getValueAt(slot);
+		removeAt(pos, slot);
+		return oldValue;
+	}
+
+	@Override
+	public void clear() {
+		if (size > 0 || numSlots > 0) {
+			allocate(DEFAULT_CAPACITY);
+			modCount++;
+		}
+	}
+
+	@Override
+	public Set<Map.Entry<ExBase,BigDecimal>> entrySet() {
+		EntrySet es = entrySet;
+		if (es == null) {
+			es = new EntrySet();
+			entrySet = es;
+		}
+		return es;
+	}
+
+	@Override
+	public Set<ExBase> keySet() {
+		KeySet ks = keySet;
+		if (ks == null) {
+			ks = new KeySet();
+			keySet = ks;
+		}
+		return ks;
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	static private int spread(int hash) {
+		return (hash ^ (hash >>> 16));
+	}
+
+	/**
+	 * 指定された容量の空の配列を確保する。
+	 */
+	private void allocate(int capacity) {
+		bases = new ExBase[capacity];
+		unscaledValues = new long[capacity];
+		scales = new byte[capacity];
+		boxedValues = null;
+		numSlots = 0;
+		size = 0;
+		table = new int[tableSizeFor(capacity)];
+	}
+
+	/**
+	 * 指定された要素数を格納できるハッシュ表のサイズを返す。
+	 */
+	static private int tableSizeFor(int capacity) {
+		int n = 4;
+		while (n < (1 << 30) && (n >>> 1) < capacity) {
+			n <<= 1;
+		}
+		return n;
+	}
+
+	/**
+	 * 指定された基底のハッシュ表の位置を返す。
+	 * @return	ハッシュ表の位置、存在しない場合は (-1)
+	 */
+	private int findTablePosition(Object key) {
+		if (!(key instanceof ExBase)) {
+			return (-1);
+		}
+		int mask = table.length - 1;
+		int pos = spread(key.hashCode()) & mask;
+		int entry;
+		while ((entry = table[pos]) != 0) {
+			ExBase base = bases[entry - 1];
+			if (base == key || base.equals(key)) {
+				return pos;
+			}
+			pos = (pos + 1) & mask;
+		}
+		return (-1);
+	}
+
+	/**
+	 * 指定された基底の配列位置を返す。
+	 * @return	配列位置、存在しない場合は (-1)
+	 */
+	private int findSlot(Object key) {
+		int pos = findTablePosition(key);
+		return (pos >= 0 ? (table[pos] - 1) : (-1));
+	}
+
+	/**
+	 * 指定された配列位置の値を返す。
+	 */
+	private BigDecimal getValueAt(int slot) {
+		byte scale = scales[slot];
+		if (scale == BOXED_SCALE) {
+			return boxedValues[slot];
+		} else {
+			return BigDecimal.valueOf(unscaledValues[slot], scale);
+		}
+	}
+
+	/**
+	 * 指定された配列位置に値を設定する。
+	 */
+	private void setValueAt(int slot, BigDecimal value) {
+		if (value != null) {
+			int scale = value.scale();
+			if (scale > BOXED_SCALE && scale <= Byte.MAX_VALUE) {
+				BigInteger unscaled = value.unscaledValue();
+				if (unscaled.bitLength() < 64) {
+					unscaledValues[slot] = unscaled.longValue();
+					scales[slot] = (byte)scale;
+					if (boxedValues != null) {
+						boxedValues[slot] = null;
+					}
+					return;
+				}
+			}
+		}
+
+		// BigDecimal のまま保持
+		if (boxedValues == null) {
+			boxedValues = new BigDecimal[bases.length];
+		}
+		unscaledValues[slot] = 0L;
+		scales[slot] = BOXED_SCALE;
+		boxedValues[slot] = value;
+	}
+
+	/**
+	 * 新しい要素を格納する配列位置を確保する。
+	 * 削除された位置が多い場合は詰め直し、そうでなければ配列を拡張する。
+	 */
+	private void ensureSlotCapacity() {
+		int removed = numSlots - size;
+		if (removed > 0 && removed >= (numSlots >>> 2)) {
+			compact();
+		} else {
+			int newCapacity = bases.length + Math.max(bases.length >>> 1, 1);
+			if (newCapacity < 0) {
+				newCapacity = Integer.MAX_VALUE - 8;
+			}
+			bases = Arrays.copyOf(bases, newCapacity);
+			unscaledValues = Arrays.copyOf(unscaledValues, newCapacity);
+			scales = Arrays.copyOf(scales, newCapacity);
+			if (boxedValues != null) {
+				boxedValues = Arrays.copyOf(boxedValues, newCapacity);
+			}
+		}
+	}
+
+	/**
+	 * 削除された配列位置を詰め、ハッシュ表を再構築する。要素の順序は変化しない。
+	 */
+	private void compact() {
+		int dst = 0;
+		for (int slot = 0; slot < numSlots; slot++) {
+			if (bases[slot] != null) {
+				if (dst != slot) {
+					bases[dst] = bases[slot];
+					unscaledValues[dst] = unscaledValues[slot];
+					scales[dst] = scales[slot];
+					if (boxedValues != null) {
+						boxedValues[dst] = boxedValues[slot];
+					}
+				}
+				dst++;
+			}
+		}
+		Arrays.fill(bases, dst, numSlots, null);
+		if (boxedValues != null) {
+			Arrays.fill(boxedValues, dst, numSlots, null);
+		}
+		numSlots = dst;
+		modCount++;
+		rebuildTable(table.length);
+	}
+
+	/**
+	 * 指定されたサイズでハッシュ表を再構築する。
+	 */
+	private void rebuildTable(int tableSize) {
+		int[] newTable = new int[tableSize];
+		int mask = tableSize - 1;
+		for (int slot = 0; slot < numSlots; slot++) {
+			ExBase base = bases[slot];
+			if (base != null) {
+				int pos = spread(base.hashCode()) & mask;
+				while (newTable[pos] != 0) {
+					pos = (pos + 1) & mask;
+				}
+				newTable[pos] = slot + 1;
+			}
+		}
+		table = newTable;
+	}
+
+	/**
+	 * 指定されたハッシュ表の位置と配列位置の要素を削除する。
+	 */
+	private void removeAt(int pos, int slot) {
+		// ハッシュ表からの削除(後続のエントリを詰める)
+		int mask = table.length - 1;
+		int hole = pos;
+		int next = (hole + 1) & mask;
+		int entry;
+		while ((entry = table[next]) != 0) {
+			int home = spread(bases[entry - 1].hashCode()) & mask;
+			if (((next - home) & mask) >= ((next - hole) & mask)) {
+				table[hole] = entry;
+				hole = next;
+			}
+			next = (next + 1) & mask;
+		}
+		table[hole] = 0;
+
+		// 配列からの削除
+		bases[slot] = null;
+		if (boxedValues != null) {
+			boxedValues[slot] = null;
+		}
+		size--;
+		modCount++;
+		while (numSlots > 0 && bases[numSlots - 1] == null) {
+			numSlots--;
+		}
+	}
+
+	//------------------------------------------------------------
+	// Inner classes
+	//------------------------------------------------------------
+
+	/**
+	 * 挿入順に配列位置を返す反復子の基本クラス。
+	 */
+	private abstract class SlotIterator<E> implements Iterator<E>
+	{
+		private int nextSlot;
+		private int lastSlot = (-1);
+		private int expectedModCount = modCount;
+
+		protected SlotIterator() {
+			nextSlot = skipRemoved(0);
+		}
+
+		private int skipRemoved(int slot) {
+			while (slot < numSlots && bases[slot] == null) {
+				slot++;
+			}
+			return slot;
+		}
+
+		public boolean hasNext() {
+			return (nextSlot < numSlots);
+		}
+
+		protected int nextSlot() {
+			if (modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+			if (nextSlot >= numSlots)
+				throw new NoSuchElementException();
+			lastSlot = nextSlot;
+			nextSlot = skipRemoved(nextSlot + 1);
+			return lastSlot;
+		}
+
+		public void remove() {
+			if (lastSlot < 0)
+				throw new IllegalStateException();
+			if (modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+			ExalgeColumnarMap.this.remove(bases[lastSlot]);
+			lastSlot = (-1);
+			expectedModCount = modCount;
+		}
+	}
+
+	/**
+	 * 配列位置を参照するエントリ。
+	 */
+	private final class SlotEntry implements Map.Entry<ExBase,BigDecimal>
+	{
+		private final ExBase key;
+		private final int slot;
+		private final int expectedModCount = modCount;
+
+		public SlotEntry(int slot) {
+			this.key = bases[slot];
+			this.slot = slot;
+		}
+
+		public ExBase getKey() {
+			return key;
+		}
+
+		public BigDecimal getValue() {
+			return (modCount == expectedModCount ? getValueAt(slot) : get(key));
+		}
+
+		public BigDecimal setValue(BigDecimal value) {
+			if (modCount == expectedModCount) {
+				BigDecimal oldValue = getValueAt(slot);
+				setValueAt(slot, value);
+				return oldValue;
+			} else {
+				int curSlot = findSlot(key);
+				if (curSlot < 0)
+					throw new IllegalStateException("entry was removed");
+				BigDecimal oldValue = getValueAt(curSlot);
+				setValueAt(curSlot, value);
+				return oldValue;
+			}
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Map.Entry<?,?>))
+				return false;
+			Map.Entry<?,?> e = (Map.Entry<?,?>)obj;
+			Object value = getValue();
+			return (key.equals(e.getKey())
+					&& (value == null ? e.getValue() == null : value.equals(e.getValue())));
+		}
+
+		@Override
+		public int hashCode() {
+			Object value = getValue();
+			return (key.hashCode() ^ (value == null ? 0 : value.hashCode()));
+		}
+
+		@Override
+		public String toString() {
+			return key + "=" + getValue();
+		}
+	}
+
+	private final class EntrySet extends AbstractSet<Map.Entry<ExBase,BigDecimal>>
+	{
+		@Override
+		public Iterator<Map.Entry<ExBase,BigDecimal>> iterator() {
+			return new SlotIterator<Map.Entry<ExBase,BigDecimal>>() {
+				public Map.Entry<ExBase,BigDecimal> next() {
+					return new SlotEntry(nextSlot());
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (!(o instanceof Map.Entry<?,?>))
+				return false;
+			Map.Entry<?,?> e = (Map.Entry<?,?>)o;
+			int slot = findSlot(e.getKey());
+			if (slot < 0)
+				return false;
+			BigDecimal value = getValueAt(slot);
+			return (value == null ? e.getValue() == null : value.equals(e.getValue()));
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			if (contains(o)) {
+				ExalgeColumnarMap.this.remove(((Map.Entry<?,?>)o).getKey());
+				return true;
+			}
+			return false;
+		}
+
+		@Override
+		public void clear() {
+			ExalgeColumnarMap.this.clear();
+		}
+	}
+
+	private final class KeySet extends AbstractSet<ExBase>
+	{
+		@Override
+		public Iterator<ExBase> iterator() {
+			return new SlotIterator<ExBase>() {
+				public ExBase next() {
+					return bases[nextSlot()];
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return containsKey(o);
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			int pos = findTablePosition(o);
+			if (pos < 0)
+				return false;
+			removeAt(pos, table[pos] - 1);
+			return true;
+		}
+
+		@Override
+		public void clear() {
+			ExalgeColumnarMap.this.clear();
+		}
+	}
+}
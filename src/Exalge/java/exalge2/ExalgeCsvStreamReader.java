@@ -0,0 +1,311 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Li Hou(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+/*
+ * @(#)ExalgeCsvStreamReader.java	0.985	2026/10/18
+ *     - created
+ */
+package exalge2;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+
+import exalge2.io.csv.CsvFormatException;
+import exalge2.io.csv.CsvReader;
+
+/**
+ * 交換代数 CSV ファイルを、要素ごとに逐次読み込むためのリーダー。
+ * <p>
+ * {@link Exalge#fromCSV(File)}、{@link ExAlgeSet#fromCSV(File)} はファイル全体を
+ * 一つの交換代数(集合)として生成するが、このクラスは要素(値と基底の組)を 1 つずつ、
+ * もしくは空行で区切られた交換代数元を 1 つずつ返す。
+ * そのため、プロジェクション、変換、集計などを、ファイルの大きさに依存しないメモリ量で実行できる。
+ * <p>
+ * CSV ファイルのフォーマットは、{@link ExAlgeSet} の CSV フォーマットと同一とする。
+ * 空行、および値を含まないレコードは交換代数元の区切りとみなし、<code>'#'</code> で始まる行はコメント行とみなす。
+ * 交換代数 CSV ファイルは、区切りのない一つの交換代数元として読み込むことができる。
+ * <p>
+ * 次の例は、基底パターンに一致する要素のみを、交換代数元ごとに集約変換して出力する。
+ * <pre><code>
+ * ExalgeCsvStreamReader reader = new ExalgeCsvStreamReader(srcFile, "UTF-8");
+ * ExalgeCsvStreamWriter writer = new ExalgeCsvStreamWriter(destFile, "UTF-8");
+ * try {
+ *     Exalge alge;
+ *     while ((alge = reader.readExalge()) != null) {
+ *         writer.writeExalge(alge.patternProjection(patterns).aggreTransfer(table));
+ *     }
+ * } finally {
+ *     reader.close();
+ *     writer.close();
+ * }
+ * </code></pre>
+ * <p>
+ * <b>この実装は同期化されない</b>。
+ *
+ * @version 0.985	2026/10/18
+ *
+ * @since 0.985
+ */
+public class ExalgeCsvStreamReader
+{
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/**
+	 * CSV ファイルの読み込みに使用するリーダー
+	 */
+	private final CsvReader _reader;
+	/**
+	 * 基底の生成キャッシュ
+	 */
+	private final ExBaseBulkLoader _loader = new ExBaseBulkLoader();
+	/**
+	 * 最後に読み込んだ要素が属する交換代数元の番号(1 から始まる)、
+	 * 要素を読み込んでいない場合は 0
+	 */
+	private int _groupNo = 0;
+	/**
+	 * 最後に読み込んだ要素の後に、交換代数元の区切りが存在した場合に <tt>true</tt>
+	 */
+	private boolean _separated = true;
+	/**
+	 * 読み込んだ要素の総数
+	 */
+	private long _numElements = 0L;
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	/**
+	 * 指定されたファイルをデフォルトの文字セットで読み込む、新しいリーダーを生成する。
+	 * @param csvFile	読み込む CSV ファイル
+	 * @throws FileNotFoundException ファイルが存在しないか、何らかの理由で開くことができない場合
+	 */
+	public ExalgeCsvStreamReader(File csvFile)
+		throws FileNotFoundException
+	{
+		this(new CsvReader(csvFile));
+	}
+
+	/**
+	 * 指定されたファイルを指定された文字セットで読み込む、新しいリーダーを生成する。
+	 * @param csvFile		読み込む CSV ファイル
+	 * @param charsetName	文字セット名
+	 * @throws FileNotFoundException ファイルが存在しないか、何らかの理由で開くことができない場合
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 */
+	public ExalgeCsvStreamReader(File csvFile, String charsetName)
+		throws FileNotFoundException, UnsupportedEncodingException
+	{
+		this(new CsvReader(csvFile, charsetName));
+	}
+
+	/**
+	 * 指定された文字型入力ストリームから読み込む、新しいリーダーを生成する。
+	 * @param reader	読み込みに使用する文字型入力ストリーム
+	 * @throws NullPointerException	引数が <tt>null</tt> の場合
+	 */
+	public ExalgeCsvStreamReader(Reader reader) {
+		this(new CsvReader(reader));
+	}
+
+	private ExalgeCsvStreamReader(CsvReader reader) {
+		_reader = reader;
+		// コメント行は有効
+		_reader.setLineCommentEnable(true);
+	}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * ストリームを閉じる。
+	 */
+	public void close() {
+		_reader.close();
+	}
+
+	/**
+	 * 最後に読み込んだ要素が属する交換代数元の番号を返す。
+	 * 番号は 1 から始まり、空行で区切られるごとに 1 ずつ増加する。
+	 * @return	交換代数元の番号、要素を読み込んでいない場合は 0
+	 */
+	public int getGroupNo() {
+		return _groupNo;
+	}
+
+	/**
+	 * これまでに読み込んだ要素の総数を返す。
+	 * @return	要素の総数
+	 */
+	public long getNumElements() {
+		return _numElements;
+	}
+
+	/**
+	 * 次の要素を読み込む。交換代数元の区切りは読み飛ばされる。
+	 * 読み込んだ要素が属する交換代数元の番号は、{@link #getGroupNo()} で取得できる。
+	 * <p>
+	 * 同一の基底を持つ要素は加算されず、ファイルに記述されたとおりに返される。
+	 *
+	 * @return	読み込んだ要素、ストリームの終端に達した場合は <tt>null</tt>
+	 * @throws IOException			入出力エラーが発生した場合
+	 * @throws CsvFormatException	CSVフォーマットエラーが発生した場合
+	 */
+	public Element readElement()
+		throws IOException, CsvFormatException
+	{
+		CsvReader.CsvRecord record;
+		while ((record = _reader.readCsvRecord()) != null) {
+			// 空行、コメント行は、元の区切りとする
+			if (!record.hasFields() || !record.hasValues()) {
+				_separated = true;
+				continue;
+			}
+			return readRecord(record);
+		}
+		return null;
+	}
+
+	/**
+	 * 次の交換代数元の区切り、もしくはストリームの終端までの要素を読み込み、
+	 * 新しい交換代数元を生成する。要素が存在しない交換代数元は読み飛ばされる。
+	 * <p>
+	 * {@link #readElement()} により交換代数元の途中まで読み込まれている場合は、
+	 * その交換代数元の残りの要素から生成する。
+	 * 同一の基底を持つ要素は、{@link Exalge#fromCSV(File)} と同様に加算される。
+	 *
+	 * @return	読み込んだ交換代数元、ストリームの終端に達した場合は <tt>null</tt>
+	 * @throws IOException			入出力エラーが発生した場合
+	 * @throws CsvFormatException	CSVフォーマットエラーが発生した場合
+	 */
+	public Exalge readExalge()
+		throws IOException, CsvFormatException
+	{
+		Exalge newAlge = new Exalge();
+		CsvReader.CsvRecord record;
+		while ((record = _reader.readCsvRecord()) != null) {
+			// 空行、コメント行は、元の区切りとする
+			if (!record.hasFields() || !record.hasValues()) {
+				_separated = true;
+				if (!newAlge.isEmpty()) {
+					break;
+				}
+				continue;
+			}
+			Element elem = readRecord(record);
+			newAlge.plusValue(elem.getBase(), elem.getValue());
+		}
+		return (newAlge.isEmpty() ? null : newAlge);
+	}
+
+	/**
+	 * ストリームの終端までのすべての要素を、交換代数元の区切りに関係なく加算した交換代数を返す。
+	 * 結果は、{@link Exalge#fromCSV(File)} と同一となる。
+	 *
+	 * @return	読み込んだ要素の総和となる交換代数、要素が存在しない場合は空の交換代数
+	 * @throws IOException			入出力エラーが発生した場合
+	 * @throws CsvFormatException	CSVフォーマットエラーが発生した場合
+	 */
+	public Exalge readAll()
+		throws IOException, CsvFormatException
+	{
+		Exalge newAlge = new Exalge();
+		Element elem;
+		while ((elem = readElement()) != null) {
+			newAlge.plusValue(elem.getBase(), elem.getValue());
+		}
+		return newAlge;
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	private Element readRecord(CsvReader.CsvRecord record)
+		throws IOException, CsvFormatException
+	{
+		CsvReader.CsvFieldReader freader = new CsvReader.CsvFieldReader(record);
+		BigDecimal value = Exalge.readValueFieldFromCSV(freader);
+		ExBase base = ExBase.readFieldFromCSV(freader, _loader);
+		if (_separated) {
+			_separated = false;
+			_groupNo++;
+		}
+		_numElements++;
+		return new Element(base, value);
+	}
+
+	//------------------------------------------------------------
+	// Inner classes
+	//------------------------------------------------------------
+
+	/**
+	 * CSV ファイルから読み込んだ、交換代数の 1 要素。
+	 *
+	 * @version 0.985	2026/10/18
+	 *
+	 * @since 0.985
+	 */
+	static public final class Element
+	{
+		private final ExBase		_base;
+		private final BigDecimal	_value;
+
+		/**
+		 * 指定された基底と値で、新しいインスタンスを生成する。
+		 * @param base	基底
+		 * @param value	値
+		 * @throws NullPointerException	<em>base</em> が <tt>null</tt> の場合
+		 */
+		public Element(ExBase base, BigDecimal value) {
+			if (base == null)
+				throw new NullPointerException("'base' argument cannot be null.");
+			_base  = base;
+			_value = value;
+		}
+
+		/**
+		 * 要素の基底を返す。
+		 * @return	基底
+		 */
+		public ExBase getBase() {
+			return _base;
+		}
+
+		/**
+		 * 要素の値を返す。
+		 * @return	値、&quot;null&quot; が指定されていた場合は <tt>null</tt>
+		 */
+		public BigDecimal getValue() {
+			return _value;
+		}
+
+		@Override
+		public String toString() {
+			return "(" + _value + ")" + _base;
+		}
+	}
+}
@@ -0,0 +1,194 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Li Hou(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+/*
+ * @(#)ExalgeCsvStreamWriter.java	0.985	2026/10/18
+ *     - created
+ */
+package exalge2;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.Map;
+
+import exalge2.io.csv.CsvWriter;
+
+/**
+ * 交換代数の要素を、CSV ファイルへ逐次出力するためのライター。
+ * <p>
+ * 要素を 1 つずつ、もしくは交換代数元を 1 つずつ出力する。
+ * 出力されるフォーマットは、{@link Exalge#toCSV(File)}、{@link ExAlgeSet#toCSV(File)} と同一となる。
+ * 交換代数元の区切りとなる空行は、区切りの後に要素が出力される時点で出力されるため、
+ * ファイルの先頭と末尾に空行は出力されない。
+ * <p>
+ * <b>この実装は同期化されない</b>。
+ *
+ * @version 0.985	2026/10/18
+ *
+ * @see ExalgeCsvStreamReader
+ *
+ * @since 0.985
+ */
+public class ExalgeCsvStreamWriter
+{
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/**
+	 * CSV ファイルへの出力に使用するライター
+	 */
+	private final CsvWriter _writer;
+	/**
+	 * 次の要素の前に交換代数元の区切りを出力する場合に <tt>true</tt>
+	 */
+	private boolean _separatorPending = false;
+	/**
+	 * 出力した要素の総数
+	 */
+	private long _numElements = 0L;
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	/**
+	 * 指定されたファイルへデフォルトの文字セットで出力する、新しいライターを生成する。
+	 * @param csvFile	出力先ファイル
+	 * @throws FileNotFoundException ファイルは存在するが、普通のファイルではなくディレクトリである場合、
+	 * ファイルは存在せず作成もできない場合、または何らかの理由で開くことができない場合
+	 * @throws IOException 入出力エラーが発生した場合
+	 */
+	public ExalgeCsvStreamWriter(File csvFile)
+		throws FileNotFoundException, IOException
+	{
+		_writer = new CsvWriter(csvFile);
+	}
+
+	/**
+	 * 指定されたファイルへ指定された文字セットで出力する、新しいライターを生成する。
+	 * @param csvFile		出力先ファイル
+	 * @param charsetName	文字セット名
+	 * @throws FileNotFoundException ファイルは存在するが、普通のファイルではなくディレクトリである場合、
+	 * ファイルは存在せず作成もできない場合、または何らかの理由で開くことができない場合
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 */
+	public ExalgeCsvStreamWriter(File csvFile, String charsetName)
+		throws FileNotFoundException, UnsupportedEncodingException
+	{
+		_writer = new CsvWriter(csvFile, charsetName);
+	}
+
+	/**
+	 * 指定された文字型出力ストリームへ出力する、新しいライターを生成する。
+	 * @param writer	出力に使用する文字型出力ストリーム
+	 * @throws NullPointerException	引数が <tt>null</tt> の場合
+	 */
+	public ExalgeCsvStreamWriter(Writer writer) {
+		_writer = new CsvWriter(writer);
+	}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * ストリームをフラッシュする。
+	 * @throws IOException	入出力エラーが発生した場合
+	 */
+	public void flush() throws IOException {
+		_writer.flush();
+	}
+
+	/**
+	 * ストリームを閉じる。
+	 */
+	public void close() {
+		_writer.close();
+	}
+
+	/**
+	 * これまでに出力した要素の総数を返す。
+	 * @return	要素の総数
+	 */
+	public long getNumElements() {
+		return _numElements;
+	}
+
+	/**
+	 * 現在の交換代数元を終了する。次に出力される要素は、新しい交換代数元の要素となる。
+	 * 現在の交換代数元に要素が出力されていない場合は、何もしない。
+	 */
+	public void endExalge() {
+		if (_numElements > 0L) {
+			_separatorPending = true;
+		}
+	}
+
+	/**
+	 * 指定された要素を、現在の交換代数元の要素として出力する。
+	 * @param base	要素の基底
+	 * @param value	要素の値(<tt>null</tt> 可)
+	 * @throws IOException	入出力エラーが発生した場合
+	 * @throws NullPointerException	<em>base</em> が <tt>null</tt> の場合
+	 */
+	public void writeElement(ExBase base, BigDecimal value) throws IOException {
+		if (base == null)
+			throw new NullPointerException("'base' argument cannot be null.");
+		if (_separatorPending) {
+			// 交換代数元の区切りを挿入
+			_writer.writeBlankLine();
+			_separatorPending = false;
+		}
+		Exalge.writeElementToCSV(_writer, base, value);
+		_numElements++;
+	}
+
+	/**
+	 * 指定された要素を、現在の交換代数元の要素として出力する。
+	 * @param elem	出力する要素
+	 * @throws IOException	入出力エラーが発生した場合
+	 * @throws NullPointerException	<em>elem</em> が <tt>null</tt> の場合
+	 */
+	public void writeElement(ExalgeCsvStreamReader.Element elem) throws IOException {
+		writeElement(elem.getBase(), elem.getValue());
+	}
+
+	/**
+	 * 指定された交換代数のすべての要素を、一つの交換代数元として出力する。
+	 * 要素が空の交換代数の場合は、何も出力しない。
+	 * @param alge	出力する交換代数
+	 * @throws IOException	入出力エラーが発生した場合
+	 * @throws NullPointerException	<em>alge</em> が <tt>null</tt> の場合
+	 */
+	public void writeExalge(Exalge alge) throws IOException {
+		if (alge.isEmpty()) {
+			// 出力なし
+			return;
+		}
+		endExalge();
+		for (Map.Entry<ExBase, BigDecimal> entry : alge.data.entrySet()) {
+			writeElement(entry.getKey(), entry.getValue());
+		}
+		endExalge();
+	}
+}
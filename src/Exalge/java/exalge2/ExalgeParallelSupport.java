@@ -0,0 +1,233 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Li Hou(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+/*
+ * @(#)ExalgeParallelSupport.java	0.985	2026/10/18
+ *     - created
+ */
+package exalge2;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 交換代数の演算を複数のスレッドで実行するためのユーティリティ。
+ * <p>
+ * 処理対象の交換代数元の列を連続した区間に分割して並列に処理し、区間の順序どおりに結果を結合する。
+ * そのため、結果の交換代数元の順序、および交換代数元の基底の順序は、逐次処理の結果と同一となる。
+ *
+ * @version 0.985	2026/10/18
+ *
+ * @since 0.985
+ */
+final class ExalgeParallelSupport
+{
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	private ExalgeParallelSupport() {}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * 指定されたスレッド数を、実際に使用するスレッド数に変換する。
+	 * @param numThreads	スレッド数、0 以下の場合は利用可能なプロセッサ数
+	 * @return	1 以上のスレッド数
+	 */
+	static public int getNumThreads(int numThreads) {
+		return (numThreads > 0 ? numThreads : Math.max(1, Runtime.getRuntime().availableProcessors()));
+	}
+
+	/**
+	 * 指定されたコレクションに含まれる交換代数元の総和を、複数のスレッドで計算する。
+	 * コレクションを連続した区間に分割して区間ごとの部分和を求め、隣接する部分和を 2 つずつ加算する。
+	 * 結果は {@link Exalge#sum(Collection)} と同一となる。
+	 * @param c				総和を計算する交換代数元のコレクション
+	 * @param numThreads	スレッド数、0 以下の場合は利用可能なプロセッサ数
+	 * @return	計算結果となる <code>Exalge</code> の新しいインスタンス
+	 * @throws NullPointerException	<em>c</em> が <tt>null</tt> の場合
+	 */
+	static public Exalge sum(Collection<? extends Exalge> c, int numThreads) {
+		final Exalge[] alges = c.toArray(new Exalge[c.size()]);
+		int numParts = Math.min(getNumThreads(numThreads), alges.length);
+		if (numParts <= 1) {
+			return Exalge.sum(c);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(numParts, new ExalgeThreadFactory());
+		try {
+			// 区間ごとの部分和
+			List<Future<Exalge>> partials = new ArrayList<Future<Exalge>>(numParts);
+			for (int part = 0; part < numParts; part++) {
+				final int from = (int)((long)alges.length * part / numParts);
+				final int to   = (int)((long)alges.length * (part + 1) / numParts);
+				partials.add(executor.submit(new Callable<Exalge>() {
+					public Exalge call() {
+						Exalge partial = new Exalge();
+						for (int i = from; i < to; i++) {
+							if (alges[i] != null) {
+								partial.plusValues(alges[i]);
+							}
+						}
+						return partial;
+					}
+				}));
+			}
+
+			// 隣接する部分和の加算
+			while (partials.size() > 1) {
+				List<Future<Exalge>> merged = new ArrayList<Future<Exalge>>((partials.size() + 1) / 2);
+				for (int i = 0; i < partials.size(); i += 2) {
+					if (i + 1 < partials.size()) {
+						final Exalge left  = waitForTask(partials.get(i));
+						final Exalge right = waitForTask(partials.get(i + 1));
+						merged.add(executor.submit(new Callable<Exalge>() {
+							public Exalge call() {
+								left.plusValues(right);
+								return left;
+							}
+						}));
+					} else {
+						merged.add(partials.get(i));
+					}
+				}
+				partials = merged;
+			}
+			return waitForTask(partials.get(0));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * 指定されたリストの交換代数元それぞれに演算を複数のスレッドで適用し、結果が空ではない交換代数元を
+	 * 元の順序で格納した新しい交換代数集合を返す。
+	 * @param alges			処理対象の交換代数元のリスト
+	 * @param numThreads	スレッド数、0 以下の場合は利用可能なプロセッサ数
+	 * @param operation		交換代数元に適用する演算
+	 * @return	演算結果の交換代数集合
+	 */
+	static public ExAlgeSet map(List<Exalge> alges, int numThreads, final ElementOperation operation) {
+		final Exalge[] source = alges.toArray(new Exalge[alges.size()]);
+		final Exalge[] results = new Exalge[source.length];
+		int numParts = Math.min(getNumThreads(numThreads), source.length);
+
+		if (numParts <= 1) {
+			for (int i = 0; i < source.length; i++) {
+				results[i] = operation.apply(source[i]);
+			}
+		} else {
+			// 処理時間のばらつきを均すため、スレッド数より多くの区間に分割する
+			int numChunks = Math.min(numParts * 4, source.length);
+			ExecutorService executor = Executors.newFixedThreadPool(numParts, new ExalgeThreadFactory());
+			try {
+				List<Future<?>> tasks = new ArrayList<Future<?>>(numChunks);
+				for (int chunk = 0; chunk < numChunks; chunk++) {
+					final int from = (int)((long)source.length * chunk / numChunks);
+					final int to   = (int)((long)source.length * (chunk + 1) / numChunks);
+					tasks.add(executor.submit(new Runnable() {
+						public void run() {
+							for (int i = from; i < to; i++) {
+								results[i] = operation.apply(source[i]);
+							}
+						}
+					}));
+				}
+				for (Future<?> task : tasks) {
+					waitForTask(task);
+				}
+			}
+			finally {
+				executor.shutdownNow();
+			}
+		}
+
+		ExAlgeSet newSet = new ExAlgeSet(results.length);
+		for (Exalge alge : results) {
+			if (!alge.isEmpty()) {
+				newSet.fastAdd(alge);	// 空ではない要素のみを含む
+			}
+		}
+		return newSet;
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	static private <T> T waitForTask(Future<T> future) {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(ex);
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException)cause;
+			} else if (cause instanceof Error) {
+				throw (Error)cause;
+			} else {
+				throw new RuntimeException(cause);
+			}
+		}
+	}
+
+	//------------------------------------------------------------
+	// Inner classes
+	//------------------------------------------------------------
+
+	/**
+	 * 交換代数元ごとに適用する演算。
+	 * 演算は、複数のスレッドから同時に呼び出される。
+	 */
+	static abstract class ElementOperation
+	{
+		/**
+		 * 指定された交換代数元に演算を適用した結果を返す。
+		 * @param alge	交換代数元
+		 * @return	演算結果の交換代数元(<tt>null</tt> は不可)
+		 */
+		abstract public Exalge apply(Exalge alge);
+	}
+
+	static private final class ExalgeThreadFactory implements ThreadFactory
+	{
+		static private final AtomicInteger _threadNumber = new AtomicInteger(1);
+
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "Exalge-" + _threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -17,6 +17,8 @@
  *  <author> Yasunari Ishizuka(PieCake.inc,)
  */
 /*
+ * @(#)TransMatrix.java	0.985	2026/10/18 - index for transfer source patterns, XML streaming
+ *     - modified
  * @(#)TransMatrix.java	0.984	2014/05/29
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)TransMatrix.java	0.970	2009/03/10
@@ -64,6 +66,8 @@ import exalge2.io.csv.CsvRecordReader;
 import exalge2.io.csv.CsvWriter;
 import exalge2.io.xml.XmlDocument;
 import exalge2.io.xml.XmlDomParseException;
+import exalge2.io.xml.XmlStreamParser;
+import exalge2.io.xml.XmlStreamWriter;
 
 /**
  * 
@@ -190,8 +194,10 @@ import exalge2.io.xml.XmlDomParseException;
  * </ul>
  * なお、XML ドキュメントの入出力は、{@link #toXML()}、{@link #fromXML(XmlDocument)} により行う。
  * また、XML ファイルの入出力は、{@link #toXML(File)}、{@link #fromXML(File)} により行う。
+ * 大規模な XML ファイルの入出力には、XML ドキュメント全体を生成せずに逐次処理する
+ * {@link #toXmlStream(File)}、{@link #fromXmlStream(File)} を使用できる。
  * 
- * @version 0.984	2014/05/29
+ * @version 0.985	2026/10/18
  * 
  * @author H.Deguchi(SOARS Project.)
  * @author Y.Ishizuka(PieCake.inc,)
@@ -215,6 +221,12 @@ public class TransMatrix implements exalge2.io.IDataOutput, Cloneable
 	 */
 	private LinkedHashMap<ExBasePattern,TransDivideRatios> transMap;
 	private boolean useTotalRatio;
+	/**
+	 * 按分元基底パターンの検索用インデックス。按分元基底パターンが変更された場合は <tt>null</tt> となり、
+	 * 次の検索時に再生成される。
+	 * @since 0.985
+	 */
+	private ExBasePatternMatchIndex transFromIndex;
 
 	//------------------------------------------------------------
 	// Constructions
@@ -348,6 +360,7 @@ public class TransMatrix implements exalge2.io.IDataOutput, Cloneable
 	 */
 	public void clear() {
 		this.transMap.clear();
+		this.transFromIndex = null;
 	}
 
 	/**
@@ -392,7 +405,10 @@ public class TransMatrix implements exalge2.io.IDataOutput, Cloneable
 			throw new NullPointerException("transTo is null");
 		
 		// put
-		this.transMap.put(transFrom, transTo);
+		if (this.transMap.put(transFrom, transTo) == null) {
+			//--- 既存のパターンの上書きでは登録順は変化しない
+			this.transFromIndex = null;
+		}
 	}
 
 	/**
@@ -401,7 +417,9 @@ public class TransMatrix implements exalge2.io.IDataOutput, Cloneable
 	 * @param transFrom 削除する按分元基底パターン
 	 */
 	public void remove(ExBasePattern transFrom) {
-		this.transMap.remove(transFrom);
+		if (this.transMap.remove(transFrom) != null) {
+			this.transFromIndex = null;
+		}
 	}
 
 	/**
@@ -411,6 +429,9 @@ public class TransMatrix implements exalge2.io.IDataOutput, Cloneable
 	 * 最初に一致した按分元基底パターンを返す。
 	 * <br>
 	 * 一致するパターンが存在しない場合は <tt>null</tt> を返す。
+	 * <p>
+	 * <b>(0.985)</b> 按分元基底パターンの検索は、最初の呼び出し時に生成されるインデックスにより行う。
+	 * インデックスは按分元基底パターンが変更されると破棄され、次の呼び出し時に再生成される。
 	 * 
 	 * @param targetBase パターンとの一致を検証する基底
 	 * 
@@ -418,18 +439,10 @@ public class TransMatrix implements exalge2.io.IDataOutput, Cloneable
 	 * 			一致するパターンが存在しない場合は <tt>null</tt> を返す。
 	 */
 	public ExBasePattern machesTransFrom(ExBase targetBase) {
-		Iterator<ExBasePattern> it = this.transMap.keySet().iterator();
-		while (it.hasNext()) {
-			ExBasePattern pat = it.next();
-			// maches
-			if (pat.matches(targetBase)) {
-				// mached!
-				return pat;
-			}
+		if (targetBase == null || this.transMap.isEmpty()) {
+			return null;
 		}
-		
-		// No maches
-		return null;
+		return getTransFromIndex().matches(targetBase);
 	}
 
 	/**
@@ -1045,6 +1058,93 @@ public class TransMatrix implements exalge2.io.IDataOutput, Cloneable
 		
 		return TransMatrix.fromXML(xmlDocument);
 	}
+	
+	/**
+	 * 按分変換テーブルの内容を、指定のファイルに XML フォーマットで逐次出力する。
+	 * <p>
+	 * 出力されるフォーマットは {@link #toXML(File)} と同一だが、XML ドキュメント全体を生成せずに
+	 * 変換定義ごとに出力するため、メモリ使用量は変換定義数に依存しない。
+	 * 
+	 * @param xmlFile 出力先ファイル
+	 * 
+	 * @throws FactoryConfigurationError XML の実装が使用できないかインスタンス化できない場合
+	 * @throws ParserConfigurationException DocumentBuilder を構成できない場合
+	 * @throws DOMException タグの生成に失敗した場合
+	 * @throws IOException 入出力エラーが発生した場合
+	 * 
+	 * @since 0.985
+	 */
+	public void toXmlStream(File xmlFile)
+		throws FactoryConfigurationError, ParserConfigurationException, DOMException, IOException
+	{
+		XmlDocument xml = new XmlDocument();
+		XmlStreamWriter writer = new XmlStreamWriter(xmlFile);
+		try {
+			writer.startDocument();
+			writer.startElement(XML_ROOT_ELEMENT_NAME);
+			for (Map.Entry<ExBasePattern, TransDivideRatios> entry : this.transMap.entrySet()) {
+				if (!entry.getValue().isEmpty()) {
+					writer.writeElement(encodeToItemElement(xml, entry.getKey(), entry.getValue()));
+				}
+			}
+			writer.endDocument();
+		}
+		finally {
+			writer.close();
+		}
+	}
+	
+	/**
+	 * XML フォーマットのファイルを逐次読み込み、新しい按分変換テーブルを生成する。
+	 * <br>
+	 * 新しく生成されたインスタンスは、按分比率合計値が 1 であるとする計算方法となる。
+	 * <p>
+	 * 生成される按分変換テーブルは {@link #fromXML(File)} と同一だが、ファイル全体の XML ドキュメントを
+	 * 生成せずに変換定義ごとに解析する。解析中にエラーが発生した場合の例外も、{@link #fromXML(File)} と同一となる。
+	 * ただし、XML 文書構成エラーよりも前に XML ノード解析エラーが検出された場合は、
+	 * {@link XmlDomParseException} がスローされる。
+	 * 
+	 * @param xmlFile 読み込む XML ファイル
+	 * 
+	 * @return ファイルの内容で生成された、新しい <code>TransMatrix</code> インスタンスを返す。
+	 * 
+	 * @throws FactoryConfigurationError XML の実装が使用できないかインスタンス化できない場合
+	 * @throws ParserConfigurationException SAXParser を構成できない場合
+	 * @throws IOException 入出力エラーが発生した場合
+	 * @throws SAXException XML文書構成がエラーの場合
+	 * @throws XmlDomParseException XML ノード解析エラーが発生した場合
+	 * 
+	 * @since 0.985
+	 */
+	static public TransMatrix fromXmlStream(File xmlFile)
+		throws FactoryConfigurationError, ParserConfigurationException, IOException, SAXException,
+				XmlDomParseException
+	{
+		final TransMatrix newMatrix = new TransMatrix();
+		XmlStreamParser decoder = new XmlStreamParser(1) {
+			@Override
+			protected void decodeContainerElement(XmlDocument xmlDocument, Element xmlElement)
+				throws XmlDomParseException
+			{
+				// check Element name
+				if (!xmlElement.getNodeName().equals(XML_ROOT_ELEMENT_NAME)) {
+					// Illegal element name
+					throw new XmlDomParseException(XmlDomParseException.ILLEGAL_ELEMENT_NAME,
+													xmlDocument, xmlElement, null, null);
+				}
+			}
+			@Override
+			protected void decodeItemElement(XmlDocument xmlDocument, Element xmlElement)
+				throws XmlDomParseException
+			{
+				newMatrix.decodeFromItemElement(xmlDocument, xmlElement);
+			}
+		};
+		decoder.parse(xmlFile);
+		//--- 計算方法のデフォルトは、デフォルトコンストラクタに依存する。
+		
+		return newMatrix;
+	}
 
 	//------------------------------------------------------------
 	// Internal methods for I/O
@@ -1198,36 +1298,7 @@ public class TransMatrix implements exalge2.io.IDataOutput, Cloneable
 			ExBasePattern patFrom = itTransFrom.next();
 			TransDivideRatios toList = this.transMap.get(patFrom);
 			if (!toList.isEmpty()) {
-				// create item element
-				Element itemElement = xmlDocument.createElement(XML_ITEM_ELEMENT_NAME);
-				
-				// create TransFrom element
-				Element transFromElement = xmlDocument.createElement(XML_FROM_ELEMENT_NAME);
-				{
-					Element patElement = patFrom.encodeToElement(xmlDocument);
-					transFromElement.appendChild(patElement);
-				}
-				
-				// create TransTo element
-				Element transToElement = xmlDocument.createElement(XML_TO_ELEMENT_NAME);
-				Iterator<ExBasePattern> itTransTo = toList.patterns().iterator();
-				while (itTransTo.hasNext()) {
-					ExBasePattern patTo = itTransTo.next();
-					BigDecimal toRatio = toList.getRatio(patTo);
-					//--- create DivideTo element
-					Element divToElement = xmlDocument.createElement(XML_DIVIDE_ELEMENT_NAME);
-					divToElement.setAttribute(XML_ATTR_DIV_RATIO, toRatio.toPlainString());
-					//--- create pattern element
-					Element patElement = patTo.encodeToElement(xmlDocument);
-					//--- regist to TransTo element
-					divToElement.appendChild(patElement);
-					transToElement.appendChild(divToElement);
-				}
-				
-				// regist to item element
-				itemElement.appendChild(transFromElement);
-				itemElement.appendChild(transToElement);
-				node.appendChild(itemElement);
+				node.appendChild(encodeToItemElement(xmlDocument, patFrom, toList));
 			}
 		}
 		
@@ -1235,6 +1306,50 @@ public class TransMatrix implements exalge2.io.IDataOutput, Cloneable
 		return node;
 	}
 	
+	/**
+	 * 指定された変換定義を、<code>&lt;TransMatrixElem&gt;</code> エレメントに変換する。
+	 * @param xmlDocument	エレメント生成に使用する XML ドキュメント
+	 * @param patFrom		按分元基底パターン
+	 * @param toList		按分先基底パターンと按分比率
+	 * @return	生成されたエレメント
+	 * @throws DOMException	タグの生成に失敗した場合
+	 * @since 0.985
+	 */
+	protected Element encodeToItemElement(XmlDocument xmlDocument, ExBasePattern patFrom, TransDivideRatios toList)
+		throws DOMException
+	{
+		// create item element
+		Element itemElement = xmlDocument.createElement(XML_ITEM_ELEMENT_NAME);
+		
+		// create TransFrom element
+		Element transFromElement = xmlDocument.createElement(XML_FROM_ELEMENT_NAME);
+		{
+			Element patElement = patFrom.encodeToElement(xmlDocument);
+			transFromElement.appendChild(patElement);
+		}
+		
+		// create TransTo element
+		Element transToElement = xmlDocument.createElement(XML_TO_ELEMENT_NAME);
+		Iterator<ExBasePattern> itTransTo = toList.patterns().iterator();
+		while (itTransTo.hasNext()) {
+			ExBasePattern patTo = itTransTo.next();
+			BigDecimal toRatio = toList.getRatio(patTo);
+			//--- create DivideTo element
+			Element divToElement = xmlDocument.createElement(XML_DIVIDE_ELEMENT_NAME);
+			divToElement.setAttribute(XML_ATTR_DIV_RATIO, toRatio.toPlainString());
+			//--- create pattern element
+			Element patElement = patTo.encodeToElement(xmlDocument);
+			//--- regist to TransTo element
+			divToElement.appendChild(patElement);
+			transToElement.appendChild(divToElement);
+		}
+		
+		// regist to item element
+		itemElement.appendChild(transFromElement);
+		itemElement.appendChild(transToElement);
+		return itemElement;
+	}
+	
 	protected void decodeFromElement(XmlDocument xmlDocument, Element xmlElement)
 		throws XmlDomParseException
 	{
@@ -1444,4 +1559,20 @@ public class TransMatrix implements exalge2.io.IDataOutput, Cloneable
 	protected Map<ExBasePattern,TransDivideRatios> getTransMap() {
 		return transMap;
 	}
+
+	/**
+	 * 按分元基底パターンの検索用インデックスを取得する。
+	 * インデックスが生成されていない場合、もしくは {@link #transFromPatterns()} のビューなどから
+	 * 按分元基底パターンが削除された場合は、現在の按分元基底パターンからインデックスを再生成する。
+	 * @return 按分元基底パターンの検索用インデックス
+	 * @since 0.985
+	 */
+	private ExBasePatternMatchIndex getTransFromIndex() {
+		ExBasePatternMatchIndex index = transFromIndex;
+		if (index == null || index.size() != transMap.size()) {
+			index = new ExBasePatternMatchIndex(transMap.keySet());
+			transFromIndex = index;
+		}
+		return index;
+	}
 }
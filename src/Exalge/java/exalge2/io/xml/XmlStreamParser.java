@@ -0,0 +1,277 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Li Hou(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+/*
+ * @(#)XmlStreamParser.java	0.985	2026/10/18
+ *     - created
+ */
+
+package exalge2.io.xml;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.xml.parsers.FactoryConfigurationError;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.w3c.dom.Element;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * XML 文書を SAX により逐次解析する、交換代数コア・パッケージのパーサー。
+ * <p>
+ * このクラスは、ルート要素から指定された階層(項目階層)の要素を 1 項目とし、
+ * 項目ごとに、その要素を頂点とする部分的な DOM ツリーを生成して {@link #decodeItemElement(XmlDocument, Element)} を呼び出す。
+ * 項目の解析が終了した要素は DOM ツリーから取り除かれるため、文書全体の DOM ツリーを
+ * 生成する {@link XmlDocument#fromFile(File)} と異なり、メモリ使用量は最大の項目の大きさに比例する。
+ * <p>
+ * 項目階層より上位の要素(コンテナ要素)は、属性のみを持つ要素として生成され、
+ * 要素の開始時に {@link #decodeContainerElement(XmlDocument, Element)} が呼び出される。
+ * 生成される部分的な DOM ツリーは、文字データとコメントを含まない。
+ * <p>
+ * 解析メソッドで {@link XmlDomParseException} がスローされた場合、その例外はそのまま呼び出し元へスローされる。
+ *
+ * @version 0.985	2026/10/18
+ *
+ * @since 0.985
+ */
+public abstract class XmlStreamParser extends DefaultHandler
+{
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/**
+	 * 項目となる要素の階層(ルート要素を 0 とする)
+	 */
+	private final int		itemLevel;
+	/**
+	 * 部分的な DOM ツリーを保持する XML ドキュメント
+	 */
+	private XmlDocument	xmlDocument;
+	/**
+	 * 現在解析中の要素
+	 */
+	private Element		curElement;
+	/**
+	 * 現在解析中の要素の階層(ルート要素を 0 とする)
+	 */
+	private int			curLevel = -1;
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	/**
+	 * 指定された階層の要素を項目とする、新しいパーサーを生成する。
+	 *
+	 * @param itemLevel	項目となる要素の階層(ルート要素を 0 とする)
+	 *
+	 * @throws IllegalArgumentException	<em>itemLevel</em> が 0 以下の場合
+	 */
+	protected XmlStreamParser(int itemLevel) {
+		if (itemLevel <= 0)
+			throw new IllegalArgumentException("Illegal item level : " + itemLevel);
+		this.itemLevel = itemLevel;
+	}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * 指定されたファイルを解析する。
+	 *
+	 * @param xmlFile	解析する XML ファイル
+	 *
+	 * @throws FactoryConfigurationError XML の実装が使用できないかインスタンス化できない場合
+	 * @throws ParserConfigurationException SAXParser を構成できない場合
+	 * @throws IOException 入出力エラーが発生した場合
+	 * @throws SAXException XML文書構成がエラーの場合
+	 * @throws XmlDomParseException XML ノード解析エラーが発生した場合
+	 */
+	public void parse(File xmlFile)
+		throws FactoryConfigurationError, ParserConfigurationException, IOException, SAXException,
+				XmlDomParseException
+	{
+		try {
+			newSAXParser().parse(xmlFile, this);
+		}
+		catch (SAXException ex) {
+			throw unwrapException(ex);
+		}
+	}
+
+	/**
+	 * 指定された入力ストリームを解析する。
+	 *
+	 * @param xmlStream	解析する XML 文書の入力ストリーム
+	 *
+	 * @throws FactoryConfigurationError XML の実装が使用できないかインスタンス化できない場合
+	 * @throws ParserConfigurationException SAXParser を構成できない場合
+	 * @throws IOException 入出力エラーが発生した場合
+	 * @throws SAXException XML文書構成がエラーの場合
+	 * @throws XmlDomParseException XML ノード解析エラーが発生した場合
+	 */
+	public void parse(InputStream xmlStream)
+		throws FactoryConfigurationError, ParserConfigurationException, IOException, SAXException,
+				XmlDomParseException
+	{
+		try {
+			newSAXParser().parse(xmlStream, this);
+		}
+		catch (SAXException ex) {
+			throw unwrapException(ex);
+		}
+	}
+
+	//------------------------------------------------------------
+	// Implement DefaultHandler interfaces
+	//------------------------------------------------------------
+
+	@Override
+	public void startElement(String uri, String localName, String qName, Attributes attributes)
+		throws SAXException
+	{
+		int level = curLevel + 1;
+		if (level == 0) {
+			try {
+				xmlDocument = new XmlDocument();
+			}
+			catch (ParserConfigurationException ex) {
+				throw new SAXException(ex);
+			}
+		}
+
+		// create element
+		Element elem = xmlDocument.createElement(qName);
+		int len = attributes.getLength();
+		for (int i = 0; i < len; i++) {
+			elem.setAttribute(attributes.getQName(i), attributes.getValue(i));
+		}
+		if (level == 0) {
+			xmlDocument.append(elem);
+		} else {
+			curElement.appendChild(elem);
+		}
+		curElement = elem;
+		curLevel = level;
+
+		// decode container
+		if (level < itemLevel) {
+			try {
+				decodeContainerElement(xmlDocument, elem);
+			}
+			catch (XmlDomParseException ex) {
+				throw new SAXException(ex);
+			}
+		}
+	}
+
+	@Override
+	public void endElement(String uri, String localName, String qName)
+		throws SAXException
+	{
+		Element elem = curElement;
+		int level = curLevel;
+		curElement = (level > 0 ? (Element)elem.getParentNode() : null);
+		curLevel = level - 1;
+
+		if (level <= itemLevel) {
+			try {
+				if (level == itemLevel) {
+					decodeItemElement(xmlDocument, elem);
+				} else {
+					endContainerElement(xmlDocument, elem);
+				}
+			}
+			catch (XmlDomParseException ex) {
+				throw new SAXException(ex);
+			}
+			// 解析済みの要素を取り除く
+			if (curElement != null) {
+				curElement.removeChild(elem);
+			}
+		}
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	/**
+	 * 項目階層より上位の要素の開始時に呼び出される。
+	 * 指定された要素は、属性のみを持ち、子要素を持たない。
+	 *
+	 * @param xmlDocument	要素が所属する XML ドキュメント
+	 * @param xmlElement	開始された要素
+	 * @throws XmlDomParseException XML ノード解析エラーが発生した場合
+	 */
+	abstract protected void decodeContainerElement(XmlDocument xmlDocument, Element xmlElement)
+		throws XmlDomParseException;
+
+	/**
+	 * 項目となる要素の終了時に、その要素を頂点とする DOM ツリーを指定して呼び出される。
+	 * 指定された要素は、このメソッドの終了後に DOM ツリーから取り除かれる。
+	 *
+	 * @param xmlDocument	要素が所属する XML ドキュメント
+	 * @param xmlElement	項目となる要素
+	 * @throws XmlDomParseException XML ノード解析エラーが発生した場合
+	 */
+	abstract protected void decodeItemElement(XmlDocument xmlDocument, Element xmlElement)
+		throws XmlDomParseException;
+
+	/**
+	 * 項目階層より上位の要素の終了時に呼び出される。
+	 * このメソッドは何もしない。
+	 *
+	 * @param xmlDocument	要素が所属する XML ドキュメント
+	 * @param xmlElement	終了した要素
+	 * @throws XmlDomParseException XML ノード解析エラーが発生した場合
+	 */
+	protected void endContainerElement(XmlDocument xmlDocument, Element xmlElement)
+		throws XmlDomParseException
+	{
+	}
+
+	static private SAXParser newSAXParser()
+		throws FactoryConfigurationError, ParserConfigurationException, SAXException
+	{
+		SAXParserFactory factory = SAXParserFactory.newInstance();
+		// フィーチャーの設定
+		factory.setValidating(false);
+		factory.setNamespaceAware(false);
+		// SAXパーサの生成
+		return factory.newSAXParser();
+	}
+
+	static private SAXException unwrapException(SAXException ex)
+		throws XmlDomParseException
+	{
+		Exception wrapped = ex.getException();
+		if (wrapped instanceof XmlDomParseException) {
+			throw (XmlDomParseException)wrapped;
+		}
+		return ex;
+	}
+}
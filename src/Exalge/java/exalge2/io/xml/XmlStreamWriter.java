@@ -0,0 +1,296 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Li Hou(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+/*
+ * @(#)XmlStreamWriter.java	0.985	2026/10/18
+ *     - created
+ */
+
+package exalge2.io.xml;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.util.ArrayList;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import exalge2.io.FileUtil;
+
+/**
+ * XML 文書を逐次出力する、交換代数コア・パッケージのライター。
+ * <p>
+ * 出力される文書は、{@link XmlDocument#toFile(File)} と同様に、文字セットを {@link XmlDocument#XML_CHARSET}、
+ * インデントを空白 4 文字とした書式となる。子要素を持たない要素は空要素タグで出力され、
+ * 属性は DOM 要素の属性の順序で出力される。文字データは出力しない。
+ *
+ * @version 0.985	2026/10/18
+ *
+ * @since 0.985
+ */
+public class XmlStreamWriter
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	/**
+	 * XML 宣言
+	 */
+	static private final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"" + XmlDocument.XML_CHARSET + "\" standalone=\"no\"?>";
+	/**
+	 * 1 階層あたりのインデント
+	 */
+	static private final String XML_INDENT = "    ";
+
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/**
+	 * 出力先
+	 */
+	private final Writer	xmlWriter;
+	/**
+	 * 改行文字
+	 */
+	private final String	lineSeparator;
+	/**
+	 * 開始タグを出力した要素名の階層
+	 */
+	private final ArrayList<String>	elementStack = new ArrayList<String>();
+	/**
+	 * 最後に出力した開始タグが閉じられていない場合に <tt>true</tt>
+	 */
+	private boolean	startTagOpened = false;
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	/**
+	 * 指定されたファイルに出力する、新しいライターを生成する。
+	 *
+	 * @param xmlFile	出力先ファイル
+	 *
+	 * @throws FileNotFoundException ファイルは存在するが、普通のファイルではなくディレクトリである場合、
+	 * ファイルは存在せず作成もできない場合、または何らかの理由で開くことができない場合
+	 */
+	public XmlStreamWriter(File xmlFile)
+		throws FileNotFoundException
+	{
+		FileOutputStream foStream = new FileOutputStream(xmlFile);
+		OutputStreamWriter osWriter;
+		try {
+			osWriter = new OutputStreamWriter(foStream, XmlDocument.XML_CHARSET);
+		}
+		catch (UnsupportedEncodingException ex) {
+			FileUtil.closeStream(foStream);
+			throw new IllegalStateException(ex);
+		}
+		this.xmlWriter = new BufferedWriter(osWriter);
+		this.lineSeparator = getLineSeparator();
+	}
+
+	/**
+	 * 指定された文字型出力ストリームに出力する、新しいライターを生成する。
+	 *
+	 * @param writer	出力先の文字型出力ストリーム
+	 *
+	 * @throws NullPointerException	引数が <tt>null</tt> の場合
+	 */
+	public XmlStreamWriter(Writer writer) {
+		if (writer == null)
+			throw new NullPointerException("'writer' argument cannot be null.");
+		this.xmlWriter = writer;
+		this.lineSeparator = getLineSeparator();
+	}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * XML 宣言を出力する。
+	 *
+	 * @throws IOException 入出力エラーが発生した場合
+	 */
+	public void startDocument() throws IOException {
+		xmlWriter.write(XML_DECLARATION);
+		xmlWriter.write(lineSeparator);
+	}
+
+	/**
+	 * 開始されているすべての要素を終了し、文書の出力を完了する。
+	 *
+	 * @throws IOException 入出力エラーが発生した場合
+	 */
+	public void endDocument() throws IOException {
+		while (!elementStack.isEmpty()) {
+			endElement();
+		}
+		xmlWriter.write(lineSeparator);
+		xmlWriter.flush();
+	}
+
+	/**
+	 * 指定された名前の要素を開始する。
+	 *
+	 * @param name	要素名
+	 *
+	 * @throws IOException 入出力エラーが発生した場合
+	 */
+	public void startElement(String name) throws IOException {
+		closeStartTag();
+		if (!elementStack.isEmpty()) {
+			writeIndent(elementStack.size());
+		}
+		xmlWriter.write('<');
+		xmlWriter.write(name);
+		elementStack.add(name);
+		startTagOpened = true;
+	}
+
+	/**
+	 * 最後に開始した要素に、属性を出力する。
+	 * このメソッドは、{@link #startElement(String)} の直後にのみ呼び出すことができる。
+	 *
+	 * @param name	属性名
+	 * @param value	属性値
+	 *
+	 * @throws IOException 入出力エラーが発生した場合
+	 * @throws IllegalStateException	開始タグが出力されていない場合
+	 */
+	public void attribute(String name, String value) throws IOException {
+		if (!startTagOpened)
+			throw new IllegalStateException("Start tag is not opened.");
+		xmlWriter.write(' ');
+		xmlWriter.write(name);
+		xmlWriter.write("=\"");
+		writeEscapedAttribute(value);
+		xmlWriter.write('"');
+	}
+
+	/**
+	 * 最後に開始した要素を終了する。子要素を持たない要素は、空要素タグとなる。
+	 *
+	 * @throws IOException 入出力エラーが発生した場合
+	 * @throws IllegalStateException	開始されている要素が存在しない場合
+	 */
+	public void endElement() throws IOException {
+		if (elementStack.isEmpty())
+			throw new IllegalStateException("No element is started.");
+		String name = elementStack.remove(elementStack.size() - 1);
+		if (startTagOpened) {
+			xmlWriter.write("/>");
+			startTagOpened = false;
+		} else {
+			writeIndent(elementStack.size());
+			xmlWriter.write("</");
+			xmlWriter.write(name);
+			xmlWriter.write('>');
+		}
+	}
+
+	/**
+	 * 指定された DOM 要素を、その属性と子要素を含めて出力する。
+	 *
+	 * @param element	出力する要素
+	 *
+	 * @throws IOException 入出力エラーが発生した場合
+	 */
+	public void writeElement(Element element) throws IOException {
+		startElement(element.getNodeName());
+		NamedNodeMap attrs = element.getAttributes();
+		int len = attrs.getLength();
+		for (int i = 0; i < len; i++) {
+			Attr attr = (Attr)attrs.item(i);
+			attribute(attr.getName(), attr.getValue());
+		}
+		for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if (Node.ELEMENT_NODE == child.getNodeType()) {
+				writeElement((Element)child);
+			}
+		}
+		endElement();
+	}
+
+	/**
+	 * ストリームをフラッシュする。
+	 *
+	 * @throws IOException 入出力エラーが発生した場合
+	 */
+	public void flush() throws IOException {
+		xmlWriter.flush();
+	}
+
+	/**
+	 * ストリームを閉じる。
+	 */
+	public void close() {
+		FileUtil.closeStream(xmlWriter);
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	static private String getLineSeparator() {
+		String sep = System.getProperty("line.separator");
+		return (sep != null && sep.length() > 0 ? sep : "\n");
+	}
+
+	private void closeStartTag() throws IOException {
+		if (startTagOpened) {
+			xmlWriter.write('>');
+			startTagOpened = false;
+		}
+	}
+
+	private void writeIndent(int level) throws IOException {
+		xmlWriter.write(lineSeparator);
+		for (int i = 0; i < level; i++) {
+			xmlWriter.write(XML_INDENT);
+		}
+	}
+
+	private void writeEscapedAttribute(String value) throws IOException {
+		int len = value.length();
+		for (int i = 0; i < len; i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '&' : xmlWriter.write("&amp;");  break;
+				case '<' : xmlWriter.write("&lt;");   break;
+				case '>' : xmlWriter.write("&gt;");   break;
+				case '"' : xmlWriter.write("&quot;"); break;
+				case '\n': xmlWriter.write("&#10;");  break;
+				case '\r': xmlWriter.write("&#13;");  break;
+				case '\t': xmlWriter.write("&#9;");   break;
+				default  : xmlWriter.write(c);        break;
+			}
+		}
+	}
+}
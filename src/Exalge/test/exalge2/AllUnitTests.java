@@ -36,8 +36,14 @@ public class AllUnitTests {
 		suite.addTestSuite(ExBaseTest.class);
 		suite.addTestSuite(ExBasePatternTest.class);
 		suite.addTestSuite(ExBaseSetTest.class);
+		suite.addTestSuite(ExBaseInternTableTest.class);
+		suite.addTestSuite(ExBaseBulkLoaderTest.class);
 		suite.addTestSuite(ExBasePatternSetTest.class);
 		suite.addTestSuite(ExalgeTest.class);
+		suite.addTestSuite(ExalgeColumnarMapTest.class);
+		suite.addTestSuite(ExalgeParallelTest.class);
+		suite.addTestSuite(ExalgeCsvStreamTest.class);
+		suite.addTestSuite(ExalgeXmlStreamTest.class);
 		suite.addTestSuite(ExAlgeSetTest.class);
 		suite.addTestSuite(TransTableTest.class);
 		suite.addTestSuite(TransDivideRatiosTest.class);
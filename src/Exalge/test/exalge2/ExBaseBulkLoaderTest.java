@@ -0,0 +1,175 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Li Hou(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+package exalge2;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import exalge2.io.csv.CsvFormatException;
+import exalge2.io.csv.CsvReader;
+
+public class ExBaseBulkLoaderTest extends TestCase
+{
+	static private final String[] VALID_RECORDS = {
+		"1,NO_HAT,現金,円,Y2014,主体",
+		"2,no_hat,現金,円,Y2014,主体",
+		"3,HAT,現金,円,Y2014,主体",
+		"4,^,現金,円,Y2014,主体",
+		"5,,現金,,,",
+		"6,  hat , 現金 , 円 ,#, 主体 ",
+		"7,NO_HAT,#,#,#,#",
+		"8,NO_HAT,現金",
+		"9,NO_HAT,現金,円,Y2014,主体",
+		"10,HAT,売上,千円,Y2015,主体",
+	};
+
+	static private final String[] ILLEGAL_RECORDS = {
+		"1,HATT,現金,円,Y2014,主体",
+		"2,NO_HAT,,円,Y2014,主体",
+		"3,NO_HAT,現-金,円,Y2014,主体",
+		"4,NO_HAT,現金,円^,Y2014,主体",
+		"5,NO_HAT,現金,円,Y|2014,主体",
+		"6,NO_HAT,現金,円,Y2014,主<体>",
+		"7,NO_HAT",
+	};
+
+	/**
+	 * {@link exalge2.ExBase#readFieldFromCSV(exalge2.io.csv.CsvReader.CsvFieldReader, ExBaseBulkLoader)} のためのテスト・メソッド。
+	 */
+	public void testReadFieldFromCSV() throws Exception {
+		ExBaseBulkLoader loader = new ExBaseBulkLoader();
+		for (int n = 0; n < 2; n++) {
+			List<CsvReader.CsvFieldReader> expectedReaders = readRecords(VALID_RECORDS);
+			List<CsvReader.CsvFieldReader> actualReaders = readRecords(VALID_RECORDS);
+			for (int i = 0; i < expectedReaders.size(); i++) {
+				ExBase expected = ExBase.readFieldFromCSV(expectedReaders.get(i));
+				ExBase actual = ExBase.readFieldFromCSV(actualReaders.get(i), loader);
+				assertEquals(VALID_RECORDS[i], expected, actual);
+				assertEquals(VALID_RECORDS[i], expected.key(), actual.key());
+				assertEquals(VALID_RECORDS[i], expected.hashCode(), actual.hashCode());
+				assertEquals(VALID_RECORDS[i], expected.isHat(), actual.isHat());
+				assertEquals(VALID_RECORDS[i], expected.hat(), actual.hat());
+			}
+		}
+		// 同一の基底キーの組み合わせは、同一のインスタンス
+		assertEquals(6, loader.getNumCachedBases());
+		List<CsvReader.CsvFieldReader> readers = readRecords(VALID_RECORDS);
+		ExBase b1 = ExBase.readFieldFromCSV(readers.get(0), loader);
+		ExBase b2 = ExBase.readFieldFromCSV(readers.get(1), loader);
+		ExBase b9 = ExBase.readFieldFromCSV(readers.get(8), loader);
+		assertSame(b1, b2);
+		assertSame(b1, b9);
+		assertEquals(6, loader.getNumCachedBases());
+	}
+
+	/**
+	 * {@link exalge2.ExBase#readFieldFromCSV(exalge2.io.csv.CsvReader.CsvFieldReader, ExBaseBulkLoader)} のためのテスト・メソッド。
+	 * 不正な基底キーの例外が、従来の読み込みと同一となることを確認する。
+	 */
+	public void testReadFieldFromCSVIllegal() throws Exception {
+		ExBaseBulkLoader loader = new ExBaseBulkLoader();
+		for (int n = 0; n < 2; n++) {
+			List<CsvReader.CsvFieldReader> expectedReaders = readRecords(ILLEGAL_RECORDS);
+			List<CsvReader.CsvFieldReader> actualReaders = readRecords(ILLEGAL_RECORDS);
+			for (int i = 0; i < expectedReaders.size(); i++) {
+				CsvFormatException expected = null;
+				try {
+					ExBase.readFieldFromCSV(expectedReaders.get(i));
+					fail("CsvFormatException not thrown : " + ILLEGAL_RECORDS[i]);
+				} catch (CsvFormatException ex) {
+					expected = ex;
+				}
+				try {
+					ExBase.readFieldFromCSV(actualReaders.get(i), loader);
+					fail("CsvFormatException not thrown : " + ILLEGAL_RECORDS[i]);
+				} catch (CsvFormatException ex) {
+					assertEquals(ILLEGAL_RECORDS[i], expected.getMessage(), ex.getMessage());
+					assertEquals(ILLEGAL_RECORDS[i], expected.getLineNumber(), ex.getLineNumber());
+					assertEquals(ILLEGAL_RECORDS[i], expected.getColumnNumber(), ex.getColumnNumber());
+				}
+			}
+		}
+		assertEquals(0, loader.getNumCachedBases());
+	}
+
+	/**
+	 * {@link exalge2.ExBase#newValidatedInstance(String, String, String, String, String)} のためのテスト・メソッド。
+	 */
+	public void testNewValidatedInstance() {
+		ExBase expected = new ExBase("現金", ExBase.HAT, "円", ExBase.OMITTED, "主体");
+		ExBase actual = ExBase.newValidatedInstance("現金", ExBase.HAT, "円", ExBase.OMITTED, "主体");
+		assertEquals(expected, actual);
+		assertEquals(actual, expected);
+		assertEquals(expected.hashCode(), actual.hashCode());
+		assertEquals(0, expected.compareTo(actual));
+		assertEquals(expected.removeHat(), actual.removeHat());
+		assertEquals(expected.getExtendedKeysString(), actual.getExtendedKeysString());
+		assertTrue(actual.isExtendedKeyOmitted(ExtendedKeyID.TIME));
+	}
+
+	/**
+	 * CSV ファイルから読み込んだ交換代数元の集合で、基底が共有されることを確認する。
+	 */
+	public void testExAlgeSetFromCSV() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		for (int n = 0; n < 3; n++) {
+			for (int i = 0; i < 4; i++) {
+				sb.append(i + 1).append(",NO_HAT,勘定").append(i).append(",円,Y2014,主体\n");
+			}
+			sb.append("\n");
+		}
+		ExAlgeSet aset = new ExAlgeSet();
+		aset.readFromCSV(new CsvReader(new StringReader(sb.toString())));
+		assertEquals(3, aset.size());
+		assertEquals(aset.get(0), aset.get(1));
+		assertEquals(aset.get(0), aset.get(2));
+		ExBase base = new ExBase("勘定0", ExBase.NO_HAT, "円", "Y2014", "主体");
+		assertTrue(aset.get(0).containsBase(base));
+		ExBase b0 = null;
+		for (ExBase b : aset.get(0).getBases()) {
+			if (b.equals(base)) {
+				b0 = b;
+			}
+		}
+		for (ExBase b : aset.get(2).getBases()) {
+			if (b.equals(base)) {
+				assertSame(b0, b);
+			}
+		}
+	}
+
+	static private List<CsvReader.CsvFieldReader> readRecords(String[] records) throws Exception {
+		StringBuilder sb = new StringBuilder();
+		for (String record : records) {
+			sb.append(record).append('\n');
+		}
+		CsvReader reader = new CsvReader(new StringReader(sb.toString()));
+		List<CsvReader.CsvFieldReader> readers = new ArrayList<CsvReader.CsvFieldReader>();
+		CsvReader.CsvRecord record;
+		while ((record = reader.readCsvRecord()) != null) {
+			CsvReader.CsvFieldReader freader = new CsvReader.CsvFieldReader(record);
+			freader.readTrimmedValue();	// skip value
+			readers.add(freader);
+		}
+		reader.close();
+		return readers;
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Li Hou(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+package exalge2;
+
+import java.math.BigDecimal;
+
+import junit.framework.TestCase;
+
+public class ExBaseInternTableTest extends TestCase
+{
+	private boolean oldEnabled;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		oldEnabled = ExBaseInternTable.isEnabled();
+	}
+
+	protected void tearDown() throws Exception {
+		ExBaseInternTable.setEnabled(oldEnabled);
+		super.tearDown();
+	}
+
+	/**
+	 * {@link exalge2.ExBaseInternTable#intern(ExBase)} のためのテスト・メソッド。
+	 */
+	public void testIntern() {
+		assertNull(ExBaseInternTable.intern(null));
+
+		ExBase b1 = new ExBase("internA-NO_HAT-円-Y2014-#");
+		ExBase b2 = new ExBase("internA-NO_HAT-円-Y2014-#");
+		ExBase b3 = new ExBase("internB-NO_HAT-円-Y2014-#");
+		assertFalse(b1.isInterned());
+		assertEquals(0, b1.getInternId());
+
+		ExBase i1 = b1.intern();
+		ExBase i2 = b2.intern();
+		ExBase i3 = ExBaseInternTable.intern(b3);
+		assertSame(b1, i1);
+		assertSame(i1, i2);
+		assertSame(b3, i3);
+		assertFalse(b2.isInterned());
+		assertTrue(i1.isInterned());
+		assertTrue(i1.getInternId() > 0);
+		assertTrue(i1.getInternId() != i3.getInternId());
+		assertTrue(i1.getInternId() <= ExBaseInternTable.maxId());
+		assertSame(i1, ExBaseInternTable.getBase(i1.getInternId()));
+		assertSame(i3, ExBaseInternTable.getBase(i3.getInternId()));
+		assertNull(ExBaseInternTable.getBase(0));
+		assertNull(ExBaseInternTable.getBase(ExBaseInternTable.maxId() + 1));
+		assertSame(i1, i1.intern());
+	}
+
+	/**
+	 * {@link exalge2.ExBaseInternTable#internKey(String)} のためのテスト・メソッド。
+	 */
+	public void testInternKey() {
+		assertNull(ExBaseInternTable.internKey(null));
+
+		String k1 = new String("internKey");
+		String k2 = new String("internKey");
+		assertNotSame(k1, k2);
+		String c1 = ExBaseInternTable.internKey(k1);
+		assertSame(c1, ExBaseInternTable.internKey(k2));
+		assertEquals("internKey", c1);
+
+		// 正規化インスタンスの基底キー文字列
+		ExBase b1 = new ExBase(new String("internC"), ExBase.NO_HAT, new String("internUnit"));
+		ExBase b2 = new ExBase(new String("internD"), ExBase.NO_HAT, new String("internUnit"));
+		b1 = b1.intern();
+		b2 = b2.intern();
+		assertSame(b1.getUnitKey(), b2.getUnitKey());
+		assertSame(b1.getUnitKey(), ExBaseInternTable.internKey(new String("internUnit")));
+	}
+
+	/**
+	 * {@link exalge2.ExBase#equals(Object)} のためのテスト・メソッド。
+	 */
+	public void testEquals() {
+		ExBase b1 = new ExBase("internE-NO_HAT-#-#-#");
+		ExBase b2 = new ExBase("internE-NO_HAT-#-#-#");
+		ExBase b3 = new ExBase("internF-NO_HAT-#-#-#");
+		ExBase i1 = new ExBase("internE-NO_HAT-#-#-#").intern();
+		ExBase i3 = new ExBase("internF-NO_HAT-#-#-#").intern();
+
+		assertTrue(i1.equals(i1));
+		assertFalse(i1.equals(i3));
+		assertTrue(i1.equals(b1));
+		assertTrue(b1.equals(i1));
+		assertTrue(b1.equals(b2));
+		assertFalse(b3.equals(i1));
+		assertEquals(b1.hashCode(), i1.hashCode());
+	}
+
+	/**
+	 * {@link exalge2.ExBase#hat()}、{@link exalge2.ExBase#setHat()}、{@link exalge2.ExBase#removeHat()} のためのテスト・メソッド。
+	 */
+	public void testHatTwin() {
+		ExBase nohat = new ExBase("internG-NO_HAT-#-#-#").intern();
+		ExBase hat = nohat.hat();
+		assertTrue(hat.isInterned());
+		assertTrue(hat.isHat());
+		assertEquals(new ExBase("internG-HAT-#-#-#"), hat);
+		assertSame(hat, nohat.hat());
+		assertSame(hat, nohat.setHat());
+		assertSame(nohat, nohat.removeHat());
+		assertSame(nohat, hat.hat());
+		assertSame(nohat, hat.removeHat());
+		assertSame(hat, hat.setHat());
+		assertSame(hat, new ExBase("internG-HAT-#-#-#").intern());
+
+		// 正規化されていない基底
+		ExBase base = new ExBase("internG-NO_HAT-#-#-#");
+		assertFalse(base.hat().isInterned());
+		assertNotSame(base.hat(), base.hat());
+	}
+
+	/**
+	 * {@link exalge2.Exalge} での基底の正規化のテスト・メソッド。
+	 */
+	public void testExalge() {
+		ExBaseInternTable.setEnabled(true);
+		ExBase base = new ExBase("internH-NO_HAT-#-#-#");
+		Exalge alge = new Exalge(base, new BigDecimal(10));
+		alge = alge.plus(new Exalge(new ExBase("internH-NO_HAT-#-#-#"), new BigDecimal(-3)));
+		assertEquals(2, alge.getNumElements());
+		for (ExBase b : alge.getBases()) {
+			assertTrue(b.isInterned());
+		}
+		assertSame(base.intern(), alge.getBases().iterator().next().removeHat());
+		assertEquals(new BigDecimal(10), alge.get(new ExBase("internH-NO_HAT-#-#-#")));
+		assertEquals(new BigDecimal(3), alge.get(new ExBase("internH-HAT-#-#-#")));
+
+		ExBaseInternTable.setEnabled(false);
+		Exalge alge2 = new Exalge(new ExBase("internI-NO_HAT-#-#-#"), new BigDecimal(1));
+		assertFalse(alge2.getBases().iterator().next().isInterned());
+	}
+}
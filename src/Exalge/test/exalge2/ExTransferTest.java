@@ -5763,6 +5763,67 @@ public class ExTransferTest extends TestCase
 		}
 	}
 
+	/**
+	 * {@link exalge2.ExTransfer#matchesFrom(exalge2.ExBase)} のためのテスト・メソッド。
+	 * 複数の変換元基底パターンに一致する基底について、登録順で最初のパターンが返されることを検証する。
+	 */
+	public void testMatchesFromFirstMatch() {
+		ExBasePattern patPrefix   = new ExBasePattern("A0*-*-*-*-*");
+		ExBasePattern patFixed    = new ExBasePattern("A01-*-*-*-*");
+		ExBasePattern patTimePre  = new ExBasePattern("*-*-*-Y*-*");
+		ExBasePattern patWildcard = new ExBasePattern("*-*-*-*-*");
+		ExBasePattern patSubject  = new ExBasePattern("*-*-*-*-#");
+		ExBasePattern patLast     = new ExBasePattern("B*-*-*-*-*");
+		ExBasePattern patTo       = new ExBasePattern("to-*-*-*-*");
+		ExBase baseA01 = new ExBase("A01-NO_HAT-#-Y1-#");
+		ExBase baseA02 = new ExBase("A02-HAT-#-#-#");
+		ExBase baseA1  = new ExBase("A1-HAT-#-Y2-#");
+		ExBase baseB   = new ExBase("B-HAT-#-#-#");
+		ExBase baseC   = new ExBase("C-NO_HAT-#-#-Z");
+		
+		for (boolean useIndex : new boolean[]{false, true}) {
+			ExTransfer trans = new ExTransfer(useIndex);
+			trans.putRatio(patPrefix, patTo, BigDecimal.ONE);
+			trans.putRatio(patFixed, patTo, BigDecimal.ONE);
+			trans.putRatio(patTimePre, patTo, BigDecimal.ONE);
+			trans.putRatio(patWildcard, patTo, BigDecimal.ONE);
+			trans.putRatio(patSubject, patTo, BigDecimal.ONE);
+			assertEquals(patPrefix, trans.matchesFrom(baseA01));
+			assertEquals(patPrefix, trans.matchesFrom(baseA02));
+			assertEquals(patTimePre, trans.matchesFrom(baseA1));
+			assertEquals(patWildcard, trans.matchesFrom(baseB));
+			assertEquals(patWildcard, trans.matchesFrom(baseC));
+			
+			// remove
+			trans.removeFrom(patPrefix);
+			assertEquals(patFixed, trans.matchesFrom(baseA01));
+			assertEquals(patWildcard, trans.matchesFrom(baseA02));
+			trans.remove(patWildcard, patTo);
+			assertEquals(patSubject, trans.matchesFrom(baseA02));
+			assertEquals(patSubject, trans.matchesFrom(baseB));
+			assertNull(trans.matchesFrom(baseC));
+			
+			// put
+			trans.putRatio(patLast, patTo, BigDecimal.ONE);
+			assertEquals(patSubject, trans.matchesFrom(baseB));
+			assertEquals(patLast, trans.matchesFrom(new ExBase("B1-NO_HAT-#-#-Z")));
+			trans.putRatio(patPrefix, patTo, BigDecimal.ONE);
+			assertEquals(patFixed, trans.matchesFrom(baseA01));
+			
+			// clone
+			ExTransfer dup = trans.clone();
+			assertEquals(patFixed, dup.matchesFrom(baseA01));
+			assertEquals(patSubject, dup.matchesFrom(baseA02));
+			assertEquals(patTimePre, dup.matchesFrom(baseA1));
+			
+			// clear
+			trans.clear();
+			assertNull(trans.matchesFrom(baseA01));
+			assertNull(trans.matchesFrom(baseB));
+			assertEquals(patFixed, dup.matchesFrom(baseA01));
+		}
+	}
+
 	/**
 	 * {@link exalge2.ExTransfer#transform(exalge2.ExBase)} のためのテスト・メソッド。
 	 */
@@ -0,0 +1,218 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Li Hou(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+package exalge2;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class ExalgeColumnarMapTest extends TestCase
+{
+	static private final ExBase base1 = new ExBase("りんご-NO_HAT-円-Y2014-#");
+	static private final ExBase base2 = new ExBase("みかん-NO_HAT-円-Y2014-#");
+	static private final ExBase base3 = new ExBase("りんご-HAT-円-Y2014-#");
+
+	static private void assertSameContents(Map<ExBase,BigDecimal> expected, ExalgeColumnarMap actual) {
+		assertEquals(expected.size(), actual.size());
+		assertEquals(expected, actual);
+		assertEquals(actual, expected);
+		assertEquals(expected.hashCode(), actual.hashCode());
+		Iterator<Map.Entry<ExBase,BigDecimal>> eit = expected.entrySet().iterator();
+		Iterator<Map.Entry<ExBase,BigDecimal>> ait = actual.entrySet().iterator();
+		while (eit.hasNext()) {
+			assertTrue(ait.hasNext());
+			Map.Entry<ExBase,BigDecimal> ee = eit.next();
+			Map.Entry<ExBase,BigDecimal> ae = ait.next();
+			assertSame(ee.getKey(), ae.getKey());
+			assertEquals(ee.getValue(), ae.getValue());
+		}
+		assertFalse(ait.hasNext());
+	}
+
+	/**
+	 * {@link exalge2.ExalgeColumnarMap#put(ExBase, BigDecimal)} のためのテスト・メソッド。
+	 */
+	public void testPut() {
+		ExalgeColumnarMap map = new ExalgeColumnarMap();
+		assertTrue(map.isEmpty());
+		assertNull(map.put(base1, new BigDecimal("1.50")));
+		assertNull(map.put(base2, null));
+		assertNull(map.put(base3, new BigDecimal("-12345678901234567890.123")));
+		assertEquals(3, map.size());
+
+		// スケールも含めて一致
+		assertEquals(new BigDecimal("1.50"), map.get(base1));
+		assertFalse(new BigDecimal("1.5").equals(map.get(base1)));
+		assertNull(map.get(base2));
+		assertTrue(map.containsKey(base2));
+		assertEquals(new BigDecimal("-12345678901234567890.123"), map.get(base3));
+		assertNull(map.get(new ExBase("ぶどう-NO_HAT-#-#-#")));
+		assertNull(map.get(null));
+		assertNull(map.get("りんご-NO_HAT-円-Y2014-#"));
+
+		// 上書きしても順序は変化しない
+		assertEquals(new BigDecimal("1.50"), map.put(new ExBase("りんご-NO_HAT-円-Y2014-#"), new BigDecimal("1E+200")));
+		assertEquals(new BigDecimal("1E+200"), map.get(base1));
+		assertEquals(new BigDecimal("-12345678901234567890.123"), map.put(base3, BigDecimal.TEN));
+		assertEquals(BigDecimal.TEN, map.get(base3));
+		Iterator<ExBase> it = map.keySet().iterator();
+		assertSame(base1, it.next());
+		assertSame(base2, it.next());
+		assertSame(base3, it.next());
+		assertFalse(it.hasNext());
+
+		try {
+			map.put(null, BigDecimal.ONE);
+			fail("NullPointerException not thrown");
+		} catch (NullPointerException ex) {}
+	}
+
+	/**
+	 * {@link exalge2.ExalgeColumnarMap#remove(Object)} のためのテスト・メソッド。
+	 */
+	public void testRemove() {
+		ExalgeColumnarMap map = new ExalgeColumnarMap();
+		map.put(base1, BigDecimal.ONE);
+		map.put(base2, BigDecimal.TEN);
+		map.put(base3, BigDecimal.ZERO);
+		assertEquals(BigDecimal.TEN, map.remove(base2));
+		assertNull(map.remove(base2));
+		assertEquals(2, map.size());
+		assertFalse(map.containsKey(base2));
+
+		// 削除した基底は末尾に追加される
+		map.put(base2, BigDecimal.ONE);
+		ArrayList<ExBase> keys = new ArrayList<ExBase>(map.keySet());
+		assertEquals(3, keys.size());
+		assertSame(base1, keys.get(0));
+		assertSame(base3, keys.get(1));
+		assertSame(base2, keys.get(2));
+
+		// 反復子による削除
+		Iterator<Map.Entry<ExBase,BigDecimal>> it = map.entrySet().iterator();
+		it.next();
+		it.remove();
+		try {
+			it.remove();
+			fail("IllegalStateException not thrown");
+		} catch (IllegalStateException ex) {}
+		assertSame(base3, it.next().getKey());
+		assertEquals(2, map.size());
+		assertFalse(map.containsKey(base1));
+
+		// フェイルファスト
+		it = map.entrySet().iterator();
+		it.next();
+		map.remove(base2);
+		try {
+			it.next();
+			fail("ConcurrentModificationException not thrown");
+		} catch (ConcurrentModificationException ex) {}
+
+		map.clear();
+		assertTrue(map.isEmpty());
+		assertFalse(map.keySet().iterator().hasNext());
+	}
+
+	/**
+	 * {@link java.util.LinkedHashMap} と同一の結果となることを確認する。
+	 */
+	public void testCompareWithLinkedHashMap() {
+		Random rand = new Random(20261018L);
+		ExBase[] bases = new ExBase[500];
+		for (int i = 0; i < bases.length; i++) {
+			bases[i] = new ExBase("名前" + i, (i % 2 == 0 ? ExBase.NO_HAT : ExBase.HAT), "単位" + (i % 7));
+		}
+		LinkedHashMap<ExBase,BigDecimal> expected = new LinkedHashMap<ExBase,BigDecimal>();
+		ExalgeColumnarMap actual = new ExalgeColumnarMap(0);
+		for (int i = 0; i < 20000; i++) {
+			ExBase base = bases[rand.nextInt(bases.length)];
+			int op = rand.nextInt(10);
+			if (op < 6) {
+				BigDecimal value;
+				switch (rand.nextInt(4)) {
+					case 0:
+						value = new BigDecimal(new BigInteger(100, rand), rand.nextInt(10));
+						break;
+					case 1:
+						value = null;
+						break;
+					case 2:
+						value = BigDecimal.valueOf(rand.nextInt(), 200);
+						break;
+					default:
+						value = BigDecimal.valueOf(rand.nextLong(), rand.nextInt(20) - 10);
+						break;
+				}
+				assertEquals(expected.put(base, value), actual.put(base, value));
+			}
+			else if (op < 9) {
+				assertEquals(expected.remove(base), actual.remove(base));
+			}
+			else {
+				BigDecimal value = BigDecimal.valueOf(i);
+				Map.Entry<ExBase,BigDecimal> entry = actual.entrySet().iterator().hasNext() ? actual.entrySet().iterator().next() : null;
+				if (entry != null) {
+					assertEquals(expected.put(entry.getKey(), value), entry.setValue(value));
+				}
+			}
+			assertEquals(expected.containsKey(base), actual.containsKey(base));
+			assertEquals(expected.get(base), actual.get(base));
+		}
+		assertSameContents(expected, actual);
+		assertSameContents(expected, new ExalgeColumnarMap(actual));
+
+		actual.keySet().retainAll(new ArrayList<ExBase>(expected.keySet()).subList(0, expected.size() / 2));
+		expected.keySet().retainAll(new ArrayList<ExBase>(expected.keySet()).subList(0, expected.size() / 2));
+		assertSameContents(expected, actual);
+	}
+
+	/**
+	 * 列形式で格納する {@link exalge2.Exalge} のテスト・メソッド。
+	 */
+	public void testColumnarExalge() {
+		Exalge alge = new Exalge(true);
+		assertTrue(alge.isColumnar());
+		assertFalse(new Exalge(false).isColumnar());
+
+		alge = alge.plus(base1, new BigDecimal(10));
+		alge = alge.plus(base2, new BigDecimal("2.5"));
+		alge = alge.plus(base1, new BigDecimal(-3));
+		assertTrue(alge.isColumnar());
+		assertTrue(alge.copy().isColumnar());
+		assertTrue(alge.hat().isColumnar());
+
+		Exalge expected = new Exalge(false);
+		expected = expected.plus(base1, new BigDecimal(10));
+		expected = expected.plus(base2, new BigDecimal("2.5"));
+		expected = expected.plus(base1, new BigDecimal(-3));
+		assertEquals(expected, alge);
+		assertEquals(expected.toString(), alge.toString());
+		assertEquals(expected.norm(), alge.norm());
+		assertEquals(expected.bar(), alge.bar());
+		assertTrue(alge.bar().isColumnar());
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Li Hou(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+package exalge2;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+
+import exalge2.io.csv.CsvFormatException;
+
+import junit.framework.TestCase;
+
+public class ExalgeCsvStreamTest extends TestCase
+{
+	static private final String csvAlgeSet =
+		"# comment\n"
+		+ "1,NO_HAT,りんご,円,Y2014,#\n"
+		+ "2.50,HAT,みかん,円\n"
+		+ "3,,りんご,円,Y2014,#\n"
+		+ "\n"
+		+ "\n"
+		+ ",,,,,\n"
+		+ "null,^,ぶどう,#,#,#\n"
+		+ "\n"
+		+ "-4,NO_HAT,りんご,個\n";
+
+	/**
+	 * {@link exalge2.ExalgeCsvStreamReader#readElement()} のためのテスト・メソッド。
+	 */
+	public void testReadElement() throws Exception {
+		ExalgeCsvStreamReader reader = new ExalgeCsvStreamReader(new StringReader(csvAlgeSet));
+		assertEquals(0, reader.getGroupNo());
+
+		ExalgeCsvStreamReader.Element elem = reader.readElement();
+		assertEquals(new ExBase("りんご-NO_HAT-円-Y2014-#"), elem.getBase());
+		assertEquals(new BigDecimal(1), elem.getValue());
+		assertEquals(1, reader.getGroupNo());
+
+		elem = reader.readElement();
+		assertEquals(new ExBase("みかん-HAT-円-#-#"), elem.getBase());
+		assertEquals(new BigDecimal("2.50"), elem.getValue());
+		assertEquals(1, reader.getGroupNo());
+
+		// 同一基底の要素も加算されない
+		elem = reader.readElement();
+		assertEquals(new ExBase("りんご-NO_HAT-円-Y2014-#"), elem.getBase());
+		assertEquals(new BigDecimal(3), elem.getValue());
+		assertEquals(1, reader.getGroupNo());
+
+		elem = reader.readElement();
+		assertEquals(new ExBase("ぶどう-HAT-#-#-#"), elem.getBase());
+		assertNull(elem.getValue());
+		assertEquals(2, reader.getGroupNo());
+
+		elem = reader.readElement();
+		assertEquals(new ExBase("りんご-NO_HAT-個-#-#"), elem.getBase());
+		assertEquals(3, reader.getGroupNo());
+
+		assertNull(reader.readElement());
+		assertEquals(5L, reader.getNumElements());
+		reader.close();
+	}
+
+	/**
+	 * {@link exalge2.ExalgeCsvStreamReader#readExalge()} のためのテスト・メソッド。
+	 */
+	public void testReadExalge() throws Exception {
+		ExAlgeSet expected = ExAlgeSet.fromCsvString(csvAlgeSet);
+		ExalgeCsvStreamReader reader = new ExalgeCsvStreamReader(new StringReader(csvAlgeSet));
+		ExAlgeSet actual = new ExAlgeSet();
+		Exalge alge;
+		while ((alge = reader.readExalge()) != null) {
+			actual.add(alge);
+		}
+		reader.close();
+		assertEquals(3, actual.size());
+		assertEquals(expected, actual);
+		assertEquals(expected.toString(), actual.toString());
+
+		// 交換代数元の途中から
+		reader = new ExalgeCsvStreamReader(new StringReader(csvAlgeSet));
+		reader.readElement();
+		alge = reader.readExalge();
+		assertEquals(2, alge.getNumElements());
+		assertEquals(new BigDecimal(3), alge.get(new ExBase("りんご-NO_HAT-円-Y2014-#")));
+		assertEquals(expected.get(1), reader.readExalge());
+		reader.close();
+
+		// 全要素の総和
+		reader = new ExalgeCsvStreamReader(new StringReader(csvAlgeSet));
+		assertEquals(Exalge.fromCsvString(csvAlgeSet), reader.readAll());
+		reader.close();
+	}
+
+	/**
+	 * 不正なフォーマットのテスト・メソッド。
+	 */
+	public void testReadIllegalFormat() throws Exception {
+		ExalgeCsvStreamReader reader = new ExalgeCsvStreamReader(new StringReader("1,NO_HAT,りんご\nabc,NO_HAT,みかん\n"));
+		assertNotNull(reader.readElement());
+		try {
+			reader.readElement();
+			fail("CsvFormatException not thrown");
+		} catch (CsvFormatException ex) {}
+		reader.close();
+	}
+
+	/**
+	 * {@link exalge2.ExalgeCsvStreamWriter} のためのテスト・メソッド。
+	 */
+	public void testWriter() throws Exception {
+		ExAlgeSet algeset = ExAlgeSet.fromCsvString(csvAlgeSet);
+		algeset.add(2, new Exalge());
+
+		StringWriter strw = new StringWriter();
+		ExalgeCsvStreamWriter writer = new ExalgeCsvStreamWriter(strw);
+		for (Exalge alge : algeset) {
+			writer.writeExalge(alge);
+		}
+		writer.close();
+		assertEquals(algeset.toCsvString(), strw.toString());
+		assertEquals(4L, writer.getNumElements());
+
+		// 要素ごとの出力
+		strw = new StringWriter();
+		writer = new ExalgeCsvStreamWriter(strw);
+		writer.endExalge();
+		ExalgeCsvStreamReader reader = new ExalgeCsvStreamReader(new StringReader(csvAlgeSet));
+		ExalgeCsvStreamReader.Element elem;
+		int groupNo = 1;
+		while ((elem = reader.readElement()) != null) {
+			if (reader.getGroupNo() != groupNo) {
+				writer.endExalge();
+				groupNo = reader.getGroupNo();
+			}
+			writer.writeElement(elem);
+		}
+		reader.close();
+		writer.close();
+		assertEquals(ExAlgeSet.fromCsvString(csvAlgeSet), ExAlgeSet.fromCsvString(strw.toString()));
+		assertFalse(strw.toString().startsWith("\n") || strw.toString().startsWith("\r"));
+
+		try {
+			new ExalgeCsvStreamWriter(new StringWriter()).writeElement(null, BigDecimal.ONE);
+			fail("NullPointerException not thrown");
+		} catch (NullPointerException ex) {}
+	}
+}
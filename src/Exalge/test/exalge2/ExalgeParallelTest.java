@@ -0,0 +1,147 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Li Hou(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+package exalge2;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class ExalgeParallelTest extends TestCase
+{
+	private ExAlgeSet algeset;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		Random rand = new Random(20261018L);
+		algeset = new ExAlgeSet();
+		for (int i = 0; i < 203; i++) {
+			Exalge alge = new Exalge();
+			int numElements = rand.nextInt(8);
+			for (int j = 0; j < numElements; j++) {
+				ExBase base = new ExBase("名前" + rand.nextInt(30), (rand.nextBoolean() ? ExBase.HAT : ExBase.NO_HAT),
+											"単位" + rand.nextInt(3), "Y" + (2010 + rand.nextInt(3)), "#");
+				BigDecimal value = (rand.nextInt(5) == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(rand.nextInt(100000) - 50000, rand.nextInt(4)));
+				alge.putValue(base, value);
+			}
+			algeset.add(alge);
+		}
+	}
+
+	protected void tearDown() throws Exception {
+		algeset = null;
+		super.tearDown();
+	}
+
+	/**
+	 * 基底の順序も含めて一致することを確認する。
+	 */
+	static private void assertSameOrder(Exalge expected, Exalge actual) {
+		assertEquals(expected, actual);
+		assertEquals(expected.toString(), actual.toString());
+		Iterator<ExBase> eit = expected.getBases().iterator();
+		Iterator<ExBase> ait = actual.getBases().iterator();
+		while (eit.hasNext()) {
+			assertEquals(eit.next(), ait.next());
+		}
+		assertFalse(ait.hasNext());
+	}
+
+	static private void assertSameOrder(ExAlgeSet expected, ExAlgeSet actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertSameOrder(expected.get(i), actual.get(i));
+		}
+	}
+
+	/**
+	 * {@link exalge2.Exalge#parallelSum(java.util.Collection, int)} のためのテスト・メソッド。
+	 */
+	public void testParallelSum() {
+		Exalge expected = Exalge.sum(algeset);
+		for (int numThreads = 0; numThreads <= 5; numThreads++) {
+			assertSameOrder(expected, Exalge.parallelSum(algeset, numThreads));
+			assertSameOrder(expected, algeset.parallelSum(numThreads));
+		}
+		assertSameOrder(expected, algeset.parallelSum());
+
+		// 要素数がスレッド数より少ない場合
+		ArrayList<Exalge> list = new ArrayList<Exalge>();
+		assertTrue(Exalge.parallelSum(list, 4).isEmpty());
+		list.add(algeset.get(1));
+		assertSameOrder(Exalge.sum(list), Exalge.parallelSum(list, 4));
+		list.add(null);
+		list.add(algeset.get(2));
+		assertSameOrder(Exalge.sum(list), Exalge.parallelSum(list, 4));
+
+		// 元の交換代数元は変更されない
+		ExAlgeSet copy = new ExAlgeSet(algeset);
+		algeset.parallelSum(3);
+		assertSameOrder(copy, algeset);
+
+		try {
+			Exalge.parallelSum(null, 2);
+			fail("NullPointerException not thrown");
+		} catch (NullPointerException ex) {}
+	}
+
+	/**
+	 * {@link exalge2.ExAlgeSet#parallelNotzeroProjection(int)} のためのテスト・メソッド。
+	 */
+	public void testParallelNotzeroProjection() {
+		ExAlgeSet expected = algeset.notzeroProjection();
+		for (int numThreads = 0; numThreads <= 5; numThreads++) {
+			assertSameOrder(expected, algeset.parallelNotzeroProjection(numThreads));
+		}
+		assertEquals(0, new ExAlgeSet().parallelNotzeroProjection(4).size());
+	}
+
+	/**
+	 * {@link exalge2.ExAlgeSet#parallelProjection(ExBaseSet, int)} のためのテスト・メソッド。
+	 */
+	public void testParallelProjection() {
+		ExBase base = new ExBase("名前3", ExBase.NO_HAT, "単位1", "Y2011", "#");
+		ExBaseSet bases = new ExBaseSet();
+		bases.add(base);
+		bases.add(new ExBase("名前5-HAT-単位0-Y2010-#"));
+		bases.add(new ExBase("名前7-NO_HAT-単位2-Y2012-#"));
+		for (int numThreads = 0; numThreads <= 5; numThreads++) {
+			assertSameOrder(algeset.projection(base), algeset.parallelProjection(base, numThreads));
+			assertSameOrder(algeset.projection(bases), algeset.parallelProjection(bases, numThreads));
+			assertSameOrder(algeset.generalProjection(base), algeset.parallelGeneralProjection(base, numThreads));
+			assertSameOrder(algeset.generalProjection(bases), algeset.parallelGeneralProjection(bases, numThreads));
+		}
+	}
+
+	/**
+	 * {@link exalge2.ExAlgeSet#parallelPatternProjection(ExBasePatternSet, int)} のためのテスト・メソッド。
+	 */
+	public void testParallelPatternProjection() {
+		ExBasePattern pattern = new ExBasePattern("名前1*-*-単位*-Y2011-*");
+		ExBasePatternSet patterns = new ExBasePatternSet();
+		patterns.add(pattern);
+		patterns.add(new ExBasePattern("*2-HAT-*-*-*"));
+		for (int numThreads = 0; numThreads <= 5; numThreads++) {
+			assertSameOrder(algeset.patternProjection(pattern), algeset.parallelPatternProjection(pattern, numThreads));
+			assertSameOrder(algeset.patternProjection(patterns), algeset.parallelPatternProjection(patterns, numThreads));
+		}
+	}
+}
@@ -0,0 +1,217 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Li Hou(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+package exalge2;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import exalge2.io.FileUtil;
+import exalge2.io.xml.XmlDomParseException;
+
+import junit.framework.TestCase;
+
+public class ExalgeXmlStreamTest extends TestCase
+{
+	static private final String xmlAlgeSet = "testdata/XML/NormalExalgeSet.xml";
+	static private final String xmlMatrix = "testdata/XML/NormalTransMatrix.xml";
+	static private final String xmlTransfer = "testdata/XML/NormalExTransfer.xml";
+
+	static private final String[] illegalTransfers = {
+		"testdata/XML/IllegalExTransfer21.xml",
+		"testdata/XML/IllegalExTransfer22.xml",
+		"testdata/XML/IllegalExTransfer23.xml",
+		"testdata/XML/IllegalExTransfer31.xml",
+		"testdata/XML/IllegalExTransfer32.xml",
+		"testdata/XML/IllegalExTransfer33.xml",
+		"testdata/XML/IllegalExTransfer41.xml",
+		"testdata/XML/IllegalExTransfer42.xml",
+		"testdata/XML/IllegalExTransfer43.xml",
+		"testdata/XML/IllegalExTransfer44.xml",
+		"testdata/XML/IllegalExTransfer51.xml",
+		"testdata/XML/IllegalExTransfer52.xml",
+		"testdata/XML/IllegalExTransfer53.xml",
+		"testdata/XML/IllegalExTransfer54.xml",
+		"testdata/XML/IllegalExTransfer61.xml",
+	};
+
+	private File domFile;
+	private File streamFile;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		domFile = File.createTempFile("ExalgeXmlStreamTest", ".xml");
+		streamFile = File.createTempFile("ExalgeXmlStreamTest", ".xml");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		domFile.delete();
+		streamFile.delete();
+		super.tearDown();
+	}
+
+	/**
+	 * {@link exalge2.ExAlgeSet#fromXmlStream(File)}、{@link exalge2.ExAlgeSet#toXmlStream(File)} のためのテスト・メソッド。
+	 */
+	public void testExAlgeSet() throws Exception {
+		ExAlgeSet expected = ExAlgeSet.fromXML(new File(xmlAlgeSet));
+		ExAlgeSet actual = ExAlgeSet.fromXmlStream(new File(xmlAlgeSet));
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, actual);
+		assertEquals(expected.toString(), actual.toString());
+
+		// 空の交換代数元も出力される
+		actual.add(1, new Exalge());
+		actual.add(new Exalge());
+		actual.toXML(domFile);
+		actual.toXmlStream(streamFile);
+		assertSameContents(domFile, streamFile);
+		assertEquals(expected, ExAlgeSet.fromXmlStream(streamFile));
+
+		// 空の交換代数集合
+		new ExAlgeSet().toXML(domFile);
+		new ExAlgeSet().toXmlStream(streamFile);
+		assertSameContents(domFile, streamFile);
+		assertTrue(ExAlgeSet.fromXmlStream(streamFile).isEmpty());
+	}
+
+	/**
+	 * {@link exalge2.Exalge#fromXmlStream(File)}、{@link exalge2.Exalge#toXmlStream(File)} のためのテスト・メソッド。
+	 */
+	public void testExalge() throws Exception {
+		// すべての交換代数元の要素が加算される
+		Exalge expected = Exalge.fromXML(new File(xmlAlgeSet));
+		Exalge actual = Exalge.fromXmlStream(new File(xmlAlgeSet));
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, actual);
+		assertEquals(expected.toString(), actual.toString());
+
+		actual.toXML(domFile);
+		actual.toXmlStream(streamFile);
+		assertSameContents(domFile, streamFile);
+		assertEquals(expected, Exalge.fromXmlStream(streamFile));
+
+		new Exalge().toXML(domFile);
+		new Exalge().toXmlStream(streamFile);
+		assertSameContents(domFile, streamFile);
+		assertTrue(Exalge.fromXmlStream(streamFile).isEmpty());
+	}
+
+	/**
+	 * {@link exalge2.TransMatrix#fromXmlStream(File)}、{@link exalge2.TransMatrix#toXmlStream(File)} のためのテスト・メソッド。
+	 */
+	public void testTransMatrix() throws Exception {
+		TransMatrix expected = TransMatrix.fromXML(new File(xmlMatrix));
+		TransMatrix actual = TransMatrix.fromXmlStream(new File(xmlMatrix));
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, actual);
+		assertEquals(expected.toString(), actual.toString());
+
+		actual.toXML(domFile);
+		actual.toXmlStream(streamFile);
+		assertSameContents(domFile, streamFile);
+		assertEquals(expected, TransMatrix.fromXmlStream(streamFile));
+	}
+
+	/**
+	 * {@link exalge2.ExTransfer#fromXmlStream(File)}、{@link exalge2.ExTransfer#toXmlStream(File)} のためのテスト・メソッド。
+	 */
+	public void testExTransfer() throws Exception {
+		ExTransfer expected = ExTransfer.fromXML(new File(xmlTransfer));
+		ExTransfer actual = ExTransfer.fromXmlStream(new File(xmlTransfer));
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, actual);
+		assertEquals(expected.toString(), actual.toString());
+
+		actual.toXML(domFile);
+		actual.toXmlStream(streamFile);
+		assertSameContents(domFile, streamFile);
+		assertEquals(expected, ExTransfer.fromXmlStream(streamFile));
+	}
+
+	/**
+	 * 不正なファイルの読み込みで、DOM による読み込みと同じ例外がスローされることを確認する。
+	 */
+	public void testIllegalFiles() throws Exception {
+		for (String filename : illegalTransfers) {
+			File file = new File(filename);
+			Exception domError = null;
+			try {
+				ExTransfer.fromXML(file);
+			} catch (Exception ex) {
+				domError = ex;
+			}
+			assertNotNull(filename, domError);
+			try {
+				ExTransfer.fromXmlStream(file);
+				fail(filename + " : exception not thrown");
+			} catch (Exception ex) {
+				assertEquals(filename, domError.getClass(), ex.getClass());
+				assertEquals(filename, domError.getMessage(), ex.getMessage());
+			}
+		}
+
+		// ルート要素が異なる
+		try {
+			ExAlgeSet.fromXmlStream(new File(xmlMatrix));
+			fail("XmlDomParseException not thrown");
+		} catch (XmlDomParseException ex) {
+			try {
+				ExAlgeSet.fromXML(new File(xmlMatrix));
+				fail("XmlDomParseException not thrown");
+			} catch (XmlDomParseException domError) {
+				assertEquals(domError.getMessage(), ex.getMessage());
+			}
+		}
+		try {
+			TransMatrix.fromXmlStream(new File(xmlAlgeSet));
+			fail("XmlDomParseException not thrown");
+		} catch (XmlDomParseException ex) {
+			assertEquals(XmlDomParseException.ILLEGAL_ELEMENT_NAME, ex.getIllegalFactor());
+		}
+	}
+
+	static private void assertSameContents(File expected, File actual) throws IOException {
+		byte[] expBytes = readBytes(expected);
+		byte[] actBytes = readBytes(actual);
+		if (!Arrays.equals(expBytes, actBytes)) {
+			assertEquals(new String(expBytes, "UTF-8"), new String(actBytes, "UTF-8"));
+		}
+	}
+
+	static private byte[] readBytes(File file) throws IOException {
+		byte[] bytes = new byte[(int)file.length()];
+		FileInputStream fis = new FileInputStream(file);
+		try {
+			int pos = 0;
+			while (pos < bytes.length) {
+				int len = fis.read(bytes, pos, bytes.length - pos);
+				if (len < 0)
+					break;
+				pos += len;
+			}
+		} finally {
+			FileUtil.closeStream(fis);
+		}
+		return bytes;
+	}
+}
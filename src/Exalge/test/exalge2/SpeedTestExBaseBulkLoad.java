@@ -0,0 +1,153 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Li Hou(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+package exalge2;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import exalge2.io.csv.CsvReader;
+
+/**
+ * CSV 形式ファイルの読み込みにおける、基底の生成キャッシュの有無による速度チェック
+ */
+public class SpeedTestExBaseBulkLoad extends TestCase {
+
+	static private final int NUM_ALGES = 500;
+	static private final int NUM_ELEMENTS = 2000;
+	static private final int NUM_NAMES = 200;
+	static private final int NUM_SUBJECTS = 10;
+	static private final int NUM_LOOPS = 3;
+	static private final long INIT_SEED = 20261018L;
+
+	private File csvFile;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		csvFile = File.createTempFile("SpeedTestExBaseBulkLoad", ".csv");
+		Random rand = new Random(INIT_SEED);
+		PrintWriter writer = new PrintWriter(csvFile, "UTF-8");
+		try {
+			for (int n = 0; n < NUM_ALGES; n++) {
+				String subject = "主体" + rand.nextInt(NUM_SUBJECTS);
+				for (int i = 0; i < NUM_ELEMENTS; i++) {
+					writer.print(rand.nextInt(100000));
+					writer.print(rand.nextBoolean() ? ",NO_HAT," : ",HAT,");
+					writer.print("勘定科目" + rand.nextInt(NUM_NAMES));
+					writer.print(",円,Y");
+					writer.print(2000 + n % 20);
+					writer.print(",");
+					writer.println(subject);
+				}
+				writer.println();
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	protected void tearDown() throws Exception {
+		csvFile.delete();
+		super.tearDown();
+	}
+
+	/**
+	 * 基底の生成キャッシュを使用しない、従来の読み込み
+	 */
+	private long readWithoutLoader() throws Exception {
+		long count = 0L;
+		CsvReader reader = new CsvReader(csvFile, "UTF-8");
+		try {
+			CsvReader.CsvRecord record;
+			while ((record = reader.readCsvRecord()) != null) {
+				if (!record.hasFields() || !record.hasValues()) {
+					continue;
+				}
+				CsvReader.CsvFieldReader freader = new CsvReader.CsvFieldReader(record);
+				BigDecimal value = Exalge.readValueFieldFromCSV(freader);
+				ExBase base = ExBase.readFieldFromCSV(freader);
+				count += (base.hashCode() & 1) + value.signum();
+			}
+		} finally {
+			reader.close();
+		}
+		return count;
+	}
+
+	/**
+	 * 基底の生成キャッシュを使用した読み込み
+	 */
+	private long readWithLoader() throws Exception {
+		long count = 0L;
+		ExBaseBulkLoader loader = new ExBaseBulkLoader();
+		CsvReader reader = new CsvReader(csvFile, "UTF-8");
+		try {
+			CsvReader.CsvRecord record;
+			while ((record = reader.readCsvRecord()) != null) {
+				if (!record.hasFields() || !record.hasValues()) {
+					continue;
+				}
+				CsvReader.CsvFieldReader freader = new CsvReader.CsvFieldReader(record);
+				BigDecimal value = Exalge.readValueFieldFromCSV(freader);
+				ExBase base = ExBase.readFieldFromCSV(freader, loader);
+				count += (base.hashCode() & 1) + value.signum();
+			}
+		} finally {
+			reader.close();
+		}
+		return count;
+	}
+
+	/**
+	 * 基底の読み込みのみを計測する。
+	 */
+	public void testReadBases() throws Exception {
+		System.out.println();
+		System.out.println("<< ExBase bulk load check : " + (NUM_ALGES * NUM_ELEMENTS) + " records >>");
+		for (int loop = 0; loop < NUM_LOOPS; loop++) {
+			long tcStart = System.currentTimeMillis();
+			long expected = readWithoutLoader();
+			long tcEnd = System.currentTimeMillis();
+			System.out.println("    - [" + loop + "] without loader time span : " + (tcEnd - tcStart) + " ms");
+
+			tcStart = System.currentTimeMillis();
+			long actual = readWithLoader();
+			tcEnd = System.currentTimeMillis();
+			System.out.println("    - [" + loop + "] with loader    time span : " + (tcEnd - tcStart) + " ms");
+			assertEquals(expected, actual);
+		}
+	}
+
+	/**
+	 * {@link ExAlgeSet#fromCSV(File, String)} による読み込みを計測する。
+	 */
+	public void testExAlgeSetFromCSV() throws Exception {
+		System.out.println();
+		System.out.println("<< ExAlgeSet.fromCSV check : " + (NUM_ALGES * NUM_ELEMENTS) + " records >>");
+		for (int loop = 0; loop < NUM_LOOPS; loop++) {
+			long tcStart = System.currentTimeMillis();
+			ExAlgeSet aset = ExAlgeSet.fromCSV(csvFile, "UTF-8");
+			long tcEnd = System.currentTimeMillis();
+			System.out.println("    - [" + loop + "] read time span : " + (tcEnd - tcStart) + " ms, " + aset.size() + " alges");
+			assertEquals(NUM_ALGES, aset.size());
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Li Hou(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+package exalge2;
+
+import java.math.BigDecimal;
+
+import junit.framework.TestCase;
+
+/**
+ * <code>Exalge</code> の格納形式ごとのメモリ使用量と速度のチェック
+ */
+public class SpeedTestExalgeStorage extends TestCase {
+
+	static private final int NUM_ELEMENTS = 1000000;
+
+	private ExBase[] bases;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		// 基底は格納形式に依存しないため、あらかじめ生成しておく
+		bases = new ExBase[NUM_ELEMENTS];
+		for (int i = 0; i < NUM_ELEMENTS; i++) {
+			bases[i] = new ExBase("勘定" + (i % 1000), ExBase.NO_HAT, "円", "Y" + (2000 + (i / 1000) % 20), "主体" + (i / 20000));
+		}
+	}
+
+	protected void tearDown() throws Exception {
+		bases = null;
+		super.tearDown();
+	}
+
+	static private long usedMemory() {
+		Runtime rt = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException ignoreEx) {}
+		}
+		return (rt.totalMemory() - rt.freeMemory());
+	}
+
+	private void checkStorage(boolean columnar) {
+		System.out.println();
+		System.out.println("<< Memory check for Exalge storage : " + (columnar ? "columnar" : "LinkedHashMap") + " >>");
+		long memStart = usedMemory();
+		long tcStart = System.currentTimeMillis();
+		Exalge alge = new Exalge(columnar);
+		for (int i = 0; i < NUM_ELEMENTS; i++) {
+			alge.putValue(bases[i], BigDecimal.valueOf(i * 100L + 12345L, 2));
+		}
+		long tcPut = System.currentTimeMillis();
+		BigDecimal total = BigDecimal.ZERO;
+		for (int i = 0; i < NUM_ELEMENTS; i++) {
+			total = total.add(alge.get(bases[i]));
+		}
+		long tcGet = System.currentTimeMillis();
+		long memEnd = usedMemory();
+		System.out.println("    - stored " + alge.getNumElements() + " elements, total = " + total);
+		System.out.println("    - put time span : " + (tcPut - tcStart) + " ms");
+		System.out.println("    - get time span : " + (tcGet - tcPut) + " ms");
+		System.out.println("    - used memory : " + ((memEnd - memStart) / 1024L) + " KB ("
+							+ ((memEnd - memStart) / NUM_ELEMENTS) + " bytes per element, without bases)");
+		assertEquals(NUM_ELEMENTS, alge.getNumElements());
+	}
+
+	/**
+	 * {@link java.util.LinkedHashMap} で格納する場合のメモリ使用量を計測する。
+	 */
+	public void testLinkedHashMapStorage() {
+		checkStorage(false);
+	}
+
+	/**
+	 * 列形式で格納する場合のメモリ使用量を計測する。
+	 */
+	public void testColumnarStorage() {
+		checkStorage(true);
+	}
+}
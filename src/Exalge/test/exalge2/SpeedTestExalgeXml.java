@@ -0,0 +1,151 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2014  SOARS Project.
+ *  <author> Hiroshi Deguchi(SOARS Project.)
+ *  <author> Li Hou(SOARS Project.)
+ *  <author> Yasunari Ishizuka(PieCake.inc,)
+ */
+package exalge2;
+
+import java.io.File;
+import java.math.BigDecimal;
+
+import junit.framework.TestCase;
+
+/**
+ * <code>ExAlgeSet</code> の XML 入出力における、DOM と逐次処理の速度とメモリ使用量のチェック
+ */
+public class SpeedTestExalgeXml extends TestCase {
+
+	static private final int NUM_ALGES = 200;
+	static private final int NUM_ELEMENTS = 1000;
+
+	private ExAlgeSet algeset;
+	private File xmlFile;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		algeset = new ExAlgeSet();
+		for (int n = 0; n < NUM_ALGES; n++) {
+			Exalge alge = new Exalge();
+			for (int i = 0; i < NUM_ELEMENTS; i++) {
+				ExBase base = new ExBase("勘定" + i, ExBase.NO_HAT, "円", "Y" + (2000 + n % 20), "主体" + n);
+				alge.putValue(base, BigDecimal.valueOf(i * 100L + 12345L, 2));
+			}
+			algeset.add(alge);
+		}
+		xmlFile = File.createTempFile("SpeedTestExalgeXml", ".xml");
+	}
+
+	protected void tearDown() throws Exception {
+		xmlFile.delete();
+		algeset = null;
+		super.tearDown();
+	}
+
+	static private long usedMemory() {
+		Runtime rt = Runtime.getRuntime();
+		return (rt.totalMemory() - rt.freeMemory());
+	}
+
+	static private long baseMemory() {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException ignoreEx) {}
+		}
+		return usedMemory();
+	}
+
+	/**
+	 * 処理中の最大メモリ使用量を計測するスレッド
+	 */
+	static private final class PeakMemoryMonitor extends Thread {
+		private volatile boolean running = true;
+		private volatile long peak = 0L;
+
+		public PeakMemoryMonitor() {
+			setDaemon(true);
+		}
+
+		public void run() {
+			while (running) {
+				peak = Math.max(peak, usedMemory());
+				try {
+					Thread.sleep(5);
+				} catch (InterruptedException ignoreEx) {}
+			}
+		}
+
+		public long finish() throws InterruptedException {
+			running = false;
+			join();
+			return Math.max(peak, usedMemory());
+		}
+	}
+
+	private void printResult(String title, long tcStart, long tcEnd, long memStart, long memPeak) {
+		System.out.println("    - " + title + " time span : " + (tcEnd - tcStart) + " ms, peak memory : "
+							+ ((memPeak - memStart) / 1024L) + " KB");
+	}
+
+	/**
+	 * DOM による XML 入出力を計測する。
+	 */
+	public void testDom() throws Exception {
+		System.out.println();
+		System.out.println("<< XML I/O check for ExAlgeSet : DOM, " + (NUM_ALGES * NUM_ELEMENTS) + " elements >>");
+		long memStart = baseMemory();
+		PeakMemoryMonitor monitor = new PeakMemoryMonitor();
+		monitor.start();
+		long tcStart = System.currentTimeMillis();
+		algeset.toXML(xmlFile);
+		long tcEnd = System.currentTimeMillis();
+		printResult("write", tcStart, tcEnd, memStart, monitor.finish());
+
+		memStart = baseMemory();
+		monitor = new PeakMemoryMonitor();
+		monitor.start();
+		tcStart = System.currentTimeMillis();
+		ExAlgeSet newSet = ExAlgeSet.fromXML(xmlFile);
+		tcEnd = System.currentTimeMillis();
+		printResult("read ", tcStart, tcEnd, memStart, monitor.finish());
+		assertEquals(algeset, newSet);
+	}
+
+	/**
+	 * 逐次処理による XML 入出力を計測する。
+	 */
+	public void testStream() throws Exception {
+		System.out.println();
+		System.out.println("<< XML I/O check for ExAlgeSet : stream, " + (NUM_ALGES * NUM_ELEMENTS) + " elements >>");
+		long memStart = baseMemory();
+		PeakMemoryMonitor monitor = new PeakMemoryMonitor();
+		monitor.start();
+		long tcStart = System.currentTimeMillis();
+		algeset.toXmlStream(xmlFile);
+		long tcEnd = System.currentTimeMillis();
+		printResult("write", tcStart, tcEnd, memStart, monitor.finish());
+
+		memStart = baseMemory();
+		monitor = new PeakMemoryMonitor();
+		monitor.start();
+		tcStart = System.currentTimeMillis();
+		ExAlgeSet newSet = ExAlgeSet.fromXmlStream(xmlFile);
+		tcEnd = System.currentTimeMillis();
+		printResult("read ", tcStart, tcEnd, memStart, monitor.finish());
+		assertEquals(algeset, newSet);
+	}
+}
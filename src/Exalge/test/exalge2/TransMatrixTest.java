@@ -573,6 +573,82 @@ public class TransMatrixTest extends TestCase
 		assertTrue(matrix.machesTransFrom(base4) == null);
 	}
 
+	static private ExBasePattern linearMachesTransFrom(TransMatrix matrix, ExBase base) {
+		for (ExBasePattern pat : matrix.transFromPatterns()) {
+			if (pat.matches(base)) {
+				return pat;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * {@link exalge2.TransMatrix#machesTransFrom(exalge2.ExBase)} のためのテスト・メソッド。
+	 * 複数のパターンに一致する基底について、登録順で最初のパターンが返されることを検証する。
+	 */
+	public void testMachesTransFromFirstMatch() {
+		ExBasePattern patPrefix   = new ExBasePattern("A0*-*-*-*-*");
+		ExBasePattern patFixed    = new ExBasePattern("A01-*-*-*-*");
+		ExBasePattern patTimePre  = new ExBasePattern("*-*-*-Y*-*");
+		ExBasePattern patWildcard = new ExBasePattern("*-*-*-*-*");
+		ExBasePattern patHat      = new ExBasePattern("*-HAT-*-*-*");
+		ExBasePattern patLast     = new ExBasePattern("B*-*-*-*-*");
+		ExBase baseA01 = new ExBase("A01-NO_HAT-#-Y1-#");
+		ExBase baseA02 = new ExBase("A02-HAT-#-#-#");
+		ExBase baseA1  = new ExBase("A1-HAT-#-Y2-#");
+		ExBase baseB   = new ExBase("B-HAT-#-#-#");
+		ExBase baseC   = new ExBase("C-NO_HAT-#-#-#");
+		List<ExBase> bases = Arrays.asList(baseA01, baseA02, baseA1, baseB, baseC);
+		TransDivideRatios[] divideRatios = makeDivideRatiosArray(false);
+		
+		TransMatrix matrix = new TransMatrix();
+		matrix.put(patPrefix, divideRatios[0]);
+		matrix.put(patFixed, divideRatios[1]);
+		matrix.put(patTimePre, divideRatios[2]);
+		matrix.put(patWildcard, divideRatios[3]);
+		matrix.put(patHat, divideRatios[4]);
+		assertEquals(patPrefix, matrix.machesTransFrom(baseA01));
+		assertEquals(patPrefix, matrix.machesTransFrom(baseA02));
+		assertEquals(patTimePre, matrix.machesTransFrom(baseA1));
+		assertEquals(patWildcard, matrix.machesTransFrom(baseB));
+		assertEquals(patWildcard, matrix.machesTransFrom(baseC));
+		
+		// remove
+		matrix.remove(patPrefix);
+		assertEquals(patFixed, matrix.machesTransFrom(baseA01));
+		assertEquals(patWildcard, matrix.machesTransFrom(baseA02));
+		matrix.remove(patWildcard);
+		assertEquals(patHat, matrix.machesTransFrom(baseA02));
+		assertEquals(patHat, matrix.machesTransFrom(baseB));
+		assertNull(matrix.machesTransFrom(baseC));
+		
+		// put
+		matrix.put(patLast, divideRatios[0]);
+		assertEquals(patHat, matrix.machesTransFrom(baseB));
+		assertEquals(patLast, matrix.machesTransFrom(new ExBase("B1-NO_HAT-#-#-#")));
+		matrix.put(patPrefix, divideRatios[0]);
+		assertEquals(patFixed, matrix.machesTransFrom(baseA01));
+		
+		// remove from key set view
+		matrix.transFromPatterns().remove(patFixed);
+		assertEquals(patTimePre, matrix.machesTransFrom(baseA01));
+		
+		// same as linear search
+		for (ExBase base : bases) {
+			assertEquals(linearMachesTransFrom(matrix, base), matrix.machesTransFrom(base));
+		}
+		TransMatrix dup = matrix.clone();
+		for (ExBase base : bases) {
+			assertEquals(linearMachesTransFrom(matrix, base), dup.machesTransFrom(base));
+		}
+		
+		// clear
+		matrix.clear();
+		for (ExBase base : bases) {
+			assertNull(matrix.machesTransFrom(base));
+		}
+	}
+
 	/**
 	 * {@link exalge2.TransMatrix#transform(exalge2.ExBase)} のためのテスト・メソッド。
 	 */
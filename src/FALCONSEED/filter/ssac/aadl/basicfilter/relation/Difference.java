@@ -20,6 +20,9 @@
  *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
  */
 /*
+ * @(#)Difference.java	3.3.1	2026/10/18
+ *     - use binary format for temporary files
+ *     - hash-based processing when the tables fit in memory
  * @(#)Difference.java	0.1.0	2013/08/08
  *     - created by Y.Ishizuka(PieCake.inc,)
  */
@@ -28,7 +31,7 @@ package ssac.aadl.basicfilter.relation;
 /**
  * テーブルの差(Difference)計算フィルタ。
  * 
- * @version 0.1.0	2013/08/08
+ * @version 3.3.1	2026/10/18
  * 
  * @author H.Deguchi(SOARS Project.)
  * @author Y.Ishizuka(PieCake.inc,)
@@ -76,6 +79,7 @@ public class Difference extends ssac.aadl.runtime.AADLModule
 	 * $4[STR] 処理対象外レコード数2
 	 * $5[STR] 元のレコード順序を維持する('true' or 'false')
 	 * $6[OUT] 結果の出力先
+	 * $7[STR] ハッシュ処理に使用するメモリの上限(MB)(省略可、省略時は空きメモリから決定、0 ならハッシュ処理を行わない)
 	 */
 	@Override
 	protected int aadlRun(String[] args) {
@@ -99,6 +103,9 @@ public class Difference extends ssac.aadl.runtime.AADLModule
 		// 元のレコード順序を維持する
 		final boolean keepOrder = toBoolean(strKeepOrder);
 		
+		// ハッシュ処理に使用するメモリの上限
+		final long hashMemoryLimit = getHashMemoryLimit((args.length > 6 ? args[6] : null), toDecimal(7));
+		
 		// コンパレータ
 		final ssac.aadl.runtime.csv.internal.CsvStringRecordComparator recComparator;
 		if (keepOrder) {
@@ -111,55 +118,74 @@ public class Difference extends ssac.aadl.runtime.AADLModule
 		java.util.List<java.math.BigDecimal> firstSortResult1 = null;
 		java.util.List<java.math.BigDecimal> firstSortResult2 = null;
 		java.util.List<java.math.BigDecimal> lastResult = null;
-		String tempFile1 = null;
-		String tempFile2 = null;
-		String tempFile3 = null;
-		try {
-			// ソート用テンポラリファイル作成
-			tempFile1 = createTemporaryFile("union1_", ".csv");
-			tempFile2 = createTemporaryFile("union2_", ".csv");
-			if (keepOrder) {
-				tempFile3 = createTemporaryFile("union3_", ".csv");
-			}
-			
-			// 左テーブルのソート
-			println("Sort Csv file 1...");
-			firstSortResult1 = firstSortCsvFile(keepOrder, inFile1, tempFile1, numSkipRecords1, recComparator);
-			println(".....done.");
-			
-			// 右テーブルのソート
-			println("Sort Csv file 2...");
-			firstSortResult2 = firstSortCsvFile(keepOrder, inFile2, tempFile2, numSkipRecords2, recComparator);
-			println(".....done.");
-			
-			// 和集合
-			println("Union...");
-			if (tempFile3 != null) {
-				lastResult = difference(tempFile1, tempFile2, tempFile3, keepOrder, recComparator, firstSortResult1, firstSortResult2);
-			} else {
-				lastResult = difference(tempFile1, tempFile2, outFile, keepOrder, recComparator, firstSortResult1, firstSortResult2);
-			}
-			println(".....done.");
-			
-			// 元の順序に戻す
-			if (keepOrder) {
-				println("Restore order...");
-				lastResult = lastSortCsvFile(tempFile3, outFile, lastResult);
+		
+		// ハッシュによる差集合
+		if (hashMemoryLimit > 0L) {
+			println("Difference by hash...");
+			java.util.List<java.util.List<java.math.BigDecimal>> hashResults = hashDifference(keepOrder, inFile1, inFile2, outFile,
+																			numSkipRecords1, numSkipRecords2, hashMemoryLimit);
+			if (hashResults != null) {
+				firstSortResult1 = hashResults.get(0);
+				firstSortResult2 = hashResults.get(1);
+				lastResult       = hashResults.get(2);
 				println(".....done.");
+			} else {
+				println(".....skipped.");
 			}
 		}
-		finally {
-			// remove tempFile1
-			if (tempFile1 != null) {
-				deleteFile(tempFile1);
-			}
-			// remove tempFile2
-			if (tempFile2 != null) {
-				deleteFile(tempFile2);
+		
+		// ソートによる差集合
+		if (lastResult == null) {
+			String tempFile1 = null;
+			String tempFile2 = null;
+			String tempFile3 = null;
+			try {
+				// ソート用テンポラリファイル作成
+				tempFile1 = createTemporaryFile("union1_", ".dat");
+				tempFile2 = createTemporaryFile("union2_", ".dat");
+				if (keepOrder) {
+					tempFile3 = createTemporaryFile("union3_", ".dat");
+				}
+				
+				// 左テーブルのソート
+				println("Sort Csv file 1...");
+				firstSortResult1 = firstSortCsvFile(keepOrder, inFile1, tempFile1, numSkipRecords1, recComparator);
+				println(".....done.");
+				
+				// 右テーブルのソート
+				println("Sort Csv file 2...");
+				firstSortResult2 = firstSortCsvFile(keepOrder, inFile2, tempFile2, numSkipRecords2, recComparator);
+				println(".....done.");
+				
+				// 和集合
+				println("Union...");
+				if (tempFile3 != null) {
+					lastResult = difference(tempFile1, tempFile2, tempFile3, keepOrder, recComparator, firstSortResult1, firstSortResult2);
+				} else {
+					lastResult = difference(tempFile1, tempFile2, outFile, keepOrder, recComparator, firstSortResult1, firstSortResult2);
+				}
+				println(".....done.");
+				
+				// 元の順序に戻す
+				if (keepOrder) {
+					println("Restore order...");
+					lastResult = lastSortCsvFile(tempFile3, outFile, lastResult);
+					println(".....done.");
+				}
 			}
-			// remove tempFile3
-			if (tempFile3 != null) {
-				deleteFile(tempFile3);
+			finally {
+				// remove tempFile1
+				if (tempFile1 != null) {
+					deleteFile(tempFile1);
+				}
+				// remove tempFile2
+				if (tempFile2 != null) {
+					deleteFile(tempFile2);
+				}
+				// remove tempFile3
+				if (tempFile3 != null) {
+					deleteFile(tempFile3);
+				}
 			}
 		}
 		
@@ -230,6 +256,7 @@ public class Difference extends ssac.aadl.runtime.AADLModule
 																		getDefaultCsvEncoding(), skipRecords,
 																		(ssac.aadl.runtime.csv.internal.CsvRecordComparator)sortComparator);
 		sorter.setAppendRecordIdAtFirst(keepOrder);
+		sorter.setBinaryOutput(true);
 		sorter.sort();
 		totalRecords    = toDecimal(sorter.getMaxRecordCount());
 		headerRecords   = toDecimal(sorter.getHeaderRecordCount());
@@ -241,6 +268,169 @@ public class Difference extends ssac.aadl.runtime.AADLModule
 		return new java.util.ArrayList<java.math.BigDecimal>(java.util.Arrays.asList(totalRecords, headerRecords, sortedRecords, maxFields, actualMaxFields));
 	}
 
+	// ハッシュ処理に使用するメモリの上限(バイト)の取得
+	// 省略時は空きメモリの 1/3 とし、0 以下の値が指定された場合は 0 を返す。
+	// 上限は、メモリに保持するテーブルと、出力まで保持する結果レコードの合計に適用する。
+	// AADL:function getHashMemoryLimit(str:String, argno:Decimal):Decimal
+	private long getHashMemoryLimit(String str, java.math.BigDecimal argno)
+	{
+		if (!isNull(str)) {
+			str = str.trim();
+		}
+		if (isNull(str) || isEmpty(str)) {
+			Runtime rt = Runtime.getRuntime();
+			long usedMemory = rt.totalMemory() - rt.freeMemory();
+			return Math.max(0L, (rt.maxMemory() - usedMemory) / 3L);
+		}
+		
+		if (!isDecimal(str)) {
+			String errmsg = "($" + toString(argno) + ") ハッシュ処理に使用するメモリの上限には数字(MB)を入力してください : \"" + str + "\"";
+			throw new RuntimeException(errmsg);
+		}
+		java.math.BigDecimal num = toDecimal(str);
+		if (num.signum() <= 0) {
+			return 0L;
+		}
+		return num.multiply(java.math.BigDecimal.valueOf(1024L * 1024L)).longValue();
+	}
+	
+	// ハッシュ表を用いて、重複を許可しない差集合を出力する。
+	// テーブル1がメモリに収まる場合に、ソートを行わずに 1 回の走査で処理する。
+	// (引数)keepOrder		元の順序を維持する場合は true
+	// (引数)inFile1		CSV ファイルパス1
+	// (引数)inFile2		CSV ファイルパス2
+	// (引数)outFile		出力先のファイルパス
+	// (引数)skipRecords1	テーブル1の処理対象外レコード数
+	// (引数)skipRecords2	テーブル2の処理対象外レコード数
+	// (引数)memoryLimit	ハッシュ表と結果レコードに使用するメモリの上限(バイト)
+	// (戻り値)	成功した場合は、テーブル1の読み込み結果、テーブル2の読み込み結果、出力結果の順に要素を格納するリストを返す。
+	//			メモリの上限を超える場合、もしくはソートによる処理と結果が異なる可能性のあるレコードが存在する場合は、
+	//			何も出力せずに null を返す。
+	protected java.util.List<java.util.List<java.math.BigDecimal>> hashDifference(boolean keepOrder, String inFile1, String inFile2, String outFile,
+														java.math.BigDecimal skipRecords1, java.math.BigDecimal skipRecords2, long memoryLimit)
+	{
+		java.io.File file1 = new java.io.File(inFile1);
+		java.io.File file2 = new java.io.File(inFile2);
+		long minMemory1 = ssac.aadl.runtime.csv.internal.CsvTableScanner.estimateMinimumMemory(file1);
+		long minMemory2 = ssac.aadl.runtime.csv.internal.CsvTableScanner.estimateMinimumMemory(file2);
+		// テーブル1がメモリに収まること
+		if (minMemory1 > memoryLimit) {
+			return null;
+		}
+		
+		ssac.aadl.runtime.csv.internal.CsvTableScanner scanner1 = null;
+		ssac.aadl.runtime.csv.internal.CsvTableScanner scanner2 = null;
+		java.util.List<java.util.List<String>> outRecords;
+		try {
+			scanner1 = new ssac.aadl.runtime.csv.internal.CsvTableScanner(file1, getDefaultCsvEncoding(), skipRecords1.longValue(), false);
+			scanner2 = new ssac.aadl.runtime.csv.internal.CsvTableScanner(file2, getDefaultCsvEncoding(), skipRecords2.longValue(), false);
+			// テーブル1をメモリに保持し、テーブル2を走査
+			java.util.List<java.util.List<String>> records1 = scanner1.readAllDataRecords(memoryLimit);
+			if (records1 == null) {
+				return null;	// メモリに収まらない
+			}
+			java.util.LinkedHashSet<java.util.List<String>> recSet1 = new java.util.LinkedHashSet<java.util.List<String>>();
+			for (java.util.List<String> rec1 : records1) {
+				if (isAmbiguousRecord(rec1)) {
+					return null;
+				}
+				recSet1.add(rec1);
+			}
+			records1 = null;
+			for (java.util.List<String> rec2 : scanner2) {
+				if (isAmbiguousRecord(rec2)) {
+					return null;
+				}
+				recSet1.remove(rec2);
+			}
+			outRecords = new java.util.ArrayList<java.util.List<String>>(recSet1);
+		}
+		finally {
+			if (scanner1 != null) {
+				scanner1.close();
+			}
+			if (scanner2 != null) {
+				scanner2.close();
+			}
+		}
+		
+		// 出力
+		java.util.List<java.math.BigDecimal> scanResult1 = createScanResult(keepOrder, scanner1);
+		java.util.List<java.math.BigDecimal> scanResult2 = createScanResult(keepOrder, scanner2);
+		java.util.List<java.math.BigDecimal> lastResult  = writeHashResult(keepOrder, outFile, scanner1, scanner2, outRecords);
+		return new java.util.ArrayList<java.util.List<java.math.BigDecimal>>(java.util.Arrays.asList(scanResult1, scanResult2, lastResult));
+	}
+	
+	// ハッシュ処理で読み込んだテーブルの集計結果を、ソート結果と同じ形式で返す。
+	private java.util.List<java.math.BigDecimal> createScanResult(boolean keepOrder, ssac.aadl.runtime.csv.internal.CsvTableScanner scanner)
+	{
+		java.math.BigDecimal totalRecords    = toDecimal(scanner.getMaxRecordCount());
+		java.math.BigDecimal headerRecords   = toDecimal(scanner.getHeaderRecordCount());
+		java.math.BigDecimal sortedRecords   = toDecimal(scanner.getDataRecordCount());
+		java.math.BigDecimal maxFields       = toDecimal(scanner.getMaxFieldCount());
+		if (keepOrder && scanner.getMaxRecordCount() > 0L) {
+			//--- 順序維持用フィールドを含む
+			maxFields = maxFields.add(java.math.BigDecimal.ONE);
+		}
+		java.math.BigDecimal actualMaxFields = (keepOrder ? maxFields.subtract(java.math.BigDecimal.ONE) : maxFields);
+		return new java.util.ArrayList<java.math.BigDecimal>(java.util.Arrays.asList(totalRecords, headerRecords, sortedRecords, maxFields, actualMaxFields));
+	}
+	
+	// ハッシュ処理の結果を出力する。
+	// (引数)keepOrder		元の順序を維持する場合は true、この場合 outRecords は元の順序で格納されていること
+	// (引数)outFile		出力先のファイルパス
+	// (引数)scanner1		テーブル1の読み込みに使用したオブジェクト
+	// (引数)scanner2		テーブル2の読み込みに使用したオブジェクト
+	// (引数)outRecords		出力するデータレコード
+	// (戻り値)	出力結果の最大レコード数、ヘッダレコード数、データレコード数、最大フィールド数の順に要素を格納する数値オブジェクトの配列
+	private java.util.List<java.math.BigDecimal> writeHashResult(boolean keepOrder, String outFile,
+																ssac.aadl.runtime.csv.internal.CsvTableScanner scanner1,
+																ssac.aadl.runtime.csv.internal.CsvTableScanner scanner2,
+																java.util.List<java.util.List<String>> outRecords)
+	{
+		java.math.BigDecimal totalRecords  = java.math.BigDecimal.ZERO;
+		java.math.BigDecimal headerRecords = java.math.BigDecimal.ZERO;
+		java.math.BigDecimal dataRecords   = java.math.BigDecimal.ZERO;
+		java.math.BigDecimal maxFields     = java.math.BigDecimal.ZERO;
+		
+		//@{
+		// 最大フィールド数の計算(順序維持用フィールドは含まない)
+		int maxNumFields = Math.max(scanner1.getMaxFieldCount(), scanner2.getMaxFieldCount());
+		
+		// 順序を維持しない場合は、ソートによる処理と同じ順序に並べ替える
+		if (!keepOrder) {
+			new ssac.aadl.runtime.csv.internal.CsvStringRecordComparator().sort(outRecords);
+		}
+		
+		ssac.aadl.runtime.io.CsvFileWriter fout = newCsvFileWriter(outFile);
+		try {
+			// テーブル1のヘッダを出力
+			for (java.util.List<String> rec : scanner1.getHeaderRecords()) {
+				if (!writeRecord(rec, maxNumFields, fout)) {
+					writerValidSucceeded(fout);
+				}
+				headerRecords = headerRecords.add(java.math.BigDecimal.ONE);
+			}
+			// データレコードを出力
+			for (java.util.List<String> rec : outRecords) {
+				if (!writeRecord(rec, maxNumFields, fout)) {
+					writerValidSucceeded(fout);
+				}
+				dataRecords = dataRecords.add(java.math.BigDecimal.ONE);
+			}
+		}
+		finally {
+			closeWriter(fout);
+		}
+		totalRecords = headerRecords.add(dataRecords);
+		if (!keepOrder || totalRecords.signum() > 0) {
+			maxFields = toDecimal(maxNumFields);
+		}
+		//}@;
+		
+		return new java.util.ArrayList<java.math.BigDecimal>(java.util.Arrays.asList(totalRecords, headerRecords, dataRecords, maxFields));
+	}
+
 	// 順序維持のための最終ソート。
 	// (引数)inFile		入力ファイル
 	// (引数)outFile		出力ファイル
@@ -264,6 +454,7 @@ public class Difference extends ssac.aadl.runtime.AADLModule
 																		new java.io.File(outFile),
 																		getDefaultCsvEncoding(), headerRecords,
 																		sortComparator);
+		sorter.setBinaryInput(true);
 		//--- 除外フィールド指定
 		sorter.addRemoveFieldIndexAtLast(0);
 		
@@ -307,16 +498,16 @@ public class Difference extends ssac.aadl.runtime.AADLModule
 		int maxNumFields = Math.max(sortResult1.get(3).intValue(), sortResult2.get(3).intValue());
 		
 		// merge for union
-		ssac.aadl.runtime.csv.internal.BigCsvFileReader reader1 = null;
-		ssac.aadl.runtime.csv.internal.BigCsvFileReader reader2 = null;
-		ssac.aadl.runtime.io.CsvFileWriter	fout = null;
+		ssac.aadl.runtime.csv.internal.CsvBinaryFileReader reader1 = null;
+		ssac.aadl.runtime.csv.internal.CsvBinaryFileReader reader2 = null;
+		ssac.aadl.runtime.io.internal.ICsvRecordWriter	fout = null;
 		try {
 			// create reader
-			reader1 = newBigCsvReader(inFile1);
-			reader2 = newBigCsvReader(inFile2);
+			reader1 = newBinaryReader(inFile1);
+			reader2 = newBinaryReader(inFile2);
 			
 			// create writer
-			fout = newCsvFileWriter(outFile);
+			fout = newRecordWriter(outFile, keepOrder);
 			
 			// ヘッダ統合
 			headerRecords = mergeHeader(maxNumFields, sortResult1.get(1).longValue(), sortResult2.get(1).longValue(), reader1, reader2, fout);
@@ -339,7 +530,7 @@ public class Difference extends ssac.aadl.runtime.AADLModule
 				reader2.close();
 			}
 			if (fout != null) {
-				closeWriter(fout);
+				closeRecordWriter(fout);
 			}
 		}
 		totalRecords    = headerRecords.add(dataRecords);
@@ -361,13 +552,13 @@ public class Difference extends ssac.aadl.runtime.AADLModule
 	 * @param numHeaderRecords2	テーブル2のヘッダレコード数
 	 * @param reader1			テーブル1のリーダー
 	 * @param reader2			テーブル2のリーダー
-	 * @param fout		出力先となる <code>CsvFileWriter</code> オブジェクト
+	 * @param fout		出力先となる <code>ICsvRecordWriter</code> オブジェクト
 	 * @return	成功した場合は出力したレコード数、それ以外の場合は <tt>null</tt>
 	 */
 	protected java.math.BigDecimal mergeHeader(int maxNumFields, long numHeaderRecords1, long numHeaderRecords2,
-												ssac.aadl.runtime.csv.internal.BigCsvFileReader reader1,
-												ssac.aadl.runtime.csv.internal.BigCsvFileReader reader2,
-												ssac.aadl.runtime.io.CsvFileWriter fout)
+												ssac.aadl.runtime.csv.internal.CsvBinaryFileReader reader1,
+												ssac.aadl.runtime.csv.internal.CsvBinaryFileReader reader2,
+												ssac.aadl.runtime.io.internal.ICsvRecordWriter fout)
 	{
 		java.math.BigDecimal outRecords = java.math.BigDecimal.ZERO;
 		
@@ -396,15 +587,15 @@ public class Difference extends ssac.aadl.runtime.AADLModule
 	 * @param recComparator	レコードコンパレータ
 	 * @param reader1			テーブル1のリーダー
 	 * @param reader2			テーブル1のリーダー
-	 * @param fout		出力先となる <code>CsvFileWriter</code> オブジェクト
+	 * @param fout		出力先となる <code>ICsvRecordWriter</code> オブジェクト
 	 * @return	成功した場合は出力したレコード数、それ以外の場合は <tt>null</tt>
 	 */
 	protected java.math.BigDecimal differRecords(int maxNumFields,
 												long numDataRecords1, long numDataRecords2,
 												ssac.aadl.runtime.csv.internal.CsvStringRecordComparator recComparator,
-												ssac.aadl.runtime.csv.internal.BigCsvFileReader reader1,
-												ssac.aadl.runtime.csv.internal.BigCsvFileReader reader2,
-												ssac.aadl.runtime.io.CsvFileWriter fout)
+												ssac.aadl.runtime.csv.internal.CsvBinaryFileReader reader1,
+												ssac.aadl.runtime.csv.internal.CsvBinaryFileReader reader2,
+												ssac.aadl.runtime.io.internal.ICsvRecordWriter fout)
 	{
 		java.math.BigDecimal outRecords = java.math.BigDecimal.ZERO;
 		java.util.List<String> lastOutRec = null;	// 直前の出力済みレコード
@@ -500,22 +691,38 @@ public class Difference extends ssac.aadl.runtime.AADLModule
 		return outRecords;
 	}
 	
-	protected ssac.aadl.runtime.csv.internal.BigCsvFileReader newBigCsvReader(String filename) {
+	protected ssac.aadl.runtime.csv.internal.CsvBinaryFileReader newBinaryReader(String filename) {
 		try {
-			ssac.aadl.runtime.csv.internal.BigCsvFileReader reader;
-			String _defEncoding = getDefaultCsvEncoding();
-			if (_defEncoding == null)
-				reader = new ssac.aadl.runtime.csv.internal.BigCsvFileReader(filename==null ? null : new java.io.File(filename));
-			else
-				reader = new ssac.aadl.runtime.csv.internal.BigCsvFileReader(filename==null ? null : new java.io.File(filename), _defEncoding);
-			return reader;
+			return new ssac.aadl.runtime.csv.internal.CsvBinaryFileReader(filename==null ? null : new java.io.File(filename));
 		}
 		catch (Exception ex) {
 			throw new ssac.aadl.runtime.AADLRuntimeException(ex);
 		}
 	}
 	
-	protected boolean writeRecord(java.util.List<String> rec, int maxFields, ssac.aadl.runtime.io.CsvFileWriter fout) {
+	// 順序維持のための最終ソートを行う場合はバイナリ形式、それ以外は CSV 形式で出力するライターを生成する
+	protected ssac.aadl.runtime.io.internal.ICsvRecordWriter newRecordWriter(String filename, boolean toBinary) {
+		if (toBinary) {
+			try {
+				return new ssac.aadl.runtime.csv.internal.CsvBinaryFileWriter(filename==null ? null : new java.io.File(filename));
+			}
+			catch (Exception ex) {
+				throw new ssac.aadl.runtime.AADLRuntimeException(ex);
+			}
+		} else {
+			return newCsvFileWriter(filename);
+		}
+	}
+	
+	protected boolean closeRecordWriter(ssac.aadl.runtime.io.internal.ICsvRecordWriter fout) {
+		if (fout instanceof ssac.aadl.runtime.io.CsvFileWriter) {
+			return closeWriter((ssac.aadl.runtime.io.CsvFileWriter)fout);
+		} else {
+			return fout.close();
+		}
+	}
+	
+	protected boolean writeRecord(java.util.List<String> rec, int maxFields, ssac.aadl.runtime.io.internal.ICsvRecordWriter fout) {
 		// レコード出力
 		if (!fout.writeFields(rec)) {
 			return false;	// 出力エラー
@@ -530,7 +737,7 @@ public class Difference extends ssac.aadl.runtime.AADLModule
 		return fout.newRecord();
 	}
 	
-	protected boolean writeRecordModifyOrder(java.math.BigDecimal orderOffset, java.util.List<String> rec, int maxFields, ssac.aadl.runtime.io.CsvFileWriter fout) {
+	protected boolean writeRecordModifyOrder(java.math.BigDecimal orderOffset, java.util.List<String> rec, int maxFields, ssac.aadl.runtime.io.internal.ICsvRecordWriter fout) {
 		// レコード出力
 		if (!rec.isEmpty()) {
 			//--- 順序維持用オーダーにオフセット加算
@@ -551,14 +758,29 @@ public class Difference extends ssac.aadl.runtime.AADLModule
 		return fout.newRecord();
 	}
 
+	/**
+	 * 最終フィールドが空のレコードであれば <tt>true</tt> を返す。
+	 * このようなレコードは、フィールド数の異なるレコードとソート時には等しく、結合時には異なるとみなされるため、
+	 * ハッシュ処理では扱わない。
+	 * @param rec	判定するレコード
+	 * @return	最終フィールドが空であれば <tt>true</tt>
+	 */
+	static protected boolean isAmbiguousRecord(java.util.List<String> rec) {
+		if (rec.isEmpty()) {
+			return false;
+		}
+		String lastField = rec.get(rec.size() - 1);
+		return (lastField == null || lastField.length() == 0);
+	}
+
 	/**
 	 * 指定されたフィールドインデックスから最大フィールド数まで、空のフィールドを出力する。
 	 * @param beginIndex	空フィールドの出力開始位置とするフィールドインデックス
 	 * @param maxCount		レコードの最大フィールド数
-	 * @param fout	出力先とする <code>CsvFileWriter</code> オブジェクト
+	 * @param fout	出力先とする <code>ICsvRecordWriter</code> オブジェクト
 	 * @return	成功した場合は <tt>true</tt>、それ以外の場合は <tt>false</tt>
 	 */
-	static protected boolean writeEmptyFields(int beginIndex, int maxCount, ssac.aadl.runtime.io.CsvFileWriter fout)
+	static protected boolean writeEmptyFields(int beginIndex, int maxCount, ssac.aadl.runtime.io.internal.ICsvRecordWriter fout)
 	{
 		for (; beginIndex < maxCount; ++beginIndex) {
 			if (!fout.writeField(null)) {
@@ -20,6 +20,9 @@
  *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
  */
 /*
+ * @(#)LeftOuterJoin.java	3.3.1	2026/10/18
+ *     - use binary format for temporary files
+ *     - hash-based processing when the right table fits in memory
  * @(#)LeftOuterJoin.java	0.1.0	2013/08/08
  *     - created by Y.Ishizuka(PieCake.inc,)
  */
@@ -29,7 +32,7 @@ package ssac.aadl.basicfilter.relation;
 /**
  * テーブルの左外部結合フィルタ。
  * 
- * @version 0.1.0	2013/08/08
+ * @version 3.3.1	2026/10/18
  * 
  * @author H.Deguchi(SOARS Project.)
  * @author Y.Ishizuka(PieCake.inc,)
@@ -78,6 +81,7 @@ public class LeftOuterJoin extends ssac.aadl.runtime.AADLModule
 	 * $5[STR] キー列番号
 	 * $6[STR] 元のレコード順序を維持する('true' or 'false')
 	 * $7[OUT] 結果の出力先
+	 * $8[STR] ハッシュ処理に使用するメモリの上限(MB)(省略可、省略時は空きメモリから決定、0 ならハッシュ処理を行わない)
 	 */
 	@Override
 	protected int aadlRun(String[] args) {
@@ -105,59 +109,81 @@ public class LeftOuterJoin extends ssac.aadl.runtime.AADLModule
 		// キー列番号
 		final DefNumberPairs pairs = DefNumberPairs.parse(keepOrder, strTargetFields);
 		
+		// ハッシュ処理に使用するメモリの上限
+		final long hashMemoryLimit = getHashMemoryLimit((args.length > 7 ? args[7] : null), toDecimal(8));
+		
 		// 処理
 		java.util.List<java.math.BigDecimal> firstSortResult1 = null;
 		java.util.List<java.math.BigDecimal> firstSortResult2 = null;
 		java.util.List<java.math.BigDecimal> lastResult = null;
-		String tempFile1 = null;
-		String tempFile2 = null;
-		String tempFile3 = null;
-		try {
-			// ソート用テンポラリファイル作成
-			tempFile1 = createTemporaryFile("join1_", ".csv");
-			tempFile2 = createTemporaryFile("join2_", ".csv");
-			if (keepOrder) {
-				tempFile3 = createTemporaryFile("join3_", ".csv");
-			}
-			
-			// 左テーブルのソート
-			println("Sort Csv file 1...");
-			firstSortResult1 = firstSortCsvFile(keepOrder, inFile1, tempFile1, numSkipRecords1, pairs.getLeftComparator());
-			println(".....done.");
-			
-			// 右テーブルのソート
-			println("Sort Csv file 2...");
-			firstSortResult2 = firstSortCsvFile(keepOrder, inFile2, tempFile2, numSkipRecords2, pairs.getRightComparator());
-			println(".....done.");
-			
-			// 結合
-			println("Join...");
-			if (tempFile3 != null) {
-				lastResult = leftJoin(tempFile1, tempFile2, tempFile3, firstSortResult1, firstSortResult2, pairs);
-			} else {
-				lastResult = leftJoin(tempFile1, tempFile2, outFile, firstSortResult1, firstSortResult2, pairs);
-			}
-			println(".....done.");
-			
-			// 元の順序に戻す
-			if (keepOrder) {
-				println("Restore order...");
-				lastResult = lastSortCsvFile(tempFile3, outFile, firstSortResult1, lastResult);
+		
+		// ハッシュによる結合
+		if (hashMemoryLimit > 0L) {
+			println("Join by hash...");
+			java.util.List<java.util.List<java.math.BigDecimal>> hashResults = hashLeftJoin(inFile1, inFile2, outFile,
+																			numSkipRecords1, numSkipRecords2, pairs, hashMemoryLimit);
+			if (hashResults != null) {
+				firstSortResult1 = hashResults.get(0);
+				firstSortResult2 = hashResults.get(1);
+				lastResult       = hashResults.get(2);
 				println(".....done.");
+			} else {
+				println(".....skipped.");
 			}
 		}
-		finally {
-			// remove tempFile1
-			if (tempFile1 != null) {
-				deleteFile(tempFile1);
-			}
-			// remove tempFile2
-			if (tempFile2 != null) {
-				deleteFile(tempFile2);
+		
+		// ソートによる結合
+		if (lastResult == null) {
+			String tempFile1 = null;
+			String tempFile2 = null;
+			String tempFile3 = null;
+			try {
+				// ソート用テンポラリファイル作成
+				tempFile1 = createTemporaryFile("join1_", ".dat");
+				tempFile2 = createTemporaryFile("join2_", ".dat");
+				if (keepOrder) {
+					tempFile3 = createTemporaryFile("join3_", ".dat");
+				}
+				
+				// 左テーブルのソート
+				println("Sort Csv file 1...");
+				firstSortResult1 = firstSortCsvFile(keepOrder, inFile1, tempFile1, numSkipRecords1, pairs.getLeftComparator());
+				println(".....done.");
+				
+				// 右テーブルのソート
+				println("Sort Csv file 2...");
+				firstSortResult2 = firstSortCsvFile(keepOrder, inFile2, tempFile2, numSkipRecords2, pairs.getRightComparator());
+				println(".....done.");
+				
+				// 結合
+				println("Join...");
+				if (tempFile3 != null) {
+					lastResult = leftJoin(tempFile1, tempFile2, tempFile3, firstSortResult1, firstSortResult2, pairs);
+				} else {
+					lastResult = leftJoin(tempFile1, tempFile2, outFile, firstSortResult1, firstSortResult2, pairs);
+				}
+				println(".....done.");
+				
+				// 元の順序に戻す
+				if (keepOrder) {
+					println("Restore order...");
+					lastResult = lastSortCsvFile(tempFile3, outFile, firstSortResult1, lastResult);
+					println(".....done.");
+				}
 			}
-			// remove tempFile3
-			if (tempFile3 != null) {
-				deleteFile(tempFile3);
+			finally {
+				// remove tempFile1
+				if (tempFile1 != null) {
+					deleteFile(tempFile1);
+				}
+				// remove tempFile2
+				if (tempFile2 != null) {
+					deleteFile(tempFile2);
+				}
+				// remove tempFile3
+				if (tempFile3 != null) {
+					deleteFile(tempFile3);
+				}
 			}
 		}
 		
@@ -228,6 +254,7 @@ public class LeftOuterJoin extends ssac.aadl.runtime.AADLModule
 																		getDefaultCsvEncoding(), skipRecords,
 																		(ssac.aadl.runtime.csv.internal.CsvRecordComparator)sortComparator);
 		sorter.setAppendRecordIdAtFirst(keepOrder);
+		sorter.setBinaryOutput(true);
 		sorter.sort();
 		totalRecords    = toDecimal(sorter.getMaxRecordCount());
 		headerRecords   = toDecimal(sorter.getHeaderRecordCount());
@@ -239,6 +266,234 @@ public class LeftOuterJoin extends ssac.aadl.runtime.AADLModule
 		return new java.util.ArrayList<java.math.BigDecimal>(java.util.Arrays.asList(totalRecords, headerRecords, sortedRecords, maxFields, actualMaxFields));
 	}
 
+	// ハッシュ処理に使用するメモリの上限(バイト)の取得
+	// 省略時は空きメモリの 1/3 とし、0 以下の値が指定された場合は 0 を返す。
+	// 上限は、メモリに保持するテーブルに適用する。結合結果は保持せずに、順次出力する。
+	// AADL:function getHashMemoryLimit(str:String, argno:Decimal):Decimal
+	private long getHashMemoryLimit(String str, java.math.BigDecimal argno)
+	{
+		if (!isNull(str)) {
+			str = str.trim();
+		}
+		if (isNull(str) || isEmpty(str)) {
+			Runtime rt = Runtime.getRuntime();
+			long usedMemory = rt.totalMemory() - rt.freeMemory();
+			return Math.max(0L, (rt.maxMemory() - usedMemory) / 3L);
+		}
+		
+		if (!isDecimal(str)) {
+			String errmsg = "($" + toString(argno) + ") ハッシュ処理に使用するメモリの上限には数字(MB)を入力してください : \"" + str + "\"";
+			throw new RuntimeException(errmsg);
+		}
+		java.math.BigDecimal num = toDecimal(str);
+		if (num.signum() <= 0) {
+			return 0L;
+		}
+		return num.multiply(java.math.BigDecimal.valueOf(1024L * 1024L)).longValue();
+	}
+	
+	// ハッシュ表を用いて、左外部結合を行う。
+	// 右テーブルをキー列の値ごとにメモリに保持し、ソートを行わずに左テーブルを 1 回走査して結合する。
+	// 元の順序を維持しない場合は、ソートによる処理と同じ順序で出力するため、左テーブルもメモリに保持してソートする。
+	// (引数)inFile1		左テーブルの CSV ファイルパス
+	// (引数)inFile2		右テーブルの CSV ファイルパス
+	// (引数)outFile		出力先のファイルパス
+	// (引数)skipRecords1	左テーブルの処理対象外レコード数
+	// (引数)skipRecords2	右テーブルの処理対象外レコード数
+	// (引数)keyPairs		キー列の関係定義
+	// (引数)memoryLimit	ハッシュ表に使用するメモリの上限(バイト)
+	// (戻り値)	成功した場合は、左テーブルの読み込み結果、右テーブルの読み込み結果、出力結果の順に要素を格納するリストを返す。
+	//			メモリの上限を超える場合、もしくはキー列の存在しないデータレコードが存在する場合は、
+	//			何も出力せずに null を返す。
+	protected java.util.List<java.util.List<java.math.BigDecimal>> hashLeftJoin(String inFile1, String inFile2, String outFile,
+														java.math.BigDecimal skipRecords1, java.math.BigDecimal skipRecords2,
+														Object keyPairs, long memoryLimit)
+	{
+		DefNumberPairs pairs = (DefNumberPairs)keyPairs;
+		boolean keepOrder = pairs.isKeepOrder();
+		java.io.File file1 = new java.io.File(inFile1);
+		java.io.File file2 = new java.io.File(inFile2);
+		long minMemory1 = ssac.aadl.runtime.csv.internal.CsvTableScanner.estimateMinimumMemory(file1);
+		long minMemory2 = ssac.aadl.runtime.csv.internal.CsvTableScanner.estimateMinimumMemory(file2);
+		// 右テーブルがメモリに収まること、元の順序を維持しない場合は左テーブルも収まること
+		if (minMemory2 > memoryLimit || (!keepOrder && (minMemory1 + minMemory2) > memoryLimit)) {
+			return null;
+		}
+		
+		ssac.aadl.runtime.csv.internal.CsvTableScanner scanner1 = null;
+		ssac.aadl.runtime.csv.internal.CsvTableScanner scanner2 = null;
+		ssac.aadl.runtime.io.internal.ICsvRecordWriter tout = null;
+		ssac.aadl.runtime.csv.internal.CsvBinaryFileReader tin = null;
+		String tempFile = null;
+		java.util.List<java.math.BigDecimal> lastResult = null;
+		try {
+			// 順序維持用フィールドは、ソートによる処理と同様に付加する
+			scanner1 = new ssac.aadl.runtime.csv.internal.CsvTableScanner(file1, getDefaultCsvEncoding(), skipRecords1.longValue(), keepOrder);
+			scanner2 = new ssac.aadl.runtime.csv.internal.CsvTableScanner(file2, getDefaultCsvEncoding(), skipRecords2.longValue(), keepOrder);
+			
+			// 右テーブルを、キー列の値ごとに元の順序で保持
+			java.util.List<java.util.List<String>> records2 = scanner2.readAllDataRecords(memoryLimit);
+			if (records2 == null) {
+				return null;	// メモリに収まらない
+			}
+			long usedMemory = 0L;
+			java.util.HashMap<java.util.List<String>, java.util.List<java.util.List<String>>> keyMap2
+					= new java.util.HashMap<java.util.List<String>, java.util.List<java.util.List<String>>>();
+			for (java.util.List<String> rec2 : records2) {
+				if (!pairs.hasAllRightKeyFields(rec2)) {
+					return null;
+				}
+				usedMemory += ssac.aadl.runtime.csv.internal.CsvFileSorter.estimateRecordMemory(rec2);
+				java.util.List<String> key = pairs.getRightKeyFields(rec2);
+				java.util.List<java.util.List<String>> matchedList = keyMap2.get(key);
+				if (matchedList == null) {
+					matchedList = new java.util.ArrayList<java.util.List<String>>(1);
+					keyMap2.put(key, matchedList);
+				}
+				matchedList.add(rec2);
+			}
+			records2 = null;
+			
+			// 左テーブル
+			java.util.Iterator<java.util.List<String>> joined;
+			if (keepOrder) {
+				// 元の順序で走査し、結合する左レコードと右レコードの組をテンポラリファイルに出力
+				//--- 左テーブルの最大フィールド数は、すべての左レコードを読み込むまで確定しない
+				HashJoinIterator it = new HashJoinIterator(pairs, scanner1, keyMap2);
+				tempFile = createTemporaryFile("join_", ".dat");
+				tout = newRecordWriter(tempFile, true);
+				while (it.hasNext()) {
+					if (!tout.writeRecord(it.next())) {
+						throw new ssac.aadl.runtime.AADLRuntimeException(tout.lastException());
+					}
+				}
+				if (!tout.close()) {
+					throw new ssac.aadl.runtime.AADLRuntimeException(tout.lastException());
+				}
+				tout = null;
+				if (it.hasInvalidRecord()) {
+					return null;	// キー列の存在しないレコード
+				}
+				tin = newBinaryReader(tempFile);
+				joined = tin;
+			} else {
+				// ソートによる処理と同じ順序に並べ替える
+				java.util.List<java.util.List<String>> records1 = scanner1.readAllDataRecords(memoryLimit - usedMemory);
+				if (records1 == null) {
+					return null;	// メモリに収まらない
+				}
+				for (java.util.List<String> rec1 : records1) {
+					if (!pairs.hasAllLeftKeyFields(rec1)) {
+						return null;
+					}
+				}
+				pairs.getLeftComparator().sort(records1);
+				joined = new HashJoinIterator(pairs, records1.iterator(), keyMap2);
+			}
+			
+			// 最大フィールド数の確定
+			int maxNumFields1 = scanner1.getMaxFieldCount();
+			int maxNumFields2 = scanner2.getMaxFieldCount();
+			if (!pairs.isLeftKeyFieldsInRange(maxNumFields1)) {
+				return null;	// ソートによる処理で、キー列を再構成する
+			}
+			//--- 右テーブルの最大フィールド数からキー列を除外
+			maxNumFields2 -= pairs.getRightMaxFieldCountExcludeKeyFields(maxNumFields2);
+			
+			// 出力
+			lastResult = writeHashJoinResult(pairs, outFile, maxNumFields1, maxNumFields2,
+											scanner1.getHeaderRecords(), scanner2.getHeaderRecords(), joined);
+		}
+		finally {
+			if (scanner1 != null) {
+				scanner1.close();
+			}
+			if (scanner2 != null) {
+				scanner2.close();
+			}
+			if (tout != null) {
+				tout.close();
+			}
+			if (tin != null) {
+				tin.close();
+			}
+			if (tempFile != null) {
+				deleteFile(tempFile);
+			}
+		}
+		
+		java.util.List<java.math.BigDecimal> scanResult1 = createScanResult(keepOrder, scanner1);
+		java.util.List<java.math.BigDecimal> scanResult2 = createScanResult(keepOrder, scanner2);
+		return new java.util.ArrayList<java.util.List<java.math.BigDecimal>>(java.util.Arrays.asList(scanResult1, scanResult2, lastResult));
+	}
+	
+	// ハッシュ処理で読み込んだテーブルの集計結果を、ソート結果と同じ形式で返す。
+	private java.util.List<java.math.BigDecimal> createScanResult(boolean keepOrder, ssac.aadl.runtime.csv.internal.CsvTableScanner scanner)
+	{
+		java.math.BigDecimal totalRecords    = toDecimal(scanner.getMaxRecordCount());
+		java.math.BigDecimal headerRecords   = toDecimal(scanner.getHeaderRecordCount());
+		java.math.BigDecimal sortedRecords   = toDecimal(scanner.getDataRecordCount());
+		java.math.BigDecimal maxFields       = toDecimal(scanner.getMaxFieldCount());
+		java.math.BigDecimal actualMaxFields = (keepOrder ? maxFields.subtract(java.math.BigDecimal.ONE) : maxFields);
+		return new java.util.ArrayList<java.math.BigDecimal>(java.util.Arrays.asList(totalRecords, headerRecords, sortedRecords, maxFields, actualMaxFields));
+	}
+	
+	// ハッシュ処理による結合結果を出力する。
+	// (引数)keyPairs		キー列の関係定義
+	// (引数)outFile		出力先のファイルパス
+	// (引数)maxNumFields1	左テーブルの最大フィールド数（順序維持用フィールドも含む）
+	// (引数)maxNumFields2	右テーブルの最大フィールド数（順序維持用フィールドも含み、キー列を除く）
+	// (引数)headers1		左テーブルのヘッダレコード
+	// (引数)headers2		右テーブルのヘッダレコード
+	// (引数)joined		結合する左レコードと右レコードを交互に返す反復子
+	// (戻り値)	出力結果の最大レコード数、ヘッダレコード数、データレコード数、最大フィールド数の順に要素を格納する数値オブジェクトの配列
+	private java.util.List<java.math.BigDecimal> writeHashJoinResult(Object keyPairs, String outFile,
+																	int maxNumFields1, int maxNumFields2,
+																	java.util.List<java.util.List<String>> headers1,
+																	java.util.List<java.util.List<String>> headers2,
+																	java.util.Iterator<java.util.List<String>> joined)
+	{
+		java.math.BigDecimal totalRecords  = java.math.BigDecimal.ZERO;
+		java.math.BigDecimal headerRecords = java.math.BigDecimal.ZERO;
+		java.math.BigDecimal dataRecords   = java.math.BigDecimal.ZERO;
+		java.math.BigDecimal maxFields     = java.math.BigDecimal.ZERO;
+		
+		//@{
+		DefNumberPairs pairs = (DefNumberPairs)keyPairs;
+		int maxOutFields = 0;
+		ssac.aadl.runtime.io.CsvFileWriter fout = newCsvFileWriter(outFile);
+		try {
+			// ヘッダ統合
+			int maxHeaderRecords = Math.max(headers1.size(), headers2.size());
+			for (int row = 0; row < maxHeaderRecords; ++row) {
+				java.util.List<String> rec1 = (row < headers1.size() ? headers1.get(row) : EMPTY_RECORD);
+				java.util.List<String> rec2 = (row < headers2.size() ? headers2.get(row) : EMPTY_RECORD);
+				maxOutFields = Math.max(maxOutFields, writeJoinedRecord(pairs, rec1, maxNumFields1, rec2, maxNumFields2, fout));
+				headerRecords = headerRecords.add(java.math.BigDecimal.ONE);
+			}
+			
+			// 結合結果
+			while (joined.hasNext()) {
+				java.util.List<String> rec1 = joined.next();
+				java.util.List<String> rec2 = joined.next();
+				maxOutFields = Math.max(maxOutFields, writeJoinedRecord(pairs, rec1, maxNumFields1, rec2, maxNumFields2, fout));
+				dataRecords = dataRecords.add(java.math.BigDecimal.ONE);
+			}
+		}
+		finally {
+			closeWriter(fout);
+		}
+		totalRecords = headerRecords.add(dataRecords);
+		if (pairs.isKeepOrder()) {
+			maxFields = toDecimal(maxOutFields);
+		} else {
+			maxFields = toDecimal(maxNumFields1).add(toDecimal(maxNumFields2));
+		}
+		//}@;
+		
+		return new java.util.ArrayList<java.math.BigDecimal>(java.util.Arrays.asList(totalRecords, headerRecords, dataRecords, maxFields));
+	}
+
 	// 順序維持のための最終ソート。
 	// (引数)inFile		入力ファイル
 	// (引数)outFile		出力ファイル
@@ -271,6 +526,7 @@ public class LeftOuterJoin extends ssac.aadl.runtime.AADLModule
 																		new java.io.File(outFile),
 																		getDefaultCsvEncoding(), headerRecords,
 																		sortComparator);
+		sorter.setBinaryInput(true);
 		//--- 除外フィールド指定
 		sorter.addRemoveFieldIndexAtLast(0);
 		sorter.addRemoveFieldIndexAtLast(sortResult1.get(3).intValue());	// 左テーブル最大フィールド数(右テーブルの先頭フィールドインデックス)
@@ -321,16 +577,16 @@ public class LeftOuterJoin extends ssac.aadl.runtime.AADLModule
 		maxNumFields2 -= pairs.getRightMaxFieldCountExcludeKeyFields(maxNumFields2);
 		
 		// merge
-		ssac.aadl.runtime.csv.internal.BigCsvFileReader reader1 = null;
-		ssac.aadl.runtime.csv.internal.BigCsvFileReader reader2 = null;
-		ssac.aadl.runtime.io.CsvFileWriter	fout = null;
+		ssac.aadl.runtime.csv.internal.CsvBinaryFileReader reader1 = null;
+		ssac.aadl.runtime.csv.internal.CsvBinaryFileReader reader2 = null;
+		ssac.aadl.runtime.io.internal.ICsvRecordWriter	fout = null;
 		try {
 			// create reader
-			reader1 = newBigCsvReader(inFile1);
-			reader2 = newBigCsvReader(inFile2);
+			reader1 = newBinaryReader(inFile1);
+			reader2 = newBinaryReader(inFile2);
 			
 			// create writer
-			fout = newCsvFileWriter(outFile);
+			fout = newRecordWriter(outFile, pairs.isKeepOrder());
 			
 			// ヘッダ統合
 			headerRecords = mergeHeader(pairs, maxNumFields1, maxNumFields2, sortResult1.get(1).longValue(), sortResult2.get(1).longValue(),
@@ -354,7 +610,7 @@ public class LeftOuterJoin extends ssac.aadl.runtime.AADLModule
 				reader2.close();
 			}
 			if (fout != null) {
-				closeWriter(fout);
+				closeRecordWriter(fout);
 			}
 		}
 		totalRecords    = headerRecords.add(dataRecords);
@@ -380,14 +636,14 @@ public class LeftOuterJoin extends ssac.aadl.runtime.AADLModule
 	 * @param numHeaderRecords2	右テーブルのヘッダレコード数
 	 * @param reader1			左テーブルのリーダー
 	 * @param reader2			右テーブルのリーダー
-	 * @param fout		出力先となる <code>CsvFileWriter</code> オブジェクト
+	 * @param fout		出力先となる <code>ICsvRecordWriter</code> オブジェクト
 	 * @return	成功した場合は出力したレコード数、それ以外の場合は <tt>null</tt>
 	 */
 	protected java.math.BigDecimal mergeHeader(DefNumberPairs pairs, int maxNumFields1, int maxNumFields2,
 												long numHeaderRecords1, long numHeaderRecords2,
-												ssac.aadl.runtime.csv.internal.BigCsvFileReader reader1,
-												ssac.aadl.runtime.csv.internal.BigCsvFileReader reader2,
-												ssac.aadl.runtime.io.CsvFileWriter fout)
+												ssac.aadl.runtime.csv.internal.CsvBinaryFileReader reader1,
+												ssac.aadl.runtime.csv.internal.CsvBinaryFileReader reader2,
+												ssac.aadl.runtime.io.internal.ICsvRecordWriter fout)
 	{
 		java.math.BigDecimal outRecords = java.math.BigDecimal.ZERO;
 		long maxHeaderRecords = Math.max(numHeaderRecords1, numHeaderRecords2);
@@ -431,14 +687,14 @@ public class LeftOuterJoin extends ssac.aadl.runtime.AADLModule
 	 * @param numDataRecords2	右テーブルのヘッダを除くデータレコード数
 	 * @param reader1			左テーブルのリーダー
 	 * @param reader2			右テーブルのリーダー
-	 * @param fout		出力先となる <code>CsvFileWriter</code> オブジェクト
+	 * @param fout		出力先となる <code>ICsvRecordWriter</code> オブジェクト
 	 * @return	成功した場合は出力したレコード数、それ以外の場合は <tt>null</tt>
 	 */
 	protected java.math.BigDecimal mergeRecords(DefNumberPairs pairs, int maxNumFields1, int maxNumFields2,
 												long numDataRecords1, long numDataRecords2,
-												ssac.aadl.runtime.csv.internal.BigCsvFileReader reader1,
-												ssac.aadl.runtime.csv.internal.BigCsvFileReader reader2,
-												ssac.aadl.runtime.io.CsvFileWriter fout)
+												ssac.aadl.runtime.csv.internal.CsvBinaryFileReader reader1,
+												ssac.aadl.runtime.csv.internal.CsvBinaryFileReader reader2,
+												ssac.aadl.runtime.io.internal.ICsvRecordWriter fout)
 	{
 		java.math.BigDecimal outRecords = java.math.BigDecimal.ZERO;
 		java.util.List<String> firstMatchedRec2 = null;
@@ -576,29 +832,77 @@ public class LeftOuterJoin extends ssac.aadl.runtime.AADLModule
 		return outRecords;
 	}
 	
-	protected ssac.aadl.runtime.csv.internal.BigCsvFileReader newBigCsvReader(String filename) {
+	/**
+	 * 左レコードと右レコードを結合した 1 レコードを出力する。
+	 * この出力では、右側テーブルのキー列は出力されず、順序維持用フィールドも除外される。
+	 * @param pairs				キー列の関係定義
+	 * @param rec1				左レコード
+	 * @param maxNumFields1		左テーブルの最大フィールド数（順序維持用フィールドも含む）
+	 * @param rec2				右レコード
+	 * @param maxNumFields2		右テーブルの最大フィールド数（順序維持用フィールドも含み、キー列を除く）
+	 * @param fout		出力先となる <code>CsvFileWriter</code> オブジェクト
+	 * @return	出力したフィールド数
+	 */
+	protected int writeJoinedRecord(DefNumberPairs pairs, java.util.List<String> rec1, int maxNumFields1,
+									java.util.List<String> rec2, int maxNumFields2, ssac.aadl.runtime.io.CsvFileWriter fout)
+	{
+		java.util.ArrayList<String> record = new java.util.ArrayList<String>(maxNumFields1 + maxNumFields2);
+		pairs.appendLeftRecord(record, rec1, maxNumFields1);
+		pairs.appendRightRecord(record, rec2, maxNumFields2);
+		if (pairs.isKeepOrder()) {
+			// 順序維持用フィールドを除外(右テーブル、左テーブルの順)
+			if (maxNumFields1 < record.size()) {
+				record.remove(maxNumFields1);
+			}
+			if (!record.isEmpty()) {
+				record.remove(0);
+			}
+		}
+		if (!fout.writeRecord(record)) {
+			writerValidSucceeded(fout);
+		}
+		return record.size();
+	}
+	
+	protected ssac.aadl.runtime.csv.internal.CsvBinaryFileReader newBinaryReader(String filename) {
 		try {
-			ssac.aadl.runtime.csv.internal.BigCsvFileReader reader;
-			String _defEncoding = getDefaultCsvEncoding();
-			if (_defEncoding == null)
-				reader = new ssac.aadl.runtime.csv.internal.BigCsvFileReader(filename==null ? null : new java.io.File(filename));
-			else
-				reader = new ssac.aadl.runtime.csv.internal.BigCsvFileReader(filename==null ? null : new java.io.File(filename), _defEncoding);
-			return reader;
+			return new ssac.aadl.runtime.csv.internal.CsvBinaryFileReader(filename==null ? null : new java.io.File(filename));
 		}
 		catch (Exception ex) {
 			throw new ssac.aadl.runtime.AADLRuntimeException(ex);
 		}
 	}
+	
+	// 順序維持のための最終ソートを行う場合はバイナリ形式、それ以外は CSV 形式で出力するライターを生成する
+	protected ssac.aadl.runtime.io.internal.ICsvRecordWriter newRecordWriter(String filename, boolean toBinary) {
+		if (toBinary) {
+			try {
+				return new ssac.aadl.runtime.csv.internal.CsvBinaryFileWriter(filename==null ? null : new java.io.File(filename));
+			}
+			catch (Exception ex) {
+				throw new ssac.aadl.runtime.AADLRuntimeException(ex);
+			}
+		} else {
+			return newCsvFileWriter(filename);
+		}
+	}
+	
+	protected boolean closeRecordWriter(ssac.aadl.runtime.io.internal.ICsvRecordWriter fout) {
+		if (fout instanceof ssac.aadl.runtime.io.CsvFileWriter) {
+			return closeWriter((ssac.aadl.runtime.io.CsvFileWriter)fout);
+		} else {
+			return fout.close();
+		}
+	}
 
 	/**
 	 * 指定されたフィールドインデックスから最大フィールド数まで、空のフィールドを出力する。
 	 * @param beginIndex	空フィールドの出力開始位置とするフィールドインデックス
 	 * @param maxCount		レコードの最大フィールド数
-	 * @param fout	出力先とする <code>CsvFileWriter</code> オブジェクト
+	 * @param fout	出力先とする <code>ICsvRecordWriter</code> オブジェクト
 	 * @return	成功した場合は <tt>true</tt>、それ以外の場合は <tt>false</tt>
 	 */
-	static protected boolean writeEmptyFields(int beginIndex, int maxCount, ssac.aadl.runtime.io.CsvFileWriter fout)
+	static protected boolean writeEmptyFields(int beginIndex, int maxCount, ssac.aadl.runtime.io.internal.ICsvRecordWriter fout)
 	{
 		for (; beginIndex < maxCount; ++beginIndex) {
 			if (!fout.writeField(null)) {
@@ -686,15 +990,112 @@ public class LeftOuterJoin extends ssac.aadl.runtime.AADLModule
 		public boolean containsRightFieldIndex(int index) {
 			return _map2.containsKey(index);
 		}
+		
+		/**
+		 * 指定された左テーブルの最大フィールド数に、すべての左キー列が含まれる場合に <tt>true</tt> を返す。
+		 * この場合、{@link #restructByMaxFieldCount(int, int)} でキー列は変更されない。
+		 * @param leftMaxFields	左テーブルの最大フィールド数（順序維持用フィールドも含む）
+		 */
+		public boolean isLeftKeyFieldsInRange(int leftMaxFields) {
+			return (!_map1.isEmpty() && _map1.lastKey() < leftMaxFields);
+		}
+		
+		/**
+		 * 指定された左レコードに、すべての左キー列が存在する場合に <tt>true</tt> を返す。
+		 */
+		public boolean hasAllLeftKeyFields(java.util.List<String> rec1) {
+			return (!_map1.isEmpty() && _map1.lastKey() < rec1.size());
+		}
+		
+		/**
+		 * 指定された右レコードに、すべての右キー列が存在する場合に <tt>true</tt> を返す。
+		 */
+		public boolean hasAllRightKeyFields(java.util.List<String> rec2) {
+			return (!_map2.isEmpty() && _map2.lastKey() < rec2.size());
+		}
+		
+		/**
+		 * 指定された左レコードのいずれかのキー列が、空文字でも <tt>null</tt> でもない場合に <tt>true</tt> を返す。
+		 * すべてのキー列が空の左レコードは、{@link #compareToKeyFields(java.util.List, java.util.List)} において
+		 * どの右レコードとも一致しない。
+		 */
+		public boolean hasValueAnyLeftKey(java.util.List<String> rec1) {
+			for (FieldIndexPair aPair : _map1.values()) {
+				String field1 = (aPair._findex1 < rec1.size() ? rec1.get(aPair._findex1) : null);
+				if (field1 != null && field1.length() > 0) {
+					return true;
+				}
+			}
+			return false;
+		}
+		
+		/**
+		 * 指定された左レコードのキー列値を、右レコードと照合するキーとして返す。
+		 * キーは、キー列の関係定義の左キー列順に、キー列値を格納したリストとなる。
+		 */
+		public java.util.List<String> getLeftKeyFields(java.util.List<String> rec1) {
+			java.util.ArrayList<String> key = new java.util.ArrayList<String>(_map1.size());
+			for (FieldIndexPair aPair : _map1.values()) {
+				key.add(aPair._findex1 < rec1.size() ? rec1.get(aPair._findex1) : null);
+			}
+			return key;
+		}
+		
+		/**
+		 * 指定された右レコードのキー列値を、左レコードと照合するキーとして返す。
+		 * キーは、{@link #getLeftKeyFields(java.util.List)} と同じ順序で、キー列値を格納したリストとなる。
+		 */
+		public java.util.List<String> getRightKeyFields(java.util.List<String> rec2) {
+			java.util.ArrayList<String> key = new java.util.ArrayList<String>(_map1.size());
+			for (FieldIndexPair aPair : _map1.values()) {
+				key.add(aPair._findex2 < rec2.size() ? rec2.get(aPair._findex2) : null);
+			}
+			return key;
+		}
+		
+		/**
+		 * 指定されたリストに左レコードのフィールドを追加し、最大フィールド数まで空のフィールドを追加する。
+		 * 追加されるフィールドは、{@link #writeLeftRecord(java.util.List, int, ssac.aadl.runtime.io.internal.ICsvRecordWriter)} の出力と同じとなる。
+		 * @param record		追加先のリスト
+		 * @param rec1			左レコード
+		 * @param maxNumFields1	左テーブルの最大フィールド数（順序維持用フィールドも含む）
+		 */
+		public void appendLeftRecord(java.util.List<String> record, java.util.List<String> rec1, int maxNumFields1) {
+			record.addAll(rec1);
+			for (int findex = rec1.size(); findex < maxNumFields1; ++findex) {
+				record.add(null);
+			}
+		}
+		
+		/**
+		 * 指定されたリストに右レコードのキー列ではないフィールドを追加し、空のフィールドを追加する。
+		 * 追加されるフィールドは、{@link #writeRightRecord(java.util.List, int, ssac.aadl.runtime.io.internal.ICsvRecordWriter)} の出力と同じとなる。
+		 * @param record		追加先のリスト
+		 * @param rec2			右レコード
+		 * @param maxNumFields2	右テーブルの最大フィールド数（順序維持用フィールドも含み、キー列を除く）
+		 */
+		public void appendRightRecord(java.util.List<String> record, java.util.List<String> rec2, int maxNumFields2) {
+			int findex = 0;
+			for (String field : rec2) {
+				if (!_map2.containsKey(findex)) {
+					// キー列ではない列を追加
+					record.add(field);
+				}
+				++findex;
+			}
+			for (; findex < maxNumFields2; ++findex) {
+				record.add(null);
+			}
+		}
 
 		/**
 		 * 指定された出力先に左レコードを出力する。
 		 * @param rec1			左レコード
 		 * @param maxNumFields1	左テーブルの最大フィールド数（順序維持用フィールドも含む）
-		 * @param fout			出力先となる <code>CsvFileWriter</code> オブジェクト
+		 * @param fout			出力先となる <code>ICsvRecordWriter</code> オブジェクト
 		 * @return	成功した場合は <tt>true</tt>、それ以外の場合は <tt>false</tt>
 		 */
-		public boolean writeLeftRecord(java.util.List<String> rec1, int maxNumFields1, ssac.aadl.runtime.io.CsvFileWriter fout) {
+		public boolean writeLeftRecord(java.util.List<String> rec1, int maxNumFields1, ssac.aadl.runtime.io.internal.ICsvRecordWriter fout) {
 			// レコード出力
 			if (!fout.writeFields(rec1)) {
 				return false;	// 出力エラー
@@ -708,10 +1109,10 @@ public class LeftOuterJoin extends ssac.aadl.runtime.AADLModule
 		 * 指定された出力先に右レコードを出力し、最後にレコード区切り文字を出力する。
 		 * @param rec2			右レコード
 		 * @param maxNumFields2	右テーブルの最大フィールド数（順序維持用フィールドも含み、キー列を除く）
-		 * @param fout			出力先となる <code>CsvFileWriter</code> オブジェクト
+		 * @param fout			出力先となる <code>ICsvRecordWriter</code> オブジェクト
 		 * @return	成功した場合は <tt>true</tt>、それ以外の場合は <tt>false</tt>
 		 */
-		public boolean writeRightRecord(java.util.List<String> rec2, int maxNumFields2, ssac.aadl.runtime.io.CsvFileWriter fout) {
+		public boolean writeRightRecord(java.util.List<String> rec2, int maxNumFields2, ssac.aadl.runtime.io.internal.ICsvRecordWriter fout) {
 			// レコード出力
 			int findex = 0;
 			for (String field : rec2) {
@@ -994,6 +1395,86 @@ public class LeftOuterJoin extends ssac.aadl.runtime.AADLModule
 		}
 	}
 	
+	/**
+	 * 右テーブルのハッシュ表を用いて、左レコードごとに結合する右レコードを検索し、
+	 * 左レコードと右レコードを交互に返す反復子。
+	 * 一致する右レコードが存在しない左レコードは、空の右レコードと組にする。
+	 * すべてのキー列を含まない左レコードが現れた場合は、その時点で反復を終了する。
+	 */
+	static protected class HashJoinIterator implements java.util.Iterator<java.util.List<String>>
+	{
+		private final DefNumberPairs	_pairs;
+		private final java.util.Iterator<java.util.List<String>>	_records1;
+		private final java.util.Map<java.util.List<String>, java.util.List<java.util.List<String>>>	_keyMap2;
+		
+		private java.util.List<String>	_curRec1;
+		private java.util.Iterator<java.util.List<String>>	_curMatched;
+		private java.util.List<String>	_nextRec2;
+		private boolean	_invalid;
+		
+		public HashJoinIterator(DefNumberPairs pairs, java.util.Iterator<java.util.List<String>> records1,
+								java.util.Map<java.util.List<String>, java.util.List<java.util.List<String>>> keyMap2)
+		{
+			_pairs    = pairs;
+			_records1 = records1;
+			_keyMap2  = keyMap2;
+		}
+		
+		/**
+		 * すべてのキー列を含まない左レコードが現れ、反復を終了した場合に <tt>true</tt> を返す。
+		 */
+		public boolean hasInvalidRecord() {
+			return _invalid;
+		}
+		
+		public boolean hasNext() {
+			if (_nextRec2 != null) {
+				return true;	// 右レコードを返す
+			}
+			if (_curMatched != null && _curMatched.hasNext()) {
+				return true;
+			}
+			_curMatched = null;
+			if (_invalid || !_records1.hasNext()) {
+				return false;
+			}
+			
+			// 次の左レコード
+			_curRec1 = _records1.next();
+			if (!_pairs.hasAllLeftKeyFields(_curRec1)) {
+				_invalid = true;
+				return false;
+			}
+			java.util.List<java.util.List<String>> matchedList = null;
+			if (_pairs.hasValueAnyLeftKey(_curRec1)) {
+				matchedList = _keyMap2.get(_pairs.getLeftKeyFields(_curRec1));
+			}
+			if (matchedList == null) {
+				matchedList = java.util.Collections.singletonList(EMPTY_RECORD);
+			}
+			_curMatched = matchedList.iterator();
+			return true;
+		}
+		
+		public java.util.List<String> next() {
+			if (!hasNext()) {
+				throw new java.util.NoSuchElementException();
+			}
+			if (_nextRec2 != null) {
+				java.util.List<String> rec2 = _nextRec2;
+				_nextRec2 = null;
+				return rec2;
+			} else {
+				_nextRec2 = _curMatched.next();
+				return _curRec1;
+			}
+		}
+		
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+	
 	static public class FieldIndexPair
 	{
 		private final int	_findex1;
@@ -0,0 +1,348 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2013  SSAC(Systems of Social Accounting Consortium)
+ *  <author> Yasunari Ishizuka (PieCake,Inc.)
+ *  <author> Hiroshi Deguchi (TOKYO INSTITUTE OF TECHNOLOGY)
+ *  <author> Yuji Onuki (Statistics Bureau)
+ *  <author> Shungo Sakaki (Tokyo University of Technology)
+ *  <author> Akira Sasaki (HOSEI UNIVERSITY)
+ *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
+ */
+/*
+ * @(#)TestRelationHash.java	3.3.1	2026/10/18
+ *     - created
+ */
+package ssac.aadl.basicfilter.relation;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 集合演算フィルタのハッシュ処理の検証プログラム。
+ * <p>末尾の空フィールド、フィールド数の異なるレコード、空行、重複レコードを含む CSV ファイルについて、
+ * ソートによる処理、ハッシュ処理、メモリの上限を超える場合の処理のいずれも、
+ * ハッシュ処理を追加する前のフィルタと同じ結果を出力することを確認する。
+ * 乱数で生成した CSV ファイルでは、ハッシュ処理とメモリの上限を超える場合の出力が、ソートによる処理の出力と一致することを確認する。
+ * 空のフィールドを含まない場合は、ハッシュ処理が中断されないことも確認する。
+ *
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class TestRelationHash
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	/** フィールド値の候補(空のフィールドと、引用符で囲まれた空のフィールドを含む) **/
+	static private final String[] testValues = { "a", "b", "1", "", "", "\"\"" };
+	/** 空のフィールドを含まないフィールド値の候補 **/
+	static private final String[] testFilledValues = { "a", "b", "1" };
+
+	/** 出力結果を確認する CSV ファイル1 **/
+	static private final String fixedCsv1 = "2\r\n2,,\r\na,b\r\na,b,\r\n,c,2\r\n,c,2\r\n\r\n1,,a\r\nb\r\n";
+	/** 出力結果を確認する CSV ファイル2 **/
+	static private final String fixedCsv2 = "2,,\r\na,b,\r\n,c\r\n2,c,1\r\n2,c,\r\n\r\n1\r\nb,1\r\n";
+
+	/**
+	 * {@link #fixedCsv1} と {@link #fixedCsv2} に対する、ハッシュ処理を追加する前のフィルタの出力結果。
+	 * フィルタ名、入力ファイルの順序("12" はファイル1が先)、キー列の関係定義、元の順序の維持、出力結果の順に格納する。
+	 * 出力結果の改行は LF とする。
+	 */
+	static private final String[][] fixedResults = {
+		{"Intersection",  "12", null, "false", ",,\n2,,\na,b,\n"},
+		{"Intersection",  "12", null, "true",  "2,,\na,b,\n,,\n"},
+		{"Intersection",  "21", null, "false", ",,\n2,,\na,b,\n"},
+		{"Intersection",  "21", null, "true",  "2,,\na,b,\n,,\n"},
+		{"Union",         "12", null, "false", ",,\n,c,\n,c,2\n1,,\n1,,a\n2,,\n2,,\n2,c,\n2,c,1\na,b,\na,b,\nb,,\nb,1,\n"},
+		{"Union",         "12", null, "true",  "2,,\n2,,\na,b,\na,b,\n,c,2\n,,\n1,,a\nb,,\n,c,\n2,c,1\n2,c,\n1,,\nb,1,\n"},
+		{"Difference",    "12", null, "false", ",c,2\n1,,a\n2,,\na,b,\nb,,\n"},
+		{"Difference",    "12", null, "true",  "2,,\na,b,\n,c,2\n1,,a\nb,,\n"},
+		{"Difference",    "21", null, "false", ",c,\n1,,\n2,c,\n2,c,1\nb,1,\n"},
+		{"Difference",    "21", null, "true",  ",c,\n2,c,1\n2,c,\n1,,\nb,1,\n"},
+		{"LeftOuterJoin", "12", "1=2", "false", ",c,2,,\n,c,2,,\n,,,,\n1,,a,b\n2,,,,\n2,,,,\na,b,,,\na,b,,,\nb,,,a,\n"},
+		{"LeftOuterJoin", "12", "1=2", "true",  "2,,,,\n2,,,,\na,b,,,\na,b,,,\n,c,2,,\n,c,2,,\n,,,,\n1,,a,b\nb,,,a,\n"},
+		{"LeftOuterJoin", "12", "3=1,2=3", "false", "2,,,\n2,,,\n,,,\nb,,,\n1,,a,\na,b,,\na,b,,\n,c,2,\n,c,2,\n"},
+		{"LeftOuterJoin", "12", "3=1,2=3", "true",  "2,,,\n2,,,\na,b,,\na,b,,\n,c,2,\n,c,2,\n,,,\n1,,a,\nb,,,\n"},
+	};
+
+	/** 各フィルタで比較する、ハッシュ処理のメモリの上限(MB) **/
+	static private final String LIMIT_SORT    = "0";
+	static private final String LIMIT_DEFAULT = "";
+	static private final String LIMIT_TINY    = "0.000001";
+
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/** 直前のハッシュ処理が結果を出力した場合に <tt>true</tt> **/
+	static private boolean hashCompleted;
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * @param args
+	 */
+	public static void main(String[] args) throws IOException {
+		System.out.println("<< Test for hash processing of relation filters >>");
+		File workDir = File.createTempFile("relhash", "");
+		workDir.delete();
+		workDir.mkdir();
+		int failed = 0;
+		int testNo = 0;
+		try {
+			File inFile1 = new File(workDir, "in1.csv");
+			File inFile2 = new File(workDir, "in2.csv");
+			File outFile = new File(workDir, "out.csv");
+
+			// ハッシュ処理を追加する前のフィルタの出力結果との比較
+			writeBytes(inFile1, fixedCsv1.getBytes("US-ASCII"));
+			writeBytes(inFile2, fixedCsv2.getBytes("US-ASCII"));
+			for (String[] fixed : fixedResults) {
+				File first  = ("12".equals(fixed[1]) ? inFile1 : inFile2);
+				File second = ("12".equals(fixed[1]) ? inFile2 : inFile1);
+				String[] testArgs;
+				if (fixed[2] == null) {
+					testArgs = new String[]{fixed[0], first.getPath(), "0", second.getPath(), "0", fixed[3], outFile.getPath()};
+				} else {
+					testArgs = new String[]{fixed[0], first.getPath(), "0", second.getPath(), "0", fixed[2], fixed[3], outFile.getPath()};
+				}
+				String[] moduleArgs = Arrays.copyOfRange(testArgs, 1, testArgs.length + 1);
+				String result = runFixedTest(testArgs[0], moduleArgs, outFile, fixed[4]);
+				if (result != null) {
+					failed++;
+				}
+				System.out.println("Test[" + (testNo++) + "] fixed " + Arrays.asList(testArgs)
+									+ " : " + (result == null ? "OK" : ("NG (" + result + ")")));
+			}
+
+			// ハッシュ処理とソートによる処理の出力結果の比較
+			for (long seed = 1L; seed <= 20L; ++seed) {
+				Random rand = new Random(seed);
+				//--- 偶数の seed では、空のフィールドを含まないファイルとする
+				boolean filled = (seed % 2L == 0L);
+				writeRandomCsv(rand, inFile1, 60, filled);
+				writeRandomCsv(rand, inFile2, 40, filled);
+				String skip1 = String.valueOf(rand.nextInt(2));
+				String skip2 = String.valueOf(rand.nextInt(2));
+				for (String keepOrder : new String[]{"false", "true"}) {
+					String[][] testArgsSet = {
+						{"Intersection",  inFile1.getPath(), skip1, inFile2.getPath(), skip2, keepOrder, outFile.getPath()},
+						{"Intersection",  inFile2.getPath(), skip2, inFile1.getPath(), skip1, keepOrder, outFile.getPath()},
+						{"Union",         inFile1.getPath(), skip1, inFile2.getPath(), skip2, keepOrder, outFile.getPath()},
+						{"Difference",    inFile1.getPath(), skip1, inFile2.getPath(), skip2, keepOrder, outFile.getPath()},
+						{"LeftOuterJoin", inFile1.getPath(), skip1, inFile2.getPath(), skip2, "1=2", keepOrder, outFile.getPath()},
+						{"LeftOuterJoin", inFile1.getPath(), skip1, inFile2.getPath(), skip2, "3=1,2=3", keepOrder, outFile.getPath()},
+					};
+					for (String[] testArgs : testArgsSet) {
+						String[] moduleArgs = Arrays.copyOfRange(testArgs, 1, testArgs.length + 1);
+						String result = runTest(testArgs[0], moduleArgs, outFile, filled);
+						if (result != null) {
+							failed++;
+						}
+						System.out.println("Test[" + (testNo++) + "] seed=" + seed + " " + Arrays.asList(testArgs)
+											+ " : " + (result == null ? "OK" : ("NG (" + result + ")")));
+					}
+				}
+			}
+		}
+		finally {
+			File[] files = workDir.listFiles();
+			if (files != null) {
+				for (File file : files) {
+					file.delete();
+				}
+			}
+			workDir.delete();
+		}
+		System.out.println("<< finished! >> failed=" + failed);
+		if (failed > 0) {
+			System.exit(1);
+		}
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	/**
+	 * ソートによる処理、ハッシュ処理、メモリの上限を超えるハッシュ処理の順に実行し、
+	 * それぞれの出力を指定された出力結果と比較する。出力の改行は LF に置き換えて比較する。
+	 * 空のフィールドを含むレコードがある場合、ハッシュ処理はソートによる処理に切り替わることがある。
+	 * @return	一致する場合は <tt>null</tt>、一致しない場合はその内容
+	 */
+	static private String runFixedTest(String filterName, String[] moduleArgs, File outFile, String expected) throws IOException {
+		int limitIndex = moduleArgs.length - 1;
+		String[] limits = {LIMIT_SORT, LIMIT_DEFAULT, LIMIT_TINY};
+		for (String limit : limits) {
+			moduleArgs[limitIndex] = limit;
+			if (runFilter(filterName, moduleArgs) != 0) {
+				return "failed (limit=" + limit + ")";
+			}
+			String actual = new String(readBytes(outFile), "US-ASCII").replace("\r\n", "\n");
+			if (!expected.equals(actual)) {
+				return "result differs (limit=" + limit + ") : " + actual.replace("\n", "|");
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * ソートによる処理、ハッシュ処理、メモリの上限を超えるハッシュ処理の順に実行し、出力を比較する。
+	 * @param filled	空のフィールドを含まない入力であれば <tt>true</tt>。この場合、ハッシュ処理が中断されないことも確認する。
+	 * @return	一致する場合は <tt>null</tt>、一致しない場合はその内容
+	 */
+	static private String runTest(String filterName, String[] moduleArgs, File outFile, boolean filled) throws IOException {
+		int limitIndex = moduleArgs.length - 1;
+
+		moduleArgs[limitIndex] = LIMIT_SORT;
+		if (runFilter(filterName, moduleArgs) != 0) {
+			return "sort failed";
+		}
+		byte[] expected = readBytes(outFile);
+
+		moduleArgs[limitIndex] = LIMIT_DEFAULT;
+		if (runFilter(filterName, moduleArgs) != 0) {
+			return "hash failed";
+		}
+		if (filled && !hashCompleted) {
+			return "hash skipped";
+		}
+		if (!Arrays.equals(expected, readBytes(outFile))) {
+			return "hash result differs";
+		}
+
+		moduleArgs[limitIndex] = LIMIT_TINY;
+		if (runFilter(filterName, moduleArgs) != 0) {
+			return "fallback failed";
+		}
+		if (hashCompleted) {
+			return "memory limit ignored";
+		}
+		if (!Arrays.equals(expected, readBytes(outFile))) {
+			return "fallback result differs";
+		}
+		return null;
+	}
+
+	static private int runFilter(String filterName, String[] moduleArgs) {
+		hashCompleted = false;
+		if ("Intersection".equals(filterName)) {
+			return new Intersection() {
+				@Override
+				protected List<List<BigDecimal>> hashIntersection(boolean keepOrder, String inFile1, String inFile2, String outFile,
+													BigDecimal skipRecords1, BigDecimal skipRecords2, long memoryLimit)
+				{
+					List<List<BigDecimal>> results = super.hashIntersection(keepOrder, inFile1, inFile2, outFile, skipRecords1, skipRecords2, memoryLimit);
+					hashCompleted = (results != null);
+					return results;
+				}
+			}.aadlRun(moduleArgs);
+		}
+		else if ("Union".equals(filterName)) {
+			return new Union() {
+				@Override
+				protected List<List<BigDecimal>> hashUnion(boolean keepOrder, String inFile1, String inFile2, String outFile,
+													BigDecimal skipRecords1, BigDecimal skipRecords2, long memoryLimit)
+				{
+					List<List<BigDecimal>> results = super.hashUnion(keepOrder, inFile1, inFile2, outFile, skipRecords1, skipRecords2, memoryLimit);
+					hashCompleted = (results != null);
+					return results;
+				}
+			}.aadlRun(moduleArgs);
+		}
+		else if ("Difference".equals(filterName)) {
+			return new Difference() {
+				@Override
+				protected List<List<BigDecimal>> hashDifference(boolean keepOrder, String inFile1, String inFile2, String outFile,
+													BigDecimal skipRecords1, BigDecimal skipRecords2, long memoryLimit)
+				{
+					List<List<BigDecimal>> results = super.hashDifference(keepOrder, inFile1, inFile2, outFile, skipRecords1, skipRecords2, memoryLimit);
+					hashCompleted = (results != null);
+					return results;
+				}
+			}.aadlRun(moduleArgs);
+		}
+		else {
+			return new LeftOuterJoin() {
+				@Override
+				protected List<List<BigDecimal>> hashLeftJoin(String inFile1, String inFile2, String outFile,
+													BigDecimal skipRecords1, BigDecimal skipRecords2,
+													Object keyPairs, long memoryLimit)
+				{
+					List<List<BigDecimal>> results = super.hashLeftJoin(inFile1, inFile2, outFile, skipRecords1, skipRecords2, keyPairs, memoryLimit);
+					hashCompleted = (results != null);
+					return results;
+				}
+			}.aadlRun(moduleArgs);
+		}
+	}
+
+	/**
+	 * フィールド数の異なるレコード、末尾の空フィールド、空行を含む CSV ファイルを出力する。
+	 * 3 列目までのフィールドを持つレコードを多くし、重複するレコードが現れるようにする。
+	 * <em>filled</em> が <tt>true</tt> の場合は、すべてのレコードを空のフィールドを含まない 3 列のレコードとする。
+	 */
+	static private void writeRandomCsv(Random rand, File file, int numRecords, boolean filled) throws IOException {
+		String[] values = (filled ? testFilledValues : testValues);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < numRecords; ++i) {
+			int numFields = (!filled && rand.nextInt(8) == 0 ? rand.nextInt(6) : 3);
+			for (int j = 0; j < numFields; ++j) {
+				if (j > 0) {
+					sb.append(',');
+				}
+				sb.append(values[rand.nextInt(values.length)]);
+			}
+			sb.append("\r\n");
+		}
+		writeBytes(file, sb.toString().getBytes("US-ASCII"));
+	}
+
+	static private void writeBytes(File file, byte[] data) throws IOException {
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(data);
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	static private byte[] readBytes(File file) throws IOException {
+		byte[] buf = new byte[(int)file.length()];
+		FileInputStream in = new FileInputStream(file);
+		try {
+			int len = 0;
+			while (len < buf.length) {
+				int n = in.read(buf, len, buf.length - len);
+				if (n < 0)
+					break;
+				len += n;
+			}
+		}
+		finally {
+			in.close();
+		}
+		return buf;
+	}
+}
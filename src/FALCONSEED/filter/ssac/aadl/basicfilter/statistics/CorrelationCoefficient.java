@@ -20,6 +20,8 @@
  *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
  */
 /*
+ * @(#)CorrelationCoefficient.java	3.3.1	2026/10/18
+ *     - single-pass calculation with primitive double values
  * @(#)CorrelationCoefficient.java	0.1.0	2013/08/09
  *     - created by Y.Ishizuka(PieCake.inc,)
  */
@@ -27,8 +29,11 @@ package ssac.aadl.basicfilter.statistics;
 
 /**
  * 相関係数を求めるフィルタ。
+ * <p>標準では、すべての値を <code>BigDecimal</code> で厳密に集計するため、入力ファイルを複数回読み込む。
+ * 7 番目の引数に 'true' を指定した場合は、倍精度浮動小数点数による逐次更新で平均、分散、共分散を
+ * 1 回の読み込みで求める。この方法では、レコードのブロックごとに並列に集計し、ブロックの集計結果を統合する。
  * 
- * @version 0.1.0	2013/08/09
+ * @version 3.3.1	2026/10/18
  * 
  * @author H.Deguchi(SOARS Project.)
  * @author Y.Ishizuka(PieCake.inc,)
@@ -39,6 +44,9 @@ public class CorrelationCoefficient extends ssac.aadl.runtime.AADLModule
 	// Constants
 	//------------------------------------------------------------
 
+	/** 倍精度浮動小数点数による集計で、1 タスクで処理するレコード数 **/
+	static private final int	MOMENTS_BLOCK_SIZE	= 4096;
+
 	//------------------------------------------------------------
 	// Fields
 	//------------------------------------------------------------
@@ -85,6 +93,7 @@ public class CorrelationCoefficient extends ssac.aadl.runtime.AADLModule
 	 * $4[STR] 不偏分散を使用（'true' or 'false'）
 	 * $5[STR] 空白ならびに無効値は 0 とする('true' or 'false')
 	 * $6[OUT] 結果の出力先(CSV)
+	 * $7[STR] 倍精度浮動小数点数により 1 回の読み込みで計算する('true' or 'false')(省略可、省略時は 'false')
 	 */
 	@Override
 	protected int aadlRun(String[] args) {
@@ -100,6 +109,7 @@ public class CorrelationCoefficient extends ssac.aadl.runtime.AADLModule
 		final String strTargetFields		= args[2];	// $3[STR]	処理対象列
 		final String strUseUnbiasedVariance	= args[3];	// $4[STR]	不偏分散を使用('true' or 'false')
 		final String strInvalidValueAsZero	= args[4];	// $5[STR]	空白ならびに無効値は 0 とする('true' or 'false')
+		final String strUseDoubleMoments	= (args.length > 6 ? args[6] : null);	// $7[STR]	倍精度浮動小数点数により計算する('true' or 'false')
 		
 		// 除外レコード数
 		final java.math.BigDecimal numSkipRecords = getSkipRecordCount(strSkipRecords);
@@ -118,38 +128,31 @@ public class CorrelationCoefficient extends ssac.aadl.runtime.AADLModule
 		// 空白ならびに無効値は 0 とする
 		final boolean invalidValueAsZero = toBoolean(strInvalidValueAsZero);
 		
+		// 倍精度浮動小数点数により計算する
+		final boolean useDoubleMoments = toBoolean(strUseDoubleMoments);
+		
 		// データバッファ
 		// @{
 		FieldStatisticsMap	mapFields = new FieldStatisticsMap();
 		CoefficientMap		mapCoeffs = new CoefficientMap();
 		// }@;
 		
-		println("Calculate averages...");
-		
-		// 平均値の算出と、値変換エラーチェック
 		exalge2.Exalge retAlge;
-		if (invalidValueAsZero) {
-			retAlge = aggregateValuesForInvalidAsZero(inFile, numSkipRecords, fieldRange, mapFields);
-		} else {
-			retAlge = aggregateValuesForInvalidAsSkip(inFile, numSkipRecords, fieldRange, mapFields);
-		}
-		mapFields.calcAverages();
-		java.util.List<java.math.BigDecimal> fieldNumberList = mapFields.getFieldNumberList();
-		java.util.List<java.math.BigDecimal> fieldValueBuffer = createFieldValueBuffer(fieldNumberList);
-		
-		// 不偏分散を使用する場合、レコード数は 2 以上必要
-		if (useUnbiasedVariance && retAlge.get(BASE_NUMRECORDS_PROCESSED).compareTo(toDecimal(2)) < 0) {
-			String errmsg = "不偏分散を計算するには、有効なレコード数が 2 以上必要です。";
-			throw new RuntimeException(errmsg);
-		}
-		
-		println("Calculate deviations...");
-		
-		// 偏差の算出
-		if (invalidValueAsZero) {
-			sumDeviationsForInvalidAsZero(inFile, retAlge.get(BASE_NUMRECORDS_TOTAL), numSkipRecords, fieldNumberList, fieldValueBuffer, mapFields, mapCoeffs);
+		java.util.List<java.math.BigDecimal> fieldNumberList;
+		if (useDoubleMoments) {
+			println("Calculate moments by double precision...");
+			
+			// 平均値、偏差平方和、偏差積和の算出
+			DoubleMoments moments = new DoubleMoments();
+			retAlge = aggregateMomentsByDouble(inFile, numSkipRecords, fieldRange, invalidValueAsZero, moments);
+			
+			// 不偏分散を使用する場合、レコード数は 2 以上必要
+			validUnbiasedVarianceRecordCount(useUnbiasedVariance, retAlge.get(BASE_NUMRECORDS_PROCESSED));
+			
+			fieldNumberList = setMomentsToMaps(moments, mapFields, mapCoeffs);
 		} else {
-			sumDeviationsForInvalidAsSkip(inFile, retAlge.get(BASE_NUMRECORDS_TOTAL), numSkipRecords, fieldNumberList, fieldValueBuffer, mapFields, mapCoeffs);
+			retAlge = aggregateExactValues(inFile, numSkipRecords, fieldRange, invalidValueAsZero, useUnbiasedVariance, mapFields, mapCoeffs);
+			fieldNumberList = mapFields.getFieldNumberList();
 		}
 		
 		println("Calculate correlation coefficients...");
@@ -175,6 +178,46 @@ public class CorrelationCoefficient extends ssac.aadl.runtime.AADLModule
 	// AADL functions
 	//------------------------------------------------------------
 
+	// BigDecimal による平均値と偏差の算出
+	// AADL:function aggregateExactValues(inFile:String, numSkipRecords:Decimal, fieldRange:DecimalRange,
+	//								invalidValueAsZero:Boolean, useUnbiasedVariance:Boolean,
+	//								objMapFields:Object, objMapCoeffs:Object):Exalge
+	private exalge2.Exalge aggregateExactValues(String inFile, java.math.BigDecimal numSkipRecords,
+												ssac.aadl.runtime.util.range.DecimalRange fieldRange,
+												boolean invalidValueAsZero, boolean useUnbiasedVariance,
+												Object objMapFields, Object objMapCoeffs)
+	{
+		FieldStatisticsMap mapFields = (FieldStatisticsMap)objMapFields;
+		CoefficientMap     mapCoeffs = (CoefficientMap)objMapCoeffs;
+		
+		println("Calculate averages...");
+		
+		// 平均値の算出と、値変換エラーチェック
+		exalge2.Exalge retAlge;
+		if (invalidValueAsZero) {
+			retAlge = aggregateValuesForInvalidAsZero(inFile, numSkipRecords, fieldRange, mapFields);
+		} else {
+			retAlge = aggregateValuesForInvalidAsSkip(inFile, numSkipRecords, fieldRange, mapFields);
+		}
+		mapFields.calcAverages();
+		java.util.List<java.math.BigDecimal> fieldNumberList = mapFields.getFieldNumberList();
+		java.util.List<java.math.BigDecimal> fieldValueBuffer = createFieldValueBuffer(fieldNumberList);
+		
+		// 不偏分散を使用する場合、レコード数は 2 以上必要
+		validUnbiasedVarianceRecordCount(useUnbiasedVariance, retAlge.get(BASE_NUMRECORDS_PROCESSED));
+		
+		println("Calculate deviations...");
+		
+		// 偏差の算出
+		if (invalidValueAsZero) {
+			sumDeviationsForInvalidAsZero(inFile, retAlge.get(BASE_NUMRECORDS_TOTAL), numSkipRecords, fieldNumberList, fieldValueBuffer, mapFields, mapCoeffs);
+		} else {
+			sumDeviationsForInvalidAsSkip(inFile, retAlge.get(BASE_NUMRECORDS_TOTAL), numSkipRecords, fieldNumberList, fieldValueBuffer, mapFields, mapCoeffs);
+		}
+		
+		return retAlge;
+	}
+
 	// 処理対象外レコード数の取得
 	// AADL:function getSkipRecordCount(str:String):Decimal
 	private java.math.BigDecimal getSkipRecordCount(String str)
@@ -467,6 +510,13 @@ public class CorrelationCoefficient extends ssac.aadl.runtime.AADLModule
 		}
 	}
 	
+	private void validUnbiasedVarianceRecordCount(boolean useUnbiasedVariance, java.math.BigDecimal numProcessRecords) {
+		if (useUnbiasedVariance && numProcessRecords.compareTo(toDecimal(2)) < 0) {
+			String errmsg = "不偏分散を計算するには、有効なレコード数が 2 以上必要です。";
+			throw new RuntimeException(errmsg);
+		}
+	}
+	
 	private java.math.BigDecimal getFieldDecimalValue(java.util.List<String> rec, java.math.BigDecimal fieldNumber) {
 		int index = fieldNumber.intValue() - 1;
 		if (index < rec.size()) {
@@ -1059,6 +1109,242 @@ public class CorrelationCoefficient extends ssac.aadl.runtime.AADLModule
 		return true;	// 数値加算
 	}
 	
+	/**
+	 * 全データレコードの値を 1 回の読み込みで集計し、倍精度浮動小数点数による平均、偏差平方和、偏差積和を求める。
+	 * レコードは {@link #MOMENTS_BLOCK_SIZE} 件ごとのブロックに分割して並列に集計し、読み込み順に統合する。
+	 * 処理対象レコードならびに処理対象列の判定は、<code>BigDecimal</code> による集計と同一となる。
+	 * @param inFilename			入力ファイル名
+	 * @param skipRecords			処理対象外レコード数
+	 * @param fieldRange			処理対象列
+	 * @param invalidValueAsZero	空白ならびに無効値を 0 とする場合は <tt>true</tt>、無効値を含むレコードを除外する場合は <tt>false</tt>
+	 * @param moments				集計結果を格納するオブジェクト
+	 */
+	private exalge2.Exalge aggregateMomentsByDouble(String inFilename, java.math.BigDecimal skipRecords,
+													ssac.aadl.runtime.util.range.DecimalRange fieldRange,
+													boolean invalidValueAsZero, DoubleMoments moments)
+	{
+		final long numSkipRecords = skipRecords.min(toDecimal(Long.MAX_VALUE)).longValue();
+		final java.math.BigDecimal rangeMax = fieldRange.rangeMax();
+		final int numThreads = Math.max(1, Runtime.getRuntime().availableProcessors());
+		long cntRecTotal = 0L;
+		int maxFields = 0;
+		int numCheckedFields = 0;
+		java.util.ArrayList<Integer> targetFieldIndices = new java.util.ArrayList<Integer>();
+		java.util.ArrayList<java.util.List<String>> block = null;
+		int blockStartMaxFields = 0;
+		moments.clear(0);
+		
+		java.util.concurrent.ExecutorService executor = null;
+		if (numThreads > 1) {
+			executor = java.util.concurrent.Executors.newFixedThreadPool(numThreads);
+		}
+		java.util.LinkedList<java.util.concurrent.Future<DoubleMoments>> pending = new java.util.LinkedList<java.util.concurrent.Future<DoubleMoments>>();
+		ssac.aadl.runtime.io.CsvFileReader csvReader = null;
+		try {
+			csvReader = newCsvFileReader(inFilename);
+			for (java.util.Iterator<java.util.List<String>> it = csvReader.iterator(); it.hasNext(); ) {
+				java.util.List<String> rec = it.next();
+				++cntRecTotal;
+				if (cntRecTotal > numSkipRecords) {
+					if (block == null) {
+						block = new java.util.ArrayList<java.util.List<String>>(MOMENTS_BLOCK_SIZE);
+						blockStartMaxFields = maxFields;
+					}
+					block.add(rec);
+				}
+				if (rec.size() > maxFields) {
+					// 最大フィールド数の更新に合わせて、処理対象列を追加
+					maxFields = rec.size();
+					int limit = toDecimal(maxFields).min(rangeMax).intValue();
+					for (int fldNumber = numCheckedFields + 1; fldNumber <= limit; ++fldNumber) {
+						if (fieldRange.containsValue(toDecimal(fldNumber))) {
+							targetFieldIndices.add(fldNumber - 1);
+						}
+					}
+					numCheckedFields = Math.max(numCheckedFields, limit);
+				}
+				
+				if (block != null && (block.size() >= MOMENTS_BLOCK_SIZE || !it.hasNext())) {
+					MomentsBlockTask task = new MomentsBlockTask(block, blockStartMaxFields, toIntArray(targetFieldIndices), invalidValueAsZero);
+					block = null;
+					if (executor == null) {
+						moments.mergeBlock(task.call(), invalidValueAsZero);
+					} else {
+						pending.add(executor.submit(task));
+						// メモリ上のブロックは、集計中のものと次に読み込むものに制限する
+						while (pending.size() >= numThreads) {
+							moments.mergeBlock(waitForMoments(pending.removeFirst()), invalidValueAsZero);
+						}
+					}
+				}
+			}
+			
+			// wait for all tasks
+			while (!pending.isEmpty()) {
+				moments.mergeBlock(waitForMoments(pending.removeFirst()), invalidValueAsZero);
+			}
+		}
+		finally {
+			if (executor != null)
+				executor.shutdownNow();
+			if (csvReader != null)
+				closeReader(csvReader);
+		}
+		
+		// 最終的な処理対象列に合わせる
+		int[] fieldIndices = toIntArray(targetFieldIndices);
+		if (invalidValueAsZero) {
+			// 追加された処理対象列は、それ以前のレコードでは 0
+			moments.extendFields(fieldIndices.length);
+		}
+		else if (moments.numFields() < fieldIndices.length) {
+			// 追加された処理対象列は、それ以前のレコードでは空欄となるため、すべて除外
+			moments.clear(fieldIndices.length);
+		}
+		moments.setFieldIndices(fieldIndices);
+		
+		// 最大フィールド数のチェック
+		validMaxFieldCount(toDecimal(maxFields));
+		
+		// 処理対象レコード数のチェック
+		java.math.BigDecimal cntRecTotalDecimal = toDecimal(cntRecTotal);
+		java.math.BigDecimal cntRecValid = toDecimal(moments.count());
+		validProcessRecordCount(cntRecValid);
+		
+		// 処理対象列の有無をチェック
+		java.math.BigDecimal numTargetFields = toDecimal(fieldIndices.length);
+		validTargetFieldCount(numTargetFields, fieldRange);
+		
+		// 結果を返す
+		exalge2.Exalge retAlge = new exalge2.Exalge(new Object[]{
+			BASE_NUMRECORDS_TOTAL    , cntRecTotalDecimal,
+			BASE_NUMRECORDS_SKIPPED  , cntRecTotalDecimal.subtract(cntRecValid),
+			BASE_NUMRECORDS_PROCESSED, cntRecValid,
+			BASE_NUMFIELDS_MAX       , toDecimal(maxFields),
+			BASE_NUMFIELDS_PROCESSED , numTargetFields,
+		});
+		return retAlge;
+	}
+
+	/**
+	 * 倍精度浮動小数点数による集計結果を、フィールドの基本統計値マップと係数値マップに設定する。
+	 * @param moments	集計結果
+	 * @param mapFields	フィールドの基本統計値マップ
+	 * @param mapCoeffs	フィールドの係数値マップ
+	 * @return	処理対象列の列番号リスト
+	 */
+	private java.util.List<java.math.BigDecimal> setMomentsToMaps(DoubleMoments moments, FieldStatisticsMap mapFields, CoefficientMap mapCoeffs)
+	{
+		int numFields = moments.numFields();
+		java.math.BigDecimal numValues = toDecimal(moments.count());
+		java.util.ArrayList<java.math.BigDecimal> fieldNumberList = new java.util.ArrayList<java.math.BigDecimal>(numFields);
+		FieldStatisticsValue[] fields = new FieldStatisticsValue[numFields];
+		for (int index = 0; index < numFields; ++index) {
+			java.math.BigDecimal fldNumber = toDecimal(moments.fieldIndex(index) + 1);
+			fieldNumberList.add(fldNumber);
+			fields[index] = mapFields.getField(fldNumber);
+			fields[index].setMoments(numValues, toMomentDecimal(moments.mean(index)), toMomentDecimal(moments.comoment(index, index)));
+		}
+		
+		for (int xi = 0; xi < numFields; ++xi) {
+			for (int yi = 0; yi < numFields; ++yi) {
+				mapCoeffs.setMoments(fields[xi], fields[yi], numValues, toMomentDecimal(moments.comoment(xi, yi)));
+			}
+		}
+		
+		return fieldNumberList;
+	}
+
+	static private java.math.BigDecimal toMomentDecimal(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			String errmsg = "倍精度浮動小数点数で表現できない値が含まれています。倍精度浮動小数点数を使用せずに計算してください。";
+			throw new RuntimeException(errmsg);
+		}
+		return new java.math.BigDecimal(value, MATH_DIV_PREC);
+	}
+
+	static private int[] toIntArray(java.util.List<Integer> list) {
+		int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; ++i) {
+			array[i] = list.get(i);
+		}
+		return array;
+	}
+
+	static private DoubleMoments waitForMoments(java.util.concurrent.Future<DoubleMoments> future) {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(ex);
+		}
+		catch (java.util.concurrent.ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException)cause;
+			} else if (cause instanceof Error) {
+				throw (Error)cause;
+			} else {
+				throw new RuntimeException(cause);
+			}
+		}
+	}
+
+	/**
+	 * 指定された文字列を倍精度浮動小数点数に変換する。
+	 * 変換可能な文字列は <code>BigDecimal</code> の文字列表現となる。
+	 * @param strValue	変換する文字列
+	 * @return	変換後の値、変換できない場合は <code>Double.NaN</code>
+	 */
+	static private double parseDoubleValue(String strValue) {
+		if (strValue == null) {
+			return Double.NaN;
+		}
+		
+		// BigDecimal の文字列表現のうち、ASCII 文字のみで構成されるものを判定
+		final int len = strValue.length();
+		int pos = 0;
+		if (pos < len && (strValue.charAt(pos) == '+' || strValue.charAt(pos) == '-')) {
+			++pos;
+		}
+		boolean hasDigit = false;
+		boolean hasPoint = false;
+		for (; pos < len; ++pos) {
+			char ch = strValue.charAt(pos);
+			if (ch >= '0' && ch <= '9') {
+				hasDigit = true;
+			} else if (ch == '.' && !hasPoint) {
+				hasPoint = true;
+			} else {
+				break;
+			}
+		}
+		if (hasDigit && pos < len && (strValue.charAt(pos) == 'e' || strValue.charAt(pos) == 'E')) {
+			++pos;
+			if (pos < len && (strValue.charAt(pos) == '+' || strValue.charAt(pos) == '-')) {
+				++pos;
+			}
+			int expStart = pos;
+			while (pos < len && strValue.charAt(pos) >= '0' && strValue.charAt(pos) <= '9') {
+				++pos;
+			}
+			if (pos == expStart || (pos - expStart) > 9) {
+				hasDigit = false;	// BigDecimal で判定
+			}
+		}
+		if (hasDigit && pos == len) {
+			return Double.parseDouble(strValue);
+		}
+		
+		// その他の文字列表現は BigDecimal で変換
+		try {
+			return new java.math.BigDecimal(strValue).doubleValue();
+		} catch (Throwable ex) {
+			return Double.NaN;
+		}
+	}
+	
 	static private String makeFieldNumberPairKey(java.math.BigDecimal xFieldNumber, java.math.BigDecimal yFieldNumber) {
 		return (toString(xFieldNumber) + "_" + toString(yFieldNumber));
 	}
@@ -1196,6 +1482,13 @@ public class CorrelationCoefficient extends ssac.aadl.runtime.AADLModule
 			_sumSquareDeviation = _sumSquareDeviation.add(vDeviation.multiply(vDeviation));
 		}
 		
+		public void setMoments(java.math.BigDecimal numValues, java.math.BigDecimal average, java.math.BigDecimal sumSquareDeviation) {
+			_numValues          = numValues;
+			_numDeviationValues = numValues;
+			_average            = average;
+			_sumSquareDeviation = sumSquareDeviation;
+		}
+		
 		public void calcStatistics(boolean useUnbiasedVariance) {
 			if (useUnbiasedVariance) {
 				// 標本数
@@ -1280,6 +1573,11 @@ public class CorrelationCoefficient extends ssac.aadl.runtime.AADLModule
 			_sumProductDeviation = _sumProductDeviation.add(xDev.multiply(yDev));
 		}
 		
+		public void setMoments(java.math.BigDecimal numValues, java.math.BigDecimal sumProductDeviation) {
+			_numDeviationValues  = numValues;
+			_sumProductDeviation = sumProductDeviation;
+		}
+		
 		public void calcCoefficient(boolean useUnbiasedVariance) {
 			if (useUnbiasedVariance) {
 				// 標本数
@@ -1398,10 +1696,281 @@ public class CorrelationCoefficient extends ssac.aadl.runtime.AADLModule
 			data.addForDeviation(xValue, yValue);
 		}
 		
+		public void setMoments(FieldStatisticsValue xField, FieldStatisticsValue yField,
+								java.math.BigDecimal numValues, java.math.BigDecimal sumProductDeviation)
+		{
+			String strkey = makeFieldNumberPairKey(xField.fieldNumber(), yField.fieldNumber());
+			CoefficientValue data = get(strkey);
+			if (data == null) {
+				data = new CoefficientValue(xField, yField);
+				put(strkey, data);
+			}
+			
+			data.setMoments(numValues, sumProductDeviation);
+		}
+		
 		public void calcCoefficient(boolean useUnbiasedVariance) {
 			for (java.util.Map.Entry<String, CoefficientValue> entry : entrySet()) {
 				entry.getValue().calcCoefficient(useUnbiasedVariance);
 			}
 		}
 	}
+
+	/**
+	 * 倍精度浮動小数点数による平均、偏差平方和、偏差積和の集計値を格納するクラス。
+	 * 値は 1 レコードごとに逐次更新し、集計値どうしは統合することができる。
+	 * 偏差積和は、列番号の組(i &lt;= j)ごとに詰めて格納する。
+	 */
+	static protected class DoubleMoments {
+		/** 集計対象の列数 **/
+		private int			_numFields;
+		/** 集計したレコード数 **/
+		private long		_count;
+		/** 平均 **/
+		private double[]	_means = new double[0];
+		/** 偏差積和(偏差平方和を含む) **/
+		private double[]	_comoments = new double[0];
+		/** 偏差の作業用バッファ **/
+		private double[]	_deviations = new double[0];
+		/** 集計対象列のフィールドインデックス **/
+		private int[]		_fieldIndices;
+		
+		public int numFields() {
+			return _numFields;
+		}
+		
+		public long count() {
+			return _count;
+		}
+		
+		public double mean(int index) {
+			return _means[index];
+		}
+		
+		public double comoment(int xi, int yi) {
+			return (xi <= yi ? _comoments[packedIndex(xi, yi)] : _comoments[packedIndex(yi, xi)]);
+		}
+		
+		public int fieldIndex(int index) {
+			return _fieldIndices[index];
+		}
+		
+		public void setFieldIndices(int[] fieldIndices) {
+			_fieldIndices = fieldIndices;
+		}
+		
+		/**
+		 * 集計値を破棄し、指定された列数で集計を開始する。
+		 */
+		public void clear(int numFields) {
+			ensureCapacity(numFields);
+			java.util.Arrays.fill(_means, 0.0);
+			java.util.Arrays.fill(_comoments, 0.0);
+			_numFields = numFields;
+			_count = 0L;
+		}
+		
+		/**
+		 * 集計済みのレコードでは値が 0 である列を追加し、指定された列数に拡張する。
+		 */
+		public void extendFields(int numFields) {
+			if (numFields <= _numFields) {
+				return;
+			}
+			ensureCapacity(numFields);
+			java.util.Arrays.fill(_means, _numFields, numFields, 0.0);
+			java.util.Arrays.fill(_comoments, packedSize(_numFields), packedSize(numFields), 0.0);
+			_numFields = numFields;
+		}
+		
+		/**
+		 * 1 レコード分の値を加算する。
+		 * @param values	集計対象列の値
+		 */
+		public void add(double[] values) {
+			final int numFields = _numFields;
+			final double[] means = _means;
+			final double[] comoments = _comoments;
+			final double[] deviations = _deviations;
+			final long n = _count + 1L;
+			final double factor = (double)_count / (double)n;
+			for (int i = 0; i < numFields; ++i) {
+				double dev = values[i] - means[i];
+				deviations[i] = dev;
+				means[i] += dev / n;
+			}
+			for (int j = 0; j < numFields; ++j) {
+				double fj = deviations[j] * factor;
+				if (fj != 0.0) {
+					int base = packedIndex(0, j);
+					for (int i = 0; i <= j; ++i) {
+						comoments[base + i] += deviations[i] * fj;
+					}
+				}
+			}
+			_count = n;
+		}
+		
+		/**
+		 * 同じ列数の集計値を統合する。
+		 */
+		public void merge(DoubleMoments other) {
+			if (other._count == 0L) {
+				return;
+			}
+			if (_count == 0L) {
+				System.arraycopy(other._means, 0, _means, 0, _numFields);
+				System.arraycopy(other._comoments, 0, _comoments, 0, packedSize(_numFields));
+				_count = other._count;
+				return;
+			}
+			
+			final int numFields = _numFields;
+			final double[] deviations = _deviations;
+			final double nA = (double)_count;
+			final double nB = (double)other._count;
+			final double n = nA + nB;
+			for (int i = 0; i < numFields; ++i) {
+				deviations[i] = other._means[i] - _means[i];
+				_means[i] += deviations[i] * (nB / n);
+			}
+			final double factor = nA * nB / n;
+			for (int j = 0; j < numFields; ++j) {
+				int base = packedIndex(0, j);
+				double fj = deviations[j] * factor;
+				for (int i = 0; i <= j; ++i) {
+					_comoments[base + i] += other._comoments[base + i] + deviations[i] * fj;
+				}
+			}
+			_count += other._count;
+		}
+		
+		/**
+		 * 後続ブロックの集計値を統合する。
+		 * 列数が異なる場合、無効値を 0 とするなら少ない方の列を 0 として拡張し、
+		 * 無効値を含むレコードを除外するなら列数の少ない方の集計値を破棄する。
+		 */
+		public void mergeBlock(DoubleMoments block, boolean invalidValueAsZero) {
+			if (block._numFields > _numFields) {
+				if (invalidValueAsZero) {
+					extendFields(block._numFields);
+				} else {
+					clear(block._numFields);
+				}
+			}
+			else if (block._numFields < _numFields) {
+				if (invalidValueAsZero) {
+					block.extendFields(_numFields);
+				} else {
+					return;
+				}
+			}
+			merge(block);
+		}
+		
+		static private int packedIndex(int i, int j) {
+			return (j * (j + 1) / 2 + i);
+		}
+		
+		static private int packedSize(int numFields) {
+			return (numFields * (numFields + 1) / 2);
+		}
+		
+		private void ensureCapacity(int numFields) {
+			if (_means.length < numFields) {
+				int newCapacity = Math.max(numFields, _means.length * 2);
+				_means = java.util.Arrays.copyOf(_means, newCapacity);
+				_deviations = new double[newCapacity];
+				_comoments = java.util.Arrays.copyOf(_comoments, packedSize(newCapacity));
+			}
+		}
+	}
+
+	/**
+	 * レコードのブロックを倍精度浮動小数点数で集計するタスク。
+	 * 処理対象列は、ブロック先頭までの最大フィールド数から、ブロック内のレコードごとに更新する。
+	 */
+	static protected class MomentsBlockTask implements java.util.concurrent.Callable<DoubleMoments> {
+		/** 集計するレコード **/
+		private final java.util.List<java.util.List<String>>	_records;
+		/** ブロック先頭レコードより前の最大フィールド数 **/
+		private final int		_startMaxFields;
+		/** 処理対象列のフィールドインデックス(昇順) **/
+		private final int[]		_targetFieldIndices;
+		/** 空白ならびに無効値を 0 とする **/
+		private final boolean	_invalidValueAsZero;
+		
+		public MomentsBlockTask(java.util.List<java.util.List<String>> records, int startMaxFields,
+								int[] targetFieldIndices, boolean invalidValueAsZero)
+		{
+			_records = records;
+			_startMaxFields = startMaxFields;
+			_targetFieldIndices = targetFieldIndices;
+			_invalidValueAsZero = invalidValueAsZero;
+		}
+		
+		public DoubleMoments call() {
+			final int[] targets = _targetFieldIndices;
+			final double[] values = new double[targets.length];
+			int maxFields = _startMaxFields;
+			int numFields = 0;
+			while (numFields < targets.length && targets[numFields] < maxFields) {
+				++numFields;
+			}
+			DoubleMoments moments = new DoubleMoments();
+			moments.clear(numFields);
+			
+			for (java.util.List<String> rec : _records) {
+				final int recSize = rec.size();
+				if (recSize > maxFields) {
+					// 最大フィールド数の更新に合わせて、処理対象列を追加
+					maxFields = recSize;
+					int newNumFields = numFields;
+					while (newNumFields < targets.length && targets[newNumFields] < maxFields) {
+						++newNumFields;
+					}
+					if (newNumFields != numFields) {
+						numFields = newNumFields;
+						if (_invalidValueAsZero) {
+							moments.extendFields(numFields);
+						} else {
+							// 集計済みのレコードは、追加された処理対象列が空欄となるため、すべて除外
+							moments.clear(numFields);
+						}
+					}
+				}
+				
+				if (_invalidValueAsZero) {
+					// 空欄もしくは無効値を 0 にする
+					for (int index = 0; index < numFields; ++index) {
+						int fieldIndex = targets[index];
+						double value = (fieldIndex < recSize ? parseDoubleValue(rec.get(fieldIndex)) : Double.NaN);
+						values[index] = (Double.isNaN(value) ? 0.0 : value);
+					}
+				}
+				else {
+					// 空欄もしくは無効値を含むレコードをスキップ
+					if (numFields <= 0) {
+						continue;
+					}
+					boolean valid = true;
+					for (int index = 0; index < numFields; ++index) {
+						int fieldIndex = targets[index];
+						double value = (fieldIndex < recSize ? parseDoubleValue(rec.get(fieldIndex)) : Double.NaN);
+						if (Double.isNaN(value)) {
+							valid = false;
+							break;
+						}
+						values[index] = value;
+					}
+					if (!valid) {
+						continue;
+					}
+				}
+				moments.add(values);
+			}
+			
+			return moments;
+		}
+	}
 }
@@ -75,6 +75,19 @@ public class TestCorrelationCoefficient
 		{ "testdata/filter/BasicFilter/Statistics/Correlation/CorrelTestData3nh.csv",
 			"0", "2-", "true", "true",
 			"testdata/filter/BasicFilter/Statistics/Correlation/resultCorrelTestData3nh_true_true.csv"},
+
+		{ "testdata/filter/BasicFilter/Statistics/Correlation/CorrelTestData2.csv",
+			"1", "2-", "false", "false",
+			"testdata/filter/BasicFilter/Statistics/Correlation/resultCorrelTestData2_false_false_double.csv", "true"},
+		{ "testdata/filter/BasicFilter/Statistics/Correlation/CorrelTestData2.csv",
+			"1", "2-", "true", "true",
+			"testdata/filter/BasicFilter/Statistics/Correlation/resultCorrelTestData2_true_true_double.csv", "true"},
+		{ "testdata/filter/BasicFilter/Statistics/Correlation/CorrelTestData3nh.csv",
+			"0", "2-", "false", "true",
+			"testdata/filter/BasicFilter/Statistics/Correlation/resultCorrelTestData3nh_false_true_double.csv", "true"},
+		{ "testdata/filter/BasicFilter/Statistics/Correlation/CorrelTestData3nh.csv",
+			"0", "2-", "true", "false",
+			"testdata/filter/BasicFilter/Statistics/Correlation/resultCorrelTestData3nh_true_false_double.csv", "true"},
 	};
 
 	//------------------------------------------------------------
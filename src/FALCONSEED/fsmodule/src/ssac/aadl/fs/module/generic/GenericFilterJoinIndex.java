@@ -0,0 +1,404 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2016  SSAC(Systems of Social Accounting Consortium)
+ *  <author> Yasunari Ishizuka (PieCake,Inc.)
+ *  <author> Hiroshi Deguchi (TOKYO INSTITUTE OF TECHNOLOGY)
+ *  <author> Yuji Onuki (Statistics Bureau)
+ *  <author> Shungo Sakaki (Tokyo University of Technology)
+ *  <author> Akira Sasaki (HOSEI UNIVERSITY)
+ *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
+ */
+/*
+ * @(#)GenericFilterJoinIndex.java	3.3.1	2026/10/18
+ *     - created
+ */
+package ssac.aadl.fs.module.generic;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * 汎用フィルタの結合処理において、入力テーブルのレコードを結合キーで検索するためのハッシュインデックス。
+ * <p>レコードは登録順に保持され、同一キーのレコードは登録順に取得される。
+ * 保持するレコードの推定メモリ使用量が上限を超えた場合、レコード本体を一時ファイルへ退避し、
+ * メモリ上にはキーとファイル内の位置のみを保持する。
+ *
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class GenericFilterJoinIndex
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	/** メモリ使用量上限(バイト数)を指定するシステムプロパティ名 **/
+	static public final String	PROPKEY_MAXMEMORY	= "GENERICFILTER_JOIN_MAXMEMORY";
+	/** 一時ファイルの作成先ディレクトリを指定するシステムプロパティ名 **/
+	static public final String	PROPKEY_TEMPDIR		= "GENERICFILTER_JOIN_TEMPDIR";
+
+	/** 一時ファイルの文字セット **/
+	static protected final Charset	SPILL_CHARSET	= Charset.forName("UTF-8");
+
+	/** レコード 1 件あたりの推定オーバーヘッド **/
+	static protected final long	RECORD_OVERHEAD	= 64L;
+	/** フィールド 1 件あたりの推定オーバーヘッド **/
+	static protected final long	FIELD_OVERHEAD	= 48L;
+
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/** キーと、キーに対応するレコード群のマップ **/
+	private final Map<List<Object>, Bucket>	_buckets = new HashMap<List<Object>, Bucket>();
+	/** メモリ上に保持するレコードの推定メモリ使用量上限 **/
+	private final long		_maxMemory;
+	/** 現在の推定メモリ使用量 **/
+	private long			_usedMemory;
+	/** 登録されたレコード数 **/
+	private long			_recordCount;
+
+	/** レコードを退避した一時ファイル **/
+	private File				_spillFile;
+	/** 一時ファイルへの書き込みストリーム **/
+	private DataOutputStream	_spillWriter;
+	/** 一時ファイルの書き込み位置 **/
+	private long				_spillLength;
+	/** 一時ファイルの読み込みストリーム **/
+	private RandomAccessFile	_spillReader;
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	/**
+	 * 指定されたメモリ使用量上限で、空のインデックスを生成する。
+	 * @param maxMemory	メモリ上に保持するレコードの推定メモリ使用量上限(バイト数)
+	 */
+	public GenericFilterJoinIndex(long maxMemory) {
+		_maxMemory = maxMemory;
+	}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * システムプロパティ {@value #PROPKEY_MAXMEMORY} に指定された、結合インデックス全体のメモリ使用量上限を返す。
+	 * 指定されていない場合は、最大ヒープサイズの 1/4 を返す。
+	 * @return	メモリ使用量上限(バイト数)
+	 */
+	static public long getDefaultMaxMemory() {
+		long ret = Runtime.getRuntime().maxMemory() / 4L;
+		String val = System.getProperty(PROPKEY_MAXMEMORY);
+		if (val != null && val.length() > 0) {
+			BigDecimal d;
+			try {
+				d = new BigDecimal(val);
+			} catch (Throwable ex) {
+				d = null;
+			}
+			if (d != null) {
+				if (d.signum() > 0) {
+					d = d.setScale(0, RoundingMode.FLOOR);
+					if (d.compareTo(new BigDecimal(Long.MAX_VALUE)) < 0) {
+						ret = d.longValue();
+					} else {
+						ret = Long.MAX_VALUE;
+					}
+				} else {
+					ret = 0L;
+				}
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * 登録されたレコード数を返す。
+	 */
+	public long getRecordCount() {
+		return _recordCount;
+	}
+
+	/**
+	 * レコードが一時ファイルへ退避されている場合に <tt>true</tt> を返す。
+	 */
+	public boolean isSpilled() {
+		return (_spillWriter != null || _spillReader != null);
+	}
+
+	/**
+	 * 指定されたキーで、レコードを登録する。
+	 * @param key		結合キー
+	 * @param record	登録するレコード
+	 * @throws RuntimeException	一時ファイルへの書き込みに失敗した場合
+	 */
+	public void add(List<Object> key, List<String> record) {
+		if (_spillReader != null) {
+			throw new IllegalStateException("Index already sealed.");
+		}
+		Bucket bucket = _buckets.get(key);
+		if (bucket == null) {
+			bucket = new Bucket(_spillWriter == null);
+			_buckets.put(key, bucket);
+		}
+		++_recordCount;
+
+		try {
+			if (_spillWriter != null) {
+				// write to spill file
+				bucket.addOffset(writeSpillRecord(record));
+			}
+			else {
+				// keep in memory
+				bucket.addRecord(record);
+				_usedMemory += estimateRecordSize(record);
+				if (_usedMemory > _maxMemory) {
+					spillAllRecords();
+				}
+			}
+		}
+		catch (IOException ex) {
+			close();
+			throw new RuntimeException("Failed to write join index temporary file.", ex);
+		}
+	}
+
+	/**
+	 * 登録を完了し、検索可能な状態にする。
+	 * @throws RuntimeException	一時ファイルのオープンに失敗した場合
+	 */
+	public void seal() {
+		if (_spillWriter != null) {
+			try {
+				_spillWriter.close();
+				_spillWriter = null;
+				_spillReader = new RandomAccessFile(_spillFile, "r");
+			}
+			catch (IOException ex) {
+				close();
+				throw new RuntimeException("Failed to open join index temporary file.", ex);
+			}
+		}
+	}
+
+	/**
+	 * 指定されたキーに一致するレコードを、登録順に返す反復子を取得する。
+	 * @param key	結合キー
+	 * @return	一致するレコードの反復子、一致するレコードが存在しない場合は空の反復子
+	 */
+	public Iterator<List<String>> lookup(List<Object> key) {
+		Bucket bucket = _buckets.get(key);
+		if (bucket == null) {
+			return Collections.<List<String>>emptyList().iterator();
+		} else {
+			return bucket.iterator();
+		}
+	}
+
+	/**
+	 * このインデックスを破棄し、一時ファイルを削除する。
+	 */
+	public void close() {
+		_buckets.clear();
+		if (_spillWriter != null) {
+			try {
+				_spillWriter.close();
+			} catch (Throwable ignoreEx) {}
+			_spillWriter = null;
+		}
+		if (_spillReader != null) {
+			try {
+				_spillReader.close();
+			} catch (Throwable ignoreEx) {}
+			_spillReader = null;
+		}
+		if (_spillFile != null) {
+			if (!_spillFile.delete()) {
+				_spillFile.deleteOnExit();
+			}
+			_spillFile = null;
+		}
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	static protected long estimateRecordSize(List<String> record) {
+		long size = RECORD_OVERHEAD;
+		for (String field : record) {
+			size += FIELD_OVERHEAD + (field==null ? 0 : (field.length() * 2L));
+		}
+		return size;
+	}
+
+	static protected File getTempDirectory() {
+		String val = System.getProperty(PROPKEY_TEMPDIR);
+		if (val != null && val.length() > 0) {
+			File dir = new File(val);
+			if (dir.isDirectory()) {
+				return dir;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * メモリ上に保持しているすべてのレコードを一時ファイルへ退避し、以降のレコードを一時ファイルへ書き込む状態とする。
+	 */
+	protected void spillAllRecords() throws IOException
+	{
+		_spillFile = File.createTempFile("GenericFilterJoin", ".tmp", getTempDirectory());
+		_spillFile.deleteOnExit();
+		_spillWriter = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(_spillFile), 65536));
+		_spillLength = 0L;
+		for (Bucket bucket : _buckets.values()) {
+			bucket.spill();
+		}
+		_usedMemory = 0L;
+	}
+
+	/**
+	 * 指定されたレコードを一時ファイルへ書き込み、書き込み位置を返す。
+	 */
+	protected long writeSpillRecord(List<String> record) throws IOException
+	{
+		long offset = _spillLength;
+		byte[][] fields = new byte[record.size()][];
+		int len = 4;
+		for (int i = 0; i < fields.length; ++i) {
+			String field = record.get(i);
+			fields[i] = (field==null ? new byte[0] : field.getBytes(SPILL_CHARSET));
+			len += 4 + fields[i].length;
+		}
+		_spillWriter.writeInt(len);
+		_spillWriter.writeInt(fields.length);
+		for (byte[] field : fields) {
+			_spillWriter.writeInt(field.length);
+			_spillWriter.write(field);
+		}
+		_spillLength += 4 + len;
+		return offset;
+	}
+
+	/**
+	 * 一時ファイルの指定された位置からレコードを読み込む。
+	 */
+	protected List<String> readSpillRecord(long offset) {
+		try {
+			_spillReader.seek(offset);
+			int len = _spillReader.readInt();
+			byte[] buf = new byte[len];
+			_spillReader.readFully(buf);
+			int pos = 0;
+			int numFields = readInt(buf, pos);
+			pos += 4;
+			String[] fields = new String[numFields];
+			for (int i = 0; i < numFields; ++i) {
+				int flen = readInt(buf, pos);
+				pos += 4;
+				fields[i] = new String(buf, pos, flen, SPILL_CHARSET);
+				pos += flen;
+			}
+			return Arrays.asList(fields);
+		}
+		catch (IOException ex) {
+			throw new RuntimeException("Failed to read join index temporary file.", ex);
+		}
+	}
+
+	static private int readInt(byte[] buf, int pos) {
+		return ((buf[pos] & 0xFF) << 24) | ((buf[pos+1] & 0xFF) << 16) | ((buf[pos+2] & 0xFF) << 8) | (buf[pos+3] & 0xFF);
+	}
+
+	//------------------------------------------------------------
+	// Inner classes
+	//------------------------------------------------------------
+
+	/**
+	 * 同一キーのレコード群。メモリ上のレコード、もしくは一時ファイル内の位置を登録順に保持する。
+	 */
+	protected class Bucket
+	{
+		private ArrayList<List<String>>	_records;
+		private long[]	_offsets;
+		private int		_numOffsets;
+
+		public Bucket(boolean inMemory) {
+			_records = (inMemory ? new ArrayList<List<String>>(1) : null);
+		}
+
+		public void addRecord(List<String> record) {
+			_records.add(record);
+		}
+
+		public void addOffset(long offset) {
+			if (_offsets == null) {
+				_offsets = new long[4];
+			}
+			else if (_numOffsets >= _offsets.length) {
+				_offsets = Arrays.copyOf(_offsets, _offsets.length * 2);
+			}
+			_offsets[_numOffsets++] = offset;
+		}
+
+		public void spill() throws IOException {
+			for (List<String> record : _records) {
+				addOffset(writeSpillRecord(record));
+			}
+			_records = null;
+		}
+
+		public Iterator<List<String>> iterator() {
+			if (_records != null) {
+				return _records.iterator();
+			}
+
+			return new Iterator<List<String>>() {
+				private int _index = 0;
+
+				public boolean hasNext() {
+					return (_index < _numOffsets);
+				}
+
+				public List<String> next() {
+					if (_index >= _numOffsets)
+						throw new NoSuchElementException();
+					return readSpillRecord(_offsets[_index++]);
+				}
+
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,264 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2016  SSAC(Systems of Social Accounting Consortium)
+ *  <author> Yasunari Ishizuka (PieCake,Inc.)
+ *  <author> Hiroshi Deguchi (TOKYO INSTITUTE OF TECHNOLOGY)
+ *  <author> Yuji Onuki (Statistics Bureau)
+ *  <author> Shungo Sakaki (Tokyo University of Technology)
+ *  <author> Akira Sasaki (HOSEI UNIVERSITY)
+ *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
+ */
+/*
+ * @(#)GenericFilterJoinPlan.java	3.3.1	2026/10/18
+ *     - created
+ */
+package ssac.aadl.fs.module.generic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import ssac.aadl.fs.module.schema.SchemaElementValue;
+import ssac.aadl.fs.module.schema.SchemaFilterArgValue;
+import ssac.aadl.fs.module.schema.SchemaLiteralValue;
+import ssac.aadl.fs.module.schema.SchemaObject;
+import ssac.aadl.fs.module.schema.SchemaValueLink;
+import ssac.aadl.fs.module.schema.exp.SchemaJoinConditionData;
+import ssac.aadl.fs.module.schema.exp.SchemaJoinConditionList;
+import ssac.aadl.fs.module.schema.table.SchemaInputCsvDataField;
+import ssac.aadl.fs.module.schema.table.SchemaInputDataTableList;
+import ssac.aadl.runtime.AADLFunctions;
+
+/**
+ * 汎用フィルタの結合条件から、入力テーブルごとの結合キーを決定する実行計画。
+ * <p>2 番目以降の入力テーブルについて、そのテーブルのフィールドと、それより前に走査されるテーブルのフィールド
+ * もしくは定数値とを比較する結合条件を結合キーとする。
+ * <p>結合キーとならない結合条件のうち、参照する値がすべて確定する走査レベルが判定できるものは、
+ * そのテーブルのレコード確定直後に評価する条件(テーブル条件)とし、不一致のレコードを早期に除外する。
+ * 走査レベルが判定できない値を参照する結合条件のみ、従来通りすべてのテーブルのレコードが確定した後に評価される。
+ *
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class GenericFilterJoinPlan
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	/** 入力テーブルの走査前に値が確定している値の走査レベル **/
+	static public final int	LEVEL_CONSTANT	= (-1);
+	/** すべての入力テーブルの走査後でなければ値が確定しない値の走査レベル **/
+	static public final int	LEVEL_UNKNOWN	= Integer.MAX_VALUE;
+
+	/** 結合キーを持たないテーブルのキー **/
+	static protected final List<Object>	EMPTY_KEY	= Collections.emptyList();
+
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/** 走査順の入力テーブル **/
+	private final SchemaInputDataTableList	_tables;
+	/** テーブルごとの結合キー **/
+	private final JoinKeyColumn[][]			_keyColumns;
+	/** テーブルごとの、レコード確定直後に評価する結合条件 **/
+	private final SchemaJoinConditionList[]	_tableConditions;
+	/** すべてのテーブルのレコード確定後に評価する結合条件 **/
+	private final SchemaJoinConditionList	_residualJoins;
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	/**
+	 * 指定された結合条件と入力テーブルから、実行計画を生成する。
+	 * @param joinList	結合条件
+	 * @param tables	走査順の入力テーブル
+	 * @throws NullPointerException	引数が <tt>null</tt> の場合
+	 */
+	public GenericFilterJoinPlan(SchemaJoinConditionList joinList, SchemaInputDataTableList tables) {
+		_tables = tables;
+		_residualJoins = new SchemaJoinConditionList();
+		_tableConditions = new SchemaJoinConditionList[tables.size()];
+		for (int i = 0; i < _tableConditions.length; ++i) {
+			_tableConditions[i] = new SchemaJoinConditionList();
+		}
+
+		List<List<JoinKeyColumn>> keys = new ArrayList<List<JoinKeyColumn>>(tables.size());
+		for (int i = 0; i < tables.size(); ++i) {
+			keys.add(new ArrayList<JoinKeyColumn>());
+		}
+
+		for (SchemaJoinConditionData join : joinList) {
+			SchemaElementValue left  = join.getLeftOperand();
+			SchemaElementValue right = join.getRightOperand();
+			int leftLevel  = getOperandLevel(left);
+			int rightLevel = getOperandLevel(right);
+			if (leftLevel > 0 && leftLevel != LEVEL_UNKNOWN && rightLevel < leftLevel) {
+				keys.get(leftLevel).add(new JoinKeyColumn(left, right));
+			}
+			else if (rightLevel > 0 && rightLevel != LEVEL_UNKNOWN && leftLevel < rightLevel) {
+				keys.get(rightLevel).add(new JoinKeyColumn(right, left));
+			}
+			else if (leftLevel != LEVEL_UNKNOWN && rightLevel != LEVEL_UNKNOWN && _tableConditions.length > 0) {
+				// 同一テーブル内、もしくは定数値のみの比較
+				_tableConditions[Math.max(0, Math.max(leftLevel, rightLevel))].add(join);
+			}
+			else {
+				_residualJoins.add(join);
+			}
+		}
+
+		_keyColumns = new JoinKeyColumn[keys.size()][];
+		for (int i = 0; i < _keyColumns.length; ++i) {
+			List<JoinKeyColumn> tableKeys = keys.get(i);
+			_keyColumns[i] = tableKeys.toArray(new JoinKeyColumn[tableKeys.size()]);
+		}
+	}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * 指定された入力テーブルのレコード確定直後に評価する結合条件を返す。
+	 * この条件は、指定されたテーブルのフィールド値と定数値のみを参照する。
+	 * @param tableIndex	走査順の入力テーブルインデックス
+	 */
+	public SchemaJoinConditionList getTableConditions(int tableIndex) {
+		return _tableConditions[tableIndex];
+	}
+
+	/**
+	 * 結合キーにもテーブル条件にもならず、すべての入力テーブルのレコード確定後に評価が必要な結合条件を返す。
+	 */
+	public SchemaJoinConditionList getResidualJoinConditions() {
+		return _residualJoins;
+	}
+
+	/**
+	 * 指定された入力テーブルの結合キーの数を返す。
+	 * @param tableIndex	走査順の入力テーブルインデックス
+	 */
+	public int getKeyColumnCount(int tableIndex) {
+		return _keyColumns[tableIndex].length;
+	}
+
+	/**
+	 * 指定された入力テーブルの現在のフィールド値から、インデックス登録用の結合キーを生成する。
+	 * @param tableIndex	走査順の入力テーブルインデックス
+	 * @return	結合キー
+	 */
+	public List<Object> getIndexKey(int tableIndex) {
+		JoinKeyColumn[] columns = _keyColumns[tableIndex];
+		if (columns.length == 0) {
+			return EMPTY_KEY;
+		}
+		Object[] key = new Object[columns.length];
+		for (int i = 0; i < columns.length; ++i) {
+			key[i] = columns[i].getKeyValue(columns[i].innerOperand);
+		}
+		return Arrays.asList(key);
+	}
+
+	/**
+	 * 前のテーブルのフィールド値から、指定された入力テーブルを検索するための結合キーを生成する。
+	 * @param tableIndex	走査順の入力テーブルインデックス
+	 * @return	結合キー
+	 */
+	public List<Object> getProbeKey(int tableIndex) {
+		JoinKeyColumn[] columns = _keyColumns[tableIndex];
+		if (columns.length == 0) {
+			return EMPTY_KEY;
+		}
+		Object[] key = new Object[columns.length];
+		for (int i = 0; i < columns.length; ++i) {
+			key[i] = columns[i].getKeyValue(columns[i].outerOperand);
+		}
+		return Arrays.asList(key);
+	}
+
+	/**
+	 * 指定された値が確定する入力テーブルの走査レベルを返す。
+	 * 走査対象の入力テーブルのフィールドであれば、そのテーブルのインデックスを返す。
+	 * フィルタ引数、即値、データレコードの存在しない入力テーブルのフィールドであれば {@link #LEVEL_CONSTANT} を返す。
+	 * それ以外の場合は {@link #LEVEL_UNKNOWN} を返す。
+	 * @param value	判定する値
+	 * @return	走査レベル
+	 */
+	public int getOperandLevel(SchemaElementValue value) {
+		value = resolveLinkTarget(value);
+		if (value instanceof SchemaInputCsvDataField) {
+			SchemaObject parent = ((SchemaInputCsvDataField)value).getParentObject();
+			for (int i = 0; i < _tables.size(); ++i) {
+				if (_tables.get(i) == parent) {
+					return i;
+				}
+			}
+			// データレコードの存在しないテーブルのフィールド値は null で確定している
+			return LEVEL_CONSTANT;
+		}
+		else if (value instanceof SchemaFilterArgValue || value instanceof SchemaLiteralValue) {
+			return LEVEL_CONSTANT;
+		}
+		else {
+			return LEVEL_UNKNOWN;
+		}
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	static protected SchemaElementValue resolveLinkTarget(SchemaElementValue value) {
+		while (value instanceof SchemaValueLink) {
+			value = ((SchemaValueLink)value).getLinkTarget();
+		}
+		return value;
+	}
+
+	//------------------------------------------------------------
+	// Inner classes
+	//------------------------------------------------------------
+
+	/**
+	 * 結合キーとなる結合条件の、検索対象テーブル側の値と検索元の値の組。
+	 * 比較方法は {@link GenericFilterMain#doCalc} の結合条件判定と同一とする。
+	 */
+	static protected class JoinKeyColumn
+	{
+		/** 検索対象テーブルのフィールド **/
+		public final SchemaElementValue	innerOperand;
+		/** 検索元の値 **/
+		public final SchemaElementValue	outerOperand;
+		/** データ型が異なるため、文字列として比較する場合は <tt>true</tt> **/
+		public final boolean			compareAsString;
+
+		public JoinKeyColumn(SchemaElementValue innerOperand, SchemaElementValue outerOperand) {
+			this.innerOperand = innerOperand;
+			this.outerOperand = outerOperand;
+			this.compareAsString = !innerOperand.getValueType().equals(outerOperand.getValueType());
+		}
+
+		public Object getKeyValue(SchemaElementValue operand) {
+			if (compareAsString) {
+				return (operand.hasValue() ? AADLFunctions.toString(operand.getValue()) : null);
+			} else {
+				return operand.getValue();
+			}
+		}
+	}
+}
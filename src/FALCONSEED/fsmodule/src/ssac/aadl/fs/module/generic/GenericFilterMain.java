@@ -20,6 +20,11 @@
  *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
  */
 /*
+ * @(#)GenericFilterMain.java	3.3.1	2026/10/18
+ *     - hash join of input tables
+ *     - early evaluation of single table join conditions
+ *     - lazy conversion of referenced input fields
+ *     - precompiled expression evaluators
  * @(#)GenericFilterMain.java	3.2.1	2015/07/16
  *     - modified by Y.Ishizuka(PieCake.inc,)
  * @(#)GenericFilterMain.java	3.2.0	2015/06/29
@@ -27,9 +32,10 @@
  */
 package ssac.aadl.fs.module.generic;
 
-import java.io.File;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import ssac.aadl.fs.module.FilterArgType;
 import ssac.aadl.fs.module.schema.SchemaConfig;
@@ -39,6 +45,7 @@ import ssac.aadl.fs.module.schema.SchemaFilterArgValue;
 import ssac.aadl.fs.module.schema.SchemaUtil;
 import ssac.aadl.fs.module.schema.exp.SchemaExpressionData;
 import ssac.aadl.fs.module.schema.exp.SchemaExpressionEvalException;
+import ssac.aadl.fs.module.schema.exp.SchemaExpressionEvaluator;
 import ssac.aadl.fs.module.schema.exp.SchemaExpressionList;
 import ssac.aadl.fs.module.schema.exp.SchemaJoinConditionData;
 import ssac.aadl.fs.module.schema.exp.SchemaJoinConditionList;
@@ -48,6 +55,7 @@ import ssac.aadl.fs.module.schema.table.SchemaInputDataTableList;
 import ssac.aadl.fs.module.schema.table.SchemaOutputCsvDataField;
 import ssac.aadl.fs.module.schema.table.SchemaOutputCsvDataTable;
 import ssac.aadl.fs.module.schema.table.SchemaOutputDataTableList;
+import ssac.aadl.fs.module.schema.type.RuntimeSchemaValueConverter;
 import ssac.aadl.fs.module.schema.type.RuntimeSchemaValueTypeManager;
 import ssac.aadl.fs.module.schema.type.SchemaDateTimeFormats;
 import ssac.aadl.fs.module.schema.type.SchemaValueFormatException;
@@ -59,7 +67,7 @@ import ssac.aadl.runtime.util.Objects;
 /**
  * 汎用フィルタのメインプログラム。
  * 
- * @version 3.2.1
+ * @version 3.3.1
  * @since 3.2.0
  */
 public class GenericFilterMain extends ssac.aadl.runtime.AADLModule
@@ -73,6 +81,14 @@ public class GenericFilterMain extends ssac.aadl.runtime.AADLModule
 	//------------------------------------------------------------
 	
 	protected final SchemaConfig	_genericConfig;
+	/** 入力テーブルの結合計画 **/
+	protected GenericFilterJoinPlan		_joinPlan;
+	/** 2 番目以降の入力テーブルの結合インデックス **/
+	protected GenericFilterJoinIndex[]	_joinIndexes;
+	/** 入力テーブルごとの、参照されているフィールドの値変換オブジェクト(参照されていないフィールドは <tt>null</tt>) **/
+	protected final Map<SchemaInputCsvDataTable, RuntimeSchemaValueConverter[]>	_fieldConverters = new IdentityHashMap<SchemaInputCsvDataTable, RuntimeSchemaValueConverter[]>();
+	/** 計算式の評価オブジェクト **/
+	protected List<SchemaExpressionEvaluator>	_expEvaluators;
 
 	//------------------------------------------------------------
 	// Constructions
@@ -121,6 +137,12 @@ public class GenericFilterMain extends ssac.aadl.runtime.AADLModule
 				
 				// 計算式に設定された即値の変換は、編集時に標準のデータ型で変換可能な値の為、実行時データ型では検証しない
 
+				// 結合インデックスの作成
+				setupJoinIndexes(valueTypeManager, validInputTables);
+				
+				// 計算式の評価オブジェクトの作成
+				_expEvaluators = SchemaExpressionEvaluator.compileAll(_genericConfig.getExpressionList());
+
 				// output header records
 				outputHeaders();
 				
@@ -129,8 +151,13 @@ public class GenericFilterMain extends ssac.aadl.runtime.AADLModule
 				CsvFileReader firstReader = (CsvFileReader)firstTable.getFilterArgument().getValue();
 				//--- already skipped
 				Iterator<List<String>> it = firstReader.iterator();
+				SchemaJoinConditionList firstConditions = _joinPlan.getTableConditions(0);
 				for (; it.hasNext();) {
 					setFieldValuesFromCsvRecord(valueTypeManager, firstTable, it.next());
+					//--- このテーブルのみで判定可能な条件に一致しないレコードは除外
+					if (!matchesJoinConditions(firstConditions)) {
+						continue;
+					}
 					//--- 次のテーブルの処理
 					getNextTableAndDoExpressions(valueTypeManager, validInputTables, 1);
 				}
@@ -183,6 +210,18 @@ public class GenericFilterMain extends ssac.aadl.runtime.AADLModule
 	//------------------------------------------------------------
 	
 	protected void cleanupSchemaFilterArguments() {
+		if (_joinIndexes != null) {
+			for (GenericFilterJoinIndex index : _joinIndexes) {
+				if (index != null) {
+					index.close();
+				}
+			}
+			_joinIndexes = null;
+		}
+		_joinPlan = null;
+		_fieldConverters.clear();
+		_expEvaluators = null;
+		
 		SchemaFilterArgList list = _genericConfig.getFilterArgList();
 		for (int argIndex = 0; argIndex < list.size(); ++argIndex) {
 			SchemaFilterArgValue argConfig = list.get(argIndex);
@@ -284,6 +323,39 @@ public class GenericFilterMain extends ssac.aadl.runtime.AADLModule
 		return newList;
 	}
 	
+	/**
+	 * 結合条件から結合計画を作成し、2 番目以降の入力テーブルを 1 回だけ読み込んで結合インデックスを作成する。
+	 * テーブル単独で判定可能な結合条件に一致しないレコードは、インデックスに登録しない。
+	 * 作成後、インデックスを作成した入力テーブルのファイルは閉じられる。
+	 */
+	protected void setupJoinIndexes(final RuntimeSchemaValueTypeManager valueTypeManager, SchemaInputDataTableList tablelist) {
+		_joinPlan = new GenericFilterJoinPlan(_genericConfig.getJoinConditionList(), tablelist);
+		_joinIndexes = new GenericFilterJoinIndex[tablelist.size()];
+		if (tablelist.size() <= 1)
+			return;
+		
+		long maxMemory = GenericFilterJoinIndex.getDefaultMaxMemory() / (tablelist.size() - 1);
+		for (int tableIndex = 1; tableIndex < tablelist.size(); ++tableIndex) {
+			SchemaInputCsvDataTable table = tablelist.get(tableIndex);
+			CsvFileReader reader = (CsvFileReader)table.getFilterArgument().getValue();
+			SchemaJoinConditionList conditions = _joinPlan.getTableConditions(tableIndex);
+			GenericFilterJoinIndex index = new GenericFilterJoinIndex(maxMemory);
+			_joinIndexes[tableIndex] = index;
+			//--- already skipped
+			Iterator<List<String>> it = reader.iterator();
+			for (; it.hasNext(); ) {
+				List<String> rec = it.next();
+				setFieldValuesFromCsvRecord(valueTypeManager, table, rec);
+				if (!matchesJoinConditions(conditions)) {
+					continue;
+				}
+				index.add(_joinPlan.getIndexKey(tableIndex), rec);
+			}
+			index.seal();
+			closeReader(reader);
+		}
+	}
+	
 	protected void outputHeaders() {
 		// 引数定義から、ヘッダーレコードを出力する。
 		SchemaOutputDataTableList list = _genericConfig.getOutputTableList();
@@ -324,35 +396,44 @@ public class GenericFilterMain extends ssac.aadl.runtime.AADLModule
 		}
 	}
 	
-	protected CsvFileReader reopenCsvFileReader(CsvFileReader currentReader) {
-		File openedFile = currentReader.getFile();
-		closeReader(currentReader);
-		return newCsvFileReader(openedFile.toString());
+	/**
+	 * 指定された入力テーブルの、フィールドごとの値変換オブジェクトを返す。
+	 * 参照されていないフィールドの要素は <tt>null</tt> となる。
+	 */
+	protected RuntimeSchemaValueConverter[] getFieldConverters(final RuntimeSchemaValueTypeManager valueTypeManager, SchemaInputCsvDataTable table) {
+		RuntimeSchemaValueConverter[] converters = _fieldConverters.get(table);
+		if (converters == null) {
+			converters = new RuntimeSchemaValueConverter[table.size()];
+			for (int col = 0; col < converters.length; ++col) {
+				SchemaInputCsvDataField field = table.get(col);
+				if (_genericConfig.isReferencedInputCsvDataField(field)) {
+					converters[col] = new RuntimeSchemaValueConverter(valueTypeManager, field.getValueType());
+				}
+			}
+			_fieldConverters.put(table, converters);
+		}
+		return converters;
 	}
 
 	/**
 	 * スキーマのフィールド値を、指定されたレコードの値で更新する。
-	 * なお、ここでの値代入は文字列のままとする。
+	 * 参照されているフィールドには未変換の文字列を設定し、値が最初に参照された時点でデータ型に対応する値に変換する。
+	 * 参照されていないフィールドの値は文字列のままとする。
+	 * 変換エラーは値を参照した時点で発生するため、結合条件により除外されたレコードでは、
+	 * 判定に用いられたフィールドの変換エラーのみが報告される。
 	 */
 	protected void setFieldValuesFromCsvRecord(final RuntimeSchemaValueTypeManager valueTypeManager, SchemaInputCsvDataTable table, List<String> rec) {
 		int minFields = Math.min(table.size(), rec.size());
+		RuntimeSchemaValueConverter[] converters = getFieldConverters(valueTypeManager, table);
 		
 		// 有効フィールドのコピー
 		int col;
 		for (col = 0; col < minFields; ++col) {
 			SchemaInputCsvDataField field = table.get(col);
 			String strValue = SchemaUtil.emptyStringToNull(rec.get(col));	// 空文字は null にする
-			//--- 参照されているフィールドなら、データ型に対応する値に変換
-			if (_genericConfig.isReferencedInputCsvDataField(field)) {
-				// データ型に変換
-				try {
-					field.setValue(valueTypeManager.convertFromString(field.getValueType(), strValue));
-				} catch (SchemaValueFormatException ex) {
-					// 変換エラー
-					String msg = String.format("Failed to convert input field string to %s type : %s <- %s",
-							field.getValueType(), field.toVariableNameString(), strValue);
-					throw new RuntimeException(msg, ex);
-				}
+			//--- 参照されているフィールドなら、参照時にデータ型に対応する値に変換
+			if (converters[col] != null) {
+				field.setValueFromString(converters[col], strValue);
 			} else {
 				// 参照されていないので、文字列をそのまま代入
 				field.setValue(strValue);
@@ -372,10 +453,8 @@ public class GenericFilterMain extends ssac.aadl.runtime.AADLModule
 			// exist next input table
 			long outputRecCount = 0L;
 			SchemaInputCsvDataTable nextTable = tablelist.get(nextTableIndex);
-			CsvFileReader nextReader = reopenCsvFileReader((CsvFileReader)nextTable.getFilterArgument().getValue());
-			nextTable.getFilterArgument().setValue(nextReader);
-			Iterator<List<String>> it = nextReader.iterator();
-			skipInputRecords(nextTable.getHeaderRecordCount(), it);
+			//--- 結合キーに一致するレコードのみを走査
+			Iterator<List<String>> it = _joinIndexes[nextTableIndex].lookup(_joinPlan.getProbeKey(nextTableIndex));
 			for (; it.hasNext(); ) {
 				setFieldValuesFromCsvRecord(valueTypeManager, nextTable, it.next());
 				//--- 次のテーブルの処理
@@ -390,34 +469,30 @@ public class GenericFilterMain extends ssac.aadl.runtime.AADLModule
 	}
 	
 	protected long doCalc(final RuntimeSchemaValueTypeManager valueTypeManager) {
-		// check join condition
-		SchemaJoinConditionList joinList = _genericConfig.getJoinConditionList();
-		for (SchemaJoinConditionData join : joinList) {
-			SchemaElementValue val1 = join.getLeftOperand();
-			SchemaElementValue val2 = join.getRightOperand();
-			if (val1.getValueType().equals(val2.getValueType())) {
-				// 比較可能
-				if (!Objects.equals(val1.getValue(), val2.getValue())) {
-					return 0L;	// 不一致
-				}
-			}
-			else {
-				// 文字列として比較
-				String str1 = val1.hasValue() ? toString(val1.getValue()) : null;
-				String str2 = val2.hasValue() ? toString(val2.getValue()) : null;
-				if (!Objects.equals(str1, str2)) {
-					return 0L;	// 不一致
-				}
-			}
+		// check join condition (結合キーおよびテーブル条件として判定済みの条件を除く)
+		SchemaJoinConditionList joinList = (_joinPlan==null ? _genericConfig.getJoinConditionList() : _joinPlan.getResidualJoinConditions());
+		if (!matchesJoinConditions(joinList)) {
+			return 0L;	// 不一致
 		}
 		
 		// expression
-		SchemaExpressionList expList = _genericConfig.getExpressionList();
-		for (SchemaExpressionData exp : expList) {
-			try {
-				exp.eval();
-			} catch (SchemaExpressionEvalException ex) {
-				throw new RuntimeException(ex);
+		if (_expEvaluators != null) {
+			for (SchemaExpressionEvaluator evaluator : _expEvaluators) {
+				try {
+					evaluator.eval();
+				} catch (SchemaExpressionEvalException ex) {
+					throw new RuntimeException(ex);
+				}
+			}
+		}
+		else {
+			SchemaExpressionList expList = _genericConfig.getExpressionList();
+			for (SchemaExpressionData exp : expList) {
+				try {
+					exp.eval();
+				} catch (SchemaExpressionEvalException ex) {
+					throw new RuntimeException(ex);
+				}
 			}
 		}
 		
@@ -440,6 +515,33 @@ public class GenericFilterMain extends ssac.aadl.runtime.AADLModule
 		return 1L;
 	}
 
+	/**
+	 * 指定されたすべての結合条件が、現在の値で成立するかを判定する。
+	 * @param joinList	判定する結合条件
+	 * @return	すべて成立する場合は <tt>true</tt>、いずれかが不一致の場合は <tt>false</tt>
+	 */
+	protected boolean matchesJoinConditions(SchemaJoinConditionList joinList) {
+		for (SchemaJoinConditionData join : joinList) {
+			SchemaElementValue val1 = join.getLeftOperand();
+			SchemaElementValue val2 = join.getRightOperand();
+			if (val1.getValueType().equals(val2.getValueType())) {
+				// 比較可能
+				if (!Objects.equals(val1.getValue(), val2.getValue())) {
+					return false;	// 不一致
+				}
+			}
+			else {
+				// 文字列として比較
+				String str1 = val1.hasValue() ? toString(val1.getValue()) : null;
+				String str2 = val2.hasValue() ? toString(val2.getValue()) : null;
+				if (!Objects.equals(str1, str2)) {
+					return false;	// 不一致
+				}
+			}
+		}
+		return true;
+	}
+
 	static final int[][] _aadl$lno = new int[0][0];
 	static final void _aadl$lnoInitializer1() {}
 	static {
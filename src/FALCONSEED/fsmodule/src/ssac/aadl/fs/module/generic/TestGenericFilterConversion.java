@@ -0,0 +1,281 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2016  SSAC(Systems of Social Accounting Consortium)
+ *  <author> Yasunari Ishizuka (PieCake,Inc.)
+ *  <author> Hiroshi Deguchi (TOKYO INSTITUTE OF TECHNOLOGY)
+ *  <author> Yuji Onuki (Statistics Bureau)
+ *  <author> Shungo Sakaki (Tokyo University of Technology)
+ *  <author> Akira Sasaki (HOSEI UNIVERSITY)
+ *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
+ */
+/*
+ * @(#)TestGenericFilterConversion.java	3.3.1	2026/10/18
+ *     - created
+ */
+package ssac.aadl.fs.module.generic;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+
+import ssac.aadl.fs.module.FilterArgType;
+import ssac.aadl.fs.module.schema.SchemaConfig;
+import ssac.aadl.fs.module.schema.SchemaElementValue;
+import ssac.aadl.fs.module.schema.SchemaFilterArgValue;
+import ssac.aadl.fs.module.schema.SchemaValueLink;
+import ssac.aadl.fs.module.schema.exp.SchemaJoinConditionData;
+import ssac.aadl.fs.module.schema.exp.SchemaJoinConditionList;
+import ssac.aadl.fs.module.schema.io.SchemaConfigWriter;
+import ssac.aadl.fs.module.schema.table.SchemaInputCsvDataField;
+import ssac.aadl.fs.module.schema.table.SchemaInputCsvDataTable;
+import ssac.aadl.fs.module.schema.table.SchemaOutputCsvDataField;
+import ssac.aadl.fs.module.schema.table.SchemaOutputCsvDataTable;
+import ssac.aadl.fs.module.schema.type.SchemaValueTypeDecimal;
+import ssac.aadl.fs.module.schema.type.SchemaValueTypeString;
+
+/**
+ * 汎用フィルタの入力フィールドの変換エラーの検証プログラム。
+ * <p>入力フィールドの値は参照された時点で変換されるため、変換できない値を含むレコードのうち、
+ * 変換エラーが報告されるのは、その値が結合条件の判定もしくは出力のために参照されたレコードのみとなる。
+ * 3.3.1 より前は、参照されているフィールドであれば、どのレコードでも変換エラーとなっていた。
+ * <p>入力テーブルの定義は次の通り。
+ * <pre>
+ *   in1 : id(Decimal), code(String), grp(Decimal), amount(Decimal), memo(Decimal, 参照なし)
+ *   in2 : grp(Decimal), rate(Decimal)
+ *   結合条件 : in1.code == $5, in1.grp == in2.grp
+ *   出力     : in1.id, in1.amount, in2.rate
+ * </pre>
+ *
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class TestGenericFilterConversion
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	/** 1 番目の入力テーブルのデータレコード **/
+	static private final String[][] baseRecords1 = {
+		{ "1", "A", "1", "10", "0" },	// 出力される
+		{ "2", "A", "2", "20", "0" },	// 出力される
+		{ "3", "B", "1", "30", "0" },	// code の条件で除外
+		{ "4", "A", "9", "40", "0" },	// grp の結合で除外
+	};
+
+	/** 2 番目の入力テーブルのデータレコード **/
+	static private final String[][] baseRecords2 = {
+		{ "1", "0.5" },	// 結合される
+		{ "2", "1.5" },	// 結合される
+		{ "3", "2.5" },	// 結合されない
+	};
+
+	/** 変換できない値 **/
+	static private final String INVALID_VALUE = "abc";
+
+	/**
+	 * テストケース : { 説明, 入力テーブル番号, レコード番号, 列番号, 期待する終了コード }
+	 * <p>入力テーブル番号が 0 の場合は、変換できない値を含まない。
+	 * 期待する終了コードが 0 の場合は、変換できない値を含まない場合と同じ結果となることも確認する。
+	 */
+	static private final Object[][] testArgsSet = {
+		{ "no invalid value",                          0, 0, 0, 0 },
+		{ "in1.amount of record rejected by code",     1, 2, 3, 0 },
+		{ "in1.amount of record rejected by grp join", 1, 3, 3, 0 },
+		{ "in1.amount of output record",               1, 0, 3, 1 },
+		{ "in1.memo (not referenced) of output record", 1, 0, 4, 0 },
+		{ "in1.grp of record rejected by code",        1, 2, 2, 0 },
+		{ "in1.grp of record not rejected by code",    1, 3, 2, 1 },
+		{ "in2.rate of record never joined",           2, 2, 1, 0 },
+		{ "in2.grp of record never joined",            2, 2, 0, 1 },
+		{ "in2.rate of joined record",                 2, 0, 1, 1 },
+	};
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * @param args
+	 */
+	public static void main(String[] args) throws Exception {
+		System.out.println("<< Test for GenericFilterMain input field conversion >>");
+		File workDir = File.createTempFile("TestGenericFilterConversion", "");
+		workDir.delete();
+		workDir.mkdirs();
+		int failed = 0;
+		try {
+			File schemaFile = new File(workDir, "schema.xml");
+			writeSchema(schemaFile);
+			String expectedOutput = null;
+			for (int i = 0; i < testArgsSet.length; i++) {
+				String description = (String)testArgsSet[i][0];
+				int tableNo = (Integer)testArgsSet[i][1];
+				int row = (Integer)testArgsSet[i][2];
+				int col = (Integer)testArgsSet[i][3];
+				int expectedRet = (Integer)testArgsSet[i][4];
+
+				File inFile1 = new File(workDir, "in1_" + i + ".csv");
+				File inFile2 = new File(workDir, "in2_" + i + ".csv");
+				File outFile = new File(workDir, "out_" + i + ".csv");
+				writeRecords(inFile1, "id,code,grp,amount,memo", baseRecords1, (tableNo == 1 ? row : -1), col);
+				writeRecords(inFile2, "grp,rate", baseRecords2, (tableNo == 2 ? row : -1), col);
+
+				GenericFilterMain module = new GenericFilterMain(schemaFile.getPath());
+				int ret = module.aadlRun(new String[]{ inFile1.getPath(), inFile2.getPath(), outFile.getPath(), "A" });
+				boolean matched = (ret == expectedRet);
+				if (matched && ret == 0) {
+					String output = readText(outFile);
+					if (expectedOutput == null) {
+						expectedOutput = output;
+					} else {
+						matched = expectedOutput.equals(output);
+					}
+				}
+				if (!matched) {
+					failed++;
+				}
+				System.out.println("Test[" + i + "] " + description + " : result=" + ret
+									+ " (expected=" + expectedRet + ") : " + (matched ? "OK" : "NG"));
+			}
+		}
+		finally {
+			File[] files = workDir.listFiles();
+			if (files != null) {
+				for (File file : files) {
+					file.delete();
+				}
+			}
+			workDir.delete();
+		}
+		System.out.println("<< finished! >> failed=" + failed);
+		if (failed > 0) {
+			System.exit(1);
+		}
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	static private void writeSchema(File file) throws Exception {
+		SchemaConfig config = new SchemaConfig();
+		SchemaFilterArgValue in1 = new SchemaFilterArgValue(0, FilterArgType.IN, "in1");
+		SchemaFilterArgValue in2 = new SchemaFilterArgValue(1, FilterArgType.IN, "in2");
+		SchemaFilterArgValue out = new SchemaFilterArgValue(2, FilterArgType.OUT, "out");
+		SchemaFilterArgValue code = new SchemaFilterArgValue(3, FilterArgType.STR, "code");
+		config.getFilterArgList().add(in1);
+		config.getFilterArgList().add(in2);
+		config.getFilterArgList().add(out);
+		config.getFilterArgList().add(code);
+
+		SchemaInputCsvDataTable t1 = new SchemaInputCsvDataTable();
+		t1.setFilterArgument(in1);
+		t1.setHeaderRecordCount(1);
+		t1.add(new SchemaInputCsvDataField("id", SchemaValueTypeDecimal.instance, null));
+		t1.add(new SchemaInputCsvDataField("code", SchemaValueTypeString.instance, null));
+		t1.add(new SchemaInputCsvDataField("grp", SchemaValueTypeDecimal.instance, null));
+		t1.add(new SchemaInputCsvDataField("amount", SchemaValueTypeDecimal.instance, null));
+		t1.add(new SchemaInputCsvDataField("memo", SchemaValueTypeDecimal.instance, null));
+		SchemaInputCsvDataTable t2 = new SchemaInputCsvDataTable();
+		t2.setFilterArgument(in2);
+		t2.setHeaderRecordCount(1);
+		t2.add(new SchemaInputCsvDataField("grp", SchemaValueTypeDecimal.instance, null));
+		t2.add(new SchemaInputCsvDataField("rate", SchemaValueTypeDecimal.instance, null));
+		config.getInputTableList().add(t1);
+		config.getInputTableList().add(t2);
+
+		SchemaJoinConditionList joins = config.getJoinConditionList();
+		joins.add(new SchemaJoinConditionData("==", new SchemaValueLink(t1.get(1)), new SchemaValueLink(code)));
+		joins.add(new SchemaJoinConditionData("==", new SchemaValueLink(t1.get(2)), new SchemaValueLink(t2.get(0))));
+
+		SchemaOutputCsvDataTable o1 = new SchemaOutputCsvDataTable();
+		o1.setFilterArgument(out);
+		o1.setAutoHeaderRecordEnabled(true);
+		String[] names = { "id", "amount", "rate" };
+		SchemaElementValue[] targets = { t1.get(0), t1.get(3), t2.get(1) };
+		for (int i = 0; i < names.length; i++) {
+			SchemaOutputCsvDataField field = new SchemaOutputCsvDataField(names[i], targets[i].getValueType(), null);
+			field.setTargetValue(new SchemaValueLink(targets[i]));
+			o1.add(field);
+		}
+		config.getOutputTableList().add(o1);
+
+		// 要素番号の更新
+		config.refreshAllElementNumbers();
+		for (SchemaInputCsvDataTable table : config.getInputTableList()) {
+			int no = 1;
+			for (SchemaInputCsvDataField field : table) {
+				field.setParentObject(table);
+				field.setElementNo(no++);
+			}
+		}
+		int no = 1;
+		for (SchemaOutputCsvDataField field : o1) {
+			field.setParentObject(o1);
+			field.setElementNo(no++);
+		}
+		no = 1;
+		for (SchemaJoinConditionData join : joins) {
+			join.setParentObject(joins);
+			join.setElementNo(no++);
+		}
+
+		SchemaConfigWriter writer = new SchemaConfigWriter(file);
+		try {
+			writer.writeConfig(config);
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * 指定された位置のみを変換できない値に置き換えて、レコードを書き込む。
+	 */
+	static private void writeRecords(File file, String header, String[][] records, int invalidRow, int invalidCol) throws IOException {
+		PrintWriter writer = new PrintWriter(file, "UTF-8");
+		try {
+			writer.println(header);
+			for (int row = 0; row < records.length; row++) {
+				StringBuilder sb = new StringBuilder();
+				for (int col = 0; col < records[row].length; col++) {
+					if (col > 0) {
+						sb.append(',');
+					}
+					sb.append(row == invalidRow && col == invalidCol ? INVALID_VALUE : records[row][col]);
+				}
+				writer.println(sb.toString());
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	static private String readText(File file) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				sb.append(line).append('\n');
+			}
+		} finally {
+			reader.close();
+		}
+		return sb.toString();
+	}
+}
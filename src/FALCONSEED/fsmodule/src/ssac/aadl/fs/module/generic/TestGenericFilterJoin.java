@@ -0,0 +1,438 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2016  SSAC(Systems of Social Accounting Consortium)
+ *  <author> Yasunari Ishizuka (PieCake,Inc.)
+ *  <author> Hiroshi Deguchi (TOKYO INSTITUTE OF TECHNOLOGY)
+ *  <author> Yuji Onuki (Statistics Bureau)
+ *  <author> Shungo Sakaki (Tokyo University of Technology)
+ *  <author> Akira Sasaki (HOSEI UNIVERSITY)
+ *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
+ */
+/*
+ * @(#)TestGenericFilterJoin.java	3.3.1	2026/10/18
+ *     - created
+ */
+package ssac.aadl.fs.module.generic;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import ssac.aadl.fs.module.FilterArgType;
+import ssac.aadl.fs.module.schema.SchemaConfig;
+import ssac.aadl.fs.module.schema.SchemaElementValue;
+import ssac.aadl.fs.module.schema.SchemaFilterArgValue;
+import ssac.aadl.fs.module.schema.SchemaLiteralValue;
+import ssac.aadl.fs.module.schema.SchemaValueLink;
+import ssac.aadl.fs.module.schema.exp.SchemaExpressionData;
+import ssac.aadl.fs.module.schema.exp.SchemaJoinConditionData;
+import ssac.aadl.fs.module.schema.exp.SchemaJoinConditionList;
+import ssac.aadl.fs.module.schema.io.SchemaConfigWriter;
+import ssac.aadl.fs.module.schema.table.SchemaInputCsvDataField;
+import ssac.aadl.fs.module.schema.table.SchemaInputCsvDataTable;
+import ssac.aadl.fs.module.schema.table.SchemaInputDataTableList;
+import ssac.aadl.fs.module.schema.table.SchemaOutputCsvDataField;
+import ssac.aadl.fs.module.schema.table.SchemaOutputCsvDataTable;
+import ssac.aadl.fs.module.schema.type.RuntimeSchemaValueTypeManager;
+import ssac.aadl.fs.module.schema.type.SchemaValueTypeBoolean;
+import ssac.aadl.fs.module.schema.type.SchemaValueTypeDecimal;
+import ssac.aadl.fs.module.schema.type.SchemaValueTypeString;
+import ssac.aadl.runtime.io.CsvFileReader;
+
+/**
+ * 汎用フィルタの結合処理の検証プログラム。
+ * <p>結合インデックスによる結合の結果が、入力テーブルを毎回読み直す従来の入れ子ループによる結合の結果と
+ * 一致することを確認する。結合インデックスのメモリ使用量上限を小さくし、一時ファイルへの退避も検証する。
+ *
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class TestGenericFilterJoin
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	/** 乱数の初期値 **/
+	static private final long	RANDOM_SEED	= 20261018L;
+
+	/**
+	 * テストケース : { 結合条件の種類, 1/2 番目のテーブルのレコード数, 結合インデックスのメモリ使用量上限 }
+	 * <p>結合条件の種類は、0 = 異なるデータ型のキーと文字列キー、1 = 定数値と同一テーブル内の比較を追加、
+	 * 2 = 3 番目のテーブルは結合キーなし(直積)。メモリ使用量上限が <tt>null</tt> の場合は既定値。
+	 */
+	static private final Object[][] testArgsSet = {
+		{ 0, 200, null },
+		{ 0, 200, "1" },
+		{ 0, 600, "4096" },
+		{ 1, 300, null },
+		{ 1, 300, "1" },
+		{ 2, 150, null },
+		{ 2, 150, "1" },
+	};
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * @param args
+	 */
+	public static void main(String[] args) throws Exception {
+		System.out.println("<< Test for GenericFilterMain join >>");
+		File workDir = File.createTempFile("TestGenericFilterJoin", "");
+		workDir.delete();
+		workDir.mkdirs();
+		int failed = 0;
+		try {
+			for (int i = 0; i < testArgsSet.length; i++) {
+				int joinType = (Integer)testArgsSet[i][0];
+				int numRecords = (Integer)testArgsSet[i][1];
+				String maxMemory = (String)testArgsSet[i][2];
+
+				File schemaFile = new File(workDir, "schema" + i + ".xml");
+				writeSchema(schemaFile, joinType);
+				File[] inputFiles = writeInputFiles(workDir, i, numRecords);
+				String[] filterArgs = { inputFiles[0].getPath(), inputFiles[1].getPath(), inputFiles[2].getPath(),
+										null, "true", "n4" };
+
+				// 従来の入れ子ループ
+				File expectedFile = new File(workDir, "expected" + i + ".csv");
+				filterArgs[3] = expectedFile.getPath();
+				NestedLoopFilterMain expectedModule = new NestedLoopFilterMain(schemaFile.getPath());
+				int expectedRet = expectedModule.aadlRun(filterArgs);
+
+				// 結合インデックス
+				File actualFile = new File(workDir, "actual" + i + ".csv");
+				filterArgs[3] = actualFile.getPath();
+				if (maxMemory != null) {
+					System.setProperty(GenericFilterJoinIndex.PROPKEY_MAXMEMORY, maxMemory);
+				} else {
+					System.clearProperty(GenericFilterJoinIndex.PROPKEY_MAXMEMORY);
+				}
+				IndexedFilterMain actualModule = new IndexedFilterMain(schemaFile.getPath());
+				int actualRet;
+				try {
+					actualRet = actualModule.aadlRun(filterArgs);
+				} finally {
+					System.clearProperty(GenericFilterJoinIndex.PROPKEY_MAXMEMORY);
+				}
+
+				boolean matched = (expectedRet == 0 && actualRet == 0 && contentEquals(expectedFile, actualFile));
+				if (maxMemory != null && !actualModule.spilled) {
+					matched = false;
+				}
+				if (!matched) {
+					failed++;
+				}
+				System.out.println("Test[" + i + "] result=" + actualRet + " (expected=" + expectedRet + ")"
+									+ ", records=" + (countLines(actualFile) - 1)
+									+ ", spilled=" + actualModule.spilled
+									+ " : " + (matched ? "OK" : "NG"));
+			}
+		}
+		finally {
+			File[] files = workDir.listFiles();
+			if (files != null) {
+				for (File file : files) {
+					file.delete();
+				}
+			}
+			workDir.delete();
+		}
+		System.out.println("<< finished! >> failed=" + failed);
+		if (failed > 0) {
+			System.exit(1);
+		}
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	/**
+	 * 3 つの入力テーブルと 1 つの出力テーブルを持つ汎用フィルタ定義を作成する。
+	 */
+	static private void writeSchema(File file, int joinType) throws Exception {
+		SchemaConfig config = new SchemaConfig();
+		SchemaFilterArgValue in1 = new SchemaFilterArgValue(0, FilterArgType.IN, "in1");
+		SchemaFilterArgValue in2 = new SchemaFilterArgValue(1, FilterArgType.IN, "in2");
+		SchemaFilterArgValue in3 = new SchemaFilterArgValue(2, FilterArgType.IN, "in3");
+		SchemaFilterArgValue out = new SchemaFilterArgValue(3, FilterArgType.OUT, "out");
+		SchemaFilterArgValue s1 = new SchemaFilterArgValue(4, FilterArgType.STR, "s1");
+		SchemaFilterArgValue s2 = new SchemaFilterArgValue(5, FilterArgType.STR, "s2");
+		config.getFilterArgList().add(in1);
+		config.getFilterArgList().add(in2);
+		config.getFilterArgList().add(in3);
+		config.getFilterArgList().add(out);
+		config.getFilterArgList().add(s1);
+		config.getFilterArgList().add(s2);
+
+		SchemaInputCsvDataTable t1 = new SchemaInputCsvDataTable();
+		t1.setFilterArgument(in1);
+		t1.setHeaderRecordCount(1);
+		t1.add(new SchemaInputCsvDataField("id", SchemaValueTypeDecimal.instance, null));
+		t1.add(new SchemaInputCsvDataField("name", SchemaValueTypeString.instance, null));
+		SchemaInputCsvDataTable t2 = new SchemaInputCsvDataTable();
+		t2.setFilterArgument(in2);
+		t2.setHeaderRecordCount(1);
+		t2.add(new SchemaInputCsvDataField("id", SchemaValueTypeString.instance, null));
+		t2.add(new SchemaInputCsvDataField("val", SchemaValueTypeDecimal.instance, null));
+		SchemaInputCsvDataTable t3 = new SchemaInputCsvDataTable();
+		t3.setFilterArgument(in3);
+		t3.setHeaderRecordCount(1);
+		t3.add(new SchemaInputCsvDataField("name", SchemaValueTypeString.instance, null));
+		t3.add(new SchemaInputCsvDataField("flag", SchemaValueTypeBoolean.instance, null));
+		config.getInputTableList().add(t1);
+		config.getInputTableList().add(t2);
+		config.getInputTableList().add(t3);
+
+		// 結合条件
+		SchemaJoinConditionList joins = config.getJoinConditionList();
+		joins.add(new SchemaJoinConditionData("==", new SchemaValueLink(t1.get(0)), new SchemaValueLink(t2.get(0))));
+		if (joinType != 2) {
+			joins.add(new SchemaJoinConditionData("==", new SchemaValueLink(t3.get(0)), new SchemaValueLink(t1.get(1))));
+		}
+		if (joinType == 1) {
+			joins.add(new SchemaJoinConditionData("==", new SchemaValueLink(t3.get(1)), new SchemaValueLink(s1)));
+			joins.add(new SchemaJoinConditionData("!=", new SchemaValueLink(t1.get(1)), new SchemaValueLink(s2)));
+			joins.add(new SchemaJoinConditionData("==", new SchemaValueLink(t2.get(1)), new SchemaValueLink(t2.get(1))));
+		}
+
+		// 計算式
+		SchemaExpressionData exp1 = new SchemaExpressionData("*", new SchemaValueLink(t2.get(1)),
+												new SchemaLiteralValue(SchemaValueTypeDecimal.instance, "2"));
+		config.getExpressionList().add(exp1);
+		SchemaExpressionData exp2 = new SchemaExpressionData("+", new SchemaValueLink(t1.get(1)), new SchemaValueLink(exp1));
+		config.getExpressionList().add(exp2);
+
+		// 出力テーブル
+		SchemaOutputCsvDataTable o1 = new SchemaOutputCsvDataTable();
+		o1.setFilterArgument(out);
+		o1.setAutoHeaderRecordEnabled(true);
+		String[] names = { "id", "name", "val", "x2", "cat", "tname", "flag" };
+		SchemaElementValue[] targets = { t1.get(0), t1.get(1), t2.get(1), exp1, exp2, t3.get(0), t3.get(1) };
+		for (int i = 0; i < names.length; i++) {
+			SchemaOutputCsvDataField field = new SchemaOutputCsvDataField(names[i], targets[i].getValueType(), null);
+			field.setTargetValue(new SchemaValueLink(targets[i]));
+			o1.add(field);
+		}
+		config.getOutputTableList().add(o1);
+
+		// 要素番号の更新
+		config.refreshAllElementNumbers();
+		for (SchemaInputCsvDataTable table : config.getInputTableList()) {
+			int no = 1;
+			for (SchemaInputCsvDataField field : table) {
+				field.setParentObject(table);
+				field.setElementNo(no++);
+			}
+		}
+		int no = 1;
+		for (SchemaOutputCsvDataField field : o1) {
+			field.setParentObject(o1);
+			field.setElementNo(no++);
+		}
+		no = 1;
+		for (SchemaExpressionData exp : config.getExpressionList()) {
+			exp.setParentObject(config.getExpressionList());
+			exp.setElementNo(no++);
+		}
+		no = 1;
+		for (SchemaJoinConditionData join : joins) {
+			join.setParentObject(joins);
+			join.setElementNo(no++);
+		}
+
+		SchemaConfigWriter writer = new SchemaConfigWriter(file);
+		try {
+			writer.writeConfig(config);
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * 空欄や表記の異なる数値、重複するキーを含む入力ファイルを作成する。
+	 */
+	static private File[] writeInputFiles(File dir, int testNo, int numRecords) throws IOException {
+		Random rand = new Random(RANDOM_SEED + testNo);
+		String[] decimalForms = { "", ".0", ".00" };
+		File[] files = { new File(dir, "t1_" + testNo + ".csv"), new File(dir, "t2_" + testNo + ".csv"), new File(dir, "t3_" + testNo + ".csv") };
+
+		PrintWriter writer = new PrintWriter(files[0], "UTF-8");
+		writer.println("id,name");
+		for (int i = 0; i < numRecords; i++) {
+			String id = (rand.nextInt(20) == 0 ? "" : rand.nextInt(numRecords / 2) + decimalForms[rand.nextInt(decimalForms.length)]);
+			String name = (rand.nextInt(20) == 0 ? "" : "n" + rand.nextInt(20));
+			writer.println(id + "," + name);
+		}
+		writer.close();
+
+		writer = new PrintWriter(files[1], "UTF-8");
+		writer.println("id,val");
+		for (int i = 0; i < numRecords; i++) {
+			String id = (rand.nextInt(20) == 0 ? "" : rand.nextInt(numRecords / 2) + decimalForms[rand.nextInt(decimalForms.length)]);
+			String val = (rand.nextInt(20) == 0 ? "" : String.valueOf(rand.nextInt(1000) / 10.0));
+			writer.println(id + "," + val);
+		}
+		writer.close();
+
+		writer = new PrintWriter(files[2], "UTF-8");
+		writer.println("name,flag");
+		for (int i = 0; i < 15; i++) {
+			writer.println("n" + i + "," + (i % 2 == 0));
+		}
+		writer.println("n3,false");
+		writer.println(",true");
+		writer.close();
+		return files;
+	}
+
+	static private boolean contentEquals(File file1, File file2) throws IOException {
+		if (!file1.exists() || !file2.exists() || file1.length() != file2.length()) {
+			return false;
+		}
+		InputStream in1 = new FileInputStream(file1);
+		try {
+			InputStream in2 = new FileInputStream(file2);
+			try {
+				byte[] buf1 = new byte[8192];
+				byte[] buf2 = new byte[8192];
+				int len;
+				while ((len = in1.read(buf1)) > 0) {
+					int pos = 0;
+					while (pos < len) {
+						int read = in2.read(buf2, pos, len - pos);
+						if (read < 0) {
+							return false;
+						}
+						pos += read;
+					}
+					if (!Arrays.equals(buf1, buf2)) {
+						return false;
+					}
+				}
+				return (in2.read() < 0);
+			} finally {
+				in2.close();
+			}
+		} finally {
+			in1.close();
+		}
+	}
+
+	static private int countLines(File file) throws IOException {
+		if (!file.exists()) {
+			return 0;
+		}
+		int lines = 0;
+		InputStream in = new FileInputStream(file);
+		try {
+			byte[] buf = new byte[8192];
+			int len;
+			while ((len = in.read(buf)) > 0) {
+				for (int i = 0; i < len; i++) {
+					if (buf[i] == '\n') {
+						lines++;
+					}
+				}
+			}
+		} finally {
+			in.close();
+		}
+		return lines;
+	}
+
+	//------------------------------------------------------------
+	// Inner classes
+	//------------------------------------------------------------
+
+	/**
+	 * 結合インデックスが一時ファイルへ退避されたかを記録する汎用フィルタ。
+	 */
+	static private class IndexedFilterMain extends GenericFilterMain
+	{
+		boolean spilled;
+
+		IndexedFilterMain(String genericFilePath) {
+			super(genericFilePath);
+		}
+
+		@Override
+		protected void setupJoinIndexes(RuntimeSchemaValueTypeManager valueTypeManager, SchemaInputDataTableList tablelist) {
+			super.setupJoinIndexes(valueTypeManager, tablelist);
+			for (GenericFilterJoinIndex index : _joinIndexes) {
+				if (index != null && index.isSpilled()) {
+					spilled = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * 2 番目以降の入力テーブルを外側のレコードごとに読み直し、すべての結合条件を最後に判定する、
+	 * 従来の入れ子ループによる汎用フィルタ。
+	 */
+	static private class NestedLoopFilterMain extends GenericFilterMain
+	{
+		NestedLoopFilterMain(String genericFilePath) {
+			super(genericFilePath);
+		}
+
+		@Override
+		protected void setupJoinIndexes(RuntimeSchemaValueTypeManager valueTypeManager, SchemaInputDataTableList tablelist) {
+			// 結合条件を持たない実行計画とし、すべての結合条件は doCalc で判定する
+			_joinPlan = new GenericFilterJoinPlan(new SchemaJoinConditionList(), tablelist);
+			_joinIndexes = new GenericFilterJoinIndex[tablelist.size()];
+		}
+
+		@Override
+		protected long getNextTableAndDoExpressions(RuntimeSchemaValueTypeManager valueTypeManager, SchemaInputDataTableList tablelist, int nextTableIndex) {
+			if (nextTableIndex < tablelist.size()) {
+				long outputRecCount = 0L;
+				SchemaInputCsvDataTable nextTable = tablelist.get(nextTableIndex);
+				CsvFileReader currentReader = (CsvFileReader)nextTable.getFilterArgument().getValue();
+				File openedFile = currentReader.getFile();
+				closeReader(currentReader);
+				CsvFileReader nextReader = newCsvFileReader(openedFile.toString());
+				nextTable.getFilterArgument().setValue(nextReader);
+				Iterator<List<String>> it = nextReader.iterator();
+				skipInputRecords(nextTable.getHeaderRecordCount(), it);
+				for (; it.hasNext(); ) {
+					setFieldValuesFromCsvRecord(valueTypeManager, nextTable, it.next());
+					outputRecCount += getNextTableAndDoExpressions(valueTypeManager, tablelist, nextTableIndex+1);
+				}
+				return outputRecCount;
+			}
+			else {
+				return doCalc(valueTypeManager);
+			}
+		}
+
+		@Override
+		protected long doCalc(RuntimeSchemaValueTypeManager valueTypeManager) {
+			if (!matchesJoinConditions(_genericConfig.getJoinConditionList())) {
+				return 0L;	// 不一致
+			}
+			return super.doCalc(valueTypeManager);
+		}
+	}
+}
@@ -0,0 +1,340 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2016  SSAC(Systems of Social Accounting Consortium)
+ *  <author> Yasunari Ishizuka (PieCake,Inc.)
+ *  <author> Hiroshi Deguchi (TOKYO INSTITUTE OF TECHNOLOGY)
+ *  <author> Yuji Onuki (Statistics Bureau)
+ *  <author> Shungo Sakaki (Tokyo University of Technology)
+ *  <author> Akira Sasaki (HOSEI UNIVERSITY)
+ *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
+ */
+/*
+ * @(#)SchemaExpressionEvaluator.java	3.3.1	2026/10/18
+ *     - created
+ */
+package ssac.aadl.fs.module.schema.exp;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.List;
+
+import ssac.aadl.fs.module.schema.SchemaElementValue;
+import ssac.aadl.fs.module.schema.SchemaValueLink;
+import ssac.aadl.fs.module.schema.type.SchemaValueType;
+import ssac.aadl.fs.module.schema.type.SchemaValueTypeDecimal;
+import ssac.aadl.runtime.AADLFunctions;
+
+/**
+ * 汎用フィルタの計算式を、実行前に演算子とデータ型を確定させた評価オブジェクトに変換したもの。
+ * <p>{@link SchemaExpressionData#eval()} では、評価のたびに演算子の検索とデータ型の検証を行うが、
+ * このクラスではそれらを {@link #compile(SchemaExpressionData)} の時点で一度だけ行い、
+ * 演算子とデータ型の組み合わせごとの専用の実装で評価する。
+ * 評価結果は {@link SchemaExpressionData#eval()} と同一となる。
+ * <p>専用の実装に変換できない計算式は、{@link SchemaExpressionData#eval()} で評価される。
+ *
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public abstract class SchemaExpressionEvaluator
+{
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/** 評価対象の計算式 **/
+	protected final SchemaExpressionData	_exp;
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	protected SchemaExpressionEvaluator(SchemaExpressionData exp) {
+		_exp = exp;
+	}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * 指定された計算式リストのすべての計算式を、定義順に評価オブジェクトへ変換する。
+	 * @param expList	計算式リスト
+	 * @return	評価オブジェクトのリスト
+	 * @throws NullPointerException	引数が <tt>null</tt> の場合
+	 */
+	static public List<SchemaExpressionEvaluator> compileAll(SchemaExpressionList expList) {
+		ArrayList<SchemaExpressionEvaluator> list = new ArrayList<SchemaExpressionEvaluator>(expList.size());
+		for (SchemaExpressionData exp : expList) {
+			list.add(compile(exp));
+		}
+		return list;
+	}
+
+	/**
+	 * 指定された計算式を評価オブジェクトへ変換する。
+	 * 演算子もしくはオペランドのデータ型が不正な場合は、{@link SchemaExpressionData#eval()} で評価するオブジェクトを返す。
+	 * @param exp	計算式
+	 * @return	評価オブジェクト
+	 * @throws NullPointerException	引数が <tt>null</tt> の場合
+	 */
+	static public SchemaExpressionEvaluator compile(SchemaExpressionData exp) {
+		SchemaBinaryOperatorType operator = SchemaExpressionOperators.getOperatorType(exp.getOperator());
+		if (operator == null || !exp.hasLeftOperand() || !exp.hasRightOperand()) {
+			return new Interpreted(exp);
+		}
+		SchemaElementValue left  = resolveLinkTarget(exp.getLeftOperand());
+		SchemaElementValue right = resolveLinkTarget(exp.getRightOperand());
+		if (left == null || right == null) {
+			return new Interpreted(exp);
+		}
+		SchemaValueType leftType  = exp.getLeftOperand().getValueType();
+		SchemaValueType rightType = exp.getRightOperand().getValueType();
+		if (!operator.containsPair(leftType, rightType)) {
+			return new Interpreted(exp);
+		}
+
+		SchemaValueType resultType = operator.getResultType(leftType, rightType);
+		String op = operator.operator();
+		SchemaExpressionEvaluator evaluator;
+		if (SchemaExpressionOperators.OP_ARITH_ADD.equals(op)) {
+			if (SchemaValueTypeDecimal.instance.equals(resultType)) {
+				evaluator = new DecimalAdd(exp, left, right);
+			} else {
+				evaluator = new StringConcat(exp, left, right);
+			}
+		}
+		else if (SchemaExpressionOperators.OP_ARITH_SUB.equals(op)) {
+			evaluator = new DecimalSubtract(exp, left, right);
+		}
+		else if (SchemaExpressionOperators.OP_ARITH_MULTI.equals(op)) {
+			evaluator = new DecimalMultiply(exp, left, right);
+		}
+		else if (SchemaExpressionOperators.OP_ARITH_DIV.equals(op)) {
+			evaluator = new DecimalDivide(exp, left, right);
+		}
+		else if (SchemaExpressionOperators.OP_ARITH_MOD.equals(op)) {
+			evaluator = new DecimalRemainder(exp, left, right);
+		}
+		else {
+			return new Interpreted(exp);
+		}
+
+		// 結果のデータ型は評価ごとに変化しないため、ここで確定する
+		exp.setValueType(resultType);
+		return evaluator;
+	}
+
+	/**
+	 * 評価対象の計算式を返す。
+	 */
+	public SchemaExpressionData getExpression() {
+		return _exp;
+	}
+
+	/**
+	 * 専用の実装で評価する場合は <tt>true</tt>、{@link SchemaExpressionData#eval()} で評価する場合は <tt>false</tt> を返す。
+	 */
+	public boolean isCompiled() {
+		return true;
+	}
+
+	/**
+	 * 計算式を評価し、計算式オブジェクトの値を更新する。
+	 * @return	演算結果のオブジェクト
+	 * @throws SchemaExpressionEvalException	計算に失敗した場合
+	 */
+	public Object eval() throws SchemaExpressionEvalException
+	{
+		Object result = calc();
+		_exp.setValue(result);
+		return result;
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	abstract protected Object calc() throws SchemaExpressionEvalException;
+
+	static protected SchemaElementValue resolveLinkTarget(SchemaElementValue value) {
+		while (value instanceof SchemaValueLink) {
+			value = ((SchemaValueLink)value).getLinkTarget();
+		}
+		return value;
+	}
+
+	//------------------------------------------------------------
+	// Inner classes
+	//------------------------------------------------------------
+
+	/**
+	 * {@link SchemaExpressionData#eval()} で評価するオブジェクト。
+	 */
+	static protected class Interpreted extends SchemaExpressionEvaluator
+	{
+		public Interpreted(SchemaExpressionData exp) {
+			super(exp);
+		}
+
+		@Override
+		public boolean isCompiled() {
+			return false;
+		}
+
+		@Override
+		public Object eval() throws SchemaExpressionEvalException {
+			return _exp.eval();
+		}
+
+		@Override
+		protected Object calc() throws SchemaExpressionEvalException {
+			return _exp.eval();
+		}
+	}
+
+	/**
+	 * 二項演算の共通実装。
+	 */
+	static protected abstract class BinaryEvaluator extends SchemaExpressionEvaluator
+	{
+		protected final SchemaElementValue	_left;
+		protected final SchemaElementValue	_right;
+
+		protected BinaryEvaluator(SchemaExpressionData exp, SchemaElementValue left, SchemaElementValue right) {
+			super(exp);
+			_left  = left;
+			_right = right;
+		}
+	}
+
+	/**
+	 * 数値の二項演算の共通実装。いずれかが <tt>null</tt> の場合、結果は <tt>null</tt> となる。
+	 */
+	static protected abstract class DecimalEvaluator extends BinaryEvaluator
+	{
+		protected DecimalEvaluator(SchemaExpressionData exp, SchemaElementValue left, SchemaElementValue right) {
+			super(exp, left, right);
+		}
+
+		@Override
+		protected Object calc() throws SchemaExpressionEvalException {
+			BigDecimal val1 = (BigDecimal)_left.getValue();
+			BigDecimal val2 = (BigDecimal)_right.getValue();
+			if (val1==null || val2==null) {
+				return null;
+			} else {
+				return calc(val1, val2);
+			}
+		}
+
+		abstract protected BigDecimal calc(BigDecimal val1, BigDecimal val2) throws SchemaExpressionEvalException;
+	}
+
+	/** 加算 **/
+	static protected class DecimalAdd extends DecimalEvaluator
+	{
+		public DecimalAdd(SchemaExpressionData exp, SchemaElementValue left, SchemaElementValue right) {
+			super(exp, left, right);
+		}
+
+		@Override
+		protected BigDecimal calc(BigDecimal val1, BigDecimal val2) {
+			return val1.add(val2);
+		}
+	}
+
+	/** 減算 **/
+	static protected class DecimalSubtract extends DecimalEvaluator
+	{
+		public DecimalSubtract(SchemaExpressionData exp, SchemaElementValue left, SchemaElementValue right) {
+			super(exp, left, right);
+		}
+
+		@Override
+		protected BigDecimal calc(BigDecimal val1, BigDecimal val2) {
+			return val1.subtract(val2);
+		}
+	}
+
+	/** 乗算 **/
+	static protected class DecimalMultiply extends DecimalEvaluator
+	{
+		public DecimalMultiply(SchemaExpressionData exp, SchemaElementValue left, SchemaElementValue right) {
+			super(exp, left, right);
+		}
+
+		@Override
+		protected BigDecimal calc(BigDecimal val1, BigDecimal val2) {
+			return val1.multiply(val2);
+		}
+	}
+
+	/** 除算 **/
+	static protected class DecimalDivide extends DecimalEvaluator
+	{
+		public DecimalDivide(SchemaExpressionData exp, SchemaElementValue left, SchemaElementValue right) {
+			super(exp, left, right);
+		}
+
+		@Override
+		protected BigDecimal calc(BigDecimal val1, BigDecimal val2) throws SchemaExpressionEvalException {
+			try {
+				return val1.divide(val2, MathContext.DECIMAL128);
+			} catch (ArithmeticException ex) {
+				throw new SchemaExpressionEvalException(_exp, ex);
+			}
+		}
+	}
+
+	/** 剰余 **/
+	static protected class DecimalRemainder extends DecimalEvaluator
+	{
+		public DecimalRemainder(SchemaExpressionData exp, SchemaElementValue left, SchemaElementValue right) {
+			super(exp, left, right);
+		}
+
+		@Override
+		protected BigDecimal calc(BigDecimal val1, BigDecimal val2) throws SchemaExpressionEvalException {
+			try {
+				return val1.remainder(val2);
+			} catch (ArithmeticException ex) {
+				throw new SchemaExpressionEvalException(_exp, ex);
+			}
+		}
+	}
+
+	/**
+	 * 文字列としての連結。<tt>null</tt> は空白文字とみなして連結し、両方とも <tt>null</tt> なら <tt>null</tt> となる。
+	 */
+	static protected class StringConcat extends BinaryEvaluator
+	{
+		public StringConcat(SchemaExpressionData exp, SchemaElementValue left, SchemaElementValue right) {
+			super(exp, left, right);
+		}
+
+		@Override
+		protected Object calc() {
+			Object val1 = _left.getValue();
+			Object val2 = _right.getValue();
+			if (val1 == null) {
+				return (val2==null ? null : AADLFunctions.toString(val2));
+			} else if (val2 == null) {
+				return AADLFunctions.toString(val1);
+			} else {
+				return AADLFunctions.toString(val1) + AADLFunctions.toString(val2);
+			}
+		}
+	}
+}
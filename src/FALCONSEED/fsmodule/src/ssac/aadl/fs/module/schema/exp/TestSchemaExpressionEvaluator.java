@@ -0,0 +1,253 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2016  SSAC(Systems of Social Accounting Consortium)
+ *  <author> Yasunari Ishizuka (PieCake,Inc.)
+ *  <author> Hiroshi Deguchi (TOKYO INSTITUTE OF TECHNOLOGY)
+ *  <author> Yuji Onuki (Statistics Bureau)
+ *  <author> Shungo Sakaki (Tokyo University of Technology)
+ *  <author> Akira Sasaki (HOSEI UNIVERSITY)
+ *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
+ */
+/*
+ * @(#)TestSchemaExpressionEvaluator.java	3.3.1	2026/10/18
+ *     - created
+ */
+package ssac.aadl.fs.module.schema.exp;
+
+import java.math.BigDecimal;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+import ssac.aadl.fs.module.schema.SchemaLiteralValue;
+import ssac.aadl.fs.module.schema.SchemaValueLink;
+import ssac.aadl.fs.module.schema.table.SchemaInputCsvDataField;
+import ssac.aadl.fs.module.schema.type.SchemaValueType;
+import ssac.aadl.fs.module.schema.type.SchemaValueTypeBoolean;
+import ssac.aadl.fs.module.schema.type.SchemaValueTypeDateTime;
+import ssac.aadl.fs.module.schema.type.SchemaValueTypeDecimal;
+import ssac.aadl.fs.module.schema.type.SchemaValueTypeString;
+import ssac.aadl.runtime.util.Objects;
+
+/**
+ * 計算式の評価オブジェクトの検証プログラム。
+ * <p>すべての演算子(未定義の演算子を含む)と、オペランドのデータ型のすべての組み合わせについて、
+ * {@link SchemaExpressionData#eval()} と {@link SchemaExpressionEvaluator#eval()} の結果が一致することを確認する。
+ * 演算結果、計算式オブジェクトの値とデータ型、例外のクラスとメッセージ、原因となった例外を比較する。
+ * オペランドの値には、<tt>null</tt>、0 による除算と剰余、スケールの異なる数値、日付時刻、真偽値を含む。
+ *
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class TestSchemaExpressionEvaluator
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	/** 検証する演算子 **/
+	static private final String[] testOperators = {
+		SchemaExpressionOperators.OP_ARITH_ADD,
+		SchemaExpressionOperators.OP_ARITH_SUB,
+		SchemaExpressionOperators.OP_ARITH_MULTI,
+		SchemaExpressionOperators.OP_ARITH_DIV,
+		SchemaExpressionOperators.OP_ARITH_MOD,
+		"^",
+	};
+
+	/** 検証するデータ型 **/
+	static private final SchemaValueType[] testTypes = {
+		SchemaValueTypeDecimal.instance,
+		SchemaValueTypeString.instance,
+		SchemaValueTypeDateTime.instance,
+		SchemaValueTypeBoolean.instance,
+	};
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		System.out.println("<< Test for SchemaExpressionEvaluator >>");
+		int failed = 0;
+		int count = 0;
+		int testNo = 0;
+		for (String operator : testOperators) {
+			for (SchemaValueType leftType : testTypes) {
+				for (SchemaValueType rightType : testTypes) {
+					Object[] leftValues = getTestValues(leftType);
+					Object[] rightValues = getTestValues(rightType);
+					SchemaInputCsvDataField leftField = new SchemaInputCsvDataField("left", leftType, null);
+					SchemaInputCsvDataField rightField = new SchemaInputCsvDataField("right", rightType, null);
+					SchemaExpressionData exp = new SchemaExpressionData(operator, new SchemaValueLink(leftField), new SchemaValueLink(rightField));
+					SchemaExpressionEvaluator evaluator = SchemaExpressionEvaluator.compile(exp);
+					boolean expectCompiled = SchemaExpressionOperators.containsPair(operator, leftType, rightType);
+					int errors = 0;
+					if (evaluator.isCompiled() != expectCompiled) {
+						System.out.println("    isCompiled()=" + evaluator.isCompiled() + " (expected=" + expectCompiled + ")");
+						errors++;
+					}
+					for (Object leftValue : leftValues) {
+						for (Object rightValue : rightValues) {
+							leftField.setValue(leftValue);
+							rightField.setValue(rightValue);
+							String diff = compareEval(exp, evaluator);
+							count++;
+							if (diff != null) {
+								System.out.println("    (" + leftValue + " " + operator + " " + rightValue + ") : " + diff);
+								errors++;
+							}
+						}
+					}
+					if (errors > 0) {
+						failed++;
+					}
+					System.out.println("Test[" + (testNo++) + "] " + leftType + " " + operator + " " + rightType
+										+ " compiled=" + evaluator.isCompiled() + " : " + (errors == 0 ? "OK" : "NG"));
+				}
+			}
+		}
+
+		// 即値のオペランドと、計算式を参照するオペランド
+		SchemaInputCsvDataField field = new SchemaInputCsvDataField("field", SchemaValueTypeDecimal.instance, null);
+		SchemaExpressionList expList = new SchemaExpressionList();
+		SchemaExpressionData exp1 = new SchemaExpressionData(SchemaExpressionOperators.OP_ARITH_DIV,
+				new SchemaValueLink(field), new SchemaLiteralValue(SchemaValueTypeDecimal.instance, "0"));
+		SchemaExpressionData exp2 = new SchemaExpressionData(SchemaExpressionOperators.OP_ARITH_MOD,
+				new SchemaLiteralValue(SchemaValueTypeDecimal.instance, "7"), new SchemaValueLink(field));
+		SchemaExpressionData exp3 = new SchemaExpressionData(SchemaExpressionOperators.OP_ARITH_ADD,
+				new SchemaValueLink(exp2), new SchemaLiteralValue(SchemaValueTypeString.instance, "x"));
+		SchemaExpressionData exp4 = new SchemaExpressionData(SchemaExpressionOperators.OP_ARITH_MULTI,
+				new SchemaValueLink(exp2), new SchemaValueLink(exp2));
+		expList.add(exp1);
+		expList.add(exp2);
+		expList.add(exp3);
+		expList.add(exp4);
+		int errors = 0;
+		List<SchemaExpressionEvaluator> evaluators = SchemaExpressionEvaluator.compileAll(expList);
+		for (Object value : getTestValues(SchemaValueTypeDecimal.instance)) {
+			field.setValue(value);
+			for (int i = 0; i < evaluators.size(); i++) {
+				String diff = compareEval(expList.get(i), evaluators.get(i));
+				count++;
+				if (diff != null) {
+					System.out.println("    exp[" + i + "] (field=" + value + ") : " + diff);
+					errors++;
+				}
+			}
+		}
+		if (errors > 0) {
+			failed++;
+		}
+		System.out.println("Test[" + (testNo++) + "] literal and expression operands : " + (errors == 0 ? "OK" : "NG"));
+
+		System.out.println("<< finished! >> evaluations=" + count + ", failed=" + failed);
+		if (failed > 0) {
+			System.exit(1);
+		}
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	static private Object[] getTestValues(SchemaValueType type) {
+		if (SchemaValueTypeDecimal.instance.equals(type)) {
+			return new Object[]{ null, BigDecimal.ZERO, new BigDecimal("0.00"), BigDecimal.ONE, new BigDecimal("-3.50"),
+									new BigDecimal("1E+3"), new BigDecimal("7"), new BigDecimal("3"),
+									new BigDecimal("123456789012345678901234567890.123456789") };
+		}
+		else if (SchemaValueTypeString.instance.equals(type)) {
+			return new Object[]{ null, "", "abc", "123", "日本語" };
+		}
+		else if (SchemaValueTypeDateTime.instance.equals(type)) {
+			Calendar cal1 = Calendar.getInstance(TimeZone.getTimeZone("Asia/Tokyo"));
+			cal1.clear();
+			cal1.set(2015, Calendar.JUNE, 29, 12, 34, 56);
+			Calendar cal2 = Calendar.getInstance(TimeZone.getTimeZone("Asia/Tokyo"));
+			cal2.clear();
+			cal2.set(1999, Calendar.DECEMBER, 31);
+			return new Object[]{ null, cal1, cal2 };
+		}
+		else {
+			return new Object[]{ null, Boolean.TRUE, Boolean.FALSE };
+		}
+	}
+
+	/**
+	 * 計算式を {@link SchemaExpressionData#eval()} と評価オブジェクトで評価し、結果を比較する。
+	 * @return	一致する場合は <tt>null</tt>、一致しない場合はその内容
+	 */
+	static private String compareEval(SchemaExpressionData exp, SchemaExpressionEvaluator evaluator) {
+		exp.setValue(null);
+		Object expectedResult = null;
+		SchemaExpressionEvalException expectedError = null;
+		try {
+			expectedResult = exp.eval();
+		} catch (SchemaExpressionEvalException ex) {
+			expectedError = ex;
+		}
+		Object expectedValue = exp.getValue();
+		SchemaValueType expectedType = exp.getValueType();
+
+		exp.setValue(null);
+		Object actualResult = null;
+		SchemaExpressionEvalException actualError = null;
+		try {
+			actualResult = evaluator.eval();
+		} catch (SchemaExpressionEvalException ex) {
+			actualError = ex;
+		}
+		Object actualValue = exp.getValue();
+		SchemaValueType actualType = exp.getValueType();
+
+		if (!Objects.equals(expectedResult, actualResult)) {
+			return "result " + actualResult + " (expected=" + expectedResult + ")";
+		}
+		if (!Objects.equals(expectedValue, actualValue)) {
+			return "value " + actualValue + " (expected=" + expectedValue + ")";
+		}
+		if (!Objects.equals(expectedType, actualType)) {
+			return "value type " + actualType + " (expected=" + expectedType + ")";
+		}
+		if (expectedError == null || actualError == null) {
+			if (expectedError != actualError) {
+				return "error " + actualError + " (expected=" + expectedError + ")";
+			}
+			return null;
+		}
+		if (expectedError.getExpression() != actualError.getExpression()) {
+			return "error expression " + actualError.getExpression() + " (expected=" + expectedError.getExpression() + ")";
+		}
+		if (!Objects.equals(expectedError.formatMessage(), actualError.formatMessage())) {
+			return "error message " + actualError.formatMessage() + " (expected=" + expectedError.formatMessage() + ")";
+		}
+		Throwable expectedCause = expectedError.getCause();
+		Throwable actualCause = actualError.getCause();
+		if (expectedCause == null || actualCause == null) {
+			if (expectedCause != actualCause) {
+				return "error cause " + actualCause + " (expected=" + expectedCause + ")";
+			}
+		}
+		else if (expectedCause.getClass() != actualCause.getClass()
+				|| !Objects.equals(expectedCause.getMessage(), actualCause.getMessage()))
+		{
+			return "error cause " + actualCause + " (expected=" + expectedCause + ")";
+		}
+		return null;
+	}
+}
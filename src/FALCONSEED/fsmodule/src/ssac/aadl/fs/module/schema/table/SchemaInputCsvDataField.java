@@ -20,17 +20,26 @@
  *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
  */
 /*
+ * @(#)SchemaInputCsvDataField	3.3.1	2026/10/18
+ *     - lazy conversion of input strings
  * @(#)SchemaInputCsvDataField	3.2.0	2015/06/26
  *     - created by Y.Ishizuka(PieCake.inc,)
  */
 package ssac.aadl.fs.module.schema.table;
 
+import ssac.aadl.fs.module.schema.type.RuntimeSchemaValueConverter;
+import ssac.aadl.fs.module.schema.type.SchemaValueFormatException;
 import ssac.aadl.fs.module.schema.type.SchemaValueType;
 
 /**
  * CSV 形式での入力列データのスキーマを保持するクラス。
+ * <p>{@link #setValueFromString(RuntimeSchemaValueConverter, String)} で設定された入力文字列は、
+ * 値が最初に参照された時点でデータ型に対応する値に変換される。
+ * そのため、変換できない文字列であっても、値が参照されなければ変換エラーとはならない。
+ * 汎用フィルタでは、結合条件により除外されたレコードの、結合条件で参照されないフィールドの値は変換されず、
+ * 変換エラーは報告されない(3.3.1 より前は、参照されているすべてのフィールドを全レコードで変換していた)。
  * 
- * @version 3.2.0
+ * @version 3.3.1
  * @since 3.2.0
  */
 public class SchemaInputCsvDataField extends SchemaCsvDataField
@@ -43,6 +52,11 @@ public class SchemaInputCsvDataField extends SchemaCsvDataField
 	// Fields
 	//------------------------------------------------------------
 
+	/** 未変換の入力文字列 **/
+	private String						_pendingText;
+	/** 未変換の入力文字列の変換に用いるオブジェクト、変換済みの場合は <tt>null</tt> **/
+	private RuntimeSchemaValueConverter	_pendingConverter;
+
 	//------------------------------------------------------------
 	// Constructions
 	//------------------------------------------------------------
@@ -67,10 +81,95 @@ public class SchemaInputCsvDataField extends SchemaCsvDataField
 	// Public interfaces
 	//------------------------------------------------------------
 
+	/**
+	 * 指定された文字列を、このフィールドの未変換の値として設定する。
+	 * 文字列は、このフィールドの値が最初に参照された時点で、指定されたオブジェクトにより変換される。
+	 * 変換に失敗した場合の例外は、このメソッドではなく値を参照したメソッドから送出される。
+	 * @param converter	文字列の変換に用いるオブジェクト
+	 * @param strValue	入力文字列
+	 * @throws NullPointerException	<em>converter</em> が <tt>null</tt> の場合
+	 * @since 3.3.1
+	 */
+	public void setValueFromString(RuntimeSchemaValueConverter converter, String strValue) {
+		if (converter == null)
+			throw new NullPointerException("converter is null.");
+		super.setValue(null);
+		_pendingText      = strValue;
+		_pendingConverter = converter;
+	}
+
+	/**
+	 * このフィールドの値が変換済みかどうかを判定する。
+	 * @return	未変換の文字列を保持していない場合は <tt>true</tt>
+	 * @since 3.3.1
+	 */
+	public boolean isValueConverted() {
+		return (_pendingConverter == null);
+	}
+
+	/**
+	 * このオブジェクトが値を持つかどうかを判定する。
+	 * 未変換の文字列を保持している場合は、変換してから判定する。
+	 * @throws RuntimeException	未変換の文字列の変換に失敗した場合
+	 */
+	@Override
+	public boolean hasValue() {
+		ensureValueConverted();
+		return super.hasValue();
+	}
+
+	/**
+	 * このオブジェクトが保持する値を取得する。
+	 * 未変換の文字列を保持している場合は、変換してから返す。
+	 * @throws RuntimeException	未変換の文字列の変換に失敗した場合
+	 */
+	@Override
+	public Object getValue() {
+		ensureValueConverted();
+		return super.getValue();
+	}
+
+	@Override
+	public void setValue(Object newValue) {
+		clearPendingValue();
+		super.setValue(newValue);
+	}
+
+	@Override
+	public boolean updateValue(Object newValue) {
+		ensureValueConverted();
+		return super.updateValue(newValue);
+	}
+
 	//------------------------------------------------------------
 	// Internal methods
 	//------------------------------------------------------------
 
+	protected void clearPendingValue() {
+		_pendingText      = null;
+		_pendingConverter = null;
+	}
+
+	/**
+	 * 未変換の文字列を保持している場合、データ型に応じた値に変換して設定する。
+	 * @throws RuntimeException	変換に失敗した場合
+	 */
+	protected void ensureValueConverted() {
+		if (_pendingConverter != null) {
+			RuntimeSchemaValueConverter converter = _pendingConverter;
+			String strValue = _pendingText;
+			clearPendingValue();
+			try {
+				super.setValue(converter.convertFromString(strValue));
+			} catch (SchemaValueFormatException ex) {
+				// 変換エラー
+				String msg = String.format("Failed to convert input field string to %s type : %s <- %s",
+						getValueType(), toVariableNameString(), strValue);
+				throw new RuntimeException(msg, ex);
+			}
+		}
+	}
+
 	//------------------------------------------------------------
 	// Inner classes
 	//------------------------------------------------------------
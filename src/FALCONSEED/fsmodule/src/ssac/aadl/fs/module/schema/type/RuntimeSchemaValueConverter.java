@@ -0,0 +1,147 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  Copyright 2007-2016  SSAC(Systems of Social Accounting Consortium)
+ *  <author> Yasunari Ishizuka (PieCake,Inc.)
+ *  <author> Hiroshi Deguchi (TOKYO INSTITUTE OF TECHNOLOGY)
+ *  <author> Yuji Onuki (Statistics Bureau)
+ *  <author> Shungo Sakaki (Tokyo University of Technology)
+ *  <author> Akira Sasaki (HOSEI UNIVERSITY)
+ *  <author> Hideki Tanuma (TOKYO INSTITUTE OF TECHNOLOGY)
+ */
+/*
+ * @(#)RuntimeSchemaValueConverter.java	3.3.1	2026/10/18
+ *     - created
+ */
+package ssac.aadl.fs.module.schema.type;
+
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 汎用フィルタの実行時に、入力列の文字列を特定のデータ型の値へ変換するクラス。
+ * <p>このクラスは、変換済みの値を文字列ごとに最大 {@link #MAX_CACHE_ENTRIES} 件保持し、
+ * 同一の文字列の変換では保持している値を返す。
+ * 保持する値が {@link java.util.Calendar} の場合は、複製を返す。
+ * <p>このクラスは同期化されない。
+ *
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class RuntimeSchemaValueConverter
+{
+	//------------------------------------------------------------
+	// Constants
+	//------------------------------------------------------------
+
+	/** 保持する変換済みの値の最大数 **/
+	static public final int	MAX_CACHE_ENTRIES	= 4096;
+
+	//------------------------------------------------------------
+	// Fields
+	//------------------------------------------------------------
+
+	/** 変換に用いる実行時のデータ型管理オブジェクト **/
+	private final RuntimeSchemaValueTypeManager	_manager;
+	/** 変換後のデータ型 **/
+	private final SchemaValueType				_valueType;
+	/** 変換前の文字列と変換済みの値のマップ **/
+	private final Map<String, Object>			_cache;
+
+	//------------------------------------------------------------
+	// Constructions
+	//------------------------------------------------------------
+
+	/**
+	 * 指定されたデータ型へ変換する、新しいインスタンスを生成する。
+	 * @param manager	変換に用いる実行時のデータ型管理オブジェクト
+	 * @param valueType	変換後のデータ型
+	 * @throws NullPointerException	引数が <tt>null</tt> の場合
+	 */
+	public RuntimeSchemaValueConverter(RuntimeSchemaValueTypeManager manager, SchemaValueType valueType) {
+		if (manager == null)
+			throw new NullPointerException("manager is null.");
+		if (valueType == null)
+			throw new NullPointerException("valueType is null.");
+		_manager   = manager;
+		_valueType = valueType;
+		_cache = new LinkedHashMap<String, Object>(64, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+				return (size() > MAX_CACHE_ENTRIES);
+			}
+		};
+	}
+
+	//------------------------------------------------------------
+	// Public interfaces
+	//------------------------------------------------------------
+
+	/**
+	 * 変換後のデータ型を返す。
+	 */
+	public SchemaValueType getValueType() {
+		return _valueType;
+	}
+
+	/**
+	 * 指定された文字列を、このオブジェクトのデータ型に応じた値に変換する。
+	 * @param targetvalue	変換対象の文字列
+	 * @return	文字列から変換された値のオブジェクト
+	 * @throws SchemaValueFormatException	変換に失敗した場合
+	 */
+	public Object convertFromString(String targetvalue) throws SchemaValueFormatException
+	{
+		if (targetvalue == null) {
+			return _manager.convertFromString(_valueType, null);
+		}
+
+		Object value = _cache.get(targetvalue);
+		if (value == null) {
+			value = _manager.convertFromString(_valueType, targetvalue);
+			if (value != null) {
+				_cache.put(targetvalue, copyValue(value));
+			}
+			return value;
+		}
+		return copyValue(value);
+	}
+
+	/**
+	 * 保持している変換済みの値をすべて破棄する。
+	 */
+	public void clearCache() {
+		_cache.clear();
+	}
+
+	//------------------------------------------------------------
+	// Internal methods
+	//------------------------------------------------------------
+
+	/**
+	 * 変更可能な値であれば複製を返す。
+	 */
+	static protected Object copyValue(Object value) {
+		if (value instanceof Calendar) {
+			return ((Calendar)value).clone();
+		} else {
+			return value;
+		}
+	}
+
+	//------------------------------------------------------------
+	// Inner classes
+	//------------------------------------------------------------
+}